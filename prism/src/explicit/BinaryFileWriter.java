@@ -0,0 +1,198 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Buffered, sequential writer for binary files that are later read with {@link MappedFile}
+ * (little-endian, with explicit alignment, and an optional checksum of the contents).
+ */
+class BinaryFileWriter implements Closeable
+{
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(MappedFile.ORDER);
+	/** Current position in the file */
+	private long position = 0;
+	/** Checksum of the contents written since {@link #startChecksum()} (null if not started) */
+	private CRC32C crc = null;
+
+	/**
+	 * Open file {@code file} for writing (overwriting it if it exists).
+	 */
+	BinaryFileWriter(File file) throws IOException
+	{
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Get the current position in the file.
+	 */
+	long position()
+	{
+		return position;
+	}
+
+	private void ensure(int n) throws IOException
+	{
+		if (buffer.remaining() < n) {
+			flush();
+		}
+	}
+
+	void put(byte b) throws IOException
+	{
+		ensure(1);
+		buffer.put(b);
+		position++;
+	}
+
+	void putInt(int i) throws IOException
+	{
+		ensure(4);
+		buffer.putInt(i);
+		position += 4;
+	}
+
+	void putLong(long l) throws IOException
+	{
+		ensure(8);
+		buffer.putLong(l);
+		position += 8;
+	}
+
+	void putDouble(double d) throws IOException
+	{
+		ensure(8);
+		buffer.putDouble(d);
+		position += 8;
+	}
+
+	/**
+	 * Write a string, as its length in bytes followed by its UTF-8 encoding,
+	 * then pad to a multiple of 8 bytes (see {@link MappedFile#getString(long)}).
+	 */
+	void putString(String s) throws IOException
+	{
+		byte bytes[] = s.getBytes(StandardCharsets.UTF_8);
+		putInt(bytes.length);
+		for (byte b : bytes) {
+			put(b);
+		}
+		align();
+	}
+
+	/**
+	 * Pad with zeros up to (absolute) position {@code pos}.
+	 */
+	void pad(long pos) throws IOException
+	{
+		while (position < pos) {
+			put((byte) 0);
+		}
+	}
+
+	/**
+	 * Pad with zeros up to a multiple of 8 bytes.
+	 */
+	void align() throws IOException
+	{
+		pad(MappedFile.align(position));
+	}
+
+	/**
+	 * Start computing a (CRC32C) checksum of everything written from now on.
+	 */
+	void startChecksum() throws IOException
+	{
+		flush();
+		crc = new CRC32C();
+	}
+
+	/**
+	 * Get the checksum of everything written since {@link #startChecksum()}.
+	 */
+	long getChecksum() throws IOException
+	{
+		flush();
+		return crc.getValue();
+	}
+
+	/**
+	 * Overwrite a long at (absolute) position {@code pos}, which must have already been written.
+	 * This is not included in any checksum.
+	 */
+	void putLongAt(long pos, long l) throws IOException
+	{
+		flush();
+		ByteBuffer bytes = ByteBuffer.allocate(8).order(MappedFile.ORDER).putLong(l);
+		bytes.flip();
+		while (bytes.hasRemaining()) {
+			channel.write(bytes, pos + bytes.position());
+		}
+	}
+
+	/**
+	 * Append the contents of file {@code file}. This is not included in any checksum.
+	 */
+	void append(File file) throws IOException
+	{
+		flush();
+		try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = in.size();
+			for (long done = 0; done < size;) {
+				done += channel.transferFrom(in, position + done, size - done);
+			}
+			position += size;
+			channel.position(position);
+		}
+	}
+
+	void flush() throws IOException
+	{
+		buffer.flip();
+		if (crc != null) {
+			crc.update(buffer.duplicate());
+		}
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		flush();
+		channel.close();
+	}
+}
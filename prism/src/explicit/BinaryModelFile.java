@@ -0,0 +1,868 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import parser.State;
+import parser.VarList;
+import parser.ast.DeclarationBool;
+import parser.ast.DeclarationInt;
+import parser.ast.DeclarationType;
+import parser.ast.Expression;
+import parser.type.Type;
+import parser.type.TypeBool;
+import parser.type.TypeInt;
+import prism.Evaluator;
+import prism.ModelInfo;
+import prism.ModelType;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+import prism.RewardGenerator;
+
+/**
+ * Binary file storage of an explicit-state model (DTMC, CTMC or MDP), i.e.,
+ * an alternative to the text-based .tra/.sta/.lab/.srew files which is much faster
+ * to write and read. Import maps the file into memory and, without any parsing,
+ * either copies the sparse matrix arrays directly into a {@link DTMCSparse} or {@link MDPSparse}
+ * (or a {@link CTMCSimple}), or uses them in place as a {@link DTMCSparseMapped},
+ * {@link CTMCSparseMapped} or {@link MDPSparseMapped}, which avoids the copy
+ * and the limits of on-heap arrays (see {@link #buildModel(boolean)}).
+ * <br><br>
+ * All values are little-endian. The file starts with a header of {@link #HEADER_SIZE} bytes:
+ * magic number, format version (int), reserved (int), file size (long) and
+ * a CRC32C checksum of the rest of the file (long). Since the checksum requires a scan of the
+ * whole file, it is only checked on request or when the model is copied (see {@link #verifyChecksum()}). This is followed by a list of sections,
+ * each consisting of the payload, padded to a multiple of 8 bytes, followed by an id (int),
+ * reserved (int) and the payload size in bytes (long). This means that the file can be written
+ * in a single pass; sections are found by reading backwards from the end of the file.
+ * Strings are stored as a length in bytes (int) and UTF-8 encoding, padded to a multiple of 8 bytes.
+ * Unknown sections are ignored. The sections are:
+ * <ul>
+ * <li> model (required): numStates, numChoices, maxNumChoices, reserved (ints),
+ *      numTransitions (long), model type (string)
+ * <li> variables: number of variables (int), then, for each, type (0=int, 1=bool),
+ *      lower bound, upper bound (ints) and name (string)
+ * <li> states: variable values for each state: int[numStates * numVars]
+ * <li> initial states, deadlock states: count (int) and state indices (int[])
+ * <li> transitions (required): index of first choice for each state: int[numStates+1],
+ *      padded; index of first transition for each choice: long[numChoices+1];
+ *      target states: int[numTransitions], padded; probabilities/rates: double[numTransitions].
+ *      For DTMCs/CTMCs, there is exactly one choice per state.
+ * <li> actions (MDPs only): index of action for each choice (-1 if none): int[numChoices],
+ *      then the number of distinct actions (int), padded, then each action (string)
+ * <li> labels: number of labels (int), padded, then, for each,
+ *      name (string), number of states (int) and state indices (int[]), padded
+ * <li> state rewards: number of reward structures (int), padded, then, for each,
+ *      name (string) and rewards: double[numStates]
+ * </ul>
+ * Actions are stored as strings, so, after import, all non-null actions are {@code String}s.
+ */
+public class BinaryModelFile
+{
+	/** Magic number at the start of the file ("PRISMBIN") */
+	public static final long MAGIC = 0x4E49424D53495250L;
+	/** Version of the file format */
+	public static final int VERSION = 1;
+	/** Size of the file header, in bytes */
+	public static final int HEADER_SIZE = 32;
+
+	// Section ids
+	private static final int SECTION_MODEL = 1;
+	private static final int SECTION_VARIABLES = 2;
+	private static final int SECTION_STATES = 3;
+	private static final int SECTION_INITIAL = 4;
+	private static final int SECTION_DEADLOCKS = 5;
+	private static final int SECTION_TRANSITIONS = 6;
+	private static final int SECTION_ACTIONS = 7;
+	private static final int SECTION_LABELS = 8;
+	private static final int SECTION_REWARDS = 9;
+	private static final int NUM_SECTIONS = 10;
+
+	// Variable types
+	private static final int VAR_INT = 0;
+	private static final int VAR_BOOL = 1;
+
+	/** The mapped file */
+	private MappedFile mapped;
+	/** Offset of the payload of each section (-1 if not present), indexed by section id */
+	private long sections[];
+	/** Has the checksum of the file been verified? */
+	private boolean checksumVerified = false;
+
+	// Info read from the file
+	private ModelType modelType;
+	private int numStates;
+	private int numChoices;
+	private int maxNumChoices;
+	private long numTransitions;
+	private List<String> varNames;
+	private List<Type> varTypes;
+	private int varMins[];
+	private int varMaxs[];
+	private List<String> labelNames;
+	private List<String> rewardNames;
+	/** Offsets of the labels/rewards (payload of each one, after the name) */
+	private List<Long> labelOffsets;
+	private List<Long> rewardOffsets;
+
+	// Writing
+
+	/**
+	 * Export a model to a binary file. The model must be a DTMC, CTMC or MDP
+	 * with probabilities/rates of type Double. States are included if present
+	 * (and if all variables are integers or Booleans), as are initial/deadlock states.
+	 * @param model The model
+	 * @param varNames Names of the variables in the model's states (if null, taken from the model's VarList, if present)
+	 * @param labels Names and states of labels to include (may be null)
+	 * @param stateRewards Names and values of state reward structures to include (may be null)
+	 * @param file The file to write to
+	 */
+	public static void write(Model<?> model, List<String> varNames, Map<String, BitSet> labels, Map<String, double[]> stateRewards, File file) throws PrismException
+	{
+		ModelType modelType = model.getModelType();
+		if (modelType != ModelType.DTMC && modelType != ModelType.CTMC && modelType != ModelType.MDP) {
+			throw new PrismNotSupportedException("Binary export is not supported for " + modelType + "s");
+		}
+		if (!(model.getEvaluator().one() instanceof Double)) {
+			throw new PrismNotSupportedException("Binary export is only supported for models with double-valued probabilities/rates");
+		}
+		boolean nondet = modelType.nondeterministic();
+		int numStates = model.getNumStates();
+		if (varNames == null && model.getVarList() != null) {
+			VarList varList = model.getVarList();
+			varNames = new ArrayList<>();
+			for (int v = 0; v < varList.getNumVars(); v++) {
+				varNames.add(varList.getName(v));
+			}
+		}
+		int varInfo[][] = computeVarInfo(model.getStatesList(), varNames);
+		try (BinaryFileWriter out = new BinaryFileWriter(file)) {
+			// Header (file size/checksum are filled in at the end)
+			out.putLong(MAGIC);
+			out.putInt(VERSION);
+			out.putInt(0);
+			out.putLong(0);
+			out.putLong(0);
+			out.startChecksum();
+			// Model info
+			int numChoices = 0;
+			int maxNumChoices = 0;
+			long numTransitions = 0;
+			for (int s = 0; s < numStates; s++) {
+				int nc = nondet ? ((MDP<?>) model).getNumChoices(s) : 1;
+				numChoices += nc;
+				maxNumChoices = Math.max(maxNumChoices, nc);
+				for (int i = 0; i < nc; i++) {
+					numTransitions += nondet ? ((MDP<?>) model).getNumTransitions(s, i) : model.getNumTransitions(s);
+				}
+			}
+			long start = startSection(out);
+			out.putInt(numStates);
+			out.putInt(numChoices);
+			out.putInt(maxNumChoices);
+			out.putInt(0);
+			out.putLong(numTransitions);
+			out.putString(modelType.name());
+			endSection(out, SECTION_MODEL, start);
+			// Variables/states
+			if (varInfo != null) {
+				List<State> statesList = model.getStatesList();
+				int numVars = varNames.size();
+				start = startSection(out);
+				out.putInt(numVars);
+				out.putInt(0);
+				for (int v = 0; v < numVars; v++) {
+					out.putInt(varInfo[0][v]);
+					out.putInt(varInfo[1][v]);
+					out.putInt(varInfo[2][v]);
+					out.putInt(0);
+					out.putString(varNames.get(v));
+				}
+				endSection(out, SECTION_VARIABLES, start);
+				start = startSection(out);
+				for (int s = 0; s < numStates; s++) {
+					Object values[] = statesList.get(s).varValues;
+					for (int v = 0; v < numVars; v++) {
+						out.putInt(values[v] instanceof Boolean ? ((Boolean) values[v] ? 1 : 0) : (Integer) values[v]);
+					}
+				}
+				endSection(out, SECTION_STATES, start);
+			}
+			// Initial/deadlock states
+			start = startSection(out);
+			out.putInt(model.getNumInitialStates());
+			for (int s : model.getInitialStates()) {
+				out.putInt(s);
+			}
+			endSection(out, SECTION_INITIAL, start);
+			start = startSection(out);
+			out.putInt(model.getNumDeadlockStates());
+			for (int s : model.getDeadlockStates()) {
+				out.putInt(s);
+			}
+			endSection(out, SECTION_DEADLOCKS, start);
+			// Transitions
+			start = startSection(out);
+			int choice = 0;
+			for (int s = 0; s < numStates; s++) {
+				out.putInt(choice);
+				choice += nondet ? ((MDP<?>) model).getNumChoices(s) : 1;
+			}
+			out.putInt(choice);
+			out.align();
+			long trans = 0;
+			for (int s = 0; s < numStates; s++) {
+				if (nondet) {
+					for (int i = 0, nc = ((MDP<?>) model).getNumChoices(s); i < nc; i++) {
+						out.putLong(trans);
+						trans += ((MDP<?>) model).getNumTransitions(s, i);
+					}
+				} else {
+					out.putLong(trans);
+					trans += model.getNumTransitions(s);
+				}
+			}
+			out.putLong(trans);
+			for (int s = 0; s < numStates; s++) {
+				for (int i = 0, nc = nondet ? ((MDP<?>) model).getNumChoices(s) : 1; i < nc; i++) {
+					for (Iterator<? extends Entry<Integer, ?>> it = getTransitionsIterator(model, s, i); it.hasNext();) {
+						out.putInt(it.next().getKey());
+					}
+				}
+			}
+			out.align();
+			for (int s = 0; s < numStates; s++) {
+				for (int i = 0, nc = nondet ? ((MDP<?>) model).getNumChoices(s) : 1; i < nc; i++) {
+					for (Iterator<? extends Entry<Integer, ?>> it = getTransitionsIterator(model, s, i); it.hasNext();) {
+						out.putDouble((Double) it.next().getValue());
+					}
+				}
+			}
+			endSection(out, SECTION_TRANSITIONS, start);
+			// Actions
+			if (nondet) {
+				writeActions(out, (MDP<?>) model);
+			}
+			// Labels (init/deadlock are stored separately)
+			if (labels != null) {
+				start = startSection(out);
+				int numLabels = 0;
+				for (String name : labels.keySet()) {
+					if (!"init".equals(name) && !"deadlock".equals(name)) {
+						numLabels++;
+					}
+				}
+				out.putInt(numLabels);
+				out.align();
+				for (Map.Entry<String, BitSet> label : labels.entrySet()) {
+					if ("init".equals(label.getKey()) || "deadlock".equals(label.getKey())) {
+						continue;
+					}
+					BitSet bs = label.getValue();
+					out.putString(label.getKey());
+					out.putInt(bs.cardinality());
+					for (int s = bs.nextSetBit(0); s >= 0; s = bs.nextSetBit(s + 1)) {
+						out.putInt(s);
+					}
+					out.align();
+				}
+				endSection(out, SECTION_LABELS, start);
+			}
+			// State rewards
+			if (stateRewards != null) {
+				start = startSection(out);
+				out.putInt(stateRewards.size());
+				out.align();
+				for (Map.Entry<String, double[]> rewards : stateRewards.entrySet()) {
+					out.putString(rewards.getKey());
+					for (int s = 0; s < numStates; s++) {
+						out.putDouble(rewards.getValue()[s]);
+					}
+				}
+				endSection(out, SECTION_REWARDS, start);
+			}
+			// Fill in file size and checksum
+			long checksum = out.getChecksum();
+			out.putLongAt(16, out.position());
+			out.putLongAt(24, checksum);
+		} catch (IOException e) {
+			throw new PrismException("Could not write model to file \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Compute the type (0=int, 1=bool) and bounds of each variable from a list of states.
+	 * Returns a 3 x numVars array, or null if states cannot be stored
+	 * (i.e., states or variable names are missing, or a variable is not an int/bool).
+	 */
+	private static int[][] computeVarInfo(List<State> statesList, List<String> varNames)
+	{
+		if (statesList == null || varNames == null || statesList.isEmpty()) {
+			return null;
+		}
+		int numVars = varNames.size();
+		int info[][] = new int[3][numVars];
+		for (int v = 0; v < numVars; v++) {
+			Object value = statesList.get(0).varValues[v];
+			if (value instanceof Integer) {
+				info[0][v] = VAR_INT;
+				info[1][v] = Integer.MAX_VALUE;
+				info[2][v] = Integer.MIN_VALUE;
+			} else if (value instanceof Boolean) {
+				info[0][v] = VAR_BOOL;
+				info[1][v] = 0;
+				info[2][v] = 1;
+			} else {
+				return null;
+			}
+		}
+		for (State state : statesList) {
+			if (state.varValues.length != numVars) {
+				return null;
+			}
+			for (int v = 0; v < numVars; v++) {
+				Object value = state.varValues[v];
+				if (info[0][v] == VAR_INT && value instanceof Integer) {
+					info[1][v] = Math.min(info[1][v], (Integer) value);
+					info[2][v] = Math.max(info[2][v], (Integer) value);
+				} else if (!(info[0][v] == VAR_BOOL && value instanceof Boolean)) {
+					return null;
+				}
+			}
+		}
+		return info;
+	}
+
+	/**
+	 * Get an iterator over the transitions of choice i of state s (for an MDP)
+	 * or of state s (for a DTMC/CTMC, where i is ignored).
+	 */
+	private static Iterator<? extends Entry<Integer, ?>> getTransitionsIterator(Model<?> model, int s, int i)
+	{
+		if (model instanceof MDP) {
+			return ((MDP<?>) model).getTransitionsIterator(s, i);
+		} else {
+			return ((DTMC<?>) model).getTransitionsIterator(s);
+		}
+	}
+
+	/**
+	 * Write the actions section for an MDP (if there are any non-null actions).
+	 */
+	private static void writeActions(BinaryFileWriter out, MDP<?> mdp) throws IOException
+	{
+		int numStates = mdp.getNumStates();
+		boolean hasActions = false;
+		for (int s = 0; s < numStates && !hasActions; s++) {
+			for (int i = 0, nc = mdp.getNumChoices(s); i < nc && !hasActions; i++) {
+				hasActions = mdp.getAction(s, i) != null;
+			}
+		}
+		if (!hasActions) {
+			return;
+		}
+		long start = startSection(out);
+		Map<String, Integer> actionIndices = new LinkedHashMap<>();
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, nc = mdp.getNumChoices(s); i < nc; i++) {
+				Object action = mdp.getAction(s, i);
+				out.putInt(action == null ? -1 : actionIndices.computeIfAbsent(action.toString(), a -> actionIndices.size()));
+			}
+		}
+		out.putInt(actionIndices.size());
+		out.align();
+		for (String action : actionIndices.keySet()) {
+			out.putString(action);
+		}
+		endSection(out, SECTION_ACTIONS, start);
+	}
+
+	/**
+	 * Start a section, returning the position of its payload.
+	 */
+	private static long startSection(BinaryFileWriter out) throws IOException
+	{
+		out.align();
+		return out.position();
+	}
+
+	/**
+	 * Finish a section (whose payload started at {@code start}): pad it and write its id and size.
+	 */
+	private static void endSection(BinaryFileWriter out, int id, long start) throws IOException
+	{
+		long size = out.position() - start;
+		out.align();
+		out.putInt(id);
+		out.putInt(0);
+		out.putLong(size);
+	}
+
+	// Reading
+
+	/**
+	 * Open a binary model file, checking its header/structure and reading the model/variable/label/reward info.
+	 * The checksum of the whole file is not verified at this point (see {@link #verifyChecksum()}).
+	 * The model itself is built with {@link #buildModel()}.
+	 */
+	public BinaryModelFile(File file) throws PrismException
+	{
+		this(file, false);
+	}
+
+	/**
+	 * Open a binary model file, checking its header/structure and reading the model/variable/label/reward info.
+	 * If {@code verify} is true, the checksum of the whole file is also verified.
+	 * The model itself is built with {@link #buildModel()}.
+	 */
+	public BinaryModelFile(File file, boolean verify) throws PrismException
+	{
+		try {
+			mapped = new MappedFile(file);
+		} catch (IOException e) {
+			throw new PrismException("Could not read binary model file \"" + file + "\": " + e.getMessage());
+		}
+		// Check header
+		long size = mapped.size();
+		if (size < HEADER_SIZE || mapped.getLong(0) != MAGIC) {
+			throw new PrismException("File \"" + file + "\" is not a binary model file");
+		}
+		if (mapped.getInt(8) != VERSION) {
+			throw new PrismException("Unsupported version (" + mapped.getInt(8) + ") of binary model file \"" + file + "\"");
+		}
+		if (mapped.getLong(16) != size) {
+			throw new PrismException("Binary model file \"" + file + "\" is truncated or corrupted");
+		}
+		if (verify) {
+			verifyChecksum();
+		}
+		// Find sections
+		sections = new long[NUM_SECTIONS];
+		for (int id = 0; id < NUM_SECTIONS; id++) {
+			sections[id] = -1;
+		}
+		for (long pos = size; pos > HEADER_SIZE;) {
+			int id = mapped.getInt(pos - 16);
+			long length = mapped.getLong(pos - 8);
+			long start = pos - 16 - MappedFile.align(length);
+			if (length < 0 || start < HEADER_SIZE) {
+				throw new PrismException("Binary model file \"" + file + "\" is corrupted");
+			}
+			if (id > 0 && id < NUM_SECTIONS) {
+				sections[id] = start;
+			}
+			pos = start;
+		}
+		if (sections[SECTION_MODEL] == -1 || sections[SECTION_TRANSITIONS] == -1) {
+			throw new PrismException("Binary model file \"" + file + "\" is missing model/transition information");
+		}
+		// Read model info
+		long pos = sections[SECTION_MODEL];
+		numStates = mapped.getInt(pos);
+		numChoices = mapped.getInt(pos + 4);
+		maxNumChoices = mapped.getInt(pos + 8);
+		numTransitions = mapped.getLong(pos + 16);
+		try {
+			modelType = ModelType.valueOf(mapped.getString(pos + 24));
+		} catch (IllegalArgumentException e) {
+			throw new PrismException("Unknown model type in binary model file \"" + file + "\"");
+		}
+		readVarInfo();
+		// Read label/reward names (and note where they are)
+		labelNames = new ArrayList<>();
+		labelOffsets = new ArrayList<>();
+		if ((pos = sections[SECTION_LABELS]) != -1) {
+			int numLabels = mapped.getInt(pos);
+			pos += 8;
+			for (int l = 0; l < numLabels; l++) {
+				labelNames.add(mapped.getString(pos));
+				pos += mapped.getStringSize(pos);
+				labelOffsets.add(pos);
+				pos = MappedFile.align(pos + 4 + 4L * mapped.getInt(pos));
+			}
+		}
+		rewardNames = new ArrayList<>();
+		rewardOffsets = new ArrayList<>();
+		if ((pos = sections[SECTION_REWARDS]) != -1) {
+			int numRewards = mapped.getInt(pos);
+			pos += 8;
+			for (int r = 0; r < numRewards; r++) {
+				rewardNames.add(mapped.getString(pos));
+				pos += mapped.getStringSize(pos);
+				rewardOffsets.add(pos);
+				pos += 8L * numStates;
+			}
+		}
+	}
+
+	/**
+	 * Verify the CRC32C checksum of the file, throwing an exception if it does not match.
+	 * This requires a scan of the whole file, so is done only once.
+	 */
+	public void verifyChecksum() throws PrismException
+	{
+		if (checksumVerified) {
+			return;
+		}
+		if (mapped.checksum(HEADER_SIZE, mapped.size()) != mapped.getLong(24)) {
+			throw new PrismException("Checksum mismatch in binary model file \"" + mapped.getFile() + "\"");
+		}
+		checksumVerified = true;
+	}
+
+	/**
+	 * Read the variable info (or, if there is none, set up a single variable x,
+	 * whose value is the state index, as for import from text files without a states file).
+	 */
+	private void readVarInfo()
+	{
+		long pos = sections[SECTION_VARIABLES];
+		if (pos == -1 || sections[SECTION_STATES] == -1) {
+			varNames = Collections.singletonList("x");
+			varTypes = Collections.singletonList(TypeInt.getInstance());
+			varMins = new int[] { 0 };
+			varMaxs = new int[] { Math.max(numStates - 1, 1) };
+			return;
+		}
+		int numVars = mapped.getInt(pos);
+		pos += 8;
+		varNames = new ArrayList<>(numVars);
+		varTypes = new ArrayList<>(numVars);
+		varMins = new int[numVars];
+		varMaxs = new int[numVars];
+		for (int v = 0; v < numVars; v++) {
+			varTypes.add(mapped.getInt(pos) == VAR_BOOL ? TypeBool.getInstance() : TypeInt.getInstance());
+			varMins[v] = mapped.getInt(pos + 4);
+			varMaxs[v] = mapped.getInt(pos + 8);
+			// We don't allow zero-range variables
+			if (varMins[v] == varMaxs[v]) {
+				varMaxs[v]++;
+			}
+			pos += 16;
+			varNames.add(mapped.getString(pos));
+			pos += mapped.getStringSize(pos);
+		}
+	}
+
+	/**
+	 * Get the type of the model in the file.
+	 */
+	public ModelType getModelType()
+	{
+		return modelType;
+	}
+
+	/**
+	 * Get the number of states of the model in the file.
+	 */
+	public int getNumStates()
+	{
+		return numStates;
+	}
+
+	/**
+	 * Get a ModelInfo object for the model in the file
+	 * (model type, variables and labels).
+	 */
+	public ModelInfo getModelInfo()
+	{
+		return new ModelInfo()
+		{
+			@Override
+			public ModelType getModelType()
+			{
+				return modelType;
+			}
+
+			@Override
+			public List<String> getVarNames()
+			{
+				return varNames;
+			}
+
+			@Override
+			public List<Type> getVarTypes()
+			{
+				return varTypes;
+			}
+
+			@Override
+			public DeclarationType getVarDeclarationType(int i) throws PrismException
+			{
+				if (varTypes.get(i) instanceof TypeInt) {
+					return new DeclarationInt(Expression.Int(varMins[i]), Expression.Int(varMaxs[i]));
+				} else {
+					return new DeclarationBool();
+				}
+			}
+
+			@Override
+			public List<String> getLabelNames()
+			{
+				return labelNames;
+			}
+		};
+	}
+
+	/**
+	 * Get a RewardGenerator for the state rewards stored in the file
+	 * (rewards are looked up by state index and read on demand).
+	 */
+	public RewardGenerator<Double> getRewardGenerator()
+	{
+		return new RewardGenerator<Double>()
+		{
+			private final double stateRewards[][] = new double[rewardNames.size()][];
+
+			@Override
+			public List<String> getRewardStructNames()
+			{
+				return rewardNames;
+			}
+
+			@Override
+			public boolean rewardStructHasTransitionRewards(int r)
+			{
+				return false;
+			}
+
+			@Override
+			public boolean isRewardLookupSupported(RewardLookup lookup)
+			{
+				return lookup == RewardLookup.BY_STATE_INDEX;
+			}
+
+			@Override
+			public Double getStateReward(int r, int s) throws PrismException
+			{
+				if (stateRewards[r] == null) {
+					stateRewards[r] = new double[numStates];
+					mapped.getDoubles(rewardOffsets.get(r), stateRewards[r]);
+				}
+				return stateRewards[r][s];
+			}
+		};
+	}
+
+	/**
+	 * Check whether a file is a binary model file, i.e., whether it starts with the right magic number.
+	 */
+	public static boolean isBinaryModelFile(File file)
+	{
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return Long.reverseBytes(in.readLong()) == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Build the model stored in the file, copying the transitions onto the heap
+	 * (except for models that are too large for this, see {@link #buildModel(boolean)}).
+	 */
+	public ModelExplicit<Double> buildModel() throws PrismException
+	{
+		return buildModel(false);
+	}
+
+	/**
+	 * Build the model stored in the file.
+	 * If {@code inPlace} is true, or the model has too many transitions to be stored in arrays,
+	 * the model is returned as a {@link DTMCSparseMapped}, {@link CTMCSparseMapped} or {@link MDPSparseMapped}
+	 * that uses the transitions stored in the (mapped) file directly, i.e., without copying them onto the heap.
+	 * Otherwise, the transitions are copied, and, since this reads the whole file anyway, the checksum is verified first.
+	 */
+	public ModelExplicit<Double> buildModel(boolean inPlace) throws PrismException
+	{
+		long pos = sections[SECTION_TRANSITIONS];
+		if (!modelType.nondeterministic() && numChoices != numStates) {
+			throw new PrismException("Invalid transitions in binary model file \"" + mapped.getFile() + "\"");
+		}
+		ModelExplicit<Double> model;
+		boolean mapModel = inPlace || numTransitions > Integer.MAX_VALUE - 8;
+		if (mapModel) {
+			model = buildModelInPlace(pos);
+		} else {
+			verifyChecksum();
+			model = buildModelOnHeap(pos);
+		}
+		// Initial/deadlock states
+		if ((pos = sections[SECTION_INITIAL]) != -1) {
+			for (int k = 0, n = mapped.getInt(pos); k < n; k++) {
+				model.addInitialState(mapped.getInt(pos + 4 + 4L * k));
+			}
+		}
+		if (model.getNumInitialStates() == 0) {
+			// no init info, we choose the first state
+			model.addInitialState(0);
+		}
+		if ((pos = sections[SECTION_DEADLOCKS]) != -1) {
+			for (int k = 0, n = mapped.getInt(pos); k < n; k++) {
+				model.addDeadlockState(mapped.getInt(pos + 4 + 4L * k));
+			}
+		}
+		// States and labels
+		model.setStatesList(readStates());
+		for (int l = 0; l < labelNames.size(); l++) {
+			pos = labelOffsets.get(l);
+			BitSet bs = new BitSet(numStates);
+			for (int k = 0, n = mapped.getInt(pos); k < n; k++) {
+				bs.set(mapped.getInt(pos + 4 + 4L * k));
+			}
+			model.addLabel(labelNames.get(l), bs);
+		}
+		// CTMCs are copied as a DTMCSparse containing the rates; copy to a CTMC
+		if (modelType == ModelType.CTMC && !mapModel) {
+			model = new CTMCSimple<>((DTMC<Double>) model, r -> r, Evaluator.forDouble());
+		}
+		return model;
+	}
+
+	/**
+	 * Build the model stored in the file, as a {@link DTMCSparseMapped}, {@link CTMCSparseMapped}
+	 * or {@link MDPSparseMapped}, using the transitions section (starting at {@code pos}) in place.
+	 */
+	private ModelExplicit<Double> buildModelInPlace(long pos) throws PrismException
+	{
+		switch (modelType) {
+		case DTMC:
+			return new DTMCSparseMapped(mapped, pos, numStates, numTransitions);
+		case CTMC:
+			return new CTMCSparseMapped(mapped, pos, numStates, numTransitions);
+		case MDP:
+			return MDPSparseMapped.wrap(mapped, pos, numStates, numChoices, maxNumChoices, numTransitions, readActions());
+		default:
+			throw new PrismNotSupportedException("Binary import is not supported for " + modelType + "s");
+		}
+	}
+
+	/**
+	 * Build the model stored in the file, as a {@link DTMCSparse} or {@link MDPSparse},
+	 * by copying the transitions section (starting at {@code pos}) into arrays.
+	 */
+	private ModelExplicit<Double> buildModelOnHeap(long pos) throws PrismException
+	{
+		if (numTransitions > Integer.MAX_VALUE - 8) {
+			throw new PrismNotSupportedException("Too many transitions (" + numTransitions + ") to import model");
+		}
+		// Read transitions
+		int rowStarts[] = new int[numStates + 1];
+		mapped.getInts(pos, rowStarts);
+		pos = MappedFile.align(pos + 4L * (numStates + 1));
+		int choiceStarts[] = new int[numChoices + 1];
+		for (int j = 0; j <= numChoices; j++) {
+			choiceStarts[j] = (int) mapped.getLong(pos + 8L * j);
+		}
+		pos += 8L * (numChoices + 1);
+		int cols[] = new int[(int) numTransitions];
+		mapped.getInts(pos, cols);
+		pos = MappedFile.align(pos + 4L * numTransitions);
+		double nonZeros[] = new double[(int) numTransitions];
+		mapped.getDoubles(pos, nonZeros);
+		// Build model
+		ModelExplicit<Double> model;
+		switch (modelType) {
+		case DTMC:
+		case CTMC:
+			model = new DTMCSparse(numStates, choiceStarts, cols, nonZeros);
+			break;
+		case MDP:
+			model = new MDPSparse(numStates, rowStarts, choiceStarts, cols, nonZeros, readActions(), maxNumChoices);
+			break;
+		default:
+			throw new PrismNotSupportedException("Binary import is not supported for " + modelType + "s");
+		}
+		return model;
+	}
+
+	/**
+	 * Read the actions for each choice (or return null if none are stored).
+	 */
+	private Object[] readActions()
+	{
+		long pos = sections[SECTION_ACTIONS];
+		if (pos == -1) {
+			return null;
+		}
+		long namesPos = pos + 4L * numChoices;
+		String names[] = new String[mapped.getInt(namesPos)];
+		namesPos = MappedFile.align(namesPos + 4);
+		for (int k = 0; k < names.length; k++) {
+			names[k] = mapped.getString(namesPos);
+			namesPos += mapped.getStringSize(namesPos);
+		}
+		Object actions[] = new Object[numChoices];
+		for (int j = 0; j < numChoices; j++) {
+			int index = mapped.getInt(pos + 4L * j);
+			actions[j] = index == -1 ? null : names[index];
+		}
+		return actions;
+	}
+
+	/**
+	 * Read the list of states (or, if none are stored, create states
+	 * with a single variable x, whose value is the state index).
+	 */
+	private List<State> readStates()
+	{
+		List<State> statesList = new ArrayList<>(numStates);
+		long pos = sections[SECTION_STATES];
+		if (pos == -1 || sections[SECTION_VARIABLES] == -1) {
+			for (int s = 0; s < numStates; s++) {
+				State state = new State(1);
+				state.setValue(0, s);
+				statesList.add(state);
+			}
+			return statesList;
+		}
+		int numVars = varNames.size();
+		int values[] = new int[numVars];
+		for (int s = 0; s < numStates; s++) {
+			State state = new State(numVars);
+			for (int v = 0; v < numVars; v++, pos += 4) {
+				values[v] = mapped.getInt(pos);
+				if (varTypes.get(v) instanceof TypeBool) {
+					state.setValue(v, values[v] != 0);
+				} else {
+					state.setValue(v, values[v]);
+				}
+			}
+			statesList.add(state);
+		}
+		return statesList;
+	}
+}
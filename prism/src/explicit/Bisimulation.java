@@ -27,18 +27,31 @@
 package explicit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import explicit.rewards.MCRewards;
+import explicit.rewards.MDPRewards;
+import explicit.rewards.Rewards;
 import parser.State;
 import prism.PrismComponent;
 import prism.PrismException;
 import prism.PrismNotSupportedException;
+import prism.PrismSettings;
 
 /**
  * Class to perform bisimulation minimisation for explicit-state models.
+ * <br>
+ * For models with (double) probabilities/rates, i.e., DTMCs, CTMCs and MDPs, this uses
+ * signature-based partition refinement (see {@link SignatureRefinement}), optionally in parallel.
+ * For other models (exact or parametric DTMCs/CTMCs), the original (simpler) implementation is used.
  */
 public class Bisimulation<Value> extends PrismComponent
 {
@@ -48,12 +61,26 @@ public class Bisimulation<Value> extends PrismComponent
 	protected int numBlocks;
 	protected MDPSimple<Value> mdp;
 
+	/** Number of threads to use for signature-based refinement */
+	protected int numThreads = 1;
+
 	/**
 	 * Construct a new Bisimulation object.
 	 */
 	public Bisimulation(PrismComponent parent) throws PrismException
 	{
 		super(parent);
+		if (getSettings() != null) {
+			numThreads = getSettings().getInteger(PrismSettings.PRISM_NUM_THREADS);
+		}
+	}
+
+	/**
+	 * Set the number of threads to use.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
 	}
 
 	/**
@@ -64,14 +91,158 @@ public class Bisimulation<Value> extends PrismComponent
 	 */
 	public Model<Value> minimise(Model<Value> model, List<String> propNames, List<BitSet> propBSs) throws PrismException
 	{
+		return minimise(model, propNames, propBSs, Collections.emptyList());
+	}
+
+	/**
+	 * Perform bisimulation minimisation on a model, also preserving some reward structures
+	 * (state rewards and, for MDPs, transition rewards). The minimised model's states
+	 * (as attached to it) are representatives of the blocks, i.e., states of the original model
+	 * with the same rewards, so the reward structures can be built for it in the usual way.
+	 * @param model The model
+	 * @param propNames Names of the propositions in {@code propBSs}
+	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
+	 * @param rewards Reward structures (for the model) to be preserved by bisimulation.
+	 */
+	@SuppressWarnings("unchecked")
+	public Model<Value> minimise(Model<Value> model, List<String> propNames, List<BitSet> propBSs, List<? extends Rewards<Value>> rewards) throws PrismException
+	{
+		boolean dbl = model.getEvaluator().one() instanceof Double;
 		switch (model.getModelType()) {
 		case DTMC:
-			return minimiseDTMC((DTMC<Value>) model, propNames, propBSs);
+			if (dbl) {
+				return (Model<Value>) minimiseMCSignatures((DTMC<Double>) model, false, propNames, propBSs, (List<? extends Rewards<Double>>) rewards);
+			}
+			return minimiseDTMC((DTMC<Value>) model, propNames, propBSs, rewards);
 		case CTMC:
-			return minimiseCTMC((CTMC<Value>) model, propNames, propBSs);
+			if (dbl) {
+				return (Model<Value>) minimiseMCSignatures((DTMC<Double>) model, true, propNames, propBSs, (List<? extends Rewards<Double>>) rewards);
+			}
+			return minimiseCTMC((CTMC<Value>) model, propNames, propBSs, rewards);
+		case MDP:
+			if (dbl) {
+				return (Model<Value>) minimiseMDPSignatures((MDP<Double>) model, propNames, propBSs, (List<? extends Rewards<Double>>) rewards);
+			}
+			throw new PrismNotSupportedException("Bisimulation minimisation not yet supported for non-double MDPs");
 		default:
-			throw new PrismNotSupportedException("Bisimulation minimisation not yet supported for " + model.getModelType() + "s");
+			throw new PrismNotSupportedException("Bisimulation minimisation not yet supported for " + (dbl ? "" : "non-double ") + model.getModelType() + "s");
+		}
+	}
+
+	/**
+	 * Perform (signature-based) bisimulation minimisation on a DTMC or CTMC with double values.
+	 * @param mc The DTMC/CTMC
+	 * @param ctmc Whether it is a CTMC
+	 * @param propNames Names of the propositions in {@code propBSs}
+	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
+	 * @param rewards Reward structures to be preserved by bisimulation.
+	 */
+	private DTMC<Double> minimiseMCSignatures(DTMC<Double> mc, boolean ctmc, List<String> propNames, List<BitSet> propBSs, List<? extends Rewards<Double>> rewards) throws PrismException
+	{
+		long timer = System.currentTimeMillis();
+		// Refine initial partition (based on propositions and state rewards)
+		initialisePartitionInfo(mc, propBSs, rewards);
+		SignatureRefinement refinement = SignatureRefinement.forMC(mc);
+		refinement.setNumThreads(numThreads);
+		refinement.refine(partition, numBlocks);
+		partition = refinement.getPartition();
+		numBlocks = refinement.getNumBlocks();
+		timer = System.currentTimeMillis() - timer;
+		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States (" + refinement.getNumRounds() + " rounds, " + timer / 1000.0 + " seconds)");
+
+		// Build reduced model, from the representatives (lowest states) of the blocks
+		DTMCSimple<Double> mcNew = ctmc ? new CTMCSimple<>(numBlocks) : new DTMCSimple<>(numBlocks);
+		int reps[] = getRepresentatives();
+		for (int b = 0; b < numBlocks; b++) {
+			for (Iterator<Map.Entry<Integer, Double>> it = mc.getTransitionsIterator(reps[b]); it.hasNext();) {
+				Map.Entry<Integer, Double> e = it.next();
+				mcNew.addToProbability(b, partition[e.getKey()], e.getValue());
+			}
+		}
+		attachStatesAndLabels(mc, mcNew, propNames, propBSs);
+
+		return mcNew;
+	}
+
+	/**
+	 * Perform (signature-based) bisimulation minimisation on an MDP with double values.
+	 * @param mdp The MDP
+	 * @param propNames Names of the propositions in {@code propBSs}
+	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
+	 * @param rewards Reward structures to be preserved by bisimulation.
+	 */
+	private MDP<Double> minimiseMDPSignatures(MDP<Double> mdp, List<String> propNames, List<BitSet> propBSs, List<? extends Rewards<Double>> rewards) throws PrismException
+	{
+		long timer = System.currentTimeMillis();
+		// Refine initial partition (based on propositions and state rewards)
+		initialisePartitionInfo(mdp, propBSs, rewards);
+		// Transition rewards are added to the choices
+		List<MDPRewards<Double>> transRewards = new ArrayList<>();
+		for (Rewards<Double> rew : rewards) {
+			if (rew.hasTransitionRewards()) {
+				transRewards.add((MDPRewards<Double>) rew);
+			}
 		}
+		int numRewards = transRewards.size();
+		double choiceRewards[] = null;
+		if (numRewards > 0) {
+			choiceRewards = new double[mdp.getNumChoices() * numRewards];
+			int c = 0;
+			for (int s = 0; s < numStates; s++) {
+				for (int i = 0, n = mdp.getNumChoices(s); i < n; i++, c++) {
+					for (int k = 0; k < numRewards; k++) {
+						choiceRewards[c * numRewards + k] = transRewards.get(k).getTransitionReward(s, i);
+					}
+				}
+			}
+		}
+		SignatureRefinement refinement = SignatureRefinement.forMDP(mdp, numRewards, choiceRewards);
+		refinement.setNumThreads(numThreads);
+		refinement.refine(partition, numBlocks);
+		partition = refinement.getPartition();
+		numBlocks = refinement.getNumBlocks();
+		timer = System.currentTimeMillis() - timer;
+		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States (" + refinement.getNumRounds() + " rounds, " + timer / 1000.0 + " seconds)");
+
+		// Build reduced model, from the (distinct) choices of the representatives (lowest states) of the blocks
+		MDPSimple<Double> mdpNew = new MDPSimple<>(numBlocks);
+		int reps[] = getRepresentatives();
+		for (int b = 0; b < numBlocks; b++) {
+			int s = reps[b];
+			Set<List<Object>> seen = new HashSet<>();
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				Distribution<Double> distr = Distribution.ofDouble();
+				for (Iterator<Map.Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, i); it.hasNext();) {
+					Map.Entry<Integer, Double> e = it.next();
+					distr.add(partition[e.getKey()], e.getValue());
+				}
+				List<Object> key = new ArrayList<>();
+				key.add(distr);
+				for (MDPRewards<Double> rew : transRewards) {
+					key.add(rew.getTransitionReward(s, i));
+				}
+				if (seen.add(key)) {
+					mdpNew.addActionLabelledChoice(b, distr, mdp.getAction(s, i));
+				}
+			}
+		}
+		attachStatesAndLabels(mdp, mdpNew, propNames, propBSs);
+
+		return mdpNew;
+	}
+
+	/**
+	 * Get the representative of each block, i.e., its lowest state.
+	 */
+	private int[] getRepresentatives()
+	{
+		int reps[] = new int[numBlocks];
+		Arrays.fill(reps, -1);
+		for (int s = 0; s < numStates; s++) {
+			if (reps[partition[s]] == -1)
+				reps[partition[s]] = s;
+		}
+		return reps;
 	}
 
 	/**
@@ -79,11 +250,12 @@ public class Bisimulation<Value> extends PrismComponent
 	 * @param dtmc The DTMC
 	 * @param propNames Names of the propositions in {@code propBSs}
 	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
+	 * @param rewards Reward structures to be preserved by bisimulation.
 	 */
-	private DTMC<Value> minimiseDTMC(DTMC<Value> dtmc, List<String> propNames, List<BitSet> propBSs)
+	private DTMC<Value> minimiseDTMC(DTMC<Value> dtmc, List<String> propNames, List<BitSet> propBSs, List<? extends Rewards<Value>> rewards)
 	{
-		// Create initial partition based on propositions
-		initialisePartitionInfo(dtmc, propBSs);
+		// Create initial partition based on propositions and state rewards
+		initialisePartitionInfo(dtmc, propBSs, rewards);
 		//printPartition(dtmc);
 
 		// Iterative splitting
@@ -110,11 +282,12 @@ public class Bisimulation<Value> extends PrismComponent
 	 * @param ctmc The CTMC
 	 * @param propNames Names of the propositions in {@code propBSs}
 	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
+	 * @param rewards Reward structures to be preserved by bisimulation.
 	 */
-	private CTMC<Value> minimiseCTMC(CTMC<Value> ctmc, List<String> propNames, List<BitSet> propBSs)
+	private CTMC<Value> minimiseCTMC(CTMC<Value> ctmc, List<String> propNames, List<BitSet> propBSs, List<? extends Rewards<Value>> rewards)
 	{
-		// Create initial partition based on propositions
-		initialisePartitionInfo(ctmc, propBSs);
+		// Create initial partition based on propositions and state rewards
+		initialisePartitionInfo(ctmc, propBSs, rewards);
 		//printPartition(ctmc);
 
 		// Iterative splitting
@@ -137,10 +310,11 @@ public class Bisimulation<Value> extends PrismComponent
 	}
 
 	/**
-	 * Construct the initial partition based on a set of proposition bitsets.
+	 * Construct the initial partition based on a set of proposition bitsets
+	 * and the state rewards of some reward structures.
 	 * Store info in {@code numStates}, {@code numBlocks} and {@code partition}.
 	 */
-	private void initialisePartitionInfo(Model<Value> model, List<BitSet> propBSs)
+	private void initialisePartitionInfo(Model<?> model, List<BitSet> propBSs, List<? extends Rewards<?>> rewards)
 	{
 		BitSet bs1, bs0;
 		numStates = model.getNumStates();
@@ -148,11 +322,17 @@ public class Bisimulation<Value> extends PrismComponent
 
 		// Compute all non-empty combinations of propositions
 		List<BitSet> all = new ArrayList<BitSet>();
-		bs1 = (BitSet) propBSs.get(0).clone();
-		bs0 = (BitSet) bs1.clone();
-		bs0.flip(0, numStates);
-		all.add(bs1);
-		all.add(bs0);
+		if (propBSs.isEmpty()) {
+			bs1 = new BitSet();
+			bs1.set(0, numStates);
+			all.add(bs1);
+		} else {
+			bs1 = (BitSet) propBSs.get(0).clone();
+			bs0 = (BitSet) bs1.clone();
+			bs0.flip(0, numStates);
+			all.add(bs1);
+			all.add(bs0);
+		}
 		int n = propBSs.size();
 		for (int i = 1; i < n; i++) {
 			BitSet bs = propBSs.get(i);
@@ -170,6 +350,7 @@ public class Bisimulation<Value> extends PrismComponent
 				}
 			}
 		}
+		all.removeIf(BitSet::isEmpty);
 
 		// Construct initial partition
 		numBlocks = all.size();
@@ -179,6 +360,27 @@ public class Bisimulation<Value> extends PrismComponent
 				partition[i] = j;
 			}
 		}
+
+		// Split according to state rewards
+		List<Rewards<?>> stateRewards = new ArrayList<>();
+		for (Rewards<?> rew : rewards) {
+			if (rew.hasStateRewards()) {
+				stateRewards.add(rew);
+			}
+		}
+		if (!stateRewards.isEmpty()) {
+			Map<List<Object>, Integer> blocks = new HashMap<>();
+			for (int s = 0; s < numStates; s++) {
+				List<Object> key = new ArrayList<>();
+				key.add(partition[s]);
+				for (Rewards<?> rew : stateRewards) {
+					key.add(rew instanceof MCRewards ? ((MCRewards<?>) rew).getStateReward(s) : ((MDPRewards<?>) rew).getStateReward(s));
+				}
+				Integer b = blocks.putIfAbsent(key, blocks.size());
+				partition[s] = (b == null) ? blocks.size() - 1 : b;
+			}
+			numBlocks = blocks.size();
+		}
 	}
 
 	/**
@@ -200,7 +402,7 @@ public class Bisimulation<Value> extends PrismComponent
 		for (s = 0; s < numStates; s++) {
 			// Build lifted distribution
 			Iterator<Map.Entry<Integer, Value>> iter = dtmc.getTransitionsIterator(s);
-			distrNew = new Distribution<>(dtmc.getEvaluator());
+			distrNew = Distribution.create(dtmc.getEvaluator());
 			while (iter.hasNext()) {
 				Map.Entry<Integer, Value> e = iter.next();
 				distrNew.add(partition[e.getKey()], e.getValue());
@@ -230,7 +432,7 @@ public class Bisimulation<Value> extends PrismComponent
 	 * Display the current partition, showing the states in each block.
 	 */
 	@SuppressWarnings("unused")
-	private void printPartition(Model<Value> model)
+	private void printPartition(Model<?> model)
 	{
 		for (int i = 0; i < numBlocks; i++) {
 			mainLog.print(i + ":");
@@ -246,7 +448,7 @@ public class Bisimulation<Value> extends PrismComponent
 
 	/**
 	 * Attach a list of states to the minimised model by adding a representative state
-	 * from the original model.
+	 * from the original model, and set its initial and deadlock states.
 	 * Also attach information about the propositions (used for bisimulation minimisation)
 	 * to the minimised model, in the form of labels (stored as BitSets).
 	 * @param model The original model
@@ -254,8 +456,26 @@ public class Bisimulation<Value> extends PrismComponent
 	 * @param propNames The names of the propositions
 	 * @param propBSs Satisfying states (of the minimised model) for the propositions
 	 */
-	private void attachStatesAndLabels(Model<Value> model, ModelExplicit<Value> modelNew, List<String> propNames, List<BitSet> propBSs)
+	private <V> void attachStatesAndLabels(Model<V> model, ModelExplicit<V> modelNew, List<String> propNames, List<BitSet> propBSs)
 	{
+		// Initial states
+		BitSet initNew = new BitSet();
+		for (int s : model.getInitialStates()) {
+			initNew.set(partition[s]);
+		}
+		for (int b = initNew.nextSetBit(0); b >= 0; b = initNew.nextSetBit(b + 1)) {
+			modelNew.addInitialState(b);
+		}
+		// Deadlock states (the blocks whose representative, i.e., first state, is a deadlock)
+		BitSet seen = new BitSet();
+		for (int i = 0; i < numStates; i++) {
+			if (!seen.get(partition[i])) {
+				seen.set(partition[i]);
+				if (model.isDeadlockState(i))
+					modelNew.addDeadlockState(partition[i]);
+			}
+		}
+
 		// Attach states
 		if (model.getStatesList() != null) {
 			List<State> statesList = model.getStatesList();
@@ -28,6 +28,7 @@ package explicit;
 
 import java.io.File;
 import java.util.*;
+import java.util.function.IntToDoubleFunction;
 
 import common.IterableBitSet;
 import explicit.StateValues;
@@ -36,12 +37,16 @@ import explicit.rewards.Rewards;
 import explicit.rewards.StateRewardsArray;
 import parser.ast.*;
 import prism.*;
+import prism.Accuracy.AccuracyLevel;
 
 /**
  * Explicit-state model checker for continuous-time Markov chains (CTMCs).
  */
 public class CTMCModelChecker extends ProbModelChecker
 {
+	/** Maximum number of doubles stored for the solution vectors of batched transient computations */
+	private static final long MAX_BATCH_DOUBLES = 1L << 25;
+
 	/**
 	 * Create a new CTMCModelChecker, inherit basic state from parent (unless null).
 	 */
@@ -198,8 +203,12 @@ public class CTMCModelChecker extends ProbModelChecker
 			else if (lTime == 0) {
 				// nb: uTime != 0 since would be caught above (trivial case)
 				b1.andNot(b2);
-				res = computeTransientBackwardsProbs((CTMC<Double>) model, b2, b1, uTime, null);
-				probs = StateValues.createFromDoubleArray(res.soln, model);
+				if (useSweepForTimeBound(expr.getUpperBound(), expr.getOperand1(), expr.getOperand2())) {
+					res = computeTransientBackwardsProbsForSweep((CTMC<Double>) model, b2, b1, expr.getUpperBound(), uTime);
+				} else {
+					res = computeTransientBackwardsProbs((CTMC<Double>) model, b2, b1, uTime, null);
+				}
+				probs = StateValues.createFromDoubleArrayResult(res, model);
 				// set values to exactly 1 for target (b2) states
 				// (these are computed inexactly during uniformisation)
 				int n = model.getNumStates();
@@ -221,6 +230,132 @@ public class CTMCModelChecker extends ProbModelChecker
 		return probs;
 	}
 
+	/**
+	 * Should the transient computation for a time bound {@code bound} (with operands {@code operands})
+	 * be done for all values of the bound in the current sweep over property constants at once?
+	 * This is the case if the bound changes during the sweep, but the operands do not
+	 * (and the model is the same for all iterations, i.e., it is not minimised/reordered each time).
+	 */
+	private boolean useSweepForTimeBound(Expression bound, Expression... operands)
+	{
+		if (propertyConstantSweep == null || doBisim || stateOrder != null || !propertyConstantSweep.dependsOnSweep(bound)) {
+			return false;
+		}
+		for (Expression operand : operands) {
+			if (propertyConstantSweep.dependsOnSweep(operand)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Perform backwards transient probability computation for time {@code t}
+	 * (see {@link #computeTransientBackwardsProbs(CTMC, BitSet, BitSet, double, double[])}),
+	 * where {@code t} is the value of the time bound {@code bound} in the current iteration
+	 * of the sweep over property constants. The first time this is called, the computation
+	 * is done for the values of {@code bound} in all iterations of the sweep at once
+	 * and the results are cached until used in subsequent iterations.
+	 */
+	private ModelCheckerResult computeTransientBackwardsProbsForSweep(CTMC<Double> ctmc, BitSet target, BitSet nonAbs, Expression bound, double t) throws PrismException
+	{
+		ModelCheckerResult res = propertyConstantSweep.takeTransientBackwardsResult(ctmc, target, nonAbs, t);
+		if (res != null) {
+			mainLog.println("\nUsing backwards transient probabilities for time " + t + " computed earlier in this experiment.");
+			return res;
+		}
+		// Compute for all time bounds whose results are still needed (as allowed by memory)
+		double times[] = propertyConstantSweep.getPendingTimes(ctmc, target, nonAbs, propertyConstantSweep.evaluateDoubleForSweep(bound, constantValues));
+		int maxTimes = (int) Math.max(1, MAX_BATCH_DOUBLES / Math.max(1, ctmc.getNumStates()));
+		if (times.length > maxTimes) {
+			// Take consecutive times, starting from t if possible
+			int start = Math.max(0, Math.min(Arrays.binarySearch(times, t), times.length - maxTimes));
+			times = Arrays.copyOfRange(times, start, start + maxTimes);
+		}
+		if (Arrays.binarySearch(times, t) < 0) {
+			return computeTransientBackwardsProbs(ctmc, target, nonAbs, t, null);
+		}
+		ModelCheckerResult results[] = computeTransientBackwardsProbs(ctmc, target, nonAbs, times, null);
+		propertyConstantSweep.putTransientBackwardsResults(ctmc, target, nonAbs, times, results);
+		return propertyConstantSweep.takeTransientBackwardsResult(ctmc, target, nonAbs, t);
+	}
+
+	/**
+	 * Computation of the limit lim_{i->oo} v_i of the iteration vectors of uniformisation
+	 * from the current iteration vector, for steady-state detection.
+	 */
+	@FunctionalInterface
+	private interface SteadyStateSolver
+	{
+		double[] solve(double soln[]) throws PrismException;
+	}
+
+	/**
+	 * Create steady-state detection for uniformisation with weights {@code weight} for iterations 0..{@code right},
+	 * stopping once the error is guaranteed to be at most {@code epsilon}, or return null if it is disabled.
+	 */
+	private UniformisationSSDetector createSSDetector(IntToDoubleFunction weight, int right, boolean backwards, double epsilon)
+	{
+		return doSSDetect ? new UniformisationSSDetector(weight, right, backwards, epsilon) : null;
+	}
+
+	/**
+	 * Check for steady state after iteration {@code iters} of uniformisation (if {@code ssDetector} is non-null),
+	 * where {@code soln} and {@code prev} are the current and previous iteration vectors.
+	 * If detected, the rest of the sum {@code sum} is added, using {@code soln} or, if the steady-state
+	 * solution option is enabled, {@code solver} is non-null and the iteration has converged, the limit
+	 * computed by {@code solver}. Returns the accuracy of the result in this case, including the error
+	 * {@code fgError} from Fox-Glynn truncation, and null otherwise (i.e. if iterations should continue).
+	 */
+	private Accuracy checkSteadyState(UniformisationSSDetector ssDetector, int iters, double soln[], double prev[], double sum[], double fgError, SteadyStateSolver solver) throws PrismException
+	{
+		if (ssDetector == null) {
+			return null;
+		}
+		int n = soln.length;
+		boolean detected = ssDetector.check(iters, soln, prev);
+		double tailWeight = ssDetector.getTailWeight();
+		if (detected) {
+			for (int i = 0; i < n; i++)
+				sum[i] += tailWeight * soln[i];
+			double errorBound = ssDetector.getErrorBound() + fgError;
+			mainLog.println("Steady state detected at iteration " + iters + " (guaranteed error bound " + errorBound + ")");
+			return AccuracyFactory.guaranteedNumericalIterative(errorBound, true);
+		}
+		if (doSSDetectSolve && solver != null && PrismUtils.measureSupNorm(soln, prev, termCrit == TermCrit.ABSOLUTE) < termCritParam / 8.0) {
+			mainLog.println("Iteration vector converged at iteration " + iters + ", switching to steady-state solution...");
+			double limit[] = solver.solve(soln.clone());
+			for (int i = 0; i < n; i++)
+				sum[i] += tailWeight * limit[i];
+			double errorEstimate = tailWeight * PrismUtils.measureSupNorm(soln, limit, true) + fgError;
+			mainLog.println("Steady state detected at iteration " + iters + " (estimated error bound " + errorEstimate + ")");
+			return new Accuracy(AccuracyLevel.ESTIMATED_BOUNDED, errorEstimate, true);
+		}
+		return null;
+	}
+
+	/**
+	 * Compute the limit of backwards uniformisation (without absorbing states), from vector {@code soln},
+	 * i.e., the expected value of {@code soln} in the long run, for each starting state.
+	 */
+	private double[] computeBackwardsLimit(CTMC<Double> ctmc, double soln[]) throws PrismException
+	{
+		DTMC<Double> dtmcEmb = ctmc.getImplicitEmbeddedDTMC();
+		return createDTMCModelChecker().computeSteadyStateBackwardsProbs(dtmcEmb, soln, new SteadyStateBSCCPostProcessor(ctmc)).soln;
+	}
+
+	/**
+	 * Build the matrix of the uniformised DTMC of {@code ctmc} (for rate {@code q}, with states
+	 * not in {@code nonAbs} made absorbing, unless it is null) for backwards or forwards iterations,
+	 * split for multiplication with the current number of threads.
+	 */
+	private UniformisedMatrix buildUniformisedMatrix(CTMC<Double> ctmc, double q, BitSet nonAbs, boolean backwards)
+	{
+		UniformisedMatrix matrix = new UniformisedMatrix(ctmc, q, nonAbs, backwards, unifMixedPrecision, numThreads);
+		mainLog.println("Uniformised matrix: " + matrix);
+		return matrix;
+	}
+
 	// Steady-state/transient probability computation
 
 	/**
@@ -296,7 +431,7 @@ public class CTMCModelChecker extends ProbModelChecker
 	{
 		StateValues initDistNew = (initDist == null) ? buildInitialDistribution(ctmc) : initDist;
 		ModelCheckerResult res = computeTransientProbs(ctmc, t, initDistNew.getDoubleArray());
-		return StateValues.createFromDoubleArray(res.soln, ctmc);
+		return StateValues.createFromDoubleArrayResult(res, ctmc);
 	}
 
 	// Numerical computation functions
@@ -421,7 +556,7 @@ public class CTMCModelChecker extends ProbModelChecker
 		ModelCheckerResult res = null;
 		int i, n, iters;
 		double soln[], soln2[], tmpsoln[], sum[];
-		DTMC<Double> dtmc;
+		UniformisedMatrix matrix;
 		long timer;
 		// Fox-Glynn stuff
 		FoxGlynn fg;
@@ -435,6 +570,11 @@ public class CTMCModelChecker extends ProbModelChecker
 			return res;
 		}
 
+		// Krylov subspace method, if selected
+		if (transientMethod == TransientMethod.KRYLOV) {
+			return computeTransientBackwardsProbsKrylov(ctmc, target, nonAbs, new double[] { t }, multProbs)[0];
+		}
+
 		// Start backwards transient computation
 		timer = System.currentTimeMillis();
 		mainLog.println("\nStarting backwards transient probability computation...");
@@ -460,8 +600,8 @@ public class CTMCModelChecker extends ProbModelChecker
 		}
 		mainLog.println("Fox-Glynn (" + acc + "): left = " + left + ", right = " + right);
 
-		// Build (implicit) uniformised DTMC
-		dtmc = ctmc.buildImplicitUniformisedDTMC(q);
+		// Build uniformised DTMC
+		matrix = buildUniformisedMatrix(ctmc, q, nonAbs, true);
 
 		// Create solution vector(s)
 		soln = new double[n];
@@ -484,19 +624,27 @@ public class CTMCModelChecker extends ProbModelChecker
 			for (i = 0; i < n; i++)
 				sum[i] += weights[0] * soln[i];
 
+		// Set up steady-state detection (errors scaled by the largest value in the initial vector)
+		double scale = 0.0;
+		for (i = 0; i < n; i++)
+			scale = Math.max(scale, Math.abs(soln[i]));
+		UniformisationSSDetector ssDetector = createSSDetector(iter -> iter < left ? 0.0 : weights[iter - left], right, true, acc * scale);
+		double fgError = 2 * acc * scale;
+		Accuracy accuracy = null;
+
 		// Start iterations
 		iters = 1;
 		while (iters <= right) {
-			// Matrix-vector multiply
-			dtmc.mvMult(soln, soln2, nonAbs, false);
+			// Matrix-vector multiply (and add to sum)
+			matrix.multiply(soln, soln2, iters >= left ? sum : null, iters >= left ? weights[iters - left] : 0.0);
 			// Swap vectors for next iter
 			tmpsoln = soln;
 			soln = soln2;
 			soln2 = tmpsoln;
-			// Add to sum
-			if (iters >= left) {
-				for (i = 0; i < n; i++)
-					sum[i] += weights[iters - left] * soln[i];
+			// Check for steady state
+			accuracy = checkSteadyState(ssDetector, iters, soln, soln2, sum, fgError, null);
+			if (accuracy != null) {
+				break;
 			}
 			iters++;
 		}
@@ -511,11 +659,221 @@ public class CTMCModelChecker extends ProbModelChecker
 		res.soln = sum;
 		res.lastSoln = soln2;
 		res.numIters = iters;
+		res.accuracy = accuracy;
 		res.timeTaken = timer / 1000.0;
 		res.timePre = 0.0;
 		return res;
 	}
 
+	/**
+	 * Perform transient probability computation, as required for (e.g. CSL) model checking,
+	 * for several time points {@code times} at once, i.e. as for
+	 * {@link #computeTransientBackwardsProbs(CTMC, BitSet, BitSet, double, double[])}
+	 * but returning one result for each time point (in the same order as {@code times}).
+	 * This needs a single sequence of matrix-vector multiplications, as required for the largest
+	 * time point, the results for the others being accumulated (with their own Fox-Glynn weights)
+	 * along the way. An extra solution vector is needed for each time point, so if there are
+	 * too many of these, they are processed in batches.
+	 * @param ctmc The CTMC
+	 * @param target Target states
+	 * @param nonAbs States *not* to be made absorbing (optional: null means "all")
+	 * @param times Time bounds
+	 * @param multProbs Multiplication vector (optional: null means all 1s)
+	 */
+	public ModelCheckerResult[] computeTransientBackwardsProbs(CTMC<Double> ctmc, BitSet target, BitSet nonAbs, double times[], double multProbs[]) throws PrismException
+	{
+		ModelCheckerResult results[] = new ModelCheckerResult[times.length];
+		int i, j, n, iters, numTimes, maxRight;
+		double soln[], soln2[], tmpsoln[], sums[][];
+		UniformisedMatrix matrix;
+		long timer;
+		// Fox-Glynn stuff
+		FoxGlynn fg;
+		int left[], right[];
+		double q, acc, weights[][], totalWeight;
+
+		// Trivial cases (see computeTransientBackwardsProbs for a single time point)
+		List<Integer> todo = new ArrayList<>();
+		for (j = 0; j < times.length; j++) {
+			if (((nonAbs != null && nonAbs.isEmpty()) || (times[j] == 0)) && multProbs == null) {
+				results[j] = computeTransientBackwardsProbs(ctmc, target, nonAbs, times[j], null);
+			} else {
+				todo.add(j);
+			}
+		}
+		// Process the remaining time points, in batches if there are too many
+		n = ctmc.getNumStates();
+		int maxTimes = (int) Math.max(1, MAX_BATCH_DOUBLES / Math.max(1, n));
+		if (todo.size() > maxTimes) {
+			for (int start = 0; start < todo.size(); start += maxTimes) {
+				List<Integer> batch = todo.subList(start, Math.min(start + maxTimes, todo.size()));
+				double batchTimes[] = new double[batch.size()];
+				for (j = 0; j < batchTimes.length; j++) {
+					batchTimes[j] = times[batch.get(j)];
+				}
+				ModelCheckerResult batchResults[] = computeTransientBackwardsProbs(ctmc, target, nonAbs, batchTimes, multProbs);
+				for (j = 0; j < batchTimes.length; j++) {
+					results[batch.get(j)] = batchResults[j];
+				}
+			}
+			return results;
+		}
+		numTimes = todo.size();
+		if (numTimes == 0) {
+			return results;
+		}
+
+		// Krylov subspace method, if selected
+		if (transientMethod == TransientMethod.KRYLOV) {
+			double todoTimes[] = new double[numTimes];
+			for (j = 0; j < numTimes; j++) {
+				todoTimes[j] = times[todo.get(j)];
+			}
+			ModelCheckerResult todoResults[] = computeTransientBackwardsProbsKrylov(ctmc, target, nonAbs, todoTimes, multProbs);
+			for (j = 0; j < numTimes; j++) {
+				results[todo.get(j)] = todoResults[j];
+			}
+			return results;
+		}
+
+		// Start backwards transient computation
+		timer = System.currentTimeMillis();
+		mainLog.println("\nStarting backwards transient probability computation for " + numTimes + " time points...");
+
+		// Get uniformisation rate (same for all time points); do Fox-Glynn for each time point
+		q = ctmc.getDefaultUniformisationRate(nonAbs);
+		acc = termCritParam / 8.0;
+		left = new int[numTimes];
+		right = new int[numTimes];
+		weights = new double[numTimes][];
+		maxRight = 0;
+		for (j = 0; j < numTimes; j++) {
+			double qt = q * times[todo.get(j)];
+			fg = new FoxGlynn(qt, 1e-300, 1e+300, acc);
+			left[j] = fg.getLeftTruncationPoint();
+			right[j] = fg.getRightTruncationPoint();
+			if (right[j] < 0) {
+				throw new PrismException("Overflow in Fox-Glynn computation (time bound too big?)");
+			}
+			weights[j] = fg.getWeights();
+			totalWeight = fg.getTotalWeight();
+			for (i = left[j]; i <= right[j]; i++) {
+				weights[j][i - left[j]] /= totalWeight;
+			}
+			maxRight = Math.max(maxRight, right[j]);
+		}
+		mainLog.println("Uniformisation: q = " + q + ", t = " + times[todo.get(0)] + ".." + times[todo.get(numTimes - 1)]);
+		mainLog.println("Fox-Glynn (" + acc + "): max right = " + maxRight);
+
+		// Build uniformised DTMC
+		matrix = buildUniformisedMatrix(ctmc, q, nonAbs, true);
+
+		// Create solution vector(s)
+		soln = new double[n];
+		soln2 = new double[n];
+		sums = new double[numTimes][n];
+		double iterWeights[] = new double[numTimes];
+
+		// Initialise solution vectors.
+		// Vectors soln/soln2 are 1 for target states, or multProbs[i] if supplied.
+		// Vectors sums are all zeros (done by array creation).
+		if (multProbs != null) {
+			for (i = 0; i < n; i++)
+				soln[i] = soln2[i] = target.get(i) ? multProbs[i] : 0.0;
+		} else {
+			for (i = 0; i < n; i++)
+				soln[i] = soln2[i] = target.get(i) ? 1.0 : 0.0;
+		}
+
+		// If necessary, do 0th element of summations (doesn't require any matrix powers)
+		for (j = 0; j < numTimes; j++) {
+			if (left[j] == 0)
+				for (i = 0; i < n; i++)
+					sums[j][i] += weights[j][0] * soln[i];
+		}
+
+		// Set up steady-state detection for each time point (as for a single time point)
+		double scale = 0.0;
+		for (i = 0; i < n; i++)
+			scale = Math.max(scale, Math.abs(soln[i]));
+		UniformisationSSDetector ssDetectors[] = new UniformisationSSDetector[numTimes];
+		for (j = 0; j < numTimes; j++) {
+			int leftJ = left[j];
+			double weightsJ[] = weights[j];
+			ssDetectors[j] = createSSDetector(iter -> iter < leftJ ? 0.0 : weightsJ[iter - leftJ], right[j], true, acc * scale);
+		}
+		double fgError = 2 * acc * scale;
+		Accuracy accuracies[] = new Accuracy[numTimes];
+		int numIters[] = new int[numTimes];
+		// Time points whose sums are complete (already, if no iterations are needed)
+		BitSet done = new BitSet(numTimes);
+		for (j = 0; j < numTimes; j++) {
+			if (right[j] < 1) {
+				numIters[j] = 1;
+				done.set(j);
+			}
+		}
+
+		// Start iterations (until the sums for all time points are complete)
+		iters = 1;
+		while (done.cardinality() < numTimes) {
+			// Matrix-vector multiply (and add to sums)
+			for (j = 0; j < numTimes; j++) {
+				iterWeights[j] = !done.get(j) && iters >= left[j] && iters <= right[j] ? weights[j][iters - left[j]] : 0.0;
+			}
+			matrix.multiply(soln, soln2, sums, iterWeights);
+			// Swap vectors for next iter
+			tmpsoln = soln;
+			soln = soln2;
+			soln2 = tmpsoln;
+			// Check for steady state, for each remaining time point
+			// (the norms of the vectors are computed once, by the first detector)
+			UniformisationSSDetector first = null;
+			for (j = done.nextClearBit(0); j < numTimes; j = done.nextClearBit(j + 1)) {
+				UniformisationSSDetector ssDetector = ssDetectors[j];
+				if (ssDetector != null) {
+					boolean detected = first == null ? ssDetector.check(iters, soln, soln2) : ssDetector.check(iters, first.getDiff(), first.getSpan());
+					first = first == null ? ssDetector : first;
+					if (detected) {
+						double tailWeight = ssDetector.getTailWeight();
+						for (i = 0; i < n; i++)
+							sums[j][i] += tailWeight * soln[i];
+						double errorBound = ssDetector.getErrorBound() + fgError;
+						if (iters < right[j]) {
+							mainLog.println("Steady state detected at iteration " + iters + " for t = " + times[todo.get(j)] + " (guaranteed error bound " + errorBound + ")");
+						}
+						accuracies[j] = AccuracyFactory.guaranteedNumericalIterative(errorBound, true);
+						numIters[j] = iters;
+						done.set(j);
+						continue;
+					}
+				}
+				if (iters >= right[j]) {
+					numIters[j] = right[j] + 1;
+					done.set(j);
+				}
+			}
+			iters++;
+		}
+
+		// Finished backwards transient computation
+		timer = System.currentTimeMillis() - timer;
+		mainLog.print("Backwards transient probability computation");
+		mainLog.println(" took " + Arrays.stream(numIters).max().getAsInt() + " iters and " + timer / 1000.0 + " seconds.");
+
+		// Return results
+		for (j = 0; j < numTimes; j++) {
+			ModelCheckerResult res = new ModelCheckerResult();
+			res.soln = sums[j];
+			res.numIters = numIters[j];
+			res.accuracy = accuracies[j];
+			res.timeTaken = timer / 1000.0;
+			res.timePre = 0.0;
+			results[todo.get(j)] = res;
+		}
+		return results;
+	}
+
 	/**
 	 * Perform cumulative reward computation.
 	 * Compute, for each state of {@ctmc}, the expected rewards accumulated until {@code t}
@@ -542,6 +900,14 @@ public class CTMCModelChecker extends ProbModelChecker
 			return res;
 		}
 
+		// Krylov subspace method, if selected
+		if (transientMethod == TransientMethod.KRYLOV) {
+			double rewards[] = new double[ctmc.getNumStates()];
+			for (i = 0; i < rewards.length; i++)
+				rewards[i] = mcRewards.getStateReward(i);
+			return computeTransientKrylov(ctmc, null, true, null, rewards, new double[] { t }, false, "backwards cumulative rewards computation")[0];
+		}
+
 		// Start backwards transient computation
 		timer = System.currentTimeMillis();
 		mainLog.println("\nStarting backwards cumulative rewards computation...");
@@ -577,8 +943,8 @@ public class CTMCModelChecker extends ProbModelChecker
 		}
 		mainLog.println("Fox-Glynn (" + acc + "): left = " + left + ", right = " + right);
 
-		// Build (implicit) uniformised DTMC
-		DTMC<Double> dtmcUnif = ctmc.buildImplicitUniformisedDTMC(q);
+		// Build uniformised DTMC
+		UniformisedMatrix matrix = buildUniformisedMatrix(ctmc, q, null, true);
 
 		// Create solution vector(s)
 		soln = new double[n];
@@ -598,22 +964,28 @@ public class CTMCModelChecker extends ProbModelChecker
 				sum[i] += soln[i] / q;
 		}
 
+		// Set up steady-state detection (errors scaled by the largest reward, times t)
+		double scale = 0.0;
+		for (i = 0; i < n; i++)
+			scale = Math.max(scale, Math.abs(soln[i]));
+		scale *= t;
+		UniformisationSSDetector ssDetector = createSSDetector(iter -> iter < left ? 1 / q : weights[iter - left], right, true, acc * scale);
+		double fgError = 2 * acc * scale;
+		Accuracy accuracy = null;
+
 		// Start iterations
 		iters = 1;
 		while (iters <= right) {
-			// Matrix-vector multiply
-			dtmcUnif.mvMult(soln, soln2, null, false);
+			// Matrix-vector multiply (and add to sum)
+			matrix.multiply(soln, soln2, sum, iters >= left ? weights[iters - left] : 1 / q);
 			// Swap vectors for next iter
 			tmpsoln = soln;
 			soln = soln2;
 			soln2 = tmpsoln;
-			// Add to sum
-			if (iters >= left) {
-				for (i = 0; i < n; i++)
-					sum[i] += weights[iters - left] * soln[i];
-			} else {
-				for (i = 0; i < n; i++)
-					sum[i] += soln[i] / q;
+			// Check for steady state
+			accuracy = checkSteadyState(ssDetector, iters, soln, soln2, sum, fgError, v -> computeBackwardsLimit(ctmc, v));
+			if (accuracy != null) {
+				break;
 			}
 			iters++;
 		}
@@ -628,6 +1000,7 @@ public class CTMCModelChecker extends ProbModelChecker
 		res.soln = sum;
 		res.lastSoln = soln2;
 		res.numIters = iters;
+		res.accuracy = accuracy;
 		res.timeTaken = timer / 1000.0;
 		res.timePre = 0.0;
 		return res;
@@ -685,6 +1058,14 @@ public class CTMCModelChecker extends ProbModelChecker
 			return res;
 		}
 
+		// Krylov subspace method, if selected
+		if (transientMethod == TransientMethod.KRYLOV) {
+			double rewards[] = new double[n];
+			for (i = 0; i < n; i++)
+				rewards[i] = mcRewards.getStateReward(i);
+			return computeTransientKrylov(ctmc, null, true, rewards, null, new double[] { t }, false, "backwards instantaneous rewards computation")[0];
+		}
+
 		// Start backwards transient computation
 		timer = System.currentTimeMillis();
 		mainLog.println("\nStarting backwards instantaneous rewards computation...");
@@ -708,8 +1089,8 @@ public class CTMCModelChecker extends ProbModelChecker
 
 		mainLog.println("Fox-Glynn (" + acc + "): left = " + left + ", right = " + right);
 
-		// Build (implicit) uniformised DTMC
-		DTMC<Double> dtmcUnif = ctmc.buildImplicitUniformisedDTMC(q);
+		// Build uniformised DTMC
+		UniformisedMatrix matrix = buildUniformisedMatrix(ctmc, q, null, true);
 
 		// Create solution vector(s)
 		soln = new double[n];
@@ -725,19 +1106,27 @@ public class CTMCModelChecker extends ProbModelChecker
 			for (i = 0; i < n; i++)
 				sum[i] += weights[0] * soln[i];
 
+		// Set up steady-state detection (errors scaled by the largest reward)
+		double scale = 0.0;
+		for (i = 0; i < n; i++)
+			scale = Math.max(scale, Math.abs(soln[i]));
+		UniformisationSSDetector ssDetector = createSSDetector(iter -> iter < left ? 0.0 : weights[iter - left], right, true, acc * scale);
+		double fgError = 2 * acc * scale;
+		Accuracy accuracy = null;
+
 		// Start iterations
 		iters = 1;
 		while (iters <= right) {
-			// Matrix-vector multiply
-			dtmcUnif.mvMult(soln, soln2, null, false);
+			// Matrix-vector multiply (and add to sum)
+			matrix.multiply(soln, soln2, iters >= left ? sum : null, iters >= left ? weights[iters - left] : 0.0);
 			// Swap vectors for next iter
 			tmpsoln = soln;
 			soln = soln2;
 			soln2 = tmpsoln;
-			// Add to sum
-			if (iters >= left) {
-				for (i = 0; i < n; i++)
-					sum[i] += weights[iters - left] * soln[i];
+			// Check for steady state
+			accuracy = checkSteadyState(ssDetector, iters, soln, soln2, sum, fgError, v -> computeBackwardsLimit(ctmc, v));
+			if (accuracy != null) {
+				break;
 			}
 			iters++;
 		}
@@ -752,6 +1141,7 @@ public class CTMCModelChecker extends ProbModelChecker
 		res.soln = sum;
 		res.lastSoln = soln2;
 		res.numIters = iters;
+		res.accuracy = accuracy;
 		res.timeTaken = timer / 1000.0;
 		res.timePre = 0.0;
 		return res;
@@ -912,13 +1302,18 @@ public class CTMCModelChecker extends ProbModelChecker
 		ModelCheckerResult res = null;
 		int i, n, iters;
 		double soln[], soln2[], tmpsoln[], sum[];
-		DTMC<Double> dtmc;
+		UniformisedMatrix matrix;
 		long timer;
 		// Fox-Glynn stuff
 		FoxGlynn fg;
 		int left, right;
 		double q, qt, acc, weights[], totalWeight;
 
+		// Krylov subspace method, if selected
+		if (transientMethod == TransientMethod.KRYLOV) {
+			return computeTransientKrylov(ctmc, null, false, initDist, null, new double[] { t }, true, "transient probability computation")[0];
+		}
+
 		// Start bounded probabilistic reachability
 		timer = System.currentTimeMillis();
 		mainLog.println("\nStarting transient probability computation...");
@@ -944,8 +1339,8 @@ public class CTMCModelChecker extends ProbModelChecker
 		}
 		mainLog.println("Fox-Glynn (" + acc + "): left = " + left + ", right = " + right);
 
-		// Build (implicit) uniformised DTMC
-		dtmc = ctmc.buildImplicitUniformisedDTMC(q);
+		// Build uniformised DTMC
+		matrix = buildUniformisedMatrix(ctmc, q, null, false);
 
 		// Create solution vector(s)
 		// For soln, we just use init (since we are free to modify this vector)
@@ -963,19 +1358,24 @@ public class CTMCModelChecker extends ProbModelChecker
 			for (i = 0; i < n; i++)
 				sum[i] += weights[0] * soln[i];
 
+		// Set up steady-state detection
+		UniformisationSSDetector ssDetector = createSSDetector(iter -> iter < left ? 0.0 : weights[iter - left], right, false, acc);
+		double fgError = 2 * acc;
+		Accuracy accuracy = null;
+
 		// Start iterations
 		iters = 1;
 		while (iters <= right) {
-			// Matrix-vector multiply
-			dtmc.vmMult(soln, soln2);
+			// Vector-matrix multiply (and add to sum)
+			matrix.multiply(soln, soln2, iters >= left ? sum : null, iters >= left ? weights[iters - left] : 0.0);
 			// Swap vectors for next iter
 			tmpsoln = soln;
 			soln = soln2;
 			soln2 = tmpsoln;
-			// Add to sum
-			if (iters >= left) {
-				for (i = 0; i < n; i++)
-					sum[i] += weights[iters - left] * soln[i];
+			// Check for steady state
+			accuracy = checkSteadyState(ssDetector, iters, soln, soln2, sum, fgError, v -> computeSteadyStateProbs(ctmc, v).soln);
+			if (accuracy != null) {
+				break;
 			}
 			iters++;
 		}
@@ -990,11 +1390,122 @@ public class CTMCModelChecker extends ProbModelChecker
 		res.soln = sum;
 		res.lastSoln = soln2;
 		res.numIters = iters;
+		res.accuracy = accuracy;
 		res.timeTaken = timer / 1000.0;
 		res.timePre = 0.0;
 		return res;
 	}
 
+	// Krylov subspace transient computation
+
+	/**
+	 * Perform transient probability computation, as for
+	 * {@link #computeTransientBackwardsProbs(CTMC, BitSet, BitSet, double[], double[])},
+	 * but using a Krylov subspace method (see {@link KrylovMatrixExponential}).
+	 */
+	private ModelCheckerResult[] computeTransientBackwardsProbsKrylov(CTMC<Double> ctmc, BitSet target, BitSet nonAbs, double times[], double multProbs[]) throws PrismException
+	{
+		int n = ctmc.getNumStates();
+		double v[] = new double[n];
+		for (int i = 0; i < n; i++)
+			v[i] = target.get(i) ? (multProbs == null ? 1.0 : multProbs[i]) : 0.0;
+		return computeTransientKrylov(ctmc, nonAbs, true, v, null, times, true, "backwards transient probability computation");
+	}
+
+	/**
+	 * Compute exp(Qt) v (backwards) or v exp(Qt) (forwards), for each time point t in {@code times},
+	 * using a Krylov subspace method (see {@link KrylovMatrixExponential}), where Q is the generator
+	 * matrix of {@code ctmc}, with states not in {@code nonAbs} made absorbing (unless it is null).
+	 * If {@code cumulRewards} is non-null (backwards only), compute instead the integral of exp(Qs) r ds
+	 * from 0 to t, for r = {@code cumulRewards}. If {@code probs} is true, results are probabilities,
+	 * so (tiny) round-off errors outside [0,1] are removed.
+	 * @param desc Description of the computation, for the log
+	 */
+	private ModelCheckerResult[] computeTransientKrylov(CTMC<Double> ctmc, BitSet nonAbs, boolean backwards, double v[], double cumulRewards[], double times[], boolean probs, String desc) throws PrismException
+	{
+		int n = ctmc.getNumStates();
+		long timer = System.currentTimeMillis();
+		mainLog.println("\nStarting " + desc + " (Krylov)...");
+
+		// Build generator matrix
+		UniformisedMatrix matrix = UniformisedMatrix.generator(ctmc, nonAbs, backwards, false, numThreads);
+		mainLog.println("Generator matrix: " + matrix);
+
+		// Sort time points
+		Integer order[] = new Integer[times.length];
+		for (int j = 0; j < times.length; j++)
+			order[j] = j;
+		Arrays.sort(order, (j1, j2) -> Double.compare(times[j1], times[j2]));
+		double sortedTimes[] = new double[times.length];
+		for (int j = 0; j < times.length; j++)
+			sortedTimes[j] = times[order[j]];
+		double tMax = sortedTimes[times.length - 1];
+
+		// Set up operator, initial vector and error tolerance (scaled by the magnitude of the result)
+		KrylovMatrixExponential.Operator op;
+		double init[];
+		double norm = matrix.getNormInf();
+		double scale = 0.0;
+		if (cumulRewards == null) {
+			op = matrix::multiply;
+			init = v;
+			for (int i = 0; i < n; i++)
+				scale = Math.max(scale, Math.abs(v[i]));
+		} else {
+			// Use the augmented matrix [[Q, r], [0, 0]] and initial vector (0, ..., 0, 1):
+			// the first n entries of exp of this (times t), applied to the vector, are the integral
+			op = (in, out) -> {
+				matrix.multiply(in, out);
+				for (int i = 0; i < n; i++)
+					out[i] += cumulRewards[i] * in[n];
+				out[n] = 0.0;
+			};
+			init = new double[n + 1];
+			init[n] = 1.0;
+			double maxRew = 0.0;
+			for (int i = 0; i < n; i++)
+				maxRew = Math.max(maxRew, Math.abs(cumulRewards[i]));
+			norm += maxRew;
+			scale = maxRew * tMax;
+		}
+		double epsilon = termCritParam / 8.0 * (scale > 0.0 ? scale : 1.0);
+
+		// Compute
+		KrylovMatrixExponential krylov = new KrylovMatrixExponential(op, init.length, norm);
+		krylov.setTolerance(epsilon);
+		krylov.setMaxSteps(maxIters);
+		double sortedResults[][] = krylov.compute(init, sortedTimes);
+
+		// Finished
+		timer = System.currentTimeMillis() - timer;
+		String descCap = Character.toUpperCase(desc.charAt(0)) + desc.substring(1);
+		mainLog.print(descCap + " took " + krylov.getNumSteps() + " steps (" + krylov.getNumRejected() + " rejected), ");
+		mainLog.println(krylov.getNumMatVecs() + " matrix-vector products and " + timer / 1000.0 + " seconds.");
+		mainLog.println("Krylov subspace error estimate: " + krylov.getErrorEstimate());
+
+		// Return results
+		ModelCheckerResult results[] = new ModelCheckerResult[times.length];
+		Accuracy accuracy = new Accuracy(AccuracyLevel.ESTIMATED_BOUNDED, Math.max(krylov.getErrorEstimate(), epsilon), true);
+		for (int j = 0; j < times.length; j++) {
+			double soln[] = sortedResults[j];
+			if (cumulRewards != null) {
+				soln = Arrays.copyOf(soln, n);
+			}
+			if (probs) {
+				for (int i = 0; i < n; i++)
+					soln[i] = Math.min(Math.max(soln[i], 0.0), 1.0);
+			}
+			ModelCheckerResult res = new ModelCheckerResult();
+			res.soln = soln;
+			res.numIters = krylov.getNumMatVecs();
+			res.accuracy = accuracy;
+			res.timeTaken = timer / 1000.0;
+			res.timePre = 0.0;
+			results[order[j]] = res;
+		}
+		return results;
+	}
+
 	// Utility methods
 	
 	/**
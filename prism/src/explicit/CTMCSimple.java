@@ -113,6 +113,16 @@ public class CTMCSimple<Value> extends DTMCSimple<Value> implements CTMC<Value>
 		super(ctmc, rateMap, eval);
 	}
 
+	// Mutators
+
+	@Override
+	protected void transitionsChanged()
+	{
+		super.transitionsChanged();
+		// The cached embedded DTMC (and its predecessor relation) is no longer valid
+		cachedEmbeddedDTMC = null;
+	}
+
 	// Accessors (for CTMC)
 	
 	@Override
@@ -204,6 +214,7 @@ public class CTMCSimple<Value> extends DTMCSimple<Value> implements CTMC<Value>
 	@Override
 	public void uniformise(Value q)
 	{
+		transitionsChanged();
 		for (int i = 0; i < numStates; i++) {
 			Distribution<Value> distr = trans.get(i);
 			distr.set(i, getEvaluator().subtract(q, distr.sumAllBut(i)));
@@ -0,0 +1,168 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.BitSet;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of a CTMC,
+ * stored off-heap in a memory-mapped {@link BinaryModelFile} (see {@link DTMCSparseMapped}).
+ * Exit rates are computed from the mapped rates on demand.
+ */
+public class CTMCSparseMapped extends DTMCSparseMapped implements CTMC<Double>
+{
+	/** The cached embedded DTMC (see {@link CTMCSimple}) */
+	private DTMCEmbeddedSimple<Double> cachedEmbeddedDTMC = null;
+
+	/**
+	 * Create a CTMC whose transition rates are stored in an already mapped file
+	 * (see {@link DTMCSparseMapped#DTMCSparseMapped(MappedFile, long, int, long)}).
+	 */
+	CTMCSparseMapped(MappedFile mapped, long offset, int numStates, long numTransitions)
+	{
+		super(mapped, offset, numStates, numTransitions);
+	}
+
+	// Accessors (for CTMC)
+
+	@Override
+	public Double getExitRate(int i)
+	{
+		double d = 0.0;
+		for (long k = rowStart(i), stop = rowStart(i + 1); k < stop; k++) {
+			d += nonZero(k);
+		}
+		return d;
+	}
+
+	@Override
+	public Double getMaxExitRate()
+	{
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < numStates; i++) {
+			max = Math.max(max, getExitRate(i));
+		}
+		return max;
+	}
+
+	@Override
+	public Double getMaxExitRate(BitSet subset)
+	{
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+			max = Math.max(max, getExitRate(i));
+		}
+		return max;
+	}
+
+	@Override
+	public Double getDefaultUniformisationRate()
+	{
+		return 1.02 * getMaxExitRate();
+	}
+
+	@Override
+	public Double getDefaultUniformisationRate(BitSet nonAbs)
+	{
+		return 1.02 * getMaxExitRate(nonAbs);
+	}
+
+	@Override
+	public DTMC<Double> buildImplicitEmbeddedDTMC()
+	{
+		DTMCEmbeddedSimple<Double> dtmc = new DTMCEmbeddedSimple<>(this);
+		if (cachedEmbeddedDTMC != null) {
+			// replace cached DTMC
+			cachedEmbeddedDTMC = dtmc;
+		}
+		return dtmc;
+	}
+
+	@Override
+	public DTMC<Double> getImplicitEmbeddedDTMC()
+	{
+		if (cachedEmbeddedDTMC == null) {
+			cachedEmbeddedDTMC = new DTMCEmbeddedSimple<>(this);
+		}
+		return cachedEmbeddedDTMC;
+	}
+
+	@Override
+	public DTMCSimple<Double> buildEmbeddedDTMC()
+	{
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(numStates);
+		for (int in : getInitialStates()) {
+			dtmc.addInitialState(in);
+		}
+		for (int i = 0; i < numStates; i++) {
+			double d = getExitRate(i);
+			if (d == 0) {
+				dtmc.setProbability(i, i, 1.0);
+			} else {
+				for (long k = rowStart(i), stop = rowStart(i + 1); k < stop; k++) {
+					dtmc.setProbability(i, col(k), nonZero(k) / d);
+				}
+			}
+		}
+		return dtmc;
+	}
+
+	@Override
+	public void uniformise(Double q)
+	{
+		throw new UnsupportedOperationException("Can't uniformise a CTMCSparseMapped since it cannot be modified after construction; use buildUniformisedDTMC()");
+	}
+
+	@Override
+	public DTMC<Double> buildImplicitUniformisedDTMC(Double q)
+	{
+		return new DTMCUniformisedSimple<>(this, q);
+	}
+
+	@Override
+	public DTMCSimple<Double> buildUniformisedDTMC(Double q)
+	{
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(numStates);
+		for (int in : getInitialStates()) {
+			dtmc.addInitialState(in);
+		}
+		for (int i = 0; i < numStates; i++) {
+			// Add scaled off-diagonal entries
+			double d = 0.0;
+			for (long k = rowStart(i), stop = rowStart(i + 1); k < stop; k++) {
+				int j = col(k);
+				dtmc.setProbability(i, j, nonZero(k) / q);
+				if (j != i) {
+					d += nonZero(k);
+				}
+			}
+			// Add diagonal, if needed
+			if (d < q) {
+				dtmc.setProbability(i, i, 1 - (d / q));
+			}
+		}
+		return dtmc;
+	}
+}
@@ -29,6 +29,9 @@ package explicit;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -45,6 +48,7 @@ import prism.PrismException;
 import prism.PrismLog;
 import prism.PrismNotSupportedException;
 import prism.PrismPrintStreamLog;
+import prism.PrismSettings;
 import prism.ProgressDisplay;
 import prism.UndefinedConstants;
 
@@ -70,6 +74,10 @@ public class ConstructModel extends PrismComponent
 	protected boolean distinguishActions = true;
 	/** Should labels be processed and attached to the model? */
 	protected boolean attachLabels = true;
+	/** Number of threads to use for state space exploration */
+	protected int numThreads = 1;
+	/** Directory in which to store sparse MDPs off-heap, as memory-mapped files (null = on the heap) */
+	protected File mappedModelDir = null;
 
 	// Details of built model:
 
@@ -79,6 +87,11 @@ public class ConstructModel extends PrismComponent
 	public ConstructModel(PrismComponent parent) throws PrismException
 	{
 		super(parent);
+		if (settings != null) {
+			setNumThreads(settings.getInteger(PrismSettings.PRISM_NUM_THREADS));
+			String dir = settings.getString(PrismSettings.PRISM_MAPPED_MODEL_DIR);
+			setMappedModelDir("".equals(dir) ? null : new File(dir));
+		}
 	}
 
 	/**
@@ -115,6 +128,20 @@ public class ConstructModel extends PrismComponent
 		this.buildSparse = buildSparse;
 	}
 
+	/**
+	 * Set the directory in which to store sparse MDPs off-heap, as memory-mapped files
+	 * (see {@link MDPSparseMapped}). If null (the default), models are stored on the heap.
+	 * The transitions of each state are written to file as soon as the state has been explored,
+	 * so they are never all held on the heap (except with parallel exploration, see
+	 * {@link #setNumThreads(int)}, which keeps them until exploration is complete).
+	 * The reachable states themselves (i.e., the {@link State} objects) are still stored on the heap,
+	 * since they are needed to detect already-visited states during exploration, and form the model's states list.
+	 */
+	public void setMappedModelDir(File mappedModelDir)
+	{
+		this.mappedModelDir = mappedModelDir;
+	}
+
 	/**
 	 * Should actions be attached to distributions (and used to distinguish them)?
 	 */
@@ -131,6 +158,16 @@ public class ConstructModel extends PrismComponent
 		this.attachLabels = attachLabels;
 	}
 
+	/**
+	 * Set the number of threads to use for state space exploration.
+	 * If more than 1, and the model type and ModelGenerator support it,
+	 * states are explored in parallel (the resulting model is the same).
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
 	/**
 	 * Build the set of reachable states for a model and return it.
 	 * @param modelGen The ModelGenerator interface providing the model 
@@ -176,6 +213,7 @@ public class ConstructModel extends PrismComponent
 		IDTMCSimple<Value> idtmc = null;
 		IMDPSimple<Value> imdp = null;
 		LTSSimple<Value> lts = null;
+		SparseModelBuilder sparse = null;
 		Distribution<Value> distr = null;
 		Distribution<Interval<Value>> distrUnc = null;
 		// Misc
@@ -198,7 +236,15 @@ public class ConstructModel extends PrismComponent
 		timer = System.currentTimeMillis();
 
 		// Create model storage
-		if (!justReach) {
+		if (!justReach && useSparseBuilder(modelGen, modelType)) {
+			// Build sparse storage directly, without an intermediate (simple) model
+			// (for MDPs, optionally off-heap, writing each state to file as it is completed)
+			if (modelType == ModelType.MDP && mappedModelDir != null) {
+				sparse = new SparseModelBuilder(findDeadlocks, fixDeadlocks, mappedModelDir);
+			} else {
+				sparse = new SparseModelBuilder(modelType.nondeterministic(), findDeadlocks, fixDeadlocks);
+			}
+		} else if (!justReach) {
 			// Create a (simple, mutable) model of the appropriate type
 			switch (modelType) {
 			case DTMC:
@@ -240,20 +286,39 @@ public class ConstructModel extends PrismComponent
 	        ((ModelExplicit<Value>) modelSimple).setVarList(varList);
 		}
 
+		// Set up parallel exploration, if requested and possible
+		ParallelStateExplorer<Value> explorer = null;
+		if (numThreads > 1) {
+			explorer = createParallelExplorer(modelGen, modelType);
+		}
+
 		// Initialise states storage
-		states = new IndexedSet<State>(true);
+		// (not needed for parallel exploration, which keeps its own)
+		states = explorer == null ? createStateStorage(varList, modelGen) : null;
 		explore = new LinkedList<State>();
-		// Add initial state(s) to 'explore', 'states' and to the model
-		for (State initState : modelGen.getInitialStates()) {
-			explore.add(initState);
-			states.add(initState);
+		src = -1;
+		if (explorer != null) {
+			// Explore in parallel and then add everything to the model
+			// ('explore' stays empty, so the sequential loop below is skipped)
+			explorer.explore(progress);
+			src = explorer.getNumStates() - 1;
 			if (!justReach) {
-				modelSimple.addState();
-				modelSimple.addInitialState(modelSimple.getNumStates() - 1);
+				addExploredModel(explorer, modelType, modelSimple, sparse);
+			}
+		} else {
+			// Add initial state(s) to 'explore', 'states' and to the model
+			for (State initState : modelGen.getInitialStates()) {
+				explore.add(initState);
+				states.add(initState);
+				if (sparse != null) {
+					sparse.addInitialState(explore.size() - 1);
+				} else if (!justReach) {
+					modelSimple.addState();
+					modelSimple.addInitialState(modelSimple.getNumStates() - 1);
+				}
 			}
 		}
 		// Explore...
-		src = -1;
 		while (!explore.isEmpty()) {
 			// Pick next state to explore
 			// (they are stored in order found so know index is src+1)
@@ -261,6 +326,9 @@ public class ConstructModel extends PrismComponent
 			src++;
 			// Explore all choices/transitions from this state
 			modelGen.exploreState(state);
+			if (sparse != null) {
+				sparse.startState();
+			}
 			// Look at each outgoing choice in turn
 			nc = modelGen.getNumChoices();
 			for (i = 0; i < nc; i++) {
@@ -274,9 +342,14 @@ public class ConstructModel extends PrismComponent
 					}
 				}
 				// For nondet models, collect transitions in a Distribution
-				if (!justReach && modelType.nondeterministic()) {
+				// (or start a new choice, if building sparse storage directly)
+				if (sparse != null) {
+					if (modelType.nondeterministic()) {
+						sparse.startChoice(distinguishActions ? modelGen.getChoiceAction(i) : null);
+					}
+				} else if (!justReach && modelType.nondeterministic()) {
 					if (!modelType.uncertain()) {
-						distr = new Distribution<>(modelGen.getEvaluator());
+						distr = Distribution.create(modelGen.getEvaluator());
 					} else {
 						distrUnc = new Distribution<>(modelGen.getIntervalEvaluator());
 					}
@@ -290,14 +363,16 @@ public class ConstructModel extends PrismComponent
 						// If so, add to the explore list
 						explore.add(stateNew);
 						// And to model
-						if (!justReach) {
+						if (modelSimple != null) {
 							modelSimple.addState();
 						}
 					}
 					// Get index of state in state set
 					dest = states.getIndexOfLastAdd();
 					// Add transitions to model
-					if (!justReach) {
+					if (sparse != null) {
+						sparse.addTransition(dest, (Double) modelGen.getTransitionProbability(i, j));
+					} else if (!justReach) {
 						switch (modelType) {
 						case DTMC:
 							dtmc.addToProbability(src, dest, modelGen.getTransitionProbability(i, j));
@@ -333,7 +408,7 @@ public class ConstructModel extends PrismComponent
 				}
 				// For nondet models, add collated transition to model
 				int ch = -1;
-				if (!justReach) {
+				if (modelSimple != null) {
 					if (modelType == ModelType.MDP) {
 						if (distinguishActions) {
 							mdp.addActionLabelledChoice(src, distr, modelGen.getChoiceAction(i));
@@ -381,18 +456,32 @@ public class ConstructModel extends PrismComponent
 		progress.end(" states");
 
 		// Reachability complete
+		if (explorer != null) {
+			mainLog.print("Parallel state exploration (" + numThreads + " threads) done in " + (explorer.getExplorationTime() / 1000.0) + " secs");
+			mainLog.println(" (speedup " + String.format("%.1f", explorer.getSpeedup()) + "x).");
+		}
 		mainLog.print("Reachable states exploration" + (justReach ? "" : " and model construction"));
 		mainLog.println(" done in " + ((System.currentTimeMillis() - timer) / 1000.0) + " secs.");
 		//mainLog.println(states);
 
 		// Find/fix deadlocks (if required)
-		if (!justReach && findDeadlocks) {
+		// (if building sparse storage directly, this has already been done)
+		if (modelSimple != null && findDeadlocks) {
 			modelSimple.findDeadlocks(fixDeadlocks);
 		}
 
 		int permut[] = null;
 
-		if (sortStates) {
+		if (explorer != null) {
+			// States from parallel exploration are already in a list
+			statesList = explorer.getStatesList();
+			explorer = null;
+			if (sortStates) {
+				mainLog.println("Sorting reachable states list...");
+				permut = buildSortingPermutation(statesList);
+				statesList = permuteList(statesList, permut);
+			}
+		} else if (sortStates) {
 			// Sort states and convert set to list
 			mainLog.println("Sorting reachable states list...");
 			permut = states.buildSortingPermutation();
@@ -401,18 +490,19 @@ public class ConstructModel extends PrismComponent
 		} else {
 			statesList = states.toArrayList();
 		}
-		states.clear();
-		states = null;
+		if (states != null) {
+			states.clear();
+			states = null;
+		}
 		//mainLog.println(statesList);
 
 		// Construct new explicit-state model (with correct state ordering, if desired)
 		ModelExplicit<Value> model = null;
 		if (!justReach) {
-			boolean isDbl = modelSimple.getEvaluator().one() instanceof Double; 
 			switch (modelType) {
 			case DTMC:
-				if (buildSparse && isDbl) {
-					model = (ModelExplicit<Value>) (sortStates ? new DTMCSparse((DTMC<Double>) dtmc, permut) : new DTMCSparse((DTMC<Double>) dtmc));
+				if (sparse != null) {
+					model = (ModelExplicit<Value>) sparse.buildDTMC(permut);
 				} else {
 					model = sortStates ? new DTMCSimple<>(dtmc, permut) : (DTMCSimple<Value>) dtmc;
 				}
@@ -421,8 +511,8 @@ public class ConstructModel extends PrismComponent
 				model = sortStates ? new CTMCSimple<>(ctmc, permut) : (CTMCSimple<Value>) ctmc;
 				break;
 			case MDP:
-				if (buildSparse && isDbl) {
-					model = (ModelExplicit<Value>) (sortStates ? new MDPSparse((MDPSimple<Double>) mdp, true, permut) : new MDPSparse((MDP<Double>) mdp));
+				if (sparse != null) {
+					model = (ModelExplicit<Value>) (mappedModelDir != null ? buildMapped(sparse, permut) : sparse.buildMDP(permut));
 				} else {
 					model = sortStates ? new MDPSimple<>(mdp, permut) : mdp;
 				}
@@ -448,6 +538,11 @@ public class ConstructModel extends PrismComponent
 			default:
 				throw new PrismNotSupportedException("Model construction not supported for " + modelType + "s");
 			}
+			if (sparse != null) {
+				model.setEvaluator(modelGen.getEvaluator());
+				model.setVarList(varList);
+				sparse = null;
+			}
 			model.setStatesList(statesList);
 			model.setConstantValues(new Values(modelGen.getConstantValues()));
 			//mainLog.println("Model: " + model);
@@ -462,6 +557,184 @@ public class ConstructModel extends PrismComponent
 		return model;
 	}
 
+	/**
+	 * Build a sparse MDP off the heap, in a (temporary) memory-mapped file in {@code mappedModelDir},
+	 * from a {@link SparseModelBuilder} that has already written its states to (temporary) files there.
+	 */
+	private MDPSparseMapped buildMapped(SparseModelBuilder sparse, int permut[]) throws PrismException
+	{
+		File file;
+		try {
+			file = File.createTempFile("prism-mdp-", ".bin", mappedModelDir);
+		} catch (IOException | SecurityException e) {
+			throw new PrismException("Could not create file in directory \"" + mappedModelDir + "\": " + e.getMessage());
+		}
+		file.deleteOnExit();
+		mainLog.println("Storing MDP in memory-mapped file \"" + file + "\"...");
+		return sparse.buildMDPMapped(permut, file);
+	}
+
+	/**
+	 * Create storage for the states found during reachability.
+	 * Where possible, this is a {@link PackedStateStorage}, which bit-packs states
+	 * using the variable bounds, otherwise a (sorted) {@link IndexedSet}.
+	 */
+	private <Value> StateStorage<State> createStateStorage(VarList varList, ModelGenerator<Value> modelGen)
+	{
+		// Packed storage assumes Integer/Boolean values, so is not used in exact mode
+		if (PackedStateStorage.canStore(varList) && !modelGen.getEvaluator().exact()) {
+			return new PackedStateStorage(varList);
+		} else {
+			return new IndexedSet<State>(true);
+		}
+	}
+
+	/**
+	 * Create a {@link ParallelStateExplorer} for the model, with {@code numThreads}
+	 * copies of the model generator. Returns null (after printing a warning)
+	 * if parallel exploration is not possible for this model.
+	 */
+	private <Value> ParallelStateExplorer<Value> createParallelExplorer(ModelGenerator<Value> modelGen, ModelType modelType) throws PrismException
+	{
+		switch (modelType) {
+		case DTMC:
+		case CTMC:
+		case MDP:
+		case LTS:
+			break;
+		default:
+			mainLog.printWarning("Parallel model construction is not supported for " + modelType + "s; using a single thread");
+			return null;
+		}
+		List<ModelGenerator<Value>> modelGens = new ArrayList<>(numThreads);
+		modelGens.add(modelGen);
+		for (int t = 1; t < numThreads; t++) {
+			ModelGenerator<Value> copy = modelGen.createExplorationCopy();
+			if (copy == null) {
+				mainLog.printWarning("Model generator does not support parallel model construction; using a single thread");
+				return null;
+			}
+			modelGens.add(copy);
+		}
+		return new ParallelStateExplorer<>(modelGens);
+	}
+
+	/**
+	 * Build sparse storage directly (using a {@link SparseModelBuilder}) for this model?
+	 * This is done if sparse storage was requested and the model is a DTMC/MDP with double values.
+	 */
+	private <Value> boolean useSparseBuilder(ModelGenerator<Value> modelGen, ModelType modelType)
+	{
+		return buildSparse && (modelType == ModelType.DTMC || modelType == ModelType.MDP) && modelGen.getEvaluator().one() instanceof Double;
+	}
+
+	/**
+	 * Add the states and transitions found by a {@link ParallelStateExplorer} to a model
+	 * (or to sparse storage, if {@code sparse} is non-null),
+	 * in the same order that they would be added during sequential exploration.
+	 */
+	@SuppressWarnings("unchecked")
+	private <Value> void addExploredModel(ParallelStateExplorer<Value> explorer, ModelType modelType, ModelSimple<?> modelSimple, SparseModelBuilder sparse) throws PrismException
+	{
+		int numStates = explorer.getNumStates();
+		if (sparse != null) {
+			for (int s = 0; s < explorer.getNumInitialStates(); s++) {
+				sparse.addInitialState(s);
+			}
+			for (int src = 0; src < numStates; src++) {
+				sparse.startState();
+				int nc = explorer.getNumChoices(src);
+				for (int i = 0; i < nc; i++) {
+					if (modelType.nondeterministic()) {
+						sparse.startChoice(distinguishActions ? explorer.getChoiceAction(src, i) : null);
+					}
+					int nt = explorer.getNumTransitions(src, i);
+					for (int j = 0; j < nt; j++) {
+						sparse.addTransition(explorer.getTransitionTarget(src, i, j), explorer.getTransitionProbabilityDouble(src, i, j));
+					}
+				}
+				explorer.clearState(src);
+			}
+			return;
+		}
+		modelSimple.addStates(numStates);
+		for (int s = 0; s < explorer.getNumInitialStates(); s++) {
+			modelSimple.addInitialState(s);
+		}
+		for (int src = 0; src < numStates; src++) {
+			int nc = explorer.getNumChoices(src);
+			for (int i = 0; i < nc; i++) {
+				int nt = explorer.getNumTransitions(src, i);
+				Object action = explorer.getChoiceAction(src, i);
+				switch (modelType) {
+				case DTMC:
+				case CTMC:
+					for (int j = 0; j < nt; j++) {
+						((DTMCSimple<Value>) modelSimple).addToProbability(src, explorer.getTransitionTarget(src, i, j), explorer.getTransitionProbability(src, i, j));
+					}
+					break;
+				case MDP:
+					MDPSimple<Value> mdp = (MDPSimple<Value>) modelSimple;
+					Distribution<Value> distr = Distribution.create(mdp.getEvaluator());
+					for (int j = 0; j < nt; j++) {
+						distr.add(explorer.getTransitionTarget(src, i, j), explorer.getTransitionProbability(src, i, j));
+					}
+					if (distinguishActions) {
+						mdp.addActionLabelledChoice(src, distr, action);
+					} else {
+						mdp.addChoice(src, distr);
+					}
+					break;
+				case LTS:
+					LTSSimple<Value> lts = (LTSSimple<Value>) modelSimple;
+					for (int j = 0; j < nt; j++) {
+						if (distinguishActions) {
+							lts.addActionLabelledTransition(src, explorer.getTransitionTarget(src, i, j), action);
+						} else {
+							lts.addTransition(src, explorer.getTransitionTarget(src, i, j));
+						}
+					}
+					break;
+				default:
+					throw new PrismNotSupportedException("Parallel model construction not supported for " + modelType + "s");
+				}
+			}
+			explorer.clearState(src);
+		}
+	}
+
+	/**
+	 * Build a permutation (mapping current indices to new indices)
+	 * that sorts a list of states into their natural ordering.
+	 */
+	private static int[] buildSortingPermutation(List<State> statesList)
+	{
+		int n = statesList.size();
+		Integer sorted[] = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			sorted[i] = i;
+		}
+		Arrays.parallelSort(sorted, (i1, i2) -> statesList.get(i1).compareTo(statesList.get(i2)));
+		int permut[] = new int[n];
+		for (int i = 0; i < n; i++) {
+			permut[sorted[i]] = i;
+		}
+		return permut;
+	}
+
+	/**
+	 * Permute a list of states: index in new list is permut[old_index].
+	 */
+	private static List<State> permuteList(List<State> statesList, int permut[])
+	{
+		int n = statesList.size();
+		State permuted[] = new State[n];
+		for (int i = 0; i < n; i++) {
+			permuted[permut[i]] = statesList.get(i);
+		}
+		return new ArrayList<>(Arrays.asList(permuted));
+	}
+
 	private <Value> void setStateObservation(ModelGenerator<Value> modelGen, POMDPSimple<Value> pomdp, int s, State state) throws PrismException
 	{
 		// Get observation for the current state
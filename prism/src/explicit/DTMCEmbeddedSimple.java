@@ -44,7 +44,7 @@ import prism.PrismNotSupportedException;
 public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 {
 	// Parent CTMC
-	protected CTMCSimple<Value> ctmc;
+	protected CTMC<Value> ctmc;
 	// Exit rates vector
 	protected List<Value> exitRates;
 	// Number of extra transitions added (just for stats)
@@ -53,7 +53,7 @@ public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 	/**
 	 * Constructor: create from CTMC.
 	 */
-	public DTMCEmbeddedSimple(CTMCSimple<Value> ctmc)
+	public DTMCEmbeddedSimple(CTMC<Value> ctmc)
 	{
 		// Initialise/copy basic model info
 		initialise(ctmc.getNumStates());
@@ -63,7 +63,7 @@ public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 		exitRates = new ArrayList<>(numStates);
 		numExtraTransitions = 0;
 		for (int i = 0; i < numStates; i++) {
-			Value sum = ctmc.getTransitions(i).sum();
+			Value sum = ctmc.getExitRate(i);
 			exitRates.add(sum);
 			if (getEvaluator().isZero(sum))
 				numExtraTransitions++;
@@ -283,7 +283,6 @@ public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 
 	public double mvMultSingle(int s, double vect[])
 	{
-		Distribution<Value> distr = ctmc.getTransitions(s);
 		double d = 0.0;
 		double er = getEvaluator().toDouble(exitRates.get(s));
 		// Exit rate 0: prob 1 self-loop
@@ -292,7 +291,8 @@ public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 		}
 		// Exit rate > 0
 		else {
-			for (Map.Entry<Integer, Value> e : distr) {
+			for (Iterator<Entry<Integer, Value>> it = ctmc.getTransitionsIterator(s); it.hasNext();) {
+				Entry<Integer, Value> e = it.next();
 				int k = e.getKey();
 				double prob = getEvaluator().toDouble(e.getValue());
 				d += prob * vect[k];
@@ -306,7 +306,6 @@ public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 	@Override
 	public double mvMultJacSingle(int s, double vect[])
 	{
-		Distribution<Value> distr = ctmc.getTransitions(s);
 		double diag = 0.0, d = 0.0;
 		double er = getEvaluator().toDouble(exitRates.get(s));
 		// Exit rate 0: prob 1 self-loop
@@ -318,7 +317,8 @@ public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 			// (sum_{j!=s} P(s,j)*vect[j]) / (1-P(s,s))
 			// = (sum_{j!=s} (R(s,j)/E(s))*vect[j]) / (1-(P(s,s)/E(s)))
 			// = (sum_{j!=s} R(s,j)*vect[j]) / (E(s)-P(s,s))
-			for (Map.Entry<Integer, Value> e : distr) {
+			for (Iterator<Entry<Integer, Value>> it = ctmc.getTransitionsIterator(s); it.hasNext();) {
+				Entry<Integer, Value> e = it.next();
 				int k = e.getKey();
 				double prob = getEvaluator().toDouble(e.getValue());
 				// Non-diagonal entries only
@@ -336,7 +336,6 @@ public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 
 	public double mvMultRewSingle(int s, double vect[], MCRewards<Double> mcRewards)
 	{
-		Distribution<Value> distr = ctmc.getTransitions(s);
 		double er = getEvaluator().toDouble(exitRates.get(s));
 		double d = 0;
 		// Exit rate 0: prob 1 self-loop
@@ -345,7 +344,8 @@ public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 		}
 		// Exit rate > 0
 		else {
-			for (Map.Entry<Integer, Value> e : distr) {
+			for (Iterator<Entry<Integer, Value>> it = ctmc.getTransitionsIterator(s); it.hasNext();) {
+				Entry<Integer, Value> e = it.next();
 				int k = e.getKey();
 				double prob = getEvaluator().toDouble(e.getValue());
 				d += prob * vect[k];
@@ -360,7 +360,6 @@ public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 	//@Override
 	public double mvMultRewJacSingle(int s, double vect[], MCRewards<Double> mcRewards)
 	{
-		Distribution<Value> distr = ctmc.getTransitions(s);
 		double diag = 0.0, d = 0.0;
 		double er = getEvaluator().toDouble(exitRates.get(s));
 		// Exit rate 0: prob 1 self-loop
@@ -373,7 +372,8 @@ public class DTMCEmbeddedSimple<Value> extends DTMCExplicit<Value>
 			// = (rew(s) + sum_{j!=s} (R(s,j)/E(s))*vect[j]) / (1-(P(s,s)/E(s)))
 			// = (E(s)*rew(s) + sum_{j!=s} R(s,j)*vect[j]) / (E(s)-P(s,s))
 			d = er * mcRewards.getStateReward(s);
-			for (Map.Entry<Integer, Value> e : distr) {
+			for (Iterator<Entry<Integer, Value>> it = ctmc.getTransitionsIterator(s); it.hasNext();) {
+				Entry<Integer, Value> e = it.next();
 				int k = e.getKey();
 				double prob = getEvaluator().toDouble(e.getValue());
 				// Non-diagonal entries only
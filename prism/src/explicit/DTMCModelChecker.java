@@ -527,6 +527,21 @@ public class DTMCModelChecker extends ProbModelChecker
 		return computeReachProbs(dtmc, remain, target, null, null);
 	}
 
+	/**
+	 * Compute until probabilities.
+	 * i.e. compute the probability of reaching a state in {@code target},
+	 * while remaining in those in {@code remain}.
+	 * @param dtmc The DTMC
+	 * @param remain Remain in these states (optional: null means "all")
+	 * @param target Target states
+	 * @param statesOfInterest States for which the results are needed (optional: null means "all");
+	 * results for other states are arbitrary
+	 */
+	public ModelCheckerResult computeUntilProbs(DTMC<Double> dtmc, BitSet remain, BitSet target, BitSet statesOfInterest) throws PrismException
+	{
+		return computeReachProbs(dtmc, remain, target, null, null, statesOfInterest);
+	}
+
 	/**
 	 * Compute reachability/until probabilities.
 	 * i.e. compute the min/max probability of reaching a state in {@code target},
@@ -539,6 +554,24 @@ public class DTMCModelChecker extends ProbModelChecker
 	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.  
 	 */
 	public ModelCheckerResult computeReachProbs(DTMC<Double> dtmc, BitSet remain, BitSet target, double init[], BitSet known) throws PrismException
+	{
+		return computeReachProbs(dtmc, remain, target, init, known, null);
+	}
+
+	/**
+	 * Compute reachability/until probabilities.
+	 * i.e. compute the min/max probability of reaching a state in {@code target},
+	 * while remaining in those in {@code remain}.
+	 * @param dtmc The DTMC
+	 * @param remain Remain in these states (optional: null means "all")
+	 * @param target Target states
+	 * @param init Optionally, an initial solution vector (may be overwritten) 
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * @param statesOfInterest States for which the results are needed (optional: null means "all");
+	 * results for other states are arbitrary
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.  
+	 */
+	public ModelCheckerResult computeReachProbs(DTMC<Double> dtmc, BitSet remain, BitSet target, double init[], BitSet known, BitSet statesOfInterest) throws PrismException
 	{
 		ModelCheckerResult res = null;
 		BitSet no, yes;
@@ -555,15 +588,30 @@ public class DTMCModelChecker extends ProbModelChecker
 		case GAUSS_SEIDEL:
 		case BACKWARDS_GAUSS_SEIDEL:
 		case JACOBI:
+		case BICGSTAB:
+		case GMRES:
+		case CGS:
 			break; // supported
 		default:
 			linEqMethod = LinEqMethod.GAUSS_SEIDEL;
 			mainLog.printWarning("Switching to linear equation solution method \"" + linEqMethod.fullName() + "\"");
 		}
+		// (Krylov methods are not value iteration, so cannot be used for interval/sound/optimistic variants)
+		if (linEqMethod.isKrylov() && (doIntervalIteration || doSoundValIter || doOptimisticValIter)) {
+			linEqMethod = LinEqMethod.GAUSS_SEIDEL;
+			mainLog.printWarning("Switching to linear equation solution method \"" + linEqMethod.fullName() + "\"");
+		}
 
 		if (doIntervalIteration && (!precomp || !prob0 || !prob1)) {
 			throw new PrismNotSupportedException("Interval iteration requires precomputations to be active");
 		}
+		checkSoundIterationSettings();
+		if ((doOptimisticValIter || doSoundValIter) && (!precomp || !prob0 || !prob1)) {
+			throw new PrismNotSupportedException((doOptimisticValIter ? "Optimistic" : "Sound") + " value iteration requires precomputations to be active");
+		}
+		if ((doOptimisticValIter || doSoundValIter) && init != null) {
+			throw new PrismNotSupportedException("Currently, " + (doOptimisticValIter ? "optimistic" : "sound") + " value iteration is not supported with provided initial values");
+		}
 
 		// Start probabilistic reachability
 		timer = System.currentTimeMillis();
@@ -635,28 +683,14 @@ public class DTMCModelChecker extends ProbModelChecker
 
 		// Compute probabilities (if needed)
 		if (numYes + numNo < n) {
-			boolean termCritAbsolute = termCrit == TermCrit.ABSOLUTE;
-			IterationMethod iterationMethod = null;
-			switch (linEqMethod) {
-			case POWER:
-				iterationMethod = new IterationMethodPower(termCritAbsolute, termCritParam);
-				break;
-			case JACOBI:
-				iterationMethod = new IterationMethodJacobi(termCritAbsolute, termCritParam);
-				break;
-			case GAUSS_SEIDEL:
-			case BACKWARDS_GAUSS_SEIDEL: {
-				boolean backwards = linEqMethod == LinEqMethod.BACKWARDS_GAUSS_SEIDEL;
-				iterationMethod = new IterationMethodGS(termCritAbsolute, termCritParam, backwards);
-				break;
-			}
-			default:
-				throw new PrismException("Unknown linear equation solution method " + linEqMethod.fullName());
-			}
-			if (doIntervalIteration) {
-				res = doIntervalIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
+			// If possible/worthwhile, reduce the model first
+			BitSet relevant = init == null ? getReachReductionStates(dtmc, no, yes, statesOfInterest) : null;
+			if (relevant != null) {
+				ReachabilityReduction<DTMC<Double>> reduction = ReachabilityReduction.reduce(dtmc, no, yes, relevant);
+				res = computeReachProbsNumeric(reduction.getTransformedModel(), linEqMethod, reduction.getNo(), reduction.getYes(), null, null);
+				res.soln = reduction.mapToOriginalModel(res.soln);
 			} else {
-				res = doValueIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
+				res = computeReachProbsNumeric(dtmc, linEqMethod, no, yes, init, known);
 			}
 		} else {
 			res = new ModelCheckerResult();
@@ -676,6 +710,230 @@ public class DTMCModelChecker extends ProbModelChecker
 		return res;
 	}
 
+	/**
+	 * Compute reachability probabilities numerically, once the states with probability 0 ({@code no})
+	 * and 1 ({@code yes}) are known, using linear equation solution method {@code linEqMethod}.
+	 * @param dtmc The DTMC
+	 * @param linEqMethod The (iterative) linear equation solution method
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param init Optionally, an initial solution vector (may be overwritten) 
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 */
+	protected ModelCheckerResult computeReachProbsNumeric(DTMC<Double> dtmc, LinEqMethod linEqMethod, BitSet no, BitSet yes, double init[], BitSet known) throws PrismException
+	{
+		if (linEqMethod.isKrylov()) {
+			return doKrylovReachProbs(dtmc, linEqMethod, no, yes, init, known, getDoTopologicalValueIteration());
+		}
+		boolean termCritAbsolute = termCrit == TermCrit.ABSOLUTE;
+		IterationMethod iterationMethod = null;
+		switch (linEqMethod) {
+		case POWER:
+			iterationMethod = new IterationMethodPower(termCritAbsolute, termCritParam);
+			break;
+		case JACOBI:
+			iterationMethod = new IterationMethodJacobi(termCritAbsolute, termCritParam);
+			break;
+		case GAUSS_SEIDEL:
+		case BACKWARDS_GAUSS_SEIDEL: {
+			boolean backwards = linEqMethod == LinEqMethod.BACKWARDS_GAUSS_SEIDEL;
+			IterationMethodGS iterationMethodGS = new IterationMethodGS(termCritAbsolute, termCritParam, backwards);
+			iterationMethodGS.setParallel(doParallelGS);
+			iterationMethod = iterationMethodGS;
+			break;
+		}
+		default:
+			throw new PrismException("Unknown linear equation solution method " + linEqMethod.fullName());
+		}
+		iterationMethod.setNumThreads(numThreads);
+		if (doIntervalIteration) {
+			return doIntervalIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
+		} else if (doSoundValIter) {
+			return doSoundValueIterationReachProbs(dtmc, no, yes, iterationMethod);
+		} else {
+			return doValueIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
+		}
+	}
+
+	/**
+	 * Compute reachability probabilities using a Krylov subspace method (see {@link SparseLinearSolver}).
+	 * @param dtmc The DTMC
+	 * @param linEqMethod The (Krylov) linear equation solution method
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param init Optionally, an initial solution vector (will be overwritten)
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * Note: if 'known' is specified (i.e. is non-null), 'init' must also be given and is used for the exact values.
+	 * @param topological Solve SCC by SCC?
+	 */
+	protected ModelCheckerResult doKrylovReachProbs(DTMC<Double> dtmc, LinEqMethod linEqMethod, BitSet no, BitSet yes, double init[], BitSet known, boolean topological) throws PrismException
+	{
+		int n = dtmc.getNumStates();
+		double soln[] = init == null ? new double[n] : init;
+		BitSet unknown = new BitSet();
+		for (int i = 0; i < n; i++) {
+			if (known != null && known.get(i)) {
+				continue;
+			}
+			if (yes.get(i)) {
+				soln[i] = 1.0;
+			} else if (no.get(i)) {
+				soln[i] = 0.0;
+			} else {
+				unknown.set(i);
+			}
+		}
+		return doKrylovLinearSystem(dtmc, null, unknown, soln, linEqMethod, topological, "ReachProbs");
+	}
+
+	/**
+	 * Compute expected reachability rewards using a Krylov subspace method (see {@link SparseLinearSolver}).
+	 * @param dtmc The DTMC
+	 * @param mcRewards The rewards
+	 * @param linEqMethod The (Krylov) linear equation solution method
+	 * @param target Target states
+	 * @param inf States for which reward is infinite
+	 * @param init Optionally, an initial solution vector (will be overwritten)
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * Note: if 'known' is specified (i.e. is non-null), 'init' must also be given and is used for the exact values.
+	 * @param topological Solve SCC by SCC?
+	 */
+	protected ModelCheckerResult doKrylovReachRewards(DTMC<Double> dtmc, MCRewards<Double> mcRewards, LinEqMethod linEqMethod, BitSet target, BitSet inf, double init[], BitSet known, boolean topological) throws PrismException
+	{
+		int n = dtmc.getNumStates();
+		double soln[] = init == null ? new double[n] : init;
+		BitSet unknown = new BitSet();
+		for (int i = 0; i < n; i++) {
+			if (known != null && known.get(i)) {
+				continue;
+			}
+			if (target.get(i)) {
+				soln[i] = 0.0;
+			} else if (inf.get(i)) {
+				soln[i] = Double.POSITIVE_INFINITY;
+			} else {
+				unknown.set(i);
+			}
+		}
+		return doKrylovLinearSystem(dtmc, mcRewards, unknown, soln, linEqMethod, topological, "ReachRewards");
+	}
+
+	/**
+	 * Solve the linear equation system {@code x(s) = rew(s) + sum_t P(s,t) x(t)} for the states {@code s} in {@code unknown},
+	 * where {@code rew} is 0 if {@code mcRewards} is null, using a Krylov subspace method (see {@link SparseLinearSolver}).
+	 * The values of states not in {@code unknown} are fixed, and taken from {@code soln},
+	 * which also provides the initial values for the states in {@code unknown} and is used to store the result.
+	 * If the Krylov method fails (e.g. breaks down), Gauss-Seidel is used instead.
+	 */
+	protected ModelCheckerResult doKrylovLinearSystem(DTMC<Double> dtmc, MCRewards<Double> mcRewards, BitSet unknown, double soln[], LinEqMethod linEqMethod, boolean topological, String description) throws PrismException
+	{
+		SparseLinearSolver.Method method = linEqMethod.toSparseLinearSolverMethod();
+		String methodName = getSparseLinearSolverDescription(method);
+		mainLog.println("Starting " + methodName + " (" + description + (topological ? ", topological" : "") + ")...");
+		StopWatch watch = new StopWatch(mainLog).start();
+
+		// Build the linear equation system, over the unknown states
+		int numRows = unknown.cardinality();
+		int rowToState[] = new int[numRows];
+		int stateToRow[] = new int[dtmc.getNumStates()];
+		int rowStart[] = new int[numRows];
+		int rowEnd[] = new int[numRows];
+		int nnz = 0;
+		int r = 0;
+		for (int s = unknown.nextSetBit(0); s >= 0; s = unknown.nextSetBit(s + 1)) {
+			rowToState[r] = s;
+			stateToRow[s] = r;
+			rowStart[r++] = nnz;
+			nnz += dtmc.getNumTransitions(s);
+		}
+		int cols[] = new int[nnz];
+		double vals[] = new double[nnz];
+		double b[] = new double[numRows];
+		double x[] = new double[numRows];
+		for (r = 0; r < numRows; r++) {
+			int s = rowToState[r];
+			int j = rowStart[r];
+			double d = mcRewards == null ? 0.0 : mcRewards.getStateReward(s);
+			for (Iterator<Entry<Integer, Double>> it = dtmc.getTransitionsIterator(s); it.hasNext();) {
+				Entry<Integer, Double> e = it.next();
+				int t = e.getKey();
+				double p = e.getValue();
+				if (unknown.get(t)) {
+					cols[j] = stateToRow[t];
+					vals[j++] = p;
+				} else if (p > 0.0) {
+					d += p * soln[t];
+				}
+			}
+			rowEnd[r] = j;
+			b[r] = d;
+			x[r] = soln[s];
+		}
+
+		// Solve (SCC by SCC, in reverse topological order, if required)
+		SparseLinearSolver solver = new SparseLinearSolver(numRows, rowStart, rowEnd, cols, vals, b);
+		solver.setTermCrit(termCrit == TermCrit.ABSOLUTE, termCritParam, maxIters);
+		solver.setPreconditioner(linEqPreconditioner);
+		solver.setNumThreads(numThreads);
+		int rows[] = new int[numRows];
+		int blocks[];
+		if (topological) {
+			SCCInfo sccs = SCCComputer.computeTopologicalOrdering(this, dtmc, true, unknown::get);
+			blocks = new int[sccs.getNumSCCs() + 1];
+			int pos = 0;
+			for (int scc = 0, numSCCs = sccs.getNumSCCs(); scc < numSCCs; scc++) {
+				blocks[scc] = pos;
+				for (PrimitiveIterator.OfInt it = sccs.getStatesForSCC(scc).iterator(); it.hasNext();) {
+					rows[pos++] = stateToRow[it.nextInt()];
+				}
+			}
+			blocks[sccs.getNumSCCs()] = pos;
+		} else {
+			for (r = 0; r < numRows; r++) {
+				rows[r] = r;
+			}
+			blocks = new int[] { 0, numRows };
+		}
+		int iters = 0;
+		double error = 0.0;
+		boolean converged = true;
+		boolean fallback = false;
+		for (int i = 0; i < blocks.length - 1; i++) {
+			solver.setMethod(method);
+			iters += solver.solve(x, rows, blocks[i], blocks[i + 1]);
+			if (!solver.isConverged()) {
+				fallback = true;
+				solver.setMethod(SparseLinearSolver.Method.GAUSS_SEIDEL);
+				iters += solver.solve(x, rows, blocks[i], blocks[i + 1]);
+			}
+			converged &= solver.isConverged();
+			error = Math.max(error, solver.getError());
+		}
+		for (r = 0; r < numRows; r++) {
+			soln[rowToState[r]] = x[r];
+		}
+
+		// Finished
+		watch.stop();
+		if (fallback) {
+			mainLog.printWarning(method.fullName() + " failed" + (topological ? " for some SCCs" : "") + ", so Gauss-Seidel was used instead");
+		}
+		mainLog.println(methodName + ": " + iters + " iterations in " + watch.elapsedSeconds() + " seconds.");
+
+		// Non-convergence is an error (usually)
+		if (!converged && errorOnNonConverge) {
+			String msg = "Iterative method did not converge within " + iters + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = soln;
+		res.numIters = iters;
+		res.timeTaken = watch.elapsedSeconds();
+		res.accuracy = AccuracyFactory.valueIteration(termCritParam, error, termCrit == TermCrit.ABSOLUTE);
+		return res;
+	}
 
 	/**
 	 * Prob0 precomputation algorithm (using predecessor relation),
@@ -942,7 +1200,8 @@ public class DTMCModelChecker extends ProbModelChecker
 	}
 
 	/**
-	 * Compute reachability probabilities using value iteration.
+	 * Compute reachability probabilities using value iteration
+	 * (or optimistic value iteration, if enabled).
 	 * @param dtmc The DTMC
 	 * @param no Probability 0 states
 	 * @param yes Probability 1 states
@@ -961,11 +1220,12 @@ public class DTMCModelChecker extends ProbModelChecker
 		// Start value iteration
 		timer = System.currentTimeMillis();
 		String description = (topological ? "topological, " : "" ) + "with " + iterationMethod.getDescriptionShort();
-		mainLog.println("Starting value iteration (" + description + ")...");
+		String method = doOptimisticValIter ? "optimistic value iteration" : "value iteration";
+		mainLog.println("Starting " + method + " (" + description + ")...");
 
 		ExportIterations iterationsExport = null;
 		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
-			iterationsExport = new ExportIterations("Explicit DTMC ReachProbs value iteration (" + description + ")");
+			iterationsExport = new ExportIterations("Explicit DTMC ReachProbs " + method + " (" + description + ")");
 			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
 		}
 
@@ -974,8 +1234,9 @@ public class DTMCModelChecker extends ProbModelChecker
 
 		// Initialise solution vectors. Use (where available) the following in order of preference:
 		// (1) exact answer, if already known; (2) 1.0/0.0 if in yes/no; (3) passed in initial value; (4) initVal
-		// where initVal is 0.0 or 1.0, depending on whether we converge from below/above. 
-		initVal = (valIterDir == ValIterDir.BELOW) ? 0.0 : 1.0;
+		// where initVal is 0.0 or 1.0, depending on whether we converge from below/above
+		// (always from below for optimistic value iteration).
+		initVal = (valIterDir == ValIterDir.BELOW || doOptimisticValIter) ? 0.0 : 1.0;
 		if (init != null) {
 			if (known != null) {
 				for (i = 0; i < n; i++)
@@ -1006,6 +1267,19 @@ public class DTMCModelChecker extends ProbModelChecker
 
 		IntSet unknownStates = IntSet.asIntSet(unknown);
 
+		if (doOptimisticValIter) {
+			IterationMethod.SingleStateOperator operator = (int s, double[] soln) -> dtmc.mvMultSingle(s, soln);
+			if (topological) {
+				SCCInfo sccs = SCCComputer.computeTopologicalOrdering(this, dtmc, true, unknown::get);
+				IterationMethod.SingletonSCCSolver singletonSCCSolver = (int s, double[] soln) -> {
+					soln[s] = dtmc.mvMultJacSingle(s, soln);
+				};
+				return iterationMethod.doTopologicalOptimisticValueIteration(this, description, sccs, iterationReachProbs, operator, singletonSCCSolver, singletonSCCSolver, 1.0, timer, iterationsExport);
+			} else {
+				return iterationMethod.doOptimisticValueIteration(this, description, iterationReachProbs, operator, 1.0, unknownStates, timer, iterationsExport);
+			}
+		}
+
 		if (topological) {
 			// Compute SCCInfo, including trivial SCCs in the subgraph obtained when only considering
 			// states in unknown
@@ -1036,6 +1310,7 @@ public class DTMCModelChecker extends ProbModelChecker
 	protected ModelCheckerResult computeReachProbsValIter(DTMC<Double> dtmc, BitSet no, BitSet yes, double init[], BitSet known) throws PrismException
 	{
 		IterationMethodPower iterationMethod = new IterationMethodPower(termCrit == TermCrit.ABSOLUTE, termCritParam);
+		iterationMethod.setNumThreads(numThreads);
 		return doValueIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, false);
 	}
 
@@ -1066,9 +1341,48 @@ public class DTMCModelChecker extends ProbModelChecker
 	protected ModelCheckerResult computeReachProbsGaussSeidel(DTMC<Double> dtmc, BitSet no, BitSet yes, double init[], BitSet known, boolean backwards) throws PrismException
 	{
 		IterationMethodGS iterationMethod = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, backwards);
+		iterationMethod.setNumThreads(numThreads);
+		iterationMethod.setParallel(doParallelGS);
 		return doValueIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, false);
 	}
 
+	/**
+	 * Compute reachability probabilities using sound value iteration.
+	 * @param dtmc The DTMC
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param iterationMethod The iteration method (determines the convergence check)
+	 */
+	protected ModelCheckerResult doSoundValueIterationReachProbs(DTMC<Double> dtmc, BitSet no, BitSet yes, IterationMethod iterationMethod) throws PrismException
+	{
+		// Start sound value iteration
+		long timer = System.currentTimeMillis();
+		String description = "with " + iterationMethod.getDescriptionShort();
+		mainLog.println("Starting sound value iteration (" + description + ")...");
+
+		ExportIterations iterationsExport = null;
+		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
+			iterationsExport = new ExportIterations("Explicit DTMC ReachProbs sound value iteration (" + description + ")");
+			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
+		}
+
+		// Determine set of states actually need to compute values for
+		int n = dtmc.getNumStates();
+		BitSet unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(yes);
+		unknown.andNot(no);
+
+		// x: probability of having reached a yes state; y: probability of remaining in unknown
+		double x[] = Utils.bitsetToDoubleArray(yes, n);
+		double y[] = Utils.bitsetToDoubleArray(unknown, n);
+		IterationMethod.SoundValIterOperator operator = (int s, double[] xs, double[] ys, double[] xy) -> {
+			xy[0] = dtmc.mvMultSingle(s, xs);
+			xy[1] = dtmc.mvMultSingle(s, ys);
+		};
+		return iterationMethod.doSoundValueIteration(this, description, dtmc, operator, x, y, 0.0, 1.0, true, true, IntSet.asIntSet(unknown), timer, iterationsExport);
+	}
+
 	/**
 	 * Compute reachability probabilities using power method (interval variant).
 	 * @param dtmc The DTMC
@@ -1700,11 +2014,24 @@ public class DTMCModelChecker extends ProbModelChecker
 		case GAUSS_SEIDEL:
 		case BACKWARDS_GAUSS_SEIDEL:
 		case JACOBI:
+		case BICGSTAB:
+		case GMRES:
+		case CGS:
 			break; // supported
 		default:
 			linEqMethod = LinEqMethod.GAUSS_SEIDEL;
 			mainLog.printWarning("Switching to linear equation solution method \"" + linEqMethod.fullName() + "\"");
 		}
+		// (Krylov methods are not value iteration, so cannot be used for interval/sound/optimistic variants)
+		if (linEqMethod.isKrylov() && (doIntervalIteration || doSoundValIter || doOptimisticValIter)) {
+			linEqMethod = LinEqMethod.GAUSS_SEIDEL;
+			mainLog.printWarning("Switching to linear equation solution method \"" + linEqMethod.fullName() + "\"");
+		}
+
+		checkSoundIterationSettings();
+		if ((doOptimisticValIter || doSoundValIter) && init != null) {
+			throw new PrismNotSupportedException("Currently, " + (doOptimisticValIter ? "optimistic" : "sound") + " value iteration is not supported with provided initial values");
+		}
 
 		// Start expected reachability
 		timer = System.currentTimeMillis();
@@ -1746,7 +2073,9 @@ public class DTMCModelChecker extends ProbModelChecker
 		mainLog.println("target=" + numTarget + ", inf=" + numInf + ", rest=" + (n - (numTarget + numInf)));
 
 		// Compute rewards (if needed)
-		if (numTarget + numInf < n) {
+		if (numTarget + numInf < n && linEqMethod.isKrylov()) {
+			res = doKrylovReachRewards(dtmc, mcRewards, linEqMethod, target, inf, init, known, getDoTopologicalValueIteration());
+		} else if (numTarget + numInf < n) {
 			boolean termCritAbsolute = termCrit == TermCrit.ABSOLUTE;
 			IterationMethod iterationMethod;
 			switch (linEqMethod) {
@@ -1759,14 +2088,19 @@ public class DTMCModelChecker extends ProbModelChecker
 			case GAUSS_SEIDEL:
 			case BACKWARDS_GAUSS_SEIDEL: {
 				boolean backwards = linEqMethod == LinEqMethod.BACKWARDS_GAUSS_SEIDEL;
-				iterationMethod = new IterationMethodGS(termCritAbsolute, termCritParam, backwards);
+				IterationMethodGS iterationMethodGS = new IterationMethodGS(termCritAbsolute, termCritParam, backwards);
+				iterationMethodGS.setParallel(doParallelGS);
+				iterationMethod = iterationMethodGS;
 				break;
 			}
 			default:
 				throw new PrismException("Unknown linear equation solution method " + linEqMethod.fullName());
 			}
+			iterationMethod.setNumThreads(numThreads);
 			if (doIntervalIteration) {
 				res = doIntervalIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod, getDoTopologicalValueIteration());
+			} else if (doSoundValIter) {
+				res = doSoundValueIterationReachRewards(dtmc, mcRewards, target, inf, iterationMethod);
 			} else {
 				res = doValueIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod, getDoTopologicalValueIteration());
 			}
@@ -1915,11 +2249,12 @@ public class DTMCModelChecker extends ProbModelChecker
 		// Start value iteration
 		timer = System.currentTimeMillis();
 		String description = (topological ? "topological, " : "" ) + "with " + iterationMethod.getDescriptionShort();
-		mainLog.println("Starting value iteration (" + description + ") ...");
+		String method = doOptimisticValIter ? "optimistic value iteration" : "value iteration";
+		mainLog.println("Starting " + method + " (" + description + ") ...");
 
 		ExportIterations iterationsExport = null;
 		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
-			iterationsExport = new ExportIterations("Explicit DTMC ReachRewards value iteration (" + description + ")");
+			iterationsExport = new ExportIterations("Explicit DTMC ReachRewards " + method + " (" + description + ")");
 			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
 		}
 
@@ -1957,6 +2292,19 @@ public class DTMCModelChecker extends ProbModelChecker
 		IterationMethod.IterationValIter forMvMultRew = iterationMethod.forMvMultRew(dtmc, mcRewards);
 		forMvMultRew.init(init);
 
+		if (doOptimisticValIter) {
+			IterationMethod.SingleStateOperator operator = (int s, double[] soln) -> dtmc.mvMultRewSingle(s, soln, mcRewards);
+			if (topological) {
+				SCCInfo sccs = SCCComputer.computeTopologicalOrdering(this, dtmc, true, unknown::get);
+				IterationMethod.SingletonSCCSolver singletonSCCSolver = (int s, double[] soln) -> {
+					soln[s] = dtmc.mvMultRewJacSingle(s, soln, mcRewards);
+				};
+				return iterationMethod.doTopologicalOptimisticValueIteration(this, description, sccs, forMvMultRew, operator, singletonSCCSolver, singletonSCCSolver, Double.POSITIVE_INFINITY, timer, iterationsExport);
+			} else {
+				return iterationMethod.doOptimisticValueIteration(this, description, forMvMultRew, operator, Double.POSITIVE_INFINITY, unknownStates, timer, iterationsExport);
+			}
+		}
+
 		if (topological) {
 			SCCInfo sccs = new SCCInfo(n);
 			SCCComputer sccComputer = SCCComputer.createSCCComputer(this, dtmc, sccs);
@@ -1974,6 +2322,44 @@ public class DTMCModelChecker extends ProbModelChecker
 		}
 	}
 
+	/**
+	 * Compute expected reachability rewards using sound value iteration.
+	 * @param dtmc The DTMC
+	 * @param mcRewards The rewards
+	 * @param target Target states
+	 * @param inf States for which reward is infinite
+	 * @param iterationMethod The iteration method (determines the convergence check)
+	 */
+	protected ModelCheckerResult doSoundValueIterationReachRewards(DTMC<Double> dtmc, MCRewards<Double> mcRewards, BitSet target, BitSet inf, IterationMethod iterationMethod) throws PrismException
+	{
+		// Start sound value iteration
+		long timer = System.currentTimeMillis();
+		String description = "with " + iterationMethod.getDescriptionShort();
+		mainLog.println("Starting sound value iteration (" + description + ")...");
+
+		ExportIterations iterationsExport = null;
+		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
+			iterationsExport = new ExportIterations("Explicit DTMC ReachRewards sound value iteration (" + description + ")");
+			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
+		}
+
+		// Determine set of states actually need to compute values for
+		int n = dtmc.getNumStates();
+		BitSet unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(target);
+		unknown.andNot(inf);
+
+		// x: reward accumulated so far; y: probability of remaining in unknown
+		double x[] = Utils.bitsetToDoubleArray(inf, n, Double.POSITIVE_INFINITY);
+		double y[] = Utils.bitsetToDoubleArray(unknown, n);
+		IterationMethod.SoundValIterOperator operator = (int s, double[] xs, double[] ys, double[] xy) -> {
+			xy[0] = dtmc.mvMultRewSingle(s, xs, mcRewards);
+			xy[1] = dtmc.mvMultSingle(s, ys);
+		};
+		return iterationMethod.doSoundValueIteration(this, description, dtmc, operator, x, y, 0.0, Double.POSITIVE_INFINITY, true, true, IntSet.asIntSet(unknown), timer, iterationsExport);
+	}
+
 	/**
 	 * Compute expected reachability rewards using interval iteration.
 	 * @param dtmc The DTMC
@@ -2406,6 +2792,13 @@ public class DTMCModelChecker extends ProbModelChecker
 		if (dtmc.getModelType() != ModelType.DTMC) {
 			throw new PrismNotSupportedException("Explicit engine currently does not support steady-state computation for " + dtmc.getModelType());
 		}
+		if (linEqMethod.isKrylov()) {
+			ModelCheckerResult res = computeSteadyStateProbsForBSCCKrylov(dtmc, states, result, bsccPostProcessor);
+			if (res != null) {
+				return res;
+			}
+			mainLog.printWarning(linEqMethod.fullName() + " failed, falling back to the power method");
+		}
 		IterableBitSet bscc = new IterableBitSet(states);
 
 		// Start value iteration
@@ -2543,6 +2936,104 @@ public class DTMCModelChecker extends ProbModelChecker
 		return res;
 	}
 
+	/**
+	 * Compute steady-state probabilities for a BSCC (see {@link #computeSteadyStateProbsForBSCC(DTMC, BitSet, double[], BSCCPostProcessor)})
+	 * using a Krylov subspace method (see {@link SparseLinearSolver}).
+	 * <br>
+	 * Fixing the (unnormalised) value of one state {@code s0} of the BSCC to 1, the values of the other states {@code t}
+	 * are the solution of {@code x(t) = sum_{s != s0} x(s) P(s,t) + P(s0,t)}, i.e., a system {@code x = A x + b}
+	 * with {@code A} the transpose of {@code P} restricted to the other states; this has a unique solution
+	 * since the BSCC is strongly connected. The result is then normalised.
+	 * <br>
+	 * Returns null (leaving {@code result} unchanged) if the method fails, e.g. because it breaks down.
+	 */
+	protected ModelCheckerResult computeSteadyStateProbsForBSCCKrylov(DTMC<Double> dtmc, BitSet states, double result[], BSCCPostProcessor bsccPostProcessor) throws PrismException
+	{
+		SparseLinearSolver.Method method = linEqMethod.toSparseLinearSolverMethod();
+		String methodName = getSparseLinearSolverDescription(method);
+		mainLog.println("Starting " + methodName + "...");
+		StopWatch watch = new StopWatch(mainLog).start();
+
+		int numStates = dtmc.getNumStates();
+		double[] soln = result == null ? new double[numStates] : result;
+		int s0 = states.nextSetBit(0);
+
+		// Number the other states
+		int numRows = states.cardinality() - 1;
+		int rowToState[] = new int[numRows];
+		int stateToRow[] = new int[numStates];
+		int r = 0;
+		for (int s = states.nextSetBit(s0 + 1); s >= 0; s = states.nextSetBit(s + 1)) {
+			rowToState[r] = s;
+			stateToRow[s] = r++;
+		}
+		// Build the transposed matrix (count entries of each row first)
+		int rowStart[] = new int[numRows];
+		int rowEnd[] = new int[numRows];
+		double b[] = new double[numRows];
+		for (r = 0; r < numRows; r++) {
+			dtmc.forEachDoubleTransition(rowToState[r], (s, t, prob) -> {
+				if (t != s0) {
+					rowEnd[stateToRow[t]]++;
+				}
+			});
+		}
+		int nnz = 0;
+		for (r = 0; r < numRows; r++) {
+			rowStart[r] = nnz;
+			nnz += rowEnd[r];
+			rowEnd[r] = rowStart[r];
+		}
+		int cols[] = new int[nnz];
+		double vals[] = new double[nnz];
+		for (r = 0; r < numRows; r++) {
+			int row = r;
+			dtmc.forEachDoubleTransition(rowToState[r], (s, t, prob) -> {
+				if (t != s0) {
+					int j = rowEnd[stateToRow[t]]++;
+					cols[j] = row;
+					vals[j] = prob;
+				}
+			});
+		}
+		dtmc.forEachDoubleTransition(s0, (s, t, prob) -> {
+			if (t != s0) {
+				b[stateToRow[t]] += prob;
+			}
+		});
+
+		// Solve, starting from a uniform distribution
+		double x[] = new double[numRows];
+		Arrays.fill(x, 1.0);
+		SparseLinearSolver solver = new SparseLinearSolver(numRows, rowStart, rowEnd, cols, vals, b);
+		solver.setMethod(method);
+		solver.setTermCrit(termCrit == TermCrit.ABSOLUTE, termCritParam, maxIters);
+		solver.setPreconditioner(linEqPreconditioner);
+		solver.setNumThreads(numThreads);
+		int iters = numRows == 0 ? 0 : solver.solve(x);
+		watch.stop();
+		mainLog.println(methodName + ": " + iters + " iterations in " + watch.elapsedSeconds() + " seconds.");
+		if (numRows > 0 && !solver.isConverged()) {
+			return null;
+		}
+
+		// Normalise (and post-process) the solution
+		soln[s0] = 1.0;
+		for (r = 0; r < numRows; r++) {
+			soln[rowToState[r]] = x[r];
+		}
+		PrismUtils.normalise(soln, new IterableBitSet(states));
+		if (bsccPostProcessor != null) {
+			bsccPostProcessor.apply(soln, states);
+		}
+
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = soln;
+		res.numIters = iters;
+		res.timeTaken = watch.elapsedSeconds();
+		return res;
+	}
+
 	/**
 	 * Compute transient probabilities
 	 * i.e. compute the probability of being in each state at time step {@code k},
@@ -71,7 +71,7 @@ public class DTMCSimple<Value> extends DTMCExplicit<Value> implements ModelSimpl
 		this(dtmc.numStates);
 		copyFrom(dtmc);
 		for (int i = 0; i < numStates; i++) {
-			trans.set(i, new Distribution<Value>(dtmc.trans.get(i)));
+			trans.set(i, dtmc.trans.get(i).copy());
 		}
 		numTransitions = dtmc.numTransitions;
 	}
@@ -88,7 +88,7 @@ public class DTMCSimple<Value> extends DTMCExplicit<Value> implements ModelSimpl
 		this(dtmc.numStates);
 		copyFrom(dtmc, permut);
 		for (int i = 0; i < numStates; i++) {
-			trans.set(permut[i], new Distribution<Value>(dtmc.trans.get(i), permut));
+			trans.set(permut[i], dtmc.trans.get(i).map(permut));
 		}
 		numTransitions = dtmc.numTransitions;
 	}
@@ -140,7 +140,7 @@ public class DTMCSimple<Value> extends DTMCExplicit<Value> implements ModelSimpl
 		super.initialise(numStates);
 		trans = new ArrayList<Distribution<Value>>(numStates);
 		for (int i = 0; i < numStates; i++) {
-			trans.add(new Distribution<Value>(getEvaluator()));
+			trans.add(Distribution.create(getEvaluator()));
 		}
 	}
 
@@ -150,6 +150,7 @@ public class DTMCSimple<Value> extends DTMCExplicit<Value> implements ModelSimpl
 		// Do nothing if state does not exist
 		if (i >= numStates || i < 0)
 			return;
+		transitionsChanged();
 		// Clear data structures and update stats
 		numTransitions -= trans.get(i).size();
 		trans.get(i).clear();
@@ -165,8 +166,9 @@ public class DTMCSimple<Value> extends DTMCExplicit<Value> implements ModelSimpl
 	@Override
 	public void addStates(int numToAdd)
 	{
+		transitionsChanged();
 		for (int i = 0; i < numToAdd; i++) {
-			trans.add(new Distribution<Value>(getEvaluator()));
+			trans.add(Distribution.create(getEvaluator()));
 			numStates++;
 		}
 	}
@@ -219,6 +221,7 @@ public class DTMCSimple<Value> extends DTMCExplicit<Value> implements ModelSimpl
 	 */
 	public void setProbability(int i, int j, Value prob)
 	{
+		transitionsChanged();
 		Distribution<Value> distr = trans.get(i);
 		if (!getEvaluator().isZero(distr.get(j)))
 			numTransitions--;
@@ -232,6 +235,7 @@ public class DTMCSimple<Value> extends DTMCExplicit<Value> implements ModelSimpl
 	 */
 	public void addToProbability(int i, int j, Value prob)
 	{
+		transitionsChanged();
 		if (!trans.get(i).add(j, prob)) {
 			if (!getEvaluator().isZero(prob))
 				numTransitions++;
@@ -262,6 +266,10 @@ public class DTMCSimple<Value> extends DTMCExplicit<Value> implements ModelSimpl
 	@Override
 	public SuccessorsIterator getSuccessors(int s)
 	{
+		Distribution<Value> distr = trans.get(s);
+		if (distr instanceof DistributionDouble) {
+			return SuccessorsIterator.from(((DistributionDouble) distr).getSupportIterator(), true);
+		}
 		return SuccessorsIterator.from(getSuccessorsIterator(s), true);
 	}
 
@@ -312,6 +320,37 @@ public class DTMCSimple<Value> extends DTMCExplicit<Value> implements ModelSimpl
 		return trans.get(s).iterator();
 	}
 
+	@Override
+	public void forEachDoubleTransition(int s, DoubleTransitionConsumer c)
+	{
+		Distribution<Value> distr = trans.get(s);
+		if (distr instanceof DistributionDouble) {
+			// Iterate over primitive arrays directly
+			DistributionDouble distrDbl = (DistributionDouble) distr;
+			for (int k = 0, n = distrDbl.size(); k < n; k++) {
+				c.accept(s, distrDbl.getIndex(k), distrDbl.getProbability(k));
+			}
+		} else {
+			super.forEachDoubleTransition(s, c);
+		}
+	}
+
+	@Override
+	public double sumOverDoubleTransitions(int s, DoubleTransitionToDoubleFunction f)
+	{
+		Distribution<Value> distr = trans.get(s);
+		if (distr instanceof DistributionDouble) {
+			// Iterate over primitive arrays directly
+			DistributionDouble distrDbl = (DistributionDouble) distr;
+			double sum = 0.0;
+			for (int k = 0, n = distrDbl.size(); k < n; k++) {
+				sum += f.apply(s, distrDbl.getIndex(k), distrDbl.getProbability(k));
+			}
+			return sum;
+		}
+		return super.sumOverDoubleTransitions(s, f);
+	}
+
 	// Accessors (other)
 
 	/**
@@ -95,6 +95,22 @@ public class DTMCSparse extends DTMCExplicit<Double>
 		predecessorRelation = dtmc.hasStoredPredecessorRelation() ? dtmc.getPredecessorRelation(null, false) : null;
 	}
 
+	/**
+	 * Constructor: build directly from (already constructed) sparse storage arrays,
+	 * e.g. as created by {@link SparseModelBuilder}. The arrays are stored, not copied.
+	 * Initial states, deadlocks, etc. need to be added separately.
+	 * @param numStates Number of states
+	 * @param rows Index of first transition for each state (array of size numStates+1)
+	 * @param columns Target state for each transition (array of size numTransitions)
+	 * @param probabilities Probability for each transition (array of size numTransitions)
+	 */
+	public DTMCSparse(int numStates, int[] rows, int[] columns, double[] probabilities) {
+		initialise(numStates);
+		this.rows = rows;
+		this.columns = columns;
+		this.probabilities = probabilities;
+	}
+
 	public DTMCSparse(final DTMC<Double> dtmc, int[] permut) {
 		initialise(dtmc.getNumStates());
 		for (Integer state : dtmc.getDeadlockStates()) {
@@ -0,0 +1,299 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.io.File;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import explicit.rewards.MCRewards;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of a DTMC,
+ * stored off-heap in a memory-mapped {@link BinaryModelFile}, rather than in Java arrays.
+ * The transitions section of the file is used in place, i.e., without copying it onto the heap,
+ * and the number of transitions may exceed the maximum size of an array.
+ * Otherwise, it is the same as {@link DTMCSparse}.
+ */
+public class DTMCSparseMapped extends DTMCExplicit<Double>
+{
+	/** The (mapped) file */
+	protected MappedFile mapped;
+
+	/** Byte offsets of the sections of the file */
+	protected long rowsOffset;
+	protected long colsOffset;
+	protected long nonZerosOffset;
+
+	/** Total number of transitions */
+	protected long numTransitions;
+
+	/**
+	 * Create a DTMC whose transitions are stored in an already mapped file {@code mapped},
+	 * starting at byte offset {@code offset}, laid out as the transitions section of a
+	 * {@link BinaryModelFile} (with one choice per state). The data is used in place, not copied.
+	 * Initial/deadlock states, states and labels should be added separately.
+	 */
+	DTMCSparseMapped(MappedFile mapped, long offset, int numStates, long numTransitions)
+	{
+		initialise(numStates);
+		this.mapped = mapped;
+		this.numTransitions = numTransitions;
+		// Skip the (trivial) index of the first choice of each state
+		rowsOffset = MappedFile.align(offset + 4L * (numStates + 1));
+		colsOffset = rowsOffset + 8L * (numStates + 1);
+		nonZerosOffset = MappedFile.align(colsOffset + 4L * numTransitions);
+	}
+
+	/**
+	 * Get the file in which this DTMC is stored.
+	 */
+	public File getFile()
+	{
+		return mapped.getFile();
+	}
+
+	// Access to mapped data
+
+	/** Index of the first transition of state s (or numTransitions for s = numStates) */
+	protected final long rowStart(int s)
+	{
+		return mapped.getLong(rowsOffset + 8L * s);
+	}
+
+	/** Target state of transition k */
+	protected final int col(long k)
+	{
+		return mapped.getInt(colsOffset + 4L * k);
+	}
+
+	/** Probability (or rate) of transition k */
+	protected final double nonZero(long k)
+	{
+		return mapped.getDouble(nonZerosOffset + 8L * k);
+	}
+
+	//--- Model ---
+
+	@Override
+	public int getNumTransitions()
+	{
+		if (numTransitions > Integer.MAX_VALUE) {
+			throw new ArithmeticException("Number of transitions (" + numTransitions + ") is too large for an int; use getNumTransitionsLong()");
+		}
+		return (int) numTransitions;
+	}
+
+	/**
+	 * Get the total number of transitions in the model (as a long).
+	 */
+	public long getNumTransitionsLong()
+	{
+		return numTransitions;
+	}
+
+	@Override
+	public int getNumTransitions(int s)
+	{
+		return (int) (rowStart(s + 1) - rowStart(s));
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(int s)
+	{
+		long start = rowStart(s);
+		long end = rowStart(s + 1);
+		return new SuccessorsIterator()
+		{
+			long cur = start;
+
+			@Override
+			public boolean successorsAreDistinct()
+			{
+				// We assume here that all the successor states for a given state are distinct
+				return true;
+			}
+
+			@Override
+			public boolean hasNext()
+			{
+				return cur < end;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				return col(cur++);
+			}
+		};
+	}
+
+	@Override
+	public void findDeadlocks(boolean fix) throws PrismException
+	{
+		for (int s = 0; s < numStates; s++) {
+			if (rowStart(s) == rowStart(s + 1)) {
+				if (fix) {
+					throw new PrismException("Can't fix deadlocks in a " + getClass().getSimpleName() + " since it cannot be modified after construction");
+				}
+				addDeadlockState(s);
+			}
+		}
+	}
+
+	@Override
+	public void checkForDeadlocks(BitSet except) throws PrismException
+	{
+		for (int s = 0; s < numStates; s++) {
+			if (rowStart(s) == rowStart(s + 1) && (except == null || !except.get(s)))
+				throw new PrismException(getModelType() + " has a deadlock in state " + s);
+		}
+	}
+
+	@Override
+	public String infoString()
+	{
+		String s = "";
+		s += numStates + " states (" + getNumInitialStates() + " initial)";
+		s += ", " + numTransitions + " transitions";
+		return s;
+	}
+
+	@Override
+	public String infoStringTable()
+	{
+		String s = "";
+		s += "States:      " + numStates + " (" + getNumInitialStates() + " initial)\n";
+		s += "Transitions: " + numTransitions + "\n";
+		return s;
+	}
+
+	//--- ModelExplicit ---
+
+	@Override
+	public void buildFromPrismExplicit(String filename) throws PrismException
+	{
+		throw new PrismNotSupportedException("Can't build a " + getClass().getSimpleName() + " from an explicit file; import a binary model file instead");
+	}
+
+	//--- DTMC ---
+
+	@Override
+	public void forEachTransition(int s, TransitionConsumer<Double> c)
+	{
+		for (long k = rowStart(s), stop = rowStart(s + 1); k < stop; k++) {
+			c.accept(s, col(k), nonZero(k));
+		}
+	}
+
+	@Override
+	public void forEachDoubleTransition(int s, DoubleTransitionConsumer c)
+	{
+		for (long k = rowStart(s), stop = rowStart(s + 1); k < stop; k++) {
+			c.accept(s, col(k), nonZero(k));
+		}
+	}
+
+	@Override
+	public Iterator<Entry<Integer, Double>> getTransitionsIterator(int s)
+	{
+		return new Iterator<Entry<Integer, Double>>()
+		{
+			long k = rowStart(s);
+			final long end = rowStart(s + 1);
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < end;
+			}
+
+			@Override
+			public Entry<Integer, Double> next()
+			{
+				assert (k < end);
+				long cur = k++;
+				return new AbstractMap.SimpleImmutableEntry<>(col(cur), nonZero(cur));
+			}
+		};
+	}
+
+	@Override
+	public double mvMultSingle(int s, double vect[])
+	{
+		double d = 0.0;
+		for (long k = rowStart(s), stop = rowStart(s + 1); k < stop; k++) {
+			d += nonZero(k) * vect[col(k)];
+		}
+		return d;
+	}
+
+	@Override
+	public double mvMultJacSingle(int s, double vect[])
+	{
+		double diag = 1.0;
+		double d = 0.0;
+		for (long k = rowStart(s), stop = rowStart(s + 1); k < stop; k++) {
+			int t = col(k);
+			if (t != s) {
+				d += nonZero(k) * vect[t];
+			} else {
+				diag -= nonZero(k);
+			}
+		}
+		if (diag > 0) {
+			d /= diag;
+		}
+		return d;
+	}
+
+	@Override
+	public double mvMultRewSingle(int s, double vect[], MCRewards<Double> mcRewards)
+	{
+		double d = mcRewards.getStateReward(s);
+		for (long k = rowStart(s), stop = rowStart(s + 1); k < stop; k++) {
+			d += nonZero(k) * vect[col(k)];
+		}
+		return d;
+	}
+
+	@Override
+	public void vmMult(double vect[], double result[])
+	{
+		// Initialise result to 0
+		Arrays.fill(result, 0);
+		// Go through matrix elements (by row)
+		for (int s = 0; s < numStates; s++) {
+			for (long k = rowStart(s), stop = rowStart(s + 1); k < stop; k++) {
+				result[col(k)] += nonZero(k) * vect[s];
+			}
+		}
+	}
+}
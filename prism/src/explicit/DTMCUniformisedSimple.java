@@ -30,7 +30,6 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 
 import parser.State;
@@ -44,13 +43,13 @@ import explicit.rewards.MCRewards;
 * This class is read-only: most of data is pointers to other model info.
 * <br>
 * Note: This implicitly constructed DTMC does not provide implementations for
-* all methods of a full DTMCExplicit model. See {@link CTMCSimple#buildUniformisedDTMC} for
+* all methods of a full DTMCExplicit model. See {@link CTMC#buildUniformisedDTMC} for
 * a method to obtain an explicit uniformised DTMC.
 */
 public class DTMCUniformisedSimple<Value> extends DTMCExplicit<Value>
 {
 	// Parent CTMC
-	protected CTMCSimple<Value> ctmc;
+	protected CTMC<Value> ctmc;
 	// Uniformisation rate
 	protected Value q;
 	// Number of extra transitions added (just for stats)
@@ -59,14 +58,25 @@ public class DTMCUniformisedSimple<Value> extends DTMCExplicit<Value>
 	/**
 	 * Constructor: create from CTMC and uniformisation rate q.
 	 */
-	public DTMCUniformisedSimple(CTMCSimple<Value> ctmc, Value q)
+	public DTMCUniformisedSimple(CTMC<Value> ctmc, Value q)
 	{
 		this.ctmc = ctmc;
 		this.numStates = ctmc.getNumStates();
 		this.q = q;
 		numExtraTransitions = 0;
 		for (int i = 0; i < numStates; i++) {
-			if (!ctmc.getTransitions(i).contains(i) && !getEvaluator().geq(ctmc.getTransitions(i).sumAllBut(i), q)) {
+			// Need an extra self-loop if there is none and the off-diagonal sum is less than q
+			boolean hasDiag = false;
+			Value sum = getEvaluator().zero();
+			for (Iterator<Entry<Integer, Value>> it = ctmc.getTransitionsIterator(i); it.hasNext();) {
+				Entry<Integer, Value> e = it.next();
+				if (e.getKey() == i) {
+					hasDiag = true;
+				} else {
+					sum = getEvaluator().add(sum, e.getValue());
+				}
+			}
+			if (!hasDiag && !getEvaluator().geq(sum, q)) {
 				numExtraTransitions++;
 			}
 		}
@@ -75,7 +85,7 @@ public class DTMCUniformisedSimple<Value> extends DTMCExplicit<Value>
 	/**
 	 * Constructor: create from CTMC and its default uniformisation rate.
 	 */
-	public DTMCUniformisedSimple(CTMCSimple<Value> ctmc)
+	public DTMCUniformisedSimple(CTMC<Value> ctmc)
 	{
 		this(ctmc, ctmc.getDefaultUniformisationRate());
 	}
@@ -221,9 +231,9 @@ public class DTMCUniformisedSimple<Value> extends DTMCExplicit<Value>
 	public double mvMultSingle(int s, double vect[])
 	{
 		double qDouble = getEvaluator().toDouble(q);
-		Distribution<Value> distr = ctmc.getTransitions(s);
 		double sum = 0.0, d = 0.0;
-		for (Map.Entry<Integer, Value> e : distr) {
+		for (Iterator<Entry<Integer, Value>> it = ctmc.getTransitionsIterator(s); it.hasNext();) {
+			Entry<Integer, Value> e = it.next();
 			int k = e.getKey();
 			double prob = getEvaluator().toDouble(e.getValue());
 			// Non-diagonal entries
@@ -244,9 +254,9 @@ public class DTMCUniformisedSimple<Value> extends DTMCExplicit<Value>
 	public double mvMultJacSingle(int s, double vect[])
 	{
 		double qDouble = getEvaluator().toDouble(q);
-		Distribution<Value> distr = ctmc.getTransitions(s);
 		double sum = 0.0, d = 0.0;
-		for (Map.Entry<Integer, Value> e : distr) {
+		for (Iterator<Entry<Integer, Value>> it = ctmc.getTransitionsIterator(s); it.hasNext();) {
+			Entry<Integer, Value> e = it.next();
 			int k = e.getKey();
 			double prob = (Double) e.getValue();
 			// Non-diagonal entries only
@@ -102,7 +102,7 @@ public class DijkstraSweepMPI {
 		this.target = target;
 		this.rewards = rewards;
 
-		incoming = IncomingChoiceRelation.forModel(parent, mdp);
+		incoming = mdp.getIncomingChoiceRelation(parent, true);
 
 		queue = new PriorityQueue<QueueEntry>();
 		pState = new double[mdp.getNumStates()];
@@ -43,6 +43,9 @@ import simulator.RandomNumberGenerator;
  * Explicit representation of a probability distribution.
  * Basically, a mapping from (integer-valued) indices to (non-zero) probabilities.
  * This is a generic class where probabilities are of type {@code Value}.
+ * For the (usual) case where probabilities are doubles, the subclass
+ * {@link DistributionDouble} provides a more compact, primitive-array-based representation;
+ * use {@link #create(Evaluator)} or {@link #ofDouble()} to obtain it where applicable.
  */
 public class Distribution<Value> implements FunctionalIterable<Entry<Integer, Value>>
 {
@@ -75,6 +78,17 @@ public class Distribution<Value> implements FunctionalIterable<Entry<Integer, Va
 		this.map = new HashMap<>();
 	}
 
+	/**
+	 * Create an empty distribution, with the mapping from indices to probabilities provided
+	 * (for subclasses that store the distribution differently, the map may be null,
+	 * in which case all methods that access it directly must be overridden).
+	 */
+	protected Distribution(Evaluator<Value> eval, HashMap<Integer, Value> map)
+	{
+		this.eval = eval;
+		this.map = map;
+	}
+
 	/**
 	 * Construct a distribution from an iterator over transitions
 	 * (with an Evaluator to match the type parameter Value).
@@ -111,13 +125,27 @@ public class Distribution<Value> implements FunctionalIterable<Entry<Integer, Va
 		distr.forEach(t -> add(permut[t.getKey()], t.getValue()));
 	}
 
+	/**
+	 * Construct an empty distribution, using the Evaluator provided.
+	 * If this is the standard Evaluator for doubles, the distribution
+	 * is a (more efficient) {@link DistributionDouble}.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <Value> Distribution<Value> create(Evaluator<Value> eval)
+	{
+		if (eval == Evaluator.forDouble()) {
+			return (Distribution<Value>) new DistributionDouble();
+		}
+		return new Distribution<>(eval);
+	}
+
 	/**
 	 * Construct an empty distribution
 	 * assuming an Evaluator of type Double.
 	 */
 	public static Distribution<Double> ofDouble()
 	{
-		return new Distribution<>(Evaluator.forDouble());
+		return new DistributionDouble();
 	}
 
 	/**
@@ -126,7 +154,10 @@ public class Distribution<Value> implements FunctionalIterable<Entry<Integer, Va
 	 */
 	public static Distribution<Double> ofDouble(Iterator<Entry<Integer, Double>> transitions)
 	{
-		return new Distribution<Double>(transitions, Evaluator.forDouble());
+		DistributionDouble distr = new DistributionDouble();
+		// use #add to ensure probabilities sum up for any duplicated indices
+		transitions.forEachRemaining(t -> distr.add(t.getKey(), t.getValue()));
+		return distr;
 	}
 
 	/**
@@ -284,6 +315,14 @@ public class Distribution<Value> implements FunctionalIterable<Entry<Integer, Va
 		return filter(t -> t.getKey() != j).map(Entry::getValue).reduce(eval.zero(), eval::add);
 	}
 
+	/**
+	 * Create a copy of this distribution (of the same kind).
+	 */
+	public Distribution<Value> copy()
+	{
+		return new Distribution<Value>(this);
+	}
+
 	/**
 	 * Create a new distribution, based on a mapping from the indices
 	 * used in this distribution to a different set of indices.
@@ -309,14 +348,28 @@ public class Distribution<Value> implements FunctionalIterable<Entry<Integer, Va
 		if (! (o instanceof Distribution)) {
 			return false;
 		}
-		return map.equals(((Distribution<?>) o).map);
+		Distribution<?> distr = (Distribution<?>) o;
+		if (map != null && distr.map != null) {
+			return map.equals(distr.map);
+		}
+		// Otherwise (e.g. for a DistributionDouble), compare entries
+		if (size() != distr.size()) {
+			return false;
+		}
+		for (Entry<Integer, Value> e : this) {
+			int j = e.getKey();
+			if (!distr.contains(j) || !e.getValue().equals(distr.get(j))) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
 	public int hashCode()
 	{
 		// Simple hash code
-		return map.size();
+		return size();
 	}
 
 	@Override
@@ -0,0 +1,398 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import common.iterable.ArrayIterator;
+import common.iterable.FunctionalIterator;
+import common.iterable.FunctionalPrimitiveIterator;
+import common.iterable.Reducible;
+import prism.Evaluator;
+
+/**
+ * Explicit representation of a probability distribution with double-valued probabilities.
+ * Rather than a hash map, the (non-zero) probabilities are stored in a pair of
+ * parallel primitive arrays, sorted by index, avoiding boxing of indices and values.
+ * <br><br>
+ * As well as the usual {@link Distribution} methods, entries can be accessed without
+ * any allocation via {@link #getIndex(int)} and {@link #getProbability(int)}, e.g.:
+ * <pre>
+ * for (int k = 0, n = distr.size(); k &lt; n; k++) {
+ *     sum += distr.getProbability(k) * vect[distr.getIndex(k)];
+ * }
+ * </pre>
+ * Instances are normally obtained via {@link Distribution#ofDouble()}
+ * or {@link Distribution#create(Evaluator)}.
+ */
+public class DistributionDouble extends Distribution<Double>
+{
+	/** Initial array capacity */
+	private static final int INITIAL_CAPACITY = 2;
+
+	/** Indices in the support (sorted, ascending) */
+	private int indices[];
+	/** Probabilities for each index in {@code indices} */
+	private double probs[];
+	/** Number of entries */
+	private int size;
+
+	/**
+	 * Create an empty distribution.
+	 */
+	public DistributionDouble()
+	{
+		super(Evaluator.forDouble(), null);
+		indices = ArrayIterator.OfInt.EMPTY_INT;
+		probs = new double[0];
+	}
+
+	/**
+	 * Copy constructor.
+	 */
+	public DistributionDouble(DistributionDouble distr)
+	{
+		super(Evaluator.forDouble(), null);
+		indices = Arrays.copyOf(distr.indices, distr.size);
+		probs = Arrays.copyOf(distr.probs, distr.size);
+		size = distr.size;
+	}
+
+	/**
+	 * Construct a distribution from an existing one and an index permutation,
+	 * i.e. in which index i becomes index permut[i].
+	 */
+	public DistributionDouble(DistributionDouble distr, int permut[])
+	{
+		this();
+		indices = new int[distr.size];
+		probs = new double[distr.size];
+		for (int k = 0; k < distr.size; k++) {
+			addDouble(permut[distr.indices[k]], distr.probs[k]);
+		}
+	}
+
+	// Primitive access
+
+	/**
+	 * Get the index of the {@code k}th entry (in ascending order of index), for 0 &lt;= k &lt; size().
+	 */
+	public int getIndex(int k)
+	{
+		return indices[k];
+	}
+
+	/**
+	 * Get the probability of the {@code k}th entry (in ascending order of index), for 0 &lt;= k &lt; size().
+	 */
+	public double getProbability(int k)
+	{
+		return probs[k];
+	}
+
+	/**
+	 * Get an iterator over the indices in the support of the distribution (in ascending order).
+	 */
+	public FunctionalPrimitiveIterator.OfInt getSupportIterator()
+	{
+		return new ArrayIterator.OfInt(indices, 0, size);
+	}
+
+	/**
+	 * Add non-negative {@code prob} to the probability for index {@code j}.
+	 * Return boolean {@code true} if no new transition is created,
+	 * i.e., {@code false} indicates a new transition with prob > 0.
+	 *
+	 * @return {@code true} iff p(j) != 0 || prob == 0
+	 */
+	public boolean addDouble(int j, double prob)
+	{
+		if (prob == 0.0) {
+			return true;
+		}
+		int k = find(j);
+		if (k >= 0) {
+			probs[k] += prob;
+			return true;
+		}
+		insert(-(k + 1), j, prob);
+		return false;
+	}
+
+	/**
+	 * Set the probability for index {@code j} to {@code prob}.
+	 */
+	public void setDouble(int j, double prob)
+	{
+		int k = find(j);
+		if (prob == 0.0) {
+			if (k >= 0) {
+				System.arraycopy(indices, k + 1, indices, k, size - k - 1);
+				System.arraycopy(probs, k + 1, probs, k, size - k - 1);
+				size--;
+			}
+		} else if (k >= 0) {
+			probs[k] = prob;
+		} else {
+			insert(-(k + 1), j, prob);
+		}
+	}
+
+	/**
+	 * Get the probability for index {@code j} (as a primitive double).
+	 */
+	public double getDouble(int j)
+	{
+		int k = find(j);
+		return k >= 0 ? probs[k] : 0.0;
+	}
+
+	/**
+	 * Get the position of index {@code j} in the arrays, if present;
+	 * otherwise, (-(insertion point) - 1), as for {@link Arrays#binarySearch(int[], int)}.
+	 */
+	private int find(int j)
+	{
+		// Distributions are typically small, and indices often added in order, so check the end first
+		if (size == 0 || indices[size - 1] < j) {
+			return -(size + 1);
+		}
+		return Arrays.binarySearch(indices, 0, size, j);
+	}
+
+	/**
+	 * Insert a new entry at position {@code k}.
+	 */
+	private void insert(int k, int j, double prob)
+	{
+		if (size == indices.length) {
+			int capacity = Math.max(INITIAL_CAPACITY, 2 * size);
+			indices = Arrays.copyOf(indices, capacity);
+			probs = Arrays.copyOf(probs, capacity);
+		}
+		System.arraycopy(indices, k, indices, k + 1, size - k);
+		System.arraycopy(probs, k, probs, k + 1, size - k);
+		indices[k] = j;
+		probs[k] = prob;
+		size++;
+	}
+
+	// Overridden methods from Distribution
+
+	@Override
+	public void clear()
+	{
+		size = 0;
+	}
+
+	@Override
+	public boolean add(int j, Double prob)
+	{
+		return addDouble(j, prob.doubleValue());
+	}
+
+	@Override
+	public void set(int j, Double prob)
+	{
+		setDouble(j, prob.doubleValue());
+	}
+
+	@Override
+	public Double get(int j)
+	{
+		return getDouble(j);
+	}
+
+	@Override
+	public boolean contains(int j)
+	{
+		return find(j) >= 0;
+	}
+
+	@Override
+	public boolean isSubsetOf(BitSet set)
+	{
+		for (int k = 0; k < size; k++) {
+			if (!set.get(indices[k])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean containsOneOf(BitSet set)
+	{
+		for (int k = 0; k < size; k++) {
+			if (set.get(indices[k])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Set<Integer> getSupport()
+	{
+		return new AbstractSet<Integer>()
+		{
+			@Override
+			public Iterator<Integer> iterator()
+			{
+				return getSupportIterator();
+			}
+
+			@Override
+			public boolean contains(Object o)
+			{
+				return o instanceof Integer && DistributionDouble.this.contains(((Integer) o).intValue());
+			}
+
+			@Override
+			public int size()
+			{
+				return size;
+			}
+		};
+	}
+
+	@Override
+	public FunctionalIterator<Entry<Integer, Double>> iterator()
+	{
+		return Reducible.extend(new Iterator<Entry<Integer, Double>>()
+		{
+			int k = 0;
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < size;
+			}
+
+			@Override
+			public Entry<Integer, Double> next()
+			{
+				if (k >= size) {
+					throw new NoSuchElementException();
+				}
+				Entry<Integer, Double> e = new AbstractMap.SimpleImmutableEntry<>(indices[k], probs[k]);
+				k++;
+				return e;
+			}
+		});
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public Double sum()
+	{
+		double sum = 0.0;
+		for (int k = 0; k < size; k++) {
+			sum += probs[k];
+		}
+		return sum;
+	}
+
+	@Override
+	public Double sumAllBut(int j)
+	{
+		double sum = 0.0;
+		for (int k = 0; k < size; k++) {
+			if (indices[k] != j) {
+				sum += probs[k];
+			}
+		}
+		return sum;
+	}
+
+	@Override
+	public DistributionDouble copy()
+	{
+		return new DistributionDouble(this);
+	}
+
+	@Override
+	public DistributionDouble map(int map[])
+	{
+		return new DistributionDouble(this, map);
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (!(o instanceof DistributionDouble)) {
+			return super.equals(o);
+		}
+		DistributionDouble distr = (DistributionDouble) o;
+		if (size != distr.size) {
+			return false;
+		}
+		for (int k = 0; k < size; k++) {
+			// Compare as Double.equals would
+			if (indices[k] != distr.indices[k] || Double.doubleToLongBits(probs[k]) != Double.doubleToLongBits(distr.probs[k])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		// Simple hash code (as for Distribution)
+		return size;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("{");
+		for (int k = 0; k < size; k++) {
+			if (k > 0) {
+				sb.append(", ");
+			}
+			sb.append(indices[k]).append('=').append(probs[k]);
+		}
+		return sb.append('}').toString();
+	}
+}
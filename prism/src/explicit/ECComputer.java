@@ -29,8 +29,10 @@ package explicit;
 import java.util.BitSet;
 import java.util.List;
 
+import prism.Prism;
 import prism.PrismComponent;
 import prism.PrismException;
+import prism.PrismSettings;
 
 /**
  * Abstract class for (explicit) classes that compute (M)ECs, i.e. (maximal) end components,
@@ -38,13 +40,49 @@ import prism.PrismException;
  */
 public abstract class ECComputer extends PrismComponent
 {
+	// Method used for finding MECs
+	public enum ECMethod {
+		INCREMENTAL, SUBMODEL;
+		public String fullName()
+		{
+			switch (this) {
+			case INCREMENTAL:
+				return "Incremental";
+			case SUBMODEL:
+				return "Submodel";
+			default:
+				return this.toString();
+			}
+		}
+	};
+
 	/**
-	 * Static method to create a new ECComputer object, depending on current settings.
+	 * Static method to create a new ECComputer object, depending on current settings
+	 * (see {@link PrismSettings#PRISM_MEC_METHOD}; the incremental method is used by default).
 	 */
 	public static ECComputer createECComputer(PrismComponent parent, NondetModel<?> model) throws PrismException
 	{
-		// Only one algorithm implemented currently
-		return new ECComputerDefault(parent, model);
+		ECMethod ecMethod = ECMethod.INCREMENTAL;
+		if (parent != null && parent.getSettings() != null) {
+			if (parent.getSettings().getChoice(PrismSettings.PRISM_MEC_METHOD) == Prism.MEC_SUBMODEL) {
+				ecMethod = ECMethod.SUBMODEL;
+			}
+		}
+		return createECComputer(parent, ecMethod, model);
+	}
+
+	/**
+	 * Static method to create a new ECComputer object, depending on requested method.
+	 */
+	public static ECComputer createECComputer(PrismComponent parent, ECMethod ecMethod, NondetModel<?> model) throws PrismException
+	{
+		switch (ecMethod) {
+		case SUBMODEL:
+			return new ECComputerDefault(parent, model);
+		case INCREMENTAL:
+		default:
+			return new ECComputerIncremental(parent, model);
+		}
 	}
 
 	/**
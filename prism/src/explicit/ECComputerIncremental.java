@@ -0,0 +1,497 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+/**
+ * Explicit maximal end component computer for a nondeterministic model such as an MDP.
+ * <br>
+ * Like {@link ECComputerDefault}, this repeatedly splits candidate sets of states into SCCs
+ * and removes choices leaving them (and states without remaining choices), but does so
+ * incrementally: the model is copied once into arrays, choices and states are removed in place
+ * (propagating removals backwards along incoming choices), and only those candidate sets
+ * that actually changed are decomposed again, using an iterative version of Tarjan's algorithm.
+ */
+public class ECComputerIncremental extends ECComputer
+{
+	/** The model to compute (M)ECs for **/
+	private NondetModel<?> model;
+	/** Number of states */
+	private int numStates;
+
+	/** Computed list of MECs **/
+	private List<BitSet> mecs = new ArrayList<BitSet>();
+
+	/* Choices of (relevant) states, only those that stay within the relevant states: choiceStart[s]..choiceStart[s+1]-1 */
+	private int choiceStart[];
+	/* Source state of each choice */
+	private int choiceState[];
+	/* Successors of each choice: succs[succStart[c]..succStart[c+1]-1] */
+	private int succStart[];
+	private int succs[];
+	/* Incoming choices of each state: preChoices[preStart[s]..preStart[s+1]-1] */
+	private int preStart[];
+	private int preChoices[];
+
+	/* Choices that have been removed */
+	private BitSet choiceRemoved;
+	/* Number of remaining (non-removed) choices of each state */
+	private int numChoicesLeft[];
+	/* Candidate set containing each state (-1 if the state has been removed) */
+	private int label[];
+	/* Next unused candidate set label */
+	private int nextLabel;
+	/* States to be removed */
+	private int removeQueue[];
+	private int removeQueueSize;
+
+	/* Storage for Tarjan's algorithm (index of each node, -1 if not yet visited) */
+	private int index[];
+	private int lowlink[];
+	private int stack[];
+	private BitSet onStack;
+	private int dfsNodes[];
+	private int dfsChoice[];
+	private int dfsSucc[];
+
+	/**
+	 * Build (M)EC computer for a given model.
+	 */
+	public ECComputerIncremental(PrismComponent parent, NondetModel<?> model) throws PrismException
+	{
+		super(parent);
+		this.model = model;
+		this.numStates = model.getNumStates();
+	}
+
+	// Methods for ECComputer interface
+
+	@Override
+	public void computeMECStates() throws PrismException
+	{
+		mecs = findEndComponents(null, null);
+	}
+
+	@Override
+	public void computeMECStates(BitSet restrict) throws PrismException
+	{
+		mecs = findEndComponents(restrict, null);
+	}
+
+	@Override
+	public void computeMECStates(BitSet restrict, BitSet accept) throws PrismException
+	{
+		mecs = findEndComponents(restrict, accept);
+	}
+
+	@Override
+	public List<BitSet> getMECStates()
+	{
+		return mecs;
+	}
+
+	// Computation
+
+	/**
+	 * Find all accepting maximal end components (MECs) in the submodel obtained
+	 * by restricting this one to the set of states {@code restrict},
+	 * where acceptance is defined as those which intersect with {@code accept}.
+	 * If {@code restrict} is null, we look at the whole model, not a submodel.
+	 * If {@code accept} is null, the acceptance condition is trivially satisfied.
+	 * The MECs are returned ordered by their lowest state index.
+	 * @param restrict BitSet for the set of states to restrict to
+	 * @param accept BitSet for the set of accepting states
+	 * @return a list of BitSets representing the MECs
+	 */
+	private List<BitSet> findEndComponents(BitSet restrict, BitSet accept) throws PrismException
+	{
+		List<BitSet> result = new ArrayList<BitSet>();
+		if (restrict == null) {
+			restrict = new BitSet();
+			restrict.set(0, numStates);
+		}
+		if (restrict.isEmpty()) {
+			return result;
+		}
+		buildArrays(restrict);
+
+		// Initially, all relevant states form a single candidate set (label 0),
+		// from which states without remaining choices are removed
+		label = new int[numStates];
+		Arrays.fill(label, -1);
+		removeQueue = new int[numStates];
+		removeQueueSize = 0;
+		int initial[] = new int[restrict.cardinality()];
+		int numInitial = 0;
+		for (int s = restrict.nextSetBit(0); s >= 0; s = restrict.nextSetBit(s + 1)) {
+			label[s] = 0;
+			initial[numInitial++] = s;
+		}
+		nextLabel = 1;
+		for (int i = 0; i < numInitial; i++) {
+			if (numChoicesLeft[initial[i]] == 0) {
+				removeState(initial[i]);
+			}
+		}
+		processRemovals();
+
+		index = new int[numStates];
+		Arrays.fill(index, -1);
+		lowlink = new int[numStates];
+		stack = new int[numStates];
+		onStack = new BitSet();
+		dfsNodes = new int[numStates];
+		dfsChoice = new int[numStates];
+		dfsSucc = new int[numStates];
+
+		// Work list of candidate sets (arrays of states, some of which may have been removed since)
+		Deque<int[]> todo = new ArrayDeque<>();
+		todo.add(initial);
+		while (!todo.isEmpty()) {
+			int states[] = compact(todo.poll());
+			if (states.length == 0) {
+				continue;
+			}
+			// If no state is accepting, there is no accepting MEC in here
+			if (accept != null && !containsAccepting(states, accept)) {
+				for (int s : states) {
+					label[s] = -1;
+				}
+				continue;
+			}
+			// Split into SCCs (each is given a new label)
+			int numSCCs = computeSCCs(states);
+			if (numSCCs == 1) {
+				// A single SCC, where all states have (remaining) choices that stay inside: a MEC
+				BitSet mec = new BitSet();
+				for (int s : states) {
+					mec.set(s);
+				}
+				result.add(mec);
+				continue;
+			}
+			// Remove choices leaving the SCCs, and then states without choices
+			for (int s : states) {
+				for (int c = choiceStart[s]; c < choiceStart[s + 1]; c++) {
+					if (!choiceRemoved.get(c) && leavesSet(c, label[s])) {
+						removeChoice(c);
+					}
+				}
+			}
+			processRemovals();
+			// The (remaining states of the) SCCs are the new candidate sets
+			int numLeft = sortByLabel(states);
+			int start = 0;
+			for (int i = 1; i <= numLeft; i++) {
+				if (i == numLeft || label[states[i]] != label[states[start]]) {
+					todo.add(Arrays.copyOfRange(states, start, i));
+					start = i;
+				}
+			}
+		}
+
+		// free memory
+		choiceStart = choiceState = succStart = succs = preStart = preChoices = null;
+		numChoicesLeft = label = removeQueue = null;
+		index = lowlink = stack = dfsNodes = dfsChoice = dfsSucc = null;
+		choiceRemoved = onStack = null;
+
+		result.sort((mec1, mec2) -> Integer.compare(mec1.nextSetBit(0), mec2.nextSetBit(0)));
+		return result;
+	}
+
+	/**
+	 * Copy the (relevant part of the) model into arrays: the choices of states in {@code restrict}
+	 * that stay within {@code restrict}, their successors and the incoming choices for each state.
+	 */
+	private void buildArrays(BitSet restrict)
+	{
+		// Choices and their successors
+		choiceStart = new int[numStates + 1];
+		int numChoices = 0;
+		for (int s = 0; s < numStates; s++) {
+			choiceStart[s] = numChoices;
+			if (restrict.get(s)) {
+				for (int i = 0, n = model.getNumChoices(s); i < n; i++) {
+					if (model.allSuccessorsInSet(s, i, restrict)) {
+						numChoices++;
+					}
+				}
+			}
+		}
+		choiceStart[numStates] = numChoices;
+		choiceState = new int[numChoices];
+		succStart = new int[numChoices + 1];
+		succs = new int[Math.max(16, numChoices)];
+		preStart = new int[numStates + 1];
+		int c = 0;
+		int numSuccs = 0;
+		for (int s = restrict.nextSetBit(0); s >= 0; s = restrict.nextSetBit(s + 1)) {
+			for (int i = 0, n = model.getNumChoices(s); i < n; i++) {
+				if (!model.allSuccessorsInSet(s, i, restrict)) {
+					continue;
+				}
+				choiceState[c] = s;
+				succStart[c] = numSuccs;
+				for (SuccessorsIterator it = model.getSuccessors(s, i); it.hasNext();) {
+					int t = it.nextInt();
+					if (numSuccs == succs.length) {
+						succs = Arrays.copyOf(succs, (int) Math.min(Integer.MAX_VALUE - 8, 2L * numSuccs));
+					}
+					succs[numSuccs++] = t;
+					preStart[t + 1]++;
+				}
+				c++;
+			}
+		}
+		succStart[numChoices] = numSuccs;
+		// Incoming choices
+		for (int s = 0; s < numStates; s++) {
+			preStart[s + 1] += preStart[s];
+		}
+		preChoices = new int[numSuccs];
+		int pos[] = Arrays.copyOf(preStart, numStates);
+		for (c = 0; c < numChoices; c++) {
+			for (int j = succStart[c]; j < succStart[c + 1]; j++) {
+				preChoices[pos[succs[j]]++] = c;
+			}
+		}
+		// Remaining choices
+		choiceRemoved = new BitSet();
+		numChoicesLeft = new int[numStates];
+		for (int s = 0; s < numStates; s++) {
+			numChoicesLeft[s] = choiceStart[s + 1] - choiceStart[s];
+		}
+	}
+
+	/**
+	 * Does (non-removed) choice {@code c} have a successor outside the candidate set {@code l}?
+	 */
+	private boolean leavesSet(int c, int l)
+	{
+		for (int j = succStart[c]; j < succStart[c + 1]; j++) {
+			if (label[succs[j]] != l) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Remove choice {@code c}, scheduling its state for removal if it has no choices left.
+	 */
+	private void removeChoice(int c)
+	{
+		choiceRemoved.set(c);
+		int s = choiceState[c];
+		if (--numChoicesLeft[s] == 0 && label[s] != -1) {
+			removeState(s);
+		}
+	}
+
+	/**
+	 * Schedule state {@code s} for removal (it is removed from its candidate set immediately).
+	 */
+	private void removeState(int s)
+	{
+		label[s] = -1;
+		removeQueue[removeQueueSize++] = s;
+	}
+
+	/**
+	 * Remove all choices leading to states that have been removed
+	 * (and, iteratively, states that have no choices left because of this).
+	 */
+	private void processRemovals()
+	{
+		while (removeQueueSize > 0) {
+			int t = removeQueue[--removeQueueSize];
+			for (int j = preStart[t]; j < preStart[t + 1]; j++) {
+				int c = preChoices[j];
+				if (!choiceRemoved.get(c) && label[choiceState[c]] != -1) {
+					removeChoice(c);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the states of {@code states} that have not been removed.
+	 */
+	private int[] compact(int states[])
+	{
+		int n = 0;
+		for (int s : states) {
+			if (label[s] != -1) {
+				states[n++] = s;
+			}
+		}
+		return n == states.length ? states : Arrays.copyOf(states, n);
+	}
+
+	private static boolean containsAccepting(int states[], BitSet accept)
+	{
+		for (int s : states) {
+			if (accept.get(s)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Move the states of {@code states} that have not been removed to the front,
+	 * sorted by their label (stable, i.e., keeping states with the same label in order).
+	 * Returns the number of such states.
+	 */
+	private int sortByLabel(int states[])
+	{
+		int minLabel = Integer.MAX_VALUE, maxLabel = -1, n = 0;
+		for (int s : states) {
+			if (label[s] != -1) {
+				minLabel = Math.min(minLabel, label[s]);
+				maxLabel = Math.max(maxLabel, label[s]);
+				n++;
+			}
+		}
+		if (n == 0) {
+			return 0;
+		}
+		// Counting sort
+		int count[] = new int[maxLabel - minLabel + 2];
+		for (int s : states) {
+			if (label[s] != -1) {
+				count[label[s] - minLabel + 1]++;
+			}
+		}
+		for (int i = 1; i < count.length; i++) {
+			count[i] += count[i - 1];
+		}
+		int sorted[] = new int[n];
+		for (int s : states) {
+			if (label[s] != -1) {
+				sorted[count[label[s] - minLabel]++] = s;
+			}
+		}
+		System.arraycopy(sorted, 0, states, 0, n);
+		return n;
+	}
+
+	/**
+	 * Compute the SCCs of the graph given by the candidate set {@code states}
+	 * (with all states having the same label) and the remaining choices,
+	 * using (an iterative version of) Tarjan's algorithm,
+	 * and give each SCC a new label. Returns the number of SCCs.
+	 */
+	private int computeSCCs(int states[])
+	{
+		int setLabel = label[states[0]];
+		int nextIndex = 0;
+		int stackTop = 0;
+		int numSCCs = 0;
+		for (int root : states) {
+			if (index[root] != -1) {
+				continue;
+			}
+			int depth = 0;
+			index[root] = lowlink[root] = nextIndex++;
+			stack[stackTop++] = root;
+			onStack.set(root);
+			dfsNodes[depth] = root;
+			dfsChoice[depth] = choiceStart[root];
+			dfsSucc[depth] = -1;
+			depth++;
+			while (depth > 0) {
+				int v = dfsNodes[depth - 1];
+				// Find the next successor of v (via a non-removed choice)
+				int w = -1;
+				while (w == -1 && dfsChoice[depth - 1] < choiceStart[v + 1]) {
+					int c = dfsChoice[depth - 1];
+					if (choiceRemoved.get(c)) {
+						dfsChoice[depth - 1]++;
+						continue;
+					}
+					int j = dfsSucc[depth - 1] == -1 ? succStart[c] : dfsSucc[depth - 1];
+					if (j < succStart[c + 1]) {
+						dfsSucc[depth - 1] = j + 1;
+						if (label[succs[j]] == setLabel) {
+							w = succs[j];
+						}
+					} else {
+						dfsChoice[depth - 1]++;
+						dfsSucc[depth - 1] = -1;
+					}
+				}
+				if (w != -1) {
+					if (index[w] == -1) {
+						index[w] = lowlink[w] = nextIndex++;
+						stack[stackTop++] = w;
+						onStack.set(w);
+						dfsNodes[depth] = w;
+						dfsChoice[depth] = choiceStart[w];
+						dfsSucc[depth] = -1;
+						depth++;
+					} else if (onStack.get(w)) {
+						lowlink[v] = Math.min(lowlink[v], index[w]);
+					}
+				} else {
+					// All successors explored: v is done
+					depth--;
+					if (lowlink[v] == index[v]) {
+						// Pop SCC; its new label is stored in lowlink for now, since the
+						// old labels of successors are still needed during the search
+						// (and lowlink is not needed any more for states that are not on the stack)
+						int l = nextLabel++;
+						numSCCs++;
+						int u;
+						do {
+							u = stack[--stackTop];
+							onStack.clear(u);
+							lowlink[u] = l;
+						} while (u != v);
+					} else if (depth > 0) {
+						int u = dfsNodes[depth - 1];
+						lowlink[u] = Math.min(lowlink[u], lowlink[v]);
+					}
+				}
+			}
+		}
+		// Assign labels (stored in lowlink) and reset for the next call
+		for (int s : states) {
+			label[s] = lowlink[s];
+			index[s] = -1;
+		}
+		return numSCCs;
+	}
+}
@@ -30,15 +30,14 @@ package explicit;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map;
 
 import parser.State;
 import parser.Values;
+import parser.VarList;
 import parser.ast.Expression;
 import parser.ast.ExpressionIdent;
 import parser.ast.LabelList;
@@ -54,7 +53,6 @@ import prism.PrismSettings;
  *   - by delta (as current)
  *   - by max probability loss per iteration (requires sort by prob)
  *   - by max number of states (requires sort by prob)
- * - compress states to Bitset (memory waste currently excessive e.g. for mapk)
  * - do not delete states immediately but only after they have been below
  *   delta for a specified number of iterations to avoid deleting and exploring
  *   the same states over and over again
@@ -74,323 +72,17 @@ import prism.PrismSettings;
 
 /**
  * Implementation of fast adaptive uniformisation (FAU).
+ * <br><br>
+ * The states of the current window are kept in a {@link PackedStateIndex}, which identifies
+ * each state by an integer slot (recycled once a state is removed from the window),
+ * and all information about states is stored in arrays indexed by slot.
+ * The outgoing transitions of states are stored CSR-style, as a range of two shared arrays
+ * of successor slots and rates. These are kept across intervals for states whose probability
+ * drops below the relevance threshold, so that they do not need to be explored again
+ * if the state becomes relevant again (unless any of its successors has been removed meanwhile).
  */
 public final class FastAdaptiveUniformisation extends PrismComponent
 {
-	/**
-	 * Stores properties of states needed for fast adaptive method.
-	 * This includes the current-step probability, next-state probability,
-	 * and the transient probability (sum of step probabilities weighted
-	 * with birth process distributions). It also contains the list of successor
-	 * states and the rates to them, the number of incoming transitions
-	 * (references) and a flag whether the state has a significant probability
-	 * mass (alive).
-	 */
-	private final static class StateProp
-	{
-		/** current-step probability.
-		 * should contain initial probability before actual analysis is started.
-		 * will contain transient probability after analysis. */
-		private double prob;
-		/** next-state probability */
-		private double nextProb;
-		/** sum probability weighted with birth process distribution */
-		private double sum;
-		/** reward of this state */
-		private double reward;
-		/** rates to successor states */
-		private double[] succRates;
-		/** successor states */
-		private StateProp[] succStates;
-		/** number of incoming transitions of relevant states */
-		private int references;
-		/** true if and only if state probability above relevance threshold */
-		private boolean alive;
-		
-		/**
-		 * Constructs a new state property object.
-		 */
-		StateProp()
-		{
-			prob = 0.0;
-			nextProb = 0.0;
-			sum = 0.0;
-			reward = 0.0;
-			succRates = null;
-			succStates = null;
-			references = 0;
-			alive = true;
-		}
-		
-		/**
-		 * Set current state probability.
-		 * 
-		 * @param prob current state probability to set
-		 */
-		void setProb(double prob)
-		{
-			this.prob = prob;
-		}
-
-		/**
-		 * Gets current state probability.
-		 * 
-		 * @return current state probability
-		 */
-		double getProb()
-		{
-			return prob;
-		}
-
-		/**
-		 * Sets next state probability.
-		 * 
-		 * @param nextProb next state probability to set
-		 */
-		void setNextProb(double nextProb)
-		{
-			this.nextProb = nextProb;
-		}
-
-		/**
-		 * Adds value to next state probability.
-		 * 
-		 * @param add value to add to next state probability
-		 */
-		void addToNextProb(double add)
-		{
-			this.nextProb += add;
-		}
-
-		/**
-		 * Sets weighted sum probability.
-		 * 
-		 * @param sum weighted sum probability to set.
-		 */
-		void setSum(double sum)
-		{
-			this.sum = sum;
-		}
-
-		/**
-		 * Adds current probability times {@code poisson} to weighted sum probability.
-		 * 
-		 * @param poisson this value times current probability will be added to sum probability
-		 */
-		void addToSum(double poisson)
-		{
-			sum += poisson * prob;
-		}
-
-		/**
-		 * Gets weighted sum probability.
-		 * 
-		 * @return weighted sum probability
-		 */
-		double getSum()
-		{
-			return sum;
-		}
-
-		/**
-		 * Prepares next iteration step.
-		 * Sets current probability to next probability, and sets next
-		 * probability to zero.
-		 */
-		void prepareNextIteration()
-		{
-			prob = nextProb;
-			nextProb = 0.0;
-		}
-
-		/**
-		 * Set state reward.
-		 * 
-		 * @param reward state reward to set
-		 */
-		void setReward(double reward)
-		{
-			this.reward = reward;
-		}
-
-		/**
-		 * Get state reward.
-		 * 
-		 * @return state reward
-		 */
-		double getReward()
-		{
-			return reward;
-		}
-
-		/**
-		 * Sets rates to successor states.
-		 * Expects an array of rates, so that the rate to the successor
-		 * state set by {@setSuccStates} is the one given by the corresponding
-		 * index. The value {@code null} is allowed here.
-		 * 
-		 * @param succRates rates to successor states.
-		 */
-		void setSuccRates(double[] succRates)
-		{
-			this.succRates = succRates;
-		}
-
-		/**
-		 * Sets successor states.
-		 * Expects an array of successor states, so that the rate set by
-		 * {@setSuccRates} is the one given by the corresponding index.
-		 * The value {@code null} is allowed here.
-		 * 
-		 * @param succStates successor states
-		 */
-		void setSuccStates(StateProp[] succStates)
-		{
-			this.succStates = succStates;
-			if (succStates != null) {
-				for (int succNr = 0; succNr < succStates.length; succNr++) {
-					succStates[succNr].incReferences();
-				}
-			}
-		}
-
-		/**
-		 * Returns number of successor states of this state.
-		 * 
-		 * @return number of successor states
-		 */
-		int getNumSuccs()
-		{
-			if (succRates == null) {
-				return 0;
-			} else {
-				return succRates.length;
-			}
-		}
-		
-		/**
-		 * Gets successor rates.
-		 * 
-		 * @return successor rates
-		 */
-		double[] getSuccRates()
-		{
-			return succRates;
-		}
-
-		/**
-		 * Gets successor states.
-		 * 
-		 * @return successor states
-		 */
-		StateProp[] getSuccStates()
-		{
-			return succStates;
-		}
-
-		/**
-		 * Sets whether state is alive.
-		 * 
-		 * @param alive whether state should be set to being alive
-		 */
-		void setAlive(boolean alive)
-		{
-			this.alive = alive;
-		}
-
-		/**
-		 * Checks whether state is alive.
-		 * 
-		 * @return true iff state is alive
-		 */
-		boolean isAlive()
-		{
-			return alive;
-		}
-
-		/**
-		 * Increments the number of references of this state.
-		 * The number of references should correspond to the number of alive
-		 * states which have this state as successor state.
-		 */
-		void incReferences()
-		{
-			references++;
-		}
-
-		/**
-		 * Decrements the number of references of this state.
-		 * The number of references should correspond to the number of alive
-		 * states which have this state as successor state.
-		 */
-		void decReferences()
-		{
-			references--;
-		}
-
-		/**
-		 * Deletes this state.
-		 * This means basically removing all of its successors. Beforehand,
-		 * their reference counter is decreased, because this state does no
-		 * longer count as a model state. It is left in the model however,
-		 * because it might still be the successor state of some alive state.
-		 */
-		void delete()
-		{
-			if (null != succStates) {
-				for (int succNr = 0; succNr < succStates.length; succNr++) {
-					succStates[succNr].decReferences();
-				}
-			}
-			succStates = null;
-			succRates = null;
-			alive = false;
-			prob = 0.0;
-			nextProb = 0.0;
-		}
-
-		/**
-		 * Checks whether this state can be removed.
-		 * This is only the case if its probability is below the threshold
-		 * specified, and then only if there are no transitions from alive
-		 * states into this state.
-		 * 
-		 * @return true if and only if this state can be removed
-		 */
-		boolean canRemove()
-		{
-			return !alive && (0 == references);
-		}
-
-		/**
-		 * Checks whether this state has successors or not.
-		 * Will be true if and only if successor state array is nonnull.
-		 * 
-		 * @return whether this state has successors or not
-		 */
-		boolean hasSuccs()
-		{
-			return succStates != null;
-		}
-
-		/**
-		 * Returns the sum of all rates leaving to successor states.
-		 * 
-		 * @return sum of all rates leaving to successor states
-		 */
-		double sumRates()
-		{
-			if (null == succRates) {
-				return 0.0;
-			}
-			double sumRates = 0.0;
-			for (int rateNr = 0; rateNr < succRates.length; rateNr++) {
-				sumRates += succRates[rateNr];
-			}
-			return sumRates;
-		}
-	}
-	
 	/**
 	 * Enum to store type of analysis to perform.
 	 */
@@ -422,14 +114,57 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	private double value;
 	/** model constants */
 	private Values constantValues = null;
-	/** maps from state (assignment of variable values) to property object */
-	private LinkedHashMap<State,StateProp> states;
-	/** states for which successor rates are to be computed */
-	private ArrayList<State> addDistr;
-	/** states which are to be deleted */
-	private ArrayList<State> deleteStates;
-	/** initial size of state hash map */
+	/** states in the current window (assignments of variable values), each identified by a slot */
+	private PackedStateIndex states;
+	/** slots of states for which successor rates are to be computed */
+	private BitSet addDistr;
+	/** initial size of arrays storing state information */
 	private final int initSize = 3000;
+
+	// State information, indexed by slot
+	// (for unused slots, probabilities and sums are zero and there are no transitions)
+
+	/** current-step probability.
+	 * should contain initial probability before actual analysis is started.
+	 * will contain transient probability after analysis. */
+	private double[] prob;
+	/** next-state probability */
+	private double[] nextProb;
+	/** sum probability weighted with birth process distribution */
+	private double[] sum;
+	/** reward of each state */
+	private double[] reward;
+	/** number of incoming transitions of relevant states */
+	private int[] references;
+	/** true if and only if state probability above relevance threshold */
+	private boolean[] alive;
+	/** true if and only if the transitions of the state are in use
+	 * (and are thus counted in the references of its successors) */
+	private boolean[] hasSuccs;
+	/** start of the (cached) transitions of each state in {@code succSlots}/{@code succRates}, or -1 if none */
+	private int[] succStart;
+	/** number of (cached) transitions of each state */
+	private int[] numSuccs;
+	/** sum of the rates of the (cached) transitions of each state */
+	private double[] sumRates;
+	/** value of {@code numRemoved} when the transitions of each state were computed */
+	private long[] cachedAt;
+	/** value of {@code numRemoved} when each slot was last freed (0 if never) */
+	private long[] removedAt;
+	/** number of states removed from the window so far */
+	private long numRemoved;
+
+	// Transitions of all states, CSR-style (ranges given by succStart/numSuccs)
+
+	/** successor slots */
+	private int[] succSlots;
+	/** rates to successors */
+	private double[] succRates;
+	/** number of entries of succSlots/succRates used */
+	private int succSize;
+	/** number of entries of succSlots/succRates used that no longer belong to a state */
+	private int succGarbage;
+
 	/** maximal total leaving rate of all states alive */
 	private double maxRate = 0.0;
 	/** target state set - used for reachability (until or finally properties) */
@@ -442,6 +177,8 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	private BirthProcess birthProc;
 	/** states which fulfill this will be made absorbing - for until props */
 	private Expression sink;
+	/** {@code sink}, with special labels expanded (see {@link #expandSpecialLabels(Expression)}) */
+	private Expression[] sinkExpanded;
 	/** if true, don't drop further states.
 	 * Used to avoid excessive probability loss in some cases. */
 	private boolean keepSumProb;
@@ -475,10 +212,11 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 		analysisType = AnalysisType.TRANSIENT;
 		rewStruct = null;
 		target = Expression.False();
-		sink = Expression.False();
 		specialLabels = new LabelList();
 		specialLabels.addLabel(new ExpressionIdent("deadlock"), new ExpressionIdent("deadlock"));
 		specialLabels.addLabel(new ExpressionIdent("init"), new ExpressionIdent("init"));
+		sink = Expression.False();
+		sinkExpanded = expandSpecialLabels(sink);
 	}
 
 	/**
@@ -556,22 +294,19 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	public void setSink(Expression sink) throws PrismException
 	{
 		this.sink = sink;
+		sinkExpanded = expandSpecialLabels(sink);
 		if (states != null) {
-			for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-				State state = statePair.getKey();
-				StateProp prop = statePair.getValue();
+			for (int s = states.nextUsed(0); s >= 0; s = states.nextUsed(s + 1)) {
+				if (!hasSuccs[s]) {
+					// Cached transitions do not take the new sink states into account
+					discardSuccs(s);
+					continue;
+				}
+				State state = states.getState(s);
 				modelGen.exploreState(state);
-				specialLabels.setLabel(0, modelGen.getNumTransitions() == 0 ? Expression.True() : Expression.False());
-				specialLabels.setLabel(1, initStates.contains(state) ? Expression.True() : Expression.False());
-				Expression evSink = sink.deepCopy();
-				evSink = (Expression) evSink.expandLabels(specialLabels);
-				if (evSink.evaluateBoolean(constantValues, state)) {
-					double[] succRates = new double[1];
-					StateProp[] succStates = new StateProp[1];
-					succRates[0] = 1.0;
-					succStates[0] = states.get(state);
-					prop.setSuccRates(succRates);
-					prop.setSuccStates(succStates);
+				if (evaluate(sinkExpanded, state, modelGen.getNumTransitions())) {
+					discardSuccs(s);
+					setSelfLoop(s);
 				}
 			}
 		}
@@ -616,24 +351,22 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 		}
 		
 		/* prepare fast adaptive uniformisation */
-		addDistr = new ArrayList<State>();
-		deleteStates = new ArrayList<State>();
-		states = new LinkedHashMap<State,StateProp>(initSize);
+		createStates();
 		value = 0.0;
 		initStates = new HashSet<State>();
 		ListIterator<State> it = initDist.statesList.listIterator();
 		double[] values = initDist.getDoubleArray();
+		int[] initSlots = new int[initDist.size];
 		maxRate = 0.0;
 		for (int stateNr = 0; stateNr < initDist.size; stateNr++) {
 			State initState = it.next();
-			addToModel(initState);
+			initSlots[stateNr] = addToModel(initState);
 		}
-		it = initDist.statesList.listIterator();
 		for (int stateNr = 0; stateNr < initDist.size; stateNr++) {
-			State initState = it.next();
-			computeStateRatesAndRewards(initState);
-			states.get(initState).setProb(values[stateNr]);
-			maxRate = Math.max(maxRate, states.get(initState).sumRates() * 1.02);			
+			int s = initSlots[stateNr];
+			computeStateRatesAndRewards(s);
+			prob[s] = values[stateNr];
+			maxRate = Math.max(maxRate, sumRates[s] * 1.02);
 		}
 
 		/* run fast adaptive uniformisation */
@@ -643,9 +376,9 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 		ArrayList<State> statesList = new ArrayList<State>(states.size());
 		double[] probsArr = new double[states.size()];
 		int probsArrEntry = 0;
-		for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-			statesList.add(statePair.getKey());
-			probsArr[probsArrEntry] = statePair.getValue().getProb();
+		for (int s = states.nextUsed(0); s >= 0; s = states.nextUsed(s + 1)) {
+			statesList.add(states.getState(s));
+			probsArr[probsArrEntry] = prob[s];
 			probsArrEntry++;
 		}
 		StateValues probs = StateValues.createFromDoubleArray(probsArr, statesList);
@@ -666,10 +399,8 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	 */
 	public void computeTransientProbsAdaptive(double time) throws PrismException
 	{
-		if (addDistr == null) {
-			addDistr = new ArrayList<State>();
-			deleteStates = new ArrayList<State>();
-			states = new LinkedHashMap<State,StateProp>(initSize);
+		if (states == null) {
+			createStates();
 			value = 0.0;
 			prepareInitialDistribution();
 		}
@@ -680,39 +411,27 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 		}
 		if (initIval != 0.0) {
 			iterateAdaptiveInterval(initIval);
-			for (StateProp prop : states.values()) {
-				prop.setProb(prop.getSum());
-				prop.setSum(0.0);
-				prop.setNextProb(0.0);
-			}
+			finishInterval();
 			updateStates();
 		}
 
 		for (int ivalNr = 0; ivalNr < numIntervals; ivalNr++) {
 			double interval = (time - initIval) / numIntervals;
 			iterateAdaptiveInterval(interval);
-			for (StateProp prop : states.values()) {
-				prop.setProb(prop.getSum());
-				prop.setSum(0.0);
-				prop.setNextProb(0.0);
-			}
+			finishInterval();
 			updateStates();
 		}
 		if (AnalysisType.REW_INST == analysisType) {
-			for (StateProp prop : states.values()) {
-				value += prop.getProb() * prop.getReward();
+			for (int s = states.nextUsed(0); s >= 0; s = states.nextUsed(s + 1)) {
+				value += prob[s] * reward[s];
 			}
-		} else {
-			for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-				State state = statePair.getKey();
-				StateProp prop = statePair.getValue();
+		} else if (AnalysisType.REACH == analysisType) {
+			Expression[] targetExpanded = expandSpecialLabels(target);
+			for (int s = states.nextUsed(0); s >= 0; s = states.nextUsed(s + 1)) {
+				State state = states.getState(s);
 				modelGen.exploreState(state);
-				specialLabels.setLabel(0, modelGen.getNumTransitions() == 0 ? Expression.True() : Expression.False());
-				specialLabels.setLabel(1, initStates.contains(state) ? Expression.True() : Expression.False());
-				Expression evTarget = target.deepCopy();
-				evTarget = (Expression) evTarget.expandLabels(specialLabels);
-				if (AnalysisType.REACH == analysisType) {
-					value += prop.getProb() * (evTarget.evaluateBoolean(constantValues, state) ? 1.0 : 0.0);
+				if (evaluate(targetExpanded, state, modelGen.getNumTransitions())) {
+					value += prob[s];
 				}
 			}
 		}
@@ -741,16 +460,10 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 			if ((itersUnchanged == arrayThreshold)) {
 				iters = arrayIterate(iters);
 			} else {
-			    long birthProcTimer = System.currentTimeMillis();
 				double prob = birthProc.calculateNextProb(maxRate);
-				birthProcTimer = System.currentTimeMillis() - birthProcTimer;
 				birthProbSum += prob;
 				collectValuePostIter(prob, birthProbSum);
-				for (StateProp prop : states.values()) {
-					prop.addToSum(prob);
-				}
-				
-				mvMult(maxRate);
+				mvMult(maxRate, prob);
 				updateStates();
 				iters++;
 			}
@@ -759,6 +472,20 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 		computeTotalDiscreteLoss();
 	}
 
+	/**
+	 * Sets the current probabilities to the (weighted) sums computed
+	 * for a time interval, and resets the sums for the next one.
+	 */
+	private void finishInterval()
+	{
+		int numSlots = states.getNumSlots();
+		for (int s = 0; s < numSlots; s++) {
+			prob[s] = sum[s];
+			sum[s] = 0.0;
+			nextProb[s] = 0.0;
+		}
+	}
+
 	/**
 	 * Transforms the current submodel to array form.
 	 * In case there are no further changes in the states discovered, or
@@ -769,8 +496,8 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	 * to the original data structure. The method returns the current
 	 * iteration.
 	 * 
-	 * In case border states become
-	 * relevant, this data structure can 
+	 * States are numbered (alive ones first) by a plain array over slots,
+	 * and the transposed matrix is built from the cached transitions.
 	 * 
 	 * @param iters current iteration number
 	 * @return current iteration after termination of this method
@@ -778,117 +505,83 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	 */
 	private int arrayIterate(int iters) throws PrismException
 	{
-		/* build backwards matrix and map values */
+		/* number states and map values */
 		int numStates = states.size();
-		int numTransitions = 0;
-		for (StateProp prop : states.values()) {
-			numTransitions += prop.getNumSuccs() + 1;
-		}
+		int[] stateToNumber = new int[states.getNumSlots()];
+		int[] numberToState = new int[numStates];
 		int stateNr = 0;
-		HashMap<StateProp,Integer> stateToNumber = new HashMap<StateProp,Integer>(numStates);
-		StateProp[] numberToState = new StateProp[numStates];
-		for (StateProp prop : states.values()) {
-			if (prop.isAlive()) {
-				stateToNumber.put(prop, stateNr);
-				numberToState[stateNr] = prop;
+		for (int s = states.nextUsed(0); s >= 0; s = states.nextUsed(s + 1)) {
+			if (alive[s]) {
+				stateToNumber[s] = stateNr;
+				numberToState[stateNr] = s;
 				stateNr++;
 			}
 		}
 		int numAlive = stateNr;
-		for (StateProp prop : states.values()) {
-			if (!prop.isAlive()) {
-				stateToNumber.put(prop, stateNr);
-				numberToState[stateNr] = prop;
+		for (int s = states.nextUsed(0); s >= 0; s = states.nextUsed(s + 1)) {
+			if (!alive[s]) {
+				stateToNumber[s] = stateNr;
+				numberToState[stateNr] = s;
 				stateNr++;
 			}
 		}
 
-		double[] inProbs = new double[numTransitions];
+		/* build backwards matrix, with the diagonal entry last in each row */
 		int[] rows = new int[numStates + 1];
-		int[] cols = new int[numTransitions];
-		double[] outRates = new double[numStates];
-		for (StateProp prop : states.values()) {
-			StateProp[] succStates = prop.getSuccStates();
-			if (succStates != null) {
-				for (StateProp succ : succStates) {
-					rows[stateToNumber.get(succ) + 1]++;
+		for (stateNr = 0; stateNr < numStates; stateNr++) {
+			int s = numberToState[stateNr];
+			if (hasSuccs[s]) {
+				for (int j = succStart[s], end = j + numSuccs[s]; j < end; j++) {
+					rows[stateToNumber[succSlots[j]] + 1]++;
 				}
 			}
-			rows[stateToNumber.get(prop) + 1]++;
+			rows[stateNr + 1]++;
 		}
 		for (stateNr = 0; stateNr < numStates; stateNr++) {
 			rows[stateNr + 1] += rows[stateNr];
 		}
-
-		for (StateProp prop : states.values()) {
-			int stateNumber = stateToNumber.get(prop);
-			StateProp[] succStates = prop.getSuccStates();
-			double[] succRates = prop.getSuccRates();
-			if (succStates != null) {
-				for (int i = 0; i < succStates.length; i++) {
-					StateProp succState = succStates[i];
-					int succStateNumber = stateToNumber.get(succState);
-					double succRate = succRates[i];
-					cols[rows[succStateNumber]] = stateNumber;
-					inProbs[rows[succStateNumber]] = succRate / maxRate;
-					rows[succStateNumber]++;
-					outRates[stateNumber] += succRate;
-				}
-			}
-		}
-
+		int numTransitions = rows[numStates];
+		double[] inProbs = new double[numTransitions];
+		int[] cols = new int[numTransitions];
+		int[] pos = Arrays.copyOf(rows, numStates);
 		for (stateNr = 0; stateNr < numStates; stateNr++) {
-			cols[rows[stateNr]] = stateNr;
-			inProbs[rows[stateNr]] = (maxRate - outRates[stateNr]) / maxRate;
-		}
-
-		Arrays.fill(rows, 0);
-		for (StateProp prop : states.values()) {
-			StateProp[] succStates = prop.getSuccStates();
-			if (succStates != null) {
-				for (StateProp succ : succStates) {
-					rows[stateToNumber.get(succ) + 1]++;
+			int s = numberToState[stateNr];
+			if (hasSuccs[s]) {
+				for (int j = succStart[s], end = j + numSuccs[s]; j < end; j++) {
+					int succStateNumber = stateToNumber[succSlots[j]];
+					cols[pos[succStateNumber]] = stateNr;
+					inProbs[pos[succStateNumber]] = succRates[j] / maxRate;
+					pos[succStateNumber]++;
 				}
 			}
-			rows[stateToNumber.get(prop) + 1]++;
 		}
 		for (stateNr = 0; stateNr < numStates; stateNr++) {
-			rows[stateNr + 1] += rows[stateNr];
+			int s = numberToState[stateNr];
+			double outRate = hasSuccs[s] ? sumRates[s] : 0.0;
+			cols[pos[stateNr]] = stateNr;
+			inProbs[pos[stateNr]] = (maxRate - outRate) / maxRate;
 		}
 
 		double[] rewards = new double[numStates];
 		double[] probs = new double[numStates];
 		double[] nextProbs = new double[numStates];
-		double[] sum = new double[numStates];
-		for (stateNr = 0; stateNr < numberToState.length; stateNr++) {
-			StateProp prop = numberToState[stateNr];
+		double[] sums = new double[numStates];
+		for (stateNr = 0; stateNr < numStates; stateNr++) {
+			int s = numberToState[stateNr];
 			if (analysisType == AnalysisType.REW_CUMUL) {
-				rewards[stateNr] = prop.getReward();
+				rewards[stateNr] = reward[s];
 			}
-			probs[stateNr] = prop.getProb();
-			sum[stateNr] = prop.getSum();
+			probs[stateNr] = prob[s];
+			sums[stateNr] = sum[s];
 		}
 
 		/* iterate using matrix */
 		boolean canArray = true;
 		while (birthProbSum < (1 - epsilon) && canArray) {
-			//			timer2 = System.currentTimeMillis();
 			double prob = birthProc.calculateNextProb(maxRate);
 			birthProbSum += prob;
 			double mixed = (1.0 - birthProbSum) / maxRate;
-			for (stateNr = 0; stateNr < numStates; stateNr++) {
-				value += probs[stateNr] * mixed * rewards[stateNr];
-				sum[stateNr] += prob * probs[stateNr];
-				nextProbs[stateNr] = 0.0;
-				for (int succNr = rows[stateNr]; succNr < rows[stateNr+1]; succNr++) {
-					nextProbs[stateNr] += inProbs[succNr] * probs[cols[succNr]];
-				}
-				if ((stateNr < numAlive) != (nextProbs[stateNr] > delta)) {
-					canArray = false;
-				} else if (stateNr >= numAlive) {
-				    nextProbs[stateNr] = 0.0;
-				}
-			}
+			canArray = arrayMult(rows, cols, inProbs, probs, nextProbs, sums, rewards, prob, mixed, numAlive);
 			double[] swap = probs;
 			probs = nextProbs;
 			nextProbs = swap;
@@ -897,15 +590,50 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 		}
 		
 		/* map back, update states and return current iteration */
-		for (stateNr = 0; stateNr < numberToState.length; stateNr++) {
-			StateProp prop = numberToState[stateNr];
-			prop.setProb(probs[stateNr]);
-			prop.setSum(sum[stateNr]);
+		for (stateNr = 0; stateNr < numStates; stateNr++) {
+			int s = numberToState[stateNr];
+			prob[s] = probs[stateNr];
+			sum[s] = sums[stateNr];
 		}
 		updateStates();
 		return iters;
 	}
 
+	/**
+	 * Performs a single iteration of {@link #arrayIterate(int)}:
+	 * multiplies {@code probs} with the (transposed) matrix given by
+	 * {@code rows}, {@code cols} and {@code inProbs}, storing the result in
+	 * {@code nextProbs}, adds {@code probs} times {@code poisson} to {@code sums}
+	 * and {@code probs} weighted with {@code rewards} times {@code mixed} to the analysis value.
+	 * The probabilities of all but the first {@code numAlive} states are kept at zero.
+	 *
+	 * @return false if any of the first {@code numAlive} states falls below
+	 * the relevance threshold, or any other state rises above it
+	 */
+	private boolean arrayMult(int[] rows, int[] cols, double[] inProbs, double[] probs, double[] nextProbs, double[] sums, double[] rewards, double poisson, double mixed, int numAlive)
+	{
+		int numStates = probs.length;
+		double rewardSum = 0.0;
+		boolean changed = false;
+		for (int stateNr = 0; stateNr < numStates; stateNr++) {
+			double stateProb = probs[stateNr];
+			rewardSum += stateProb * rewards[stateNr];
+			sums[stateNr] += poisson * stateProb;
+			double nextProb = 0.0;
+			for (int succNr = rows[stateNr], end = rows[stateNr + 1]; succNr < end; succNr++) {
+				nextProb += inProbs[succNr] * probs[cols[succNr]];
+			}
+			if ((stateNr < numAlive) != (nextProb > delta)) {
+				changed = true;
+			} else if (stateNr >= numAlive) {
+				nextProb = 0.0;
+			}
+			nextProbs[stateNr] = nextProb;
+		}
+		value += rewardSum * mixed;
+		return !changed;
+	}
+
 	/**
 	 * Update analysis value after iteration.
 	 * For certain analyses (currently cumulative rewards) we have to modify
@@ -928,8 +656,9 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 			break;
 		case REW_CUMUL:
 			double mixed = (1.0 - probSum) / maxRate;
-			for (StateProp prop : states.values()) {
-				value += prop.getProb() * mixed * prop.getReward();
+			int numSlots = states.getNumSlots();
+			for (int s = 0; s < numSlots; s++) {
+				value += this.prob[s] * mixed * reward[s];
 			}
 			break;
 		}
@@ -942,7 +671,7 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	 * probability and the threshold. Computes new maximal rate for remaining
 	 * states. Computes transitions to successors of states which have become
 	 * alive to to probability threshold only after a transient analysis has
-	 * finished.
+	 * finished (or reuses their cached transitions, if still valid).
 	 * 
 	 * @throws PrismException thrown if something goes wrong
 	 */
@@ -950,24 +679,27 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	{
 		maxRate = 0.0;
 		addDistr.clear();
-		for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-			State state = statePair.getKey();
-			StateProp prop = statePair.getValue();
-			if (prop.getProb() > delta) {
-				prop.setAlive(true);
-				if (!prop.hasSuccs()) {
+		for (int s = states.nextUsed(0); s >= 0; s = states.nextUsed(s + 1)) {
+			if (prob[s] > delta) {
+				alive[s] = true;
+				if (!hasSuccs[s]) {
 					itersUnchanged = 0;
-					addDistr.add(state);
+					addDistr.set(s);
 				} else {
-					maxRate = Math.max(maxRate, prop.sumRates());
+					maxRate = Math.max(maxRate, sumRates[s]);
 				}
 			} else {
-				prop.delete();
+				delete(s);
 			}
 		}
-		for (int stateNr = 0; stateNr < addDistr.size(); stateNr++) {
-			computeStateRatesAndRewards(addDistr.get(stateNr));
-			maxRate = Math.max(maxRate, states.get(addDistr.get(stateNr)).sumRates());
+		for (int s = addDistr.nextSetBit(0); s >= 0; s = addDistr.nextSetBit(s + 1)) {
+			if (hasValidSuccs(s)) {
+				useSuccs(s);
+			} else {
+				discardSuccs(s);
+				computeStateRatesAndRewards(s);
+			}
+			maxRate = Math.max(maxRate, sumRates[s]);
 		}
 		maxRate *= 1.02;
 
@@ -983,17 +715,12 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	private void removeDeletedStates()
 	{
 		boolean unchanged = true;
-		for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-			State state = statePair.getKey();
-			StateProp prop = statePair.getValue();
-			if (prop.canRemove()) {
-				deleteStates.add(state);
+		for (int s = states.nextUsed(0); s >= 0; s = states.nextUsed(s + 1)) {
+			if (!alive[s] && references[s] == 0) {
 				unchanged = false;
-			}
-		}
-		if (!keepSumProb) {
-			for (int i = 0; i < deleteStates.size(); i++) {
-				states.remove(deleteStates.get(i));
+				if (!keepSumProb) {
+					removeFromModel(s);
+				}
 			}
 		}
 		if (unchanged) {
@@ -1001,7 +728,6 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 		} else {
 			itersUnchanged = 0;
 		}
-		deleteStates.clear();
 	}
     
 	/**
@@ -1014,10 +740,10 @@ public final class FastAdaptiveUniformisation extends PrismComponent
     	initStates = new HashSet<State>();
 		State initState = modelGen.getInitialState();
 		initStates.add(initState);
-		addToModel(initState);
-		computeStateRatesAndRewards(initState);
-		states.get(initState).setProb(1.0);
-		maxRate = states.get(initState).sumRates() * 1.02;
+		int s = addToModel(initState);
+		computeStateRatesAndRewards(s);
+		prob[s] = 1.0;
+		maxRate = sumRates[s] * 1.02;
 	}
 
     /**
@@ -1028,8 +754,9 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	public void computeTotalDiscreteLoss()
 	{
 		double totalProb = 0;
-		for (StateProp prop : states.values()) {
-			totalProb += prop.getSum();
+		int numSlots = states.getNumSlots();
+		for (int s = 0; s < numSlots; s++) {
+			totalProb += sum[s];
 		}
 		totalProb += totalProbSetZero;
 		
@@ -1051,35 +778,171 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	 * @throws PrismException 
 	 */
 	public void clearSinkStates() throws PrismException {
-		for (Map.Entry<State,StateProp> statePair : states.entrySet()) {
-			State state = statePair.getKey();
-			StateProp prop = statePair.getValue();
+		for (int s = states.nextUsed(0); s >= 0; s = states.nextUsed(s + 1)) {
+			State state = states.getState(s);
 			modelGen.exploreState(state);
-			specialLabels.setLabel(0, modelGen.getNumTransitions() == 0 ? Expression.True() : Expression.False());
-			specialLabels.setLabel(1, initStates.contains(state) ? Expression.True() : Expression.False());
-			Expression evSink = sink.deepCopy();
-			evSink = (Expression) evSink.expandLabels(specialLabels);
-			if (evSink.evaluateBoolean(constantValues, state)) {
-				totalProbSetZero += prop.getProb();
-				prop.setProb(0.0);
+			if (evaluate(sinkExpanded, state, modelGen.getNumTransitions())) {
+				totalProbSetZero += prob[s];
+				prob[s] = 0.0;
 			}
 		}
 	}
 	
+	/**
+	 * Expands the special labels ("deadlock" and "init") in an expression,
+	 * for each combination of their values. The result is indexed
+	 * by (deadlock ? 2 : 0) + (init ? 1 : 0).
+	 *
+	 * @param expr expression to expand labels of
+	 * @return expanded expressions
+	 * @throws PrismException thrown if labels cannot be expanded
+	 */
+	private Expression[] expandSpecialLabels(Expression expr) throws PrismException
+	{
+		Expression[] expanded = new Expression[4];
+		for (int i = 0; i < 4; i++) {
+			specialLabels.setLabel(0, (i & 2) != 0 ? Expression.True() : Expression.False());
+			specialLabels.setLabel(1, (i & 1) != 0 ? Expression.True() : Expression.False());
+			expanded[i] = (Expression) expr.deepCopy().expandLabels(specialLabels);
+		}
+		return expanded;
+	}
+
+	/**
+	 * Evaluates an expression, with special labels expanded by
+	 * {@link #expandSpecialLabels(Expression)}, in a given state.
+	 *
+	 * @param expanded expanded expression
+	 * @param state state to evaluate expression in
+	 * @param numTransitions number of transitions of the state in the model
+	 * @return value of the expression in the state
+	 * @throws PrismException thrown if expression cannot be evaluated
+	 */
+	private boolean evaluate(Expression[] expanded, State state, int numTransitions) throws PrismException
+	{
+		int i = (numTransitions == 0 ? 2 : 0) + (initStates.contains(state) ? 1 : 0);
+		return expanded[i].evaluateBoolean(constantValues, state);
+	}
+
+	/**
+	 * Creates an empty window of states, and the arrays to store state information.
+	 * States are packed into longs if the variable info from the model generator allows it.
+	 *
+	 * @throws PrismException thrown if something goes wrong
+	 */
+	private void createStates() throws PrismException
+	{
+		VarList varList;
+		try {
+			varList = modelGen.createVarList();
+		} catch (PrismException e) {
+			// Variable ranges are unknown, so just store State objects
+			varList = null;
+		}
+		states = new PackedStateIndex(varList);
+		addDistr = new BitSet();
+		prob = new double[initSize];
+		nextProb = new double[initSize];
+		sum = new double[initSize];
+		reward = new double[initSize];
+		references = new int[initSize];
+		alive = new boolean[initSize];
+		hasSuccs = new boolean[initSize];
+		succStart = new int[initSize];
+		numSuccs = new int[initSize];
+		sumRates = new double[initSize];
+		cachedAt = new long[initSize];
+		removedAt = new long[initSize];
+		numRemoved = 0;
+		succSlots = new int[4 * initSize];
+		succRates = new double[4 * initSize];
+		succSize = 0;
+		succGarbage = 0;
+	}
+
+	/**
+	 * Makes sure the arrays storing state information can hold {@code numSlots} slots.
+	 *
+	 * @param numSlots number of slots needed
+	 */
+	private void ensureCapacity(int numSlots)
+	{
+		if (numSlots <= prob.length) {
+			return;
+		}
+		int newLength = Math.max(2 * prob.length, numSlots);
+		prob = Arrays.copyOf(prob, newLength);
+		nextProb = Arrays.copyOf(nextProb, newLength);
+		sum = Arrays.copyOf(sum, newLength);
+		reward = Arrays.copyOf(reward, newLength);
+		references = Arrays.copyOf(references, newLength);
+		alive = Arrays.copyOf(alive, newLength);
+		hasSuccs = Arrays.copyOf(hasSuccs, newLength);
+		succStart = Arrays.copyOf(succStart, newLength);
+		numSuccs = Arrays.copyOf(numSuccs, newLength);
+		sumRates = Arrays.copyOf(sumRates, newLength);
+		cachedAt = Arrays.copyOf(cachedAt, newLength);
+		removedAt = Arrays.copyOf(removedAt, newLength);
+	}
+
 	/**
 	 * Adds @a state to model.
-	 * Computes reward for this states, creates entry in map of states,
+	 * Computes reward for this states, creates entry in the index of states,
 	 * and updates number of states
 	 * 
 	 * @param state state to add
+	 * @return slot of the state
 	 * @throws PrismException thrown if something wrong happens in underlying methods
 	 */
-	private void addToModel(State state) throws PrismException
+	private int addToModel(State state) throws PrismException
 	{
-		StateProp prop = new StateProp();
-		prop.setReward(computeRewards(state));
-		states.put(state, prop);
+		states.add(state);
+		int s = states.getIndexOfLastAdd();
+		ensureCapacity(states.getNumSlots());
+		prob[s] = 0.0;
+		nextProb[s] = 0.0;
+		sum[s] = 0.0;
+		reward[s] = computeRewards(state);
+		references[s] = 0;
+		alive[s] = true;
+		hasSuccs[s] = false;
+		succStart[s] = -1;
+		numSuccs[s] = 0;
+		sumRates[s] = 0.0;
 		maxNumStates = Math.max(maxNumStates, states.size());
+		return s;
+	}
+
+	/**
+	 * Removes the state in slot {@code s} from the model, so that its slot can be reused.
+	 *
+	 * @param s slot of state to remove
+	 */
+	private void removeFromModel(int s)
+	{
+		discardSuccs(s);
+		states.remove(s);
+		prob[s] = 0.0;
+		nextProb[s] = 0.0;
+		sum[s] = 0.0;
+		removedAt[s] = ++numRemoved;
+	}
+
+	/**
+	 * Deletes the state in slot {@code s}.
+	 * Its transitions are no longer used, and thus no longer count as
+	 * references of its successors, but are kept in case the state becomes
+	 * relevant again. The state is left in the model however,
+	 * because it might still be the successor state of some alive state.
+	 *
+	 * @param s slot of state to delete
+	 */
+	private void delete(int s)
+	{
+		releaseSuccs(s);
+		alive[s] = false;
+		prob[s] = 0.0;
+		nextProb[s] = 0.0;
 	}
 
 	/**
@@ -1087,80 +950,209 @@ public final class FastAdaptiveUniformisation extends PrismComponent
 	 * Rewards computed depend on the reward structure set by
 	 * {@code setRewardStruct}.
 	 * 
-	 * @param state state to compute successor rates and rewards for
+	 * @param s slot of the state to compute successor rates and rewards for
 	 * @throws PrismException thrown if something goes wrong
 	 */
-	private void computeStateRatesAndRewards(State state) throws PrismException
+	private void computeStateRatesAndRewards(int s) throws PrismException
 	{
-		double[] succRates;
-		StateProp[] succStates;
+		State state = states.getState(s);
 		modelGen.exploreState(state);
-		specialLabels.setLabel(0, modelGen.getNumTransitions() == 0 ? Expression.True() : Expression.False());
-		specialLabels.setLabel(1, initStates.contains(state) ? Expression.True() : Expression.False());
-		Expression evSink = sink.deepCopy();
-		evSink = (Expression) evSink.expandLabels(specialLabels);
-		if (evSink.evaluateBoolean(constantValues, state)) {
-			succRates = new double[1];
-			succStates = new StateProp[1];
-			succRates[0] = 1.0;
-			succStates[0] = states.get(state);
-		} else {
-			int ntAll = modelGen.getNumTransitions();
-			if (ntAll > 0) {
-				succRates = new double[ntAll];
-				succStates = new StateProp[ntAll];
-
-				int t = 0;
-				for (int i = 0, nc = modelGen.getNumChoices(); i < nc; i++) {
-					for (int j = 0, ntChoice = modelGen.getNumTransitions(i); j < ntChoice; j++) {
-						State succState = modelGen.computeTransitionTarget(i, j);
-						StateProp succProp = states.get(succState);
-						if (null == succProp) {
-							addToModel(succState);
-							succProp = states.get(succState);
-
-							// re-explore state, as call to addToModel may have explored succState
-							modelGen.exploreState(state);
-						}
-						succRates[t] = modelGen.getTransitionProbability(i, j);
-						succStates[t] = succProp;
-						t++;
-					}
+		int ntAll = modelGen.getNumTransitions();
+		if (ntAll == 0 || evaluate(sinkExpanded, state, ntAll)) {
+			setSelfLoop(s);
+			return;
+		}
+		int start = allocateSuccs(ntAll);
+		double sumRate = 0.0;
+		int t = start;
+		for (int i = 0, nc = modelGen.getNumChoices(); i < nc; i++) {
+			for (int j = 0, ntChoice = modelGen.getNumTransitions(i); j < ntChoice; j++) {
+				State succState = modelGen.computeTransitionTarget(i, j);
+				int succ = states.get(succState);
+				if (succ < 0) {
+					succ = addToModel(succState);
+
+					// re-explore state, as call to addToModel may have explored succState
+					modelGen.exploreState(state);
 				}
-			} else {
-				succRates = new double[1];
-				succStates = new StateProp[1];
-				succRates[0] = 1.0;
-				succStates[0] = states.get(state);
+				double rate = modelGen.getTransitionProbability(i, j);
+				succSlots[t] = succ;
+				succRates[t] = rate;
+				sumRate += rate;
+				t++;
+			}
+		}
+		setSuccs(s, start, ntAll, sumRate);
+	}
+
+	/**
+	 * Makes the state in slot {@code s} absorbing (a self-loop with rate 1).
+	 *
+	 * @param s slot of state
+	 */
+	private void setSelfLoop(int s)
+	{
+		int start = allocateSuccs(1);
+		succSlots[start] = s;
+		succRates[start] = 1.0;
+		setSuccs(s, start, 1, 1.0);
+	}
+
+	/**
+	 * Sets the transitions of the state in slot {@code s}, stored at
+	 * positions {@code start}, ..., {@code start + num - 1} of {@code succSlots}/{@code succRates},
+	 * and uses them (increasing the references of the successors).
+	 *
+	 * @param s slot of state
+	 * @param start start of transitions
+	 * @param num number of transitions
+	 * @param sumRate sum of transition rates
+	 */
+	private void setSuccs(int s, int start, int num, double sumRate)
+	{
+		succStart[s] = start;
+		numSuccs[s] = num;
+		sumRates[s] = sumRate;
+		cachedAt[s] = numRemoved;
+		useSuccs(s);
+	}
+
+	/**
+	 * Starts using the (cached) transitions of the state in slot {@code s}.
+	 *
+	 * @param s slot of state
+	 */
+	private void useSuccs(int s)
+	{
+		for (int j = succStart[s], end = j + numSuccs[s]; j < end; j++) {
+			references[succSlots[j]]++;
+		}
+		hasSuccs[s] = true;
+	}
+
+	/**
+	 * Stops using the transitions of the state in slot {@code s},
+	 * but keeps them cached.
+	 *
+	 * @param s slot of state
+	 */
+	private void releaseSuccs(int s)
+	{
+		if (hasSuccs[s]) {
+			for (int j = succStart[s], end = j + numSuccs[s]; j < end; j++) {
+				references[succSlots[j]]--;
+			}
+			hasSuccs[s] = false;
+		}
+	}
+
+	/**
+	 * Stops using the transitions of the state in slot {@code s} and discards them.
+	 *
+	 * @param s slot of state
+	 */
+	private void discardSuccs(int s)
+	{
+		releaseSuccs(s);
+		if (succStart[s] >= 0) {
+			succGarbage += numSuccs[s];
+			succStart[s] = -1;
+			numSuccs[s] = 0;
+			sumRates[s] = 0.0;
+		}
+	}
+
+	/**
+	 * Checks whether the state in slot {@code s} has cached transitions
+	 * that can still be used, i.e., none of its successor states has been
+	 * removed (and its slot possibly reused) since they were computed.
+	 *
+	 * @param s slot of state
+	 * @return true if and only if the cached transitions can be used
+	 */
+	private boolean hasValidSuccs(int s)
+	{
+		if (succStart[s] < 0) {
+			return false;
+		}
+		for (int j = succStart[s], end = j + numSuccs[s]; j < end; j++) {
+			if (removedAt[succSlots[j]] > cachedAt[s]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reserves space for {@code num} transitions in {@code succSlots}/{@code succRates},
+	 * compacting or growing the arrays if needed.
+	 *
+	 * @param num number of transitions
+	 * @return start of the reserved space
+	 */
+	private int allocateSuccs(int num)
+	{
+		if (succSize + num > succSlots.length) {
+			if (2 * succGarbage > succSize) {
+				compactSuccs();
+			}
+			if (succSize + num > succSlots.length) {
+				int newLength = Math.max(2 * succSlots.length, succSize + num);
+				succSlots = Arrays.copyOf(succSlots, newLength);
+				succRates = Arrays.copyOf(succRates, newLength);
+			}
+		}
+		int start = succSize;
+		succSize += num;
+		return start;
+	}
+
+	/**
+	 * Removes the unused entries from {@code succSlots}/{@code succRates}.
+	 */
+	private void compactSuccs()
+	{
+		int[] newSuccSlots = new int[succSlots.length];
+		double[] newSuccRates = new double[succRates.length];
+		int newSize = 0;
+		for (int s = states.nextUsed(0); s >= 0; s = states.nextUsed(s + 1)) {
+			if (succStart[s] >= 0) {
+				System.arraycopy(succSlots, succStart[s], newSuccSlots, newSize, numSuccs[s]);
+				System.arraycopy(succRates, succStart[s], newSuccRates, newSize, numSuccs[s]);
+				succStart[s] = newSize;
+				newSize += numSuccs[s];
 			}
 		}
-		states.get(state).setSuccRates(succRates);
-		states.get(state).setSuccStates(succStates);
+		succSlots = newSuccSlots;
+		succRates = newSuccRates;
+		succSize = newSize;
+		succGarbage = 0;
 	}
 
 	/**
 	 * Perform a single matrix-vector multiplication.
+	 * Beforehand, adds the current probabilities times {@code poisson}
+	 * to the weighted sum probabilities.
 	 * 
 	 * @param maxRate maximal total leaving rate sum in living states
+	 * @param poisson birth process probability for the current iteration
 	 */
-	private void mvMult(double maxRate)
+	private void mvMult(double maxRate, double poisson)
 	{
-		for (StateProp prop : states.values()) {
-			double[] succRates = prop.getSuccRates();
-			StateProp[] succStates = prop.getSuccStates();
-			double stateProb = prop.getProb();
-			if (null != succStates) {
-				double sumRates = 0.0;
-				for (int succ = 0; succ < succStates.length; succ++) {
-				    double rate = succRates[succ];
-				    sumRates += rate;
-				    succStates[succ].addToNextProb((rate / maxRate) * stateProb);
+		int numSlots = states.getNumSlots();
+		for (int s = 0; s < numSlots; s++) {
+			double stateProb = prob[s];
+			sum[s] += poisson * stateProb;
+			if (hasSuccs[s]) {
+				for (int j = succStart[s], end = j + numSuccs[s]; j < end; j++) {
+					nextProb[succSlots[j]] += (succRates[j] / maxRate) * stateProb;
 				}
-				prop.addToNextProb(((maxRate - sumRates) / maxRate) * prop.getProb());
+				nextProb[s] += ((maxRate - sumRates[s]) / maxRate) * stateProb;
 			}
 		}
-		for (StateProp prop : states.values()) {
-			prop.prepareNextIteration();
+		for (int s = 0; s < numSlots; s++) {
+			prob[s] = nextProb[s];
+			nextProb[s] = 0.0;
 		}
 	}
 
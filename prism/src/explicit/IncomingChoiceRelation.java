@@ -26,9 +26,10 @@
 
 package explicit;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
 import prism.PrismComponent;
 
 /**
@@ -38,6 +39,7 @@ import prism.PrismComponent;
  * <p>
  * As NondetModel only provide easy access to successors of states,
  * the predecessor relation is computed and stored for subsequent efficient access.
+ * It is stored in compressed sparse row (CSR) form, i.e., in three arrays of ints.
  * <p>
  * Note: Naturally, if the NondetModel changes, the predecessor relation
  * has to be recomputed to remain accurate.
@@ -107,9 +109,53 @@ public class IncomingChoiceRelation
 	};
 
 	/**
-	 * pre[i] provides the list of incoming choices of the state with index i.
+	 * The incoming choices of the state with index i are the choices
+	 * preChoices[j] of the states preStates[j], for j = preStart[i], ..., preStart[i+1]-1,
+	 * ordered by state and then by choice index.
+	 */
+	private int preStart[];
+	private int preStates[];
+	private int preChoices[];
+
+	/**
+	 * Iterator over the incoming choices of a state, without creating {@link Choice} objects:
+	 * {@link #nextInt()} returns the source state of the next choice,
+	 * {@link #getChoice()} then gives its choice index.
 	 */
-	List<ArrayList<Choice>> pre;
+	public final class ChoiceIterator implements PrimitiveIterator.OfInt
+	{
+		private int next;
+		private final int end;
+
+		private ChoiceIterator(int s)
+		{
+			next = preStart[s];
+			end = preStart[s + 1];
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return next < end;
+		}
+
+		@Override
+		public int nextInt()
+		{
+			if (next >= end) {
+				throw new NoSuchElementException();
+			}
+			return preStates[next++];
+		}
+
+		/**
+		 * The choice index of the choice whose source state was last returned by {@link #nextInt()}.
+		 */
+		public int getChoice()
+		{
+			return preChoices[next - 1];
+		}
+	}
 
 	/**
 	 * Constructor. Computes the predecessor relation for the given model
@@ -119,49 +165,95 @@ public class IncomingChoiceRelation
 	 */
 	public IncomingChoiceRelation(NondetModel<?> model)
 	{
-		pre = new ArrayList<ArrayList<Choice>>(model.getNumStates());
-		// construct the (empty) array list for all states
-		for (int s = 0; s < model.getNumStates(); s++) {
-			pre.add(s, new ArrayList<Choice>());
-		}
-
 		compute(model);
 	}
 
-	/** Compute the predecessor relation using getSuccessorsIterator. */
+	/** Compute the predecessor relation using getSuccessors (in two passes, counting and then storing). */
 	private void compute(NondetModel<?> model)
 	{
 		int n = model.getNumStates();
 
+		// Count incoming choices (of state t, in preStart[t+1])
+		preStart = new int[n + 1];
 		for (int s = 0; s < n; s++) {
 			for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
-				Choice choice = new Choice(s, c);
-
-				Iterator<Integer> it = model.getSuccessorsIterator(s, c);
+				SuccessorsIterator it = model.getSuccessors(s, c);
 				while (it.hasNext()) {
-					int successor = it.next();
+					preStart[it.nextInt() + 1]++;
+				}
+			}
+		}
+		for (int s = 0; s < n; s++) {
+			preStart[s + 1] += preStart[s];
+		}
 
-					// Add the current choice s to pre[successor].
-					pre.get(successor).add(choice);
+		// Store incoming choices
+		preStates = new int[preStart[n]];
+		preChoices = new int[preStart[n]];
+		int pos[] = new int[n];
+		System.arraycopy(preStart, 0, pos, 0, n);
+		for (int s = 0; s < n; s++) {
+			for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
+				SuccessorsIterator it = model.getSuccessors(s, c);
+				while (it.hasNext()) {
+					// Add the current choice (s,c) to pre[successor].
+					int successor = it.nextInt();
+					preStates[pos[successor]] = s;
+					preChoices[pos[successor]++] = c;
 				}
 			}
 		}
 	}
 
+	/**
+	 * Get the number of incoming choices of state {@code s}.
+	 */
+	public int getNumIncomingChoices(int s)
+	{
+		return preStart[s + 1] - preStart[s];
+	}
+
 	/**
 	 * Get an Iterable over the incoming choices of state {@code s}.
+	 * Note: This creates a {@link Choice} object for each choice,
+	 * see {@link #getIncomingChoicesIterator(int)} for a more efficient alternative.
 	 */
 	public Iterable<Choice> getIncomingChoices(int s)
 	{
-		return pre.get(s);
+		return () -> new Iterator<Choice>()
+		{
+			private final ChoiceIterator it = getIncomingChoicesIterator(s);
+
+			@Override
+			public boolean hasNext()
+			{
+				return it.hasNext();
+			}
+
+			@Override
+			public Choice next()
+			{
+				int state = it.nextInt();
+				return new Choice(state, it.getChoice());
+			}
+		};
+	}
+
+	/**
+	 * Get a (primitive) Iterator over the incoming choices of state {@code s},
+	 * returning the source states, with access to the choice indices via {@link ChoiceIterator#getChoice()}.
+	 */
+	public ChoiceIterator getIncomingChoicesIterator(int s)
+	{
+		return new ChoiceIterator(s);
 	}
 
 	/**
-	 * Get an Iterator over the incoming choices of state {@code s}.
+	 * Get the (approximate) amount of memory used to store the relation, in bytes.
 	 */
-	public Iterator<Choice> getIncomingChoicesIterator(int s)
+	public long getMemorySize()
 	{
-		return getIncomingChoices(s).iterator();
+		return 4L * (preStart.length + preStates.length + preChoices.length);
 	}
 
 	/**
@@ -182,7 +274,7 @@ public class IncomingChoiceRelation
 		IncomingChoiceRelation pre = new IncomingChoiceRelation(model);
 
 		timer = System.currentTimeMillis() - timer;
-		parent.getLog().println("done (" + timer / 1000.0 + " seconds)");
+		parent.getLog().println("done (" + timer / 1000.0 + " seconds, " + pre.getMemorySize() / 1024 + " KB)");
 
 		return pre;
 	}
@@ -28,7 +28,12 @@
 
 package explicit;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.PrimitiveIterator;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 import common.IntSet;
 import common.PeriodicTimer;
@@ -81,6 +86,21 @@ public abstract class IterationMethod {
 
 		/** Return the underlying model */
 		public Model<?> getModel();
+
+		/**
+		 * Get a view of this iteration object that can be used to iterate over a set of states
+		 * concurrently with other views, as long as the sets of states are disjoint and
+		 * do not depend on each other (e.g., independent SCCs during a topological iteration).
+		 * A view shares the solution vector(s) with this object, but only modifies the
+		 * entries for the states that it iterates over, and it keeps track of its own error.
+		 * Calling {@code init} on a view (re-)initialises the underlying iteration object,
+		 * so it should not be done while other views are in use.
+		 * Returns null if this is not supported.
+		 */
+		public default IterationValIter concurrentView()
+		{
+			return null;
+		}
 	}
 
 	/**
@@ -115,6 +135,16 @@ public abstract class IterationMethod {
 
 		/** Return the underlying model */
 		public Model<?> getModel();
+
+		/**
+		 * Get a view of this iteration object that can be used to iterate over a set of states
+		 * concurrently with other views (see {@link IterationValIter#concurrentView()}).
+		 * Returns null if this is not supported.
+		 */
+		public default IterationIntervalIter concurrentView()
+		{
+			return null;
+		}
 	}
 
 	/** Storage for a single solution vector */
@@ -171,6 +201,69 @@ public abstract class IterationMethod {
 		{
 			super(model);
 		}
+
+		/** Perform one (in-place) iteration and return the error */
+		protected abstract double doIterate(IntSet states) throws PrismException;
+
+		@Override
+		public boolean iterateAndCheckConvergence(IntSet states) throws PrismException
+		{
+			error = doIterate(states);
+			// Check termination
+			return (error < termCritParam);
+		}
+
+		@Override
+		public IterationValIter concurrentView()
+		{
+			// the iteration is in-place, so we only need to keep track of the error separately
+			return new IterationValIter() {
+				private double error = Double.POSITIVE_INFINITY;
+
+				@Override
+				public void init(double[] soln)
+				{
+					SingleVectorIterationValIter.this.init(soln);
+				}
+
+				@Override
+				public double[] getSolnVector()
+				{
+					return soln;
+				}
+
+				@Override
+				public double getError()
+				{
+					return error;
+				}
+
+				@Override
+				public boolean iterateAndCheckConvergence(IntSet states) throws PrismException
+				{
+					error = doIterate(states);
+					return (error < termCritParam);
+				}
+
+				@Override
+				public void doneWith(IntSet states)
+				{
+					SingleVectorIterationValIter.this.doneWith(states);
+				}
+
+				@Override
+				public void solveSingletonSCC(int state, SingletonSCCSolver solver)
+				{
+					SingleVectorIterationValIter.this.solveSingletonSCC(state, solver);
+				}
+
+				@Override
+				public Model<?> getModel()
+				{
+					return model;
+				}
+			};
+		}
 	}
 
 	/** Abstract base class for an IterationIntervalIter with a single solution vector */
@@ -180,6 +273,13 @@ public abstract class IterationMethod {
 		{
 			super(model);
 		}
+
+		@Override
+		public IterationIntervalIter concurrentView()
+		{
+			// the iteration is in-place and there is no other state, so this object can be shared
+			return this;
+		}
 	}
 
 	/**
@@ -191,10 +291,12 @@ public abstract class IterationMethod {
 	 * @param solnOld the previous solution vector
 	 * @param solnNew the new solution vector
 	 * @param states the set of states that are the focus of the current iteration
+	 * @param onlyStates if true, only the entries for {@code states} may be read or modified
+	 * (e.g., because other entries are being iterated over concurrently)
 	 */
 	@FunctionalInterface
 	interface IterationPostProcessor {
-		void apply(double[] solnOld, double[] solnNew, IntSet states) throws PrismException;
+		void apply(double[] solnOld, double[] solnNew, IntSet states, boolean onlyStates) throws PrismException;
 	}
 
 	/**
@@ -235,7 +337,7 @@ public abstract class IterationMethod {
 			doIterate(states);
 			// optionally, post processing
 			if (postProcessor != null) {
-				postProcessor.apply(soln, soln2, states);
+				postProcessor.apply(soln, soln2, states, false);
 			}
 
 			// switch vectors
@@ -251,7 +353,7 @@ public abstract class IterationMethod {
 			doIterate(states);
 			// optionally, post processing
 			if (postProcessor != null) {
-				postProcessor.apply(soln, soln2, states);
+				postProcessor.apply(soln, soln2, states, false);
 			}
 			// check convergence (on the set of states)
 			boolean done = PrismUtils.doublesAreClose(soln, soln2, states.iterator(), termCritParam, absolute);
@@ -292,6 +394,202 @@ public abstract class IterationMethod {
 			soln2[state] = soln[state];
 		}
 
+		@Override
+		public ConcurrentView concurrentView()
+		{
+			return new ConcurrentView();
+		}
+
+		/**
+		 * A view of a {@link TwoVectorIteration} for concurrent iteration over a set of states.
+		 * Instead of switching the two solution vectors after each iteration, the entries
+		 * for the iterated states are swapped. Since the two vectors agree on all states
+		 * that are not currently being iterated over, this gives the same results.
+		 */
+		protected class ConcurrentView implements IterationValIter, IterationIntervalIter
+		{
+			/** The set of states of the most recent iteration (for the error) */
+			private IntSet lastStates = null;
+
+			@Override
+			public void init(double[] soln)
+			{
+				TwoVectorIteration.this.init(soln);
+			}
+
+			@Override
+			public double[] getSolnVector()
+			{
+				return soln;
+			}
+
+			@Override
+			public void iterate(IntSet states) throws PrismException
+			{
+				// do the iteration
+				doIterate(states);
+				// optionally, post processing
+				if (postProcessor != null) {
+					postProcessor.apply(soln, soln2, states, true);
+				}
+				// switch vector entries
+				swap(states);
+			}
+
+			@Override
+			public boolean iterateAndCheckConvergence(IntSet states) throws PrismException
+			{
+				// do the iteration
+				doIterate(states);
+				// optionally, post processing
+				if (postProcessor != null) {
+					postProcessor.apply(soln, soln2, states, true);
+				}
+				// check convergence (on the set of states)
+				boolean done = PrismUtils.doublesAreClose(soln, soln2, states.iterator(), termCritParam, absolute);
+				// switch vector entries
+				swap(states);
+				lastStates = states;
+				return done;
+			}
+
+			/** Switch the entries of the two solution vectors for the given states */
+			private void swap(IntSet states)
+			{
+				PrimitiveIterator.OfInt it = states.iterator();
+				while (it.hasNext()) {
+					int state = it.nextInt();
+					double tmp = soln[state];
+					soln[state] = soln2[state];
+					soln2[state] = tmp;
+				}
+			}
+
+			@Override
+			public double getError()
+			{
+				return lastStates == null ? 0.0 : PrismUtils.measureSupNorm(soln, soln2, absolute, lastStates.iterator());
+			}
+
+			@Override
+			public void doneWith(IntSet states)
+			{
+				TwoVectorIteration.this.doneWith(states);
+			}
+
+			@Override
+			public void solveSingletonSCC(int state, SingletonSCCSolver solver)
+			{
+				TwoVectorIteration.this.solveSingletonSCC(state, solver);
+			}
+
+			@Override
+			public Model<?> getModel()
+			{
+				return model;
+			}
+
+			@Override
+			public ConcurrentView concurrentView()
+			{
+				return TwoVectorIteration.this.concurrentView();
+			}
+		}
+	}
+
+	/**
+	 * Abstract base class for a {@link TwoVectorIteration} whose iteration step
+	 * ({@code doIterate}) can be performed independently for disjoint sets of states.
+	 * If the number of threads is greater than 1, the set of states is partitioned into chunks
+	 * with balanced numbers of transitions (see {@link StatePartition}), which are then iterated
+	 * (and checked for convergence) in parallel. Since each state's new value and strategy choice
+	 * are computed exactly as in the sequential case, the results are identical.
+	 */
+	protected abstract class ParallelTwoVectorIteration extends TwoVectorIteration
+	{
+		/** Partition of the most recently iterated set of states (null if none yet) */
+		private StatePartition partition = null;
+
+		/** Constructor */
+		protected ParallelTwoVectorIteration(Model<?> model, IterationMethod.IterationPostProcessor postProcessor)
+		{
+			super(model, postProcessor);
+		}
+
+		/**
+		 * Get a partition of {@code states} for parallel iteration,
+		 * or null if the iteration should be done sequentially.
+		 */
+		private StatePartition getPartition(IntSet states)
+		{
+			if (numThreads <= 1) {
+				return null;
+			}
+			// The same set of states is typically iterated over repeatedly, so reuse the partition
+			if (partition == null || partition.getStates() != states) {
+				partition = new StatePartition(model, states, numThreads);
+			}
+			return partition.isParallel() ? partition : null;
+		}
+
+		@Override
+		public void iterate(IntSet states) throws PrismException
+		{
+			StatePartition partition = getPartition(states);
+			if (partition == null) {
+				super.iterate(states);
+				return;
+			}
+			// do the iteration (in parallel)
+			partition.invokeAll(chunk -> {
+				doIterate(chunk);
+				return null;
+			});
+			// optionally, post processing
+			if (postProcessor != null) {
+				postProcessor.apply(soln, soln2, states, false);
+			}
+
+			// switch vectors
+			double[] tmp = soln;
+			soln = soln2;
+			soln2 = tmp;
+		}
+
+		@Override
+		public boolean iterateAndCheckConvergence(IntSet states) throws PrismException
+		{
+			StatePartition partition = getPartition(states);
+			if (partition == null) {
+				return super.iterateAndCheckConvergence(states);
+			}
+			List<Boolean> converged;
+			if (postProcessor == null) {
+				// do the iteration and check convergence for each chunk (in parallel)
+				converged = partition.invokeAll(chunk -> {
+					doIterate(chunk);
+					return PrismUtils.doublesAreClose(soln, soln2, chunk.iterator(), termCritParam, absolute);
+				});
+			} else {
+				// do the iteration (in parallel), then post processing,
+				// then check convergence for each chunk (in parallel)
+				partition.invokeAll(chunk -> {
+					doIterate(chunk);
+					return null;
+				});
+				postProcessor.apply(soln, soln2, states, false);
+				converged = partition.invokeAll(chunk -> PrismUtils.doublesAreClose(soln, soln2, chunk.iterator(), termCritParam, absolute));
+			}
+			// converged if converged for all chunks
+			boolean done = !converged.contains(false);
+
+			// switch vectors
+			double[] tmp = soln;
+			soln = soln2;
+			soln2 = tmp;
+
+			return done;
+		}
 	}
 
 	/**
@@ -310,10 +608,40 @@ public abstract class IterationMethod {
 		public void solveFor(int state, double[] soln);
 	}
 
+	/**
+	 * Functional interface for the application of a (Bellman) operator to a single state,
+	 * e.g., one row of matrix-vector multiplication followed by min/max.
+	 */
+	@FunctionalInterface
+	public interface SingleStateOperator {
+		/**
+		 * Compute the new value for state {@code state} from the values in {@code soln}.
+		 */
+		public double apply(int state, double[] soln);
+	}
+
+	/**
+	 * Functional interface for a step of sound value iteration for a single state.
+	 * Here, {@code x} gives, for each state, the probability of reaching the target
+	 * (or the reward accumulated before reaching it) within the steps done so far,
+	 * and {@code y} the probability of still being in one of the states whose value is computed.
+	 */
+	@FunctionalInterface
+	public interface SoundValIterOperator {
+		/**
+		 * Compute the new values of {@code x} and {@code y} for state {@code state}
+		 * (for a choice selected by the operator, if there are several) and store them
+		 * in {@code xy[0]} and {@code xy[1]}.
+		 */
+		public void apply(int state, double[] x, double[] y, double[] xy);
+	}
+
 	/** Convergence check: absolute or relative? */
 	protected final boolean absolute;
 	/** Convergence check: epsilon value */
 	protected final double termCritParam;
+	/** Number of threads to use for iteration (where supported) */
+	protected int numThreads = 1;
 
 	/**
 	 * Constructor.
@@ -326,6 +654,16 @@ public abstract class IterationMethod {
 		this.termCritParam = termCritParam;
 	}
 
+	/**
+	 * Set the number of threads to use for iteration. Currently, this is used
+	 * for parallel iteration steps by the Power method and Jacobi for DTMCs/MDPs
+	 * and for processing independent SCCs in parallel during topological iteration.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
 	// ------------ Abstract DTMC methods ----------------------------
 
 	/** Obtain an Iteration object using mvMult (matrix-vector multiplication) in a DTMC */
@@ -522,6 +860,11 @@ public abstract class IterationMethod {
 	 */
 	public ModelCheckerResult doTopologicalValueIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationMethod.IterationValIter iterator, SingletonSCCSolver singletonSCCSolver, long startTime, ExportIterations iterationsExport) throws PrismException
 	{
+		// Process independent SCCs in parallel, if possible
+		if (numThreads > 1 && iterator.concurrentView() != null) {
+			return doParallelTopologicalValueIteration(mc, description, sccs, iterator, singletonSCCSolver, startTime, iterationsExport);
+		}
+
 		// Start iterations
 		int iters = 0;
 		long mvCount = 0;
@@ -728,6 +1071,11 @@ public abstract class IterationMethod {
 	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
 	 */
 	public ModelCheckerResult doTopologicalIntervalIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationIntervalIter below, IterationIntervalIter above, SingletonSCCSolver singletonSCCSolver, long timer, ExportIterations iterationsExport) throws PrismException {
+		// Process independent SCCs in parallel, if possible
+		if (numThreads > 1 && below.concurrentView() != null && above.concurrentView() != null) {
+			return doParallelTopologicalIntervalIteration(mc, description, sccs, below, above, singletonSCCSolver, timer, iterationsExport);
+		}
+
 		try {
 			// Start iterations
 			int iters = 0;
@@ -874,35 +1222,891 @@ public abstract class IterationMethod {
 	}
 
 	/**
-	 * Compares the current lower and upper solution vectors in an interval iteration
-	 * and throws an exception if lower bound values are larger than upper bound values,
-	 * as this indicates problems.
-	 * @param lower the current lower iteration solution vector
-	 * @param upper the current upper iteration solution vector
-	 * @param states iterator over the states in question
+	 * Perform the actual work of an optimistic value iteration, i.e., iterate until convergence or abort.
+	 * <br>
+	 * Value iteration from below (using {@code below}) is performed until the difference between
+	 * iterations drops below a threshold (initially, the termination epsilon). Then, an upper bound
+	 * slightly above the current values is guessed, and the operator is applied to it (in place)
+	 * while value iteration from below continues. As soon as no value increases, the guess has
+	 * been verified (it is an inductive upper bound) and iteration continues until the lower and upper
+	 * bounds are close enough. If the guess turns out to be wrong, or cannot be verified within as many
+	 * iterations as value iteration took, value iteration continues with a smaller threshold.
+	 * <br>
+	 * This is sound if the values are the least fixed point of the operator, e.g., for reachability probabilities.
+	 * The result is the midpoint of the lower and upper bounds.
+	 *
+	 * @param mc ProbModelChecker (for log and settings)
+	 * @param description Description (for logging)
+	 * @param below The iteration object for the value iteration from below
+	 * @param operator The operator for a single state, used for the upper bound
+	 * @param maxValue An upper bound on all values (e.g., 1 for probabilities, infinity if not known)
+	 * @param unknownStates The set of unknown states, i.e., whose value should be determined
+	 * @param startTime The start time (for logging purposes, obtained from a call to System.currentTimeMillis())
+	 * @param iterationsExport an ExportIterations object (optional, ignored if null)
+	 * @return a ModelChecker result with the solution vector and statistics
+	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
 	 */
-	private static void intervalIterationCheckForProblems(double[] lower, double[] upper, PrimitiveIterator.OfInt states) throws PrismException
+	public ModelCheckerResult doOptimisticValueIteration(ProbModelChecker mc, String description, IterationValIter below, SingleStateOperator operator, double maxValue, IntSet unknownStates, long startTime, ExportIterations iterationsExport) throws PrismException
 	{
-		while (states.hasNext()) {
-			int s = states.nextInt();
-			if (lower[s] > upper[s]) {
-				throw new PrismException("In interval iteration, the lower value (" + lower[s] + ") is larger than the upper value (" + upper[s] + ").\n"
-						+ "This indicates either problems with numerical stability (rounding, precision of the floating-point representation) or that the initial bounds (for reward computations) are incorrect");
+		try {
+			// The upper bounds agree with the initial values outside unknownStates
+			double[] upper = below.getSolnVector().clone();
+
+			PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
+			updatesTimer.start();
+
+			SCCIterationStats stats = doOptimisticIteration(mc, below, upper, operator, maxValue, unknownStates, 0, updatesTimer, iterationsExport);
+			return optimisticValueIterationResult(mc, description, below, upper, stats.iters, stats.verifications, stats.mvCount, stats.done, startTime);
+		} finally {
+			if (iterationsExport != null)
+				iterationsExport.close();
+		}
+	}
+
+	/**
+	 * Perform the actual work of a topological optimistic value iteration, i.e., iterate until convergence or abort.
+	 * See {@link #doOptimisticValueIteration(ProbModelChecker, String, IterationValIter, SingleStateOperator, double, IntSet, long, ExportIterations)},
+	 * here applied to each SCC in turn.
+	 *
+	 * @param mc ProbModelChecker (for log and settings)
+	 * @param description Description (for logging)
+	 * @param sccs The information about the SCCs and topological order
+	 * @param below The iteration object for the value iteration from below
+	 * @param operator The operator for a single state, used for the upper bound
+	 * @param singletonSCCSolver The solver for singleton SCCs (for the lower bound)
+	 * @param singletonSCCSolverUpper The solver for singleton SCCs (for the upper bound, e.g., without strategy generation)
+	 * @param maxValue An upper bound on all values (e.g., 1 for probabilities, infinity if not known)
+	 * @param startTime The start time (for logging purposes, obtained from a call to System.currentTimeMillis())
+	 * @param iterationsExport an ExportIterations object (optional, ignored if null)
+	 * @return a ModelChecker result with the solution vector and statistics
+	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
+	 */
+	public ModelCheckerResult doTopologicalOptimisticValueIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationValIter below, SingleStateOperator operator, SingletonSCCSolver singletonSCCSolver, SingletonSCCSolver singletonSCCSolverUpper, double maxValue, long startTime, ExportIterations iterationsExport) throws PrismException
+	{
+		try {
+			// The upper bounds agree with the initial values outside the SCCs
+			double[] upper = below.getSolnVector().clone();
+			int iters = 0, verifications = 0;
+			long mvCount = 0;
+
+			PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
+			updatesTimer.start();
+
+			int numSCCs = sccs.getNumSCCs();
+			int numNonSingletonSCCs = sccs.countNonSingletonSCCs();
+
+			boolean done = true;
+			for (int scc = 0; scc < numSCCs; scc++) {
+				if (sccs.isSingletonSCC(scc)) {
+					// get the single state in this SCC
+					int state = sccs.getStatesForSCC(scc).iterator().nextInt();
+					below.solveSingletonSCC(state, singletonSCCSolver);
+					singletonSCCSolverUpper.solveFor(state, upper);
+
+					iters++;
+					mvCount += 2 * below.getModel().getNumTransitions(state);
+
+					if (iterationsExport != null) {
+						iterationsExport.exportVector(below.getSolnVector(), 0);
+						iterationsExport.exportVector(upper, 1);
+					}
+				} else {
+					// complex SCC: do optimistic VI
+					IntSet statesForSCC = sccs.getStatesForSCC(scc);
+					SCCIterationStats stats = doOptimisticIteration(mc, below, upper, operator, maxValue, statesForSCC, iters, updatesTimer, iterationsExport);
+					iters += stats.iters;
+					verifications += stats.verifications;
+					mvCount += stats.mvCount;
+
+					// notify the iterator that the states are done so that
+					// their values can be copied to the second vector in a two-vector
+					// iterator
+					below.doneWith(statesForSCC);
+
+					if (!stats.done) {
+						done = false;
+						break;
+					}
+				}
 			}
+
+			return optimisticValueIterationResult(mc, description + ", with " + numNonSingletonSCCs + " non-singleton SCCs", below, upper, iters, verifications, mvCount, done, startTime);
+		} finally {
+			if (iterationsExport != null)
+				iterationsExport.close();
 		}
 	}
 
 	/**
-	 * Perform a post-processing for a two-vector value iteration.
-	 * @param solnOld the previous solution vector
-	 * @param solnNew the newly computed solution vector
-	 * @param states the relevant set of states
-	 * @param fromBelow are we iterating from below?
-	 * @param enforceMonotonicity if true, enforces monotonicity
-	 * @param checkMonotonicity if true, checks for monotonicity (and throws error when non-monotonic)
+	 * Do optimistic value iteration for the states in {@code states},
+	 * assuming that the (lower and upper) values of all their successors outside {@code states} are known.
+	 * @param upper The vector of upper bounds (updated in place)
+	 * @param itersSoFar Number of iterations done before (for logging)
 	 */
-	public static void twoVectorPostProcessing(double[] solnOld, double[] solnNew, IntSet states, boolean fromBelow, boolean enforceMonotonicity, boolean checkMonotonicity) throws PrismException
+	private SCCIterationStats doOptimisticIteration(ProbModelChecker mc, IterationValIter below, double[] upper, SingleStateOperator operator, double maxValue, IntSet states, int itersSoFar, PeriodicTimer updatesTimer, ExportIterations iterationsExport) throws PrismException
+	{
+		SCCIterationStats stats = new SCCIterationStats(-1);
+		stats.done = false;
+		final int maxIters = mc.maxIters;
+		final long numTransitions = below.getModel().getNumTransitions(states.iterator());
+
+		// Threshold for the difference between iterations (from below) before guessing an upper bound
+		double threshold = termCritParam;
+		while (!stats.done && stats.iters < maxIters) {
+			// Value iteration from below
+			int itersBelow = 0;
+			boolean converged = false;
+			while (!converged && stats.iters < maxIters) {
+				below.iterateAndCheckConvergence(states);
+				stats.iters++;
+				itersBelow++;
+				stats.mvCount += numTransitions;
+				converged = below.getError() < threshold;
+
+				if (iterationsExport != null)
+					iterationsExport.exportVector(below.getSolnVector(), 0);
+
+				if (!converged && updatesTimer.triggered()) {
+					mc.getLog().print("Iteration " + (itersSoFar + stats.iters) + ": ");
+					mc.getLog().print("max " + (absolute ? "" : "relative ") + "diff=" + PrismUtils.formatDouble(LOGGING_PRECISION, below.getError()));
+					mc.getLog().println(", " + PrismUtils.formatDouble2dp(updatesTimer.elapsedMillisTotal() / 1000.0) + " sec so far");
+				}
+			}
+			if (!converged) {
+				break;
+			}
+
+			// Guess an upper bound, close to the lower one
+			double[] lower = below.getSolnVector();
+			PrimitiveIterator.OfInt it = states.iterator();
+			while (it.hasNext()) {
+				int s = it.nextInt();
+				upper[s] = Math.min(maxValue, absolute ? lower[s] + termCritParam / 2 : lower[s] * (1 + termCritParam / 2));
+			}
+			stats.verifications++;
+
+			// Verification phase: iterate from below and (in place) from above;
+			// once no upper value increases in an iteration, all of them are upper bounds
+			// (and remain so in later iterations, by monotonicity of the operator)
+			boolean verified = false;
+			for (int i = 0; !stats.done && (verified || i < itersBelow) && stats.iters < maxIters; i++) {
+				below.iterateAndCheckConvergence(states);
+				stats.iters++;
+				stats.mvCount += 2 * numTransitions;
+				lower = below.getSolnVector();
+				boolean anyUp = false, anyDown = false, crossed = false;
+				it = states.iterator();
+				while (it.hasNext()) {
+					int s = it.nextInt();
+					double d = operator.apply(s, upper);
+					if (d > upper[s]) {
+						anyUp = true;
+					} else if (d < upper[s]) {
+						anyDown = true;
+					}
+					upper[s] = d;
+					crossed |= d < lower[s];
+				}
+
+				if (iterationsExport != null) {
+					iterationsExport.exportVector(lower, 0);
+					iterationsExport.exportVector(upper, 1);
+				}
+
+				if (!anyUp) {
+					verified = true;
+				}
+				if (verified) {
+					stats.done = PrismUtils.doublesAreClose(lower, upper, states.iterator(), termCritParam, absolute);
+				} else if (crossed || !anyDown) {
+					// the guess was too low
+					break;
+				}
+			}
+			threshold /= 2;
+		}
+		return stats;
+	}
+
+	/**
+	 * Log statistics for, and build the result of, a (topological) optimistic value iteration.
+	 */
+	private ModelCheckerResult optimisticValueIterationResult(ProbModelChecker mc, String description, IterationValIter below, double[] upper, int iters, int verifications, long mvCount, boolean done, long startTime) throws PrismException
 	{
+		double[] lower = below.getSolnVector();
+		double maxError = PrismUtils.measureSupNormInterval(lower, upper, absolute);
+		if (done) {
+			mc.getLog().println("Max " + (absolute ? "" : "relative ") +
+					"diff between upper and lower bound on convergence: " + PrismUtils.formatDouble(LOGGING_PRECISION, maxError));
+		}
+
+		long timer = System.currentTimeMillis() - startTime;
+		mc.getLog().print("Optimistic value iteration (" + description + ")");
+		mc.getLog().print(" took " + iters + " iterations (" + verifications + " verification phases), ");
+		mc.getLog().print(mvCount + " multiplications");
+		mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+
+		// Non-convergence is an error (usually)
+		if (!done && mc.errorOnNonConverge) {
+			String msg = "Iterative method (optimistic value iteration) did not converge within " + iters + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		// Return results (the midpoint, so the error bound is half the difference)
+		PrismUtils.selectMidpoint(lower, upper);
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = lower;
+		res.accuracy = AccuracyFactory.guaranteedNumericalIterative(maxError / 2, absolute);
+		res.numIters = iters;
+		res.timeTaken = timer / 1000.0;
+		return res;
+	}
+
+	/**
+	 * Perform the actual work of a sound value iteration, i.e., iterate until convergence or abort.
+	 * <br>
+	 * For each state s, {@code x[s]} is the probability of reaching the target (or the expected reward
+	 * accumulated before reaching it) and {@code y[s]} is the probability of remaining in
+	 * {@code unknownStates}, within the steps done so far. {@code x} should initially hold the (known)
+	 * values of all states outside {@code unknownStates} and 0 for the others; {@code y} should be 1
+	 * for the states in {@code unknownStates} and 0 for the others. Both are updated in place.
+	 * <br>
+	 * If {@code L <= v(s) <= U} for all s in unknownStates, then {@code x[s] + y[s]*L <= v(s) <= x[s] + y[s]*U}.
+	 * The global bounds L, U are improved using {@code x[s] / (1 - y[s])} (once {@code y[s] < 1} for all states),
+	 * which is valid if x, y do not depend on the optimal choices (e.g., for a DTMC), or, for a lower bound,
+	 * if the values are maximal and, for an upper bound, if the values are minimal.
+	 * For the other bound, the operator has to select choices accordingly, i.e., minimise {@code x + lowerBound * y}
+	 * or maximise {@code x + upperBound * y}. The values in {@code unknownStates} must be left with
+	 * probability 1 eventually, for any choices, for the iteration to converge.
+	 * The result is the midpoint of the lower and upper bounds.
+	 *
+	 * @param mc ProbModelChecker (for log and settings)
+	 * @param description Description (for logging)
+	 * @param model The model
+	 * @param operator The operator for x, y for a single state
+	 * @param x The vector x (see above)
+	 * @param y The vector y (see above)
+	 * @param lowerBound A lower bound on the values in {@code unknownStates}
+	 * @param upperBound An upper bound on the values in {@code unknownStates} (may be infinite)
+	 * @param improveLower Improve the lower bound from x and y?
+	 * @param improveUpper Improve the upper bound from x and y?
+	 * @param unknownStates The set of unknown states, i.e., whose value should be determined
+	 * @param startTime The start time (for logging purposes, obtained from a call to System.currentTimeMillis())
+	 * @param iterationsExport an ExportIterations object (optional, ignored if null)
+	 * @return a ModelChecker result with the solution vector and statistics
+	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
+	 */
+	public ModelCheckerResult doSoundValueIteration(ProbModelChecker mc, String description, Model<?> model, SoundValIterOperator operator, double[] x, double[] y, double lowerBound, double upperBound, boolean improveLower, boolean improveUpper, IntSet unknownStates, long startTime, ExportIterations iterationsExport) throws PrismException
+	{
+		try {
+			// Start iterations
+			int iters = 0;
+			final int maxIters = mc.maxIters;
+			boolean done = false;
+			double lo = lowerBound, hi = upperBound;
+			double[] xy = new double[2];
+
+			PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
+			updatesTimer.start();
+
+			while (!done && iters < maxIters) {
+				iters++;
+				// Update x, y (in place) and compute the extreme values of x/(1-y)
+				double minRatio = Double.POSITIVE_INFINITY, maxRatio = Double.NEGATIVE_INFINITY;
+				boolean allLeaving = true;
+				PrimitiveIterator.OfInt it = unknownStates.iterator();
+				while (it.hasNext()) {
+					int s = it.nextInt();
+					operator.apply(s, x, y, xy);
+					x[s] = xy[0];
+					y[s] = xy[1];
+					if (y[s] < 1.0) {
+						double ratio = x[s] / (1.0 - y[s]);
+						minRatio = Math.min(minRatio, ratio);
+						maxRatio = Math.max(maxRatio, ratio);
+					} else {
+						allLeaving = false;
+					}
+				}
+				// Improve global bounds
+				if (allLeaving) {
+					if (improveLower)
+						lo = Math.max(lo, minRatio);
+					if (improveUpper)
+						hi = Math.min(hi, maxRatio);
+				}
+
+				if (iterationsExport != null) {
+					iterationsExport.exportVector(soundValueIterationBound(x, y, lo, unknownStates), 0);
+					iterationsExport.exportVector(soundValueIterationBound(x, y, hi, unknownStates), 1);
+				}
+
+				// Check termination
+				done = true;
+				it = unknownStates.iterator();
+				while (it.hasNext()) {
+					int s = it.nextInt();
+					if (y[s] > 0.0 && !PrismUtils.doublesAreClose(x[s] + y[s] * lo, x[s] + y[s] * hi, termCritParam, absolute)) {
+						done = false;
+						break;
+					}
+				}
+
+				if (!done && updatesTimer.triggered()) {
+					mc.getLog().print("Iteration " + iters + ": ");
+					mc.getLog().print("bounds [" + PrismUtils.formatDouble(LOGGING_PRECISION, lo) + "," + PrismUtils.formatDouble(LOGGING_PRECISION, hi) + "]");
+					mc.getLog().println(", " + PrismUtils.formatDouble2dp(updatesTimer.elapsedMillisTotal() / 1000.0) + " sec so far");
+				}
+			}
+
+			// Compute lower/upper bounds, and the result as their midpoint
+			double[] lower = soundValueIterationBound(x, y, lo, unknownStates);
+			double[] upper = soundValueIterationBound(x, y, hi, unknownStates);
+			double maxError = PrismUtils.measureSupNormInterval(lower, upper, absolute);
+			if (done) {
+				mc.getLog().println("Max " + (absolute ? "" : "relative ") +
+						"diff between upper and lower bound on convergence: " + PrismUtils.formatDouble(LOGGING_PRECISION, maxError));
+			}
+
+			// Finished sound value iteration
+			long mvCount = 2 * iters * model.getNumTransitions(unknownStates.iterator());
+			long timer = System.currentTimeMillis() - startTime;
+			mc.getLog().print("Sound value iteration (" + description + ")");
+			mc.getLog().print(" took " + iters + " iterations, ");
+			mc.getLog().print(mvCount + " multiplications");
+			mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+
+			// Non-convergence is an error (usually)
+			if (!done && mc.errorOnNonConverge) {
+				String msg = "Iterative method (sound value iteration) did not converge within " + iters + " iterations.";
+				msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+				throw new PrismException(msg);
+			}
+
+			// Return results
+			PrismUtils.selectMidpoint(lower, upper);
+			ModelCheckerResult res = new ModelCheckerResult();
+			res.soln = lower;
+			res.accuracy = AccuracyFactory.guaranteedNumericalIterative(maxError / 2, absolute);
+			res.numIters = iters;
+			res.timeTaken = timer / 1000.0;
+			return res;
+		} finally {
+			if (iterationsExport != null)
+				iterationsExport.close();
+		}
+	}
+
+	/**
+	 * For sound value iteration, compute the vector of bounds {@code x[s] + y[s] * bound}
+	 * for the states in {@code unknownStates} (and {@code x[s]} for the others).
+	 */
+	private static double[] soundValueIterationBound(double[] x, double[] y, double bound, IntSet unknownStates)
+	{
+		double[] result = x.clone();
+		PrimitiveIterator.OfInt it = unknownStates.iterator();
+		while (it.hasNext()) {
+			int s = it.nextInt();
+			if (y[s] > 0.0) {
+				result[s] += y[s] * bound;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Statistics for the processing of (a set of) SCCs during a parallel topological iteration.
+	 */
+	private static class SCCIterationStats
+	{
+		/** Index of the SCC (-1 for a set of singleton SCCs) */
+		final int scc;
+		/** Number of iterations */
+		int iters = 0;
+		/** Number of multiplications */
+		long mvCount = 0;
+		/** Error (value iteration only) */
+		double error = 0.0;
+		/** Number of verification phases (optimistic value iteration only) */
+		int verifications = 0;
+		/** Did the iteration converge? */
+		boolean done = true;
+		/** Time taken (ms) */
+		long time = 0;
+		/**
+		 * Values for the states of the SCC after each iteration, one array per solution vector
+		 * (only stored if iterations are exported, otherwise null)
+		 */
+		List<double[][]> trace = null;
+
+		SCCIterationStats(int scc)
+		{
+			this.scc = scc;
+		}
+	}
+
+	/**
+	 * Functional interface for solving a single state that forms a singleton SCC
+	 * during a parallel topological iteration.
+	 */
+	@FunctionalInterface
+	private interface SingletonStateSolver
+	{
+		void solve(int state) throws PrismException;
+	}
+
+	/**
+	 * Get tasks for solving all singleton SCCs on level {@code level} of {@code levels},
+	 * which are grouped into chunks of states for processing in parallel.
+	 * @param solver called for each singleton SCC state
+	 * @param mvPerState number of multiplications per transition (for statistics)
+	 */
+	private List<Callable<SCCIterationStats>> getSingletonSCCTasks(Model<?> model, SCCInfo sccs, SCCLevels levels, int level, SingletonStateSolver solver, int mvPerState)
+	{
+		BitSet singletons = new BitSet();
+		for (int i = 0, n = levels.getNumSCCsOnLevel(level); i < n; i++) {
+			int scc = levels.getSCCOnLevel(level, i);
+			if (sccs.isSingletonSCC(scc)) {
+				singletons.set(sccs.getStatesForSCC(scc).iterator().nextInt());
+			}
+		}
+		if (singletons.isEmpty()) {
+			return new ArrayList<>();
+		}
+		StatePartition partition = new StatePartition(model, IntSet.asIntSet(singletons), numThreads);
+		return partition.getTasks(chunk -> {
+			SCCIterationStats stats = new SCCIterationStats(-1);
+			PrimitiveIterator.OfInt it = chunk.iterator();
+			while (it.hasNext()) {
+				solver.solve(it.nextInt());
+				stats.iters++;
+			}
+			stats.mvCount = mvPerState * model.getNumTransitions(chunk.iterator());
+			return stats;
+		});
+	}
+
+	/**
+	 * Do value iteration for a single (non-singleton) SCC with states {@code statesForSCC},
+	 * using the iteration object {@code iteration} (a concurrent view, if other SCCs
+	 * are processed at the same time), until convergence or {@code maxIters} iterations.
+	 * If {@code trace} is true, the values after each iteration are stored in the statistics.
+	 */
+	private SCCIterationStats doValueIterationForSCC(IterationValIter iteration, int scc, IntSet statesForSCC, int maxIters, boolean trace) throws PrismException
+	{
+		long timer = System.currentTimeMillis();
+		SCCIterationStats stats = new SCCIterationStats(scc);
+		stats.done = false;
+		stats.trace = trace ? new ArrayList<>() : null;
+		while (!stats.done && stats.iters < maxIters) {
+			stats.iters++;
+			stats.done = iteration.iterateAndCheckConvergence(statesForSCC);
+			if (trace) {
+				stats.trace.add(new double[][] { getValues(iteration.getSolnVector(), statesForSCC) });
+			}
+		}
+		// store the error before calling doneWith(), see doTopologicalValueIteration
+		stats.error = iteration.getError();
+		iteration.doneWith(statesForSCC);
+		stats.mvCount = stats.iters * iteration.getModel().getNumTransitions(statesForSCC.iterator());
+		stats.time = System.currentTimeMillis() - timer;
+		return stats;
+	}
+
+	/**
+	 * Do interval iteration for a single (non-singleton) SCC with states {@code statesForSCC},
+	 * using the iteration objects {@code below} and {@code above} (concurrent views, if other SCCs
+	 * are processed at the same time), until convergence or {@code maxIters} iterations.
+	 * If {@code trace} is true, the values after each iteration are stored in the statistics.
+	 */
+	private SCCIterationStats doIntervalIterationForSCC(IterationIntervalIter below, IterationIntervalIter above, int scc, IntSet statesForSCC, int maxIters, boolean trace) throws PrismException
+	{
+		long timer = System.currentTimeMillis();
+		SCCIterationStats stats = new SCCIterationStats(scc);
+		stats.done = false;
+		stats.trace = trace ? new ArrayList<>() : null;
+
+		// Adjust upper bound by adding 2*epsilon (as in doTopologicalIntervalIteration)
+		PrimitiveIterator.OfInt it = statesForSCC.iterator();
+		final double[] solnAbove = above.getSolnVector();
+		final double adjustment = 2*termCritParam;
+		while (it.hasNext()) {
+			solnAbove[it.nextInt()] += adjustment;
+		}
+
+		while (!stats.done && stats.iters < maxIters) {
+			stats.iters++;
+			below.iterate(statesForSCC);
+			above.iterate(statesForSCC);
+			if (trace) {
+				stats.trace.add(new double[][] { getValues(below.getSolnVector(), statesForSCC), getValues(above.getSolnVector(), statesForSCC) });
+			}
+			intervalIterationCheckForProblems(below.getSolnVector(), above.getSolnVector(), statesForSCC.iterator());
+			stats.done = PrismUtils.doublesAreClose(below.getSolnVector(), above.getSolnVector(), statesForSCC.iterator(), termCritParam, absolute);
+		}
+		below.doneWith(statesForSCC);
+		above.doneWith(statesForSCC);
+		stats.mvCount = 2 * stats.iters * below.getModel().getNumTransitions(statesForSCC.iterator());
+		stats.time = System.currentTimeMillis() - timer;
+		return stats;
+	}
+
+	/**
+	 * Get the entries of {@code soln} for the states in {@code states} (in iteration order).
+	 */
+	private static double[] getValues(double[] soln, IntSet states)
+	{
+		double[] values = new double[Math.toIntExact(states.cardinality())];
+		PrimitiveIterator.OfInt it = states.iterator();
+		for (int i = 0; it.hasNext(); i++) {
+			values[i] = soln[it.nextInt()];
+		}
+		return values;
+	}
+
+	/**
+	 * Set the entries of {@code soln} for the states in {@code states} (in iteration order)
+	 * to {@code values}, as obtained from {@link #getValues(double[], IntSet)}.
+	 */
+	private static void setValues(double[] soln, IntSet states, double[] values)
+	{
+		PrimitiveIterator.OfInt it = states.iterator();
+		for (int i = 0; it.hasNext(); i++) {
+			soln[it.nextInt()] = values[i];
+		}
+	}
+
+	/**
+	 * Process the SCCs of a topological iteration level by level (see {@link SCCLevels}),
+	 * doing the SCCs of each level in parallel. The singleton SCCs of a level are solved in chunks;
+	 * each non-singleton SCC is iterated by {@code sccTask}, either using a concurrent view
+	 * or, if it is the only non-singleton SCC on its level, directly (so that the iteration
+	 * steps themselves can be parallelised). Processing stops after the first level with an SCC
+	 * that did not converge. Returns the accumulated statistics.
+	 * <br>
+	 * If {@code iterationsExport} is non-null, the iterations are exported after each level:
+	 * first the values after solving the level's singleton SCCs, then, for each non-singleton SCC
+	 * of the level (in SCC order), the values after each of its iterations (which {@code sccTask}
+	 * needs to record, see {@link SCCIterationStats#trace}).
+	 * @param solnVectors supplies the current solution vector(s), in the order of the exported types
+	 */
+	private SCCIterationStats processSCCLevels(ProbModelChecker mc, String kind, SCCInfo sccs, Model<?> model, SingletonStateSolver singletonSolver, int mvPerState, SCCTask sccTask, Supplier<double[][]> solnVectors, ExportIterations iterationsExport) throws PrismException
+	{
+		SCCLevels levels = new SCCLevels(model, sccs);
+		int numLevels = levels.getNumLevels();
+		int numNonSingletonSCCs = sccs.countNonSingletonSCCs();
+		int finishedNonSingletonSCCs = 0;
+		SCCIterationStats total = new SCCIterationStats(-1);
+		SCCIterationStats slowest = null;
+
+		// For exporting iterations, keep a copy of the solution vector(s) as seen in the export
+		double[][] exported = null;
+		if (iterationsExport != null) {
+			exported = solnVectors.get().clone();
+			for (int i = 0; i < exported.length; i++) {
+				exported[i] = exported[i].clone();
+			}
+		}
+
+		PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
+		updatesTimer.start();
+
+		for (int k = 0; k < numLevels && total.done; k++) {
+			long timerLevel = System.currentTimeMillis();
+			List<Integer> nonSingletonSCCs = new ArrayList<>();
+			for (int i = 0, n = levels.getNumSCCsOnLevel(k); i < n; i++) {
+				int scc = levels.getSCCOnLevel(k, i);
+				if (!sccs.isSingletonSCC(scc)) {
+					nonSingletonSCCs.add(scc);
+				}
+			}
+			List<SCCIterationStats> results = new ArrayList<>();
+			List<Callable<SCCIterationStats>> tasks = getSingletonSCCTasks(model, sccs, levels, k, singletonSolver, mvPerState);
+			if (nonSingletonSCCs.size() == 1) {
+				// a single non-singleton SCC: do the singletons first, then iterate the SCC
+				results.addAll(StatePartition.invokeAll(tasks, numThreads));
+				results.add(sccTask.apply(nonSingletonSCCs.get(0), false));
+			} else {
+				for (int scc : nonSingletonSCCs) {
+					tasks.add(() -> sccTask.apply(scc, true));
+				}
+				results.addAll(StatePartition.invokeAll(tasks, numThreads));
+			}
+			timerLevel = System.currentTimeMillis() - timerLevel;
+			// collect statistics
+			int maxItersOnLevel = 0;
+			long numStatesOnLevel = 0;
+			for (SCCIterationStats stats : results) {
+				total.iters += stats.iters;
+				total.mvCount += stats.mvCount;
+				total.error = Math.max(total.error, stats.error);
+				total.done &= stats.done;
+				if (stats.scc != -1) {
+					finishedNonSingletonSCCs++;
+					maxItersOnLevel = Math.max(maxItersOnLevel, stats.iters);
+					numStatesOnLevel += sccs.getNumStatesInSCC(stats.scc);
+					if (slowest == null || stats.time > slowest.time) {
+						slowest = stats;
+					}
+					if (mc.getVerbosity() > 5) {
+						mc.getLog().println("SCC " + stats.scc + " (" + sccs.getNumStatesInSCC(stats.scc) + " states, level " + (k + 1) + "): " + stats.iters + " iterations, " + stats.time / 1000.0 + " seconds");
+					}
+				}
+			}
+			if (iterationsExport != null) {
+				exportSCCLevel(sccs, levels, k, results, solnVectors.get(), exported, iterationsExport);
+			}
+			if (!nonSingletonSCCs.isEmpty()) {
+				mc.getLog().print("Level " + (k + 1) + " of " + numLevels + ": ");
+				mc.getLog().print(nonSingletonSCCs.size() + " non-singleton SCCs (" + numStatesOnLevel + " states)");
+				mc.getLog().print(", at most " + maxItersOnLevel + " iterations per SCC, " + timerLevel / 1000.0 + " seconds");
+				mc.getLog().println(" (" + finishedNonSingletonSCCs + " of " + numNonSingletonSCCs + " non-singleton SCCs done)");
+			} else if (total.done && k < numLevels - 1 && updatesTimer.triggered()) {
+				mc.getLog().print("Level " + (k + 1) + " of " + numLevels + ": ");
+				mc.getLog().print(finishedNonSingletonSCCs + " of " + numNonSingletonSCCs + " non-singleton SCCs done");
+				mc.getLog().println(", " + PrismUtils.formatDouble2dp(updatesTimer.elapsedMillisTotal() / 1000.0) + " sec so far");
+			}
+		}
+
+		mc.getLog().print(kind + ": processed SCCs in " + numLevels + " levels");
+		mc.getLog().print(" (at most " + levels.getMaxNumSCCsOnLevel() + " SCCs per level) with " + numThreads + " threads");
+		if (slowest != null) {
+			mc.getLog().print("; slowest SCC took " + slowest.iters + " iterations and " + slowest.time / 1000.0 + " seconds");
+		}
+		mc.getLog().println();
+		return total;
+	}
+
+	/**
+	 * Export the iterations for level {@code level} of a parallel topological iteration
+	 * (see {@link #processSCCLevels}), once all its SCCs have been processed.
+	 * @param results the statistics of the level's tasks (including traces for the non-singleton SCCs)
+	 * @param soln the current solution vector(s)
+	 * @param exported the solution vector(s) as exported so far (updated by this method)
+	 */
+	private static void exportSCCLevel(SCCInfo sccs, SCCLevels levels, int level, List<SCCIterationStats> results, double[][] soln, double[][] exported, ExportIterations iterationsExport) throws PrismException
+	{
+		// singleton SCCs: all at once, with their final values
+		boolean singletons = false;
+		for (int i = 0, n = levels.getNumSCCsOnLevel(level); i < n; i++) {
+			int scc = levels.getSCCOnLevel(level, i);
+			if (sccs.isSingletonSCC(scc)) {
+				int state = sccs.getStatesForSCC(scc).iterator().nextInt();
+				for (int j = 0; j < exported.length; j++) {
+					exported[j][state] = soln[j][state];
+				}
+				singletons = true;
+			}
+		}
+		if (singletons) {
+			for (int j = 0; j < exported.length; j++) {
+				iterationsExport.exportVector(exported[j], j);
+			}
+		}
+		// non-singleton SCCs: one export per iteration, SCC by SCC
+		List<SCCIterationStats> sccStats = new ArrayList<>();
+		for (SCCIterationStats stats : results) {
+			if (stats.scc != -1) {
+				sccStats.add(stats);
+			}
+		}
+		sccStats.sort((s1, s2) -> Integer.compare(s1.scc, s2.scc));
+		for (SCCIterationStats stats : sccStats) {
+			IntSet statesForSCC = sccs.getStatesForSCC(stats.scc);
+			for (double[][] values : stats.trace) {
+				for (int j = 0; j < exported.length; j++) {
+					setValues(exported[j], statesForSCC, values[j]);
+					iterationsExport.exportVector(exported[j], j);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Functional interface for the iteration of a non-singleton SCC during a parallel topological iteration.
+	 */
+	@FunctionalInterface
+	private interface SCCTask
+	{
+		/**
+		 * Iterate SCC {@code scc} until convergence and return the statistics.
+		 * @param concurrent is the SCC processed concurrently with other SCCs?
+		 */
+		SCCIterationStats apply(int scc, boolean concurrent) throws PrismException;
+	}
+
+	/**
+	 * Perform a topological value iteration, processing independent SCCs in parallel
+	 * (see {@link #processSCCLevels}). This gives the same results as
+	 * {@link #doTopologicalValueIteration}, which delegates to this method if
+	 * more than one thread should be used.
+	 */
+	private ModelCheckerResult doParallelTopologicalValueIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationValIter iterator, SingletonSCCSolver singletonSCCSolver, long startTime, ExportIterations iterationsExport) throws PrismException
+	{
+		final int maxIters = mc.maxIters;
+		int numNonSingletonSCCs = sccs.countNonSingletonSCCs();
+		boolean trace = iterationsExport != null;
+
+		SCCIterationStats stats = processSCCLevels(mc, "Value iteration", sccs, iterator.getModel(),
+				state -> iterator.solveSingletonSCC(state, singletonSCCSolver), 1,
+				(scc, concurrent) -> doValueIterationForSCC(concurrent ? iterator.concurrentView() : iterator, scc, sccs.getStatesForSCC(scc), maxIters, trace),
+				() -> new double[][] { iterator.getSolnVector() }, iterationsExport);
+
+		// Finished value iteration
+		long timer = System.currentTimeMillis() - startTime;
+		mc.getLog().print("Value iteration (" + description + ", with " + numNonSingletonSCCs + " non-singleton SCCs)");
+		mc.getLog().print(" took " + stats.iters + " iterations, ");
+		mc.getLog().print(stats.mvCount + " multiplications");
+		mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+
+		if (iterationsExport != null)
+			iterationsExport.close();
+
+		// Non-convergence is an error (usually)
+		if (!stats.done && mc.errorOnNonConverge) {
+			String msg = "Iterative method did not converge within " + stats.iters + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		// Return results
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = iterator.getSolnVector();
+		res.accuracy = AccuracyFactory.valueIteration(termCritParam, stats.error, absolute);
+		res.numIters = stats.iters;
+		res.timeTaken = timer / 1000.0;
+		return res;
+	}
+
+	/**
+	 * Perform a topological interval iteration, processing independent SCCs in parallel
+	 * (see {@link #processSCCLevels}). This gives the same results as
+	 * {@link #doTopologicalIntervalIteration}, which delegates to this method if
+	 * more than one thread should be used.
+	 */
+	private ModelCheckerResult doParallelTopologicalIntervalIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationIntervalIter below, IterationIntervalIter above, SingletonSCCSolver singletonSCCSolver, long timer, ExportIterations iterationsExport) throws PrismException
+	{
+		try {
+			final int maxIters = mc.maxIters;
+			double maxError = Double.POSITIVE_INFINITY;
+			int numNonSingletonSCCs = sccs.countNonSingletonSCCs();
+			boolean trace = iterationsExport != null;
+
+			SCCIterationStats stats = processSCCLevels(mc, "Interval iteration", sccs, below.getModel(),
+					state -> {
+						below.solveSingletonSCC(state, singletonSCCSolver);
+						above.solveSingletonSCC(state, singletonSCCSolver);
+						intervalIterationCheckForProblems(below.getSolnVector(), above.getSolnVector(), IntSet.asIntSet(state).iterator());
+					}, 2,
+					(scc, concurrent) -> concurrent ?
+							doIntervalIterationForSCC(below.concurrentView(), above.concurrentView(), scc, sccs.getStatesForSCC(scc), maxIters, trace) :
+							doIntervalIterationForSCC(below, above, scc, sccs.getStatesForSCC(scc), maxIters, trace),
+					() -> new double[][] { below.getSolnVector(), above.getSolnVector() }, iterationsExport);
+			boolean done = stats.done;
+
+			if (done) {
+				maxError = PrismUtils.measureSupNormInterval(below.getSolnVector(), above.getSolnVector(), absolute);
+				mc.getLog().println("Max " + (absolute ? "" : "relative ") +
+						"diff between upper and lower bound on convergence: " + PrismUtils.formatDouble(LOGGING_PRECISION, maxError));
+			}
+
+			// Finished value iteration
+			timer = System.currentTimeMillis() - timer;
+			mc.getLog().print("Interval iteration (" + description + ", with " + numNonSingletonSCCs + " non-singleton SCCs)");
+			mc.getLog().print(" took " + stats.iters + " iterations, ");
+			mc.getLog().print(stats.mvCount + " multiplications");
+			mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+
+			if (done && OptionsIntervalIteration.from(mc.getSettings()).isSelectMidpointForResult()) {
+				PrismUtils.selectMidpoint(below.getSolnVector(), above.getSolnVector());
+
+				if (iterationsExport != null) {
+					// export midpoint
+					iterationsExport.exportVector(below.getSolnVector(), 0);
+					iterationsExport.exportVector(below.getSolnVector(), 1);
+				}
+			}
+
+			// Non-convergence is an error (usually)
+			if (!done && mc.errorOnNonConverge) {
+				String msg = "Iterative method (interval iteration) did not converge within " + stats.iters + " iterations.";
+				msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+				throw new PrismException(msg);
+			}
+
+			// Return results
+			ModelCheckerResult res = new ModelCheckerResult();
+			res.soln = below.getSolnVector();
+			res.accuracy = AccuracyFactory.guaranteedNumericalIterative(maxError, absolute);
+			res.numIters = stats.iters;
+			res.timeTaken = timer / 1000.0;
+			return res;
+		} finally {
+			if (iterationsExport != null)
+				iterationsExport.close();
+		}
+	}
+
+	/**
+	 * Compares the current lower and upper solution vectors in an interval iteration
+	 * and throws an exception if lower bound values are larger than upper bound values,
+	 * as this indicates problems.
+	 * @param lower the current lower iteration solution vector
+	 * @param upper the current upper iteration solution vector
+	 * @param states iterator over the states in question
+	 */
+	private static void intervalIterationCheckForProblems(double[] lower, double[] upper, PrimitiveIterator.OfInt states) throws PrismException
+	{
+		while (states.hasNext()) {
+			int s = states.nextInt();
+			if (lower[s] > upper[s]) {
+				throw new PrismException("In interval iteration, the lower value (" + lower[s] + ") is larger than the upper value (" + upper[s] + ").\n"
+						+ "This indicates either problems with numerical stability (rounding, precision of the floating-point representation) or that the initial bounds (for reward computations) are incorrect");
+			}
+		}
+	}
+
+	/**
+	 * Perform a post-processing for a two-vector value iteration.
+	 * @param solnOld the previous solution vector
+	 * @param solnNew the newly computed solution vector
+	 * @param states the relevant set of states
+	 * @param fromBelow are we iterating from below?
+	 * @param enforceMonotonicity if true, enforces monotonicity
+	 * @param checkMonotonicity if true, checks for monotonicity (and throws error when non-monotonic)
+	 */
+	public static void twoVectorPostProcessing(double[] solnOld, double[] solnNew, IntSet states, boolean fromBelow, boolean enforceMonotonicity, boolean checkMonotonicity) throws PrismException
+	{
+		twoVectorPostProcessing(solnOld, solnNew, states, false, fromBelow, enforceMonotonicity, checkMonotonicity);
+	}
+
+	/**
+	 * Perform a post-processing for a two-vector value iteration.
+	 * @param solnOld the previous solution vector
+	 * @param solnNew the newly computed solution vector
+	 * @param states the relevant set of states
+	 * @param onlyStates if true, only look at the entries for {@code states}, otherwise at all entries
+	 * @param fromBelow are we iterating from below?
+	 * @param enforceMonotonicity if true, enforces monotonicity
+	 * @param checkMonotonicity if true, checks for monotonicity (and throws error when non-monotonic)
+	 */
+	public static void twoVectorPostProcessing(double[] solnOld, double[] solnNew, IntSet states, boolean onlyStates, boolean fromBelow, boolean enforceMonotonicity, boolean checkMonotonicity) throws PrismException
+	{
+		if (onlyStates) {
+			if (enforceMonotonicity)
+				if (fromBelow) {
+					PrismUtils.ensureMonotonicityFromBelow(solnOld, solnNew, states.iterator());
+				} else {
+					PrismUtils.ensureMonotonicityFromAbove(solnOld, solnNew, states.iterator());
+				}
+
+			if (checkMonotonicity) {
+				PrismUtils.checkMonotonicity(solnOld, solnNew, !fromBelow, states.iterator());
+			}
+			return;
+		}
+
 		// TODO: use IntSet states
 		if (enforceMonotonicity)
 			if (fromBelow) {
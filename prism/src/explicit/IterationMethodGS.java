@@ -26,6 +26,9 @@
 
 package explicit;
 
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinTask;
+
 import common.IntSet;
 import explicit.rewards.MCRewards;
 import explicit.rewards.MDPRewards;
@@ -33,10 +36,28 @@ import prism.PrismException;
 
 /**
  * IterationMethod that encapsulates the functionality of the Gauss-Seidel method (forward/backward).
+ * <br>
+ * Optionally, for DTMCs/MDPs, multi-colour Gauss-Seidel can be used: the states are coloured
+ * (see {@link StateColouring}) and each iteration processes the colour classes one after the other,
+ * updating the states of each class in parallel. This changes the order of the updates
+ * (compared to sequential Gauss-Seidel), but not the fact that each update uses the latest values.
  */
 public class IterationMethodGS extends IterationMethod {
 	/** Do backwards Gauss-Seidel? */
 	private boolean backwards;
+	/** Do multi-colour (parallel) Gauss-Seidel, if there is more than one thread? */
+	private boolean parallel = false;
+	/** Colouring of the most recently iterated set of states (for multi-colour Gauss-Seidel) */
+	private volatile StateColouring colouring = null;
+
+	/**
+	 * Functional interface for a Gauss-Seidel sweep over some states, in the given order,
+	 * returning the maximum difference between old and new values (or 0 if not computed).
+	 */
+	@FunctionalInterface
+	private interface Sweep {
+		double apply(PrimitiveIterator.OfInt states) throws PrismException;
+	}
 
 	/**
 	 * Constructor.
@@ -50,20 +71,73 @@ public class IterationMethodGS extends IterationMethod {
 		this.backwards = backwards;
 	}
 
+	/**
+	 * Set whether to do multi-colour Gauss-Seidel, processing the states of each colour class
+	 * in parallel (only used for DTMCs/MDPs and if the number of threads is greater than 1).
+	 */
+	public void setParallel(boolean parallel)
+	{
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Do multi-colour Gauss-Seidel (if worthwhile)?
+	 */
+	public boolean isParallel()
+	{
+		return parallel && numThreads > 1;
+	}
+
+	/**
+	 * Get the colouring of {@code states} for multi-colour Gauss-Seidel,
+	 * or null if the sweep should be done sequentially.
+	 */
+	private StateColouring getColouring(Model<?> model, IntSet states)
+	{
+		// Don't nest parallelism (e.g. when independent SCCs are already processed in parallel)
+		if (!isParallel() || ForkJoinTask.inForkJoinPool()) {
+			return null;
+		}
+		// The same set of states is typically iterated over repeatedly, so reuse the colouring
+		StateColouring colouring = this.colouring;
+		if (colouring == null || colouring.getStates() != states) {
+			colouring = new StateColouring(model, states, numThreads);
+			this.colouring = colouring;
+		}
+		return colouring.isParallel() ? colouring : null;
+	}
+
+	/**
+	 * Do a Gauss-Seidel sweep over {@code states} (in order, or reversed for backwards Gauss-Seidel),
+	 * or, for multi-colour Gauss-Seidel, over each colour class in turn, in parallel.
+	 * Returns the maximum difference reported by {@code sweep}.
+	 */
+	private double sweep(Model<?> model, IntSet states, Sweep sweep) throws PrismException
+	{
+		StateColouring colouring = getColouring(model, states);
+		if (colouring == null) {
+			return sweep.apply(backwards ? states.reversedIterator() : states.iterator());
+		}
+		double maxDiff = 0.0;
+		int numColours = colouring.getNumColours();
+		for (int i = 0; i < numColours; i++) {
+			StatePartition colourClass = colouring.getColourClass(backwards ? numColours - 1 - i : i);
+			for (double diff : colourClass.invokeAll(chunk -> sweep.apply(chunk.iterator()))) {
+				maxDiff = Math.max(maxDiff, diff);
+			}
+		}
+		return maxDiff;
+	}
+
 	@Override
 	public IterationValIter forMvMult(DTMC<Double> dtmc)
 	{
 		return new SingleVectorIterationValIter(dtmc) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterate(IntSet states) throws PrismException
 			{
 				// Matrix-vector multiply
-				error = dtmc.mvMultGS(soln,
-				                               backwards ? states.reversedIterator() : states.iterator(),
-				                               absolute);
-
-				// Check termination
-				return (error < termCritParam);
+				return sweep(dtmc, states, it -> dtmc.mvMultGS(soln, it, absolute));
 			}
 		};
 	}
@@ -76,11 +150,10 @@ public class IterationMethodGS extends IterationMethod {
 			public void iterate(IntSet states) throws PrismException
 			{
 				// Matrix-vector multiply
-				dtmc.mvMultGSIntervalIter(soln,
-				                          backwards ? states.reversedIterator() : states.iterator(),
-				                          enforceMonotonicity,
-				                          checkMonotonicity,
-				                          fromBelow);
+				sweep(dtmc, states, it -> {
+					dtmc.mvMultGSIntervalIter(soln, it, enforceMonotonicity, checkMonotonicity, fromBelow);
+					return 0.0;
+				});
 			}
 		};
 	}
@@ -90,16 +163,10 @@ public class IterationMethodGS extends IterationMethod {
 	{
 		return new SingleVectorIterationValIter(dtmc) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterate(IntSet states) throws PrismException
 			{
 				// Matrix-vector multiply
-				error = dtmc.mvMultRewGS(soln,
-				                                  rew,
-				                                  backwards ? states.reversedIterator() : states.iterator(),
-				                                  absolute);
-
-				// Check termination
-				return (error < termCritParam);
+				return sweep(dtmc, states, it -> dtmc.mvMultRewGS(soln, rew, it, absolute));
 			}
 		};
 	}
@@ -112,12 +179,10 @@ public class IterationMethodGS extends IterationMethod {
 			public void iterate(IntSet states) throws PrismException
 			{
 				// Matrix-vector multiply
-				dtmc.mvMultRewGSIntervalIter(soln,
-					                          rew,
-					                          backwards ? states.reversedIterator() : states.iterator(),
-					                          enforceMonotonicity,
-					                          checkMonotonicity,
-					                          fromBelow);
+				sweep(dtmc, states, it -> {
+					dtmc.mvMultRewGSIntervalIter(soln, rew, it, enforceMonotonicity, checkMonotonicity, fromBelow);
+					return 0.0;
+				});
 			}
 		};
 	}
@@ -127,17 +192,10 @@ public class IterationMethodGS extends IterationMethod {
 	{
 		return new SingleVectorIterationValIter(mdp) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterate(IntSet states) throws PrismException
 			{
 				// Matrix-vector multiply
-				error = mdp.mvMultGSMinMax(soln,
-				                                    min,
-				                                    backwards ? states.reversedIterator() : states.iterator(),
-				                                    absolute,
-				                                    strat);
-
-				// Check termination
-				return (error < termCritParam);
+				return sweep(mdp, states, it -> mdp.mvMultGSMinMax(soln, min, it, absolute, strat));
 			}
 		};
 	}
@@ -148,17 +206,15 @@ public class IterationMethodGS extends IterationMethod {
 	{
 		return new SingleVectorIterationIntervalIter(mdp) {
 			@Override
-			public void iterate(IntSet states)
+			public void iterate(IntSet states) throws PrismException
 			{
 				// TODO: check monotonic not yet supported
 
 				// Matrix-vector multiply
-				mdp.mvMultGSMinMaxIntervalIter(soln,
-				                               min,
-				                               backwards ? states.reversedIterator() : states.iterator(),
-				                               strat,
-				                               enforceMonotonicity,
-				                               fromBelow);
+				sweep(mdp, states, it -> {
+					mdp.mvMultGSMinMaxIntervalIter(soln, min, it, strat, enforceMonotonicity, fromBelow);
+					return 0.0;
+				});
 			}
 		};
 	}
@@ -168,18 +224,10 @@ public class IterationMethodGS extends IterationMethod {
 	{
 		return new SingleVectorIterationValIter(mdp) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterate(IntSet states) throws PrismException
 			{
 				// Matrix-vector multiply
-				error = mdp.mvMultRewGSMinMax(soln,
-				                                       rewards,
-				                                       min,
-				                                       backwards ? states.reversedIterator() : states.iterator(),
-				                                       absolute,
-				                                       strat);
-
-				// Check termination
-				return (error < termCritParam);
+				return sweep(mdp, states, it -> mdp.mvMultRewGSMinMax(soln, rewards, min, it, absolute, strat));
 			}
 		};
 	}
@@ -190,18 +238,15 @@ public class IterationMethodGS extends IterationMethod {
 	{
 		return new SingleVectorIterationIntervalIter(mdp) {
 			@Override
-			public void iterate(IntSet states)
+			public void iterate(IntSet states) throws PrismException
 			{
 				// TODO: check monotonic not yet supported
 
 				// Matrix-vector multiply
-				mdp.mvMultRewGSMinMaxIntervalIter(soln,
-				                                  rewards,
-				                                  min,
-				                                  backwards ? states.reversedIterator() : states.iterator(),
-				                                  strat,
-				                                  enforceMonotonicity,
-				                                  fromBelow);
+				sweep(mdp, states, it -> {
+					mdp.mvMultRewGSMinMaxIntervalIter(soln, rewards, min, it, strat, enforceMonotonicity, fromBelow);
+					return 0.0;
+				});
 			}
 		};
 	}
@@ -211,12 +256,10 @@ public class IterationMethodGS extends IterationMethod {
 	{
 		return new SingleVectorIterationValIter(idtmc) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterate(IntSet states)
 			{
 				// Matrix-vector multiply
-				error = idtmc.mvMultUncGS(soln, minMax, states.iterator(), absolute);
-				// Check termination
-				return (error < termCritParam);
+				return idtmc.mvMultUncGS(soln, minMax, states.iterator(), absolute);
 			}
 		};
 	}
@@ -226,12 +269,10 @@ public class IterationMethodGS extends IterationMethod {
 	{
 		return new SingleVectorIterationValIter(idtmc) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterate(IntSet states)
 			{
 				// Matrix-vector multiply
-				error = idtmc.mvMultRewUncGS(soln, mcRewards, minMax, states.iterator(), absolute);
-				// Check termination
-				return (error < termCritParam);
+				return idtmc.mvMultRewUncGS(soln, mcRewards, minMax, states.iterator(), absolute);
 			}
 		};
 	}
@@ -241,12 +282,10 @@ public class IterationMethodGS extends IterationMethod {
 	{
 		return new SingleVectorIterationValIter(imdp) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterate(IntSet states)
 			{
 				// Matrix-vector multiply
-				error = imdp.mvMultUncGS(soln, minMax, states.iterator(), absolute, strat);
-				// Check termination
-				return (error < termCritParam);
+				return imdp.mvMultUncGS(soln, minMax, states.iterator(), absolute, strat);
 			}
 		};
 	}
@@ -256,12 +295,10 @@ public class IterationMethodGS extends IterationMethod {
 	{
 		return new SingleVectorIterationValIter(imdp) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterate(IntSet states)
 			{
 				// Matrix-vector multiply
-				error = imdp.mvMultRewUncGS(soln, mdpRewards, minMax, states.iterator(), absolute, strat);
-				// Check termination
-				return (error < termCritParam);
+				return imdp.mvMultRewUncGS(soln, mdpRewards, minMax, states.iterator(), absolute, strat);
 			}
 		};
 	}
@@ -269,6 +306,6 @@ public class IterationMethodGS extends IterationMethod {
 	@Override
 	public String getDescriptionShort()
 	{
-		return (backwards ? "Backwards " : "") + "Gauss-Seidel";
+		return (backwards ? "Backwards " : "") + "Gauss-Seidel" + (isParallel() ? " (multi-colour, " + numThreads + " threads)" : "");
 	}
 }
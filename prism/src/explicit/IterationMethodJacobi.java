@@ -50,7 +50,7 @@ class IterationMethodJacobi extends IterationMethod {
 	@Override
 	public IterationValIter forMvMult(DTMC<Double> dtmc)
 	{
-		return new TwoVectorIteration(dtmc, null) {
+		return new ParallelTwoVectorIteration(dtmc, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -62,11 +62,11 @@ class IterationMethodJacobi extends IterationMethod {
 	@Override
 	public IterationIntervalIter forMvMultInterval(DTMC<Double> dtmc, boolean fromBelow, boolean enforceMonotonicity, boolean checkMonotonicity)
 	{
-		IterationPostProcessor post = (soln, soln2, states) -> {
-			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
+		IterationPostProcessor post = (soln, soln2, states, onlyStates) -> {
+			twoVectorPostProcessing(soln, soln2, states, onlyStates, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(dtmc, post) {
+		return new ParallelTwoVectorIteration(dtmc, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -78,7 +78,7 @@ class IterationMethodJacobi extends IterationMethod {
 	@Override
 	public IterationValIter forMvMultRew(DTMC<Double> dtmc, MCRewards<Double> rew)
 	{
-		return new TwoVectorIteration(dtmc, null) {
+		return new ParallelTwoVectorIteration(dtmc, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -90,11 +90,11 @@ class IterationMethodJacobi extends IterationMethod {
 	@Override
 	public IterationIntervalIter forMvMultRewInterval(DTMC<Double> dtmc, MCRewards<Double> rew, boolean fromBelow, boolean enforceMonotonicity, boolean checkMonotonicity)
 	{
-		IterationPostProcessor post = (soln, soln2, states) -> {
-			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
+		IterationPostProcessor post = (soln, soln2, states, onlyStates) -> {
+			twoVectorPostProcessing(soln, soln2, states, onlyStates, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(dtmc, post) {
+		return new ParallelTwoVectorIteration(dtmc, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -49,7 +49,7 @@ public class IterationMethodPower extends IterationMethod {
 	@Override
 	public IterationValIter forMvMult(DTMC<Double> dtmc)
 	{
-		return new TwoVectorIteration(dtmc, null) {
+		return new ParallelTwoVectorIteration(dtmc, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -61,11 +61,11 @@ public class IterationMethodPower extends IterationMethod {
 	@Override
 	public IterationIntervalIter forMvMultInterval(DTMC<Double> dtmc, boolean fromBelow, boolean enforceMonotonicity, boolean checkMonotonicity)
 	{
-		IterationPostProcessor post = (soln, soln2, states) -> {
-			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
+		IterationPostProcessor post = (soln, soln2, states, onlyStates) -> {
+			twoVectorPostProcessing(soln, soln2, states, onlyStates, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(dtmc, post) {
+		return new ParallelTwoVectorIteration(dtmc, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -77,7 +77,7 @@ public class IterationMethodPower extends IterationMethod {
 	@Override
 	public IterationValIter forMvMultRew(DTMC<Double> dtmc, MCRewards<Double> rew)
 	{
-		return new TwoVectorIteration(dtmc, null) {
+		return new ParallelTwoVectorIteration(dtmc, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -89,11 +89,11 @@ public class IterationMethodPower extends IterationMethod {
 	@Override
 	public IterationIntervalIter forMvMultRewInterval(DTMC<Double> dtmc, MCRewards<Double> rew, boolean fromBelow, boolean enforceMonotonicity, boolean checkMonotonicity)
 	{
-		IterationPostProcessor post = (soln, soln2, states) -> {
-			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
+		IterationPostProcessor post = (soln, soln2, states, onlyStates) -> {
+			twoVectorPostProcessing(soln, soln2, states, onlyStates, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(dtmc, post) {
+		return new ParallelTwoVectorIteration(dtmc, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -105,7 +105,7 @@ public class IterationMethodPower extends IterationMethod {
 	@Override
 	public IterationValIter forMvMultMinMax(MDP<Double> mdp, boolean min, int[] strat)
 	{
-		return new TwoVectorIteration(mdp, null) {
+		return new ParallelTwoVectorIteration(mdp, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -118,11 +118,11 @@ public class IterationMethodPower extends IterationMethod {
 	public IterationIntervalIter forMvMultMinMaxInterval(MDP<Double> mdp, boolean min, int[] strat, boolean fromBelow, boolean enforceMonotonicity,
 			boolean checkMonotonicity) throws PrismException
 	{
-		IterationPostProcessor post = (soln, soln2, states) -> {
-			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
+		IterationPostProcessor post = (soln, soln2, states, onlyStates) -> {
+			twoVectorPostProcessing(soln, soln2, states, onlyStates, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(mdp, post) {
+		return new ParallelTwoVectorIteration(mdp, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -140,7 +140,7 @@ public class IterationMethodPower extends IterationMethod {
 	@Override
 	public IterationValIter forMvMultRewMinMax(MDP<Double> mdp, MDPRewards<Double> rewards, boolean min, int[] strat) throws PrismException
 	{
-		return new TwoVectorIteration(mdp, null) {
+		return new ParallelTwoVectorIteration(mdp, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -153,11 +153,11 @@ public class IterationMethodPower extends IterationMethod {
 	public IterationIntervalIter forMvMultRewMinMaxInterval(MDP<Double> mdp, MDPRewards<Double> rewards, boolean min, int[] strat, boolean fromBelow,
 			boolean enforceMonotonicity, boolean checkMonotonicity) throws PrismException
 	{
-		IterationPostProcessor post = (soln, soln2, states) -> {
-			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
+		IterationPostProcessor post = (soln, soln2, states, onlyStates) -> {
+			twoVectorPostProcessing(soln, soln2, states, onlyStates, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(mdp, post) {
+		return new ParallelTwoVectorIteration(mdp, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
@@ -0,0 +1,482 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+
+import prism.PrismException;
+
+/**
+ * Krylov subspace approximation of exp(tA) v, for a large sparse matrix A (given as an operator computing
+ * matrix-vector products) and one or more time points t, with adaptive time-stepping and error control,
+ * following the algorithm of Expokit's expv (R. B. Sidje, "Expokit: A Software Package for Computing
+ * Matrix Exponentials", ACM Transactions on Mathematical Software 24(1), 1998).
+ * <br>
+ * The time interval is traversed in steps: in each step, the Arnoldi process builds an orthonormal basis
+ * V of the Krylov subspace span{w, Aw, ..., A^(m-1)w} for the current vector w, and a small Hessenberg
+ * matrix H, and w is then replaced by ||w|| V exp(tH) e_1, where the small exponential is computed
+ * with a Pade approximation. The local error of each step is estimated from an extra basis vector;
+ * steps whose error exceeds the tolerance (per unit of time) are rejected and retried with a smaller
+ * step, and the next step size is chosen from the error of the last one. Unlike uniformisation,
+ * whose number of matrix-vector products grows with ||A|| t, the step sizes adapt to the dynamics,
+ * which makes this well suited to stiff CTMCs (with widely varying rates).
+ */
+class KrylovMatrixExponential
+{
+	/** Default dimension of the Krylov subspace */
+	public static final int DEFAULT_KRYLOV_DIM = 30;
+	/** Safety factor for step sizes */
+	private static final double GAMMA = 0.9;
+	/** Local errors can exceed the tolerance by this factor before a step is rejected */
+	private static final double DELTA = 1.2;
+	/** Maximum number of rejections of a single step */
+	private static final int MAX_REJECTS = 10;
+	/** Relative (to the norm of A) threshold for "happy breakdown" of the Arnoldi process */
+	private static final double BREAKDOWN_TOL = 1e-12;
+	/** Degree of the Pade approximation for small matrix exponentials */
+	private static final int PADE_DEGREE = 6;
+
+	/**
+	 * Functional interface for computing matrix-vector products {@code out} = A {@code in}.
+	 */
+	@FunctionalInterface
+	public interface Operator
+	{
+		void apply(double in[], double out[]) throws PrismException;
+	}
+
+	// The matrix and its size/norm
+	private final Operator op;
+	private final int n;
+	private final double norm;
+
+	// Settings
+	private int krylovDim = DEFAULT_KRYLOV_DIM;
+	private double tolerance = 1e-8;
+	private int maxSteps = 100000;
+
+	// Statistics for the last computation
+	private int numSteps;
+	private int numRejected;
+	private int numMatVecs;
+	private double errorEstimate;
+
+	/**
+	 * Create a solver for the {@code n} x {@code n} matrix A, given by operator {@code op},
+	 * whose infinity norm is (at most) {@code norm}.
+	 */
+	public KrylovMatrixExponential(Operator op, int n, double norm)
+	{
+		this.op = op;
+		this.n = n;
+		this.norm = norm;
+	}
+
+	/**
+	 * Set the dimension of the Krylov subspaces (default: {@link #DEFAULT_KRYLOV_DIM}).
+	 */
+	public void setKrylovDim(int krylovDim)
+	{
+		this.krylovDim = krylovDim;
+	}
+
+	/**
+	 * Set the tolerance, i.e., the (estimated) absolute error, in the 2-norm,
+	 * allowed for the whole computation, up to the last time point.
+	 */
+	public void setTolerance(double tolerance)
+	{
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Set the maximum number of (accepted) steps, after which the computation fails.
+	 */
+	public void setMaxSteps(int maxSteps)
+	{
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Get the number of (accepted) steps of the last computation.
+	 */
+	public int getNumSteps()
+	{
+		return numSteps;
+	}
+
+	/**
+	 * Get the number of rejected steps of the last computation.
+	 */
+	public int getNumRejected()
+	{
+		return numRejected;
+	}
+
+	/**
+	 * Get the number of matrix-vector products of the last computation.
+	 */
+	public int getNumMatVecs()
+	{
+		return numMatVecs;
+	}
+
+	/**
+	 * Get the estimated (absolute, 2-norm) error of the result of the last computation
+	 * (for the last time point; the errors for earlier ones are at most this).
+	 */
+	public double getErrorEstimate()
+	{
+		return errorEstimate;
+	}
+
+	/**
+	 * Compute exp(tA) v for time point {@code t}.
+	 */
+	public double[] compute(double v[], double t) throws PrismException
+	{
+		return compute(v, new double[] { t })[0];
+	}
+
+	/**
+	 * Compute exp(tA) v for each of the time points {@code times}, which should be non-negative
+	 * and in ascending order. The results are computed in a single pass over the time interval.
+	 */
+	public double[][] compute(double v[], double times[]) throws PrismException
+	{
+		double results[][] = new double[times.length][];
+		numSteps = numRejected = numMatVecs = 0;
+		errorEstimate = 0.0;
+		int next = 0;
+		double w[] = v.clone();
+		double beta = norm2(w);
+		// Time 0, and trivial cases
+		while (next < times.length && times[next] <= 0.0) {
+			results[next++] = w.clone();
+		}
+		if (beta == 0.0 || norm == 0.0) {
+			while (next < times.length) {
+				results[next++] = w.clone();
+			}
+		}
+		if (next == times.length) {
+			return results;
+		}
+
+		int m = Math.min(krylovDim, n);
+		double tEnd = times[times.length - 1];
+		// Tolerance per unit of time, so that the local errors add up to (at most) the tolerance
+		double tol = tolerance / tEnd;
+		double rndoff = norm * Math.ulp(1.0);
+		double breakdownTol = norm * BREAKDOWN_TOL;
+		double V[][] = new double[m + 1][];
+		V[0] = new double[n];
+		double p[] = new double[n];
+		double H[][] = new double[m + 2][m + 2];
+
+		// Initial step size (as in Expokit)
+		double fact = Math.pow((m + 1) / Math.E, m + 1) * Math.sqrt(2 * Math.PI * (m + 1));
+		double tNew = roundStep((1 / norm) * Math.pow((fact * tol) / (4 * beta * norm), 1.0 / m));
+		double tNow = 0.0;
+
+		while (next < times.length) {
+			if (numSteps >= maxSteps) {
+				throw new PrismException("Krylov transient computation did not finish within " + maxSteps + " steps (t = " + tNow + ")");
+			}
+			numSteps++;
+			double tOut = times[next];
+			double tStep = Math.min(tOut - tNow, tNew);
+
+			// Arnoldi process
+			for (double row[] : H) {
+				Arrays.fill(row, 0.0);
+			}
+			for (int i = 0; i < n; i++) {
+				V[0][i] = w[i] / beta;
+			}
+			int mb = m;
+			boolean breakdown = false;
+			for (int j = 0; j < m; j++) {
+				op.apply(V[j], p);
+				numMatVecs++;
+				// Modified Gram-Schmidt
+				for (int i = 0; i <= j; i++) {
+					double h = dot(V[i], p);
+					H[i][j] = h;
+					axpy(-h, V[i], p);
+				}
+				double s = norm2(p);
+				if (s <= breakdownTol) {
+					// The Krylov subspace is invariant: the approximation is exact (up to round-off),
+					// so go straight to the next time point
+					breakdown = true;
+					mb = j + 1;
+					tStep = tOut - tNow;
+					break;
+				}
+				H[j + 1][j] = s;
+				if (V[j + 1] == null) {
+					V[j + 1] = new double[n];
+				}
+				double vj1[] = V[j + 1];
+				for (int i = 0; i < n; i++) {
+					vj1[i] = p[i] / s;
+				}
+			}
+			double avnorm = 0.0;
+			if (!breakdown) {
+				H[m + 1][m] = 1.0;
+				op.apply(V[m], p);
+				numMatVecs++;
+				avnorm = norm2(p);
+			}
+
+			// Compute the small exponential, reducing the step size until the local error is small enough
+			double F[][];
+			double errLoc;
+			double xm = 1.0 / m;
+			int rejects = 0;
+			double prevStep = 0.0, prevErr = 0.0;
+			while (true) {
+				F = expm(H, breakdown ? mb : m + 2, tStep);
+				if (breakdown) {
+					errLoc = rndoff;
+					break;
+				}
+				double phi1 = Math.abs(beta * F[m][0]);
+				double phi2 = Math.abs(beta * F[m + 1][0] * avnorm);
+				if (phi1 > 10 * phi2) {
+					errLoc = phi2;
+					xm = 1.0 / m;
+				} else if (phi1 > phi2) {
+					errLoc = (phi1 * phi2) / (phi1 - phi2);
+					xm = 1.0 / m;
+				} else {
+					errLoc = phi1;
+					xm = m > 1 ? 1.0 / (m - 1) : 1.0;
+				}
+				if (errLoc <= DELTA * tStep * tol) {
+					break;
+				}
+				if (++rejects > MAX_REJECTS) {
+					throw new PrismException("Krylov transient computation failed: the requested accuracy could not be achieved (t = " + tNow + ")");
+				}
+				numRejected++;
+				// The step size update assumes the local error is O(tStep^m); if the error shrank
+				// more slowly than that over the last rejection, use the observed order instead
+				double xmReject = xm;
+				if (rejects > 1 && errLoc < prevErr) {
+					double order = Math.log(errLoc / prevErr) / Math.log(tStep / prevStep);
+					if (order > 0.0) {
+						xmReject = Math.max(xm, 1.0 / order);
+					}
+				}
+				prevStep = tStep;
+				prevErr = errLoc;
+				tStep = Math.min(tStep, roundStep(GAMMA * tStep * Math.pow(tStep * tol / errLoc, xmReject)));
+			}
+
+			// w = beta * V * F(:,0)
+			int mx = breakdown ? mb : m + 1;
+			Arrays.fill(w, 0.0);
+			for (int k = 0; k < mx; k++) {
+				axpy(beta * F[k][0], V[k], w);
+			}
+			beta = norm2(w);
+			errorEstimate += Math.max(errLoc, rndoff);
+
+			// Advance time, storing results for any time points reached
+			boolean reached = tStep >= tOut - tNow;
+			tNow = reached ? tOut : tNow + tStep;
+			while (next < times.length && times[next] <= tNow) {
+				results[next++] = w.clone();
+			}
+			if (beta == 0.0) {
+				while (next < times.length) {
+					results[next++] = w.clone();
+				}
+				break;
+			}
+			// Next step size
+			tNew = errLoc > 0.0 ? roundStep(GAMMA * tStep * Math.pow(tStep * tol / errLoc, xm)) : Double.POSITIVE_INFINITY;
+		}
+		return results;
+	}
+
+	/**
+	 * Round a step size up to 2 significant digits (as in Expokit).
+	 */
+	private static double roundStep(double t)
+	{
+		if (!(t > 0.0) || Double.isInfinite(t)) {
+			return t;
+		}
+		double s = Math.pow(10, Math.floor(Math.log10(t)) - 1);
+		return Math.ceil(t / s) * s;
+	}
+
+	// Vector operations
+
+	private static double dot(double v[], double w[])
+	{
+		double d = 0.0;
+		for (int i = 0; i < v.length; i++) {
+			d += v[i] * w[i];
+		}
+		return d;
+	}
+
+	private static double norm2(double v[])
+	{
+		return Math.sqrt(dot(v, v));
+	}
+
+	/** w += a * v */
+	private static void axpy(double a, double v[], double w[])
+	{
+		for (int i = 0; i < v.length; i++) {
+			w[i] += a * v[i];
+		}
+	}
+
+	// Small dense matrix exponential
+
+	/**
+	 * Compute exp(tH) for the top-left {@code k} x {@code k} block of {@code H},
+	 * using a Pade approximation with scaling and squaring.
+	 */
+	static double[][] expm(double H[][], int k, double t)
+	{
+		// A = tH, scaled by 2^-s so that its norm is at most 1/2
+		double A[][] = new double[k][k];
+		double normA = 0.0;
+		for (int i = 0; i < k; i++) {
+			double rowSum = 0.0;
+			for (int j = 0; j < k; j++) {
+				A[i][j] = t * H[i][j];
+				rowSum += Math.abs(A[i][j]);
+			}
+			normA = Math.max(normA, rowSum);
+		}
+		int s = normA > 0.5 ? Math.max(0, Math.getExponent(normA) + 2) : 0;
+		double scale = Math.scalb(1.0, -s);
+		for (int i = 0; i < k; i++) {
+			for (int j = 0; j < k; j++) {
+				A[i][j] *= scale;
+			}
+		}
+		// Pade approximation: exp(A) ~ D^-1 N, with N = sum c_j A^j, D = sum c_j (-A)^j
+		double N[][] = identity(k);
+		double D[][] = identity(k);
+		double X[][] = identity(k);
+		double c = 1.0;
+		for (int j = 1; j <= PADE_DEGREE; j++) {
+			c *= (double) (PADE_DEGREE - j + 1) / (j * (2 * PADE_DEGREE - j + 1));
+			X = multiply(A, X);
+			double sign = (j % 2 == 0) ? 1.0 : -1.0;
+			for (int r = 0; r < k; r++) {
+				for (int col = 0; col < k; col++) {
+					N[r][col] += c * X[r][col];
+					D[r][col] += sign * c * X[r][col];
+				}
+			}
+		}
+		double F[][] = solve(D, N);
+		// Undo scaling by squaring
+		for (int i = 0; i < s; i++) {
+			F = multiply(F, F);
+		}
+		return F;
+	}
+
+	private static double[][] identity(int k)
+	{
+		double I[][] = new double[k][k];
+		for (int i = 0; i < k; i++) {
+			I[i][i] = 1.0;
+		}
+		return I;
+	}
+
+	private static double[][] multiply(double A[][], double B[][])
+	{
+		int k = A.length;
+		double C[][] = new double[k][k];
+		for (int i = 0; i < k; i++) {
+			for (int l = 0; l < k; l++) {
+				double a = A[i][l];
+				if (a != 0.0) {
+					for (int j = 0; j < k; j++) {
+						C[i][j] += a * B[l][j];
+					}
+				}
+			}
+		}
+		return C;
+	}
+
+	/**
+	 * Solve D X = N for X (Gaussian elimination with partial pivoting; D and N are overwritten).
+	 */
+	private static double[][] solve(double D[][], double N[][])
+	{
+		int k = D.length;
+		for (int col = 0; col < k; col++) {
+			int piv = col;
+			for (int r = col + 1; r < k; r++) {
+				if (Math.abs(D[r][col]) > Math.abs(D[piv][col])) {
+					piv = r;
+				}
+			}
+			double tmp[] = D[col];
+			D[col] = D[piv];
+			D[piv] = tmp;
+			tmp = N[col];
+			N[col] = N[piv];
+			N[piv] = tmp;
+			for (int r = col + 1; r < k; r++) {
+				double f = D[r][col] / D[col][col];
+				if (f != 0.0) {
+					for (int j = col; j < k; j++) {
+						D[r][j] -= f * D[col][j];
+					}
+					for (int j = 0; j < k; j++) {
+						N[r][j] -= f * N[col][j];
+					}
+				}
+			}
+		}
+		for (int col = k - 1; col >= 0; col--) {
+			for (int j = 0; j < k; j++) {
+				double x = N[col][j];
+				for (int r = col + 1; r < k; r++) {
+					x -= D[col][r] * N[r][j];
+				}
+				N[col][j] = x / D[col][col];
+			}
+		}
+		return N;
+	}
+}
@@ -126,6 +126,7 @@ public class LTSSimple<Value> extends ModelExplicit<Value> implements LTS<Value>
 	@Override
 	public void clearState(int s)
 	{
+		transitionsChanged();
 		// Clear data structures and update stats
 		List<Integer> list = trans.get(s);
 		numTransitions -= list.size();
@@ -143,6 +144,7 @@ public class LTSSimple<Value> extends ModelExplicit<Value> implements LTS<Value>
 	@Override
 	public void addStates(int numToAdd)
 	{
+		transitionsChanged();
 		for (int i = 0; i < numToAdd; i++) {
 			trans.add(new ArrayList<Integer>());
 			numStates++;
@@ -162,6 +164,7 @@ public class LTSSimple<Value> extends ModelExplicit<Value> implements LTS<Value>
 	 */
 	public void addTransition(int s, int t)
 	{
+		transitionsChanged();
 		// We don't care if a transition from s to t already exists
 		trans.get(s).add(t);
 		numTransitions++;
@@ -173,6 +176,7 @@ public class LTSSimple<Value> extends ModelExplicit<Value> implements LTS<Value>
 	 */
 	public void addActionLabelledTransition(int s, int t, Object action)
 	{
+		transitionsChanged();
 		// We don't care if a transition from s to t already exists
 		trans.get(s).add(t);
 		actions.setAction(s, trans.get(s).size() - 1, action);
@@ -43,4 +43,31 @@ public abstract class MDPExplicit<Value> extends ModelExplicit<Value> implements
 		dtmcInduced.setEvaluator(getEvaluator());
 		return dtmcInduced;
 	}
+
+	@Override
+	public boolean hasStoredIncomingChoiceRelation()
+	{
+		return (incomingChoiceRelation != null);
+	}
+
+	@Override
+	public IncomingChoiceRelation getIncomingChoiceRelation(prism.PrismComponent parent, boolean storeIfNew)
+	{
+		if (incomingChoiceRelation != null) {
+			return incomingChoiceRelation;
+		}
+
+		IncomingChoiceRelation incoming = IncomingChoiceRelation.forModel(parent, this);
+
+		if (storeIfNew) {
+			incomingChoiceRelation = incoming;
+		}
+		return incoming;
+	}
+
+	@Override
+	public void clearIncomingChoiceRelation()
+	{
+		incomingChoiceRelation = null;
+	}
 }
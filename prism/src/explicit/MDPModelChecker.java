@@ -43,8 +43,6 @@ import common.StopWatch;
 import explicit.modelviews.EquivalenceRelationInteger;
 import explicit.modelviews.MDPDroppedAllChoices;
 import explicit.modelviews.MDPEquiv;
-import explicit.rewards.MCRewards;
-import explicit.rewards.MCRewardsFromMDPRewards;
 import explicit.rewards.MDPRewards;
 import explicit.rewards.Rewards;
 import parser.ast.Expression;
@@ -53,7 +51,6 @@ import prism.AccuracyFactory;
 import prism.OptionsIntervalIteration;
 import prism.Prism;
 import prism.PrismComponent;
-import prism.PrismDevNullLog;
 import prism.PrismException;
 import prism.PrismFileLog;
 import prism.PrismLog;
@@ -292,6 +289,22 @@ public class MDPModelChecker extends ProbModelChecker
 		return computeReachProbs(mdp, remain, target, min, null, null);
 	}
 
+	/**
+	 * Compute until probabilities.
+	 * i.e. compute the min/max probability of reaching a state in {@code target},
+	 * while remaining in those in {@code remain}.
+	 * @param mdp The MDP
+	 * @param remain Remain in these states (optional: null means "all")
+	 * @param target Target states
+	 * @param min Min or max probabilities (true=min, false=max)
+	 * @param statesOfInterest States for which the results are needed (optional: null means "all");
+	 * results for other states are arbitrary
+	 */
+	public ModelCheckerResult computeUntilProbs(MDP<Double> mdp, BitSet remain, BitSet target, boolean min, BitSet statesOfInterest) throws PrismException
+	{
+		return computeReachProbs(mdp, remain, target, min, null, null, statesOfInterest);
+	}
+
 	/**
 	 * Compute reachability/until probabilities.
 	 * i.e. compute the min/max probability of reaching a state in {@code target},
@@ -306,6 +319,26 @@ public class MDPModelChecker extends ProbModelChecker
 	 * Also, 'known' values cannot be passed for some solution methods, e.g. policy iteration.  
 	 */
 	public ModelCheckerResult computeReachProbs(MDP<Double> mdp, BitSet remain, BitSet target, boolean min, double init[], BitSet known) throws PrismException
+	{
+		return computeReachProbs(mdp, remain, target, min, init, known, null);
+	}
+
+	/**
+	 * Compute reachability/until probabilities.
+	 * i.e. compute the min/max probability of reaching a state in {@code target},
+	 * while remaining in those in {@code remain}.
+	 * @param mdp The MDP
+	 * @param remain Remain in these states (optional: null means "all")
+	 * @param target Target states
+	 * @param min Min or max probabilities (true=min, false=max)
+	 * @param init Optionally, an initial solution vector (may be overwritten) 
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * @param statesOfInterest States for which the results are needed (optional: null means "all");
+	 * results for other states are arbitrary
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values).
+	 * Also, 'known' values cannot be passed for some solution methods, e.g. policy iteration.  
+	 */
+	public ModelCheckerResult computeReachProbs(MDP<Double> mdp, BitSet remain, BitSet target, boolean min, double init[], BitSet known, BitSet statesOfInterest) throws PrismException
 	{
 		ModelCheckerResult res = null;
 		BitSet no, yes;
@@ -347,6 +380,27 @@ public class MDPModelChecker extends ProbModelChecker
 				doPmaxQuotient = true;
 			}
 		}
+		checkSoundIterationSettings();
+		if (doOptimisticValIter || doSoundValIter) {
+			String method = doOptimisticValIter ? "optimistic value iteration" : "sound value iteration";
+			if (mdpSolnMethod != MDPSolnMethod.VALUE_ITERATION && mdpSolnMethod != MDPSolnMethod.GAUSS_SEIDEL) {
+				throw new PrismNotSupportedException("Currently, explicit engine only supports " + method + " with value iteration or Gauss-Seidel for MDPs");
+			}
+			if (init != null)
+				throw new PrismNotSupportedException("Currently, " + method + " is not supported with provided initial values");
+			if (!(precomp && prob0 && prob1)) {
+				throw new PrismNotSupportedException("Precomputations (Prob0 & Prob1) must be enabled for " + method);
+			}
+			if (doSoundValIter) {
+				if (genStrat) {
+					throw new PrismNotSupportedException("Currently, explicit engine does not support adversary construction for sound value iteration");
+				}
+				// For Pmax, the maybe states must not contain end components
+				if (!min) {
+					doPmaxQuotient = true;
+				}
+			}
+		}
 		if (mdpSolnMethod == MDPSolnMethod.POLICY_ITERATION || mdpSolnMethod == MDPSolnMethod.MODIFIED_POLICY_ITERATION) {
 			if (known != null) {
 				throw new PrismException("Policy iteration methods cannot be passed 'known' values for some states");
@@ -482,7 +536,16 @@ public class MDPModelChecker extends ProbModelChecker
 				}
 				res.accuracy = res1.accuracy;
 			} else {
-				res = computeReachProbsNumeric(mdp, mdpSolnMethod, no, yes, min, init, known, strat);
+				// If possible/worthwhile, reduce the model first
+				// (not when generating a strategy, since choices are not mapped back)
+				BitSet relevant = init == null && !genStrat ? getReachReductionStates(mdp, no, yes, statesOfInterest) : null;
+				if (relevant != null) {
+					ReachabilityReduction<MDP<Double>> reduction = ReachabilityReduction.reduce(mdp, no, yes, relevant);
+					res = computeReachProbsNumeric(reduction.getTransformedModel(), mdpSolnMethod, reduction.getNo(), reduction.getYes(), min, null, null, null);
+					res.soln = reduction.mapToOriginalModel(res.soln);
+				} else {
+					res = computeReachProbsNumeric(mdp, mdpSolnMethod, no, yes, min, init, known, strat);
+				}
 			}
 		} else {
 			res = new ModelCheckerResult();
@@ -517,7 +580,9 @@ public class MDPModelChecker extends ProbModelChecker
 			iterationMethod = new IterationMethodPower(termCrit == TermCrit.ABSOLUTE, termCritParam);
 			break;
 		case GAUSS_SEIDEL:
-			iterationMethod = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, false);
+			IterationMethodGS iterationMethodGS = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, false);
+			iterationMethodGS.setParallel(doParallelGS);
+			iterationMethod = iterationMethodGS;
 			break;
 		case POLICY_ITERATION:
 			if (doIntervalIteration) {
@@ -536,7 +601,10 @@ public class MDPModelChecker extends ProbModelChecker
 		}
 
 		if (res == null) { // not yet computed, use iterationMethod
-			if (!doIntervalIteration) {
+			iterationMethod.setNumThreads(numThreads);
+			if (doSoundValIter) {
+				res = doSoundValueIterationReachProbs(mdp, no, yes, min, iterationMethod);
+			} else if (!doIntervalIteration) {
 				res = doValueIterationReachProbs(mdp, no, yes, min, init, known, iterationMethod, getDoTopologicalValueIteration(), strat);
 			} else {
 				res = doIntervalIterationReachProbs(mdp, no, yes, min, init, known, iterationMethod, getDoTopologicalValueIteration(), strat);
@@ -565,6 +633,11 @@ public class MDPModelChecker extends ProbModelChecker
 		boolean u_done;
 		long timer;
 
+		// Use the (graph-based) version with the incoming choice relation, if required
+		if (preRel) {
+			return prob0(mdp, remain, target, min, strat, mdp.getIncomingChoiceRelation(this, true));
+		}
+
 		// Start precomputation
 		timer = System.currentTimeMillis();
 		if (!silentPrecomputations)
@@ -624,20 +697,142 @@ public class MDPModelChecker extends ProbModelChecker
 
 		// If required, generate strategy. This is for min probs,
 		// so it can be done *after* the main prob0 algorithm (unlike for prob1).
-		// We simply pick, for all "no" states, the first choice for which all transitions stay in "no"
 		if (strat != null) {
-			for (int i = u.nextSetBit(0); i >= 0; i = u.nextSetBit(i + 1)) {
-				int numChoices = mdp.getNumChoices(i);
-				for (int k = 0; k < numChoices; k++) {
-					if (mdp.allSuccessorsInSet(i, k, u)) {
-						strat[i] = k;
+			prob0Strategy(mdp, u, strat);
+		}
+
+		return u;
+	}
+
+	/**
+	 * Prob0 precomputation algorithm (using the incoming choice relation),
+	 * i.e. determine the states of an MDP which, with min/max probability 0,
+	 * reach a state in {@code target}, while remaining in those in {@code remain}.
+	 * {@code min}=true gives Prob0E, {@code min}=false gives Prob0A.
+	 * Optionally, for min only, store optimal (memoryless) strategy info for 0 states.
+	 * The result (and strategy) is the same as for the fixed-point computation
+	 * in {@link #prob0(MDP, BitSet, BitSet, boolean, int[])},
+	 * but is computed with a single backward search from the target states.
+	 * @param mdp The MDP
+	 * @param remain Remain in these states (optional: null means "all")
+	 * @param target Target states
+	 * @param min Min or max probabilities (true=min, false=max)
+	 * @param strat Storage for (memoryless) strategy choice indices (ignored if null)
+	 * @param incoming The incoming choice relation of the MDP
+	 */
+	public BitSet prob0(MDP<?> mdp, BitSet remain, BitSet target, boolean min, int strat[], IncomingChoiceRelation incoming)
+	{
+		long timer;
+
+		// Start precomputation
+		timer = System.currentTimeMillis();
+		if (!silentPrecomputations)
+			mainLog.println("Starting Prob0 (" + (min ? "min" : "max") + ")...");
+
+		// Special case: no target states
+		if (target.isEmpty()) {
+			BitSet soln = new BitSet(mdp.getNumStates());
+			soln.set(0, mdp.getNumStates());
+
+			// for min, generate strategy, any choice (-2) is fine
+			if (min && strat != null) {
+				Arrays.fill(strat, -2);
+			}
+			return soln;
+		}
+
+		// Determine set of states actually need to perform computation for
+		int n = mdp.getNumStates();
+		BitSet unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(target);
+		if (remain != null)
+			unknown.and(remain);
+
+		// Backward search from the target states for the states that can reach the target
+		// (i.e., with some/all choices, for max/min, there is a transition to such a state).
+		// For min (for-all), we count, for each state, the choices that have been found
+		// to have such a transition. These are identified by their offset in 'choiceStart'.
+		BitSet canReach = (BitSet) target.clone();
+		int todo[] = new int[n];
+		int todoEnd = 0;
+		for (int s = target.nextSetBit(0); s >= 0; s = target.nextSetBit(s + 1)) {
+			todo[todoEnd++] = s;
+		}
+		int numChoicesFound[] = null;
+		int choiceStart[] = null;
+		BitSet choiceFound = null;
+		if (min) {
+			numChoicesFound = new int[n];
+			choiceStart = new int[n];
+			choiceFound = new BitSet();
+			int numChoices = 0;
+			for (int s = 0; s < n; s++) {
+				choiceStart[s] = numChoices;
+				numChoices += mdp.getNumChoices(s);
+				// states without choices trivially satisfy the for-all condition
+				if (unknown.get(s) && mdp.getNumChoices(s) == 0) {
+					canReach.set(s);
+					todo[todoEnd++] = s;
+				}
+			}
+		}
+		for (int todoStart = 0; todoStart < todoEnd; todoStart++) {
+			for (IncomingChoiceRelation.ChoiceIterator it = incoming.getIncomingChoicesIterator(todo[todoStart]); it.hasNext();) {
+				int s = it.nextInt();
+				if (!unknown.get(s) || canReach.get(s)) {
+					continue;
+				}
+				if (min) {
+					int c = choiceStart[s] + it.getChoice();
+					if (choiceFound.get(c)) {
+						continue;
+					}
+					choiceFound.set(c);
+					if (++numChoicesFound[s] < mdp.getNumChoices(s)) {
 						continue;
 					}
 				}
+				canReach.set(s);
+				todo[todoEnd++] = s;
 			}
 		}
 
-		return u;
+		// Negate
+		BitSet result = new BitSet();
+		result.set(0, n);
+		result.andNot(canReach);
+
+		// Finished precomputation
+		timer = System.currentTimeMillis() - timer;
+		if (!silentPrecomputations) {
+			mainLog.print("Prob0 (" + (min ? "min" : "max") + ")");
+			mainLog.println(" took " + timer / 1000.0 + " seconds.");
+		}
+
+		// If required, generate strategy (as for the fixed-point version)
+		if (strat != null) {
+			prob0Strategy(mdp, result, strat);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Generate a strategy for the states in {@code no}, as computed by Prob0 (for min).
+	 * For all such states, we simply pick a choice for which all transitions stay in {@code no}.
+	 */
+	private void prob0Strategy(MDP<?> mdp, BitSet no, int strat[])
+	{
+		for (int i = no.nextSetBit(0); i >= 0; i = no.nextSetBit(i + 1)) {
+			int numChoices = mdp.getNumChoices(i);
+			for (int k = 0; k < numChoices; k++) {
+				if (mdp.allSuccessorsInSet(i, k, no)) {
+					strat[i] = k;
+					continue;
+				}
+			}
+		}
 	}
 
 	/**
@@ -659,6 +854,11 @@ public class MDPModelChecker extends ProbModelChecker
 		boolean u_done, v_done;
 		long timer;
 
+		// Use the (graph-based) version with the incoming choice relation, if required
+		if (preRel) {
+			return prob1(mdp, remain, target, min, strat, mdp.getIncomingChoiceRelation(this, true));
+		}
+
 		// Start precomputation
 		timer = System.currentTimeMillis();
 		if (!silentPrecomputations)
@@ -748,6 +948,169 @@ public class MDPModelChecker extends ProbModelChecker
 		return u;
 	}
 
+	/**
+	 * Prob1 precomputation algorithm (using the incoming choice relation),
+	 * i.e. determine the states of an MDP which, with min/max probability 1,
+	 * reach a state in {@code target}, while remaining in those in {@code remain}.
+	 * {@code min}=true gives Prob1A, {@code min}=false gives Prob1E.
+	 * Optionally, for max only, store optimal (memoryless) strategy info for 1 states.
+	 * The result (and strategy) is the same as for the fixed-point computation
+	 * in {@link #prob1(MDP, BitSet, BitSet, boolean, int[])},
+	 * but the inner (least) fixed point is computed with a backward search from the target states.
+	 * @param mdp The MDP
+	 * @param remain Remain in these states (optional: null means "all")
+	 * @param target Target states
+	 * @param min Min or max probabilities (true=min, false=max)
+	 * @param strat Storage for (memoryless) strategy choice indices (ignored if null)
+	 * @param incoming The incoming choice relation of the MDP
+	 */
+	public BitSet prob1(MDP<?> mdp, BitSet remain, BitSet target, boolean min, int strat[], IncomingChoiceRelation incoming)
+	{
+		long timer;
+
+		// Start precomputation
+		timer = System.currentTimeMillis();
+		if (!silentPrecomputations)
+			mainLog.println("Starting Prob1 (" + (min ? "min" : "max") + ")...");
+
+		// Special case: no target states
+		if (target.isEmpty()) {
+			return new BitSet(mdp.getNumStates());
+		}
+
+		// Determine set of states actually need to perform computation for
+		int n = mdp.getNumStates();
+		BitSet unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(target);
+		if (remain != null)
+			unknown.and(remain);
+
+		// Offsets for (globally) indexing choices
+		int choiceStart[] = new int[n];
+		for (int s = 0, numChoices = 0; s < n; s++) {
+			choiceStart[s] = numChoices;
+			numChoices += mdp.getNumChoices(s);
+		}
+
+		// Greatest fixed point, each step of which is a backward search
+		int iters = 0;
+		BitSet u = new BitSet();
+		u.set(0, n);
+		while (true) {
+			iters++;
+			BitSet v = prob1Search(mdp, unknown, target, u, min, null, incoming, choiceStart);
+			boolean u_done = v.equals(u);
+			u = v;
+			if (u_done) {
+				break;
+			}
+		}
+
+		// If we need to generate a strategy, do another search for this (see the fixed-point version)
+		if (!min && strat != null) {
+			unknown.and(u);
+			prob1Search(mdp, unknown, target, u, min, strat, incoming, choiceStart);
+		}
+
+		// Finished precomputation
+		timer = System.currentTimeMillis() - timer;
+		if (!silentPrecomputations) {
+			mainLog.print("Prob1 (" + (min ? "min" : "max") + ")");
+			mainLog.println(" took " + iters + " searches and " + timer / 1000.0 + " seconds.");
+		}
+
+		return u;
+	}
+
+	/**
+	 * Compute the least fixed point of a step of Prob1A/Prob1E (for {@code min}=true/false)
+	 * for a given {@code u}, i.e., the states in {@code target}, plus those in {@code unknown}
+	 * that, for all/some choices, have a transition to a state in the fixed point
+	 * and all transitions going to states in {@code u}.
+	 * This is done with a (level-synchronous) backward search from the target states,
+	 * using the incoming choice relation {@code incoming} and choice offsets {@code choiceStart}.
+	 * Optionally, for Prob1E, store strategy info for states added to the fixed point,
+	 * picking the same choices as {@link MDP#prob1Estep} would.
+	 */
+	private BitSet prob1Search(MDP<?> mdp, BitSet unknown, BitSet target, BitSet u, boolean min, int strat[], IncomingChoiceRelation incoming, int choiceStart[])
+	{
+		int n = mdp.getNumStates();
+		// States in the fixed point: 'v' for those in previous levels of the search, 'found' for all
+		BitSet v = (BitSet) target.clone();
+		BitSet found = (BitSet) target.clone();
+		// Choices that have already been looked at (via some successor)
+		BitSet choiceChecked = new BitSet();
+		// For min (for-all), the number of choices found so far for each state (-1 if there is an unsafe one)
+		int numChoicesFound[] = min ? new int[n] : null;
+		int todo[] = new int[n];
+		int todoEnd = 0;
+		for (int s = target.nextSetBit(0); s >= 0; s = target.nextSetBit(s + 1)) {
+			todo[todoEnd++] = s;
+		}
+		if (min) {
+			// states without choices trivially satisfy the for-all condition
+			for (int s = unknown.nextSetBit(0); s >= 0; s = unknown.nextSetBit(s + 1)) {
+				if (mdp.getNumChoices(s) == 0) {
+					v.set(s);
+					found.set(s);
+					todo[todoEnd++] = s;
+				}
+			}
+		}
+		int levelStart = 0;
+		while (levelStart < todoEnd) {
+			int levelEnd = todoEnd;
+			for (int i = levelStart; i < levelEnd; i++) {
+				for (IncomingChoiceRelation.ChoiceIterator it = incoming.getIncomingChoicesIterator(todo[i]); it.hasNext();) {
+					int s = it.nextInt();
+					if (!unknown.get(s) || found.get(s)) {
+						continue;
+					}
+					int c = choiceStart[s] + it.getChoice();
+					if (choiceChecked.get(c)) {
+						continue;
+					}
+					choiceChecked.set(c);
+					boolean safe = mdp.allSuccessorsInSet(s, it.getChoice(), u);
+					if (min) {
+						if (numChoicesFound[s] < 0) {
+							continue;
+						}
+						if (!safe) {
+							numChoicesFound[s] = -1;
+							continue;
+						}
+						if (++numChoicesFound[s] < mdp.getNumChoices(s)) {
+							continue;
+						}
+					} else if (!safe) {
+						continue;
+					}
+					found.set(s);
+					todo[todoEnd++] = s;
+				}
+			}
+			// For the strategy, pick the first choice that can reach a previous level
+			if (strat != null) {
+				for (int i = levelEnd; i < todoEnd; i++) {
+					int s = todo[i];
+					for (int k = 0, numChoices = mdp.getNumChoices(s); k < numChoices; k++) {
+						if (mdp.successorsSafeAndCanReach(s, k, u, v)) {
+							strat[s] = k;
+							break;
+						}
+					}
+				}
+			}
+			for (int i = levelEnd; i < todoEnd; i++) {
+				v.set(todo[i]);
+			}
+			levelStart = levelEnd;
+		}
+		return v;
+	}
+
 	/**
 	 * Compute reachability probabilities using value iteration.
 	 * Optionally, store optimal (memoryless) strategy info. 
@@ -764,11 +1127,13 @@ public class MDPModelChecker extends ProbModelChecker
 			throws PrismException
 	{
 		IterationMethodPower iterationMethod = new IterationMethodPower(termCrit == TermCrit.ABSOLUTE, termCritParam);
+		iterationMethod.setNumThreads(numThreads);
 		return doValueIterationReachProbs(mdp, no, yes, min, init, known, iterationMethod, false, strat);
 	}
 
 	/**
-	 * Compute reachability probabilities using value iteration.
+	 * Compute reachability probabilities using value iteration
+	 * (or optimistic value iteration, if enabled).
 	 * Optionally, store optimal (memoryless) strategy info.
 	 * @param mdp The MDP
 	 * @param no Probability 0 states
@@ -795,11 +1160,12 @@ public class MDPModelChecker extends ProbModelChecker
 				+ (topological ? ", topological": "" )
 				+ ", with " + iterationMethod.getDescriptionShort();
 
-		mainLog.println("Starting value iteration (" + description + ")...");
+		String method = doOptimisticValIter ? "optimistic value iteration" : "value iteration";
+		mainLog.println("Starting " + method + " (" + description + ")...");
 
 		ExportIterations iterationsExport = null;
 		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
-			iterationsExport = new ExportIterations("Explicit MDP ReachProbs value iteration (" + description + ")");
+			iterationsExport = new ExportIterations("Explicit MDP ReachProbs " + method + " (" + description + ")");
 			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
 		}
 
@@ -808,8 +1174,9 @@ public class MDPModelChecker extends ProbModelChecker
 
 		// Initialise solution vectors. Use (where available) the following in order of preference:
 		// (1) exact answer, if already known; (2) 1.0/0.0 if in yes/no; (3) passed in initial value; (4) initVal
-		// where initVal is 0.0 or 1.0, depending on whether we converge from below/above. 
-		initVal = (valIterDir == ValIterDir.BELOW) ? 0.0 : 1.0;
+		// where initVal is 0.0 or 1.0, depending on whether we converge from below/above
+		// (always from below for optimistic value iteration).
+		initVal = (valIterDir == ValIterDir.BELOW || doOptimisticValIter) ? 0.0 : 1.0;
 		if (init != null) {
 			if (known != null) {
 				for (i = 0; i < n; i++)
@@ -840,6 +1207,23 @@ public class MDPModelChecker extends ProbModelChecker
 
 		IntSet unknownStates = IntSet.asIntSet(unknown);
 
+		if (doOptimisticValIter) {
+			// For the upper bounds: no strategy generation
+			IterationMethod.SingleStateOperator operator = (int s, double[] soln) -> mdp.mvMultMinMaxSingle(s, soln, min, null);
+			if (topological) {
+				SCCInfo sccs = SCCComputer.computeTopologicalOrdering(this, mdp, true, unknown::get);
+				IterationMethod.SingletonSCCSolver singletonSCCSolver = (int s, double[] soln) -> {
+					soln[s] = mdp.mvMultJacMinMaxSingle(s, soln, min, strat);
+				};
+				IterationMethod.SingletonSCCSolver singletonSCCSolverUpper = (int s, double[] soln) -> {
+					soln[s] = mdp.mvMultJacMinMaxSingle(s, soln, min, null);
+				};
+				return iterationMethod.doTopologicalOptimisticValueIteration(this, description, sccs, iteration, operator, singletonSCCSolver, singletonSCCSolverUpper, 1.0, timer, iterationsExport);
+			} else {
+				return iterationMethod.doOptimisticValueIteration(this, description, iteration, operator, 1.0, unknownStates, timer, iterationsExport);
+			}
+		}
+
 		if (topological) {
 			// Compute SCCInfo, including trivial SCCs in the subgraph obtained when only considering
 			// states in unknown
@@ -857,6 +1241,65 @@ public class MDPModelChecker extends ProbModelChecker
 		}
 	}
 
+	/**
+	 * Compute reachability probabilities using sound value iteration.
+	 * The maybe states must not contain end components (e.g., for Pmax, compute in the MEC quotient).
+	 * @param mdp The MDP
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param min Min or max probabilities (true=min, false=max)
+	 * @param iterationMethod The iteration method (determines the convergence check)
+	 */
+	protected ModelCheckerResult doSoundValueIterationReachProbs(MDP<Double> mdp, BitSet no, BitSet yes, boolean min, IterationMethod iterationMethod) throws PrismException
+	{
+		// Start sound value iteration
+		long timer = System.currentTimeMillis();
+		String description = min ? "min" : "max";
+		mainLog.println("Starting sound value iteration (" + description + ")...");
+
+		ExportIterations iterationsExport = null;
+		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
+			iterationsExport = new ExportIterations("Explicit MDP ReachProbs sound value iteration (" + description + ")");
+			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
+		}
+
+		// Determine set of states actually need to compute values for
+		int n = mdp.getNumStates();
+		BitSet unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(yes);
+		unknown.andNot(no);
+
+		// x: probability of having reached a yes state; y: probability of remaining in unknown
+		double x[] = Utils.bitsetToDoubleArray(yes, n);
+		double y[] = Utils.bitsetToDoubleArray(unknown, n);
+		// Values are in [0,1]; the lower (for min) or upper (for max) bound is not improved
+		IterationMethod.SoundValIterOperator operator = soundValIterOperator(mdp, null, min, min ? 0.0 : 1.0);
+		return iterationMethod.doSoundValueIteration(this, description, mdp, operator, x, y, 0.0, 1.0, !min, min, IntSet.asIntSet(unknown), timer, iterationsExport);
+	}
+
+	/**
+	 * Get the operator for sound value iteration in an MDP, for probabilities ({@code mdpRewards} null)
+	 * or rewards: for each state, this selects a choice that minimises/maximises {@code x + decisionValue * y}
+	 * (preferring a smaller {@code y} among these).
+	 */
+	private static IterationMethod.SoundValIterOperator soundValIterOperator(MDP<Double> mdp, MDPRewards<Double> mdpRewards, boolean min, double decisionValue)
+	{
+		return (int s, double[] x, double[] y, double[] xy) -> {
+			double best = 0.0;
+			for (int i = 0, numChoices = mdp.getNumChoices(s); i < numChoices; i++) {
+				double xi = mdpRewards == null ? mdp.mvMultSingle(s, i, x) : mdp.mvMultRewSingle(s, i, x, mdpRewards);
+				double yi = mdp.mvMultSingle(s, i, y);
+				double d = yi == 0.0 ? xi : xi + decisionValue * yi;
+				if (i == 0 || (min ? d < best : d > best) || (d == best && yi < xy[1])) {
+					best = d;
+					xy[0] = xi;
+					xy[1] = yi;
+				}
+			}
+		};
+	}
+
 	/**
 	 * Compute reachability probabilities using interval iteration.
 	 * Optionally, store optimal (memoryless) strategy info.
@@ -980,6 +1423,8 @@ public class MDPModelChecker extends ProbModelChecker
 			throws PrismException
 	{
 		IterationMethodGS iterationMethod = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, false);
+		iterationMethod.setNumThreads(numThreads);
+		iterationMethod.setParallel(doParallelGS);
 		return doValueIterationReachProbs(mdp, no, yes, min, init, known, iterationMethod, false, strat);
 	}
 
@@ -994,95 +1439,7 @@ public class MDPModelChecker extends ProbModelChecker
 	 */
 	protected ModelCheckerResult computeReachProbsPolIter(MDP<Double> mdp, BitSet no, BitSet yes, boolean min, int strat[]) throws PrismException
 	{
-		ModelCheckerResult res;
-		int i, n, iters, totalIters;
-		double soln[], soln2[];
-		boolean done;
-		long timer;
-		DTMCModelChecker mcDTMC;
-		DTMC<Double> dtmc;
-
-		// Re-use solution to solve each new policy (strategy)?
-		boolean reUseSoln = true;
-
-		// Start policy iteration
-		timer = System.currentTimeMillis();
-		mainLog.println("Starting policy iteration (" + (min ? "min" : "max") + ")...");
-
-		// Create a DTMC model checker (for solving policies)
-		mcDTMC = new DTMCModelChecker(this);
-		mcDTMC.inheritSettings(this);
-		mcDTMC.setLog(new PrismDevNullLog());
-
-		// Store num states
-		n = mdp.getNumStates();
-
-		// Create solution vectors
-		soln = new double[n];
-		soln2 = new double[n];
-
-		// Initialise solution vectors.
-		for (i = 0; i < n; i++)
-			soln[i] = soln2[i] = yes.get(i) ? 1.0 : 0.0;
-
-		// If not passed in, create new storage for strategy and initialise
-		// Initial strategy just picks first choice (0) everywhere
-		if (strat == null) {
-			strat = new int[n];
-			for (i = 0; i < n; i++)
-				strat[i] = 0;
-		}
-		// Otherwise, just initialise for states not in yes/no
-		// (Optimal choices for yes/no should already be known)
-		else {
-			for (i = 0; i < n; i++)
-				if (!(no.get(i) || yes.get(i)))
-					strat[i] = 0;
-		}
-
-		boolean backwardsGS = (linEqMethod == LinEqMethod.BACKWARDS_GAUSS_SEIDEL);
-
-		// Start iterations
-		iters = totalIters = 0;
-		done = false;
-		while (!done) {
-			iters++;
-			// Solve induced DTMC for strategy
-			dtmc = new DTMCFromMDPMemorylessAdversary<>(mdp, strat);
-			res = mcDTMC.computeReachProbsGaussSeidel(dtmc, no, yes, reUseSoln ? soln : null, null, backwardsGS);
-			soln = res.soln;
-			totalIters += res.numIters;
-			// Check if optimal, improve non-optimal choices
-			mdp.mvMultMinMax(soln, min, soln2, null, false, null);
-			done = true;
-			for (i = 0; i < n; i++) {
-				// Don't look at no/yes states - we may not have strategy info for them,
-				// so they might appear non-optimal
-				if (no.get(i) || yes.get(i))
-					continue;
-				if (!PrismUtils.doublesAreClose(soln[i], soln2[i], termCritParam, termCrit == TermCrit.ABSOLUTE)) {
-					done = false;
-					List<Integer> opt = mdp.mvMultMinMaxSingleChoices(i, soln, min, soln2[i]);
-					// Only update strategy if strictly better
-					if (!opt.contains(strat[i]))
-						strat[i] = opt.get(0);
-				}
-			}
-		}
-
-		// Finished policy iteration
-		timer = System.currentTimeMillis() - timer;
-		mainLog.print("Policy iteration");
-		mainLog.println(" took " + iters + " cycles (" + totalIters + " iterations in total) and " + timer / 1000.0 + " seconds.");
-
-		// Return results
-		// (Note we don't add the strategy - the one passed in is already there
-		// and might have some existing choices stored for other states).
-		res = new ModelCheckerResult();
-		res.soln = soln;
-		res.numIters = totalIters;
-		res.timeTaken = timer / 1000.0;
-		return res;
+		return doPolicyIterationReachProbs(mdp, no, yes, min, strat, false);
 	}
 
 	/**
@@ -1095,92 +1452,68 @@ public class MDPModelChecker extends ProbModelChecker
 	 */
 	protected ModelCheckerResult computeReachProbsModPolIter(MDP<Double> mdp, BitSet no, BitSet yes, boolean min, int strat[]) throws PrismException
 	{
-		ModelCheckerResult res;
-		int i, n, iters, totalIters;
-		double soln[], soln2[];
-		boolean done;
-		long timer;
-		DTMCModelChecker mcDTMC;
-		DTMC<Double> dtmc;
-
-		// Start value iteration
-		timer = System.currentTimeMillis();
-		mainLog.println("Starting modified policy iteration (" + (min ? "min" : "max") + ")...");
-
-		// Create a DTMC model checker (for solving policies)
-		mcDTMC = new DTMCModelChecker(this);
-		mcDTMC.inheritSettings(this);
-		mcDTMC.setLog(new PrismDevNullLog());
-
-		// Limit iters for DTMC solution - this implements "modified" policy iteration
-		mcDTMC.setMaxIters(100);
-		mcDTMC.setErrorOnNonConverge(false);
+		return doPolicyIterationReachProbs(mdp, no, yes, min, strat, true);
+	}
 
-		// Store num states
-		n = mdp.getNumStates();
+	/**
+	 * Compute reachability probabilities using (modified) policy iteration (see {@link PolicyIteration}).
+	 * Optionally, store optimal (memoryless) strategy info.
+	 * @param mdp: The MDP
+	 * @param no: Probability 0 states
+	 * @param yes: Probability 1 states
+	 * @param min: Min or max probabilities (true=min, false=max)
+	 * @param strat Storage for (memoryless) strategy choice indices (ignored if null)
+	 * @param modified Use modified policy iteration (i.e., limit the iterations for each policy evaluation)?
+	 */
+	protected ModelCheckerResult doPolicyIterationReachProbs(MDP<Double> mdp, BitSet no, BitSet yes, boolean min, int strat[], boolean modified) throws PrismException
+	{
+		// Start policy iteration
+		long timer = System.currentTimeMillis();
+		String method = modified ? "Modified policy iteration" : "Policy iteration";
+		boolean topological = getDoTopologicalValueIteration();
+		String description = (min ? "min" : "max") + (topological ? ", topological" : "") + ", with " + getSparseLinearSolverDescription(polIterSolver);
+		mainLog.println("Starting " + method.toLowerCase() + " (" + description + ")...");
 
-		// Create solution vectors
-		soln = new double[n];
-		soln2 = new double[n];
+		// Determine set of states actually need to compute values for
+		int n = mdp.getNumStates();
+		BitSet unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(yes);
+		unknown.andNot(no);
 
-		// Initialise solution vectors.
-		for (i = 0; i < n; i++)
-			soln[i] = soln2[i] = yes.get(i) ? 1.0 : 0.0;
+		// Initialise solution vector
+		double soln[] = Utils.bitsetToDoubleArray(yes, n);
 
-		// If not passed in, create new storage for strategy and initialise
-		// Initial strategy just picks first choice (0) everywhere
+		// If not passed in, create new storage for strategy
 		if (strat == null) {
 			strat = new int[n];
-			for (i = 0; i < n; i++)
-				strat[i] = 0;
 		}
-		// Otherwise, just initialise for states not in yes/no
-		// (Optimal choices for yes/no should already be known)
-		else {
-			for (i = 0; i < n; i++)
-				if (!(no.get(i) || yes.get(i)))
-					strat[i] = 0;
+		// Initial strategy picks the first choice or, for max, one that moves towards the yes states
+		// (so that it is proper, i.e., leaves the unknown states with probability 1)
+		for (int i = unknown.nextSetBit(0); i >= 0; i = unknown.nextSetBit(i + 1)) {
+			strat[i] = 0;
 		}
-
-		boolean backwardsGS = (linEqMethod == LinEqMethod.BACKWARDS_GAUSS_SEIDEL);
-
-		// Start iterations
-		iters = totalIters = 0;
-		done = false;
-		while (!done) {
-			iters++;
-			// Solve induced DTMC for strategy
-			dtmc = new DTMCFromMDPMemorylessAdversary<>(mdp, strat);
-			res = mcDTMC.computeReachProbsGaussSeidel(dtmc, no, yes, soln, null, backwardsGS);
-			soln = res.soln;
-			totalIters += res.numIters;
-			// Check if optimal, improve non-optimal choices
-			mdp.mvMultMinMax(soln, min, soln2, null, false, null);
-			done = true;
-			for (i = 0; i < n; i++) {
-				// Don't look at no/yes states - we don't store strategy info for them,
-				// so they might appear non-optimal
-				if (no.get(i) || yes.get(i))
-					continue;
-				if (!PrismUtils.doublesAreClose(soln[i], soln2[i], termCritParam, termCrit == TermCrit.ABSOLUTE)) {
-					done = false;
-					List<Integer> opt = mdp.mvMultMinMaxSingleChoices(i, soln, min, soln2[i]);
-					strat[i] = opt.get(0);
-				}
-			}
+		if (!min) {
+			PolicyIteration.initialStrategyTowards(mdp, unknown, yes, strat);
 		}
 
+		// Limit iterations for policy evaluation - this implements "modified" policy iteration
+		PolicyIteration polIter = new PolicyIteration(this, mdp, null, unknown, min);
+		polIter.setSolver(polIterSolver, termCrit == TermCrit.ABSOLUTE, polIterTermCritParam, modified ? 100 : maxIters);
+		polIter.solve(soln, strat, topological, !modified);
+
 		// Finished policy iteration
 		timer = System.currentTimeMillis() - timer;
-		mainLog.print("Modified policy iteration");
-		mainLog.println(" took " + iters + " cycles (" + totalIters + " iterations in total) and " + timer / 1000.0 + " seconds.");
+		mainLog.print(method);
+		mainLog.print(" took " + polIter.getNumCycles() + " cycles (" + polIter.getNumIters() + " iterations in total, ");
+		mainLog.println(polIter.getNumUpdates() + " choice updates) and " + timer / 1000.0 + " seconds.");
 
 		// Return results
 		// (Note we don't add the strategy - the one passed in is already there
 		// and might have some existing choices stored for other states).
-		res = new ModelCheckerResult();
+		ModelCheckerResult res = new ModelCheckerResult();
 		res.soln = soln;
-		res.numIters = totalIters;
+		res.numIters = polIter.getNumIters();
 		res.timeTaken = timer / 1000.0;
 		return res;
 	}
@@ -2073,6 +2406,18 @@ public class MDPModelChecker extends ProbModelChecker
 				throw new PrismNotSupportedException("Currently, explicit engine only supports interval iteration with value iteration or Gauss-Seidel for MDPs");
 			}
 		}
+		checkSoundIterationSettings();
+		if (doOptimisticValIter || doSoundValIter) {
+			String method = doOptimisticValIter ? "optimistic value iteration" : "sound value iteration";
+			if (mdpSolnMethod != MDPSolnMethod.VALUE_ITERATION && mdpSolnMethod != MDPSolnMethod.GAUSS_SEIDEL) {
+				throw new PrismNotSupportedException("Currently, explicit engine only supports " + method + " with value iteration or Gauss-Seidel for MDPs");
+			}
+			if (init != null)
+				throw new PrismNotSupportedException("Currently, " + method + " is not supported with provided initial values");
+			if (doSoundValIter && genStrat) {
+				throw new PrismNotSupportedException("Currently, explicit engine does not support adversary construction for sound value iteration");
+			}
+		}
 
 		// Start expected reachability
 		timer = System.currentTimeMillis();
@@ -2218,7 +2563,9 @@ public class MDPModelChecker extends ProbModelChecker
 			iterationMethod = new IterationMethodPower(termCrit == TermCrit.ABSOLUTE, termCritParam);
 			break;
 		case GAUSS_SEIDEL:
-			iterationMethod = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, false);
+			IterationMethodGS iterationMethodGS = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, false);
+			iterationMethodGS.setParallel(doParallelGS);
+			iterationMethod = iterationMethodGS;
 			break;
 		case POLICY_ITERATION:
 			if (doIntervalIteration) {
@@ -2231,7 +2578,10 @@ public class MDPModelChecker extends ProbModelChecker
 		}
 
 		if (res == null) { // not yet computed, use iterationMethod
-			if (!doIntervalIteration) {
+			iterationMethod.setNumThreads(numThreads);
+			if (doSoundValIter) {
+				res = doSoundValueIterationReachRewards(mdp, mdpRewards, iterationMethod, target, inf, min);
+			} else if (!doIntervalIteration) {
 				res = doValueIterationReachRewards(mdp, mdpRewards, iterationMethod, target, inf, min, init, known, getDoTopologicalValueIteration(), strat);
 			} else {
 				res = doIntervalIterationReachRewards(mdp, mdpRewards, iterationMethod, target, inf, min, init, known, getDoTopologicalValueIteration(), strat);
@@ -2258,11 +2608,13 @@ public class MDPModelChecker extends ProbModelChecker
 			throws PrismException
 	{
 		IterationMethodPower iterationMethod = new IterationMethodPower(termCrit == TermCrit.ABSOLUTE, termCritParam);
+		iterationMethod.setNumThreads(numThreads);
 		return doValueIterationReachRewards(mdp, mdpRewards, iterationMethod, target, inf, min, init, known, false, strat);
 	}
 
 	/**
-	 * Compute expected reachability rewards using value iteration.
+	 * Compute expected reachability rewards using value iteration
+	 * (or optimistic value iteration, if enabled).
 	 * Optionally, store optimal (memoryless) strategy info.
 	 * @param mdp The MDP
 	 * @param mdpRewards The rewards
@@ -2285,11 +2637,12 @@ public class MDPModelChecker extends ProbModelChecker
 		// Start value iteration
 		timer = System.currentTimeMillis();
 		String description = (min ? "min" : "max") + (topological ? ", topological" : "" ) + ", with " + iterationMethod.getDescriptionShort();
-		mainLog.println("Starting value iteration (" + description + ")...");
+		String method = doOptimisticValIter ? "optimistic value iteration" : "value iteration";
+		mainLog.println("Starting " + method + " (" + description + ")...");
 
 		ExportIterations iterationsExport = null;
 		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
-			iterationsExport = new ExportIterations("Explicit MDP ReachRewards value iteration (" + description +")");
+			iterationsExport = new ExportIterations("Explicit MDP ReachRewards " + method + " (" + description +")");
 			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
 		}
 
@@ -2328,6 +2681,23 @@ public class MDPModelChecker extends ProbModelChecker
 
 		IntSet unknownStates = IntSet.asIntSet(unknown);
 
+		if (doOptimisticValIter) {
+			// For the upper bounds: no strategy generation
+			IterationMethod.SingleStateOperator operator = (int s, double[] soln) -> mdp.mvMultRewMinMaxSingle(s, soln, mdpRewards, min, null);
+			if (topological) {
+				SCCInfo sccs = SCCComputer.computeTopologicalOrdering(this, mdp, true, unknown::get);
+				IterationMethod.SingletonSCCSolver singletonSCCSolver = (int s, double[] soln) -> {
+					soln[s] = mdp.mvMultRewJacMinMaxSingle(s, soln, mdpRewards, min, strat);
+				};
+				IterationMethod.SingletonSCCSolver singletonSCCSolverUpper = (int s, double[] soln) -> {
+					soln[s] = mdp.mvMultRewJacMinMaxSingle(s, soln, mdpRewards, min, null);
+				};
+				return iterationMethod.doTopologicalOptimisticValueIteration(this, description, sccs, forMvMultRewMinMax, operator, singletonSCCSolver, singletonSCCSolverUpper, Double.POSITIVE_INFINITY, timer, iterationsExport);
+			} else {
+				return iterationMethod.doOptimisticValueIteration(this, description, forMvMultRewMinMax, operator, Double.POSITIVE_INFINITY, unknownStates, timer, iterationsExport);
+			}
+		}
+
 		if (topological) {
 			// Compute SCCInfo, including trivial SCCs in the subgraph obtained when only considering
 			// states in unknown
@@ -2362,9 +2732,52 @@ public class MDPModelChecker extends ProbModelChecker
 			BitSet known, int strat[]) throws PrismException
 	{
 		IterationMethodGS iterationMethod = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, false);
+		iterationMethod.setNumThreads(numThreads);
+		iterationMethod.setParallel(doParallelGS);
 		return doValueIterationReachRewards(mdp, mdpRewards, iterationMethod, target, inf, min, init, known, false, strat);
 	}
 
+	/**
+	 * Compute expected reachability rewards using sound value iteration.
+	 * The unknown states must not contain zero-reward end components (for Rmin, these have been removed).
+	 * @param mdp The MDP
+	 * @param mdpRewards The rewards
+	 * @param iterationMethod The iteration method (determines the convergence check)
+	 * @param target Target states
+	 * @param inf States for which reward is infinite
+	 * @param min Min or max rewards (true=min, false=max)
+	 */
+	protected ModelCheckerResult doSoundValueIterationReachRewards(MDP<Double> mdp, MDPRewards<Double> mdpRewards, IterationMethod iterationMethod, BitSet target, BitSet inf, boolean min) throws PrismException
+	{
+		// Determine set of states actually need to compute values for
+		int n = mdp.getNumStates();
+		BitSet unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(target);
+		unknown.andNot(inf);
+
+		// For Rmax, sound value iteration needs an a priori upper bound (for choosing)
+		double upperBound = min ? Double.POSITIVE_INFINITY : computeReachRewardsMaxUpperBound(mdp, mdpRewards, target, unknown, inf);
+
+		// Start sound value iteration
+		long timer = System.currentTimeMillis();
+		String description = min ? "min" : "max";
+		mainLog.println("Starting sound value iteration (" + description + ")...");
+
+		ExportIterations iterationsExport = null;
+		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
+			iterationsExport = new ExportIterations("Explicit MDP ReachRewards sound value iteration (" + description + ")");
+			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
+		}
+
+		// x: reward accumulated so far; y: probability of remaining in unknown
+		double x[] = Utils.bitsetToDoubleArray(inf, n, Double.POSITIVE_INFINITY);
+		double y[] = Utils.bitsetToDoubleArray(unknown, n);
+		// Values are non-negative; the lower (for min) or upper (for max) bound is not improved
+		IterationMethod.SoundValIterOperator operator = soundValIterOperator(mdp, mdpRewards, min, min ? 0.0 : upperBound);
+		return iterationMethod.doSoundValueIteration(this, description, mdp, operator, x, y, 0.0, upperBound, !min, min, IntSet.asIntSet(unknown), timer, iterationsExport);
+	}
+
 	/**
 	 * Compute expected reachability rewards using interval iteration
 	 * Optionally, store optimal (memoryless) strategy info.
@@ -2512,7 +2925,7 @@ public class MDPModelChecker extends ProbModelChecker
 	}
 
 	/**
-	 * Compute expected reachability rewards using policy iteration.
+	 * Compute expected reachability rewards using policy iteration (see {@link PolicyIteration}).
 	 * The array {@code strat} is used both to pass in the initial strategy for policy iteration,
 	 * and as storage for the resulting optimal strategy (if needed).
 	 * Passing in an initial strategy is required when some states have infinite reward,
@@ -2527,84 +2940,47 @@ public class MDPModelChecker extends ProbModelChecker
 	protected ModelCheckerResult computeReachRewardsPolIter(MDP<Double> mdp, MDPRewards<Double> mdpRewards, BitSet target, BitSet inf, boolean min, int strat[])
 			throws PrismException
 	{
-		ModelCheckerResult res;
-		int i, n, iters, totalIters;
-		double soln[], soln2[];
-		boolean done;
-		long timer;
-		DTMCModelChecker mcDTMC;
-		DTMC<Double> dtmc;
-		MCRewards<Double> mcRewards;
-
-		// Re-use solution to solve each new policy (strategy)?
-		boolean reUseSoln = true;
-
 		// Start policy iteration
-		timer = System.currentTimeMillis();
-		mainLog.println("Starting policy iteration (" + (min ? "min" : "max") + ")...");
+		long timer = System.currentTimeMillis();
+		boolean topological = getDoTopologicalValueIteration();
+		String description = (min ? "min" : "max") + (topological ? ", topological" : "") + ", with " + getSparseLinearSolverDescription(polIterSolver);
+		mainLog.println("Starting policy iteration (" + description + ")...");
 
-		// Create a DTMC model checker (for solving policies)
-		mcDTMC = new DTMCModelChecker(this);
-		mcDTMC.inheritSettings(this);
-		mcDTMC.setLog(new PrismDevNullLog());
-
-		// Store num states
-		n = mdp.getNumStates();
-
-		// Create solution vector(s)
-		soln = new double[n];
-		soln2 = new double[n];
+		// Determine set of states actually need to compute values for
+		int n = mdp.getNumStates();
+		BitSet unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(target);
+		unknown.andNot(inf);
 
-		// Initialise solution vectors.
-		for (i = 0; i < n; i++)
-			soln[i] = soln2[i] = target.get(i) ? 0.0 : inf.get(i) ? Double.POSITIVE_INFINITY : 0.0;
+		// Initialise solution vector
+		double soln[] = Utils.bitsetToDoubleArray(inf, n, Double.POSITIVE_INFINITY);
 
-		// If not passed in, create new storage for strategy and initialise
-		// Initial strategy just picks first choice (0) everywhere
+		// If not passed in, create new storage for strategy
+		// Initial strategy just picks first choice (0) where no choice is given
 		if (strat == null) {
 			strat = new int[n];
-			for (i = 0; i < n; i++)
-				strat[i] = 0;
 		}
-			
-		// Start iterations
-		iters = totalIters = 0;
-		done = false;
-		while (!done && iters < maxIters) {
-			iters++;
-			// Solve induced DTMC for strategy
-			dtmc = new DTMCFromMDPMemorylessAdversary<>(mdp, strat);
-			mcRewards = new MCRewardsFromMDPRewards<>(mdpRewards, strat);
-			res = mcDTMC.computeReachRewardsValIter(dtmc, mcRewards, target, inf, reUseSoln ? soln : null, null);
-			soln = res.soln;
-			totalIters += res.numIters;
-			// Check if optimal, improve non-optimal choices
-			mdp.mvMultRewMinMax(soln, mdpRewards, min, soln2, null, false, null);
-			done = true;
-			for (i = 0; i < n; i++) {
-				// Don't look at target/inf states - we may not have strategy info for them,
-				// so they might appear non-optimal
-				if (target.get(i) || inf.get(i))
-					continue;
-				if (!PrismUtils.doublesAreClose(soln[i], soln2[i], termCritParam, termCrit == TermCrit.ABSOLUTE)) {
-					done = false;
-					List<Integer> opt = mdp.mvMultRewMinMaxSingleChoices(i, soln, mdpRewards, min, soln2[i]);
-					// Only update strategy if strictly better
-					if (!opt.contains(strat[i]))
-						strat[i] = opt.get(0);
-				}
+		for (int i = unknown.nextSetBit(0); i >= 0; i = unknown.nextSetBit(i + 1)) {
+			if (strat[i] < 0) {
+				strat[i] = 0;
 			}
 		}
 
+		PolicyIteration polIter = new PolicyIteration(this, mdp, mdpRewards, unknown, min);
+		polIter.setSolver(polIterSolver, termCrit == TermCrit.ABSOLUTE, polIterTermCritParam, maxIters);
+		polIter.solve(soln, strat, topological, true);
+
 		// Finished policy iteration
 		timer = System.currentTimeMillis() - timer;
 		mainLog.print("Policy iteration");
-		mainLog.println(" took " + iters + " cycles (" + totalIters + " iterations in total) and " + timer / 1000.0 + " seconds.");
+		mainLog.print(" took " + polIter.getNumCycles() + " cycles (" + polIter.getNumIters() + " iterations in total, ");
+		mainLog.println(polIter.getNumUpdates() + " choice updates) and " + timer / 1000.0 + " seconds.");
 
 		// Return results
-		res = new ModelCheckerResult();
+		ModelCheckerResult res = new ModelCheckerResult();
 		res.soln = soln;
-		res.numIters = totalIters;
+		res.numIters = polIter.getNumIters();
 		res.timeTaken = timer / 1000.0;
 		return res;
 	}
@@ -94,7 +94,7 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 		for (int s = 0; s < numStates; s++) {
 			List<Distribution<Value>> distrs = trans.get(s);
 			for (Distribution<Value> distr : mdp.trans.get(s)) {
-				distrs.add(new Distribution<>(distr));
+				distrs.add(distr.copy());
 			}
 		}
 		actions = new ChoiceActionsSimple(mdp.actions);
@@ -115,7 +115,7 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 		copyFrom(dtmc);
 		for (int s = 0; s < numStates; s++) {
 			// Note: DTMCSimple has no actions so can ignore these
-			addChoice(s, new Distribution<Value>(dtmc.getTransitions(s)));
+			addChoice(s, dtmc.getTransitions(s).copy());
 		}
 	}
 
@@ -134,7 +134,7 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 		for (int s = 0; s < numStates; s++) {
 			List<Distribution<Value>> distrs = trans.get(permut[s]);
 			for (Distribution<Value> distr : mdp.trans.get(s)) {
-				distrs.add(new Distribution<>(distr, permut));
+				distrs.add(distr.map(permut));
 			}
 		}
 		actions = new ChoiceActionsSimple(mdp.actions, permut);
@@ -182,7 +182,7 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 			int numChoices = mdp.getNumChoices(i);
 			for (int j = 0; j < numChoices; j++) {
 				Object action = mdp.getAction(i, j);
-				Distribution<Value> distr = new Distribution<>(eval);
+				Distribution<Value> distr = Distribution.create(eval);
 				Iterator<Map.Entry<Integer, T>> iter = mdp.getTransitionsIterator(i, j);
 				while (iter.hasNext()) {
 					Map.Entry<Integer, T> e = iter.next();
@@ -220,6 +220,7 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 		// Do nothing if state does not exist
 		if (s >= numStates || s < 0)
 			return;
+		transitionsChanged();
 		// Clear data structures and update stats
 		List<Distribution<Value>> list = trans.get(s);
 		numDistrs -= list.size();
@@ -241,6 +242,7 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 	@Override
 	public void addStates(int numToAdd)
 	{
+		transitionsChanged();
 		for (int i = 0; i < numToAdd; i++) {
 			trans.add(new ArrayList<Distribution<Value>>());
 			numStates++;
@@ -300,7 +302,7 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 					// and provide an error message if there are still empty distributions
 					// after having read the full .tra file
 					while (choice >= getNumChoices(source)) {
-						addChoice(source, new Distribution<>(getEvaluator()));
+						addChoice(source, Distribution.create(getEvaluator()));
 						emptyDistributions++;
 					}
 
@@ -363,6 +365,7 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 		// Check state exists
 		if (s >= numStates || s < 0)
 			return -1;
+		transitionsChanged();
 		// Add distribution (if new)
 		if (!allowDupes) {
 			int i = indexOfChoice(s, distr);
@@ -391,6 +394,7 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 		// Check state exists
 		if (s >= numStates || s < 0)
 			return -1;
+		transitionsChanged();
 		// Add distribution/action (if new)
 		if (!allowDupes) {
 			int i = indexOfActionLabelledChoice(s, distr, action);
@@ -446,7 +450,7 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 			if (trans.get(i).isEmpty()) {
 				addDeadlockState(i);
 				if (fix) {
-					Distribution<Value> distr = new Distribution<>(getEvaluator());
+					Distribution<Value> distr = Distribution.create(getEvaluator());
 					distr.add(i, getEvaluator().one());
 					addChoice(i, distr);
 				}
@@ -516,6 +520,10 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 	@Override
 	public SuccessorsIterator getSuccessors(final int s, final int i)
 	{
+		Distribution<Value> distr = trans.get(s).get(i);
+		if (distr instanceof DistributionDouble) {
+			return SuccessorsIterator.from(((DistributionDouble) distr).getSupportIterator(), true);
+		}
 		return SuccessorsIterator.from(getSuccessorsIterator(s, i), true);
 	}
 
@@ -533,6 +541,37 @@ public class MDPSimple<Value> extends MDPExplicit<Value> implements NondetModelS
 		return trans.get(s).get(i).iterator();
 	}
 
+	@Override
+	public void forEachDoubleTransition(int s, int i, DoubleTransitionConsumer c)
+	{
+		Distribution<Value> distr = trans.get(s).get(i);
+		if (distr instanceof DistributionDouble) {
+			// Iterate over primitive arrays directly
+			DistributionDouble distrDbl = (DistributionDouble) distr;
+			for (int k = 0, n = distrDbl.size(); k < n; k++) {
+				c.accept(s, distrDbl.getIndex(k), distrDbl.getProbability(k));
+			}
+		} else {
+			super.forEachDoubleTransition(s, i, c);
+		}
+	}
+
+	@Override
+	public double sumOverDoubleTransitions(int s, int i, DoubleTransitionToDoubleFunction f)
+	{
+		Distribution<Value> distr = trans.get(s).get(i);
+		if (distr instanceof DistributionDouble) {
+			// Iterate over primitive arrays directly
+			DistributionDouble distrDbl = (DistributionDouble) distr;
+			double sum = 0.0;
+			for (int k = 0, n = distrDbl.size(); k < n; k++) {
+				sum += f.apply(s, distrDbl.getIndex(k), distrDbl.getProbability(k));
+			}
+			return sum;
+		}
+		return super.sumOverDoubleTransitions(s, i, f);
+	}
+
 	
 
 	// Accessors (other)
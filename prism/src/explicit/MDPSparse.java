@@ -302,6 +302,79 @@ public class MDPSparse extends MDPExplicit<Double>
 		actions = new ChoiceActionsSimple(mdp.actions, permut).convertToSparseStorage(this);
 	}
 
+	/**
+	 * Copy constructor (from MDPSparse), with a state index permutation,
+	 * i.e. old state index i becomes index permut[i].
+	 * Note: a states list, if present, will not be permuted and should be set
+	 * separately afterwards if required.
+	 * @param mdp The MDP to copy
+	 * @param permut State space permutation
+	 */
+	public MDPSparse(MDPSparse mdp, int permut[])
+	{
+		initialise(mdp.getNumStates());
+		copyFrom(mdp, permut);
+		// Copy stats
+		numDistrs = mdp.numDistrs;
+		numTransitions = mdp.numTransitions;
+		maxNumDistrs = mdp.maxNumDistrs;
+		// Compute the inverse of the permutation
+		int permutInv[] = new int[numStates];
+		for (int i = 0; i < numStates; i++) {
+			permutInv[permut[i]] = i;
+		}
+		// Copy transition function (and actions)
+		nonZeros = new double[numTransitions];
+		cols = new int[numTransitions];
+		choiceStarts = new int[numDistrs + 1];
+		rowStarts = new int[numStates + 1];
+		actions = mdp.actions == null ? null : new Object[numDistrs];
+		int j = 0, k = 0;
+		for (int i = 0; i < numStates; i++) {
+			rowStarts[i] = j;
+			int src = permutInv[i];
+			for (int c = mdp.rowStarts[src]; c < mdp.rowStarts[src + 1]; c++) {
+				choiceStarts[j] = k;
+				if (actions != null) {
+					actions[j] = mdp.actions[c];
+				}
+				for (int t = mdp.choiceStarts[c]; t < mdp.choiceStarts[c + 1]; t++) {
+					cols[k] = permut[mdp.cols[t]];
+					nonZeros[k] = mdp.nonZeros[t];
+					k++;
+				}
+				j++;
+			}
+		}
+		choiceStarts[numDistrs] = numTransitions;
+		rowStarts[numStates] = numDistrs;
+	}
+
+	/**
+	 * Constructor: build directly from (already constructed) sparse storage arrays,
+	 * e.g. as created by {@link SparseModelBuilder}. The arrays are stored, not copied.
+	 * Initial states, deadlocks, etc. need to be added separately.
+	 * @param numStates Number of states
+	 * @param rowStarts Index of first choice for each state (array of size numStates+1)
+	 * @param choiceStarts Index of first transition for each choice (array of size numChoices+1)
+	 * @param cols Target state for each transition (array of size numTransitions)
+	 * @param nonZeros Probability for each transition (array of size numTransitions)
+	 * @param actions Action for each choice (array of size numChoices), or null if none
+	 * @param maxNumDistrs Maximum number of choices in any state
+	 */
+	public MDPSparse(int numStates, int rowStarts[], int choiceStarts[], int cols[], double nonZeros[], Object actions[], int maxNumDistrs)
+	{
+		initialise(numStates);
+		this.rowStarts = rowStarts;
+		this.choiceStarts = choiceStarts;
+		this.cols = cols;
+		this.nonZeros = nonZeros;
+		this.actions = actions;
+		numDistrs = rowStarts[numStates];
+		numTransitions = choiceStarts[numDistrs];
+		this.maxNumDistrs = maxNumDistrs;
+	}
+
 	/**
 	 * Copy constructor for a (sub-)MDP from a given MDP.
 	 * The states and actions will be indexed as given by the order
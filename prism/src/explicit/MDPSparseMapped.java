@@ -0,0 +1,1104 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import common.IterableStateSet;
+import explicit.rewards.MCRewards;
+import explicit.rewards.MDPRewards;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+import prism.PrismUtils;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of an MDP,
+ * stored off-heap in a memory-mapped file, rather than in Java arrays.
+ * This allows models whose transitions do not fit in the Java heap, and whose number of transitions
+ * exceeds the maximum size of an array (transition offsets are {@code long}s).
+ * To build such a model without first storing it on the heap, see {@link SparseModelBuilder}.
+ * Otherwise, it is the same as {@link MDPSparse}.
+ * <br><br>
+ * The file can be kept and re-opened later (with {@link #open(File)}) without rebuilding the model.
+ * Its layout (all values little-endian, sections aligned to 8 bytes) is:
+ * <ul>
+ * <li> header ({@link #HEADER_SIZE} bytes): magic number, format version, flags,
+ *      numStates, numChoices, maxNumChoices, numInitialStates, numDeadlocks, numTransitions (long)
+ * <li> rowStarts: int[numStates+1] - index of first choice for each state
+ * <li> choiceStarts: long[numChoices+1] - index of first transition for each choice
+ * <li> cols: int[numTransitions] - target state for each transition
+ * <li> nonZeros: double[numTransitions] - probability for each transition
+ * <li> initial states: int[numInitialStates]
+ * <li> deadlock states: int[numDeadlocks]
+ * <li> (if flag {@link #FLAG_ACTIONS} is set) action indices: int[numChoices] (-1 for null),
+ *      followed by the number of distinct actions and then each one as a length-prefixed UTF-8 string (padded to 8 bytes)
+ * </ul>
+ * Actions are stored as strings, so, after re-opening, all non-null actions are {@code String}s.
+ * State/label/constant information is not part of the file and should be set separately if needed.
+ */
+public class MDPSparseMapped extends MDPExplicit<Double>
+{
+	/** Magic number at the start of the file ("PRISMMDP") */
+	public static final long MAGIC = 0x504D44534D495250L;
+	/** Version of the file format */
+	public static final int VERSION = 1;
+	/** Size of the file header, in bytes */
+	public static final int HEADER_SIZE = 64;
+	/** Flag: file contains action labels */
+	public static final int FLAG_ACTIONS = 1;
+
+	/** The (mapped) file */
+	protected MappedFile mapped;
+
+	/** Byte offsets of the sections of the file */
+	protected long rowStartsOffset;
+	protected long choiceStartsOffset;
+	protected long colsOffset;
+	protected long nonZerosOffset;
+
+	/** Array of action labels for choices;
+	 * if null, there are no actions; otherwise, is an array of size numDistrs */
+	protected Object actions[];
+
+	// Other statistics
+	protected int numDistrs;
+	protected long numTransitions;
+	protected int maxNumDistrs;
+
+	// Constructors
+
+	/**
+	 * Constructor: Build a new MDPSparseMapped from an arbitrary MDP,
+	 * writing it to file {@code file} (which is overwritten if it exists) and then mapping it.
+	 * States list, labels and constant values are copied (by reference) from {@code mdp}.
+	 * @param mdp some MDP
+	 * @param file The file to store the MDP in
+	 */
+	public MDPSparseMapped(MDP<Double> mdp, File file) throws PrismException
+	{
+		write(mdp, file);
+		map(file);
+		setStatesList(mdp.getStatesList());
+		setConstantValues(mdp.getConstantValues());
+		setVarList(mdp.getVarList());
+		for (String label : mdp.getLabels()) {
+			addLabel(label, mdp.getLabelStates(label));
+		}
+	}
+
+	/**
+	 * Private constructor, used by {@link #open(File)}.
+	 */
+	private MDPSparseMapped()
+	{
+	}
+
+	/**
+	 * Re-open an MDP that was previously stored in file {@code file}
+	 * (e.g. by {@link #MDPSparseMapped(MDP, File)} or {@link #write(MDP, File)}).
+	 */
+	public static MDPSparseMapped open(File file) throws PrismException
+	{
+		MDPSparseMapped mdp = new MDPSparseMapped();
+		mdp.map(file);
+		return mdp;
+	}
+
+	/**
+	 * Create an MDP whose transitions are stored in an already mapped file {@code mapped},
+	 * starting at byte offset {@code offset}, laid out as the rowStarts, choiceStarts, cols
+	 * and nonZeros sections of this class's file format (e.g. in a {@link BinaryModelFile}).
+	 * The data is used in place, not copied. Initial/deadlock states, states and labels
+	 * should be added separately.
+	 * @param actions action labels for choices (null if none)
+	 */
+	static MDPSparseMapped wrap(MappedFile mapped, long offset, int numStates, int numChoices, int maxNumChoices, long numTransitions, Object actions[])
+	{
+		MDPSparseMapped mdp = new MDPSparseMapped();
+		mdp.mapped = mapped;
+		mdp.initialise(numStates);
+		mdp.numDistrs = numChoices;
+		mdp.maxNumDistrs = maxNumChoices;
+		mdp.numTransitions = numTransitions;
+		mdp.setOffsets(offset);
+		mdp.actions = actions;
+		return mdp;
+	}
+
+	/**
+	 * Write an MDP to file {@code file}, in the format used by this class, so that it can
+	 * be opened with {@link #open(File)}. The MDP is read one state at a time, so this
+	 * does not require an additional copy of the model to be stored in memory.
+	 */
+	public static void write(MDP<Double> mdp, File file) throws PrismException
+	{
+		write(mdp, null, file);
+	}
+
+	/**
+	 * Write an MDP to file {@code file}, in the format used by this class, so that it can
+	 * be opened with {@link #open(File)}. The MDP is read one state at a time, so this
+	 * does not require an additional copy of the model to be stored in memory.
+	 * Optionally, a state index permutation can be provided,
+	 * i.e. old state index i becomes index permut[i].
+	 * @param permut State space permutation (or null if none)
+	 */
+	public static void write(MDP<Double> mdp, int permut[], File file) throws PrismException
+	{
+		int numStates = mdp.getNumStates();
+		// Inverse of the permutation, to find the (old) state for each new index
+		int permutInv[] = null;
+		if (permut != null) {
+			permutInv = new int[numStates];
+			for (int s = 0; s < numStates; s++) {
+				permutInv[permut[s]] = s;
+			}
+		}
+		// First pass: count choices/transitions and collect actions
+		int numChoices = 0;
+		int maxNumChoices = 0;
+		int maxNumTransitions = 0;
+		long numTransitions = 0;
+		boolean hasActions = false;
+		for (int s = 0; s < numStates; s++) {
+			int nc = mdp.getNumChoices(s);
+			numChoices += nc;
+			maxNumChoices = Math.max(maxNumChoices, nc);
+			for (int i = 0; i < nc; i++) {
+				int nt = mdp.getNumTransitions(s, i);
+				numTransitions += nt;
+				maxNumTransitions = Math.max(maxNumTransitions, nt);
+				hasActions |= mdp.getAction(s, i) != null;
+			}
+		}
+		List<Integer> initialStates = new ArrayList<>();
+		mdp.getInitialStates().forEach(s -> initialStates.add(permut == null ? s : permut[s]));
+		List<Integer> deadlocks = new ArrayList<>();
+		mdp.getDeadlockStates().forEach(s -> deadlocks.add(permut == null ? s : permut[s]));
+		// Scratch space for (permuted and sorted) transitions of a choice
+		int cols[] = new int[maxNumTransitions];
+		double probs[] = new double[maxNumTransitions];
+		// Write file (sequentially)
+		try (BinaryFileWriter out = new BinaryFileWriter(file)) {
+			// Header
+			writeHeader(out, hasActions, numStates, numChoices, maxNumChoices, initialStates.size(), deadlocks.size(), numTransitions);
+			// rowStarts
+			int choice = 0;
+			for (int s = 0; s < numStates; s++) {
+				out.putInt(choice);
+				choice += mdp.getNumChoices(permut == null ? s : permutInv[s]);
+			}
+			out.putInt(choice);
+			out.align();
+			// choiceStarts
+			long trans = 0;
+			for (int s = 0; s < numStates; s++) {
+				int sOld = permut == null ? s : permutInv[s];
+				for (int i = 0, nc = mdp.getNumChoices(sOld); i < nc; i++) {
+					out.putLong(trans);
+					trans += mdp.getNumTransitions(sOld, i);
+				}
+			}
+			out.putLong(trans);
+			// cols
+			for (int s = 0; s < numStates; s++) {
+				int sOld = permut == null ? s : permutInv[s];
+				for (int i = 0, nc = mdp.getNumChoices(sOld); i < nc; i++) {
+					for (int k = 0, n = getTransitions(mdp, sOld, i, permut, cols, probs); k < n; k++) {
+						out.putInt(cols[k]);
+					}
+				}
+			}
+			out.align();
+			// nonZeros
+			for (int s = 0; s < numStates; s++) {
+				int sOld = permut == null ? s : permutInv[s];
+				for (int i = 0, nc = mdp.getNumChoices(sOld); i < nc; i++) {
+					for (int k = 0, n = getTransitions(mdp, sOld, i, permut, cols, probs); k < n; k++) {
+						out.putDouble(probs[k]);
+					}
+				}
+			}
+			// Initial/deadlock states
+			for (int s : initialStates) {
+				out.putInt(s);
+			}
+			for (int s : deadlocks) {
+				out.putInt(s);
+			}
+			out.align();
+			// Actions
+			if (hasActions) {
+				Map<String, Integer> actionIndices = new LinkedHashMap<>();
+				for (int s = 0; s < numStates; s++) {
+					int sOld = permut == null ? s : permutInv[s];
+					for (int i = 0, nc = mdp.getNumChoices(sOld); i < nc; i++) {
+						out.putInt(getActionIndex(mdp.getAction(sOld, i), actionIndices));
+					}
+				}
+				writeActionNames(out, actionIndices);
+			}
+		} catch (IOException e) {
+			throw new PrismException("Could not write MDP to file \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Get the transitions of choice {@code i} of state {@code s} of {@code mdp}, with targets
+	 * renumbered according to {@code permut} (if non-null) and sorted, storing them in
+	 * {@code cols}/{@code probs} (which must be large enough). Returns the number of transitions.
+	 */
+	private static int getTransitions(MDP<Double> mdp, int s, int i, int permut[], int cols[], double probs[])
+	{
+		int n = 0;
+		for (Iterator<Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, i); it.hasNext(); n++) {
+			Entry<Integer, Double> e = it.next();
+			cols[n] = permut == null ? e.getKey() : permut[e.getKey()];
+			probs[n] = e.getValue();
+		}
+		if (permut != null) {
+			// Insertion sort by target (choices are typically small)
+			for (int k = 1; k < n; k++) {
+				int col = cols[k];
+				double prob = probs[k];
+				int l = k - 1;
+				for (; l >= 0 && cols[l] > col; l--) {
+					cols[l + 1] = cols[l];
+					probs[l + 1] = probs[l];
+				}
+				cols[l + 1] = col;
+				probs[l + 1] = prob;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Write the header of a file in the format used by this class.
+	 */
+	static void writeHeader(BinaryFileWriter out, boolean hasActions, int numStates, int numChoices, int maxNumChoices, int numInitialStates, int numDeadlocks, long numTransitions) throws IOException
+	{
+		out.putLong(MAGIC);
+		out.putInt(VERSION);
+		out.putInt(hasActions ? FLAG_ACTIONS : 0);
+		out.putInt(numStates);
+		out.putInt(numChoices);
+		out.putInt(maxNumChoices);
+		out.putInt(numInitialStates);
+		out.putInt(numDeadlocks);
+		out.putInt(0);
+		out.putLong(numTransitions);
+		out.pad(HEADER_SIZE);
+	}
+
+	/**
+	 * Get the index of an action (as stored in the file), adding it to {@code actionIndices} if it is new.
+	 */
+	static int getActionIndex(Object action, Map<String, Integer> actionIndices)
+	{
+		return action == null ? -1 : actionIndices.computeIfAbsent(action.toString(), a -> actionIndices.size());
+	}
+
+	/**
+	 * Write the names of the actions (in order of their indices), after the action indices of the choices.
+	 */
+	static void writeActionNames(BinaryFileWriter out, Map<String, Integer> actionIndices) throws IOException
+	{
+		out.putInt(actionIndices.size());
+		out.align();
+		for (String action : actionIndices.keySet()) {
+			out.putString(action);
+		}
+	}
+
+	/**
+	 * Map the file {@code file} (read-only) and initialise this MDP from it.
+	 */
+	private void map(File file) throws PrismException
+	{
+		try {
+			mapped = new MappedFile(file);
+			long size = mapped.size();
+			// Read/check header
+			if (size < HEADER_SIZE || getLong(0) != MAGIC) {
+				throw new PrismException("File \"" + file + "\" is not a mapped MDP file");
+			}
+			if (getInt(8) != VERSION) {
+				throw new PrismException("Unsupported version (" + getInt(8) + ") of mapped MDP file \"" + file + "\"");
+			}
+			int flags = getInt(12);
+			initialise(getInt(16));
+			numDistrs = getInt(20);
+			maxNumDistrs = getInt(24);
+			int numInitialStates = getInt(28);
+			int numDeadlocks = getInt(32);
+			numTransitions = getLong(40);
+			// Compute section offsets
+			long offset = setOffsets(HEADER_SIZE);
+			if (offset + 4L * (numInitialStates + numDeadlocks) > size) {
+				throw new PrismException("Mapped MDP file \"" + file + "\" is truncated");
+			}
+			for (int k = 0; k < numInitialStates; k++, offset += 4) {
+				addInitialState(getInt(offset));
+			}
+			for (int k = 0; k < numDeadlocks; k++, offset += 4) {
+				addDeadlockState(getInt(offset));
+			}
+			offset = align(offset);
+			// Read actions, if present (these are kept on the heap)
+			if ((flags & FLAG_ACTIONS) != 0) {
+				long indicesOffset = offset;
+				offset += 4L * numDistrs;
+				String names[] = new String[getInt(offset)];
+				offset = align(offset + 4);
+				for (int k = 0; k < names.length; k++) {
+					names[k] = mapped.getString(offset);
+					offset += mapped.getStringSize(offset);
+				}
+				actions = new Object[numDistrs];
+				for (int j = 0; j < numDistrs; j++) {
+					int index = getInt(indicesOffset + 4L * j);
+					actions[j] = index == -1 ? null : names[index];
+				}
+			}
+		} catch (IOException e) {
+			throw new PrismException("Could not map MDP file \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Compute the byte offsets of the transition sections, which start at {@code offset}
+	 * (numStates, numDistrs and numTransitions need to be set first).
+	 * Returns the offset just after the sections.
+	 */
+	private long setOffsets(long offset)
+	{
+		rowStartsOffset = offset;
+		choiceStartsOffset = align(rowStartsOffset + 4L * (numStates + 1));
+		colsOffset = choiceStartsOffset + 8L * (numDistrs + 1);
+		nonZerosOffset = align(colsOffset + 4L * numTransitions);
+		return nonZerosOffset + 8L * numTransitions;
+	}
+
+	/**
+	 * Get the file in which this MDP is stored.
+	 */
+	public File getFile()
+	{
+		return mapped.getFile();
+	}
+
+	// Access to mapped data
+
+	private static long align(long offset)
+	{
+		return MappedFile.align(offset);
+	}
+
+	private int getInt(long pos)
+	{
+		return mapped.getInt(pos);
+	}
+
+	private long getLong(long pos)
+	{
+		return mapped.getLong(pos);
+	}
+
+	/** Index of the first choice of state s (or numDistrs for s = numStates) */
+	protected final int rowStart(int s)
+	{
+		return getInt(rowStartsOffset + 4L * s);
+	}
+
+	/** Index of the first transition of choice j (or numTransitions for j = numDistrs) */
+	protected final long choiceStart(int j)
+	{
+		return getLong(choiceStartsOffset + 8L * j);
+	}
+
+	/** Target state of transition k */
+	protected final int col(long k)
+	{
+		return mapped.getInt(colsOffset + 4L * k);
+	}
+
+	/** Probability of transition k */
+	protected final double nonZero(long k)
+	{
+		return mapped.getDouble(nonZerosOffset + 8L * k);
+	}
+
+	// Mutators (other)
+
+	@Override
+	public void initialise(int numStates)
+	{
+		super.initialise(numStates);
+		numDistrs = maxNumDistrs = 0;
+		numTransitions = 0;
+		actions = null;
+	}
+
+	@Override
+	public void buildFromPrismExplicit(String filename) throws PrismException
+	{
+		throw new PrismNotSupportedException("Can't build an MDPSparseMapped from an explicit file; build an MDP and then convert it");
+	}
+
+	// Accessors (for Model)
+
+	@Override
+	public int getNumTransitions()
+	{
+		if (numTransitions > Integer.MAX_VALUE) {
+			throw new ArithmeticException("Number of transitions (" + numTransitions + ") is too large for an int; use getNumTransitionsLong()");
+		}
+		return (int) numTransitions;
+	}
+
+	/**
+	 * Get the total number of transitions in the model (as a long).
+	 */
+	public long getNumTransitionsLong()
+	{
+		return numTransitions;
+	}
+
+	@Override
+	public String infoString()
+	{
+		String s = "";
+		s += numStates + " states (" + getNumInitialStates() + " initial)";
+		s += ", " + numTransitions + " transitions";
+		s += ", " + numDistrs + " choices";
+		s += ", dist max/avg = " + maxNumDistrs + "/" + PrismUtils.formatDouble2dp(((double) numDistrs) / numStates);
+		return s;
+	}
+
+	@Override
+	public String infoStringTable()
+	{
+		String s = "";
+		s += "States:      " + numStates + " (" + getNumInitialStates() + " initial)\n";
+		s += "Transitions: " + numTransitions + "\n";
+		s += "Choices:     " + numDistrs + "\n";
+		s += "Max/avg:     " + maxNumDistrs + "/" + PrismUtils.formatDouble2dp(((double) numDistrs) / numStates) + "\n";
+		return s;
+	}
+
+	@Override
+	public int getNumTransitions(int s)
+	{
+		return (int) (choiceStart(rowStart(s + 1)) - choiceStart(rowStart(s)));
+	}
+
+	private SuccessorsIterator colsIterator(long start, long end, boolean distinct)
+	{
+		return new SuccessorsIterator() {
+			long cur = start;
+
+			@Override
+			public boolean successorsAreDistinct()
+			{
+				return distinct;
+			}
+
+			@Override
+			public boolean hasNext()
+			{
+				return cur < end;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				return col(cur++);
+			}
+		};
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(final int s)
+	{
+		// Assumes that only non-zero entries are stored
+		long start = choiceStart(rowStart(s));
+		long end = choiceStart(rowStart(s + 1));
+		// we can guarantee that the successors are distinct if there is at most one successor...
+		boolean distinct = (start == end || start + 1 == end);
+		return colsIterator(start, end, distinct);
+	}
+
+	@Override
+	public void findDeadlocks(boolean fix) throws PrismException
+	{
+		for (int i = 0; i < numStates; i++) {
+			// Note that no distributions is a deadlock, not an empty distribution
+			if (getNumChoices(i) == 0) {
+				addDeadlockState(i);
+				if (fix) {
+					throw new PrismException("Can't fix deadlocks in an MDPSparseMapped since it cannot be modified after construction");
+				}
+			}
+		}
+	}
+
+	@Override
+	public void checkForDeadlocks(BitSet except) throws PrismException
+	{
+		for (int i = 0; i < numStates; i++) {
+			if (getNumChoices(i) == 0 && (except == null || !except.get(i)))
+				throw new PrismException("MDP has a deadlock in state " + i);
+		}
+	}
+
+	// Accessors (for NondetModel)
+
+	@Override
+	public int getNumChoices(int s)
+	{
+		return rowStart(s + 1) - rowStart(s);
+	}
+
+	@Override
+	public int getMaxNumChoices()
+	{
+		return maxNumDistrs;
+	}
+
+	@Override
+	public int getNumChoices()
+	{
+		return numDistrs;
+	}
+
+	@Override
+	public Object getAction(int s, int i)
+	{
+		return i < 0 || actions == null ? null : actions[rowStart(s) + i];
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(final int s, final int i)
+	{
+		int j = rowStart(s) + i;
+		// we assume here that the successors for a single choice are distinct
+		return colsIterator(choiceStart(j), choiceStart(j + 1), true);
+	}
+
+	// Accessors (for MDP)
+
+	@Override
+	public int getNumTransitions(int s, int i)
+	{
+		int j = rowStart(s) + i;
+		return (int) (choiceStart(j + 1) - choiceStart(j));
+	}
+
+	@Override
+	public void forEachTransition(int s, int i, TransitionConsumer<Double> c)
+	{
+		int j = rowStart(s) + i;
+		for (long k = choiceStart(j), stop = choiceStart(j + 1); k < stop; k++) {
+			c.accept(s, col(k), nonZero(k));
+		}
+	}
+
+	@Override
+	public void forEachDoubleTransition(int s, int i, DoubleTransitionConsumer c)
+	{
+		int j = rowStart(s) + i;
+		for (long k = choiceStart(j), stop = choiceStart(j + 1); k < stop; k++) {
+			c.accept(s, col(k), nonZero(k));
+		}
+	}
+
+	@Override
+	public Iterator<Entry<Integer, Double>> getTransitionsIterator(final int s, final int i)
+	{
+		final int j = rowStart(s) + i;
+		return new Iterator<Entry<Integer, Double>>()
+		{
+			long k = choiceStart(j);
+			final long end = choiceStart(j + 1);
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < end;
+			}
+
+			@Override
+			public Entry<Integer, Double> next()
+			{
+				assert (k < end);
+				long cur = k++;
+				return new AbstractMap.SimpleImmutableEntry<Integer, Double>(col(cur), nonZero(cur));
+			}
+		};
+	}
+
+	@Override
+	public void prob0step(BitSet subset, BitSet u, boolean forall, BitSet result)
+	{
+		for (int i : new IterableStateSet(subset, numStates)) {
+			boolean b1 = forall; // there exists or for all
+			for (int j = rowStart(i), h1 = rowStart(i + 1); j < h1; j++) {
+				boolean some = false;
+				for (long k = choiceStart(j), h2 = choiceStart(j + 1); k < h2; k++) {
+					// Assume that only non-zero entries are stored
+					if (u.get(col(k))) {
+						some = true;
+						break;
+					}
+				}
+				if (forall) {
+					if (!some) {
+						b1 = false;
+						break;
+					}
+				} else {
+					if (some) {
+						b1 = true;
+						break;
+					}
+				}
+			}
+			result.set(i, b1);
+		}
+	}
+
+	@Override
+	public void prob1Astep(BitSet subset, BitSet u, BitSet v, BitSet result)
+	{
+		for (int i : new IterableStateSet(subset, numStates)) {
+			boolean b1 = true;
+			for (int j = rowStart(i), h1 = rowStart(i + 1); j < h1; j++) {
+				boolean some = false;
+				boolean all = true;
+				for (long k = choiceStart(j), h2 = choiceStart(j + 1); k < h2; k++) {
+					// Assume that only non-zero entries are stored
+					int t = col(k);
+					if (!u.get(t)) {
+						all = false;
+						break; // Stop early (already know b1 will be set to false)
+					}
+					if (v.get(t)) {
+						some = true;
+					}
+				}
+				if (!(some && all)) {
+					b1 = false;
+					break;
+				}
+			}
+			result.set(i, b1);
+		}
+	}
+
+	@Override
+	public void prob1Estep(BitSet subset, BitSet u, BitSet v, BitSet result, int strat[])
+	{
+		int stratCh = -1;
+		for (int i : new IterableStateSet(subset, numStates)) {
+			boolean b1 = false;
+			int l1 = rowStart(i);
+			for (int j = l1, h1 = rowStart(i + 1); j < h1; j++) {
+				boolean some = false;
+				boolean all = true;
+				for (long k = choiceStart(j), h2 = choiceStart(j + 1); k < h2; k++) {
+					// Assume that only non-zero entries are stored
+					int t = col(k);
+					if (!u.get(t)) {
+						all = false;
+						break; // Stop early (already know b1 will not be set to true)
+					}
+					if (v.get(t)) {
+						some = true;
+					}
+				}
+				if (some && all) {
+					b1 = true;
+					// If strategy generation is enabled, remember optimal choice
+					if (strat != null)
+						stratCh = j - l1;
+					break;
+				}
+			}
+			// If strategy generation is enabled, store optimal choice
+			// (only if this the first time we add the state to S^yes)
+			if (strat != null & b1 & !result.get(i)) {
+				strat[i] = stratCh;
+			}
+			// Store result
+			result.set(i, b1);
+		}
+	}
+
+	@Override
+	public void prob1step(BitSet subset, BitSet u, BitSet v, boolean forall, BitSet result)
+	{
+		for (int i : new IterableStateSet(subset, numStates)) {
+			boolean b1 = forall; // there exists or for all
+			for (int j = rowStart(i), h1 = rowStart(i + 1); j < h1; j++) {
+				boolean some = false;
+				boolean all = true;
+				for (long k = choiceStart(j), h2 = choiceStart(j + 1); k < h2; k++) {
+					// Assume that only non-zero entries are stored
+					int t = col(k);
+					if (v.get(t)) {
+						some = true;
+					}
+					if (!u.get(t)) {
+						all = false;
+					}
+				}
+				if (forall) {
+					if (!(some && all)) {
+						b1 = false;
+						break;
+					}
+				} else {
+					if (some && all) {
+						b1 = true;
+						break;
+					}
+				}
+			}
+			result.set(i, b1);
+		}
+	}
+
+	@Override
+	public boolean prob1stepSingle(int s, int i, BitSet u, BitSet v)
+	{
+		int j = rowStart(s) + i;
+		boolean some = false;
+		boolean all = true;
+		for (long k = choiceStart(j), h2 = choiceStart(j + 1); k < h2; k++) {
+			// Assume that only non-zero entries are stored
+			int t = col(k);
+			if (v.get(t)) {
+				some = true;
+			}
+			if (!u.get(t)) {
+				all = false;
+			}
+		}
+		return some && all;
+	}
+
+	/**
+	 * Compute sum_k P(j,k)*vect[k] for choice (global index) j.
+	 */
+	private double mvMultChoice(int j, double vect[])
+	{
+		double d = 0.0;
+		for (long k = choiceStart(j), h2 = choiceStart(j + 1); k < h2; k++) {
+			d += nonZero(k) * vect[col(k)];
+		}
+		return d;
+	}
+
+	@Override
+	public double mvMultMinMaxSingle(int s, double vect[], boolean min, int strat[])
+	{
+		int stratCh = -1;
+		double minmax = 0;
+		boolean first = true;
+		int l1 = rowStart(s);
+		for (int j = l1, h1 = rowStart(s + 1); j < h1; j++) {
+			// Compute sum for this distribution
+			double d = mvMultChoice(j, vect);
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				// If strategy generation is enabled, remember optimal choice
+				if (strat != null)
+					stratCh = j - l1;
+			}
+			first = false;
+		}
+		// If strategy generation is enabled, store optimal choice
+		if (strat != null & !first) {
+			// For max, only remember strictly better choices
+			if (min) {
+				strat[s] = stratCh;
+			} else if (strat[s] == -1 || minmax > vect[s]) {
+				strat[s] = stratCh;
+			}
+		}
+
+		return minmax;
+	}
+
+	@Override
+	public List<Integer> mvMultMinMaxSingleChoices(int s, double vect[], boolean min, double val)
+	{
+		List<Integer> res = new ArrayList<Integer>();
+		int l1 = rowStart(s);
+		for (int j = l1, h1 = rowStart(s + 1); j < h1; j++) {
+			// Store strategy info if value matches
+			if (PrismUtils.doublesAreEqual(val, mvMultChoice(j, vect))) {
+				res.add(j - l1);
+			}
+		}
+		return res;
+	}
+
+	@Override
+	public double mvMultSingle(int s, int i, double vect[])
+	{
+		return mvMultChoice(rowStart(s) + i, vect);
+	}
+
+	/**
+	 * Compute sum_k P(j,k)*vect[k] / (1 - P(j,s)), excluding self-loops, for choice (global index) j of state s.
+	 */
+	private double mvMultJacChoice(int s, int j, double vect[])
+	{
+		double diag = 1.0;
+		double d = 0.0;
+		for (long k = choiceStart(j), h2 = choiceStart(j + 1); k < h2; k++) {
+			int t = col(k);
+			if (t != s) {
+				d += nonZero(k) * vect[t];
+			} else {
+				diag -= nonZero(k);
+			}
+		}
+		if (diag > 0)
+			d /= diag;
+		return d;
+	}
+
+	@Override
+	public double mvMultJacMinMaxSingle(int s, double vect[], boolean min, int strat[])
+	{
+		int stratCh = -1;
+		double minmax = 0;
+		boolean first = true;
+		int l1 = rowStart(s);
+		for (int j = l1, h1 = rowStart(s + 1); j < h1; j++) {
+			double d = mvMultJacChoice(s, j, vect);
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				// If strategy generation is enabled, remember optimal choice
+				if (strat != null)
+					stratCh = j - l1;
+			}
+			first = false;
+		}
+		// If strategy generation is enabled, store optimal choice
+		if (strat != null & !first) {
+			// For max, only remember strictly better choices
+			if (min) {
+				strat[s] = stratCh;
+			} else if (strat[s] == -1 || minmax > vect[s]) {
+				strat[s] = stratCh;
+			}
+		}
+
+		return minmax;
+	}
+
+	@Override
+	public double mvMultJacSingle(int s, int i, double vect[])
+	{
+		return mvMultJacChoice(s, rowStart(s) + i, vect);
+	}
+
+	@Override
+	public double mvMultRewMinMaxSingle(int s, double vect[], MDPRewards<Double> mdpRewards, boolean min, int strat[])
+	{
+		int stratCh = -1;
+		double minmax = 0;
+		boolean first = true;
+		int l1 = rowStart(s);
+		for (int j = l1, h1 = rowStart(s + 1); j < h1; j++) {
+			// Compute sum for this distribution
+			double d = mdpRewards.getTransitionReward(s, j - l1);
+			d += mvMultChoice(j, vect);
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				// If strategy generation is enabled, remember optimal choice
+				if (strat != null)
+					stratCh = j - l1;
+			}
+			first = false;
+		}
+		// Add state reward (doesn't affect min/max)
+		minmax += mdpRewards.getStateReward(s);
+		// If strategy generation is enabled, store optimal choice
+		if (strat != null & !first) {
+			// For max, only remember strictly better choices
+			if (min) {
+				strat[s] = stratCh;
+			} else if (strat[s] == -1 || minmax > vect[s]) {
+				strat[s] = stratCh;
+			}
+		}
+
+		return minmax;
+	}
+
+	@Override
+	public double mvMultRewSingle(int s, int i, double[] vect, MCRewards<Double> mcRewards)
+	{
+		double d = mvMultChoice(rowStart(s) + i, vect);
+		d += mcRewards.getStateReward(s);
+		return d;
+	}
+
+	@Override
+	public double mvMultRewJacMinMaxSingle(int s, double vect[], MDPRewards<Double> mdpRewards, boolean min, int strat[])
+	{
+		int stratCh = -1;
+		double minmax = 0;
+		boolean first = true;
+		int l1 = rowStart(s);
+		for (int j = l1, h1 = rowStart(s + 1); j < h1; j++) {
+			double diag = 1.0;
+			boolean onlySelfloops = true;
+			// Compute sum for this distribution
+			// (note: have to add state rewards in the loop for Jacobi)
+			double d = mdpRewards.getStateReward(s);
+			d += mdpRewards.getTransitionReward(s, j - l1);
+			for (long k = choiceStart(j), h2 = choiceStart(j + 1); k < h2; k++) {
+				int t = col(k);
+				if (t != s) {
+					onlySelfloops = false;
+					d += nonZero(k) * vect[t];
+				} else {
+					diag -= nonZero(k);
+				}
+			}
+			// Catch special case of probability 1 self-loop (Jacobi does it wrong)
+			if (onlySelfloops) {
+				if (d != 0) {
+					// always choosing the selfloop-action will produce infinite reward
+					d = (d > 0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+				} else {
+					// no reward & only self-loops: d remains 0
+					d = 0;
+				}
+			} else if (diag > 0) {
+				// not only self-loops, do Jacobi division
+				d /= diag;
+			}
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				// If strategy generation is enabled, remember optimal choice
+				if (strat != null)
+					stratCh = j - l1;
+			}
+			first = false;
+		}
+		// If strategy generation is enabled, store optimal choice
+		if (strat != null & !first) {
+			// For max, only remember strictly better choices
+			if (min) {
+				strat[s] = stratCh;
+			} else if (strat[s] == -1 || minmax > vect[s]) {
+				strat[s] = stratCh;
+			}
+		}
+
+		return minmax;
+	}
+
+	@Override
+	public List<Integer> mvMultRewMinMaxSingleChoices(int s, double vect[], MDPRewards<Double> mdpRewards, boolean min, double val)
+	{
+		List<Integer> res = new ArrayList<Integer>();
+		int l1 = rowStart(s);
+		for (int j = l1, h1 = rowStart(s + 1); j < h1; j++) {
+			// Compute sum for this distribution
+			double d = mdpRewards.getTransitionReward(s, j - l1);
+			d += mvMultChoice(j, vect);
+			d += mdpRewards.getStateReward(s);
+			// Store strategy info if value matches
+			if (PrismUtils.doublesAreEqual(val, d)) {
+				res.add(j - l1);
+			}
+		}
+		return res;
+	}
+
+	@Override
+	public void mvMultRight(int[] states, int[] strat, double[] source, double[] dest)
+	{
+		for (int s : states) {
+			int j = rowStart(s) + strat[s];
+			for (long k = choiceStart(j), h2 = choiceStart(j + 1); k < h2; k++) {
+				dest[col(k)] += nonZero(k) * source[s];
+			}
+		}
+	}
+
+	// Standard methods
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("[ ");
+		for (int i = 0; i < numStates; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append(i).append(": [");
+			int l1 = rowStart(i);
+			for (int j = l1, h1 = rowStart(i + 1); j < h1; j++) {
+				if (j > l1)
+					sb.append(",");
+				Object o = getAction(i, j - l1);
+				if (o != null)
+					sb.append(o).append(":");
+				sb.append("{");
+				long l2 = choiceStart(j);
+				for (long k = l2, h2 = choiceStart(j + 1); k < h2; k++) {
+					if (k > l2)
+						sb.append(", ");
+					sb.append(col(k)).append(":").append(nonZero(k));
+				}
+				sb.append("}");
+			}
+			sb.append("]");
+		}
+		sb.append(" ]");
+		return sb.toString();
+	}
+}
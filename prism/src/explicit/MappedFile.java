@@ -0,0 +1,198 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * A (read-only) memory-mapped file, accessed with 64-bit (byte) offsets.
+ * Since a single mapped buffer is limited to 2GB, the file is mapped in chunks.
+ * All values are little-endian; for efficiency, ints/longs/doubles are assumed to
+ * be aligned to their size, so that none of them spans two chunks.
+ * Used by {@link MDPSparseMapped}, {@link DTMCSparseMapped} and {@link BinaryModelFile};
+ * files are written with {@link BinaryFileWriter}.
+ */
+class MappedFile
+{
+	/** Byte order for the file contents */
+	static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+	/** The file is mapped in chunks of 2^CHUNK_BITS bytes */
+	private static final int CHUNK_BITS = 30;
+	private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+	/** The file */
+	private final File file;
+	/** Size of the file (in bytes) */
+	private final long size;
+	/** Mapped chunks of the file */
+	private final ByteBuffer chunks[];
+
+	/**
+	 * Map the file {@code file} (read-only).
+	 */
+	MappedFile(File file) throws IOException
+	{
+		this.file = file;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			size = channel.size();
+			int numChunks = (int) ((size + CHUNK_MASK) >>> CHUNK_BITS);
+			chunks = new ByteBuffer[numChunks];
+			for (int c = 0; c < numChunks; c++) {
+				long start = ((long) c) << CHUNK_BITS;
+				chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << CHUNK_BITS, size - start)).order(ORDER);
+			}
+		}
+	}
+
+	/**
+	 * Round up an offset to a multiple of 8 bytes.
+	 */
+	static long align(long offset)
+	{
+		return (offset + 7) & ~7L;
+	}
+
+	/**
+	 * Get the file.
+	 */
+	File getFile()
+	{
+		return file;
+	}
+
+	/**
+	 * Get the size of the file (in bytes).
+	 */
+	long size()
+	{
+		return size;
+	}
+
+	byte getByte(long pos)
+	{
+		return chunks[(int) (pos >>> CHUNK_BITS)].get((int) (pos & CHUNK_MASK));
+	}
+
+	int getInt(long pos)
+	{
+		return chunks[(int) (pos >>> CHUNK_BITS)].getInt((int) (pos & CHUNK_MASK));
+	}
+
+	long getLong(long pos)
+	{
+		return chunks[(int) (pos >>> CHUNK_BITS)].getLong((int) (pos & CHUNK_MASK));
+	}
+
+	double getDouble(long pos)
+	{
+		return chunks[(int) (pos >>> CHUNK_BITS)].getDouble((int) (pos & CHUNK_MASK));
+	}
+
+	/**
+	 * Get a string, stored (as by {@link BinaryFileWriter#putString(String)})
+	 * as its length in bytes followed by its UTF-8 encoding.
+	 */
+	String getString(long pos)
+	{
+		byte bytes[] = new byte[getInt(pos)];
+		for (int b = 0; b < bytes.length; b++) {
+			bytes[b] = getByte(pos + 4 + b);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Get the number of bytes used to store a string at position {@code pos}
+	 * (including the length and the padding up to a multiple of 8 bytes).
+	 */
+	long getStringSize(long pos)
+	{
+		return align(4L + getInt(pos));
+	}
+
+	/**
+	 * Get a view of (part of) the chunk containing {@code pos}, starting from {@code pos}.
+	 */
+	private ByteBuffer view(long pos)
+	{
+		ByteBuffer buffer = chunks[(int) (pos >>> CHUNK_BITS)].duplicate().order(ORDER);
+		buffer.position((int) (pos & CHUNK_MASK));
+		return buffer;
+	}
+
+	/**
+	 * Copy {@code dest.length} ints, starting from position {@code pos}, into {@code dest}.
+	 */
+	void getInts(long pos, int dest[])
+	{
+		for (int off = 0, len = dest.length; len > 0;) {
+			ByteBuffer buffer = view(pos);
+			int n = Math.min(len, buffer.remaining() / 4);
+			buffer.asIntBuffer().get(dest, off, n);
+			pos += 4L * n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Copy {@code dest.length} doubles, starting from position {@code pos}, into {@code dest}.
+	 */
+	void getDoubles(long pos, double dest[])
+	{
+		for (int off = 0, len = dest.length; len > 0;) {
+			ByteBuffer buffer = view(pos);
+			int n = Math.min(len, buffer.remaining() / 8);
+			buffer.asDoubleBuffer().get(dest, off, n);
+			pos += 8L * n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Compute a (CRC32C) checksum of the bytes in the range [from, to)
+	 * (as computed by {@link BinaryFileWriter#getChecksum()}).
+	 */
+	long checksum(long from, long to)
+	{
+		CRC32C crc = new CRC32C();
+		while (from < to) {
+			ByteBuffer buffer = view(from);
+			int n = (int) Math.min(to - from, buffer.remaining());
+			buffer.limit(buffer.position() + n);
+			crc.update(buffer);
+			from += n;
+		}
+		return crc.getValue();
+	}
+}
@@ -395,6 +395,20 @@ public interface Model<Value>
 	 * @param precision number of significant digits >= 1
 	 */
 	public void exportToPrismExplicitTra(PrismLog log, int precision);
+
+	/**
+	 * Export to a binary file readable by PRISM (see {@link BinaryModelFile}), comprising
+	 * the transition matrix, states and initial/deadlock states, plus any labels and state rewards provided.
+	 * Only supported for DTMCs, CTMCs and MDPs with double-valued probabilities/rates.
+	 * @param file File to export to
+	 * @param varNames Names of the variables in the model's states (if null, taken from {@link #getVarList()}, if present)
+	 * @param labels Names and states of labels to export (may be null)
+	 * @param stateRewards Names and values of state reward structures to export (may be null)
+	 */
+	default void exportToPrismExplicitBinary(File file, List<String> varNames, Map<String, BitSet> labels, Map<String, double[]> stateRewards) throws PrismException
+	{
+		BinaryModelFile.write(this, varNames, labels, stateRewards, file);
+	}
 	
 	// Export methods (dot files)
 
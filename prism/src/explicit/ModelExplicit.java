@@ -78,6 +78,16 @@ public abstract class ModelExplicit<Value> implements Model<Value>
 	 * (Optionally) the stored predecessor relation. Becomes inaccurate after the model is changed!
 	 */
 	protected PredecessorRelation predecessorRelation = null;
+	/**
+	 * (Optionally) the stored incoming choice relation (for nondeterministic models).
+	 * Becomes inaccurate after the model is changed!
+	 */
+	protected IncomingChoiceRelation incomingChoiceRelation = null;
+	/**
+	 * (Optionally) the stored state reordering of this model (see {@link StateReordering}).
+	 * Becomes inaccurate after the model is changed!
+	 */
+	protected StateReordering<?> stateReordering = null;
 
 	// Mutators
 
@@ -95,6 +105,7 @@ public abstract class ModelExplicit<Value> implements Model<Value>
 	 */
 	public void copyFrom(Model<?> model)
 	{
+		transitionsChanged();
 		setEvaluator((Evaluator<Value>) model.getEvaluator());
 		numStates = model.getNumStates();
 		for (int in : model.getInitialStates()) {
@@ -119,6 +130,7 @@ public abstract class ModelExplicit<Value> implements Model<Value>
 	 */
 	public void copyFrom(Model<Value> model, int permut[])
 	{
+		transitionsChanged();
 		setEvaluator(model.getEvaluator());
 		numStates = model.getNumStates();
 		for (int in : model.getInitialStates()) {
@@ -140,6 +152,7 @@ public abstract class ModelExplicit<Value> implements Model<Value>
 	 */
 	public void initialise(int numStates)
 	{
+		transitionsChanged();
 		this.numStates = numStates;
 		initialStates = new ArrayList<Integer>();
 		deadlocks = new TreeSet<Integer>();
@@ -452,4 +465,16 @@ public abstract class ModelExplicit<Value> implements Model<Value>
 	public void clearPredecessorRelation() {
 		predecessorRelation = null;
 	}
+
+	/**
+	 * Clear any stored information that is derived from the transitions of the model
+	 * (e.g. the predecessor relation), since it is no longer accurate.
+	 * This needs to be called by all methods that modify the transitions (or the number of states).
+	 */
+	protected void transitionsChanged()
+	{
+		predecessorRelation = null;
+		incomingChoiceRelation = null;
+		stateReordering = null;
+	}
 }
@@ -301,6 +301,32 @@ public interface NondetModel<Value> extends Model<Value>
 		});
 	}
 
+	/** Has this model a stored IncomingChoiceRelation? */
+	public default boolean hasStoredIncomingChoiceRelation()
+	{
+		return false;
+	}
+
+	/**
+	 * If there is an IncomingChoiceRelation stored for this model, return that.
+	 * Otherwise, create one and return that. If {@code storeIfNew},
+	 * store it for later use (if supported by the model).
+	 * <br>
+	 * <i>Default implementation</i>: Always create a new one, without storing it.
+	 *
+	 * @param parent a PrismComponent (for obtaining the log)
+	 * @param storeIfNew if the incoming choice relation is newly created, store it
+	 */
+	public default IncomingChoiceRelation getIncomingChoiceRelation(prism.PrismComponent parent, boolean storeIfNew)
+	{
+		return IncomingChoiceRelation.forModel(parent, this);
+	}
+
+	/** Clear any stored incoming choice relation, e.g., because the model was modified */
+	public default void clearIncomingChoiceRelation()
+	{
+	}
+
 	/**
 	 * Construct a model that is induced by applying strategy {@code strat} to this model.
 	 * Note that the "new" model may be just an implicit (read-only) representation. 
@@ -0,0 +1,337 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+import parser.State;
+import parser.VarList;
+
+/**
+ * A dynamic set of states, each identified by an integer slot, which also supports removal.
+ * This is intended for algorithms that keep a changing window of states, such as
+ * fast adaptive uniformisation, and store per-state information in arrays indexed by slot.
+ * <br><br>
+ * Slots of removed states are recycled for states added later, so the slots in use
+ * always lie below {@link #getNumSlots()}, which is at most the maximum number of states
+ * stored at any one time. States are bit-packed by a {@link StatePacker} and kept
+ * in an open-addressing (linear probing) hash table of slots; removal uses backward-shift
+ * deletion, so no tombstones are needed. States that cannot be packed (e.g. because
+ * a variable value is out of range, or because no suitable {@link VarList} is available)
+ * are still supported, but are stored separately as {@link State} objects.
+ */
+class PackedStateIndex
+{
+	/** Initial capacity (number of slots) */
+	private static final int INITIAL_CAPACITY = 1 << 10;
+
+	/** Packing of states into longs (null if states are never packed) */
+	private final StatePacker packer;
+	/** Number of longs per state */
+	private final int numWords;
+
+	/** Packed states, {@code numWords} longs per slot */
+	private long[] data;
+	/** Hash table: slot + 1 for each table entry (0 = empty) */
+	private int[] table;
+	/** Slots currently in use */
+	private BitSet used;
+	/** Number of states stored */
+	private int size;
+	/** Number of slots ever used (all slots in use are below this) */
+	private int numSlots;
+	/** Stack of free slots below {@code numSlots} */
+	private int[] freeSlots;
+	/** Number of free slots on the stack */
+	private int numFree;
+	/** Slot of the last state added (or found) by {@link #add(State)} */
+	private int indexOfLastAdd;
+	/** Temporary storage for packing a state */
+	private long[] packed;
+	/** States that could not be packed, and their slots */
+	private HashMap<State, Integer> unpackedStates;
+	/** States that could not be packed, by slot (null for packed states; null if there are none) */
+	private State[] unpackedSlots;
+
+	/**
+	 * Create an index for states over the variables in {@code varList}.
+	 * If {@code varList} is null, or its variables are not all bounded integers or Booleans
+	 * (see {@link StatePacker#canPack(VarList)}), states are stored as {@link State} objects.
+	 */
+	public PackedStateIndex(VarList varList)
+	{
+		packer = (varList != null && StatePacker.canPack(varList)) ? new StatePacker(varList) : null;
+		numWords = packer == null ? 0 : packer.getNumWords();
+		packed = new long[numWords];
+		clear();
+	}
+
+	/**
+	 * Remove all states (and forget about all slots).
+	 */
+	public void clear()
+	{
+		data = new long[INITIAL_CAPACITY * numWords];
+		table = new int[2 * INITIAL_CAPACITY];
+		used = new BitSet();
+		size = 0;
+		numSlots = 0;
+		freeSlots = new int[16];
+		numFree = 0;
+		indexOfLastAdd = -1;
+		unpackedStates = new HashMap<>();
+		unpackedSlots = null;
+	}
+
+	/**
+	 * Add a state, if it is not already present, and return true if it was added.
+	 * Either way, its slot is then available from {@link #getIndexOfLastAdd()}.
+	 */
+	public boolean add(State state)
+	{
+		if (packer == null || !packer.pack(state, packed)) {
+			return addUnpacked(state);
+		}
+		int pos = findPosition(packed);
+		if (table[pos] != 0) {
+			indexOfLastAdd = table[pos] - 1;
+			return false;
+		}
+		int slot = allocateSlot();
+		System.arraycopy(packed, 0, data, slot * numWords, numWords);
+		table[pos] = slot + 1;
+		indexOfLastAdd = slot;
+		if (2 * (size - unpackedStates.size()) > table.length) {
+			rehash(2 * table.length);
+		}
+		return true;
+	}
+
+	/**
+	 * Get the slot of the last state added (or found to be present) by {@link #add(State)}.
+	 */
+	public int getIndexOfLastAdd()
+	{
+		return indexOfLastAdd;
+	}
+
+	/**
+	 * Get the slot of a state, or -1 if it is not stored.
+	 */
+	public int get(State state)
+	{
+		if (packer == null || !packer.pack(state, packed)) {
+			Integer slot = unpackedStates.get(state);
+			return slot == null ? -1 : slot;
+		}
+		return table[findPosition(packed)] - 1;
+	}
+
+	/**
+	 * Get the state in slot {@code slot} (a new State object is created).
+	 */
+	public State getState(int slot)
+	{
+		if (unpackedSlots != null && unpackedSlots[slot] != null) {
+			return new State(unpackedSlots[slot]);
+		}
+		return packer.unpack(data, slot * numWords);
+	}
+
+	/**
+	 * Remove the state in slot {@code slot}, which may then be reused for another state.
+	 */
+	public void remove(int slot)
+	{
+		if (!used.get(slot)) {
+			return;
+		}
+		if (unpackedSlots != null && unpackedSlots[slot] != null) {
+			unpackedStates.remove(unpackedSlots[slot]);
+			unpackedSlots[slot] = null;
+		} else {
+			removeFromTable(slot);
+		}
+		used.clear(slot);
+		size--;
+		if (numFree == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, 2 * freeSlots.length);
+		}
+		freeSlots[numFree++] = slot;
+	}
+
+	/**
+	 * Is slot {@code slot} currently in use?
+	 */
+	public boolean isUsed(int slot)
+	{
+		return used.get(slot);
+	}
+
+	/**
+	 * Get the first slot in use that is greater than or equal to {@code slot}, or -1 if there is none
+	 * (for iteration, in the style of {@link BitSet#nextSetBit(int)}).
+	 */
+	public int nextUsed(int slot)
+	{
+		return used.nextSetBit(slot);
+	}
+
+	/**
+	 * Get the number of slots ever used: all slots currently in use are below this value.
+	 */
+	public int getNumSlots()
+	{
+		return numSlots;
+	}
+
+	/**
+	 * Get the number of states stored.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	// Local utility methods
+
+	/**
+	 * Get a slot for a new state (recycling a free one, if possible) and mark it as used.
+	 */
+	private int allocateSlot()
+	{
+		int slot;
+		if (numFree > 0) {
+			slot = freeSlots[--numFree];
+		} else {
+			slot = numSlots++;
+			if (numSlots * numWords > data.length) {
+				data = Arrays.copyOf(data, 2 * data.length);
+			}
+		}
+		used.set(slot);
+		size++;
+		return slot;
+	}
+
+	/**
+	 * Add a state that cannot be packed.
+	 */
+	private boolean addUnpacked(State state)
+	{
+		Integer i = unpackedStates.get(state);
+		if (i != null) {
+			indexOfLastAdd = i;
+			return false;
+		}
+		int slot = allocateSlot();
+		if (unpackedSlots == null) {
+			unpackedSlots = new State[Math.max(INITIAL_CAPACITY, numSlots)];
+		} else if (slot >= unpackedSlots.length) {
+			unpackedSlots = Arrays.copyOf(unpackedSlots, Math.max(2 * unpackedSlots.length, numSlots));
+		}
+		State copy = new State(state);
+		unpackedStates.put(copy, slot);
+		unpackedSlots[slot] = copy;
+		indexOfLastAdd = slot;
+		return true;
+	}
+
+	/**
+	 * Get the (preferred) hash table position for the packed state in slot {@code slot}.
+	 */
+	private int homePosition(int slot)
+	{
+		return packer.hash(data, slot * numWords) & (table.length - 1);
+	}
+
+	/**
+	 * Find the hash table position for a packed state: either the position
+	 * containing it, or the (empty) position where it should be inserted.
+	 */
+	private int findPosition(long[] packed)
+	{
+		int tableMask = table.length - 1;
+		int pos = packer.hash(packed, 0) & tableMask;
+		while (true) {
+			int entry = table[pos];
+			if (entry == 0 || packer.equals(packed, data, (entry - 1) * numWords)) {
+				return pos;
+			}
+			pos = (pos + 1) & tableMask;
+		}
+	}
+
+	/**
+	 * Remove the (packed) state in slot {@code slot} from the hash table,
+	 * shifting back later entries of the probe sequence to fill the gap.
+	 */
+	private void removeFromTable(int slot)
+	{
+		int tableMask = table.length - 1;
+		int pos = homePosition(slot);
+		while (table[pos] != slot + 1) {
+			pos = (pos + 1) & tableMask;
+		}
+		table[pos] = 0;
+		int next = pos;
+		while (true) {
+			next = (next + 1) & tableMask;
+			if (table[next] == 0) {
+				return;
+			}
+			// Move the entry at "next" into the gap, unless its home position
+			// lies (cyclically) in between the gap and "next"
+			int home = homePosition(table[next] - 1);
+			boolean between = pos <= next ? (pos < home && home <= next) : (pos < home || home <= next);
+			if (!between) {
+				table[pos] = table[next];
+				table[next] = 0;
+				pos = next;
+			}
+		}
+	}
+
+	/**
+	 * Resize the hash table and reinsert all packed states.
+	 */
+	private void rehash(int newLength)
+	{
+		table = new int[newLength];
+		int tableMask = newLength - 1;
+		for (int slot = used.nextSetBit(0); slot >= 0; slot = used.nextSetBit(slot + 1)) {
+			if (unpackedSlots != null && unpackedSlots[slot] != null) {
+				continue;
+			}
+			int pos = packer.hash(data, slot * numWords) & tableMask;
+			while (table[pos] != 0) {
+				pos = (pos + 1) & tableMask;
+			}
+			table[pos] = slot + 1;
+		}
+	}
+}
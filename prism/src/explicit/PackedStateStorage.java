@@ -0,0 +1,407 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import parser.State;
+import parser.VarList;
+
+/**
+ * Compact storage for a set of states, typically used during reachability.
+ * <br><br>
+ * Each state is bit-packed into one or more longs by a {@link StatePacker}, using the variable bounds
+ * from a {@link VarList} (so all variables must be bounded integers or Booleans, see {@link #canStore(VarList)}).
+ * States are indexed in the order they are added and kept in an open-addressing hash table
+ * of int indices, so no {@link State} objects are stored; these are created on demand,
+ * e.g. for {@link #toArrayList()}. Variable 0 occupies the most significant bits,
+ * so comparing packed states word by word matches the natural ordering of {@link State}s,
+ * which is what {@link #buildSortingPermutation()} uses.
+ * <br><br>
+ * States that cannot be packed (e.g. because a variable value is out of range)
+ * are still supported, but are stored separately as {@link State} objects.
+ */
+public class PackedStateStorage implements StateStorage<State>
+{
+	/** Initial capacity (number of states) */
+	private static final int INITIAL_CAPACITY = 1 << 10;
+
+	/** Packing of states into longs */
+	private StatePacker packer;
+	/** Number of longs per state */
+	private int numWords;
+
+	// Storage
+
+	/** Packed states, {@code numWords} longs per state, indexed by state index */
+	private long[] data;
+	/** Hash table: state index + 1 for each slot (0 = empty) */
+	private int[] table;
+	/** Number of states stored */
+	private int size;
+	/** Index of the last state added (or found) by {@link #add(State)} */
+	private int indexOfLastAdd;
+	/** Temporary storage for packing a state */
+	private long[] packed;
+	/** Indices of states that could not be packed */
+	private BitSet unpacked;
+	/** States that could not be packed, and their indices */
+	private HashMap<State, Integer> unpackedStates;
+	/** States that could not be packed, by index */
+	private HashMap<Integer, State> unpackedIndices;
+
+	/**
+	 * Check whether states for the variables in {@code varList} can be stored
+	 * using this class, i.e., whether they are all bounded integers or Booleans.
+	 */
+	public static boolean canStore(VarList varList)
+	{
+		return StatePacker.canPack(varList);
+	}
+
+	/**
+	 * Create storage for states over the variables in {@code varList}.
+	 * All variables should be bounded integers or Booleans (see {@link #canStore(VarList)}).
+	 */
+	public PackedStateStorage(VarList varList)
+	{
+		packer = new StatePacker(varList);
+		numWords = packer.getNumWords();
+		packed = new long[numWords];
+		clear();
+	}
+
+	@Override
+	public void clear()
+	{
+		data = new long[INITIAL_CAPACITY * numWords];
+		table = new int[2 * INITIAL_CAPACITY];
+		size = 0;
+		indexOfLastAdd = -1;
+		unpacked = new BitSet();
+		unpackedStates = new HashMap<>();
+		unpackedIndices = new HashMap<>();
+	}
+
+	@Override
+	public boolean add(State state)
+	{
+		if (!packer.pack(state, packed)) {
+			return addUnpacked(state);
+		}
+		int slot = findSlot(packed);
+		if (table[slot] != 0) {
+			indexOfLastAdd = table[slot] - 1;
+			return false;
+		}
+		// New state: store it and add to hash table
+		if ((size + 1) * numWords > data.length) {
+			data = Arrays.copyOf(data, 2 * data.length);
+		}
+		System.arraycopy(packed, 0, data, size * numWords, numWords);
+		table[slot] = size + 1;
+		indexOfLastAdd = size;
+		size++;
+		if (2 * size > table.length) {
+			rehash(2 * table.length);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean contains(State state)
+	{
+		return get(state) != -1;
+	}
+
+	/**
+	 * Get the index of a state, or -1 if it is not stored.
+	 */
+	@Override
+	public int get(State state)
+	{
+		if (!packer.pack(state, packed)) {
+			Integer i = unpackedStates.get(state);
+			return i == null ? -1 : i;
+		}
+		return table[findSlot(packed)] - 1;
+	}
+
+	@Override
+	public int getIndexOfLastAdd()
+	{
+		return indexOfLastAdd;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Get the state with index {@code i} (a new State object is created).
+	 */
+	public State getState(int i)
+	{
+		if (unpacked.get(i)) {
+			return new State(unpackedIndices.get(i));
+		}
+		return packer.unpack(data, i * numWords);
+	}
+
+	/**
+	 * Get access to the states and their indices, as map entries.
+	 * The State objects are created on demand during iteration.
+	 */
+	@Override
+	public Set<Map.Entry<State, Integer>> getEntrySet()
+	{
+		return new AbstractSet<Map.Entry<State, Integer>>()
+		{
+			@Override
+			public Iterator<Map.Entry<State, Integer>> iterator()
+			{
+				return new Iterator<Map.Entry<State, Integer>>()
+				{
+					int i = 0;
+
+					@Override
+					public boolean hasNext()
+					{
+						return i < size;
+					}
+
+					@Override
+					public Map.Entry<State, Integer> next()
+					{
+						if (i >= size) {
+							throw new NoSuchElementException();
+						}
+						Map.Entry<State, Integer> entry = new AbstractMap.SimpleImmutableEntry<>(getState(i), i);
+						i++;
+						return entry;
+					}
+				};
+			}
+
+			@Override
+			public int size()
+			{
+				return size;
+			}
+		};
+	}
+
+	@Override
+	public ArrayList<State> toArrayList()
+	{
+		ArrayList<State> list = new ArrayList<State>(size);
+		toArrayList(list);
+		return list;
+	}
+
+	@Override
+	public void toArrayList(ArrayList<State> list)
+	{
+		for (int i = 0; i < size; i++) {
+			list.add(getState(i));
+		}
+	}
+
+	@Override
+	public ArrayList<State> toPermutedArrayList(int permut[])
+	{
+		ArrayList<State> list = new ArrayList<State>(size);
+		toPermutedArrayList(permut, list);
+		return list;
+	}
+
+	@Override
+	public void toPermutedArrayList(int permut[], ArrayList<State> list)
+	{
+		for (int i = 0; i < size; i++) {
+			list.add(null);
+		}
+		for (int i = 0; i < size; i++) {
+			list.set(permut[i], getState(i));
+		}
+	}
+
+	/**
+	 * Build sort permutation, i.e., a permutation (integer array) mapping current indices
+	 * to new indices under the natural ordering of {@link State} objects.
+	 * Unlike {@link IndexedSet}, this is done as a post-pass (a merge sort on the packed states).
+	 */
+	@Override
+	public int[] buildSortingPermutation()
+	{
+		int sorted[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			sorted[i] = i;
+		}
+		mergeSort(sorted, new int[size], 0, size);
+		int perm[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			perm[sorted[i]] = i;
+		}
+		return perm;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(getState(i)).append("=").append(i);
+		}
+		return sb.append("}").toString();
+	}
+
+	// Local utility methods
+
+	/**
+	 * Add a state that cannot be packed.
+	 */
+	private boolean addUnpacked(State state)
+	{
+		Integer i = unpackedStates.get(state);
+		if (i != null) {
+			indexOfLastAdd = i;
+			return false;
+		}
+		// Reserve (zeroed) space in the packed storage too, to keep indices aligned
+		if ((size + 1) * numWords > data.length) {
+			data = Arrays.copyOf(data, 2 * data.length);
+		}
+		State copy = new State(state);
+		unpackedStates.put(copy, size);
+		unpackedIndices.put(size, copy);
+		unpacked.set(size);
+		indexOfLastAdd = size;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Find the hash table slot for a packed state: either the slot
+	 * containing it, or the (empty) slot where it should be inserted.
+	 */
+	private int findSlot(long[] packed)
+	{
+		int tableMask = table.length - 1;
+		int slot = packer.hash(packed, 0) & tableMask;
+		while (true) {
+			int entry = table[slot];
+			if (entry == 0 || packer.equals(packed, data, (entry - 1) * numWords)) {
+				return slot;
+			}
+			slot = (slot + 1) & tableMask;
+		}
+	}
+
+	/**
+	 * Resize the hash table and reinsert all states.
+	 */
+	private void rehash(int newLength)
+	{
+		table = new int[newLength];
+		int tableMask = newLength - 1;
+		for (int i = 0; i < size; i++) {
+			if (unpacked.get(i)) {
+				continue;
+			}
+			int slot = packer.hash(data, i * numWords) & tableMask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & tableMask;
+			}
+			table[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * Compare the stored states with indices {@code i} and {@code j}.
+	 */
+	private int compareStored(int i, int j)
+	{
+		if (unpacked.get(i) || unpacked.get(j)) {
+			return getState(i).compareTo(getState(j));
+		}
+		int baseI = i * numWords;
+		int baseJ = j * numWords;
+		for (int w = 0; w < numWords; w++) {
+			int c = Long.compareUnsigned(data[baseI + w], data[baseJ + w]);
+			if (c != 0) {
+				return c;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Sort (stably) the state indices in {@code a[lo..hi)}, using {@code tmp} as scratch space.
+	 */
+	private void mergeSort(int[] a, int[] tmp, int lo, int hi)
+	{
+		if (hi - lo < 2) {
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		mergeSort(a, tmp, lo, mid);
+		mergeSort(a, tmp, mid, hi);
+		if (compareStored(a[mid - 1], a[mid]) <= 0) {
+			return;
+		}
+		System.arraycopy(a, lo, tmp, lo, hi - lo);
+		int i = lo, j = mid, k = lo;
+		while (i < mid && j < hi) {
+			a[k++] = compareStored(tmp[i], tmp[j]) <= 0 ? tmp[i++] : tmp[j++];
+		}
+		while (i < mid) {
+			a[k++] = tmp[i++];
+		}
+		while (j < hi) {
+			a[k++] = tmp[j++];
+		}
+	}
+}
@@ -0,0 +1,474 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import parser.State;
+import prism.ModelGenerator;
+import prism.PrismException;
+import prism.ProgressDisplay;
+
+/**
+ * Multi-threaded explicit-state reachability, used by {@link ConstructModel}.
+ * <br><br>
+ * States are explored by a {@link ForkJoinPool} (i.e., with work stealing): each task explores
+ * a small batch of states and forks new tasks for batches of the new states that it finds,
+ * which idle worker threads steal from the others. Each worker thread has its own copy of the
+ * {@link ModelGenerator} (see {@link ModelGenerator#createExplorationCopy()}).
+ * Newly found states are stored in a concurrent hash map, which assigns them a
+ * temporary index. Once exploration is complete, the states are renumbered in
+ * the order in which a sequential breadth-first search would have found them,
+ * so that the resulting model is identical to the one built sequentially.
+ */
+public class ParallelStateExplorer<Value>
+{
+	/** Maximum number of states explored by one task */
+	private static final int CHUNK_SIZE = 64;
+
+	/** Interval between progress display updates, in milliseconds */
+	private static final long PROGRESS_INTERVAL = 200;
+
+	/** Info about an explored state (outgoing choices/transitions, with temporary state indices) */
+	private static class ExploredState
+	{
+		final State state;
+		final int id;
+		int[] choiceStarts;
+		Object[] actions;
+		int[] targets;
+		// Probabilities/rates: unboxed if the model generator's values are doubles, otherwise as objects
+		double[] probsDouble;
+		Object[] probs;
+
+		ExploredState(State state, int id)
+		{
+			this.state = state;
+			this.id = id;
+		}
+	}
+
+	/**
+	 * Worker thread for exploration, which takes a model generator copy from
+	 * a shared queue when it starts, and returns it when it terminates.
+	 */
+	private static class ExplorerThread<Value> extends ForkJoinWorkerThread
+	{
+		final ModelGenerator<Value> modelGen;
+		final ConcurrentLinkedQueue<ModelGenerator<Value>> freeModelGens;
+
+		ExplorerThread(ForkJoinPool pool, ModelGenerator<Value> modelGen, ConcurrentLinkedQueue<ModelGenerator<Value>> freeModelGens)
+		{
+			super(pool);
+			this.modelGen = modelGen;
+			this.freeModelGens = freeModelGens;
+		}
+
+		@Override
+		protected void onTermination(Throwable exception)
+		{
+			freeModelGens.add(modelGen);
+			super.onTermination(exception);
+		}
+	}
+
+	/**
+	 * Exploration task: explores a batch of states and forks new tasks
+	 * (with this one as completer) for the new states found.
+	 */
+	private class ExploreTask extends CountedCompleter<Void>
+	{
+		private final List<ExploredState> batch;
+
+		ExploreTask(CountedCompleter<?> completer, List<ExploredState> batch)
+		{
+			super(completer);
+			this.batch = batch;
+		}
+
+		@Override
+		public void compute()
+		{
+			@SuppressWarnings("unchecked")
+			ModelGenerator<Value> modelGen = ((ExplorerThread<Value>) Thread.currentThread()).modelGen;
+			long start = cpuTime ? threadBean.getCurrentThreadCpuTime() : System.nanoTime();
+			List<ExploredState> found = new ArrayList<>();
+			try {
+				for (ExploredState es : batch) {
+					exploreState(modelGen, es, found);
+					if (found.size() >= CHUNK_SIZE) {
+						forkTask(found);
+						found = new ArrayList<>();
+					}
+				}
+			} catch (PrismException e) {
+				throw new ExplorationException(e);
+			}
+			if (!found.isEmpty()) {
+				forkTask(found);
+			}
+			busyTime.add((cpuTime ? threadBean.getCurrentThreadCpuTime() : System.nanoTime()) - start);
+			tryComplete();
+		}
+
+		private void forkTask(List<ExploredState> found)
+		{
+			addToPendingCount(1);
+			new ExploreTask(this, found).fork();
+		}
+	}
+
+	/**
+	 * Unchecked wrapper for a PrismException thrown during exploration.
+	 */
+	@SuppressWarnings("serial")
+	private static class ExplorationException extends RuntimeException
+	{
+		ExplorationException(PrismException cause)
+		{
+			super(cause);
+		}
+	}
+
+	/** Model generators, one per worker thread */
+	private List<ModelGenerator<Value>> modelGens;
+	/** Are the model generator's values doubles (stored unboxed)? */
+	private boolean doubleProbs;
+
+	// State used during exploration
+	private ConcurrentHashMap<State, ExploredState> stateMap;
+	private AtomicInteger nextId;
+	private LongAdder busyTime;
+	private ThreadMXBean threadBean;
+	private boolean cpuTime;
+
+	/** Explored states, indexed by temporary index */
+	private ExploredState[] explored;
+	/** Final (sequential) index to temporary index */
+	private int[] order;
+	/** Temporary index to final (sequential) index */
+	private int[] newIndex;
+	/** Number of initial states (these always get indices 0,...,numInitialStates-1) */
+	private int numInitialStates;
+
+	/** Total (wall clock) time for exploration, in nanoseconds */
+	private long timeExplore;
+	/** Sum of (CPU, where available) time spent exploring states by all worker threads, in nanoseconds */
+	private long timeBusy;
+
+	/**
+	 * Create a parallel explorer for a model, using one copy of the model generator per thread.
+	 * The first copy should be the original model generator; others should be
+	 * obtained via {@link ModelGenerator#createExplorationCopy()}.
+	 */
+	public ParallelStateExplorer(List<ModelGenerator<Value>> modelGens)
+	{
+		this.modelGens = modelGens;
+		doubleProbs = modelGens.get(0).getEvaluator().one() instanceof Double;
+	}
+
+	/**
+	 * Explore all reachable states and then renumber them in sequential breadth-first order.
+	 * @param progress Progress display to update (with the number of states found) during exploration
+	 */
+	public void explore(ProgressDisplay progress) throws PrismException
+	{
+		long timer = System.nanoTime();
+		stateMap = new ConcurrentHashMap<>();
+		nextId = new AtomicInteger(0);
+		busyTime = new LongAdder();
+		threadBean = ManagementFactory.getThreadMXBean();
+		cpuTime = threadBean.isCurrentThreadCpuTimeSupported();
+
+		// Initial states form the first batch to explore
+		List<ExploredState> initial = new ArrayList<>();
+		for (State initState : modelGens.get(0).getInitialStates()) {
+			ExploredState es = stateMap.computeIfAbsent(initState, k -> new ExploredState(k, nextId.getAndIncrement()));
+			if (es.state == initState) {
+				initial.add(es);
+			}
+		}
+		numInitialStates = initial.size();
+
+		// Explore (the pool only ever has one worker thread per model generator)
+		ConcurrentLinkedQueue<ModelGenerator<Value>> freeModelGens = new ConcurrentLinkedQueue<>(modelGens);
+		ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+			ModelGenerator<Value> modelGen = freeModelGens.poll();
+			return modelGen == null ? null : new ExplorerThread<>(pool, modelGen, freeModelGens);
+		};
+		ForkJoinPool pool = new ForkJoinPool(modelGens.size(), factory, null, true);
+		try {
+			ExploreTask root = new ExploreTask(null, initial);
+			pool.execute(root);
+			waitFor(root, progress);
+		} finally {
+			pool.shutdownNow();
+		}
+		timeExplore = System.nanoTime() - timer;
+		timeBusy = busyTime.sum();
+
+		// Store explored states by temporary index
+		int numStates = nextId.get();
+		explored = new ExploredState[numStates];
+		for (ExploredState es : stateMap.values()) {
+			explored[es.id] = es;
+		}
+		stateMap = null;
+
+		// Renumber states in the order a sequential BFS would have found them
+		newIndex = new int[numStates];
+		Arrays.fill(newIndex, -1);
+		order = new int[numStates];
+		int count = 0;
+		for (int i = 0; i < numInitialStates; i++) {
+			newIndex[i] = count;
+			order[count++] = i;
+		}
+		for (int head = 0; head < count; head++) {
+			for (int t : explored[order[head]].targets) {
+				if (newIndex[t] == -1) {
+					newIndex[t] = count;
+					order[count++] = t;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Explore a single state, storing its outgoing transitions and adding any new states to {@code found}.
+	 */
+	private void exploreState(ModelGenerator<Value> modelGen, ExploredState es, List<ExploredState> found) throws PrismException
+	{
+		modelGen.exploreState(es.state);
+		int nc = modelGen.getNumChoices();
+		int[] choiceStarts = new int[nc + 1];
+		Object[] actions = new Object[nc];
+		int nt = 0;
+		for (int i = 0; i < nc; i++) {
+			choiceStarts[i] = nt;
+			actions[i] = modelGen.getChoiceAction(i);
+			nt += modelGen.getNumTransitions(i);
+		}
+		choiceStarts[nc] = nt;
+		int[] targets = new int[nt];
+		double[] probsDouble = doubleProbs ? new double[nt] : null;
+		Object[] probs = doubleProbs ? null : new Object[nt];
+		for (int i = 0; i < nc; i++) {
+			int ntChoice = choiceStarts[i + 1] - choiceStarts[i];
+			for (int j = 0; j < ntChoice; j++) {
+				State stateNew = modelGen.computeTransitionTarget(i, j);
+				// Look up the state, adding it if new (this is atomic)
+				ExploredState esNew = stateMap.computeIfAbsent(stateNew, k -> new ExploredState(k, nextId.getAndIncrement()));
+				// If this thread added it, it needs to be explored
+				if (esNew.state == stateNew) {
+					found.add(esNew);
+				}
+				targets[choiceStarts[i] + j] = esNew.id;
+				if (doubleProbs) {
+					probsDouble[choiceStarts[i] + j] = (Double) modelGen.getTransitionProbability(i, j);
+				} else {
+					probs[choiceStarts[i] + j] = modelGen.getTransitionProbability(i, j);
+				}
+			}
+		}
+		es.choiceStarts = choiceStarts;
+		es.actions = actions;
+		es.targets = targets;
+		es.probsDouble = probsDouble;
+		es.probs = probs;
+	}
+
+	/**
+	 * Wait for exploration to finish, updating the progress display periodically,
+	 * and unwrapping any PrismException thrown by a worker thread.
+	 */
+	private void waitFor(ExploreTask root, ProgressDisplay progress) throws PrismException
+	{
+		while (true) {
+			try {
+				root.get(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+				return;
+			} catch (TimeoutException e) {
+				progress.updateIfReady(nextId.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new PrismException("Interrupted during parallel model construction");
+			} catch (ExecutionException e) {
+				// (the exception may be re-created by the pool, so look through all causes)
+				for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+					if (cause instanceof PrismException) {
+						throw (PrismException) cause;
+					}
+				}
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new PrismException("Error during parallel model construction: " + cause);
+			}
+		}
+	}
+
+	// Accessors for the explored model (all state indices are the final, sequential ones)
+
+	/**
+	 * Get the number of reachable states.
+	 */
+	public int getNumStates()
+	{
+		return order.length;
+	}
+
+	/**
+	 * Get the number of initial states (these are numbered 0,...,n-1).
+	 */
+	public int getNumInitialStates()
+	{
+		return numInitialStates;
+	}
+
+	/**
+	 * Get the {@code s}th state.
+	 */
+	public State getState(int s)
+	{
+		return explored[order[s]].state;
+	}
+
+	/**
+	 * Get the list of reachable states, in order.
+	 */
+	public List<State> getStatesList()
+	{
+		int numStates = getNumStates();
+		List<State> list = new ArrayList<>(numStates);
+		for (int s = 0; s < numStates; s++) {
+			list.add(getState(s));
+		}
+		return list;
+	}
+
+	/**
+	 * Get the number of choices in state {@code s}.
+	 */
+	public int getNumChoices(int s)
+	{
+		return explored[order[s]].actions.length;
+	}
+
+	/**
+	 * Get the action label of choice {@code i} in state {@code s}.
+	 */
+	public Object getChoiceAction(int s, int i)
+	{
+		return explored[order[s]].actions[i];
+	}
+
+	/**
+	 * Get the number of transitions in choice {@code i} of state {@code s}.
+	 */
+	public int getNumTransitions(int s, int i)
+	{
+		int[] choiceStarts = explored[order[s]].choiceStarts;
+		return choiceStarts[i + 1] - choiceStarts[i];
+	}
+
+	/**
+	 * Get the target of the {@code j}th transition in choice {@code i} of state {@code s}.
+	 */
+	public int getTransitionTarget(int s, int i, int j)
+	{
+		ExploredState es = explored[order[s]];
+		return newIndex[es.targets[es.choiceStarts[i] + j]];
+	}
+
+	/**
+	 * Get the probability/rate of the {@code j}th transition in choice {@code i} of state {@code s}.
+	 */
+	@SuppressWarnings("unchecked")
+	public Value getTransitionProbability(int s, int i, int j)
+	{
+		ExploredState es = explored[order[s]];
+		return (Value) (es.probsDouble != null ? Double.valueOf(es.probsDouble[es.choiceStarts[i] + j]) : es.probs[es.choiceStarts[i] + j]);
+	}
+
+	/**
+	 * Get the probability/rate of the {@code j}th transition in choice {@code i} of state {@code s},
+	 * for a model generator with double values (without boxing).
+	 */
+	public double getTransitionProbabilityDouble(int s, int i, int j)
+	{
+		ExploredState es = explored[order[s]];
+		return es.probsDouble[es.choiceStarts[i] + j];
+	}
+
+	/**
+	 * Free the stored transition info for state {@code s} (once it has been added to a model).
+	 */
+	public void clearState(int s)
+	{
+		ExploredState es = explored[order[s]];
+		es.choiceStarts = null;
+		es.actions = null;
+		es.targets = null;
+		es.probsDouble = null;
+		es.probs = null;
+	}
+
+	/**
+	 * Get the (wall clock) time taken for exploration, in milliseconds.
+	 */
+	public long getExplorationTime()
+	{
+		return timeExplore / 1000000;
+	}
+
+	/**
+	 * Get the speedup of exploration over sequential exploration, estimated as the total
+	 * (CPU) time that all worker threads spent exploring states, i.e., roughly the time
+	 * that a single thread would have needed, divided by the wall clock exploration time.
+	 */
+	public double getSpeedup()
+	{
+		return timeExplore == 0 ? 1.0 : ((double) timeBusy) / timeExplore;
+	}
+}
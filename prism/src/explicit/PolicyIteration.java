@@ -0,0 +1,315 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+
+import explicit.rewards.MDPRewards;
+import prism.PrismException;
+import prism.PrismLog;
+import prism.PrismUtils;
+
+/**
+ * Policy iteration for reachability probabilities and expected reachability rewards of MDPs.
+ * <br>
+ * The linear equation system for the current policy, restricted to the "unknown" states,
+ * is stored as a single sparse matrix (one row per unknown state, with enough capacity for
+ * any of the state's choices). After each improvement step, only the rows of states whose
+ * choice changed are rewritten, and each policy evaluation is warm-started from the values
+ * of the previous policy. Policies are evaluated using a {@link SparseLinearSolver},
+ * optionally SCC by SCC (in reverse topological order of the policy's graph).
+ */
+public class PolicyIteration
+{
+	// Model checker (for settings and log)
+	protected final ProbModelChecker mc;
+	// The MDP and rewards (null for probabilities)
+	protected final MDP<Double> mdp;
+	protected final MDPRewards<Double> mdpRewards;
+	// Min or max?
+	protected final boolean min;
+	// The states (rows) to solve for
+	protected final BitSet unknown;
+	protected final int numRows;
+	protected final int rowToState[];
+	protected final int stateToRow[];
+	// The linear equation system for the current policy
+	protected final int rowStart[];
+	protected final int rowEnd[];
+	protected final int cols[];
+	protected final double vals[];
+	protected final double b[];
+	// Solver for policy evaluation
+	protected final SparseLinearSolver solver;
+
+	// Statistics
+	protected int numCycles;
+	protected int numIters;
+	protected int numUpdates;
+	// Has the fallback (for Krylov methods) been reported?
+	protected boolean fallbackLogged;
+
+	/**
+	 * Create policy iteration for an MDP, for the states in {@code unknown}.
+	 * @param mc Model checker (for settings and log)
+	 * @param mdp The MDP
+	 * @param mdpRewards The rewards (null for probabilities)
+	 * @param unknown States to compute values for
+	 * @param min Min or max (true=min, false=max)
+	 */
+	public PolicyIteration(ProbModelChecker mc, MDP<Double> mdp, MDPRewards<Double> mdpRewards, BitSet unknown, boolean min)
+	{
+		this.mc = mc;
+		this.mdp = mdp;
+		this.mdpRewards = mdpRewards;
+		this.unknown = unknown;
+		this.min = min;
+		// Number the unknown states
+		numRows = unknown.cardinality();
+		rowToState = new int[numRows];
+		stateToRow = new int[mdp.getNumStates()];
+		int r = 0;
+		for (int s = unknown.nextSetBit(0); s >= 0; s = unknown.nextSetBit(s + 1)) {
+			rowToState[r] = s;
+			stateToRow[s] = r++;
+		}
+		// Allocate rows, with capacity for the largest choice of each state
+		rowStart = new int[numRows];
+		rowEnd = new int[numRows];
+		int capacity = 0;
+		for (r = 0; r < numRows; r++) {
+			rowStart[r] = rowEnd[r] = capacity;
+			int s = rowToState[r];
+			int maxTransitions = 0;
+			for (int i = 0, numChoices = mdp.getNumChoices(s); i < numChoices; i++) {
+				maxTransitions = Math.max(maxTransitions, mdp.getNumTransitions(s, i));
+			}
+			capacity += maxTransitions;
+		}
+		cols = new int[capacity];
+		vals = new double[capacity];
+		b = new double[numRows];
+		solver = new SparseLinearSolver(numRows, rowStart, rowEnd, cols, vals, b);
+		solver.setPreconditioner(mc.getLinEqPreconditioner());
+		solver.setNumThreads(mc.getNumThreads());
+	}
+
+	/**
+	 * Set the method and termination criterion for policy evaluation.
+	 */
+	public void setSolver(SparseLinearSolver.Method method, boolean absolute, double epsilon, int maxIters)
+	{
+		solver.setMethod(method);
+		solver.setTermCrit(absolute, epsilon, maxIters);
+	}
+
+	/**
+	 * Run policy iteration.
+	 * @param soln Solution vector, containing the (fixed) values for states that are not unknown,
+	 * and initial values for the unknown ones; the result is stored here.
+	 * @param strat Initial strategy for the unknown states (must be proper, i.e., reach a non-unknown state with probability 1);
+	 * the optimal strategy is stored here.
+	 * @param topological Evaluate policies SCC by SCC?
+	 * @param errorOnNonConverge Is non-convergence of policy evaluation an error? (if not, this implements modified policy iteration)
+	 */
+	public void solve(double soln[], int strat[], boolean topological, boolean errorOnNonConverge) throws PrismException
+	{
+		PrismLog log = mc.getLog();
+		double x[] = new double[numRows];
+		for (int r = 0; r < numRows; r++) {
+			setRow(r, strat[rowToState[r]], soln);
+			x[r] = soln[rowToState[r]];
+		}
+		int rows[] = new int[numRows];
+		for (int r = 0; r < numRows; r++) {
+			rows[r] = r;
+		}
+		fallbackLogged = false;
+
+		numCycles = numIters = numUpdates = 0;
+		boolean done = false;
+		while (!done && numCycles < mc.maxIters) {
+			numCycles++;
+			// Evaluate the current policy (warm-started from the previous solution)
+			boolean evaluated = true;
+			if (topological) {
+				SCCInfo sccs = SCCComputer.computeTopologicalOrdering(mc, new DTMCFromMDPMemorylessAdversary<>(mdp, strat), true, unknown::get);
+				int pos = 0;
+				for (int scc = 0, numSCCs = sccs.getNumSCCs(); scc < numSCCs; scc++) {
+					int from = pos;
+					PrimitiveIterator.OfInt it = sccs.getStatesForSCC(scc).iterator();
+					while (it.hasNext()) {
+						rows[pos++] = stateToRow[it.nextInt()];
+					}
+					evaluated &= evaluate(x, rows, from, pos, errorOnNonConverge);
+				}
+			} else {
+				evaluated = evaluate(x, rows, 0, numRows, errorOnNonConverge);
+			}
+			for (int r = 0; r < numRows; r++) {
+				soln[rowToState[r]] = x[r];
+			}
+			// Improve non-optimal choices (only if strictly better, to ensure termination)
+			done = true;
+			for (int r = 0; r < numRows; r++) {
+				int s = rowToState[r];
+				double best = mdpRewards == null ? mdp.mvMultMinMaxSingle(s, soln, min, null) : mdp.mvMultRewMinMaxSingle(s, soln, mdpRewards, min, null);
+				if (PrismUtils.doublesAreClose(soln[s], best, mc.termCritParam, mc.termCrit == ProbModelChecker.TermCrit.ABSOLUTE)) {
+					continue;
+				}
+				List<Integer> opt = mdpRewards == null ? mdp.mvMultMinMaxSingleChoices(s, soln, min, best) : mdp.mvMultRewMinMaxSingleChoices(s, soln, mdpRewards, min, best);
+				if (!opt.contains(strat[s])) {
+					strat[s] = opt.get(0);
+					setRow(r, strat[s], soln);
+					numUpdates++;
+					done = false;
+				}
+			}
+			// With modified policy iteration, also continue until evaluation has converged
+			if (done && !evaluated) {
+				done = false;
+			}
+		}
+		if (!done) {
+			String msg = "Policy iteration did not converge within " + numCycles + " cycles.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			if (mc.errorOnNonConverge) {
+				throw new PrismException(msg);
+			}
+			log.printWarning(msg);
+		}
+	}
+
+	/**
+	 * Evaluate the current policy for the block {@code rows[from..to-1]},
+	 * falling back to Gauss-Seidel if a Krylov method fails (e.g. breaks down).
+	 * Returns true if the evaluation converged.
+	 */
+	private boolean evaluate(double x[], int rows[], int from, int to, boolean errorOnNonConverge) throws PrismException
+	{
+		numIters += solver.solve(x, rows, from, to);
+		if (!solver.isConverged() && solver.getMethod().isKrylov()) {
+			if (!fallbackLogged) {
+				mc.getLog().printWarning(solver.getMethod().fullName() + " failed for policy evaluation, falling back to Gauss-Seidel");
+				fallbackLogged = true;
+			}
+			SparseLinearSolver.Method method = solver.getMethod();
+			solver.setMethod(SparseLinearSolver.Method.GAUSS_SEIDEL);
+			numIters += solver.solve(x, rows, from, to);
+			solver.setMethod(method);
+		}
+		if (!solver.isConverged() && errorOnNonConverge && mc.errorOnNonConverge) {
+			String msg = "Iterative method (policy evaluation) did not converge within " + mc.maxIters + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+		return solver.isConverged();
+	}
+
+	/**
+	 * (Re)build row {@code r} of the linear equation system for choice {@code choice},
+	 * folding transitions to states that are not unknown (with values from {@code soln}) into {@code b}.
+	 */
+	private void setRow(int r, int choice, double soln[])
+	{
+		int s = rowToState[r];
+		int j = rowStart[r];
+		double d = 0.0;
+		if (mdpRewards != null) {
+			d = mdpRewards.getStateReward(s) + mdpRewards.getTransitionReward(s, choice);
+		}
+		Iterator<Map.Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, choice);
+		while (it.hasNext()) {
+			Map.Entry<Integer, Double> e = it.next();
+			int t = e.getKey();
+			double p = e.getValue();
+			if (unknown.get(t)) {
+				cols[j] = stateToRow[t];
+				vals[j] = p;
+				j++;
+			} else if (p > 0.0) {
+				d += p * soln[t];
+			}
+		}
+		rowEnd[r] = j;
+		b[r] = d;
+	}
+
+	// Statistics
+
+	/**
+	 * Get the number of cycles (policy evaluations) performed by the last call to {@code solve}.
+	 */
+	public int getNumCycles()
+	{
+		return numCycles;
+	}
+
+	/**
+	 * Get the total number of iterations (of the linear equation solver) performed by the last call to {@code solve}.
+	 */
+	public int getNumIters()
+	{
+		return numIters;
+	}
+
+	/**
+	 * Get the number of choice updates (rewritten rows) made by the last call to {@code solve}.
+	 */
+	public int getNumUpdates()
+	{
+		return numUpdates;
+	}
+
+	/**
+	 * Compute, for Pmax, a proper initial strategy for policy iteration:
+	 * for each state in {@code unknown}, pick a choice that moves closer
+	 * (in terms of the length of the shortest path) to {@code yes}.
+	 * All states in {@code unknown} are assumed to be able to reach {@code yes}.
+	 */
+	public static void initialStrategyTowards(MDP<Double> mdp, BitSet unknown, BitSet yes, int strat[])
+	{
+		BitSet frontier = (BitSet) yes.clone();
+		BitSet remaining = (BitSet) unknown.clone();
+		while (!frontier.isEmpty() && !remaining.isEmpty()) {
+			BitSet next = new BitSet();
+			for (int s = remaining.nextSetBit(0); s >= 0; s = remaining.nextSetBit(s + 1)) {
+				for (int i = 0, numChoices = mdp.getNumChoices(s); i < numChoices; i++) {
+					if (mdp.someSuccessorsInSet(s, i, frontier)) {
+						strat[s] = i;
+						next.set(s);
+						break;
+					}
+				}
+			}
+			remaining.andNot(next);
+			frontier = next;
+		}
+	}
+}
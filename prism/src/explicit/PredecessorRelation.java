@@ -26,20 +26,20 @@
 
 package explicit;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Stack;
+import java.util.PrimitiveIterator;
 
+import common.iterable.ArrayIterator;
+import common.iterable.IterableArray;
 import prism.PrismComponent;
-import common.IterableBitSet;
 
 /**
  * A class for storing and accessing the predecessor relation of an explicit Model.
  * <p>
  * As Model only provide easy access to successors of states,
  * the predecessor relation is computed and stored for subsequent efficient access.
+ * It is stored in compressed sparse row (CSR) form, i.e., in two arrays of ints.
  * <p>
  * Note: Naturally, if the model changes, the predecessor relation
  * has to be recomputed to remain accurate.
@@ -47,9 +47,11 @@ import common.IterableBitSet;
 public class PredecessorRelation
 {
 	/**
-	 * pre[i] provides the list of predecessors of state with index i.
+	 * The predecessors of the state with index i are stored in
+	 * pre[preStart[i]], ..., pre[preStart[i+1]-1], in ascending order.
 	 */
-	List<ArrayList<Integer>> pre;
+	private int preStart[];
+	private int pre[];
 
 	/**
 	 * Constructor. Computes the predecessor relation for the given model
@@ -59,49 +61,83 @@ public class PredecessorRelation
 	 */
 	public PredecessorRelation(Model<?> model)
 	{
-		pre = new ArrayList<ArrayList<Integer>>(model.getNumStates());
-		// construct the (empty) array list for all states
-		for (int s = 0; s < model.getNumStates(); s++) {
-			pre.add(s, new ArrayList<Integer>());
-		}
-
 		compute(model);
 	}
 
-	/** Compute the predecessor relation using getSuccessorsIterator. */
+	/**
+	 * Compute the predecessor relation using getSuccessors (in two passes, counting and then storing).
+	 * Since successors may be reported more than once (e.g., for different choices),
+	 * duplicates are removed (these are easy to spot since states are processed in order).
+	 */
 	private void compute(Model<?> model)
 	{
 		int n = model.getNumStates();
 
+		// Count predecessors (of state t, in preStart[t+1]),
+		// where lastPre[t] is the last predecessor counted for t
+		preStart = new int[n + 1];
+		int lastPre[] = new int[n];
+		Arrays.fill(lastPre, -1);
 		for (int s = 0; s < n; s++) {
-			Iterator<Integer> it = model.getSuccessorsIterator(s);
+			SuccessorsIterator it = model.getSuccessors(s);
 			while (it.hasNext()) {
-				Integer successor = it.next();
-
-				// Add the current state s to pre[successor].
-				//
-				// As getSuccessorsIterator guarantees that
-				// there are no duplicates in the successors,
-				// s will be added to successor exactly once.
-				pre.get(successor).add(s);
+				int successor = it.nextInt();
+				if (lastPre[successor] != s) {
+					lastPre[successor] = s;
+					preStart[successor + 1]++;
+				}
+			}
+		}
+		for (int s = 0; s < n; s++) {
+			preStart[s + 1] += preStart[s];
+		}
+
+		// Store predecessors
+		pre = new int[preStart[n]];
+		int pos[] = lastPre;
+		System.arraycopy(preStart, 0, pos, 0, n);
+		for (int s = 0; s < n; s++) {
+			SuccessorsIterator it = model.getSuccessors(s);
+			while (it.hasNext()) {
+				// Add the current state s to pre[successor] (unless just done).
+				int successor = it.nextInt();
+				if (pos[successor] == preStart[successor] || pre[pos[successor] - 1] != s) {
+					pre[pos[successor]++] = s;
+				}
 			}
 		}
 	}
 
+	/**
+	 * Get the number of predecessor states of {@code s}.
+	 */
+	public int getNumPredecessors(int s)
+	{
+		return preStart[s + 1] - preStart[s];
+	}
+
 	/**
 	 * Get an Iterable over the predecessor states of {@code s}.
 	 */
 	public Iterable<Integer> getPre(int s)
 	{
-		return pre.get(s);
+		return new IterableArray.OfInt(pre, preStart[s], preStart[s + 1]);
 	}
 
 	/**
-	 * Get an Iterator over the predecessor states of {@code s}.
+	 * Get a (primitive) Iterator over the predecessor states of {@code s}.
 	 */
-	public Iterator<Integer> getPredecessorsIterator(int s)
+	public PrimitiveIterator.OfInt getPredecessorsIterator(int s)
 	{
-		return getPre(s).iterator();
+		return new ArrayIterator.OfInt(pre, preStart[s], preStart[s + 1]);
+	}
+
+	/**
+	 * Get the (approximate) amount of memory used to store the relation, in bytes.
+	 */
+	public long getMemorySize()
+	{
+		return 4L * (preStart.length + pre.length);
 	}
 
 	/**
@@ -122,7 +158,7 @@ public class PredecessorRelation
 		PredecessorRelation pre = new PredecessorRelation(model);
 		
 		timer = System.currentTimeMillis() - timer;
-		parent.getLog().println("done (" + timer / 1000.0 + " seconds)");
+		parent.getLog().println("done (" + timer / 1000.0 + " seconds, " + pre.getMemorySize() / 1024 + " KB)");
 
 		return pre;
 	}
@@ -155,36 +191,30 @@ public class PredecessorRelation
 		result = (BitSet)target.clone();
 
 		// the stack of states whose predecessors have to be considered
-		Stack<Integer> todo = new Stack<Integer>();
+		// (each state is pushed at most once, when it is added to the result)
+		int todo[] = new int[preStart.length - 1];
+		int todoSize = 0;
 
 		// initial todo: all the target states
-		for (Integer s : IterableBitSet.getSetBits(target)) {
-			todo.add(s);
-		};
-
-		// the set of states that are finished
-		BitSet done = new BitSet();
-
-		while (!todo.isEmpty()) {
-			int s = todo.pop();
-			// already considered?
-			if (done.get(s)) continue;
+		for (int s = target.nextSetBit(0); s >= 0; s = target.nextSetBit(s + 1)) {
+			todo[todoSize++] = s;
+		}
 
-			done.set(s);
+		while (todoSize > 0) {
+			int s = todo[--todoSize];
 
 			// for each predecessor in the graph
-			for (int p : getPre(s)) {
+			for (int i = preStart[s], end = preStart[s + 1]; i < end; i++) {
+				int p = pre[i];
 				if (absorbing != null && absorbing.get(p)) {
 					// predecessor is absorbing, thus the edge is considered to not exist
 					continue;
 				}
-				if (remain == null || remain.get(p)) {
+				if ((remain == null || remain.get(p)) && !result.get(p)) {
 					// can reach result (and is in remain)
 					result.set(p);
-					if (!done.get(p)) {
-						// add to stack
-						todo.add(p);
-					}
+					// add to stack
+					todo[todoSize++] = p;
 				}
 			}
 		}
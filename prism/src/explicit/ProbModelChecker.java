@@ -30,15 +30,19 @@ import static prism.PrismSettings.DEFAULT_EXPORT_MODEL_PRECISION;
 
 import java.io.File;
 import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import explicit.rewards.ConstructRewards;
 import explicit.rewards.MCRewards;
 import explicit.rewards.MDPRewards;
 import explicit.rewards.Rewards;
 import explicit.rewards.STPGRewards;
+import parser.State;
 import parser.ast.Coalition;
 import parser.ast.Expression;
+import parser.ast.ExpressionLabel;
 import parser.ast.ExpressionProb;
 import parser.ast.ExpressionReward;
 import parser.ast.ExpressionSS;
@@ -60,6 +64,7 @@ import prism.PrismLog;
 import prism.PrismNotSupportedException;
 import prism.PrismSettings;
 import prism.RewardGenerator;
+import prism.RewardGenerator.RewardLookup;
 
 /**
  * Super class for explicit-state probabilistic model checkers.
@@ -71,16 +76,34 @@ public class ProbModelChecker extends NonProbModelChecker
 
 	// Method used to solve linear equation systems
 	protected LinEqMethod linEqMethod = LinEqMethod.GAUSS_SEIDEL;
+	// Preconditioner for Krylov methods (for linear equation systems and policy evaluation)
+	protected SparseLinearSolver.Preconditioner linEqPreconditioner = SparseLinearSolver.Preconditioner.ILU0;
 	// Method used to solve MDPs
 	protected MDPSolnMethod mdpSolnMethod = MDPSolnMethod.GAUSS_SEIDEL;
 	// Method used to solve IMDPs (and IDTMCs)
 	protected IMDPSolnMethod imdpSolnMethod = IMDPSolnMethod.GAUSS_SEIDEL;
+	// Method used for policy evaluation in policy iteration
+	protected SparseLinearSolver.Method polIterSolver = SparseLinearSolver.Method.GAUSS_SEIDEL;
+	// Termination criteria parameter for policy evaluation in policy iteration
+	protected double polIterTermCritParam = 1e-8;
 	// Iterative numerical method termination criteria
 	protected TermCrit termCrit = TermCrit.RELATIVE;
 	// Parameter for iterative numerical method termination criteria
 	protected double termCritParam = 1e-8;
 	// Max iterations for numerical solution
 	protected int maxIters = 100000;
+	// Number of threads for (parallelised) numerical solution
+	protected int numThreads = 1;
+	// Use multi-colour (parallel) Gauss-Seidel?
+	protected boolean doParallelGS = false;
+	// Use steady-state detection for uniformisation (CTMC transient computations)?
+	protected boolean doSSDetect = true;
+	// On steady-state detection, switch to a direct steady-state solution?
+	protected boolean doSSDetectSolve = false;
+	// Store uniformised matrices in single precision (CTMC transient computations)?
+	protected boolean unifMixedPrecision = false;
+	// Method used for CTMC transient computations
+	protected TransientMethod transientMethod = TransientMethod.UNIFORMISATION;
 	// Resolution for POMDP fixed grid approximation algorithm
 	protected int gridResolution = 10;
 	// Use precomputation algorithms in model checking?
@@ -91,6 +114,8 @@ public class ProbModelChecker extends NonProbModelChecker
 	protected boolean silentPrecomputations = false;
 	// Use predecessor relation? (e.g. for precomputation)
 	protected boolean preRel = true;
+	// Reduce models to the relevant states before numerical solution of reachability?
+	protected boolean reachReduction = true;
 	// Direction of convergence for value iteration (lfp/gfp)
 	protected ValIterDir valIterDir = ValIterDir.BELOW;
 	// Method used for numerical solution
@@ -106,7 +131,7 @@ public class ProbModelChecker extends NonProbModelChecker
 
 	// Method used for numerical solution
 	public enum LinEqMethod {
-		POWER, JACOBI, GAUSS_SEIDEL, BACKWARDS_GAUSS_SEIDEL, JOR, SOR, BACKWARDS_SOR;
+		POWER, JACOBI, GAUSS_SEIDEL, BACKWARDS_GAUSS_SEIDEL, JOR, SOR, BACKWARDS_SOR, BICGSTAB, GMRES, CGS;
 		public String fullName()
 		{
 			switch (this) {
@@ -124,10 +149,43 @@ public class ProbModelChecker extends NonProbModelChecker
 				return "SOR";
 			case BACKWARDS_SOR:
 				return "Backwards SOR";
+			case BICGSTAB:
+				return "BiCGStab";
+			case GMRES:
+				return "GMRES";
+			case CGS:
+				return "CGS";
 			default:
 				return this.toString();
 			}
 		}
+
+		/**
+		 * Is this a Krylov subspace method (solved with {@link SparseLinearSolver})?
+		 */
+		public boolean isKrylov()
+		{
+			return this == BICGSTAB || this == GMRES || this == CGS;
+		}
+
+		/**
+		 * Get the corresponding {@link SparseLinearSolver} method (for Krylov methods).
+		 */
+		public SparseLinearSolver.Method toSparseLinearSolverMethod()
+		{
+			switch (this) {
+			case BICGSTAB:
+				return SparseLinearSolver.Method.BICGSTAB;
+			case GMRES:
+				return SparseLinearSolver.Method.GMRES;
+			case CGS:
+				return SparseLinearSolver.Method.CGS;
+			case JACOBI:
+				return SparseLinearSolver.Method.JACOBI;
+			default:
+				return SparseLinearSolver.Method.GAUSS_SEIDEL;
+			}
+		}
 	};
 
 	// Method used for solving MDPs
@@ -168,6 +226,23 @@ public class ProbModelChecker extends NonProbModelChecker
 		}
 	};
 
+	// Method used for CTMC transient computations
+	// (fast adaptive uniformisation is handled separately, see FastAdaptiveUniformisationModelChecker)
+	public enum TransientMethod {
+		UNIFORMISATION, KRYLOV;
+		public String fullName()
+		{
+			switch (this) {
+			case UNIFORMISATION:
+				return "Uniformisation";
+			case KRYLOV:
+				return "Krylov";
+			default:
+				return this.toString();
+			}
+		}
+	};
+
 	// Iterative numerical method termination criteria
 	public enum TermCrit {
 		ABSOLUTE, RELATIVE
@@ -209,9 +284,26 @@ public class ProbModelChecker extends NonProbModelChecker
 				setLinEqMethod(LinEqMethod.SOR);
 			} else if (s.equals("Backwards SOR")) {
 				setLinEqMethod(LinEqMethod.BACKWARDS_SOR);
+			} else if (s.equals("BiCGStab")) {
+				setLinEqMethod(LinEqMethod.BICGSTAB);
+			} else if (s.equals("GMRES")) {
+				setLinEqMethod(LinEqMethod.GMRES);
+			} else if (s.equals("CGS")) {
+				setLinEqMethod(LinEqMethod.CGS);
 			} else {
 				throw new PrismNotSupportedException("Explicit engine does not support linear equation solution method \"" + s + "\"");
 			}
+			// PRISM_LIN_EQ_PRECONDITIONER
+			s = settings.getString(PrismSettings.PRISM_LIN_EQ_PRECONDITIONER);
+			if (s.equals("None")) {
+				setLinEqPreconditioner(SparseLinearSolver.Preconditioner.NONE);
+			} else if (s.equals("Jacobi")) {
+				setLinEqPreconditioner(SparseLinearSolver.Preconditioner.JACOBI);
+			} else if (s.equals("ILU(0)")) {
+				setLinEqPreconditioner(SparseLinearSolver.Preconditioner.ILU0);
+			} else {
+				throw new PrismNotSupportedException("Explicit engine does not support preconditioner \"" + s + "\"");
+			}
 			// PRISM_MDP_SOLN_METHOD
 			s = settings.getString(PrismSettings.PRISM_MDP_SOLN_METHOD);
 			if (s.equals("Value iteration")) {
@@ -236,6 +328,23 @@ public class ProbModelChecker extends NonProbModelChecker
 			} else {
 				throw new PrismNotSupportedException("Explicit engine does not support IMDP solution method \"" + s + "\"");
 			}
+			// PRISM_POL_ITER_SOLVER
+			s = settings.getString(PrismSettings.PRISM_POL_ITER_SOLVER);
+			if (s.equals("Gauss-Seidel")) {
+				setPolIterSolver(SparseLinearSolver.Method.GAUSS_SEIDEL);
+			} else if (s.equals("Jacobi")) {
+				setPolIterSolver(SparseLinearSolver.Method.JACOBI);
+			} else if (s.equals("BiCGStab")) {
+				setPolIterSolver(SparseLinearSolver.Method.BICGSTAB);
+			} else if (s.equals("GMRES")) {
+				setPolIterSolver(SparseLinearSolver.Method.GMRES);
+			} else if (s.equals("CGS")) {
+				setPolIterSolver(SparseLinearSolver.Method.CGS);
+			} else {
+				throw new PrismNotSupportedException("Explicit engine does not support policy evaluation method \"" + s + "\"");
+			}
+			// PRISM_POL_ITER_TERM_CRIT_PARAM
+			setPolIterTermCritParam(settings.getDouble(PrismSettings.PRISM_POL_ITER_TERM_CRIT_PARAM));
 			// PRISM_TERM_CRIT
 			s = settings.getString(PrismSettings.PRISM_TERM_CRIT);
 			if (s.equals("Absolute")) {
@@ -249,6 +358,19 @@ public class ProbModelChecker extends NonProbModelChecker
 			setTermCritParam(settings.getDouble(PrismSettings.PRISM_TERM_CRIT_PARAM));
 			// PRISM_MAX_ITERS
 			setMaxIters(settings.getInteger(PrismSettings.PRISM_MAX_ITERS));
+			// PRISM_NUM_THREADS
+			setNumThreads(settings.getInteger(PrismSettings.PRISM_NUM_THREADS));
+			// PRISM_PARALLEL_GS
+			setDoParallelGS(settings.getBoolean(PrismSettings.PRISM_PARALLEL_GS));
+			// PRISM_DO_SS_DETECTION
+			setDoSSDetect(settings.getBoolean(PrismSettings.PRISM_DO_SS_DETECTION));
+			// PRISM_SS_DETECT_SOLVE
+			setDoSSDetectSolve(settings.getBoolean(PrismSettings.PRISM_SS_DETECT_SOLVE));
+			// PRISM_UNIF_MIXED_PRECISION
+			setUnifMixedPrecision(settings.getBoolean(PrismSettings.PRISM_UNIF_MIXED_PRECISION));
+			// PRISM_TRANSIENT_METHOD
+			s = settings.getString(PrismSettings.PRISM_TRANSIENT_METHOD);
+			setTransientMethod(s.equals("Krylov") ? TransientMethod.KRYLOV : TransientMethod.UNIFORMISATION);
 			// PRISM_GRID_RESOLUTION
 			setGridResolution(settings.getInteger(PrismSettings.PRISM_GRID_RESOLUTION));
 			// PRISM_PRECOMPUTATION
@@ -259,6 +381,8 @@ public class ProbModelChecker extends NonProbModelChecker
 			setProb1(settings.getBoolean(PrismSettings.PRISM_PROB1));
 			// PRISM_USE_PRE
 			setPreRel(settings.getBoolean(PrismSettings.PRISM_PRE_REL));
+			// PRISM_REACH_REDUCTION
+			setReachReduction(settings.getBoolean(PrismSettings.PRISM_REACH_REDUCTION));
 			// PRISM_FAIRNESS
 			if (settings.getBoolean(PrismSettings.PRISM_FAIRNESS)) {
 				throw new PrismNotSupportedException("The explicit engine does not support model checking MDPs under fairness");
@@ -277,15 +401,25 @@ public class ProbModelChecker extends NonProbModelChecker
 	{
 		super.inheritSettings(other);
 		setLinEqMethod(other.getLinEqMethod());
+		setLinEqPreconditioner(other.getLinEqPreconditioner());
 		setMDPSolnMethod(other.getMDPSolnMethod());
 		setIMDPSolnMethod(other.getIMDPSolnMethod());
+		setPolIterSolver(other.getPolIterSolver());
+		setPolIterTermCritParam(other.getPolIterTermCritParam());
 		setTermCrit(other.getTermCrit());
 		setTermCritParam(other.getTermCritParam());
 		setMaxIters(other.getMaxIters());
+		setNumThreads(other.getNumThreads());
+		setDoParallelGS(other.getDoParallelGS());
+		setDoSSDetect(other.getDoSSDetect());
+		setDoSSDetectSolve(other.getDoSSDetectSolve());
+		setUnifMixedPrecision(other.getUnifMixedPrecision());
+		setTransientMethod(other.getTransientMethod());
 		setGridResolution(other.getGridResolution());
 		setPrecomp(other.getPrecomp());
 		setProb0(other.getProb0());
 		setProb1(other.getProb1());
+		setReachReduction(other.getReachReduction());
 		setValIterDir(other.getValIterDir());
 		setSolnMethod(other.getSolnMethod());
 		setErrorOnNonConverge(other.geterrorOnNonConverge());
@@ -303,10 +437,17 @@ public class ProbModelChecker extends NonProbModelChecker
 		mainLog.print("termCrit = " + termCrit + " ");
 		mainLog.print("termCritParam = " + termCritParam + " ");
 		mainLog.print("maxIters = " + maxIters + " ");
+		mainLog.print("numThreads = " + numThreads + " ");
+		mainLog.print("doParallelGS = " + doParallelGS + " ");
+		mainLog.print("doSSDetect = " + doSSDetect + " ");
+		mainLog.print("doSSDetectSolve = " + doSSDetectSolve + " ");
+		mainLog.print("unifMixedPrecision = " + unifMixedPrecision + " ");
+		mainLog.print("transientMethod = " + transientMethod + " ");
 		mainLog.print("gridResolution = " + gridResolution + " ");
 		mainLog.print("precomp = " + precomp + " ");
 		mainLog.print("prob0 = " + prob0 + " ");
 		mainLog.print("prob1 = " + prob1 + " ");
+		mainLog.print("reachReduction = " + reachReduction + " ");
 		mainLog.print("valIterDir = " + valIterDir + " ");
 		mainLog.print("solnMethod = " + solnMethod + " ");
 		mainLog.print("errorOnNonConverge = " + errorOnNonConverge + " ");
@@ -342,6 +483,14 @@ public class ProbModelChecker extends NonProbModelChecker
 		this.linEqMethod = linEqMethod;
 	}
 
+	/**
+	 * Set preconditioner used by Krylov methods (for linear equation systems and policy evaluation).
+	 */
+	public void setLinEqPreconditioner(SparseLinearSolver.Preconditioner linEqPreconditioner)
+	{
+		this.linEqPreconditioner = linEqPreconditioner;
+	}
+
 	/**
 	 * Set method used to solve MDPs.
 	 */
@@ -358,6 +507,22 @@ public class ProbModelChecker extends NonProbModelChecker
 		this.imdpSolnMethod = imdpSolnMethod;
 	}
 
+	/**
+	 * Set method used for policy evaluation in policy iteration.
+	 */
+	public void setPolIterSolver(SparseLinearSolver.Method polIterSolver)
+	{
+		this.polIterSolver = polIterSolver;
+	}
+
+	/**
+	 * Set termination criteria parameter (epsilon) for policy evaluation in policy iteration.
+	 */
+	public void setPolIterTermCritParam(double polIterTermCritParam)
+	{
+		this.polIterTermCritParam = polIterTermCritParam;
+	}
+
 	/**
 	 * Set termination criteria type for numerical iterative methods.
 	 */
@@ -382,6 +547,58 @@ public class ProbModelChecker extends NonProbModelChecker
 		this.maxIters = maxIters;
 	}
 
+	/**
+	 * Set number of threads to use for (parallelised) numerical iterative methods.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Set whether or not to use multi-colour Gauss-Seidel, which updates the states
+	 * of each colour class in parallel (if the number of threads is greater than 1).
+	 */
+	public void setDoParallelGS(boolean doParallelGS)
+	{
+		this.doParallelGS = doParallelGS;
+	}
+
+	/**
+	 * Set whether or not to use steady-state detection for uniformisation (CTMC transient computations),
+	 * i.e., to stop iterating early once this is guaranteed not to affect the accuracy of the result.
+	 */
+	public void setDoSSDetect(boolean doSSDetect)
+	{
+		this.doSSDetect = doSSDetect;
+	}
+
+	/**
+	 * Set whether or not, if steady-state detection is used and the iteration vector of uniformisation
+	 * has converged, to compute the rest of the sum from a direct steady-state solution.
+	 */
+	public void setDoSSDetectSolve(boolean doSSDetectSolve)
+	{
+		this.doSSDetectSolve = doSSDetectSolve;
+	}
+
+	/**
+	 * Set whether or not to store the entries of uniformised matrices in single precision
+	 * (CTMC transient computations), keeping vectors and sums in double precision.
+	 */
+	public void setUnifMixedPrecision(boolean unifMixedPrecision)
+	{
+		this.unifMixedPrecision = unifMixedPrecision;
+	}
+
+	/**
+	 * Set method used for CTMC transient computations.
+	 */
+	public void setTransientMethod(TransientMethod transientMethod)
+	{
+		this.transientMethod = transientMethod;
+	}
+
 	/**
 	 * Set resolution for POMDP fixed grid approximation algorithm.
 	 */
@@ -422,6 +639,15 @@ public class ProbModelChecker extends NonProbModelChecker
 		this.preRel = preRel;
 	}
 
+	/**
+	 * Set whether or not to reduce models to the relevant states before
+	 * numerical solution of reachability (see {@link ReachabilityReduction}).
+	 */
+	public void setReachReduction(boolean reachReduction)
+	{
+		this.reachReduction = reachReduction;
+	}
+
 	/**
 	 * Set direction of convergence for value iteration (lfp/gfp).
 	 */
@@ -458,6 +684,23 @@ public class ProbModelChecker extends NonProbModelChecker
 		return linEqMethod;
 	}
 
+	public SparseLinearSolver.Preconditioner getLinEqPreconditioner()
+	{
+		return linEqPreconditioner;
+	}
+
+	/**
+	 * Get a description of a {@link SparseLinearSolver} method, as configured, for log output.
+	 */
+	public String getSparseLinearSolverDescription(SparseLinearSolver.Method method)
+	{
+		String s = method.fullName();
+		if (method.isKrylov() && linEqPreconditioner != SparseLinearSolver.Preconditioner.NONE) {
+			s += " (" + linEqPreconditioner.fullName() + " preconditioner)";
+		}
+		return s;
+	}
+
 	public MDPSolnMethod getMDPSolnMethod()
 	{
 		return mdpSolnMethod;
@@ -468,6 +711,16 @@ public class ProbModelChecker extends NonProbModelChecker
 		return imdpSolnMethod;
 	}
 
+	public SparseLinearSolver.Method getPolIterSolver()
+	{
+		return polIterSolver;
+	}
+
+	public double getPolIterTermCritParam()
+	{
+		return polIterTermCritParam;
+	}
+
 	public TermCrit getTermCrit()
 	{
 		return termCrit;
@@ -483,6 +736,36 @@ public class ProbModelChecker extends NonProbModelChecker
 		return maxIters;
 	}
 
+	public int getNumThreads()
+	{
+		return numThreads;
+	}
+
+	public boolean getDoParallelGS()
+	{
+		return doParallelGS;
+	}
+
+	public boolean getDoSSDetect()
+	{
+		return doSSDetect;
+	}
+
+	public boolean getDoSSDetectSolve()
+	{
+		return doSSDetectSolve;
+	}
+
+	public boolean getUnifMixedPrecision()
+	{
+		return unifMixedPrecision;
+	}
+
+	public TransientMethod getTransientMethod()
+	{
+		return transientMethod;
+	}
+
 	public int getGridResolution()
 	{
 		return gridResolution;
@@ -508,6 +791,11 @@ public class ProbModelChecker extends NonProbModelChecker
 		return preRel;
 	}
 
+	public boolean getReachReduction()
+	{
+		return reachReduction;
+	}
+
 	public ValIterDir getValIterDir()
 	{
 		return valIterDir;
@@ -528,6 +816,40 @@ public class ProbModelChecker extends NonProbModelChecker
 
 	// Model checking functions
 
+	/**
+	 * Check that at most one of interval iteration, optimistic value iteration
+	 * and sound value iteration is enabled.
+	 */
+	protected void checkSoundIterationSettings() throws PrismException
+	{
+		int count = (doIntervalIteration ? 1 : 0) + (doOptimisticValIter ? 1 : 0) + (doSoundValIter ? 1 : 0);
+		if (count > 1) {
+			throw new PrismException("Only one of interval iteration, optimistic value iteration and sound value iteration can be used");
+		}
+	}
+
+	/**
+	 * For the numerical computation of reachability values in {@code model}, for the states
+	 * in {@code statesOfInterest} (null means "all"), once the states with value 0 ({@code no})
+	 * and 1 ({@code yes}) are known, decide whether to first reduce the model
+	 * to the relevant states (see {@link ReachabilityReduction}). This is done if enabled
+	 * and if at least a quarter of the states can be removed.
+	 * Returns the (maybe) states to keep, or null if the model should not be reduced.
+	 */
+	protected BitSet getReachReductionStates(Model<?> model, BitSet no, BitSet yes, BitSet statesOfInterest)
+	{
+		if (!reachReduction) {
+			return null;
+		}
+		int n = model.getNumStates();
+		BitSet relevant = ReachabilityReduction.relevantStates(model, no, yes, statesOfInterest);
+		if (relevant.cardinality() + 2 > n - n / 4) {
+			return null;
+		}
+		mainLog.println("Reducing model to " + relevant.cardinality() + " relevant states (plus yes/no) for numerical solution...");
+		return relevant;
+	}
+
 	@Override
 	public StateValues checkExpression(Model<?> model, Expression expr, BitSet statesOfInterest) throws PrismException
 	{
@@ -891,10 +1213,10 @@ public class ProbModelChecker extends NonProbModelChecker
 			res = ((CTMCModelChecker) this).computeUntilProbs((CTMC<Double>) model, remain, target);
 			break;
 		case DTMC:
-			res = ((DTMCModelChecker) this).computeUntilProbs((DTMC<Double>) model, remain, target);
+			res = ((DTMCModelChecker) this).computeUntilProbs((DTMC<Double>) model, remain, target, statesOfInterest);
 			break;
 		case MDP:
-			res = ((MDPModelChecker) this).computeUntilProbs((MDP<Double>) model, remain, target, minMax.isMin());
+			res = ((MDPModelChecker) this).computeUntilProbs((MDP<Double>) model, remain, target, minMax.isMin(), statesOfInterest);
 			break;
 		case POMDP:
 			res = ((POMDPModelChecker) this).computeReachProbs((POMDP<Double>) model, remain, target, minMax.isMin(), statesOfInterest);
@@ -1325,6 +1647,50 @@ public class ProbModelChecker extends NonProbModelChecker
 	}
 
 
+	/**
+	 * Export a model to a binary file (see {@link BinaryModelFile}), along with
+	 * its states, the labels from the model info and the state rewards for all reward structures.
+	 * @param model The model
+	 * @param file The file to export to
+	 */
+	public void exportToBinaryFile(Model<?> model, File file) throws PrismException
+	{
+		Map<String, BitSet> labels = new LinkedHashMap<>();
+		if (modelInfo != null) {
+			for (String labelName : modelInfo.getLabelNames()) {
+				labels.put(labelName, checkExpression(model, new ExpressionLabel(labelName), null).getBitSet());
+			}
+		}
+		Map<String, double[]> stateRewards = new LinkedHashMap<>();
+		int numRewardStructs = rewardGen == null ? 0 : rewardGen.getNumRewardStructs();
+		if (numRewardStructs > 0) {
+			@SuppressWarnings("unchecked")
+			RewardGenerator<Object> rewGen = (RewardGenerator<Object>) rewardGen;
+			Evaluator<Object> eval = rewGen.getRewardEvaluator();
+			boolean byState = rewGen.isRewardLookupSupported(RewardLookup.BY_STATE);
+			if (!byState && !rewGen.isRewardLookupSupported(RewardLookup.BY_STATE_INDEX)) {
+				throw new PrismException("Unknown reward lookup mechanism for reward generator");
+			}
+			List<State> statesList = model.getStatesList();
+			for (int r = 0; r < numRewardStructs; r++) {
+				String rewardStructName = rewGen.getRewardStructName(r);
+				// Only state rewards are stored
+				if (rewGen.rewardStructHasTransitionRewards(r)) {
+					mainLog.printWarning("Transition rewards of reward structure " + (r + 1) + (rewardStructName.isEmpty() ? "" : " (\"" + rewardStructName + "\")") + " are not included in the binary model file");
+				}
+				double rews[] = new double[model.getNumStates()];
+				if (rewGen.rewardStructHasStateRewards(r)) {
+					for (int s = 0; s < rews.length; s++) {
+						Object rew = byState ? rewGen.getStateReward(r, statesList.get(s)) : rewGen.getStateReward(r, s);
+						rews[s] = eval.toDouble(rew);
+					}
+				}
+				stateRewards.put(rewardStructName, rews);
+			}
+		}
+		model.exportToPrismExplicitBinary(file, modelInfo == null ? null : modelInfo.getVarNames(), labels, stateRewards);
+	}
+
 	/**
 	 * Export (non-zero) state rewards for one reward structure of a model.
 	 * @param model The model
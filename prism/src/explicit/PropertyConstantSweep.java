@@ -0,0 +1,176 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import parser.Values;
+import parser.ast.Expression;
+import prism.PrismException;
+
+/**
+ * Information about a sweep over the values of some property constants, i.e., an experiment
+ * in which the same property is checked once for each of a list of values of the constants.
+ * This allows computations that are shared between the iterations of the sweep to be done
+ * only once, e.g., the transient probability computations for all time bounds of
+ * a time-bounded until property (see {@link CTMCModelChecker}), whose results are cached here.
+ */
+public class PropertyConstantSweep
+{
+	/** The values of the property constants, for each iteration of the sweep */
+	private final List<Values> sweep;
+	/** Names of the constants that take more than one value in the sweep */
+	private final Set<String> rangingConstants = new HashSet<>();
+
+	// Cached results of (backwards) transient computations, for the following
+	// model, target and non-absorbing states, indexed by time bound,
+	// and the time bounds whose results have already been used
+	private Model<?> cachedModel;
+	private BitSet cachedTarget;
+	private BitSet cachedNonAbs;
+	private Map<Double, ModelCheckerResult> cachedResults = new HashMap<>();
+	private Set<Double> usedTimes = new HashSet<>();
+
+	/**
+	 * Create a sweep over the given list of values for the property constants.
+	 */
+	public PropertyConstantSweep(List<Values> sweep)
+	{
+		this.sweep = sweep;
+		for (Values values : sweep) {
+			for (int i = 0; i < values.getNumValues(); i++) {
+				if (!values.getValue(i).equals(sweep.get(0).getValue(i))) {
+					rangingConstants.add(values.getName(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the number of iterations in the sweep.
+	 */
+	public int getNumIterations()
+	{
+		return sweep.size();
+	}
+
+	/**
+	 * Does the expression {@code expr} contain any of the constants whose value changes during the sweep?
+	 */
+	public boolean dependsOnSweep(Expression expr)
+	{
+		for (String name : expr.getAllConstants()) {
+			if (rangingConstants.contains(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Evaluate the (double-valued) expression {@code expr} for all iterations of the sweep,
+	 * using {@code constantValues} for the values of any other constants,
+	 * and return the distinct values, in ascending order.
+	 */
+	public double[] evaluateDoubleForSweep(Expression expr, Values constantValues) throws PrismException
+	{
+		TreeSet<Double> results = new TreeSet<>();
+		for (Values values : sweep) {
+			Values allValues = new Values(constantValues);
+			allValues.setValues(values);
+			results.add(expr.evaluateDouble(allValues));
+		}
+		return results.stream().mapToDouble(Double::doubleValue).toArray();
+	}
+
+	/**
+	 * Get (and remove) the cached result of a (backwards) transient computation for time {@code t}
+	 * (see {@link CTMCModelChecker#computeTransientBackwardsProbs(CTMC, BitSet, BitSet, double[], double[])}),
+	 * or return null if there is none. Each time point typically occurs just once in a sweep,
+	 * so results are only kept until they have been used.
+	 */
+	public synchronized ModelCheckerResult takeTransientBackwardsResult(Model<?> model, BitSet target, BitSet nonAbs, double t)
+	{
+		if (!isCachedFor(model, target, nonAbs)) {
+			return null;
+		}
+		ModelCheckerResult res = cachedResults.remove(t);
+		if (res != null) {
+			usedTimes.add(t);
+		}
+		return res;
+	}
+
+	/**
+	 * Get the time points in {@code times} (in the same order) whose results for
+	 * the given model and target/non-absorbing states have not yet been used.
+	 */
+	public synchronized double[] getPendingTimes(Model<?> model, BitSet target, BitSet nonAbs, double times[])
+	{
+		if (!isCachedFor(model, target, nonAbs)) {
+			return times.clone();
+		}
+		List<Double> pending = new ArrayList<>();
+		for (double t : times) {
+			if (!usedTimes.contains(t)) {
+				pending.add(t);
+			}
+		}
+		return pending.stream().mapToDouble(Double::doubleValue).toArray();
+	}
+
+	/**
+	 * Cache the results of (backwards) transient computations for time points {@code times},
+	 * replacing any results for a different model or different target/non-absorbing states.
+	 */
+	public synchronized void putTransientBackwardsResults(Model<?> model, BitSet target, BitSet nonAbs, double times[], ModelCheckerResult results[])
+	{
+		if (!isCachedFor(model, target, nonAbs)) {
+			cachedModel = model;
+			cachedTarget = (BitSet) target.clone();
+			cachedNonAbs = nonAbs == null ? null : (BitSet) nonAbs.clone();
+			cachedResults = new HashMap<>();
+			usedTimes = new HashSet<>();
+		}
+		for (int i = 0; i < times.length; i++) {
+			cachedResults.put(times[i], results[i]);
+		}
+	}
+
+	/**
+	 * Are the cached results for the given model and target/non-absorbing states?
+	 */
+	private boolean isCachedFor(Model<?> model, BitSet target, BitSet nonAbs)
+	{
+		return model == cachedModel && target.equals(cachedTarget) && (nonAbs == null ? cachedNonAbs == null : nonAbs.equals(cachedNonAbs));
+	}
+}
@@ -0,0 +1,291 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+
+import prism.PrismException;
+
+/**
+ * Reduction of a DTMC or MDP for the numerical computation of reachability values,
+ * once the states with value 1 ("yes") and 0 ("no") are known.
+ * <br>
+ * The reduced model comprises the remaining ("maybe") states that are relevant,
+ * typically those reachable from some states of interest without passing through
+ * yes/no states (see {@link #relevantStates}), numbered compactly in their original order,
+ * followed by one absorbing state representing all yes states and one representing all no states.
+ * It is stored sparsely, i.e., as a {@link DTMCSparse} or {@link MDPSparse}.
+ * <br>
+ * When mapping values back to the original model, the yes/no states get the values
+ * of their representatives and the remaining (irrelevant) maybe states get value 0.
+ */
+public class ReachabilityReduction<M extends Model<Double>> extends BasicModelTransformation<M, M>
+{
+	/* Index of the states representing the yes/no states in the reduced model */
+	private final int yesState;
+	private final int noState;
+
+	private ReachabilityReduction(M originalModel, M reducedModel, int map[])
+	{
+		super(originalModel, reducedModel, s -> map[s] == -1 ? null : map[s]);
+		this.yesState = reducedModel.getNumStates() - 2;
+		this.noState = reducedModel.getNumStates() - 1;
+	}
+
+	/**
+	 * Get the "maybe" states (neither in {@code yes} nor in {@code no}) that are reachable
+	 * from a state in {@code statesOfInterest} (null means "all") while only passing through maybe states.
+	 */
+	public static BitSet relevantStates(Model<?> model, BitSet no, BitSet yes, BitSet statesOfInterest)
+	{
+		int n = model.getNumStates();
+		BitSet maybe = new BitSet(n);
+		maybe.set(0, n);
+		maybe.andNot(yes);
+		maybe.andNot(no);
+		if (statesOfInterest == null) {
+			return maybe;
+		}
+		BitSet relevant = (BitSet) statesOfInterest.clone();
+		relevant.and(maybe);
+		int stack[] = new int[Math.max(1, relevant.cardinality())];
+		int stackTop = 0;
+		for (int s = relevant.nextSetBit(0); s >= 0; s = relevant.nextSetBit(s + 1)) {
+			stack[stackTop++] = s;
+		}
+		while (stackTop > 0) {
+			int s = stack[--stackTop];
+			SuccessorsIterator it = model.getSuccessors(s);
+			while (it.hasNext()) {
+				int t = it.nextInt();
+				if (maybe.get(t) && !relevant.get(t)) {
+					relevant.set(t);
+					if (stackTop == stack.length) {
+						stack = Arrays.copyOf(stack, 2 * stackTop);
+					}
+					stack[stackTop++] = t;
+				}
+			}
+		}
+		return relevant;
+	}
+
+	/**
+	 * Reduce a DTMC to the maybe states in {@code relevant}, plus a yes and a no state.
+	 * The successors of states in {@code relevant} must be in {@code relevant}, {@code yes} or {@code no}.
+	 */
+	public static ReachabilityReduction<DTMC<Double>> reduce(DTMC<Double> dtmc, BitSet no, BitSet yes, BitSet relevant)
+	{
+		int map[] = buildMap(dtmc, no, yes, relevant);
+		int numStates = relevant.cardinality() + 2;
+		int yesState = numStates - 2, noState = numStates - 1;
+		int numTransitions = 2;
+		for (int s = relevant.nextSetBit(0); s >= 0; s = relevant.nextSetBit(s + 1)) {
+			numTransitions += dtmc.getNumTransitions(s);
+		}
+		int rows[] = new int[numStates + 1];
+		int columns[] = new int[numTransitions];
+		double probabilities[] = new double[numTransitions];
+		int count = 0;
+		for (int s = relevant.nextSetBit(0); s >= 0; s = relevant.nextSetBit(s + 1)) {
+			rows[map[s]] = count;
+			count = copyDistribution(dtmc.getTransitionsIterator(s), map, yesState, noState, columns, probabilities, count);
+		}
+		// Yes/no states are absorbing
+		for (int s : new int[] { yesState, noState }) {
+			rows[s] = count;
+			columns[count] = s;
+			probabilities[count++] = 1.0;
+		}
+		rows[numStates] = count;
+		DTMCSparse reduced = new DTMCSparse(numStates, rows, columns, probabilities);
+		addInitialStates(dtmc, reduced, map);
+		return new ReachabilityReduction<>(dtmc, reduced, map);
+	}
+
+	/**
+	 * Reduce an MDP to the maybe states in {@code relevant}, plus a yes and a no state.
+	 * The successors of states in {@code relevant} must be in {@code relevant}, {@code yes} or {@code no}.
+	 * All choices are kept (with the same indices), but not their action labels.
+	 */
+	public static ReachabilityReduction<MDP<Double>> reduce(MDP<Double> mdp, BitSet no, BitSet yes, BitSet relevant)
+	{
+		int map[] = buildMap(mdp, no, yes, relevant);
+		int numStates = relevant.cardinality() + 2;
+		int yesState = numStates - 2, noState = numStates - 1;
+		int numChoices = 2, numTransitions = 2, maxNumChoices = 1;
+		for (int s = relevant.nextSetBit(0); s >= 0; s = relevant.nextSetBit(s + 1)) {
+			int numChoicesS = mdp.getNumChoices(s);
+			numChoices += numChoicesS;
+			maxNumChoices = Math.max(maxNumChoices, numChoicesS);
+			for (int i = 0; i < numChoicesS; i++) {
+				numTransitions += mdp.getNumTransitions(s, i);
+			}
+		}
+		int rowStarts[] = new int[numStates + 1];
+		int choiceStarts[] = new int[numChoices + 1];
+		int cols[] = new int[numTransitions];
+		double nonZeros[] = new double[numTransitions];
+		int choice = 0, count = 0;
+		for (int s = relevant.nextSetBit(0); s >= 0; s = relevant.nextSetBit(s + 1)) {
+			rowStarts[map[s]] = choice;
+			for (int i = 0, numChoicesS = mdp.getNumChoices(s); i < numChoicesS; i++) {
+				choiceStarts[choice++] = count;
+				count = copyDistribution(mdp.getTransitionsIterator(s, i), map, yesState, noState, cols, nonZeros, count);
+			}
+		}
+		// Yes/no states are absorbing
+		for (int s : new int[] { yesState, noState }) {
+			rowStarts[s] = choice;
+			choiceStarts[choice++] = count;
+			cols[count] = s;
+			nonZeros[count++] = 1.0;
+		}
+		rowStarts[numStates] = choice;
+		choiceStarts[numChoices] = count;
+		MDPSparse reduced = new MDPSparse(numStates, rowStarts, choiceStarts, cols, nonZeros, null, maxNumChoices);
+		addInitialStates(mdp, reduced, map);
+		return new ReachabilityReduction<>(mdp, reduced, map);
+	}
+
+	/**
+	 * Build the mapping from states of {@code model} to those of the reduced model (-1 if none).
+	 */
+	private static int[] buildMap(Model<?> model, BitSet no, BitSet yes, BitSet relevant)
+	{
+		int n = model.getNumStates();
+		int numRelevant = relevant.cardinality();
+		int map[] = new int[n];
+		Arrays.fill(map, -1);
+		int count = 0;
+		for (int s = relevant.nextSetBit(0); s >= 0; s = relevant.nextSetBit(s + 1)) {
+			map[s] = count++;
+		}
+		for (int s = yes.nextSetBit(0); s >= 0 && s < n; s = yes.nextSetBit(s + 1)) {
+			map[s] = numRelevant;
+		}
+		for (int s = no.nextSetBit(0); s >= 0 && s < n; s = no.nextSetBit(s + 1)) {
+			map[s] = numRelevant + 1;
+		}
+		return map;
+	}
+
+	/**
+	 * Copy a probability distribution, mapped to the reduced model, into arrays
+	 * {@code cols}/{@code vals}, starting at index {@code count}, merging all transitions
+	 * to yes states (and all to no states) and dropping zero probabilities.
+	 * Returns the index after the last copied transition.
+	 */
+	private static int copyDistribution(Iterator<Map.Entry<Integer, Double>> it, int map[], int yesState, int noState, int cols[], double vals[], int count)
+	{
+		double probYes = 0.0, probNo = 0.0;
+		while (it.hasNext()) {
+			Map.Entry<Integer, Double> e = it.next();
+			double prob = e.getValue();
+			if (prob == 0.0) {
+				continue;
+			}
+			int t = map[e.getKey()];
+			if (t == yesState) {
+				probYes += prob;
+			} else if (t == noState) {
+				probNo += prob;
+			} else {
+				cols[count] = t;
+				vals[count++] = prob;
+			}
+		}
+		if (probYes > 0.0) {
+			cols[count] = yesState;
+			vals[count++] = probYes;
+		}
+		if (probNo > 0.0) {
+			cols[count] = noState;
+			vals[count++] = probNo;
+		}
+		return count;
+	}
+
+	/**
+	 * Add the initial states of {@code model} that are kept to {@code reduced}.
+	 */
+	private static void addInitialStates(Model<?> model, ModelExplicit<?> reduced, int map[])
+	{
+		BitSet added = new BitSet();
+		for (int s : model.getInitialStates()) {
+			if (map[s] != -1 && !added.get(map[s])) {
+				added.set(map[s]);
+				reduced.addInitialState(map[s]);
+			}
+		}
+	}
+
+	/**
+	 * Get the state representing the yes states in the reduced model.
+	 */
+	public int getYesState()
+	{
+		return yesState;
+	}
+
+	/**
+	 * Get the state representing the no states in the reduced model.
+	 */
+	public int getNoState()
+	{
+		return noState;
+	}
+
+	/**
+	 * Get the set of yes states in the reduced model (i.e., its yes state).
+	 */
+	public BitSet getYes()
+	{
+		BitSet yes = new BitSet();
+		yes.set(yesState);
+		return yes;
+	}
+
+	/**
+	 * Get the set of no states in the reduced model (i.e., its no state).
+	 */
+	public BitSet getNo()
+	{
+		BitSet no = new BitSet();
+		no.set(noState);
+		return no;
+	}
+
+	/**
+	 * Map a solution vector for the reduced model back to the original model.
+	 */
+	public double[] mapToOriginalModel(double soln[]) throws PrismException
+	{
+		return projectToOriginalModel(StateValues.createFromDoubleArray(soln, transformedModel)).getDoubleArray();
+	}
+}
@@ -32,8 +32,10 @@ import java.util.BitSet;
 import java.util.function.Consumer;
 import java.util.function.IntPredicate;
 
+import prism.Prism;
 import prism.PrismComponent;
 import prism.PrismException;
+import prism.PrismSettings;
 
 /**
  * Abstract class for (explicit) classes that compute (B)SCCs,
@@ -46,12 +48,16 @@ public abstract class SCCComputer extends PrismComponent
 
 	// Method used for finding (B)SCCs
 	public enum SCCMethod {
-		TARJAN;
+		TARJAN, TARJAN_RECURSIVE, FB;
 		public String fullName()
 		{
 			switch (this) {
 			case TARJAN:
 				return "Tarjan";
+			case TARJAN_RECURSIVE:
+				return "Tarjan (recursive)";
+			case FB:
+				return "Forward-backward (parallel)";
 			default:
 				return this.toString();
 			}
@@ -60,11 +66,40 @@ public abstract class SCCComputer extends PrismComponent
 
 	/**
 	 * Static method to create a new SCCComputer object, depending on current settings.
+	 * The (iterative) Tarjan algorithm is used, unless another (explicit) method is selected
+	 * via the setting {@link PrismSettings#PRISM_SCC_METHOD} (which also specifies the method
+	 * for the symbolic engines).
 	 */
 	public static SCCComputer createSCCComputer(PrismComponent parent, Model<?> model, SCCConsumer consumer) throws PrismException
 	{
-		// Only one algorithm implemented currently
-		return new SCCComputerTarjan(parent, model, consumer);
+		SCCMethod sccMethod = SCCMethod.TARJAN;
+		if (parent != null && parent.getSettings() != null) {
+			switch (parent.getSettings().getChoice(PrismSettings.PRISM_SCC_METHOD)) {
+			case Prism.TARJAN_RECURSIVE:
+				sccMethod = SCCMethod.TARJAN_RECURSIVE;
+				break;
+			case Prism.FORWARD_BACKWARD:
+				sccMethod = SCCMethod.FB;
+				break;
+			}
+		}
+		return createSCCComputer(parent, sccMethod, model, consumer);
+	}
+
+	/**
+	 * Static method to create a new SCCComputer object, depending on requested method.
+	 */
+	public static SCCComputer createSCCComputer(PrismComponent parent, SCCMethod sccMethod, Model<?> model, SCCConsumer consumer) throws PrismException
+	{
+		switch (sccMethod) {
+		case TARJAN_RECURSIVE:
+			return new SCCComputerTarjan(parent, model, consumer);
+		case FB:
+			return new SCCComputerFB(parent, model, consumer);
+		case TARJAN:
+		default:
+			return new SCCComputerTarjanIterative(parent, model, consumer);
+		}
 	}
 
 	/**
@@ -0,0 +1,631 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntPredicate;
+
+import common.IntSet;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismSettings;
+
+/**
+ * Parallel SCC computation operating on a Model object, based on the
+ * forward-backward (FB) algorithm with trimming:
+ * <ul>
+ * <li> states without (remaining) predecessors or successors are repeatedly removed
+ *      as trivial SCCs ("trimming");
+ * <li> for a large set of states, the SCC of a pivot state is computed as the intersection
+ *      of its forward and backward reachable sets (using parallel breadth-first search),
+ *      splitting the rest into three independent subproblems;
+ * <li> small sets of states are decomposed with (sequential, iterative) Tarjan,
+ *      with many such sets being processed in parallel.
+ * </ul>
+ * The number of threads is taken from the setting {@link PrismSettings#PRISM_NUM_THREADS}.
+ * <br>
+ * The SCCs are passed to the consumer (from the calling thread) once the decomposition is complete.
+ * They are reported in a (reverse) topological order, i.e., an SCC is reported after all SCCs
+ * reachable from it, like for {@link SCCComputerTarjan}, but the order is otherwise different.
+ * <br>
+ * Note that this stores the successor and predecessor relations (for the relevant states)
+ * as arrays, i.e., it needs memory for two ints per transition.
+ */
+public class SCCComputerFB extends SCCComputer
+{
+	/** Sets of states up to this size are decomposed with Tarjan's algorithm */
+	public static final int TARJAN_THRESHOLD = 1 << 16;
+	/** Minimum size of a frontier in breadth-first search for processing it in parallel */
+	public static final int PARALLEL_FRONTIER_THRESHOLD = 1 << 12;
+
+	/** Label for states that are not relevant or already assigned to an SCC */
+	private static final int DONE = -1;
+
+	/* The model to compute (B)SCCs for */
+	private Model<?> model;
+	/* Number of nodes (model states) */
+	private int numNodes;
+	/* Number of threads */
+	private int numThreads = 1;
+
+	/* Successors/predecessors of the relevant nodes (without self-loops and non-relevant nodes), as in SCCComputerTarjanIterative */
+	private int succStart[];
+	private int succs[];
+	private int predStart[];
+	private int preds[];
+	/* Nodes with a self-loop */
+	private BitSet hasSelfloop;
+
+	/* Label of each node, identifying the subproblem it belongs to (or DONE) */
+	private AtomicIntegerArray label;
+	/* Next free label */
+	private int nextLabel;
+	/* For Tarjan: index/lowlink of each node and whether it is on the stack */
+	private int index[];
+	private int lowlink[];
+	private boolean onStack[];
+
+	/**
+	 * Part of the result: either a list of sub-results (in order) or,
+	 * for a leaf, a list of SCCs (stored consecutively in {@code states}).
+	 */
+	private static class Result
+	{
+		Result parts[];
+		int states[];
+		int sccSizes[];
+
+		static Result ofParts(Result... parts)
+		{
+			Result result = new Result();
+			result.parts = parts;
+			return result;
+		}
+
+		static Result ofSCCs(int states[], int sccSizes[])
+		{
+			Result result = new Result();
+			result.states = states;
+			result.sccSizes = sccSizes;
+			return result;
+		}
+	}
+
+	/**
+	 * A subproblem: a set of states (all with label {@code label}),
+	 * whose SCCs are to be stored in {@code result}.
+	 */
+	private static class WorkItem
+	{
+		final int states[];
+		final int label;
+		final Result result = new Result();
+
+		WorkItem(int states[], int label)
+		{
+			this.states = states;
+			this.label = label;
+		}
+	}
+
+	/**
+	 * Build (B)SCC computer for a given model.
+	 */
+	public SCCComputerFB(PrismComponent parent, Model<?> model, SCCConsumer consumer) throws PrismException
+	{
+		super(parent, consumer);
+		this.model = model;
+		this.numNodes = model.getNumStates();
+		if (getSettings() != null) {
+			numThreads = getSettings().getInteger(PrismSettings.PRISM_NUM_THREADS);
+		}
+	}
+
+	/**
+	 * Set the number of threads to use.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
+	// Methods for SCCComputer interface
+
+	@Override
+	public void computeSCCs(boolean filterTrivialSCCs, IntPredicate restrict) throws PrismException
+	{
+		consumer.notifyStart(model);
+		buildGraph(restrict);
+		label = new AtomicIntegerArray(numNodes);
+		index = new int[numNodes];
+		lowlink = new int[numNodes];
+		onStack = new boolean[numNodes];
+		Result result = decompose(restrict);
+		// free memory
+		succStart = succs = predStart = preds = index = lowlink = null;
+		onStack = null;
+		label = null;
+		report(result, filterTrivialSCCs);
+		hasSelfloop = null;
+		consumer.notifyDone();
+	}
+
+	// Graph construction
+
+	/**
+	 * Store the successors and predecessors of all relevant states in (compact) arrays,
+	 * removing self-loops (which are stored separately) and edges to non-relevant states.
+	 * The successors are extracted from the model in parallel.
+	 */
+	private void buildGraph(IntPredicate restrict) throws PrismException
+	{
+		BitSet relevant = new BitSet();
+		for (int i = 0; i < numNodes; i++) {
+			if (restrict == null || restrict.test(i))
+				relevant.set(i);
+		}
+		hasSelfloop = new BitSet();
+		StatePartition partition = new StatePartition(model, IntSet.asIntSet(relevant), numThreads);
+		// count successors (stored in succStart[i+1])
+		succStart = new int[numNodes + 1];
+		List<BitSet> chunkSelfloops = partition.invokeAll(chunk -> {
+			BitSet selfloopsChunk = new BitSet();
+			for (PrimitiveIterator.OfInt it = chunk.iterator(); it.hasNext();) {
+				int i = it.nextInt();
+				int count = 0;
+				SuccessorsIterator succIt = model.getSuccessors(i);
+				while (succIt.hasNext()) {
+					int e = succIt.nextInt();
+					if (e == i) {
+						selfloopsChunk.set(i);
+					} else if (relevant.get(e)) {
+						count++;
+					}
+				}
+				succStart[i + 1] = count;
+			}
+			return selfloopsChunk;
+		});
+		for (BitSet bs : chunkSelfloops) {
+			hasSelfloop.or(bs);
+		}
+		for (int i = 0; i < numNodes; i++) {
+			succStart[i + 1] += succStart[i];
+		}
+		// store successors
+		succs = new int[succStart[numNodes]];
+		partition.invokeAll(chunk -> {
+			for (PrimitiveIterator.OfInt it = chunk.iterator(); it.hasNext();) {
+				int i = it.nextInt();
+				int pos = succStart[i];
+				SuccessorsIterator succIt = model.getSuccessors(i);
+				while (succIt.hasNext()) {
+					int e = succIt.nextInt();
+					if (e != i && relevant.get(e)) {
+						succs[pos++] = e;
+					}
+				}
+			}
+			return null;
+		});
+		// predecessors (by inverting the successor arrays)
+		predStart = new int[numNodes + 1];
+		for (int e : succs) {
+			predStart[e + 1]++;
+		}
+		for (int i = 0; i < numNodes; i++) {
+			predStart[i + 1] += predStart[i];
+		}
+		preds = new int[succs.length];
+		int pos[] = Arrays.copyOf(predStart, numNodes);
+		for (int i = 0; i < numNodes; i++) {
+			for (int j = succStart[i]; j < succStart[i + 1]; j++) {
+				preds[pos[succs[j]]++] = i;
+			}
+		}
+	}
+
+	// SCC computation
+
+	/**
+	 * Compute the SCCs of the relevant states.
+	 */
+	private Result decompose(IntPredicate restrict) throws PrismException
+	{
+		// Trimming: repeatedly remove states without remaining successors ("sinks")
+		// or predecessors ("sources"), which are trivial SCCs
+		int outDeg[] = new int[numNodes];
+		int inDeg[] = new int[numNodes];
+		int queue[] = new int[numNodes];
+		boolean isSink[] = new boolean[numNodes];
+		int head = 0, tail = 0;
+		for (int i = 0; i < numNodes; i++) {
+			if (restrict != null && !restrict.test(i)) {
+				label.set(i, DONE);
+				continue;
+			}
+			outDeg[i] = succStart[i + 1] - succStart[i];
+			inDeg[i] = predStart[i + 1] - predStart[i];
+			if (outDeg[i] == 0 || inDeg[i] == 0) {
+				isSink[i] = outDeg[i] == 0;
+				label.set(i, DONE);
+				queue[tail++] = i;
+			}
+		}
+		while (head < tail) {
+			int v = queue[head++];
+			for (int j = succStart[v]; j < succStart[v + 1]; j++) {
+				int w = succs[j];
+				if (label.get(w) != DONE && --inDeg[w] == 0) {
+					label.set(w, DONE);
+					queue[tail++] = w;
+				}
+			}
+			for (int j = predStart[v]; j < predStart[v + 1]; j++) {
+				int u = preds[j];
+				if (label.get(u) != DONE && --outDeg[u] == 0) {
+					isSink[u] = true;
+					label.set(u, DONE);
+					queue[tail++] = u;
+				}
+			}
+		}
+		// Sinks come first (in the order of removal), sources last (in reverse order of removal)
+		int numSinks = 0;
+		for (int k = 0; k < tail; k++) {
+			if (isSink[queue[k]])
+				numSinks++;
+		}
+		int sinks[] = new int[numSinks];
+		int sources[] = new int[tail - numSinks];
+		for (int k = 0, iSink = 0, iSource = sources.length; k < tail; k++) {
+			if (isSink[queue[k]]) {
+				sinks[iSink++] = queue[k];
+			} else {
+				sources[--iSource] = queue[k];
+			}
+		}
+		int ones[] = new int[Math.max(numSinks, sources.length)];
+		Arrays.fill(ones, 1);
+		outDeg = inDeg = queue = null;
+		isSink = null;
+
+		// The remaining states (with label 0) form the initial subproblem
+		int numRemaining = 0;
+		for (int i = 0; i < numNodes; i++) {
+			if (label.get(i) != DONE)
+				numRemaining++;
+		}
+		int remaining[] = new int[numRemaining];
+		for (int i = 0, k = 0; i < numNodes; i++) {
+			if (label.get(i) != DONE)
+				remaining[k++] = i;
+		}
+		nextLabel = 1;
+		WorkItem initial = new WorkItem(remaining, 0);
+		List<WorkItem> work = new ArrayList<>();
+		if (remaining.length > 0) {
+			work.add(initial);
+		} else {
+			initial.result.parts = new Result[0];
+		}
+
+		// Process subproblems in rounds: small ones (in parallel) with Tarjan,
+		// large ones with forward-backward (with parallel searches)
+		while (!work.isEmpty()) {
+			List<WorkItem> next = new ArrayList<>();
+			List<Callable<Object>> tasks = new ArrayList<>();
+			List<WorkItem> batch = new ArrayList<>();
+			int batchSize = 0;
+			for (WorkItem item : work) {
+				if (item.states.length > TARJAN_THRESHOLD) {
+					next.addAll(forwardBackward(item));
+				} else {
+					batch.add(item);
+					batchSize += item.states.length;
+					if (batchSize >= TARJAN_THRESHOLD / 4) {
+						tasks.add(tarjanTask(batch));
+						batch = new ArrayList<>();
+						batchSize = 0;
+					}
+				}
+			}
+			if (!batch.isEmpty()) {
+				tasks.add(tarjanTask(batch));
+			}
+			if (tasks.size() == 1 || numThreads <= 1) {
+				for (Callable<Object> task : tasks) {
+					callTask(task);
+				}
+			} else if (!tasks.isEmpty()) {
+				StatePartition.invokeAll(tasks, numThreads);
+			}
+			work = next;
+		}
+
+		return Result.ofParts(Result.ofSCCs(sinks, Arrays.copyOf(ones, sinks.length)), initial.result, Result.ofSCCs(sources, Arrays.copyOf(ones, sources.length)));
+	}
+
+	/**
+	 * Run a task (sequentially), passing on exceptions.
+	 */
+	private static void callTask(Callable<Object> task) throws PrismException
+	{
+		try {
+			task.call();
+		} catch (PrismException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new PrismException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Get a task that decomposes each of the (small) subproblems in {@code batch} using Tarjan's algorithm.
+	 */
+	private Callable<Object> tarjanTask(List<WorkItem> batch)
+	{
+		return () -> {
+			for (WorkItem item : batch) {
+				tarjan(item);
+			}
+			return null;
+		};
+	}
+
+	/**
+	 * Split the subproblem {@code item}, using forward-backward search from a pivot state:
+	 * its SCC is the intersection of the forward and backward reachable states,
+	 * and the remaining states are split into the forward-only, backward-only and unreachable ones,
+	 * which are returned as new subproblems.
+	 */
+	private List<WorkItem> forwardBackward(WorkItem item) throws PrismException
+	{
+		int l = item.label;
+		int lForward = nextLabel++;
+		int lBackward = nextLabel++;
+		int lSCC = nextLabel++;
+		int pivot = item.states[item.states.length / 2];
+		// forward search (l -> lForward), then backward search (l -> lBackward, lForward -> lSCC)
+		label.set(pivot, lForward);
+		search(pivot, succStart, succs, l, lForward, DONE, DONE);
+		label.set(pivot, lSCC);
+		search(pivot, predStart, preds, l, lBackward, lForward, lSCC);
+		// split
+		int counts[] = new int[4];
+		for (int s : item.states) {
+			counts[labelIndex(label.get(s), l, lForward, lBackward)]++;
+		}
+		int sets[][] = new int[4][];
+		for (int k = 0; k < 4; k++) {
+			sets[k] = new int[counts[k]];
+			counts[k] = 0;
+		}
+		for (int s : item.states) {
+			int k = labelIndex(label.get(s), l, lForward, lBackward);
+			sets[k][counts[k]++] = s;
+		}
+		for (int s : sets[3]) {
+			label.set(s, DONE);
+		}
+		// Order of the results: forward-only ones, unreachable ones, SCC, backward-only ones
+		// (there are no edges from the SCC to the unreachable states or vice versa)
+		WorkItem forward = new WorkItem(sets[1], lForward);
+		WorkItem rest = new WorkItem(sets[0], l);
+		WorkItem backward = new WorkItem(sets[2], lBackward);
+		List<WorkItem> items = new ArrayList<>();
+		List<Result> parts = new ArrayList<>();
+		for (WorkItem sub : new WorkItem[] { forward, rest, null, backward }) {
+			if (sub == null) {
+				parts.add(Result.ofSCCs(sets[3], new int[] { sets[3].length }));
+			} else if (sub.states.length > 0) {
+				parts.add(sub.result);
+				items.add(sub);
+			}
+		}
+		item.result.parts = parts.toArray(new Result[parts.size()]);
+		return items;
+	}
+
+	/**
+	 * Index of a label: 0 for l, 1 for lForward, 2 for lBackward, 3 for the SCC.
+	 */
+	private static int labelIndex(int lab, int l, int lForward, int lBackward)
+	{
+		return lab == l ? 0 : lab == lForward ? 1 : lab == lBackward ? 2 : 3;
+	}
+
+	/**
+	 * Breadth-first search from {@code pivot}, along the edges given by {@code start/edges}:
+	 * states with label {@code from1} are relabelled with {@code to1} (and explored),
+	 * and states with label {@code from2} are relabelled with {@code to2} (and explored),
+	 * unless {@code from2} is {@code DONE}.
+	 * Large frontiers are processed in parallel (with relabelling by compare-and-set,
+	 * so that each state is explored only once).
+	 */
+	private void search(int pivot, int start[], int edges[], int from1, int to1, int from2, int to2) throws PrismException
+	{
+		int frontier[] = new int[] { pivot };
+		while (frontier.length > 0) {
+			if (numThreads <= 1 || frontier.length < PARALLEL_FRONTIER_THRESHOLD) {
+				frontier = expand(frontier, 0, frontier.length, start, edges, from1, to1, from2, to2);
+			} else {
+				int numChunks = numThreads * StatePartition.CHUNKS_PER_THREAD;
+				List<Callable<int[]>> tasks = new ArrayList<>(numChunks);
+				int current[] = frontier;
+				for (int c = 0; c < numChunks; c++) {
+					int from = (int) ((long) current.length * c / numChunks);
+					int to = (int) ((long) current.length * (c + 1) / numChunks);
+					tasks.add(() -> expand(current, from, to, start, edges, from1, to1, from2, to2));
+				}
+				List<int[]> nextFrontiers = StatePartition.invokeAll(tasks, numThreads);
+				int size = 0;
+				for (int[] next : nextFrontiers) {
+					size += next.length;
+				}
+				frontier = new int[size];
+				int pos = 0;
+				for (int[] next : nextFrontiers) {
+					System.arraycopy(next, 0, frontier, pos, next.length);
+					pos += next.length;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Expand the states {@code frontier[from..to-1]} for a breadth-first search
+	 * (see {@link #search}) and return the newly found states.
+	 */
+	private int[] expand(int frontier[], int from, int to, int start[], int edges[], int from1, int to1, int from2, int to2)
+	{
+		int next[] = new int[Math.max(16, to - from)];
+		int size = 0;
+		for (int k = from; k < to; k++) {
+			int v = frontier[k];
+			for (int j = start[v]; j < start[v + 1]; j++) {
+				int w = edges[j];
+				int lab = label.get(w);
+				if ((lab == from1 && label.compareAndSet(w, from1, to1)) || (lab == from2 && from2 != DONE && label.compareAndSet(w, from2, to2))) {
+					if (size == next.length) {
+						next = Arrays.copyOf(next, 2 * size);
+					}
+					next[size++] = w;
+				}
+			}
+		}
+		return Arrays.copyOf(next, size);
+	}
+
+	/**
+	 * Decompose the subproblem {@code item} using (iterative) Tarjan,
+	 * following only edges within the subproblem, and store the SCCs
+	 * (in reverse topological order) as its result.
+	 */
+	private void tarjan(WorkItem item)
+	{
+		int l = item.label;
+		int n = item.states.length;
+		int sccStates[] = new int[n];
+		int sccSizes[] = new int[n];
+		int numSCCs = 0;
+		int numSCCStates = 0;
+		int stack[] = new int[n];
+		int stackTop = 0;
+		int dfsNodes[] = new int[n];
+		int dfsNext[] = new int[n];
+		int nextIndex = 0;
+		for (int s : item.states) {
+			index[s] = -1;
+		}
+		for (int root : item.states) {
+			if (index[root] != -1)
+				continue;
+			int depth = 0;
+			index[root] = lowlink[root] = nextIndex++;
+			stack[stackTop++] = root;
+			onStack[root] = true;
+			dfsNodes[depth] = root;
+			dfsNext[depth++] = succStart[root];
+			while (depth > 0) {
+				int v = dfsNodes[depth - 1];
+				if (dfsNext[depth - 1] < succStart[v + 1]) {
+					int e = succs[dfsNext[depth - 1]++];
+					if (label.get(e) != l) {
+						continue; // ignore edge leaving the subproblem
+					}
+					if (index[e] == -1) {
+						index[e] = lowlink[e] = nextIndex++;
+						stack[stackTop++] = e;
+						onStack[e] = true;
+						dfsNodes[depth] = e;
+						dfsNext[depth++] = succStart[e];
+					} else if (onStack[e]) {
+						lowlink[v] = Math.min(lowlink[v], index[e]);
+					}
+				} else {
+					depth--;
+					if (lowlink[v] == index[v]) {
+						int size = 0;
+						int w;
+						do {
+							w = stack[--stackTop];
+							onStack[w] = false;
+							sccStates[numSCCStates++] = w;
+							size++;
+						} while (w != v);
+						sccSizes[numSCCs++] = size;
+					}
+					if (depth > 0) {
+						int u = dfsNodes[depth - 1];
+						lowlink[u] = Math.min(lowlink[u], lowlink[v]);
+					}
+				}
+			}
+		}
+		item.result.states = sccStates;
+		item.result.sccSizes = Arrays.copyOf(sccSizes, numSCCs);
+	}
+
+	// Reporting
+
+	/**
+	 * Pass the SCCs stored in {@code result} to the consumer, in order.
+	 */
+	private void report(Result result, boolean filterTrivialSCCs) throws PrismException
+	{
+		// traverse the result tree (without recursion, since it may be deep)
+		Deque<Result> todo = new ArrayDeque<>();
+		todo.push(result);
+		while (!todo.isEmpty()) {
+			Result r = todo.pop();
+			if (r.parts != null) {
+				for (int k = r.parts.length - 1; k >= 0; k--) {
+					todo.push(r.parts[k]);
+				}
+				continue;
+			}
+			for (int k = 0, pos = 0; k < r.sccSizes.length; pos += r.sccSizes[k++]) {
+				int size = r.sccSizes[k];
+				if (size == 1 && filterTrivialSCCs && !hasSelfloop.get(r.states[pos])) {
+					continue; // singleton SCC & no selfloop -> trivial
+				}
+				consumer.notifyStartSCC();
+				for (int j = pos; j < pos + size; j++) {
+					consumer.notifyStateInSCC(r.states[j]);
+				}
+				consumer.notifyEndSCC();
+			}
+		}
+	}
+}
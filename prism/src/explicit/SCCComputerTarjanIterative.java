@@ -0,0 +1,214 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+/**
+ * Tarjan's SCC algorithm operating on a Model object, implemented iteratively
+ * (i.e., with an explicit DFS stack instead of recursion, so that it also works
+ * for models with very long paths) and using only primitive arrays.
+ * <br>
+ * The SCCs (and the states within each SCC) are reported in exactly the same order
+ * as by the recursive implementation {@link SCCComputerTarjan}.
+ */
+public class SCCComputerTarjanIterative extends SCCComputer
+{
+	/* The model to compute (B)SCCs for */
+	private Model<?> model;
+	/* Number of nodes (model states) */
+	private int numNodes;
+
+	/* Successors of the (relevant) nodes, ignoring self-loops and edges to non-relevant nodes: succs[succStart[i]..succStart[i+1]-1] */
+	private int succStart[];
+	private int succs[];
+	/* Nodes with a self-loop */
+	private BitSet hasSelfloop;
+
+	/* DFS index of each node (-1 if not yet visited) */
+	private int index[];
+	/* Lowlink of each node */
+	private int lowlink[];
+	/* Stack of nodes (Tarjan's stack), with pointer to the next free position */
+	private int stack[];
+	private int stackTop;
+	/* Nodes currently on the stack */
+	private BitSet onStack;
+	/* DFS stack: nodes and, for each, the position of the next successor to explore */
+	private int dfsNodes[];
+	private int dfsNext[];
+
+	/**
+	 * Build (B)SCC computer for a given model.
+	 */
+	public SCCComputerTarjanIterative(PrismComponent parent, Model<?> model, SCCConsumer consumer) throws PrismException
+	{
+		super(parent, consumer);
+		this.model = model;
+		this.numNodes = model.getNumStates();
+	}
+
+	// Methods for SCCComputer interface
+
+	@Override
+	public void computeSCCs(boolean filterTrivialSCCs, IntPredicate restrict) throws PrismException
+	{
+		consumer.notifyStart(model);
+		buildSuccessors(restrict);
+		tarjan(filterTrivialSCCs, restrict);
+		// free memory
+		succStart = succs = index = lowlink = stack = dfsNodes = dfsNext = null;
+		hasSelfloop = onStack = null;
+		consumer.notifyDone();
+	}
+
+	// SCC Computation
+
+	/**
+	 * Store the successors of all relevant states in (compact) arrays,
+	 * removing self-loops (which are stored separately) and edges to non-relevant states.
+	 */
+	private void buildSuccessors(IntPredicate restrict)
+	{
+		hasSelfloop = new BitSet();
+		succStart = new int[numNodes + 1];
+		succs = new int[Math.max(16, numNodes)];
+		int count = 0;
+		for (int i = 0; i < numNodes; i++) {
+			succStart[i] = count;
+			if (restrict != null && !restrict.test(i))
+				continue;
+			SuccessorsIterator it = model.getSuccessors(i);
+			while (it.hasNext()) {
+				int e = it.nextInt();
+				if (e == i) {
+					hasSelfloop.set(i);
+				} else if (restrict == null || restrict.test(e)) {
+					if (count == succs.length) {
+						succs = Arrays.copyOf(succs, (int) Math.min(Integer.MAX_VALUE - 8, 2L * count));
+					}
+					succs[count++] = e;
+				}
+			}
+		}
+		succStart[numNodes] = count;
+	}
+
+	/**
+	 * Execute Tarjan's algorithm. Determine maximal strongly connected components
+	 * (SCCS) for the graph of the model and pass them to the consumer.
+	 */
+	private void tarjan(boolean filterTrivialSCCs, IntPredicate restrict) throws PrismException
+	{
+		index = new int[numNodes];
+		Arrays.fill(index, -1);
+		lowlink = new int[numNodes];
+		stack = new int[numNodes];
+		stackTop = 0;
+		onStack = new BitSet();
+		dfsNodes = new int[numNodes];
+		dfsNext = new int[numNodes];
+		int nextIndex = 0;
+
+		for (int root = 0; root < numNodes; root++) {
+			if (restrict != null && !restrict.test(root))
+				continue; // skip state if not one of the relevant states
+			if (index[root] != -1)
+				continue;
+
+			// start DFS from root
+			int depth = 0;
+			nextIndex = visit(root, nextIndex, depth++);
+			while (depth > 0) {
+				int v = dfsNodes[depth - 1];
+				if (dfsNext[depth - 1] < succStart[v + 1]) {
+					// explore next successor
+					int e = succs[dfsNext[depth - 1]++];
+					if (index[e] == -1) {
+						nextIndex = visit(e, nextIndex, depth++);
+					} else if (onStack.get(e)) {
+						lowlink[v] = Math.min(lowlink[v], index[e]);
+					}
+				} else {
+					// all successors explored: v is done
+					depth--;
+					if (lowlink[v] == index[v]) {
+						popSCC(v, filterTrivialSCCs);
+					}
+					if (depth > 0) {
+						int u = dfsNodes[depth - 1];
+						lowlink[u] = Math.min(lowlink[u], lowlink[v]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Visit node {@code i}, i.e., assign it index {@code nextIndex} and push it
+	 * onto the stack and (at {@code depth}) the DFS stack. Returns the next free index.
+	 */
+	private int visit(int i, int nextIndex, int depth)
+	{
+		index[i] = nextIndex;
+		lowlink[i] = nextIndex;
+		stack[stackTop++] = i;
+		onStack.set(i);
+		dfsNodes[depth] = i;
+		dfsNext[depth] = succStart[i];
+		return nextIndex + 1;
+	}
+
+	/**
+	 * Pop the SCC with root {@code i} from the stack and pass it to the consumer
+	 * (unless it is trivial and trivial SCCs should be filtered).
+	 */
+	private void popSCC(int i, boolean filterTrivialSCCs) throws PrismException
+	{
+		// this is a singleton SCC if the top of the stack equals i
+		boolean singletonSCC = (stack[stackTop - 1] == i);
+		if (singletonSCC && filterTrivialSCCs) {
+			if (!hasSelfloop.get(i)) { // singleton SCC & no selfloop -> trivial
+				stackTop--;
+				onStack.clear(i);
+				return;
+			}
+		}
+
+		int n;
+		consumer.notifyStartSCC();
+		do {
+			n = stack[--stackTop];
+			onStack.clear(n);
+			consumer.notifyStateInSCC(n);
+		} while (n != i);
+		consumer.notifyEndSCC();
+	}
+}
@@ -0,0 +1,125 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Iterator;
+
+/**
+ * Levels of the DAG of SCCs stored in an {@link SCCInfo}, for a model:
+ * SCCs on level 0 have no successors in other SCCs and
+ * SCCs on level k > 0 only have successors in SCCs on levels 0..k-1
+ * (and in at least one SCC on level k-1).
+ * So, when processing the SCCs in a topological order (successors first),
+ * all SCCs on the same level are independent and can be processed in parallel.
+ */
+public class SCCLevels
+{
+	/** Number of levels */
+	private final int numLevels;
+	/** SCC indices, ordered by level (and then by SCC index) */
+	private final int sccList[];
+	/** Index into sccList: levelStart[k] is the first SCC on level k (levelStart[numLevels] is the end) */
+	private final int levelStart[];
+
+	/**
+	 * Compute the levels for the SCCs {@code sccs} of {@code model}.
+	 * States of the model that are not in an SCC are ignored.
+	 * The SCCs must be stored in (reverse) topological order, i.e., successors first,
+	 * as produced by {@link SCCComputer#computeTopologicalOrdering}.
+	 */
+	public SCCLevels(Model<?> model, SCCInfo sccs)
+	{
+		int numSCCs = sccs.getNumSCCs();
+		int level[] = new int[numSCCs];
+		int maxLevel = -1;
+		for (int scc = 0; scc < numSCCs; scc++) {
+			int lev = 0;
+			for (Iterator<Integer> itScc = sccs.getStatesForSCC(scc).iterator(); itScc.hasNext();) {
+				int s = itScc.next();
+				for (Iterator<Integer> it = model.getSuccessorsIterator(s); it.hasNext();) {
+					int sccSucc = sccs.getSCCIndex(it.next());
+					if (sccSucc != -1 && sccSucc != scc) {
+						if (sccSucc > scc) {
+							throw new IllegalArgumentException("SCCs are not in topological order");
+						}
+						lev = Math.max(lev, level[sccSucc] + 1);
+					}
+				}
+			}
+			level[scc] = lev;
+			maxLevel = Math.max(maxLevel, lev);
+		}
+		// Sort SCCs by level (counting sort)
+		numLevels = maxLevel + 1;
+		levelStart = new int[numLevels + 1];
+		for (int scc = 0; scc < numSCCs; scc++) {
+			levelStart[level[scc] + 1]++;
+		}
+		for (int k = 0; k < numLevels; k++) {
+			levelStart[k + 1] += levelStart[k];
+		}
+		sccList = new int[numSCCs];
+		int pos[] = levelStart.clone();
+		for (int scc = 0; scc < numSCCs; scc++) {
+			sccList[pos[level[scc]]++] = scc;
+		}
+	}
+
+	/**
+	 * Get the number of levels.
+	 */
+	public int getNumLevels()
+	{
+		return numLevels;
+	}
+
+	/**
+	 * Get the number of SCCs on level {@code k}.
+	 */
+	public int getNumSCCsOnLevel(int k)
+	{
+		return levelStart[k + 1] - levelStart[k];
+	}
+
+	/**
+	 * Get the {@code i}th SCC (index) on level {@code k}.
+	 */
+	public int getSCCOnLevel(int k, int i)
+	{
+		return sccList[levelStart[k] + i];
+	}
+
+	/**
+	 * Get the maximum number of SCCs on a single level.
+	 */
+	public int getMaxNumSCCsOnLevel()
+	{
+		int max = 0;
+		for (int k = 0; k < numLevels; k++) {
+			max = Math.max(max, getNumSCCsOnLevel(k));
+		}
+		return max;
+	}
+}
@@ -132,6 +132,7 @@ public class STPGAbstrSimple<Value> extends ModelExplicit<Value> implements STPG
 		// Do nothing if state does not exist
 		if (i >= numStates || i < 0)
 			return;
+		transitionsChanged();
 		// Clear data structures and update stats
 		List<DistributionSet<Value>> list = trans.get(i);
 		numDistrSets -= list.size();
@@ -156,6 +157,7 @@ public class STPGAbstrSimple<Value> extends ModelExplicit<Value> implements STPG
 	@Override
 	public void addStates(int numToAdd)
 	{
+		transitionsChanged();
 		for (int i = 0; i < numToAdd; i++) {
 			trans.add(new ArrayList<>());
 		}
@@ -267,6 +269,7 @@ public class STPGAbstrSimple<Value> extends ModelExplicit<Value> implements STPG
 		// Check state exists
 		if (s >= numStates || s < 0)
 			return -1;
+		transitionsChanged();
 		// Add distribution set (if new)
 		set = trans.get(s);
 		if (!allowDupes) {
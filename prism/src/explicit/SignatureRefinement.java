@@ -0,0 +1,905 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import prism.PrismException;
+
+/**
+ * Signature-based partition refinement, used by {@link Bisimulation} to compute the coarsest
+ * (probabilistic) bisimulation of a DTMC, CTMC or MDP that refines an initial partition.
+ * <br>
+ * The model is copied into primitive arrays: each state has a list of choices (a single one
+ * for a DTMC/CTMC) and each choice a list of (successor, probability/rate) pairs,
+ * plus, optionally, some rewards. The signature of a state is the set of its choices,
+ * lifted to the blocks of the current partition, in a canonical form.
+ * In each round, the signatures (and hash codes for them) are computed for the states
+ * in blocks that may have to be split, i.e. those containing a predecessor of a state
+ * that moved to another block in the previous round. These blocks are split by sorting
+ * their states by hash code (comparing signatures exactly to deal with collisions).
+ * Both steps are done in parallel, if more than one thread is used.
+ */
+class SignatureRefinement
+{
+	/** Minimum number of states to do refinement in parallel */
+	public static final int MIN_PARALLEL_STATES = 10000;
+
+	// Model
+
+	/* Number of states */
+	private final int numStates;
+	/* Choices of each state: choiceStart[s]..choiceStart[s+1]-1 */
+	private final int choiceStart[];
+	/* Transitions of each choice: transSucc/transVal[transStart[c]..transStart[c+1]-1] */
+	private final int transStart[];
+	private final int transSucc[];
+	private final double transVal[];
+	/* Rewards for each choice (numRewards per choice) */
+	private final int numRewards;
+	private final double choiceRewards[];
+	/* Predecessors of each state: pre[preStart[s]..preStart[s+1]-1] */
+	private int preStart[];
+	private int pre[];
+	/* Maximum number of transitions of a choice */
+	private int maxChoiceSize;
+
+	// Partition
+
+	/* Block for each state */
+	private int partition[];
+	/* Number of blocks */
+	private int numBlocks;
+	/* States, grouped by block: order[blockStart[b]..blockEnd[b]-1], and the position of each state in order */
+	private int order[];
+	private int position[];
+	private int blockStart[];
+	private int blockEnd[];
+	/*
+	 * Used when splitting: group of each state (within its block) and, for each block,
+	 * the first index for new blocks and the start of the states that move to new blocks in order
+	 */
+	private int group[];
+	private int newBlockBase[];
+	private int splitStart[];
+	/* Number of rounds of refinement done */
+	private int numRounds;
+
+	// Signatures
+
+	/*
+	 * Signature of state s: sigBlocks/sigVals[sigStart[s]..sigStart[s]+sigLength[s]-1]
+	 * in the workspace (see below) used for the block containing s.
+	 * For each (distinct) lifted choice, in a canonical order, there is a header,
+	 * with sigBlocks storing the number of entries of the choice, then the entries
+	 * (block and probability/rate, or -1-k and the k-th reward, if non-zero) ordered by block.
+	 */
+	private int sigStart[];
+	private int sigLength[];
+	/* Hash code of each state's signature */
+	private int sigHash[];
+	/* Temporary storage for computing signatures (reused, at most one per thread) */
+	private ConcurrentLinkedQueue<Workspace> workspaces = new ConcurrentLinkedQueue<>();
+
+	/* Number of threads to use */
+	private int numThreads = 1;
+
+	/**
+	 * Construct a new refinement for the model given by primitive arrays
+	 * (see the class description; these are not modified).
+	 * @param numStates Number of states
+	 * @param choiceStart Choices of each state: choiceStart[s]..choiceStart[s+1]-1
+	 * @param transStart Transitions of each choice: transStart[c]..transStart[c+1]-1
+	 * @param transSucc Successor state for each transition
+	 * @param transVal Probability (or rate) for each transition
+	 * @param numRewards Number of rewards for each choice
+	 * @param choiceRewards Rewards of each choice c: choiceRewards[c*numRewards+k] (null if numRewards is 0)
+	 */
+	public SignatureRefinement(int numStates, int choiceStart[], int transStart[], int transSucc[], double transVal[], int numRewards, double choiceRewards[])
+	{
+		this.numStates = numStates;
+		this.choiceStart = choiceStart;
+		this.transStart = transStart;
+		this.transSucc = transSucc;
+		this.transVal = transVal;
+		this.numRewards = numRewards;
+		this.choiceRewards = choiceRewards;
+	}
+
+	/**
+	 * Set the number of threads to use.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Refine the partition {@code initialPartition} (with non-empty blocks 0..numInitialBlocks-1)
+	 * to the coarsest bisimulation. The result can be retrieved with
+	 * {@link #getPartition()} and {@link #getNumBlocks()}.
+	 */
+	public void refine(int initialPartition[], int numInitialBlocks) throws PrismException
+	{
+		partition = initialPartition.clone();
+		numBlocks = numInitialBlocks;
+		buildBlocks();
+		allocateSignatures();
+		group = new int[numStates];
+		newBlockBase = new int[numStates];
+		splitStart = new int[numStates];
+		int touchedRound[] = new int[numStates];
+		// In the first round, all blocks are checked (and all their states are "touched")
+		int blocks[] = allBlocks();
+		int touched[] = null;
+		int touchedStart[] = null;
+		numRounds = 0;
+		while (true) {
+			numRounds++;
+			if (blocks.length == 0) {
+				break;
+			}
+			int moved[] = splitBlocks(blocks, touched, touchedStart);
+			if (moved.length == 0) {
+				break;
+			}
+			// If many states moved, just check all blocks (and states) next
+			if (moved.length > numStates / 4) {
+				blocks = allBlocks();
+				touched = null;
+				touchedStart = null;
+				continue;
+			}
+			// Otherwise, only the predecessors of the states that moved ("touched" states) can
+			// have a different signature now, so only their blocks need to be checked
+			// (the predecessor relation is only built when needed)
+			if (pre == null) {
+				buildPredecessors();
+			}
+			long keys[] = new long[16];
+			int numTouched = 0;
+			for (int s : moved) {
+				for (int j = preStart[s]; j < preStart[s + 1]; j++) {
+					int u = pre[j];
+					if (touchedRound[u] != numRounds && blockEnd[partition[u]] - blockStart[partition[u]] > 1) {
+						touchedRound[u] = numRounds;
+						if (numTouched == keys.length) {
+							keys = Arrays.copyOf(keys, 2 * numTouched);
+						}
+						keys[numTouched++] = ((long) partition[u] << 32) | u;
+					}
+				}
+			}
+			// Group touched states by block
+			Arrays.sort(keys, 0, numTouched);
+			touched = new int[numTouched];
+			int numTouchedBlocks = 0;
+			for (int i = 0; i < numTouched; i++) {
+				touched[i] = (int) keys[i];
+				if (i == 0 || (keys[i] >> 32) != (keys[i - 1] >> 32)) {
+					numTouchedBlocks++;
+				}
+			}
+			blocks = new int[numTouchedBlocks];
+			touchedStart = new int[numTouchedBlocks + 1];
+			numTouchedBlocks = 0;
+			for (int i = 0; i < numTouched; i++) {
+				if (i == 0 || (keys[i] >> 32) != (keys[i - 1] >> 32)) {
+					blocks[numTouchedBlocks] = (int) (keys[i] >> 32);
+					touchedStart[numTouchedBlocks++] = i;
+				}
+			}
+			touchedStart[numTouchedBlocks] = numTouched;
+		}
+		renumberBlocks();
+		// free memory
+		preStart = pre = order = position = blockStart = blockEnd = null;
+		sigStart = sigLength = sigHash = group = newBlockBase = splitStart = null;
+		workspaces.clear();
+	}
+
+	/**
+	 * Get the partition: the block index for each state. The blocks are numbered
+	 * in order of the lowest state they contain, i.e., state 0 is in block 0, etc.
+	 */
+	public int[] getPartition()
+	{
+		return partition;
+	}
+
+	/**
+	 * Get the number of blocks in the partition.
+	 */
+	public int getNumBlocks()
+	{
+		return numBlocks;
+	}
+
+	/**
+	 * Get the number of rounds of refinement that were done.
+	 */
+	public int getNumRounds()
+	{
+		return numRounds;
+	}
+
+	// Initialisation
+
+	/**
+	 * Build the predecessor relation (ignoring multiple transitions between the same states).
+	 */
+	private void buildPredecessors()
+	{
+		preStart = new int[numStates + 1];
+		int last[] = new int[numStates];
+		Arrays.fill(last, -1);
+		for (int s = 0; s < numStates; s++) {
+			for (int c = choiceStart[s]; c < choiceStart[s + 1]; c++) {
+				for (int j = transStart[c]; j < transStart[c + 1]; j++) {
+					int t = transSucc[j];
+					if (transVal[j] != 0.0 && last[t] != s) {
+						last[t] = s;
+						preStart[t + 1]++;
+					}
+				}
+			}
+		}
+		for (int s = 0; s < numStates; s++) {
+			preStart[s + 1] += preStart[s];
+		}
+		pre = new int[preStart[numStates]];
+		int pos[] = Arrays.copyOf(preStart, numStates);
+		Arrays.fill(last, -1);
+		for (int s = 0; s < numStates; s++) {
+			for (int j = transStart[choiceStart[s]]; j < transStart[choiceStart[s + 1]]; j++) {
+				int t = transSucc[j];
+				if (transVal[j] != 0.0 && last[t] != s) {
+					last[t] = s;
+					pre[pos[t]++] = s;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Group the states by block (in {@code order}).
+	 */
+	private void buildBlocks()
+	{
+		blockStart = new int[numStates];
+		blockEnd = new int[numStates];
+		for (int s = 0; s < numStates; s++) {
+			blockEnd[partition[s]]++;
+		}
+		for (int b = 1; b < numBlocks; b++) {
+			blockEnd[b] += blockEnd[b - 1];
+		}
+		for (int b = 0; b < numBlocks; b++) {
+			blockStart[b] = b == 0 ? 0 : blockEnd[b - 1];
+		}
+		order = new int[numStates];
+		position = new int[numStates];
+		int pos[] = Arrays.copyOf(blockStart, numBlocks);
+		for (int s = 0; s < numStates; s++) {
+			position[s] = pos[partition[s]];
+			order[pos[partition[s]]++] = s;
+		}
+	}
+
+	/**
+	 * Allocate space for the signatures (the storage for the signatures themselves
+	 * is allocated in workspaces, when needed).
+	 */
+	private void allocateSignatures()
+	{
+		sigStart = new int[numStates];
+		sigLength = new int[numStates];
+		sigHash = new int[numStates];
+		maxChoiceSize = 0;
+		for (int c = 0, n = choiceStart[numStates]; c < n; c++) {
+			maxChoiceSize = Math.max(maxChoiceSize, transStart[c + 1] - transStart[c]);
+		}
+	}
+
+	// Refinement
+
+	/**
+	 * Get all blocks that contain more than one state.
+	 */
+	private int[] allBlocks()
+	{
+		int count = 0;
+		for (int b = 0; b < numBlocks; b++) {
+			if (blockEnd[b] - blockStart[b] > 1) {
+				count++;
+			}
+		}
+		int blocks[] = new int[count];
+		count = 0;
+		for (int b = 0; b < numBlocks; b++) {
+			if (blockEnd[b] - blockStart[b] > 1) {
+				blocks[count++] = b;
+			}
+		}
+		return blocks;
+	}
+
+	/**
+	 * Split the blocks {@code blocks} according to the signatures of their states.
+	 * Only the states touched[touchedStart[i]..touchedStart[i+1]-1] of block blocks[i]
+	 * may have changed signature since the block was last checked (if {@code touched} is null,
+	 * all states are considered). Returns the states that were moved to a new block.
+	 */
+	private int[] splitBlocks(int blocks[], int touched[], int touchedStart[]) throws PrismException
+	{
+		// Divide the blocks into chunks (of similar total size) to be processed in parallel
+		int numRelevant = 0;
+		for (int i = 0; i < blocks.length; i++) {
+			numRelevant += numRelevantStates(blocks, touchedStart, i);
+		}
+		List<int[]> chunks = new ArrayList<>();
+		int numChunks = numThreads <= 1 || numRelevant < MIN_PARALLEL_STATES ? 1 : numThreads * StatePartition.CHUNKS_PER_THREAD;
+		int chunkSize = (numRelevant + numChunks - 1) / numChunks;
+		int from = 0, size = 0;
+		for (int i = 0; i < blocks.length; i++) {
+			size += numRelevantStates(blocks, touchedStart, i);
+			if (size >= chunkSize || i == blocks.length - 1) {
+				chunks.add(new int[] { from, i + 1 });
+				from = i + 1;
+				size = 0;
+			}
+		}
+		// Compute signatures and (local) group of each (relevant) state in the blocks
+		List<Callable<int[]>> tasks = new ArrayList<>();
+		for (int chunk[] : chunks) {
+			tasks.add(() -> groupChunk(blocks, chunk[0], chunk[1], touched, touchedStart));
+		}
+		List<int[]> numGroups = invokeAll(tasks);
+		// Assign indices for the new blocks (the first group of each block keeps the old index)
+		for (int i = 0; i < chunks.size(); i++) {
+			int chunk[] = chunks.get(i);
+			for (int j = chunk[0]; j < chunk[1]; j++) {
+				newBlockBase[blocks[j]] = numBlocks - 1;
+				numBlocks += numGroups.get(i)[j - chunk[0]] - 1;
+			}
+		}
+		// Update the partition
+		List<Callable<int[]>> updateTasks = new ArrayList<>();
+		for (int chunk[] : chunks) {
+			updateTasks.add(() -> updateChunk(blocks, chunk[0], chunk[1]));
+		}
+		List<int[]> movedLists = invokeAll(updateTasks);
+		int numMoved = 0;
+		for (int moved[] : movedLists) {
+			numMoved += moved.length;
+		}
+		int moved[] = new int[numMoved];
+		numMoved = 0;
+		for (int list[] : movedLists) {
+			System.arraycopy(list, 0, moved, numMoved, list.length);
+			numMoved += list.length;
+		}
+		return moved;
+	}
+
+	/**
+	 * Get the number of states of block blocks[i] to be considered by {@link #splitBlocks}.
+	 */
+	private int numRelevantStates(int blocks[], int touchedStart[], int i)
+	{
+		return touchedStart == null ? blockEnd[blocks[i]] - blockStart[blocks[i]] : touchedStart[i + 1] - touchedStart[i];
+	}
+
+	/**
+	 * Run some tasks, in parallel if there is more than one.
+	 */
+	private <T> List<T> invokeAll(List<Callable<T>> tasks) throws PrismException
+	{
+		if (tasks.size() == 1) {
+			try {
+				return List.of(tasks.get(0).call());
+			} catch (PrismException | RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new PrismException(e.getMessage());
+			}
+		}
+		return StatePartition.invokeAll(tasks, numThreads);
+	}
+
+	/**
+	 * For each block blocks[i], for {@code from <= i < to}, compute the signatures of its (touched)
+	 * states, sort them by signature (hash) and store the (local) group of each state in {@code group}
+	 * (0, 1, ..., one for each distinct signature). States in the same group are made contiguous
+	 * in {@code order}, with those in group 0 first, and the start of the other ones is stored in {@code splitStart}.
+	 * If only some states of a block are touched, the others (whose signature has not changed)
+	 * form group 0; the touched ones have a different signature, since they have a successor
+	 * in a new block. Returns the number of groups for each block.
+	 */
+	private int[] groupChunk(int blocks[], int from, int to, int touched[], int touchedStart[])
+	{
+		Workspace ws = workspaces.poll();
+		if (ws == null) {
+			ws = new Workspace(maxChoiceSize, numStates);
+		}
+		int numGroups[] = new int[to - from];
+		long keys[] = new long[0];
+		int reps[] = new int[4];
+		for (int i = from; i < to; i++) {
+			int b = blocks[i];
+			int start = blockStart[b], end = blockEnd[b];
+			// Move the touched states (if not all) to the end
+			int firstGroup = 0;
+			if (touched != null && touchedStart[i + 1] - touchedStart[i] < end - start) {
+				int target = end;
+				for (int k = touchedStart[i]; k < touchedStart[i + 1]; k++) {
+					int s = touched[k];
+					target--;
+					int t = order[target];
+					order[position[s]] = t;
+					position[t] = position[s];
+					order[target] = s;
+					position[s] = target;
+				}
+				start = target;
+				firstGroup = 1;
+			}
+			ws.sigSize = 0;
+			for (int j = start; j < end; j++) {
+				int s = order[j];
+				int numChoices = choiceStart[s + 1] - choiceStart[s];
+				if (ws.choicePos.length < numChoices + 1) {
+					ws.choicePos = new int[numChoices + 1];
+				}
+				computeSignature(s, ws);
+			}
+			// Sort by hash
+			if (keys.length < end - start) {
+				keys = new long[end - start];
+			}
+			for (int j = start; j < end; j++) {
+				int s = order[j];
+				keys[j - start] = ((long) sigHash[s] << 32) | s;
+			}
+			Arrays.sort(keys, 0, end - start);
+			for (int j = start; j < end; j++) {
+				order[j] = (int) keys[j - start];
+			}
+			// Assign groups: states with equal hash are compared exactly
+			// (with one state of each distinct signature among them, in case of collisions)
+			int count = firstGroup;
+			boolean collision = false;
+			int numReps = 0;
+			for (int j = start; j < end; j++) {
+				int s = order[j];
+				if (j == start || sigHash[s] != sigHash[order[j - 1]]) {
+					numReps = 0;
+				}
+				group[s] = -1;
+				for (int k = 0; k < numReps; k++) {
+					if (sameSignature(ws, s, reps[k])) {
+						group[s] = group[reps[k]];
+						break;
+					}
+				}
+				if (group[s] == -1) {
+					group[s] = count++;
+					if (numReps == reps.length) {
+						reps = Arrays.copyOf(reps, 2 * numReps);
+					}
+					reps[numReps++] = s;
+				}
+				if (numReps > 1) {
+					collision = true;
+				}
+			}
+			// Make groups contiguous if needed
+			if (collision) {
+				sortByGroup(start, end);
+			}
+			for (int j = start; j < end; j++) {
+				position[order[j]] = j;
+			}
+			// Find the states not in group 0
+			if (firstGroup == 0) {
+				while (start < end && group[order[start]] == 0) {
+					start++;
+				}
+			}
+			splitStart[b] = start;
+			numGroups[i - from] = count;
+		}
+		workspaces.add(ws);
+		return numGroups;
+	}
+
+	/**
+	 * Stable sort of order[start..end-1] by group.
+	 */
+	private void sortByGroup(int start, int end)
+	{
+		int minGroup = Integer.MAX_VALUE, maxGroup = 0;
+		for (int j = start; j < end; j++) {
+			minGroup = Math.min(minGroup, group[order[j]]);
+			maxGroup = Math.max(maxGroup, group[order[j]]);
+		}
+		int count[] = new int[maxGroup - minGroup + 2];
+		for (int j = start; j < end; j++) {
+			count[group[order[j]] - minGroup + 1]++;
+		}
+		for (int g = 0; g <= maxGroup - minGroup; g++) {
+			count[g + 1] += count[g];
+		}
+		int sorted[] = new int[end - start];
+		for (int j = start; j < end; j++) {
+			sorted[count[group[order[j]] - minGroup]++] = order[j];
+		}
+		System.arraycopy(sorted, 0, order, start, end - start);
+	}
+
+	/**
+	 * For each block blocks[i], for {@code from <= i < to}, whose states have been grouped by {@link #groupChunk},
+	 * move the states in groups other than 0 to new blocks (numbered from {@code newBlockBase[b]+1}).
+	 * Returns the states that were moved.
+	 */
+	private int[] updateChunk(int blocks[], int from, int to)
+	{
+		int numMoved = 0;
+		for (int i = from; i < to; i++) {
+			numMoved += blockEnd[blocks[i]] - splitStart[blocks[i]];
+		}
+		int moved[] = new int[numMoved];
+		numMoved = 0;
+		for (int i = from; i < to; i++) {
+			int b = blocks[i];
+			int start = splitStart[b], end = blockEnd[b];
+			if (start < end) {
+				blockEnd[b] = start;
+			}
+			for (int j = start; j < end; j++) {
+				int s = order[j];
+				int bNew = newBlockBase[b] + group[s];
+				if (j == start || group[order[j - 1]] != group[s]) {
+					blockStart[bNew] = j;
+				}
+				blockEnd[bNew] = j + 1;
+				partition[s] = bNew;
+				moved[numMoved++] = s;
+			}
+		}
+		return moved;
+	}
+
+	// Signatures
+
+	/**
+	 * Compute the signature of state {@code s}, and its hash code,
+	 * storing it in (and using the temporary storage of) {@code ws}.
+	 */
+	private void computeSignature(int s, Workspace ws)
+	{
+		int blocks[] = ws.blocks;
+		double acc[] = ws.acc;
+		int accStamp[] = ws.accStamp;
+		int choicePos[] = ws.choicePos;
+		int pos = sigStart[s] = ws.sigSize;
+		int numChoices = 0;
+		for (int c = choiceStart[s]; c < choiceStart[s + 1]; c++) {
+			ws.ensureCapacity(pos + 1 + numRewards + transStart[c + 1] - transStart[c]);
+			int sigBlocks[] = ws.sigBlocks;
+			double sigVals[] = ws.sigVals;
+			int header = pos++;
+			// Rewards first (as blocks -1-k, i.e., in reverse order)
+			for (int k = numRewards - 1; k >= 0; k--) {
+				double rew = choiceRewards[c * numRewards + k];
+				if (rew != 0.0) {
+					sigBlocks[pos] = -1 - k;
+					sigVals[pos] = rew;
+					pos++;
+				}
+			}
+			// Lift choice to blocks, summing values for each block (ignoring zero values)
+			int stamp = ws.nextStamp();
+			int n = 0;
+			for (int j = transStart[c]; j < transStart[c + 1]; j++) {
+				if (transVal[j] == 0.0) {
+					continue;
+				}
+				int b = partition[transSucc[j]];
+				if (accStamp[b] != stamp) {
+					accStamp[b] = stamp;
+					acc[b] = transVal[j];
+					blocks[n++] = b;
+				} else {
+					acc[b] += transVal[j];
+				}
+			}
+			// Store, ordered by block
+			sortBlocks(blocks, n);
+			for (int j = 0; j < n; j++) {
+				sigBlocks[pos] = blocks[j];
+				sigVals[pos] = acc[blocks[j]];
+				pos++;
+			}
+			sigBlocks[header] = pos - header - 1;
+			sigVals[header] = 0.0;
+			choicePos[numChoices++] = header;
+		}
+		sigLength[s] = pos - sigStart[s];
+		if (numChoices > 1) {
+			canonicaliseChoices(s, ws, numChoices);
+		}
+		ws.sigSize = sigStart[s] + sigLength[s];
+		// Hash code
+		int h = 1;
+		for (int j = sigStart[s], last = ws.sigSize; j < last; j++) {
+			h = 31 * h + ws.sigBlocks[j];
+			h = 31 * h + Double.hashCode(ws.sigVals[j]);
+		}
+		sigHash[s] = h * 0x9E3779B9;
+	}
+
+	/**
+	 * Sort the first {@code n} entries of {@code blocks}.
+	 */
+	private static void sortBlocks(int blocks[], int n)
+	{
+		if (n > 32) {
+			Arrays.sort(blocks, 0, n);
+			return;
+		}
+		// Insertion sort for small choices
+		for (int i = 1; i < n; i++) {
+			int b = blocks[i];
+			int j = i - 1;
+			while (j >= 0 && blocks[j] > b) {
+				blocks[j + 1] = blocks[j];
+				j--;
+			}
+			blocks[j + 1] = b;
+		}
+	}
+
+	/**
+	 * Sort the (lifted) choices in the signature of state {@code s}, starting at positions
+	 * {@code ws.choicePos[0..numChoices-1]} of the storage in {@code ws}, and remove duplicates.
+	 */
+	private void canonicaliseChoices(int s, Workspace ws, int numChoices)
+	{
+		// Sort the choices (their start positions)
+		int sorted[] = new int[numChoices];
+		for (int i = 0; i < numChoices; i++) {
+			int p = ws.choicePos[i];
+			int j = i - 1;
+			while (j >= 0 && compareChoices(ws, sorted[j], p) > 0) {
+				sorted[j + 1] = sorted[j];
+				j--;
+			}
+			sorted[j + 1] = p;
+		}
+		// Copy back, without duplicates
+		boolean dupe[] = new boolean[numChoices];
+		for (int i = 1; i < numChoices; i++) {
+			dupe[i] = compareChoices(ws, sorted[i - 1], sorted[i]) == 0;
+		}
+		int first = sigStart[s];
+		int copyBlocks[] = Arrays.copyOfRange(ws.sigBlocks, first, first + sigLength[s]);
+		double copyVals[] = Arrays.copyOfRange(ws.sigVals, first, first + sigLength[s]);
+		int pos = first;
+		for (int i = 0; i < numChoices; i++) {
+			if (dupe[i]) {
+				continue;
+			}
+			int from = sorted[i] - first;
+			int len = copyBlocks[from] + 1;
+			System.arraycopy(copyBlocks, from, ws.sigBlocks, pos, len);
+			System.arraycopy(copyVals, from, ws.sigVals, pos, len);
+			pos += len;
+		}
+		sigLength[s] = pos - first;
+	}
+
+	/**
+	 * Compare the (lifted) choices stored at positions {@code p1} and {@code p2} of the signatures in {@code ws}.
+	 */
+	private static int compareChoices(Workspace ws, int p1, int p2)
+	{
+		int sigBlocks[] = ws.sigBlocks;
+		double sigVals[] = ws.sigVals;
+		int n1 = sigBlocks[p1], n2 = sigBlocks[p2];
+		if (n1 != n2) {
+			return Integer.compare(n1, n2);
+		}
+		for (int j = 1; j <= n1; j++) {
+			if (sigBlocks[p1 + j] != sigBlocks[p2 + j]) {
+				return Integer.compare(sigBlocks[p1 + j], sigBlocks[p2 + j]);
+			}
+			int cmp = Double.compare(sigVals[p1 + j], sigVals[p2 + j]);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Check whether states {@code s} and {@code t} have the same signature (both stored in {@code ws}).
+	 */
+	private boolean sameSignature(Workspace ws, int s, int t)
+	{
+		if (sigLength[s] != sigLength[t]) {
+			return false;
+		}
+		for (int j = 0; j < sigLength[s]; j++) {
+			int ps = sigStart[s] + j, pt = sigStart[t] + j;
+			if (ws.sigBlocks[ps] != ws.sigBlocks[pt] || Double.compare(ws.sigVals[ps], ws.sigVals[pt]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Renumber the blocks in order of the lowest state they contain.
+	 */
+	private void renumberBlocks()
+	{
+		int map[] = new int[numBlocks];
+		Arrays.fill(map, -1);
+		int count = 0;
+		for (int s = 0; s < numStates; s++) {
+			int b = partition[s];
+			if (map[b] == -1) {
+				map[b] = count++;
+			}
+			partition[s] = map[b];
+		}
+	}
+
+	/**
+	 * Temporary storage for computing signatures (one per thread).
+	 */
+	private static class Workspace
+	{
+		/* Blocks reached by the choice being lifted */
+		int blocks[];
+		/* Sum of values for each block, and when it was last used (see nextStamp()) */
+		double acc[];
+		int accStamp[];
+		int stamp;
+		/* Start positions of the choices in a signature */
+		int choicePos[] = new int[16];
+		/* Storage for the signatures of the states in a block (the first sigSize entries are used) */
+		int sigBlocks[] = new int[1024];
+		double sigVals[] = new double[1024];
+		int sigSize;
+
+		Workspace(int maxChoiceSize, int numStates)
+		{
+			blocks = new int[maxChoiceSize];
+			acc = new double[numStates];
+			accStamp = new int[numStates];
+		}
+
+		/**
+		 * Get a new stamp, i.e., a value that does not (yet) occur in {@code accStamp}.
+		 */
+		int nextStamp()
+		{
+			if (++stamp == Integer.MAX_VALUE) {
+				Arrays.fill(accStamp, 0);
+				stamp = 1;
+			}
+			return stamp;
+		}
+
+		/**
+		 * Make sure the signature storage has space for (at least) {@code size} entries.
+		 */
+		void ensureCapacity(int size)
+		{
+			if (size > sigBlocks.length) {
+				int newSize = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(size, 2L * sigBlocks.length));
+				sigBlocks = Arrays.copyOf(sigBlocks, newSize);
+				sigVals = Arrays.copyOf(sigVals, newSize);
+			}
+		}
+	}
+
+	// Construction from models
+
+	/**
+	 * Create a refinement for a DTMC or CTMC (with double values),
+	 * with transitions as given by the model (probabilities or rates).
+	 */
+	public static SignatureRefinement forMC(DTMC<Double> mc)
+	{
+		int numStates = mc.getNumStates();
+		int choiceStart[] = new int[numStates + 1];
+		int transStart[] = new int[numStates + 1];
+		int numTrans = 0;
+		for (int s = 0; s < numStates; s++) {
+			choiceStart[s + 1] = s + 1;
+			transStart[s] = numTrans;
+			numTrans += mc.getNumTransitions(s);
+		}
+		transStart[numStates] = numTrans;
+		int transSucc[] = new int[numTrans];
+		double transVal[] = new double[numTrans];
+		int j = 0;
+		for (int s = 0; s < numStates; s++) {
+			for (Iterator<Map.Entry<Integer, Double>> it = mc.getTransitionsIterator(s); it.hasNext();) {
+				Map.Entry<Integer, Double> e = it.next();
+				transSucc[j] = e.getKey();
+				transVal[j] = e.getValue();
+				j++;
+			}
+		}
+		return new SignatureRefinement(numStates, choiceStart, transStart, transSucc, transVal, 0, null);
+	}
+
+	/**
+	 * Create a refinement for an MDP (with double values), including the rewards for each choice
+	 * in {@code choiceRewards}: choiceRewards[c*numRewards+k], where c is the index of the choice
+	 * over all states, i.e., for state s, c is choice i plus the number of choices of states 0..s-1.
+	 */
+	public static SignatureRefinement forMDP(MDP<Double> mdp, int numRewards, double choiceRewards[])
+	{
+		int numStates = mdp.getNumStates();
+		int choiceStart[] = new int[numStates + 1];
+		for (int s = 0; s < numStates; s++) {
+			choiceStart[s + 1] = choiceStart[s] + mdp.getNumChoices(s);
+		}
+		int numChoices = choiceStart[numStates];
+		int transStart[] = new int[numChoices + 1];
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				int c = choiceStart[s] + i;
+				transStart[c + 1] = transStart[c] + mdp.getNumTransitions(s, i);
+			}
+		}
+		int numTrans = transStart[numChoices];
+		int transSucc[] = new int[numTrans];
+		double transVal[] = new double[numTrans];
+		int j = 0;
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				for (Iterator<Map.Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, i); it.hasNext();) {
+					Map.Entry<Integer, Double> e = it.next();
+					transSucc[j] = e.getKey();
+					transVal[j] = e.getValue();
+					j++;
+				}
+			}
+		}
+		return new SignatureRefinement(numStates, choiceStart, transStart, transSucc, transVal, numRewards, choiceRewards);
+	}
+}
@@ -0,0 +1,1010 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import prism.PrismException;
+
+/**
+ * Iterative solution of a linear equation system {@code x = A x + b}, for a sparse matrix {@code A}
+ * with {@code numRows} rows and columns, stored row-wise: the entries of row {@code r} are stored at
+ * indices {@code rowStart[r]} (inclusive) to {@code rowEnd[r]} (exclusive) of {@code cols}/{@code vals}.
+ * Rows may have spare capacity (up to the start of the next row), so that they can be rewritten in place;
+ * the arrays are not copied, so changes to them are seen by subsequent calls to {@code solve}.
+ * <br>
+ * The system can be solved as a whole or for a block of rows (e.g. an SCC),
+ * in which case the values for all other rows are treated as constants.
+ * <br>
+ * Krylov subspace methods (BiCGStab, CGS, GMRES) solve {@code (I - A) x = b}, optionally
+ * right-preconditioned with Jacobi or ILU(0) (built for each block that is solved);
+ * their matrix-vector products can be split across several threads.
+ */
+public class SparseLinearSolver
+{
+	/** Solution methods */
+	public enum Method {
+		GAUSS_SEIDEL, JACOBI, BICGSTAB, CGS, GMRES;
+		public String fullName()
+		{
+			switch (this) {
+			case GAUSS_SEIDEL:
+				return "Gauss-Seidel";
+			case JACOBI:
+				return "Jacobi";
+			case BICGSTAB:
+				return "BiCGStab";
+			case CGS:
+				return "CGS";
+			case GMRES:
+				return "GMRES";
+			default:
+				return this.toString();
+			}
+		}
+
+		/** Is this a Krylov subspace method? */
+		public boolean isKrylov()
+		{
+			return this == BICGSTAB || this == CGS || this == GMRES;
+		}
+	};
+
+	/** Preconditioners (for Krylov methods) */
+	public enum Preconditioner {
+		NONE, JACOBI, ILU0;
+		public String fullName()
+		{
+			switch (this) {
+			case NONE:
+				return "none";
+			case JACOBI:
+				return "Jacobi";
+			case ILU0:
+				return "ILU(0)";
+			default:
+				return this.toString();
+			}
+		}
+	};
+
+	/** Initial restart parameter for GMRES (doubled, up to {@link #GMRES_MAX_RESTART}, if a restart cycle stagnates) */
+	public static final int GMRES_RESTART = 30;
+	/** Maximum restart parameter for GMRES */
+	public static final int GMRES_MAX_RESTART = 240;
+	/** Number of iterations without improvement of the residual after which BiCGStab/CGS give up */
+	public static final int MAX_STAGNATION_ITERS = 500;
+
+	// The linear equation system
+	protected final int numRows;
+	protected final int rowStart[];
+	protected final int rowEnd[];
+	protected final int cols[];
+	protected final double vals[];
+	protected final double b[];
+
+	// Settings
+	protected Method method = Method.GAUSS_SEIDEL;
+	protected boolean absolute = false;
+	protected double epsilon = 1e-8;
+	protected int maxIters = 10000;
+	protected Preconditioner preconditioner = Preconditioner.NONE;
+	protected int numThreads = 1;
+
+	// Index of each row within the current block (-1 if not in the block)
+	protected final int local[];
+	// Chunks of the current block for parallel matrix-vector products (null if sequential):
+	// chunk i is positions chunks[i] (inclusive) to chunks[i+1] (exclusive) of the rows array
+	protected int chunks[];
+	// Jacobi preconditioner for the current block: inverse diagonal of (I - A)
+	protected double precInvDiag[];
+	// ILU(0) preconditioner for the current block: factors L (unit lower) and U of (I - A),
+	// stored row-wise (local indices, sorted by column), with the position of each diagonal entry
+	protected int iluStart[];
+	protected int iluCols[];
+	protected double iluVals[];
+	protected int iluDiag[];
+	// Did the last call to solve converge?
+	protected boolean converged;
+	// Final value of the quantity used by the termination criterion (difference or residual)
+	protected double error;
+
+	/**
+	 * Create a solver for the system {@code x = A x + b}, with {@code A} given by
+	 * {@code rowStart}, {@code rowEnd}, {@code cols} and {@code vals}, as described above.
+	 */
+	public SparseLinearSolver(int numRows, int rowStart[], int rowEnd[], int cols[], double vals[], double b[])
+	{
+		this.numRows = numRows;
+		this.rowStart = rowStart;
+		this.rowEnd = rowEnd;
+		this.cols = cols;
+		this.vals = vals;
+		this.b = b;
+		local = new int[numRows];
+		Arrays.fill(local, -1);
+	}
+
+	// Settings
+
+	public void setMethod(Method method)
+	{
+		this.method = method;
+	}
+
+	/**
+	 * Set the termination criterion: the (absolute or relative) difference between successive iterates
+	 * (Gauss-Seidel/Jacobi) or the size of the residual (Krylov methods; relative to the largest value
+	 * in the solution) should be at most {@code epsilon}, within at most {@code maxIters} iterations.
+	 */
+	public void setTermCrit(boolean absolute, double epsilon, int maxIters)
+	{
+		this.absolute = absolute;
+		this.epsilon = epsilon;
+		this.maxIters = maxIters;
+	}
+
+	/**
+	 * Set the preconditioner to use for Krylov methods.
+	 */
+	public void setPreconditioner(Preconditioner preconditioner)
+	{
+		this.preconditioner = preconditioner;
+	}
+
+	/**
+	 * Set the number of threads to use for matrix-vector products in Krylov methods.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
+	public Method getMethod()
+	{
+		return method;
+	}
+
+	public Preconditioner getPreconditioner()
+	{
+		return preconditioner;
+	}
+
+	/**
+	 * Did the last call to {@code solve} converge?
+	 */
+	public boolean isConverged()
+	{
+		return converged;
+	}
+
+	/**
+	 * Get the final value of the quantity used by the termination criterion in the last call to {@code solve}
+	 * (maximum difference between successive iterates, or size of the residual, absolute or relative as set).
+	 */
+	public double getError()
+	{
+		return error;
+	}
+
+	// Solution
+
+	/**
+	 * Solve the whole system, starting from (and storing the solution in) {@code x}.
+	 * Returns the number of iterations performed; use {@link #isConverged()} to check for convergence.
+	 * For Krylov methods, {@code x} is left unchanged if the method did not converge.
+	 */
+	public int solve(double x[]) throws PrismException
+	{
+		int rows[] = new int[numRows];
+		for (int r = 0; r < numRows; r++) {
+			rows[r] = r;
+		}
+		return solve(x, rows, 0, numRows);
+	}
+
+	/**
+	 * Solve the system for the block of rows {@code rows[from]}, ..., {@code rows[to-1]},
+	 * starting from (and storing the solution in) {@code x}; the values of {@code x} for other rows are left unchanged.
+	 * Returns the number of iterations performed; use {@link #isConverged()} to check for convergence.
+	 * For Krylov methods, {@code x} is left unchanged if the method did not converge.
+	 */
+	public int solve(double x[], int rows[], int from, int to) throws PrismException
+	{
+		int k = to - from;
+		for (int i = 0; i < k; i++) {
+			local[rows[from + i]] = i;
+		}
+		try {
+			if (k == 1) {
+				return solveSingleton(x, rows[from]);
+			}
+			if (method.isKrylov()) {
+				buildChunks(rows, from, to);
+				buildPreconditioner(rows, from, to);
+			}
+			switch (method) {
+			case JACOBI:
+				return solveJacobi(x, rows, from, to);
+			case BICGSTAB:
+				return solveBiCGStab(x, rows, from, to);
+			case CGS:
+				return solveCGS(x, rows, from, to);
+			case GMRES:
+				return solveGMRES(x, rows, from, to);
+			case GAUSS_SEIDEL:
+			default:
+				return solveGaussSeidel(x, rows, from, to);
+			}
+		} finally {
+			for (int i = from; i < to; i++) {
+				local[rows[i]] = -1;
+			}
+			chunks = null;
+			precInvDiag = null;
+			iluStart = iluCols = iluDiag = null;
+			iluVals = null;
+		}
+	}
+
+	/**
+	 * Solve the equation for a single row {@code r} directly.
+	 */
+	protected int solveSingleton(double x[], int r)
+	{
+		double d = b[r];
+		double diag = 0.0;
+		for (int j = rowStart[r]; j < rowEnd[r]; j++) {
+			if (cols[j] == r) {
+				diag += vals[j];
+			} else {
+				d += vals[j] * x[cols[j]];
+			}
+		}
+		// (For a row with a self-loop of probability 1, the value is left unchanged)
+		if (diag < 1.0) {
+			x[r] = d / (1.0 - diag);
+		}
+		converged = true;
+		error = 0.0;
+		return 1;
+	}
+
+	protected int solveGaussSeidel(double x[], int rows[], int from, int to)
+	{
+		converged = false;
+		int iters = 0;
+		while (!converged && iters < maxIters) {
+			iters++;
+			double maxDiff = 0.0;
+			for (int i = from; i < to; i++) {
+				int r = rows[i];
+				double d = b[r];
+				double diag = 0.0;
+				for (int j = rowStart[r]; j < rowEnd[r]; j++) {
+					if (cols[j] == r) {
+						diag += vals[j];
+					} else {
+						d += vals[j] * x[cols[j]];
+					}
+				}
+				if (diag < 1.0) {
+					d /= (1.0 - diag);
+					maxDiff = Math.max(maxDiff, diff(x[r], d));
+					x[r] = d;
+				}
+			}
+			error = maxDiff;
+			converged = maxDiff <= epsilon;
+		}
+		return iters;
+	}
+
+	protected int solveJacobi(double x[], int rows[], int from, int to)
+	{
+		int k = to - from;
+		double xNew[] = new double[k];
+		converged = false;
+		int iters = 0;
+		while (!converged && iters < maxIters) {
+			iters++;
+			double maxDiff = 0.0;
+			for (int i = 0; i < k; i++) {
+				int r = rows[from + i];
+				double d = b[r];
+				double diag = 0.0;
+				for (int j = rowStart[r]; j < rowEnd[r]; j++) {
+					if (cols[j] == r) {
+						diag += vals[j];
+					} else {
+						d += vals[j] * x[cols[j]];
+					}
+				}
+				xNew[i] = diag < 1.0 ? d / (1.0 - diag) : x[r];
+				maxDiff = Math.max(maxDiff, diff(x[r], xNew[i]));
+			}
+			for (int i = 0; i < k; i++) {
+				x[rows[from + i]] = xNew[i];
+			}
+			error = maxDiff;
+			converged = maxDiff <= epsilon;
+		}
+		return iters;
+	}
+
+	protected int solveBiCGStab(double x[], int rows[], int from, int to) throws PrismException
+	{
+		int k = to - from;
+		double xl[] = gather(x, rows, from, to);
+		double r[] = residual(x, xl, rows, from, to);
+		double rHat[] = r.clone();
+		double p[] = new double[k];
+		double pHat[] = new double[k];
+		double v[] = new double[k];
+		double s[] = new double[k];
+		double sHat[] = new double[k];
+		double t[] = new double[k];
+		double rho = 1.0, alpha = 1.0, omega = 1.0;
+		converged = isSmall(r, xl);
+		int iters = 0;
+		boolean restart = false;
+		int lastRestart = -2;
+		double bestError = error;
+		int bestIters = 0;
+		while (!converged && iters < maxIters) {
+			// Give up if the residual has stopped decreasing (e.g. the method diverges)
+			if (error < bestError) {
+				bestError = error;
+				bestIters = iters;
+			} else if (iters - bestIters > MAX_STAGNATION_ITERS) {
+				break;
+			}
+			if (restart) {
+				// Breakdown (or drift of the updated residual): restart, with the true residual
+				// as the shadow residual (giving up if this happens again straight away)
+				if (iters == lastRestart + 1) {
+					break;
+				}
+				lastRestart = iters;
+				r = residual(x, xl, rows, from, to);
+				System.arraycopy(r, 0, rHat, 0, k);
+				Arrays.fill(p, 0.0);
+				Arrays.fill(v, 0.0);
+				rho = alpha = omega = 1.0;
+				restart = false;
+			}
+			iters++;
+			double rhoNew = dot(rHat, r);
+			if (!Double.isFinite(rhoNew)) {
+				break;
+			}
+			if (rhoNew == 0.0) {
+				restart = true;
+				continue;
+			}
+			double beta = (rhoNew / rho) * (alpha / omega);
+			rho = rhoNew;
+			for (int i = 0; i < k; i++) {
+				p[i] = r[i] + beta * (p[i] - omega * v[i]);
+			}
+			precondition(p, pHat);
+			multiply(pHat, v, rows, from, to);
+			double rHatV = dot(rHat, v);
+			if (rHatV == 0.0) {
+				restart = true;
+				continue;
+			}
+			alpha = rho / rHatV;
+			for (int i = 0; i < k; i++) {
+				s[i] = r[i] - alpha * v[i];
+			}
+			if (isSmall(s, xl)) {
+				for (int i = 0; i < k; i++) {
+					xl[i] += alpha * pHat[i];
+				}
+				converged = checkResidual(x, xl, rows, from, to);
+				restart = !converged;
+				continue;
+			}
+			precondition(s, sHat);
+			multiply(sHat, t, rows, from, to);
+			double tt = dot(t, t);
+			if (tt == 0.0) {
+				break;
+			}
+			omega = dot(t, s) / tt;
+			for (int i = 0; i < k; i++) {
+				xl[i] += alpha * pHat[i] + omega * sHat[i];
+				r[i] = s[i] - omega * t[i];
+			}
+			if (isSmall(r, xl)) {
+				converged = checkResidual(x, xl, rows, from, to);
+				restart = !converged;
+			} else {
+				restart = omega == 0.0;
+			}
+		}
+		if (converged) {
+			scatter(xl, x, rows, from, to);
+		}
+		return iters;
+	}
+
+	protected int solveCGS(double x[], int rows[], int from, int to) throws PrismException
+	{
+		int k = to - from;
+		double xl[] = gather(x, rows, from, to);
+		double r[] = residual(x, xl, rows, from, to);
+		double rHat[] = r.clone();
+		double u[] = new double[k];
+		double p[] = new double[k];
+		double q[] = new double[k];
+		double pHat[] = new double[k];
+		double uHat[] = new double[k];
+		double vHat[] = new double[k];
+		double qHat[] = new double[k];
+		double rho = 1.0;
+		converged = isSmall(r, xl);
+		int iters = 0;
+		boolean first = true;
+		boolean restart = false;
+		int lastRestart = -2;
+		double bestError = error;
+		int bestIters = 0;
+		while (!converged && iters < maxIters) {
+			// Give up if the residual has stopped decreasing (e.g. the method diverges)
+			if (error < bestError) {
+				bestError = error;
+				bestIters = iters;
+			} else if (iters - bestIters > MAX_STAGNATION_ITERS) {
+				break;
+			}
+			if (restart) {
+				// Breakdown (or drift of the updated residual): restart, as for BiCGStab
+				if (iters == lastRestart + 1) {
+					break;
+				}
+				lastRestart = iters;
+				r = residual(x, xl, rows, from, to);
+				System.arraycopy(r, 0, rHat, 0, k);
+				first = true;
+				restart = false;
+			}
+			iters++;
+			double rhoNew = dot(rHat, r);
+			if (!Double.isFinite(rhoNew)) {
+				break;
+			}
+			if (rhoNew == 0.0) {
+				restart = true;
+				continue;
+			}
+			if (first) {
+				System.arraycopy(r, 0, u, 0, k);
+				System.arraycopy(r, 0, p, 0, k);
+				first = false;
+			} else {
+				double beta = rhoNew / rho;
+				for (int i = 0; i < k; i++) {
+					u[i] = r[i] + beta * q[i];
+					p[i] = u[i] + beta * (q[i] + beta * p[i]);
+				}
+			}
+			rho = rhoNew;
+			precondition(p, pHat);
+			multiply(pHat, vHat, rows, from, to);
+			double sigma = dot(rHat, vHat);
+			if (sigma == 0.0) {
+				restart = true;
+				continue;
+			}
+			double alpha = rho / sigma;
+			for (int i = 0; i < k; i++) {
+				q[i] = u[i] - alpha * vHat[i];
+				u[i] += q[i];
+			}
+			precondition(u, uHat);
+			multiply(uHat, qHat, rows, from, to);
+			for (int i = 0; i < k; i++) {
+				xl[i] += alpha * uHat[i];
+				r[i] -= alpha * qHat[i];
+			}
+			if (isSmall(r, xl)) {
+				converged = checkResidual(x, xl, rows, from, to);
+				restart = !converged;
+			}
+		}
+		if (converged) {
+			scatter(xl, x, rows, from, to);
+		}
+		return iters;
+	}
+
+	protected int solveGMRES(double x[], int rows[], int from, int to) throws PrismException
+	{
+		int k = to - from;
+		int m = Math.min(GMRES_RESTART, k);
+		double xl[] = gather(x, rows, from, to);
+		double V[][] = null, H[][] = null;
+		double cs[] = null, sn[] = null, g[] = null, y[] = null;
+		double z[] = new double[k];
+		double zHat[] = new double[k];
+		converged = false;
+		int iters = 0;
+		double prevBeta = Double.POSITIVE_INFINITY;
+		while (iters < maxIters) {
+			double r[] = residual(x, xl, rows, from, to);
+			if (isSmall(r, xl)) {
+				converged = true;
+				break;
+			}
+			double beta = Math.sqrt(dot(r, r));
+			if (!Double.isFinite(beta)) {
+				break;
+			}
+			// Restarted GMRES can stagnate: if the last cycle made (almost) no progress, enlarge the Krylov subspace
+			if (beta > 0.9 * prevBeta && m < Math.min(GMRES_MAX_RESTART, k)) {
+				m = Math.min(2 * m, Math.min(GMRES_MAX_RESTART, k));
+				V = null;
+			}
+			prevBeta = beta;
+			if (V == null) {
+				V = new double[m + 1][];
+				H = new double[m + 1][m];
+				cs = new double[m];
+				sn = new double[m];
+				g = new double[m + 1];
+				y = new double[m];
+			}
+			for (int i = 0; i < k; i++) {
+				r[i] /= beta;
+			}
+			V[0] = r;
+			Arrays.fill(g, 0.0);
+			g[0] = beta;
+			double tol = epsilon * scale(xl);
+			int j = 0;
+			boolean stagnated = false;
+			while (j < m && iters < maxIters) {
+				iters++;
+				// Arnoldi step (modified Gram-Schmidt)
+				double w[] = new double[k];
+				precondition(V[j], zHat);
+				multiply(zHat, w, rows, from, to);
+				for (int i = 0; i <= j; i++) {
+					H[i][j] = dot(w, V[i]);
+					for (int l = 0; l < k; l++) {
+						w[l] -= H[i][j] * V[i][l];
+					}
+				}
+				double h = Math.sqrt(dot(w, w));
+				if (h > 0.0) {
+					for (int l = 0; l < k; l++) {
+						w[l] /= h;
+					}
+				}
+				V[j + 1] = w;
+				// Apply previous Givens rotations to the new column, then compute a new one
+				for (int i = 0; i < j; i++) {
+					double tmp = cs[i] * H[i][j] + sn[i] * H[i + 1][j];
+					H[i + 1][j] = -sn[i] * H[i][j] + cs[i] * H[i + 1][j];
+					H[i][j] = tmp;
+				}
+				double denom = Math.hypot(H[j][j], h);
+				if (denom == 0.0) {
+					stagnated = true;
+					break;
+				}
+				cs[j] = H[j][j] / denom;
+				sn[j] = h / denom;
+				H[j][j] = denom;
+				g[j + 1] = -sn[j] * g[j];
+				g[j] = cs[j] * g[j];
+				j++;
+				if (Math.abs(g[j]) <= tol || h == 0.0) {
+					break;
+				}
+			}
+			// Solve the (upper triangular) least squares problem and update the solution
+			for (int i = j - 1; i >= 0; i--) {
+				double d = g[i];
+				for (int l = i + 1; l < j; l++) {
+					d -= H[i][l] * y[l];
+				}
+				y[i] = d / H[i][i];
+			}
+			Arrays.fill(z, 0.0);
+			for (int i = 0; i < j; i++) {
+				for (int l = 0; l < k; l++) {
+					z[l] += y[i] * V[i][l];
+				}
+			}
+			precondition(z, zHat);
+			for (int l = 0; l < k; l++) {
+				xl[l] += zHat[l];
+			}
+			if (stagnated || j == 0) {
+				converged = isSmall(residual(x, xl, rows, from, to), xl);
+				break;
+			}
+		}
+		if (converged) {
+			scatter(xl, x, rows, from, to);
+		}
+		return iters;
+	}
+
+	// Set-up for Krylov methods (for the current block)
+
+	/**
+	 * Split the current block into chunks (with roughly equal numbers of entries)
+	 * for parallel matrix-vector products, if worthwhile.
+	 */
+	private void buildChunks(int rows[], int from, int to)
+	{
+		chunks = null;
+		if (numThreads <= 1) {
+			return;
+		}
+		long nnz = 0;
+		for (int i = from; i < to; i++) {
+			nnz += rowEnd[rows[i]] - rowStart[rows[i]];
+		}
+		long numChunks = Math.min((long) numThreads * StatePartition.CHUNKS_PER_THREAD, nnz / StatePartition.MIN_TRANSITIONS_PER_CHUNK);
+		if (numChunks <= 1) {
+			return;
+		}
+		List<Integer> bounds = new ArrayList<>();
+		bounds.add(from);
+		long count = 0;
+		for (int i = from; i < to; i++) {
+			count += rowEnd[rows[i]] - rowStart[rows[i]];
+			if (count * numChunks >= bounds.size() * nnz || i == to - 1) {
+				bounds.add(i + 1);
+			}
+		}
+		chunks = bounds.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Build the preconditioner for the current block.
+	 * If the ILU(0) factorisation fails (non-positive pivot), Jacobi is used instead.
+	 */
+	private void buildPreconditioner(int rows[], int from, int to)
+	{
+		switch (preconditioner) {
+		case ILU0:
+			if (!buildILU0(rows, from, to)) {
+				buildJacobi(rows, from, to);
+			}
+			break;
+		case JACOBI:
+			buildJacobi(rows, from, to);
+			break;
+		case NONE:
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Build the Jacobi preconditioner (inverse diagonal of {@code I - A}) for the current block.
+	 */
+	private void buildJacobi(int rows[], int from, int to)
+	{
+		int k = to - from;
+		precInvDiag = new double[k];
+		for (int i = 0; i < k; i++) {
+			int r = rows[from + i];
+			double diag = 1.0;
+			for (int j = rowStart[r]; j < rowEnd[r]; j++) {
+				if (cols[j] == r) {
+					diag -= vals[j];
+				}
+			}
+			precInvDiag[i] = diag > 0.0 ? 1.0 / diag : 1.0;
+		}
+	}
+
+	/**
+	 * Compute the ILU(0) factorisation of (the current block of) {@code I - A},
+	 * i.e., an incomplete LU factorisation with the same sparsity pattern.
+	 * Returns false if this failed.
+	 */
+	private boolean buildILU0(int rows[], int from, int to)
+	{
+		int k = to - from;
+		int capacity = k;
+		for (int i = from; i < to; i++) {
+			capacity += rowEnd[rows[i]] - rowStart[rows[i]];
+		}
+		int start[] = new int[k + 1];
+		int iCols[] = new int[capacity];
+		double iVals[] = new double[capacity];
+		int diag[] = new int[k];
+		int pos[] = new int[k];
+		Arrays.fill(pos, -1);
+		// Copy the rows of I - A (merging duplicates), sorted by column
+		int nnz = 0;
+		for (int i = 0; i < k; i++) {
+			int r = rows[from + i];
+			start[i] = nnz;
+			pos[i] = nnz;
+			iCols[nnz] = i;
+			iVals[nnz++] = 1.0;
+			for (int j = rowStart[r]; j < rowEnd[r]; j++) {
+				int c = local[cols[j]];
+				if (c >= 0) {
+					if (pos[c] < 0) {
+						pos[c] = nnz;
+						iCols[nnz] = c;
+						iVals[nnz++] = 0.0;
+					}
+					iVals[pos[c]] -= vals[j];
+				}
+			}
+			for (int e = start[i]; e < nnz; e++) {
+				pos[iCols[e]] = -1;
+			}
+			// (insertion sort: rows are usually short)
+			for (int e = start[i] + 1; e < nnz; e++) {
+				int c = iCols[e];
+				double v = iVals[e];
+				int f = e - 1;
+				while (f >= start[i] && iCols[f] > c) {
+					iCols[f + 1] = iCols[f];
+					iVals[f + 1] = iVals[f];
+					f--;
+				}
+				iCols[f + 1] = c;
+				iVals[f + 1] = v;
+			}
+			for (int e = start[i]; e < nnz; e++) {
+				if (iCols[e] == i) {
+					diag[i] = e;
+				}
+			}
+		}
+		start[k] = nnz;
+		// Factorise (IKJ variant), in place
+		for (int i = 0; i < k; i++) {
+			for (int e = start[i]; e < start[i + 1]; e++) {
+				pos[iCols[e]] = e;
+			}
+			for (int e = start[i]; e < diag[i]; e++) {
+				int kk = iCols[e];
+				iVals[e] /= iVals[diag[kk]];
+				for (int f = diag[kk] + 1; f < start[kk + 1]; f++) {
+					int p = pos[iCols[f]];
+					if (p >= 0) {
+						iVals[p] -= iVals[e] * iVals[f];
+					}
+				}
+			}
+			for (int e = start[i]; e < start[i + 1]; e++) {
+				pos[iCols[e]] = -1;
+			}
+			double pivot = iVals[diag[i]];
+			if (!(pivot > 0.0) || !Double.isFinite(pivot)) {
+				return false;
+			}
+		}
+		iluStart = start;
+		iluCols = iCols;
+		iluVals = iVals;
+		iluDiag = diag;
+		return true;
+	}
+
+	/**
+	 * Apply the preconditioner: {@code out = M^-1 v}.
+	 */
+	private void precondition(double v[], double out[])
+	{
+		int k = v.length;
+		if (iluStart != null) {
+			// Forward substitution (L has a unit diagonal), then backward substitution
+			for (int i = 0; i < k; i++) {
+				double d = v[i];
+				for (int e = iluStart[i]; e < iluDiag[i]; e++) {
+					d -= iluVals[e] * out[iluCols[e]];
+				}
+				out[i] = d;
+			}
+			for (int i = k - 1; i >= 0; i--) {
+				double d = out[i];
+				for (int e = iluDiag[i] + 1; e < iluStart[i + 1]; e++) {
+					d -= iluVals[e] * out[iluCols[e]];
+				}
+				out[i] = d / iluVals[iluDiag[i]];
+			}
+		} else if (precInvDiag != null) {
+			for (int i = 0; i < k; i++) {
+				out[i] = precInvDiag[i] * v[i];
+			}
+		} else {
+			System.arraycopy(v, 0, out, 0, k);
+		}
+	}
+
+	// Vector operations (on vectors for the current block)
+
+	/**
+	 * Get the values of {@code x} for the current block.
+	 */
+	private static double[] gather(double x[], int rows[], int from, int to)
+	{
+		double xl[] = new double[to - from];
+		for (int i = from; i < to; i++) {
+			xl[i - from] = x[rows[i]];
+		}
+		return xl;
+	}
+
+	/**
+	 * Store the values {@code xl} for the current block in {@code x}.
+	 */
+	private static void scatter(double xl[], double x[], int rows[], int from, int to)
+	{
+		for (int i = from; i < to; i++) {
+			x[rows[i]] = xl[i - from];
+		}
+	}
+
+	/**
+	 * Functional interface for an operation on a range of positions {@code lo} to {@code hi-1} of the current block.
+	 */
+	@FunctionalInterface
+	private interface RangeTask
+	{
+		void apply(int lo, int hi);
+	}
+
+	/**
+	 * Apply {@code task} to the current block {@code from..to-1}, in parallel chunks if set up.
+	 */
+	private void forEachChunk(int from, int to, RangeTask task) throws PrismException
+	{
+		if (chunks == null) {
+			task.apply(from, to);
+			return;
+		}
+		List<Callable<Void>> tasks = new ArrayList<>(chunks.length - 1);
+		for (int c = 0; c < chunks.length - 1; c++) {
+			int lo = chunks[c], hi = chunks[c + 1];
+			tasks.add(() -> {
+				task.apply(lo, hi);
+				return null;
+			});
+		}
+		StatePartition.invokeAll(tasks, numThreads);
+	}
+
+	/**
+	 * Compute {@code w = (I - A) v} for the current block, i.e., ignoring columns outside the block.
+	 */
+	private void multiply(double v[], double w[], int rows[], int from, int to) throws PrismException
+	{
+		forEachChunk(from, to, (lo, hi) -> {
+			for (int i = lo; i < hi; i++) {
+				int r = rows[i];
+				double d = v[i - from];
+				for (int j = rowStart[r]; j < rowEnd[r]; j++) {
+					int c = local[cols[j]];
+					if (c >= 0) {
+						d -= vals[j] * v[c];
+					}
+				}
+				w[i - from] = d;
+			}
+		});
+	}
+
+	/**
+	 * Compute the residual {@code b - (I - A) xl} for the current block,
+	 * where values for columns outside the block are taken from {@code x}.
+	 */
+	private double[] residual(double x[], double xl[], int rows[], int from, int to) throws PrismException
+	{
+		double res[] = new double[to - from];
+		forEachChunk(from, to, (lo, hi) -> {
+			for (int i = lo; i < hi; i++) {
+				int r = rows[i];
+				double d = b[r] - xl[i - from];
+				for (int j = rowStart[r]; j < rowEnd[r]; j++) {
+					int c = local[cols[j]];
+					d += vals[j] * (c >= 0 ? xl[c] : x[cols[j]]);
+				}
+				res[i - from] = d;
+			}
+		});
+		return res;
+	}
+
+	/**
+	 * Check that the true residual for {@code xl} is small enough
+	 * (the residual updated by BiCGStab/CGS can drift away from it).
+	 */
+	private boolean checkResidual(double x[], double xl[], int rows[], int from, int to) throws PrismException
+	{
+		return isSmall(residual(x, xl, rows, from, to), xl);
+	}
+
+	private static double dot(double v[], double w[])
+	{
+		double d = 0.0;
+		for (int i = 0; i < v.length; i++) {
+			d += v[i] * w[i];
+		}
+		return d;
+	}
+
+	/**
+	 * Is the residual {@code r} small enough, i.e., is its largest entry at most epsilon,
+	 * relative to the largest entry of the solution {@code xl} if required?
+	 * (Also stores the size of the residual, absolute or relative, in {@code error}.)
+	 */
+	private boolean isSmall(double r[], double xl[])
+	{
+		double norm = 0.0;
+		for (int i = 0; i < r.length; i++) {
+			norm = Math.max(norm, Math.abs(r[i]));
+		}
+		norm /= scale(xl);
+		error = norm;
+		return Double.isFinite(norm) && norm <= epsilon;
+	}
+
+	/**
+	 * Get the scale of the solution {@code xl} for the residual check,
+	 * i.e., its largest absolute entry (or 1 for the absolute criterion, or if {@code xl} is zero).
+	 */
+	private double scale(double xl[])
+	{
+		if (absolute) {
+			return 1.0;
+		}
+		double max = 0.0;
+		for (int i = 0; i < xl.length; i++) {
+			max = Math.max(max, Math.abs(xl[i]));
+		}
+		return max == 0.0 || !Double.isFinite(max) ? 1.0 : max;
+	}
+
+	/**
+	 * Difference between successive values, as used by the termination criterion.
+	 */
+	private double diff(double oldVal, double newVal)
+	{
+		double d = Math.abs(newVal - oldVal);
+		if (!absolute && newVal != 0.0) {
+			d /= Math.abs(newVal);
+		}
+		return d;
+	}
+}
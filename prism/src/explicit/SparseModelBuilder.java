@@ -0,0 +1,649 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+
+/**
+ * Streaming builder for the sparse (CSR) explicit-state models {@link DTMCSparse} and {@link MDPSparse},
+ * used by {@link ConstructModel} to avoid building an intermediate {@link DTMCSimple}/{@link MDPSimple}.
+ * <br><br>
+ * States must be added in order of their index, i.e., by calling {@link #startState()} once
+ * for each of states 0,1,2,..., and then adding their choices/transitions, which are appended
+ * directly to growable primitive arrays. Within a choice, transitions to the same target are merged
+ * (probabilities summed, in the order they were added) and sorted by target index.
+ * For MDPs, duplicate choices in a state (same action and distribution) are discarded,
+ * as done by {@link MDPSimple}. For DTMCs, there is a single distribution per state,
+ * into which all transitions for the state are merged.
+ * <br><br>
+ * Optionally, deadlocks are detected and fixed (with a self-loop) as each state is completed,
+ * in the same way as {@link ModelSimple#findDeadlocks(boolean)}.
+ * <br><br>
+ * For MDPs, the model can instead be built off-heap, as an {@link MDPSparseMapped}
+ * (see {@link #SparseModelBuilder(boolean, boolean, File)} and {@link #buildMDPMapped(int[], File)}).
+ * In this case, each state is written to (temporary) files in a given directory as soon as it is
+ * complete, so only the current state's choices/transitions are kept on the heap,
+ * and the number of transitions is not limited by the maximum size of an array.
+ */
+public class SparseModelBuilder
+{
+	/** Initial array capacity */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** Is this for a nondeterministic model (MDP), rather than a DTMC? */
+	private boolean nondet;
+	/** Detect deadlocks? */
+	private boolean findDeadlocks;
+	/** Fix deadlocks (by adding self-loops)? */
+	private boolean fixDeadlocks;
+
+	/** Number of states started so far */
+	private int numStates;
+	/** Index of the first choice of the current state */
+	private int firstChoice;
+	/** Number of choices so far */
+	private int numChoices;
+	/** Number of transitions so far */
+	private int numTransitions;
+	/** Maximum number of choices in any state */
+	private int maxNumChoices;
+	/** Is a choice currently open? */
+	private boolean choiceOpen;
+
+	/** Index of first choice for each state (size numStates+1 once complete) */
+	private int rowStarts[];
+	/** Index of first transition for each choice (size numChoices+1 once complete) */
+	private int choiceStarts[];
+	/** Target state for each transition */
+	private int cols[];
+	/** Probability for each transition */
+	private double nonZeros[];
+	/** Action for each choice (null if there have been no non-null actions so far) */
+	private Object actions[];
+
+	/** Initial states */
+	private List<Integer> initialStates = new ArrayList<>();
+	/** Deadlock states */
+	private List<Integer> deadlocks = new ArrayList<>();
+
+	/** Scratch space for sorting the transitions of a choice */
+	private long sortKeys[] = new long[0];
+	private double sortProbs[] = new double[0];
+
+	/** Output for completed states, if building off-heap (null if building on the heap) */
+	private MappedOutput mappedOutput;
+
+	/**
+	 * Create a builder for a DTMC ({@code nondet} = false) or an MDP ({@code nondet} = true).
+	 * @param nondet Build an MDP (rather than a DTMC)?
+	 * @param findDeadlocks Detect deadlock states?
+	 * @param fixDeadlocks Fix deadlock states (by adding self-loops)? Only applies if {@code findDeadlocks} is true.
+	 */
+	public SparseModelBuilder(boolean nondet, boolean findDeadlocks, boolean fixDeadlocks)
+	{
+		this.nondet = nondet;
+		this.findDeadlocks = findDeadlocks;
+		this.fixDeadlocks = findDeadlocks && fixDeadlocks;
+		rowStarts = new int[INITIAL_CAPACITY];
+		choiceStarts = new int[INITIAL_CAPACITY];
+		cols = new int[INITIAL_CAPACITY];
+		nonZeros = new double[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Create a builder for an MDP that is stored off-heap, to be built with {@link #buildMDPMapped(int[], File)}.
+	 * Completed states are written to temporary files in directory {@code dir}.
+	 * @param findDeadlocks Detect deadlock states?
+	 * @param fixDeadlocks Fix deadlock states (by adding self-loops)? Only applies if {@code findDeadlocks} is true.
+	 * @param dir Directory for temporary files
+	 */
+	public SparseModelBuilder(boolean findDeadlocks, boolean fixDeadlocks, File dir) throws PrismException
+	{
+		this(true, findDeadlocks, fixDeadlocks);
+		mappedOutput = new MappedOutput(dir);
+	}
+
+	// Mutators
+
+	/**
+	 * Add a state to the list of initial states.
+	 */
+	public void addInitialState(int s)
+	{
+		initialStates.add(s);
+	}
+
+	/**
+	 * Start adding the choices/transitions of the next state
+	 * (the first call is for state 0, the next for state 1, etc.).
+	 */
+	public void startState() throws PrismException
+	{
+		if (numStates > 0) {
+			finishState();
+			writeState();
+		}
+		if (mappedOutput == null) {
+			rowStarts = ensureCapacity(rowStarts, numStates + 2);
+			rowStarts[numStates] = numChoices;
+		}
+		firstChoice = numChoices;
+		numStates++;
+		// DTMCs have a single distribution per state
+		if (!nondet) {
+			openChoice(null);
+		}
+	}
+
+	/**
+	 * Start a new choice (MDPs only) in the current state, labelled with {@code action} (which may be null).
+	 */
+	public void startChoice(Object action)
+	{
+		if (choiceOpen) {
+			finishChoice();
+		}
+		openChoice(action);
+	}
+
+	/**
+	 * Add a transition from the current state/choice to state {@code dest} with probability {@code prob}.
+	 * Transitions with zero probability are ignored.
+	 */
+	public void addTransition(int dest, double prob)
+	{
+		if (prob == 0.0) {
+			return;
+		}
+		cols = ensureCapacity(cols, numTransitions + 1);
+		nonZeros = ensureCapacity(nonZeros, numTransitions + 1);
+		cols[numTransitions] = dest;
+		nonZeros[numTransitions] = prob;
+		numTransitions++;
+	}
+
+	// Building the model
+
+	/**
+	 * Build a {@link DTMCSparse} from the states added so far.
+	 * Optionally, a state index permutation can be provided,
+	 * i.e. old state index i becomes index permut[i].
+	 * @param permut State space permutation (or null if none)
+	 */
+	public DTMCSparse buildDTMC(int permut[])
+	{
+		complete(permut);
+		// There is one choice per state, so choiceStarts can be used as row indices
+		DTMCSparse dtmc = new DTMCSparse(numStates, choiceStarts, cols, nonZeros);
+		addInitialAndDeadlockStates(dtmc, permut);
+		return dtmc;
+	}
+
+	/**
+	 * Build an {@link MDPSparse} from the states added so far.
+	 * Optionally, a state index permutation can be provided,
+	 * i.e. old state index i becomes index permut[i].
+	 * @param permut State space permutation (or null if none)
+	 */
+	public MDPSparse buildMDP(int permut[])
+	{
+		complete(permut);
+		MDPSparse mdp = new MDPSparse(numStates, rowStarts, choiceStarts, cols, nonZeros, actions, maxNumChoices);
+		addInitialAndDeadlockStates(mdp, permut);
+		return mdp;
+	}
+
+	/**
+	 * Build an {@link MDPSparseMapped}, stored in file {@code file}, from the states added so far
+	 * (only if this builder was created with {@link #SparseModelBuilder(boolean, boolean, File)}).
+	 * Optionally, a state index permutation can be provided,
+	 * i.e. old state index i becomes index permut[i]. In this case, the MDP is first written
+	 * to a temporary file, which is then rewritten in permuted order.
+	 * @param permut State space permutation (or null if none)
+	 * @param file The file to store the MDP in
+	 */
+	public MDPSparseMapped buildMDPMapped(int permut[], File file) throws PrismException
+	{
+		if (numStates > 0) {
+			finishState();
+			writeState();
+		}
+		if (permut == null) {
+			mappedOutput.write(file);
+		} else {
+			File unsorted = mappedOutput.createTempFile();
+			try {
+				mappedOutput.write(unsorted);
+				MDPSparseMapped.write(MDPSparseMapped.open(unsorted), permut, file);
+			} finally {
+				unsorted.delete();
+			}
+		}
+		mappedOutput = null;
+		return MDPSparseMapped.open(file);
+	}
+
+	// Private methods
+
+	private void openChoice(Object action)
+	{
+		choiceStarts = ensureCapacity(choiceStarts, numChoices + 2);
+		choiceStarts[numChoices] = numTransitions;
+		if (action != null && actions == null) {
+			actions = new Object[choiceStarts.length];
+		}
+		if (actions != null) {
+			actions = ensureCapacity(actions, choiceStarts.length);
+			actions[numChoices] = action;
+		}
+		choiceOpen = true;
+	}
+
+	/**
+	 * Finish the current choice: sort/merge its transitions and discard it if it is a duplicate.
+	 */
+	private void finishChoice()
+	{
+		int start = choiceStarts[numChoices];
+		numTransitions = start + sortAndMerge(start, numTransitions, !nondet);
+		choiceOpen = false;
+		// For MDPs, check for an identical existing choice in this state
+		if (nondet) {
+			for (int c = firstChoice; c < numChoices; c++) {
+				if (sameChoice(c, numChoices)) {
+					numTransitions = start;
+					return;
+				}
+			}
+		}
+		numChoices++;
+		choiceStarts[numChoices] = numTransitions;
+	}
+
+	/**
+	 * Finish the current state: close any open choice and detect/fix deadlocks.
+	 */
+	private void finishState()
+	{
+		if (choiceOpen) {
+			finishChoice();
+		}
+		int s = numStates - 1;
+		int first = firstChoice;
+		// For MDPs, no choices is a deadlock; for DTMCs, an empty distribution
+		boolean deadlock = nondet ? numChoices == first : choiceStarts[first] == choiceStarts[first + 1];
+		if (deadlock && findDeadlocks) {
+			deadlocks.add(s);
+			if (fixDeadlocks) {
+				if (nondet) {
+					openChoice(null);
+				}
+				addTransition(s, 1.0);
+				if (nondet) {
+					finishChoice();
+				} else {
+					choiceStarts[first + 1] = numTransitions;
+				}
+			}
+		}
+		maxNumChoices = Math.max(maxNumChoices, numChoices - first);
+	}
+
+	/**
+	 * If building off-heap, write out the (finished) current state and clear the arrays.
+	 */
+	private void writeState() throws PrismException
+	{
+		if (mappedOutput != null) {
+			mappedOutput.writeState();
+			numChoices = 0;
+			numTransitions = 0;
+		}
+	}
+
+	/**
+	 * Sort the transitions in positions {@code start} to {@code end}-1 (of cols/nonZeros)
+	 * by target, merge those with the same target (summing probabilities in the order added)
+	 * and, optionally, remove any with non-positive probability. Returns the new number of transitions.
+	 */
+	private int sortAndMerge(int start, int end, boolean positiveOnly)
+	{
+		int n = end - start;
+		// Sort, if needed (stable, so that merged probabilities are summed in order)
+		boolean sorted = true;
+		for (int k = start + 1; k < end && sorted; k++) {
+			sorted = cols[k - 1] < cols[k];
+		}
+		if (!sorted) {
+			if (sortKeys.length < n) {
+				sortKeys = new long[Math.max(n, 2 * sortKeys.length)];
+				sortProbs = new double[sortKeys.length];
+			}
+			for (int k = 0; k < n; k++) {
+				sortKeys[k] = ((long) cols[start + k] << 32) | k;
+				sortProbs[k] = nonZeros[start + k];
+			}
+			Arrays.sort(sortKeys, 0, n);
+			for (int k = 0; k < n; k++) {
+				cols[start + k] = (int) (sortKeys[k] >>> 32);
+				nonZeros[start + k] = sortProbs[(int) sortKeys[k]];
+			}
+		}
+		// Merge duplicates (in place)
+		int count = 0;
+		for (int k = start; k < end; k++) {
+			if (count > 0 && cols[start + count - 1] == cols[k]) {
+				nonZeros[start + count - 1] += nonZeros[k];
+			} else {
+				cols[start + count] = cols[k];
+				nonZeros[start + count] = nonZeros[k];
+				count++;
+			}
+		}
+		if (positiveOnly) {
+			int count2 = 0;
+			for (int k = start; k < start + count; k++) {
+				if (nonZeros[k] > 0) {
+					cols[start + count2] = cols[k];
+					nonZeros[start + count2] = nonZeros[k];
+					count2++;
+				}
+			}
+			count = count2;
+		}
+		return count;
+	}
+
+	/**
+	 * Check whether the (complete) choice {@code c1} is identical to the (just finished) choice {@code c2},
+	 * i.e., has the same action and distribution. The latter is assumed to run up to numTransitions.
+	 */
+	private boolean sameChoice(int c1, int c2)
+	{
+		int start1 = choiceStarts[c1], end1 = choiceStarts[c1 + 1];
+		int start2 = choiceStarts[c2], end2 = numTransitions;
+		if (end1 - start1 != end2 - start2) {
+			return false;
+		}
+		if (actions != null && !Objects.equals(actions[c1], actions[c2])) {
+			return false;
+		}
+		for (int k1 = start1, k2 = start2; k1 < end1; k1++, k2++) {
+			if (cols[k1] != cols[k2] || Double.compare(nonZeros[k1], nonZeros[k2]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finish the last state and convert the arrays to their final form:
+	 * trimmed to size and, if {@code permut} is non-null, permuted.
+	 */
+	private void complete(int permut[])
+	{
+		if (numStates > 0) {
+			finishState();
+		}
+		rowStarts = ensureCapacity(rowStarts, numStates + 1);
+		rowStarts[numStates] = numChoices;
+		if (permut == null) {
+			rowStarts = trim(rowStarts, numStates + 1);
+			choiceStarts = trim(choiceStarts, numChoices + 1);
+			cols = trim(cols, numTransitions);
+			nonZeros = trim(nonZeros, numTransitions);
+			if (actions != null) {
+				actions = actions.length == numChoices ? actions : Arrays.copyOf(actions, numChoices);
+			}
+			return;
+		}
+		// Compute the inverse of the permutation
+		int permutInv[] = new int[numStates];
+		for (int s = 0; s < numStates; s++) {
+			permutInv[permut[s]] = s;
+		}
+		// Copy transitions into new arrays, in permuted order
+		int newRowStarts[] = new int[numStates + 1];
+		int newChoiceStarts[] = new int[numChoices + 1];
+		int newCols[] = new int[numTransitions];
+		double newNonZeros[] = new double[numTransitions];
+		Object newActions[] = actions == null ? null : new Object[numChoices];
+		int c = 0, t = 0;
+		for (int s = 0; s < numStates; s++) {
+			newRowStarts[s] = c;
+			int sOld = permutInv[s];
+			for (int cOld = rowStarts[sOld]; cOld < rowStarts[sOld + 1]; cOld++) {
+				newChoiceStarts[c] = t;
+				if (newActions != null) {
+					newActions[c] = actions[cOld];
+				}
+				for (int tOld = choiceStarts[cOld]; tOld < choiceStarts[cOld + 1]; tOld++) {
+					newCols[t] = permut[cols[tOld]];
+					newNonZeros[t] = nonZeros[tOld];
+					t++;
+				}
+				c++;
+			}
+		}
+		newRowStarts[numStates] = numChoices;
+		newChoiceStarts[numChoices] = numTransitions;
+		rowStarts = newRowStarts;
+		choiceStarts = newChoiceStarts;
+		cols = newCols;
+		nonZeros = newNonZeros;
+		actions = newActions;
+		// Re-sort transitions by (new) target index
+		for (c = 0; c < numChoices; c++) {
+			sortAndMerge(choiceStarts[c], choiceStarts[c + 1], false);
+		}
+	}
+
+	private void addInitialAndDeadlockStates(ModelExplicit<Double> model, int permut[])
+	{
+		for (int s : initialStates) {
+			model.addInitialState(permut == null ? s : permut[s]);
+		}
+		for (int s : deadlocks) {
+			model.addDeadlockState(permut == null ? s : permut[s]);
+		}
+	}
+
+	/**
+	 * Temporary files to which completed states are written when building an MDP off-heap,
+	 * one for each array of the {@link MDPSparseMapped} file format, so that they can be
+	 * written sequentially and then concatenated (see {@link #write(File)}).
+	 */
+	private class MappedOutput
+	{
+		/** Directory for the temporary files */
+		private File dir;
+		/** Temporary files (and writers) for rowStarts, choiceStarts, cols, nonZeros and action indices */
+		private File files[] = new File[5];
+		private BinaryFileWriter outs[] = new BinaryFileWriter[5];
+		/** Total number of choices/transitions written so far */
+		private long numChoicesTotal = 0;
+		private long numTransitionsTotal = 0;
+		/** Indices of the actions written so far */
+		private Map<String, Integer> actionIndices = new LinkedHashMap<>();
+		/** Have there been any non-null actions? */
+		private boolean hasActions = false;
+
+		MappedOutput(File dir) throws PrismException
+		{
+			this.dir = dir;
+			try {
+				for (int i = 0; i < files.length; i++) {
+					files[i] = createTempFile();
+					outs[i] = new BinaryFileWriter(files[i]);
+				}
+			} catch (IOException e) {
+				close();
+				throw new PrismException("Could not create temporary file in directory \"" + dir + "\": " + e.getMessage());
+			}
+		}
+
+		/**
+		 * Create a temporary file in the directory (deleted on exit, if not before).
+		 */
+		File createTempFile() throws PrismException
+		{
+			try {
+				File file = File.createTempFile("prism-mdp-", ".bin", dir);
+				file.deleteOnExit();
+				return file;
+			} catch (IOException | SecurityException e) {
+				throw new PrismException("Could not create file in directory \"" + dir + "\": " + e.getMessage());
+			}
+		}
+
+		/**
+		 * Write the (complete) current state, i.e., choices 0..numChoices-1 and transitions 0..numTransitions-1.
+		 */
+		void writeState() throws PrismException
+		{
+			try {
+				outs[0].putInt((int) numChoicesTotal);
+				for (int c = 0; c < numChoices; c++) {
+					outs[1].putLong(numTransitionsTotal + choiceStarts[c]);
+					Object action = actions == null ? null : actions[c];
+					hasActions |= action != null;
+					outs[4].putInt(MDPSparseMapped.getActionIndex(action, actionIndices));
+				}
+				for (int t = 0; t < numTransitions; t++) {
+					outs[2].putInt(cols[t]);
+					outs[3].putDouble(nonZeros[t]);
+				}
+			} catch (IOException e) {
+				close();
+				throw new PrismException("Could not write to temporary file in directory \"" + dir + "\": " + e.getMessage());
+			}
+			numChoicesTotal += numChoices;
+			numTransitionsTotal += numTransitions;
+			if (numChoicesTotal > Integer.MAX_VALUE - 8) {
+				close();
+				throw new PrismNotSupportedException("Too many choices (" + numChoicesTotal + ") to build MDP");
+			}
+		}
+
+		/**
+		 * Write the MDP to file {@code file} in the {@link MDPSparseMapped} format,
+		 * by concatenating the temporary files, which are then deleted.
+		 */
+		void write(File file) throws PrismException
+		{
+			try {
+				for (BinaryFileWriter out : outs) {
+					out.close();
+				}
+				try (BinaryFileWriter out = new BinaryFileWriter(file)) {
+					MDPSparseMapped.writeHeader(out, hasActions, numStates, (int) numChoicesTotal, maxNumChoices, initialStates.size(), deadlocks.size(), numTransitionsTotal);
+					// rowStarts
+					out.append(files[0]);
+					out.putInt((int) numChoicesTotal);
+					out.align();
+					// choiceStarts
+					out.append(files[1]);
+					out.putLong(numTransitionsTotal);
+					// cols
+					out.append(files[2]);
+					out.align();
+					// nonZeros
+					out.append(files[3]);
+					// Initial/deadlock states
+					for (int s : initialStates) {
+						out.putInt(s);
+					}
+					for (int s : deadlocks) {
+						out.putInt(s);
+					}
+					out.align();
+					// Actions
+					if (hasActions) {
+						out.append(files[4]);
+						MDPSparseMapped.writeActionNames(out, actionIndices);
+					}
+				}
+			} catch (IOException e) {
+				throw new PrismException("Could not write MDP to file \"" + file + "\": " + e.getMessage());
+			} finally {
+				close();
+			}
+		}
+
+		/**
+		 * Close and delete the temporary files.
+		 */
+		void close()
+		{
+			for (int i = 0; i < files.length; i++) {
+				try {
+					if (outs[i] != null) {
+						outs[i].close();
+					}
+				} catch (IOException e) {
+					// ignore
+				}
+				if (files[i] != null) {
+					files[i].delete();
+				}
+			}
+		}
+	}
+
+	private static int[] ensureCapacity(int arr[], int size)
+	{
+		return size <= arr.length ? arr : Arrays.copyOf(arr, Math.max(size, arr.length + (arr.length >> 1)));
+	}
+
+	private static double[] ensureCapacity(double arr[], int size)
+	{
+		return size <= arr.length ? arr : Arrays.copyOf(arr, Math.max(size, arr.length + (arr.length >> 1)));
+	}
+
+	private static Object[] ensureCapacity(Object arr[], int size)
+	{
+		return size <= arr.length ? arr : Arrays.copyOf(arr, Math.max(size, arr.length + (arr.length >> 1)));
+	}
+
+	private static int[] trim(int arr[], int size)
+	{
+		return arr.length == size ? arr : Arrays.copyOf(arr, size);
+	}
+
+	private static double[] trim(double arr[], int size)
+	{
+		return arr.length == size ? arr : Arrays.copyOf(arr, size);
+	}
+}
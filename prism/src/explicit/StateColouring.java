@@ -0,0 +1,212 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import common.IntSet;
+
+/**
+ * A colouring of (the graph induced by) a set of states of a model, for multi-colour Gauss-Seidel:
+ * no two distinct states of the same colour are connected by a transition (in either direction),
+ * so an in-place (Gauss-Seidel) update of one state does not affect the update of any other
+ * state of the same colour. The states of a colour can thus be updated in parallel, with results
+ * identical to updating them sequentially, while colours are processed one after the other.
+ * <br>
+ * Each colour class is split into chunks for parallel processing by a {@link StatePartition}.
+ * Colours are assigned greedily (smallest colour not used by a neighbour), in the iteration order of the set.
+ */
+class StateColouring
+{
+	/** The set of states that is coloured */
+	private final IntSet states;
+	/** The colour classes, each partitioned into chunks (null if parallel processing is not worthwhile) */
+	private final StatePartition classes[];
+
+	/**
+	 * Colour the set of states {@code states} of {@code model} for processing with {@code numThreads} threads.
+	 * If parallel processing is not worthwhile (e.g. too few transitions), no colouring is computed
+	 * and {@link #isParallel()} returns false.
+	 */
+	public StateColouring(Model<?> model, IntSet states, int numThreads)
+	{
+		this.states = states;
+		// Only colour if the set of states is big enough to give at least two chunks
+		long numTransitions = 0;
+		for (PrimitiveIterator.OfInt it = states.iterator(); it.hasNext();) {
+			numTransitions += model.getNumTransitions(it.nextInt());
+		}
+		if (numThreads <= 1 || numTransitions < 2L * StatePartition.MIN_TRANSITIONS_PER_CHUNK) {
+			classes = null;
+			return;
+		}
+		int colour[] = computeColouring(model, states);
+		int numColours = 0;
+		for (int c : colour) {
+			numColours = Math.max(numColours, c + 1);
+		}
+		List<BitSet> colourSets = new ArrayList<>(numColours);
+		for (int c = 0; c < numColours; c++) {
+			colourSets.add(new BitSet());
+		}
+		int i = 0;
+		for (PrimitiveIterator.OfInt it = states.iterator(); it.hasNext();) {
+			colourSets.get(colour[i++]).set(it.nextInt());
+		}
+		classes = new StatePartition[numColours];
+		boolean parallel = false;
+		for (int c = 0; c < numColours; c++) {
+			classes[c] = new StatePartition(model, IntSet.asIntSet(colourSets.get(c)), numThreads);
+			parallel |= classes[c].isParallel();
+		}
+		if (!parallel) {
+			Arrays.fill(classes, null);
+		}
+	}
+
+	/**
+	 * Compute a greedy colouring of the (undirected) graph induced by {@code states},
+	 * returning the colour of each state, indexed by its position in the iteration order of {@code states}.
+	 */
+	private static int[] computeColouring(Model<?> model, IntSet states)
+	{
+		int stateList[] = states.stream().toArray();
+		int k = stateList.length;
+		int local[] = new int[model.getNumStates()];
+		Arrays.fill(local, -1);
+		for (int i = 0; i < k; i++) {
+			local[stateList[i]] = i;
+		}
+		// Store successors (within the set, as local indices, without self-loops) in CSR form
+		int succStart[] = new int[k + 1];
+		int count = 0;
+		for (int i = 0; i < k; i++) {
+			for (SuccessorsIterator it = model.getSuccessors(stateList[i]); it.hasNext();) {
+				int t = local[it.nextInt()];
+				if (t >= 0 && t != i) {
+					count++;
+				}
+			}
+		}
+		int succ[] = new int[count];
+		int predStart[] = new int[k + 1];
+		count = 0;
+		for (int i = 0; i < k; i++) {
+			succStart[i] = count;
+			for (SuccessorsIterator it = model.getSuccessors(stateList[i]); it.hasNext();) {
+				int t = local[it.nextInt()];
+				if (t >= 0 && t != i) {
+					succ[count++] = t;
+					predStart[t + 1]++;
+				}
+			}
+		}
+		succStart[k] = count;
+		// Transpose to get predecessors
+		for (int i = 0; i < k; i++) {
+			predStart[i + 1] += predStart[i];
+		}
+		int pred[] = new int[count];
+		int pos[] = Arrays.copyOf(predStart, k);
+		for (int i = 0; i < k; i++) {
+			for (int j = succStart[i]; j < succStart[i + 1]; j++) {
+				pred[pos[succ[j]]++] = i;
+			}
+		}
+		// Greedy colouring, where forbidden[c] == i means colour c is used by a neighbour of i
+		int colour[] = new int[k];
+		Arrays.fill(colour, -1);
+		int forbidden[] = new int[16];
+		Arrays.fill(forbidden, -1);
+		for (int i = 0; i < k; i++) {
+			for (int j = succStart[i]; j < succStart[i + 1]; j++) {
+				forbidden = forbid(forbidden, colour[succ[j]], i);
+			}
+			for (int j = predStart[i]; j < predStart[i + 1]; j++) {
+				forbidden = forbid(forbidden, colour[pred[j]], i);
+			}
+			int c = 0;
+			while (c < forbidden.length && forbidden[c] == i) {
+				c++;
+			}
+			colour[i] = c;
+		}
+		return colour;
+	}
+
+	/**
+	 * Mark colour {@code c} (if any, i.e., non-negative) as forbidden for state {@code i},
+	 * growing the array {@code forbidden} if needed, and return it.
+	 */
+	private static int[] forbid(int forbidden[], int c, int i)
+	{
+		if (c < 0) {
+			return forbidden;
+		}
+		if (c >= forbidden.length) {
+			int oldLength = forbidden.length;
+			forbidden = Arrays.copyOf(forbidden, Math.max(2 * oldLength, c + 1));
+			Arrays.fill(forbidden, oldLength, forbidden.length, -1);
+		}
+		forbidden[c] = i;
+		return forbidden;
+	}
+
+	/**
+	 * Get the set of states that is coloured.
+	 */
+	public IntSet getStates()
+	{
+		return states;
+	}
+
+	/**
+	 * Is processing done in parallel (i.e., has a colouring been computed)?
+	 */
+	public boolean isParallel()
+	{
+		return classes != null && classes[0] != null;
+	}
+
+	/**
+	 * Get the number of colours (0 if processing is not done in parallel).
+	 */
+	public int getNumColours()
+	{
+		return isParallel() ? classes.length : 0;
+	}
+
+	/**
+	 * Get the colour class for colour {@code c}, partitioned into chunks.
+	 */
+	public StatePartition getColourClass(int c)
+	{
+		return classes[c];
+	}
+}
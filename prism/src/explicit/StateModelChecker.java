@@ -40,6 +40,8 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.Vector;
 
+import explicit.rewards.ConstructRewards;
+import explicit.rewards.Rewards;
 import parser.EvaluateContext.EvalMode;
 import parser.State;
 import parser.Values;
@@ -59,6 +61,7 @@ import parser.ast.ExpressionLabel;
 import parser.ast.ExpressionLiteral;
 import parser.ast.ExpressionObs;
 import parser.ast.ExpressionProp;
+import parser.ast.ExpressionReward;
 import parser.ast.ExpressionUnaryOp;
 import parser.ast.ExpressionVar;
 import parser.ast.LabelList;
@@ -68,6 +71,7 @@ import parser.ast.Property;
 import parser.type.TypeBool;
 import parser.type.TypeDouble;
 import parser.type.TypeInt;
+import parser.visitor.ASTTraverse;
 import parser.visitor.ASTTraverseModify;
 import parser.visitor.ReplaceLabels;
 import prism.Accuracy;
@@ -86,6 +90,7 @@ import prism.PrismSettings;
 import prism.Result;
 import prism.ResultTesting;
 import prism.RewardGenerator;
+import prism.RewardGenerator.RewardLookup;
 
 /**
  * Super class for explicit-state model checkers.
@@ -127,6 +132,12 @@ public class StateModelChecker extends PrismComponent
 	// Do bisimulation minimisation before model checking?
 	protected boolean doBisim = false;
 
+	// Sweep over property constant values that this model checking call is part of (null if none)
+	protected PropertyConstantSweep propertyConstantSweep = null;
+
+	// Reorder states before model checking? (null if not)
+	protected StateReordering.Order stateOrder = null;
+
 	// Do topological value iteration?
 	protected boolean doTopologicalValueIteration = false;
 
@@ -136,6 +147,12 @@ public class StateModelChecker extends PrismComponent
 	// Do interval iteration?
 	protected boolean doIntervalIteration = false;
 
+	// Do optimistic value iteration?
+	protected boolean doOptimisticValIter = false;
+
+	// Do sound value iteration?
+	protected boolean doSoundValIter = false;
+
 	// Model info (for reward structures, etc.)
 	protected ModulesFile modulesFile = null;
 	protected ModelInfo modelInfo = null;
@@ -170,8 +187,23 @@ public class StateModelChecker extends PrismComponent
 		if (settings != null) {
 			verbosity = settings.getBoolean(PrismSettings.PRISM_VERBOSE) ? 10 : 1;
 			setDoIntervalIteration(settings.getBoolean(PrismSettings.PRISM_INTERVAL_ITER));
+			setDoOptimisticValIter(settings.getBoolean(PrismSettings.PRISM_OPTIMISTIC_VAL_ITER));
+			setDoSoundValIter(settings.getBoolean(PrismSettings.PRISM_SOUND_VAL_ITER));
 			setDoTopologicalValueIteration(settings.getBoolean(PrismSettings.PRISM_TOPOLOGICAL_VI));
 			setDoPmaxQuotient(settings.getBoolean(PrismSettings.PRISM_PMAX_QUOTIENT));
+			switch (settings.getChoice(PrismSettings.PRISM_STATE_ORDER)) {
+			case Prism.STATE_ORDER_BFS:
+				setStateOrder(StateReordering.Order.BFS);
+				break;
+			case Prism.STATE_ORDER_RCM:
+				setStateOrder(StateReordering.Order.RCM);
+				break;
+			case Prism.STATE_ORDER_SCC:
+				setStateOrder(StateReordering.Order.SCC);
+				break;
+			default:
+				setStateOrder(null);
+			}
 		}
 	}
 
@@ -248,7 +280,11 @@ public class StateModelChecker extends PrismComponent
 		setGenStrat(other.getGenStrat());
 		setRestrictStratToReach(other.getRestrictStratToReach());
 		setDoBisim(other.getDoBisim());
+		setPropertyConstantSweep(other.getPropertyConstantSweep());
+		setStateOrder(other.getStateOrder());
 		setDoIntervalIteration(other.getDoIntervalIteration());
+		setDoOptimisticValIter(other.getDoOptimisticValIter());
+		setDoSoundValIter(other.getDoSoundValIter());
 		setDoPmaxQuotient(other.getDoPmaxQuotient());
 	}
 
@@ -342,6 +378,22 @@ public class StateModelChecker extends PrismComponent
 		this.doBisim = doBisim;
 	}
 
+	/**
+	 * Specify the sweep over property constant values that this model checking call is part of (null if none).
+	 */
+	public void setPropertyConstantSweep(PropertyConstantSweep propertyConstantSweep)
+	{
+		this.propertyConstantSweep = propertyConstantSweep;
+	}
+
+	/**
+	 * Specify how to reorder the states of the model before model checking (null means not at all).
+	 */
+	public void setStateOrder(StateReordering.Order stateOrder)
+	{
+		this.stateOrder = stateOrder;
+	}
+
 	/**
 	 * Specify whether or not to do topological value iteration.
 	 */
@@ -366,6 +418,22 @@ public class StateModelChecker extends PrismComponent
 		this.doIntervalIteration = doIntervalIteration;
 	}
 
+	/**
+	 * Specify whether or not to use optimistic value iteration.
+	 */
+	public void setDoOptimisticValIter(boolean doOptimisticValIter)
+	{
+		this.doOptimisticValIter = doOptimisticValIter;
+	}
+
+	/**
+	 * Specify whether or not to use sound value iteration.
+	 */
+	public void setDoSoundValIter(boolean doSoundValIter)
+	{
+		this.doSoundValIter = doSoundValIter;
+	}
+
 	// Get methods for flags/settings
 
 	public int getVerbosity()
@@ -445,6 +513,22 @@ public class StateModelChecker extends PrismComponent
 		return doBisim;
 	}
 
+	/**
+	 * The sweep over property constant values that this model checking call is part of (null if none).
+	 */
+	public PropertyConstantSweep getPropertyConstantSweep()
+	{
+		return propertyConstantSweep;
+	}
+
+	/**
+	 * How to reorder the states of the model before model checking (null means not at all).
+	 */
+	public StateReordering.Order getStateOrder()
+	{
+		return stateOrder;
+	}
+
 	/**
 	 * Whether or not to do topological value iteration.
 	 */
@@ -469,6 +553,22 @@ public class StateModelChecker extends PrismComponent
 		return doIntervalIteration;
 	}
 
+	/**
+	 * Whether or not to use optimistic value iteration.
+	 */
+	public boolean getDoOptimisticValIter()
+	{
+		return doOptimisticValIter;
+	}
+
+	/**
+	 * Whether or not to use sound value iteration.
+	 */
+	public boolean getDoSoundValIter()
+	{
+		return doSoundValIter;
+	}
+
 	/** Get the constant values (both from the modules file and the properties file) */
 	public Values getConstantValues()
 	{
@@ -573,12 +673,38 @@ public class StateModelChecker extends PrismComponent
 			ArrayList<String> propNames = new ArrayList<String>();
 			ArrayList<BitSet> propBSs = new ArrayList<BitSet>();
 			Expression exprNew = checkMaximalPropositionalFormulas(model, expr.deepCopy(), propNames, propBSs);
+			List<Rewards<Value>> rewards = constructRewardsForBisimulation(model, expr);
 			Bisimulation<Value> bisim = new Bisimulation<>(this);
-			model = bisim.minimise(model, propNames, propBSs);
+			model = bisim.minimise(model, propNames, propBSs, rewards);
 			mainLog.println("Modified property: " + exprNew);
 			expr = exprNew;
 		}
 
+		// If required (and possible), reorder the states of the model
+		StateReordering<Model<Value>> reordering = null;
+		if (stateOrder != null) {
+			if (doBisim) {
+				mainLog.printWarning("Not reordering states since bisimulation minimisation is being performed");
+			} else if (genStrat) {
+				mainLog.printWarning("Not reordering states since a strategy is being generated");
+			} else if (rewardGen != null && rewardGen.getNumRewardStructs() > 0 && !rewardGen.isRewardLookupSupported(RewardLookup.BY_STATE)) {
+				mainLog.printWarning("Not reordering states since rewards are not defined by state");
+			} else if (!StateReordering.isSupported(model)) {
+				mainLog.printWarning("Not reordering states since this is not supported for " + model.getClass().getSimpleName() + " models");
+			} else if (StateReordering.hasStored(model, stateOrder)) {
+				mainLog.println("\nUsing stored reordering of states (" + stateOrder.fullName() + " order)");
+				reordering = StateReordering.reorder(this, model, stateOrder, true);
+				model = reordering.getTransformedModel();
+			} else {
+				mainLog.println("\nReordering states (" + stateOrder.fullName() + " order)...");
+				long timerReorder = System.currentTimeMillis();
+				reordering = StateReordering.reorder(this, model, stateOrder, true);
+				model = reordering.getTransformedModel();
+				timerReorder = System.currentTimeMillis() - timerReorder;
+				mainLog.println("Reordering took " + timerReorder / 1000.0 + " seconds.");
+			}
+		}
+
 		// Do model checking and store result vector
 		timer = System.currentTimeMillis();
 		// check expression for all states (null => statesOfInterest=all)
@@ -586,6 +712,14 @@ public class StateModelChecker extends PrismComponent
 		timer = System.currentTimeMillis() - timer;
 		mainLog.println("\nTime for model checking: " + timer / 1000.0 + " seconds.");
 
+		// Map results back to the original state order
+		if (reordering != null) {
+			vals = reordering.projectToOriginalModel(vals);
+			if (result.getVector() instanceof StateValues) {
+				result.setVector(reordering.projectToOriginalModel((StateValues) result.getVector()));
+			}
+		}
+
 		// Print result to log
 		resultString = "Result";
 		if (!("Result".equals(expr.getResultName())))
@@ -600,6 +734,39 @@ public class StateModelChecker extends PrismComponent
 		return result;
 	}
 
+	/**
+	 * Build the reward structures referred to in an expression (by R operators),
+	 * which need to be preserved when doing bisimulation minimisation.
+	 * The rewards for the minimised model are built later, for the representative states of each block,
+	 * so this is only possible if the reward generator can look up rewards by state.
+	 */
+	@SuppressWarnings("unchecked")
+	private <Value> List<Rewards<Value>> constructRewardsForBisimulation(Model<Value> model, Expression expr) throws PrismException
+	{
+		List<ExpressionReward> exprRews = new ArrayList<>();
+		expr.accept(new ASTTraverse()
+		{
+			public void visitPost(ExpressionReward e) throws PrismLangException
+			{
+				exprRews.add(e);
+			}
+		});
+		List<Rewards<Value>> rewards = new ArrayList<>();
+		BitSet done = new BitSet();
+		for (ExpressionReward exprRew : exprRews) {
+			int r = exprRew.getRewardStructIndexByIndexObject(rewardGen, constantValues);
+			if (done.get(r)) {
+				continue;
+			}
+			done.set(r);
+			if (!rewardGen.isRewardLookupSupported(RewardLookup.BY_STATE)) {
+				throw new PrismNotSupportedException("Bisimulation minimisation with rewards requires rewards defined by state");
+			}
+			rewards.add(new ConstructRewards(this).buildRewardStructure(model, (RewardGenerator<Value>) rewardGen, r));
+		}
+		return rewards;
+	}
+
 	/**
 	 * Model check an expression and return a vector result values over all states.
 	 * Information about states and model constants should be attached to the model.
@@ -0,0 +1,194 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+
+import parser.State;
+import parser.VarList;
+import parser.ast.DeclarationBool;
+import parser.ast.DeclarationInt;
+import parser.ast.DeclarationType;
+
+/**
+ * Bit-packing of states into one or more longs, using the variable bounds from a {@link VarList}
+ * (so all variables must be bounded integers or Booleans, see {@link #canPack(VarList)}).
+ * Variable 0 occupies the most significant bits, so comparing packed states word by word
+ * (as unsigned longs) matches the natural ordering of {@link State}s.
+ * Used by {@link PackedStateStorage} and {@link PackedStateIndex}.
+ */
+class StatePacker
+{
+	/** Number of variables */
+	private final int numVars;
+	/** Is each variable a Boolean? */
+	private final boolean[] isBool;
+	/** Lower bound of each (integer) variable */
+	private final int[] low;
+	/** Upper bound of each (integer) variable */
+	private final int[] high;
+	/** Index of the long each variable is stored in */
+	private final int[] word;
+	/** Shift of each variable within its long */
+	private final int[] shift;
+	/** Bit mask for each variable (after shifting) */
+	private final long[] mask;
+	/** Number of longs per state */
+	private final int numWords;
+
+	/**
+	 * Check whether states for the variables in {@code varList} can be packed,
+	 * i.e., whether they are all bounded integers or Booleans.
+	 */
+	public static boolean canPack(VarList varList)
+	{
+		int n = varList.getNumVars();
+		for (int i = 0; i < n; i++) {
+			DeclarationType declType = varList.getDeclarationType(i);
+			if (!(declType instanceof DeclarationInt || declType instanceof DeclarationBool)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Create a packer for states over the variables in {@code varList}.
+	 * All variables should be bounded integers or Booleans (see {@link #canPack(VarList)}).
+	 */
+	public StatePacker(VarList varList)
+	{
+		numVars = varList.getNumVars();
+		isBool = new boolean[numVars];
+		low = new int[numVars];
+		high = new int[numVars];
+		word = new int[numVars];
+		shift = new int[numVars];
+		mask = new long[numVars];
+		// Pack variables from the most significant bit downwards,
+		// never splitting a variable across two longs
+		int w = 0;
+		int bitsLeft = 64;
+		for (int i = 0; i < numVars; i++) {
+			isBool[i] = varList.getDeclarationType(i) instanceof DeclarationBool;
+			low[i] = varList.getLow(i);
+			high[i] = varList.getHigh(i);
+			int bits = Math.max(1, varList.getRangeLogTwo(i));
+			if (bits > bitsLeft) {
+				w++;
+				bitsLeft = 64;
+			}
+			bitsLeft -= bits;
+			word[i] = w;
+			shift[i] = bitsLeft;
+			mask[i] = (1L << bits) - 1;
+		}
+		numWords = w + 1;
+	}
+
+	/**
+	 * Get the number of longs needed to store a packed state.
+	 */
+	public int getNumWords()
+	{
+		return numWords;
+	}
+
+	/**
+	 * Pack a state into the array {@code packed} (of length at least {@link #getNumWords()}).
+	 * Returns false if this is not possible (e.g., a value is out of range).
+	 */
+	public boolean pack(State state, long[] packed)
+	{
+		Arrays.fill(packed, 0, numWords, 0L);
+		Object[] varValues = state.varValues;
+		if (varValues.length != numVars) {
+			return false;
+		}
+		for (int v = 0; v < numVars; v++) {
+			int code;
+			Object val = varValues[v];
+			if (isBool[v] && val instanceof Boolean) {
+				code = ((Boolean) val) ? 1 : 0;
+			} else if (!isBool[v] && val instanceof Integer) {
+				int i = (Integer) val;
+				if (i < low[v] || i > high[v]) {
+					return false;
+				}
+				code = i - low[v];
+			} else {
+				return false;
+			}
+			packed[word[v]] |= ((long) code) << shift[v];
+		}
+		return true;
+	}
+
+	/**
+	 * Unpack the state stored in {@code data}, starting at index {@code offset}
+	 * (a new State object is created).
+	 */
+	public State unpack(long[] data, int offset)
+	{
+		State state = new State(numVars);
+		for (int v = 0; v < numVars; v++) {
+			int code = (int) ((data[offset + word[v]] >>> shift[v]) & mask[v]);
+			state.varValues[v] = isBool[v] ? Boolean.valueOf(code != 0) : Integer.valueOf(code + low[v]);
+		}
+		return state;
+	}
+
+	/**
+	 * Compute a hash code for the packed state stored in {@code data}, starting at index {@code offset}.
+	 */
+	public int hash(long[] data, int offset)
+	{
+		long h = 0;
+		for (int w = 0; w < numWords; w++) {
+			h = (h ^ data[offset + w]) * 0x9E3779B97F4A7C15L;
+		}
+		// Final mixing (from MurmurHash3), so that all bits affect the low bits used for slots
+		h ^= (h >>> 33);
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= (h >>> 33);
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= (h >>> 33);
+		return (int) h;
+	}
+
+	/**
+	 * Check whether the packed state in {@code packed} is equal to
+	 * the one stored in {@code data}, starting at index {@code offset}.
+	 */
+	public boolean equals(long[] packed, long[] data, int offset)
+	{
+		for (int w = 0; w < numWords; w++) {
+			if (data[offset + w] != packed[w]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
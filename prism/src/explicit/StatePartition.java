@@ -0,0 +1,262 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import common.IntSet;
+import common.iterable.ArrayIterator;
+import common.iterable.FunctionalPrimitiveIterator;
+import prism.PrismException;
+
+/**
+ * A partition of a set of states of a model into chunks of consecutive states
+ * (in the iteration order of the set), each with roughly the same number of transitions,
+ * for processing the chunks in parallel (on a shared {@link ForkJoinPool}, one per number of threads).
+ * <br>
+ * Since each state is processed by exactly one chunk, in the same way as sequentially,
+ * computations that are independent for each state (e.g. a Jacobi/power iteration step)
+ * give identical results to the sequential versions.
+ */
+class StatePartition
+{
+	/** Minimum number of transitions per chunk (below this, parallelisation does not pay off) */
+	public static final int MIN_TRANSITIONS_PER_CHUNK = 4096;
+	/** Number of chunks per thread (more than one, so that threads can balance load) */
+	public static final int CHUNKS_PER_THREAD = 4;
+
+	/**
+	 * Shared pools of worker threads, one for each parallelism level requested so far.
+	 * Pools are never shut down, since other computations may still be using them
+	 * (their worker threads are daemon threads, and are released when idle).
+	 */
+	private static final Map<Integer, ForkJoinPool> pools = new HashMap<>();
+
+	/**
+	 * Functional interface for a computation over a chunk of states.
+	 */
+	@FunctionalInterface
+	public interface ChunkTask<T>
+	{
+		T apply(IntSet chunk) throws PrismException;
+	}
+
+	/** The set of states that is partitioned */
+	private final IntSet states;
+	/** The chunks */
+	private final IntSet chunks[];
+	/** Number of threads */
+	private final int numThreads;
+
+	/**
+	 * Partition the set of states {@code states} of {@code model} for processing with {@code numThreads} threads.
+	 * If parallel processing is not worthwhile (e.g. too few transitions), there will be a single chunk.
+	 */
+	public StatePartition(Model<?> model, IntSet states, int numThreads)
+	{
+		this.states = states;
+		this.numThreads = numThreads;
+		// Count transitions
+		int stateList[] = states.stream().toArray();
+		long numTransitions = 0;
+		for (int s : stateList) {
+			numTransitions += model.getNumTransitions(s);
+		}
+		long numChunks = Math.min((long) numThreads * CHUNKS_PER_THREAD, numTransitions / MIN_TRANSITIONS_PER_CHUNK);
+		if (numThreads <= 1 || numChunks <= 1) {
+			chunks = new IntSet[] { states };
+			return;
+		}
+		// Split into chunks with (roughly) numTransitions / numChunks transitions each
+		List<IntSet> chunkList = new ArrayList<>();
+		int start = 0;
+		long count = 0;
+		for (int i = 0; i < stateList.length; i++) {
+			count += model.getNumTransitions(stateList[i]);
+			if (count * numChunks >= (chunkList.size() + 1) * numTransitions || i == stateList.length - 1) {
+				chunkList.add(new Chunk(stateList, start, i + 1));
+				start = i + 1;
+			}
+		}
+		chunks = chunkList.toArray(new IntSet[chunkList.size()]);
+	}
+
+	/**
+	 * Get the set of states that is partitioned.
+	 */
+	public IntSet getStates()
+	{
+		return states;
+	}
+
+	/**
+	 * Get the number of chunks.
+	 */
+	public int getNumChunks()
+	{
+		return chunks.length;
+	}
+
+	/**
+	 * Is processing done in parallel (i.e., is there more than one chunk)?
+	 */
+	public boolean isParallel()
+	{
+		return chunks.length > 1;
+	}
+
+	/**
+	 * Apply {@code task} to all chunks (in parallel) and return the results, in the order of the chunks.
+	 * Any exception thrown by a task is rethrown.
+	 */
+	public <T> List<T> invokeAll(ChunkTask<T> task) throws PrismException
+	{
+		if (!isParallel()) {
+			return Collections.singletonList(task.apply(chunks[0]));
+		}
+		return invokeAll(getTasks(task), numThreads);
+	}
+
+	/**
+	 * Get a list of tasks that apply {@code task} to each of the chunks,
+	 * e.g., for executing them along with other tasks using {@link #invokeAll(List, int)}.
+	 */
+	public <T> List<Callable<T>> getTasks(ChunkTask<T> task)
+	{
+		List<Callable<T>> callables = new ArrayList<>(chunks.length);
+		for (IntSet chunk : chunks) {
+			callables.add(() -> task.apply(chunk));
+		}
+		return callables;
+	}
+
+	/**
+	 * Execute some tasks in parallel, using {@code numThreads} threads (of a shared pool),
+	 * and return their results, in the same order as the tasks.
+	 * Any exception thrown by a task is rethrown.
+	 */
+	public static <T> List<T> invokeAll(List<Callable<T>> tasks, int numThreads) throws PrismException
+	{
+		List<T> results = new ArrayList<>(tasks.size());
+		try {
+			for (Future<T> future : getPool(numThreads).invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PrismException("Parallel computation was interrupted");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			// Checked exceptions get wrapped (maybe more than once) by the pool, so look for them
+			for (Throwable t = cause; t != null; t = t.getCause()) {
+				if (t instanceof PrismException) {
+					throw (PrismException) t;
+				}
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new PrismException("Error in parallel computation: " + cause);
+		}
+		return results;
+	}
+
+	/**
+	 * Get the shared pool of worker threads with parallelism {@code numThreads},
+	 * creating it if needed.
+	 */
+	private static synchronized ForkJoinPool getPool(int numThreads)
+	{
+		return pools.computeIfAbsent(numThreads, ForkJoinPool::new);
+	}
+
+	/**
+	 * A chunk of states, stored as a slice of an (ordered) array.
+	 */
+	private static class Chunk implements IntSet
+	{
+		private final int states[];
+		private final int from;
+		private final int to;
+
+		public Chunk(int states[], int from, int to)
+		{
+			this.states = states;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public FunctionalPrimitiveIterator.OfInt iterator()
+		{
+			return new ArrayIterator.OfInt(states, from, to);
+		}
+
+		@Override
+		public FunctionalPrimitiveIterator.OfInt reversedIterator()
+		{
+			int reversed[] = new int[to - from];
+			for (int i = 0; i < reversed.length; i++) {
+				reversed[i] = states[to - 1 - i];
+			}
+			return new ArrayIterator.OfInt(reversed);
+		}
+
+		@Override
+		public long count()
+		{
+			return to - from;
+		}
+
+		@Override
+		public boolean contains(int s)
+		{
+			for (PrimitiveIterator.OfInt it = iterator(); it.hasNext();) {
+				if (it.nextInt() == s) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public String toString()
+		{
+			return Arrays.toString(Arrays.copyOfRange(states, from, to));
+		}
+	}
+}
@@ -0,0 +1,463 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import parser.State;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+
+/**
+ * Transformation that permutes the states of an explicit model, in order to improve
+ * memory locality (e.g. in matrix-vector multiplication) and/or the convergence of
+ * Gauss-Seidel-style methods. The transformed model has the same type and
+ * storage as the original one, with labels and the states list (if present) permuted.
+ * <br>
+ * The following orders are supported (see {@link Order}):
+ * breadth-first search from the initial states, reverse Cuthill-McKee
+ * (which reduces the bandwidth of the transition matrix) and SCC order
+ * (SCCs in reverse topological order, i.e., as far as possible, successors before predecessors).
+ */
+public class StateReordering<M extends Model<?>> extends BasicModelTransformation<M, M>
+{
+	/** State orders */
+	public enum Order {
+		BFS, RCM, SCC;
+		public String fullName()
+		{
+			switch (this) {
+			case BFS:
+				return "BFS";
+			case RCM:
+				return "Reverse Cuthill-McKee";
+			case SCC:
+				return "SCC";
+			default:
+				return this.toString();
+			}
+		}
+	};
+
+	/* The order used */
+	private final Order order;
+	/* Permutation: state s of the original model is state permut[s] of the transformed one */
+	private final int permut[];
+
+	private StateReordering(M originalModel, M transformedModel, Order order, int permut[])
+	{
+		super(originalModel, transformedModel, s -> permut[s]);
+		this.order = order;
+		this.permut = permut;
+	}
+
+	/**
+	 * Get the order used.
+	 */
+	public Order getOrder()
+	{
+		return order;
+	}
+
+	/**
+	 * Get the permutation: state s of the original model is state permut[s] of the transformed one.
+	 */
+	public int[] getPermutation()
+	{
+		return permut;
+	}
+
+	/**
+	 * Is state reordering supported for {@code model}? See {@link #reorder(PrismComponent, Model, Order)}.
+	 */
+	public static boolean isSupported(Model<?> model)
+	{
+		// (exact classes only, since e.g. POMDPSimple and STPGSimple are subclasses of MDPSimple)
+		Class<?> c = model.getClass();
+		return c == CTMCSimple.class || c == DTMCSimple.class || c == MDPSimple.class || c == DTMCSparse.class || c == MDPSparse.class;
+	}
+
+	/**
+	 * Is there a stored reordering of {@code model} according to order {@code order}?
+	 * See {@link #reorder(PrismComponent, Model, Order, boolean)}.
+	 */
+	public static boolean hasStored(Model<?> model, Order order)
+	{
+		return model instanceof ModelExplicit && ((ModelExplicit<?>) model).stateReordering != null && ((ModelExplicit<?>) model).stateReordering.getOrder() == order;
+	}
+
+	/**
+	 * Get the stored reordering of {@code model} according to order {@code order}, if there is one,
+	 * and otherwise compute it with {@link #reorder(PrismComponent, Model, Order)}
+	 * (and store it, if {@code storeIfNew} is true), so that the reordered model can be
+	 * reused, e.g., when checking several properties of the same model.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <Value> StateReordering<Model<Value>> reorder(PrismComponent parent, Model<Value> model, Order order, boolean storeIfNew) throws PrismException
+	{
+		if (model instanceof ModelExplicit) {
+			ModelExplicit<Value> modelExpl = (ModelExplicit<Value>) model;
+			if (hasStored(model, order)) {
+				StateReordering<Model<Value>> stored = (StateReordering<Model<Value>>) modelExpl.stateReordering;
+				// Copy over any labels that have been added since
+				ModelExplicit<Value> reordered = (ModelExplicit<Value>) stored.getTransformedModel();
+				for (String label : model.getLabels()) {
+					if (!reordered.hasLabel(label)) {
+						reordered.addLabel(label, permuteStates(model.getLabelStates(label), stored.permut));
+					}
+				}
+				return stored;
+			}
+			StateReordering<Model<Value>> reordering = reorder(parent, model, order);
+			if (storeIfNew) {
+				modelExpl.stateReordering = reordering;
+			}
+			return reordering;
+		}
+		return reorder(parent, model, order);
+	}
+
+	/**
+	 * Permute the states of {@code model} according to order {@code order}.
+	 * Supported are models stored as {@link DTMCSimple}, {@link CTMCSimple}, {@link MDPSimple},
+	 * {@link DTMCSparse} and {@link MDPSparse} (but not subclasses of these);
+	 * the model is copied, keeping its storage type.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <Value> StateReordering<Model<Value>> reorder(PrismComponent parent, Model<Value> model, Order order) throws PrismException
+	{
+		ModelExplicit<Value> reordered;
+		if (!isSupported(model)) {
+			throw new PrismNotSupportedException("State reordering is not supported for " + model.getClass().getSimpleName() + " models");
+		}
+		int permut[] = computePermutation(parent, model, order);
+		if (model instanceof CTMCSimple) {
+			reordered = new CTMCSimple<>((CTMCSimple<Value>) model, permut);
+		} else if (model instanceof DTMCSimple) {
+			reordered = new DTMCSimple<>((DTMCSimple<Value>) model, permut);
+		} else if (model instanceof MDPSimple) {
+			reordered = new MDPSimple<>((MDPSimple<Value>) model, permut);
+		} else if (model instanceof DTMCSparse) {
+			reordered = (ModelExplicit<Value>) (ModelExplicit<?>) new DTMCSparse((DTMCSparse) model, permut);
+		} else {
+			reordered = (ModelExplicit<Value>) (ModelExplicit<?>) new MDPSparse((MDPSparse) model, permut);
+		}
+		// Copy states list and labels
+		List<State> statesList = model.getStatesList();
+		if (statesList != null) {
+			State permutedList[] = new State[statesList.size()];
+			for (int s = 0; s < permutedList.length; s++) {
+				permutedList[permut[s]] = statesList.get(s);
+			}
+			reordered.setStatesList(new ArrayList<>(Arrays.asList(permutedList)));
+		}
+		for (String label : model.getLabels()) {
+			reordered.addLabel(label, permuteStates(model.getLabelStates(label), permut));
+		}
+		return new StateReordering<>(model, reordered, order, permut);
+	}
+
+	/**
+	 * Apply permutation {@code permut} to a set of states.
+	 */
+	private static BitSet permuteStates(BitSet states, int permut[])
+	{
+		BitSet permuted = new BitSet();
+		for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+			permuted.set(permut[s]);
+		}
+		return permuted;
+	}
+
+	/**
+	 * Compute a permutation of the states of {@code model} according to order {@code order}:
+	 * state s becomes state permut[s].
+	 */
+	public static int[] computePermutation(PrismComponent parent, Model<?> model, Order order) throws PrismException
+	{
+		switch (order) {
+		case BFS:
+			return bfsPermutation(model);
+		case RCM:
+			return rcmPermutation(model);
+		case SCC:
+			return sccPermutation(parent, model);
+		default:
+			throw new PrismException("Unknown state order " + order);
+		}
+	}
+
+	/**
+	 * Breadth-first search order from the initial states (followed by any unreachable states).
+	 */
+	private static int[] bfsPermutation(Model<?> model)
+	{
+		int n = model.getNumStates();
+		int order[] = new int[n];
+		BitSet visited = new BitSet(n);
+		int head = 0, tail = 0;
+		for (int s : model.getInitialStates()) {
+			if (!visited.get(s)) {
+				visited.set(s);
+				order[tail++] = s;
+			}
+		}
+		int next = 0;
+		while (tail < n) {
+			if (head == tail) {
+				// Restart from next unvisited state
+				next = visited.nextClearBit(next);
+				visited.set(next);
+				order[tail++] = next;
+			}
+			while (head < tail) {
+				SuccessorsIterator it = model.getSuccessors(order[head++]);
+				while (it.hasNext()) {
+					int t = it.nextInt();
+					if (!visited.get(t)) {
+						visited.set(t);
+						order[tail++] = t;
+					}
+				}
+			}
+		}
+		return inverse(order);
+	}
+
+	/**
+	 * Reverse Cuthill-McKee order, for the (undirected) graph of the model.
+	 * Each connected component is explored by breadth-first search from a pseudo-peripheral
+	 * state, visiting the neighbours of each state in order of increasing degree;
+	 * the resulting order is then reversed.
+	 */
+	private static int[] rcmPermutation(Model<?> model)
+	{
+		int n = model.getNumStates();
+		// Build the adjacency relation of the undirected graph (ignoring self-loops and duplicate edges),
+		// as the union of the (distinct) successors and predecessors of each state
+		int succStart[] = new int[n + 1];
+		int last[] = new int[n];
+		Arrays.fill(last, -1);
+		for (int s = 0; s < n; s++) {
+			SuccessorsIterator it = model.getSuccessors(s);
+			while (it.hasNext()) {
+				int t = it.nextInt();
+				if (t != s && last[t] != s) {
+					last[t] = s;
+					succStart[s + 1]++;
+				}
+			}
+		}
+		for (int s = 0; s < n; s++) {
+			succStart[s + 1] += succStart[s];
+		}
+		int succ[] = new int[succStart[n]];
+		int predStart[] = new int[n + 1];
+		Arrays.fill(last, -1);
+		for (int s = 0, pos = 0; s < n; s++) {
+			SuccessorsIterator it = model.getSuccessors(s);
+			while (it.hasNext()) {
+				int t = it.nextInt();
+				if (t != s && last[t] != s) {
+					last[t] = s;
+					succ[pos++] = t;
+					predStart[t + 1]++;
+				}
+			}
+		}
+		for (int s = 0; s < n; s++) {
+			predStart[s + 1] += predStart[s];
+		}
+		int pred[] = new int[predStart[n]];
+		int pos[] = Arrays.copyOf(predStart, n);
+		for (int s = 0; s < n; s++) {
+			for (int j = succStart[s]; j < succStart[s + 1]; j++) {
+				pred[pos[succ[j]]++] = s;
+			}
+		}
+		int adjStart[] = new int[n + 1];
+		Arrays.fill(last, -1);
+		for (int s = 0; s < n; s++) {
+			int degree = succStart[s + 1] - succStart[s];
+			for (int j = succStart[s]; j < succStart[s + 1]; j++) {
+				last[succ[j]] = s;
+			}
+			for (int j = predStart[s]; j < predStart[s + 1]; j++) {
+				if (last[pred[j]] != s) {
+					degree++;
+				}
+			}
+			adjStart[s + 1] = adjStart[s] + degree;
+		}
+		int adj[] = new int[adjStart[n]];
+		Arrays.fill(last, -1);
+		for (int s = 0; s < n; s++) {
+			int k = adjStart[s];
+			for (int j = succStart[s]; j < succStart[s + 1]; j++) {
+				last[succ[j]] = s;
+				adj[k++] = succ[j];
+			}
+			for (int j = predStart[s]; j < predStart[s + 1]; j++) {
+				if (last[pred[j]] != s) {
+					adj[k++] = pred[j];
+				}
+			}
+		}
+		succ = pred = null;
+		// States sorted by degree (to find start states for each component)
+		long byDegree[] = new long[n];
+		for (int s = 0; s < n; s++) {
+			byDegree[s] = ((long) (adjStart[s + 1] - adjStart[s]) << 32) | s;
+		}
+		Arrays.sort(byDegree);
+		// Explore each component
+		int order[] = new int[n];
+		BitSet visited = new BitSet(n);
+		int level[] = new int[n];
+		long keys[] = new long[16];
+		int count = 0;
+		for (long key : byDegree) {
+			int start = (int) key;
+			if (visited.get(start)) {
+				continue;
+			}
+			start = pseudoPeripheral(start, adjStart, adj, level, order, count);
+			// Cuthill-McKee: BFS with neighbours in order of increasing degree
+			int head = count;
+			visited.set(start);
+			order[count++] = start;
+			while (head < count) {
+				int s = order[head++];
+				int numKeys = 0;
+				for (int j = adjStart[s]; j < adjStart[s + 1]; j++) {
+					int t = adj[j];
+					if (!visited.get(t)) {
+						visited.set(t);
+						if (numKeys == keys.length) {
+							keys = Arrays.copyOf(keys, 2 * numKeys);
+						}
+						keys[numKeys++] = ((long) (adjStart[t + 1] - adjStart[t]) << 32) | t;
+					}
+				}
+				Arrays.sort(keys, 0, numKeys);
+				for (int j = 0; j < numKeys; j++) {
+					order[count++] = (int) keys[j];
+				}
+			}
+		}
+		// Reverse
+		for (int i = 0, j = n - 1; i < j; i++, j--) {
+			int tmp = order[i];
+			order[i] = order[j];
+			order[j] = tmp;
+		}
+		return inverse(order);
+	}
+
+	/**
+	 * Find a pseudo-peripheral state in the component of {@code start} (Gibbs-Poole-Stockmeyer/George-Liu heuristic):
+	 * repeatedly move to a state of minimum degree in the last level of a breadth-first search
+	 * while this increases the number of levels. Uses {@code level} (all 0 initially)
+	 * and {@code queue} (from index {@code offset}) as temporary storage, which are restored afterwards.
+	 */
+	private static int pseudoPeripheral(int start, int adjStart[], int adj[], int level[], int queue[], int offset)
+	{
+		int numLevels = 0;
+		for (int iter = 0; iter < 10; iter++) {
+			// BFS from start, computing levels
+			int head = offset, tail = offset;
+			queue[tail++] = start;
+			level[start] = 1;
+			while (head < tail) {
+				int s = queue[head++];
+				for (int j = adjStart[s]; j < adjStart[s + 1]; j++) {
+					int t = adj[j];
+					if (level[t] == 0) {
+						level[t] = level[s] + 1;
+						queue[tail++] = t;
+					}
+				}
+			}
+			int newNumLevels = level[queue[tail - 1]];
+			// Min degree state in last level
+			int best = start;
+			int bestDegree = Integer.MAX_VALUE;
+			for (int i = tail - 1; i >= offset && level[queue[i]] == newNumLevels; i--) {
+				int s = queue[i];
+				if (adjStart[s + 1] - adjStart[s] < bestDegree) {
+					best = s;
+					bestDegree = adjStart[s + 1] - adjStart[s];
+				}
+			}
+			for (int i = offset; i < tail; i++) {
+				level[queue[i]] = 0;
+			}
+			if (newNumLevels <= numLevels) {
+				break;
+			}
+			numLevels = newNumLevels;
+			start = best;
+		}
+		return start;
+	}
+
+	/**
+	 * SCC order: SCCs in reverse topological order (as used for topological value iteration),
+	 * i.e., bottom SCCs first, and the states of each SCC in their original order.
+	 */
+	private static int[] sccPermutation(PrismComponent parent, Model<?> model) throws PrismException
+	{
+		int n = model.getNumStates();
+		SCCInfo sccs = SCCComputer.computeTopologicalOrdering(parent, model, true);
+		int sccStart[] = new int[sccs.getNumSCCs() + 1];
+		for (int s = 0; s < n; s++) {
+			sccStart[sccs.getSCCIndex(s) + 1]++;
+		}
+		for (int i = 0; i < sccs.getNumSCCs(); i++) {
+			sccStart[i + 1] += sccStart[i];
+		}
+		int permut[] = new int[n];
+		for (int s = 0; s < n; s++) {
+			permut[s] = sccStart[sccs.getSCCIndex(s)]++;
+		}
+		return permut;
+	}
+
+	/**
+	 * Invert a permutation.
+	 */
+	private static int[] inverse(int order[])
+	{
+		int permut[] = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			permut[order[i]] = i;
+		}
+		return permut;
+	}
+}
@@ -0,0 +1,162 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Steady-state detection for uniformisation, i.e., for sums of the form
+ * sum_{i=0}^{right} w(i) * v_i, where v_i = P^i v_0 (backwards) or v_i = v_0 P^i (forwards)
+ * for the (stochastic) matrix P of a uniformised DTMC.
+ * <br>
+ * After iteration k, the rest of the sum can be approximated by (sum_{i>k} w(i)) * v_k,
+ * with a guaranteed error bound: since P is stochastic, the differences d_i = v_i - v_{i-1}
+ * do not grow (in the infinity norm for backwards, the 1-norm for forwards computations),
+ * so |v_i - v_k| <= (i-k) * |d_k|, giving an error of at most |d_k| * sum_{i>k} (i-k) w(i).
+ * For backwards computations, each v_i (i>k) is also a convex combination of the entries of v_k,
+ * giving a second bound of (max(v_k) - min(v_k)) * sum_{i>k} w(i).
+ */
+class UniformisationSSDetector
+{
+	/** Weights w(i) */
+	private final IntToDoubleFunction weight;
+	/** Backwards (rather than forwards) computation? */
+	private final boolean backwards;
+	/** Error bound below which steady state is detected */
+	private final double epsilon;
+
+	/** Current iteration k */
+	private int k;
+	/** sum_{i>k} w(i) */
+	private double tailWeight;
+	/** sum_{i>k} (i-k) w(i) */
+	private double tailMoment;
+	/** Norm of the difference between the last two iteration vectors */
+	private double diff;
+	/** Span (max - min) of the last iteration vector (backwards only) */
+	private double span;
+	/** Error bound for the current iteration */
+	private double errorBound = Double.POSITIVE_INFINITY;
+
+	/**
+	 * Create steady-state detection for a uniformisation sum with weights {@code weight.applyAsDouble(i)}
+	 * for iterations i = 0..right, detecting steady state once the error is guaranteed to be at most {@code epsilon}.
+	 */
+	public UniformisationSSDetector(IntToDoubleFunction weight, int right, boolean backwards, double epsilon)
+	{
+		this.weight = weight;
+		this.backwards = backwards;
+		this.epsilon = epsilon;
+		k = 0;
+		tailWeight = 0.0;
+		tailMoment = 0.0;
+		for (int i = right; i >= 1; i--) {
+			tailWeight += weight.applyAsDouble(i);
+			tailMoment += tailWeight;
+		}
+	}
+
+	/**
+	 * Check for steady state after iteration {@code iter}, given the current and previous iteration vectors
+	 * ({@code iter} must be increased by 1 on each call). Returns true if replacing the rest of the sum
+	 * by {@link #getTailWeight()} times {@code soln} gives an error of at most epsilon.
+	 */
+	public boolean check(int iter, double soln[], double prev[])
+	{
+		int n = soln.length;
+		double diff = 0.0, span = 0.0;
+		if (backwards) {
+			double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				diff = Math.max(diff, Math.abs(soln[i] - prev[i]));
+				min = Math.min(min, soln[i]);
+				max = Math.max(max, soln[i]);
+			}
+			span = max - min;
+		} else {
+			for (int i = 0; i < n; i++) {
+				diff += Math.abs(soln[i] - prev[i]);
+			}
+		}
+		return check(iter, diff, span);
+	}
+
+	/**
+	 * Check for steady state after iteration {@code iter}, as for {@link #check(int, double[], double[])},
+	 * but given the norm of the difference between the current and previous iteration vectors
+	 * and, for backwards computations, the span (max - min) of the current one, e.g., as computed
+	 * by another detector for the same vectors (see {@link #getDiff()} and {@link #getSpan()}).
+	 */
+	public boolean check(int iter, double diff, double span)
+	{
+		// Update tail sums (for k = iter)
+		while (k < iter) {
+			tailMoment = Math.max(0.0, tailMoment - tailWeight);
+			k++;
+			tailWeight = Math.max(0.0, tailWeight - weight.applyAsDouble(k));
+		}
+		this.diff = diff;
+		this.span = span;
+		if (backwards) {
+			errorBound = Math.min(diff * tailMoment, span * tailWeight);
+		} else {
+			errorBound = diff * tailMoment;
+		}
+		return errorBound <= epsilon;
+	}
+
+	/**
+	 * Get the sum of the weights for the iterations after the current one.
+	 */
+	public double getTailWeight()
+	{
+		return tailWeight;
+	}
+
+	/**
+	 * Get the (guaranteed) error bound resulting from stopping at the current iteration.
+	 */
+	public double getErrorBound()
+	{
+		return errorBound;
+	}
+
+	/**
+	 * Get the norm of the difference between the last two iteration vectors
+	 * (infinity norm for backwards, 1-norm for forwards computations).
+	 */
+	public double getDiff()
+	{
+		return diff;
+	}
+
+	/**
+	 * Get the span (max - min) of the last iteration vector (backwards computations only).
+	 */
+	public double getSpan()
+	{
+		return span;
+	}
+}
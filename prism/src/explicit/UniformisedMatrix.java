@@ -0,0 +1,394 @@
+//==============================================================================
+//
+//	Copyright (c) 2024-
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import prism.PrismException;
+
+/**
+ * The transition matrix P = I + Q/q of the uniformised DTMC of a CTMC, stored as compressed sparse rows,
+ * for the matrix-vector multiplications of uniformisation.
+ * For backwards computations (result = P v), row i holds the entries P(i,j);
+ * for forwards computations (result = v P), it holds the entries P(j,i) of the transpose,
+ * so that, either way, each entry of the result depends on one row only.
+ * This allows the rows to be split into chunks that are multiplied in parallel, and for the
+ * weighted sums of uniformisation to be updated in the same pass as the multiplication.
+ * <br>
+ * For backwards computations, states that are made absorbing are skipped, i.e., their entries
+ * of the result are not written (as for {@link DTMC#mvMult(double[], double[], BitSet, boolean)}
+ * with a subset), so they should be equal to those of the input vector already.
+ * <br>
+ * Diagonal entries are stored separately (self-loops of the CTMC are ignored, as for
+ * {@link CTMC#buildImplicitUniformisedDTMC(Object)}). Optionally, the off-diagonal entries are
+ * stored in single precision (floats), reducing the memory for the matrix by a third (8 rather than
+ * 12 bytes per entry, including the column index); the diagonal is then computed from the rounded
+ * entries, so that the matrix is still stochastic. Vectors are always kept in double precision.
+ * <br>
+ * Alternatively, the generator matrix Q itself can be stored in the same way (see
+ * {@link #generator(CTMC, BitSet, boolean, boolean, int)}), e.g. for Krylov subspace methods.
+ * Rows of absorbing states are then zero (and are written).
+ */
+class UniformisedMatrix
+{
+	/** Number of states */
+	private final int numStates;
+	/** Backwards (P v) or forwards (v P)? */
+	private final boolean backwards;
+	/** Generator matrix Q (rather than P)? */
+	private final boolean generator;
+	/** Row i is stored at indices rowStart[i] (inclusive) to rowStart[i+1] (exclusive) of cols/vals */
+	private final int rowStart[];
+	/** Column indices */
+	private final int cols[];
+	/** Off-diagonal entries (double precision; null if single precision is used) */
+	private final double vals[];
+	/** Off-diagonal entries (single precision; null if double precision is used) */
+	private final float valsFloat[];
+	/** Diagonal entries */
+	private final double diag[];
+	/** Rows that are multiplied, in ascending order (null means "all") */
+	private final int rows[];
+	/** Number of threads */
+	private final int numThreads;
+	/** Chunks of rows for parallel multiplication (null if sequential):
+	 * chunk c is rows chunks[c] (inclusive) to chunks[c+1] (exclusive) */
+	private final int chunks[];
+
+	/**
+	 * Build the uniformised matrix for {@code ctmc}, with uniformisation rate {@code q}.
+	 * @param ctmc The CTMC
+	 * @param q Uniformisation rate
+	 * @param nonAbs States *not* to be made absorbing (optional: null means "all")
+	 * @param backwards Build for backwards (P v) or forwards (v P) multiplication?
+	 * @param singlePrecision Store off-diagonal entries as floats?
+	 * @param numThreads Number of threads for multiplication
+	 */
+	public UniformisedMatrix(CTMC<Double> ctmc, double q, BitSet nonAbs, boolean backwards, boolean singlePrecision, int numThreads)
+	{
+		this(ctmc, q, false, nonAbs, backwards, singlePrecision, numThreads);
+	}
+
+	/**
+	 * Build the generator matrix Q of {@code ctmc} (rather than the uniformised matrix),
+	 * for multiplication as Q v (backwards) or v Q (forwards).
+	 * Arguments are as for {@link #UniformisedMatrix(CTMC, double, BitSet, boolean, boolean, int)}.
+	 */
+	public static UniformisedMatrix generator(CTMC<Double> ctmc, BitSet nonAbs, boolean backwards, boolean singlePrecision, int numThreads)
+	{
+		return new UniformisedMatrix(ctmc, 1.0, true, nonAbs, backwards, singlePrecision, numThreads);
+	}
+
+	private UniformisedMatrix(CTMC<Double> ctmc, double q, boolean generator, BitSet nonAbs, boolean backwards, boolean singlePrecision, int numThreads)
+	{
+		this.numStates = ctmc.getNumStates();
+		this.backwards = backwards;
+		this.generator = generator;
+		this.numThreads = numThreads;
+		int n = numStates;
+		rowStart = new int[n + 1];
+		diag = new double[n];
+		// Count the (off-diagonal) entries of each row, and compute the diagonal
+		for (int s = 0; s < n; s++) {
+			if (nonAbs != null && !nonAbs.get(s)) {
+				diag[s] = generator ? 0.0 : 1.0;
+				continue;
+			}
+			double sumRates = 0.0, sumProbs = 0.0;
+			for (Iterator<Map.Entry<Integer, Double>> it = ctmc.getTransitionsIterator(s); it.hasNext();) {
+				Map.Entry<Integer, Double> e = it.next();
+				int t = e.getKey();
+				if (t != s) {
+					double rate = e.getValue();
+					sumRates += rate;
+					sumProbs += singlePrecision ? (float) (rate / q) : rate / q;
+					rowStart[(backwards ? s : t) + 1]++;
+				}
+			}
+			if (generator) {
+				diag[s] = singlePrecision ? -sumProbs : -sumRates;
+			} else if (singlePrecision) {
+				diag[s] = Math.max(0.0, 1 - sumProbs);
+			} else if (backwards) {
+				// As for DTMCUniformisedSimple.mvMultSingle
+				diag[s] = sumRates < q ? 1 - sumRates / q : 0.0;
+			} else {
+				// As for DTMCUniformisedSimple.vmMult
+				diag[s] = 1 - sumProbs;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			rowStart[i + 1] += rowStart[i];
+		}
+		// Store the entries (for the transpose, in order of the source state)
+		int numEntries = rowStart[n];
+		cols = new int[numEntries];
+		vals = singlePrecision ? null : new double[numEntries];
+		valsFloat = singlePrecision ? new float[numEntries] : null;
+		int next[] = new int[n];
+		System.arraycopy(rowStart, 0, next, 0, n);
+		for (int s = 0; s < n; s++) {
+			if (nonAbs != null && !nonAbs.get(s)) {
+				continue;
+			}
+			for (Iterator<Map.Entry<Integer, Double>> it = ctmc.getTransitionsIterator(s); it.hasNext();) {
+				Map.Entry<Integer, Double> e = it.next();
+				int t = e.getKey();
+				if (t != s) {
+					int row = backwards ? s : t;
+					int j = next[row]++;
+					cols[j] = backwards ? t : s;
+					if (singlePrecision) {
+						valsFloat[j] = (float) (e.getValue() / q);
+					} else {
+						vals[j] = e.getValue() / q;
+					}
+				}
+			}
+		}
+		rows = backwards && !generator && nonAbs != null ? nonAbs.stream().filter(s -> s < n).toArray() : null;
+		chunks = buildChunks();
+	}
+
+	/**
+	 * Split the rows into chunks (with roughly equal numbers of entries)
+	 * for parallel multiplication, if worthwhile, or return null otherwise.
+	 */
+	private int[] buildChunks()
+	{
+		if (numThreads <= 1) {
+			return null;
+		}
+		// Count one extra entry per state (for the diagonal or the update of sums)
+		long nnz = (long) rowStart[numStates] + numStates;
+		long numChunks = Math.min((long) numThreads * StatePartition.CHUNKS_PER_THREAD, nnz / StatePartition.MIN_TRANSITIONS_PER_CHUNK);
+		if (numChunks <= 1) {
+			return null;
+		}
+		List<Integer> bounds = new ArrayList<>();
+		bounds.add(0);
+		for (int i = 0; i < numStates; i++) {
+			long count = (long) rowStart[i + 1] + i + 1;
+			if (count * numChunks >= bounds.size() * nnz || i == numStates - 1) {
+				bounds.add(i + 1);
+			}
+		}
+		return bounds.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Get the number of states (rows).
+	 */
+	public int getNumStates()
+	{
+		return numStates;
+	}
+
+	/**
+	 * Get the number of stored (off-diagonal) entries.
+	 */
+	public int getNumEntries()
+	{
+		return rowStart[numStates];
+	}
+
+	/**
+	 * Get the number of chunks that rows are split into for multiplication (1 if sequential).
+	 */
+	public int getNumChunks()
+	{
+		return chunks == null ? 1 : chunks.length - 1;
+	}
+
+	/**
+	 * Get the infinity norm of the stored matrix, i.e., the maximum absolute row sum
+	 * (so, for forwards computations, this is the 1-norm of the matrix itself).
+	 */
+	public double getNormInf()
+	{
+		double norm = 0.0;
+		for (int i = 0; i < numStates; i++) {
+			double sum = Math.abs(diag[i]);
+			for (int j = rowStart[i]; j < rowStart[i + 1]; j++) {
+				sum += Math.abs(valsFloat == null ? vals[j] : valsFloat[j]);
+			}
+			norm = Math.max(norm, sum);
+		}
+		return norm;
+	}
+
+	/**
+	 * Are the off-diagonal entries stored in single precision?
+	 */
+	public boolean isSinglePrecision()
+	{
+		return valsFloat != null;
+	}
+
+	/**
+	 * Compute {@code out} = P {@code in} (backwards) or {@code in} P (forwards),
+	 * where P is Q instead if this is a generator matrix.
+	 */
+	public void multiply(double in[], double out[]) throws PrismException
+	{
+		multiply(in, out, null, 0.0);
+	}
+
+	/**
+	 * Compute {@code out} = P {@code in} (backwards) or {@code in} P (forwards)
+	 * and, in the same pass, add {@code weight * out} to {@code sum} (unless {@code sum} is null).
+	 */
+	public void multiply(double in[], double out[], double sum[], double weight) throws PrismException
+	{
+		forEachChunk((lo, hi) -> multiplyRange(lo, hi, in, out, sum, weight));
+	}
+
+	/**
+	 * Compute {@code out} = P {@code in} (backwards) or {@code in} P (forwards)
+	 * and, in the same pass, add {@code weights[k] * out} to {@code sums[k]}, for each k
+	 * (except where {@code weights[k]} is 0).
+	 */
+	public void multiply(double in[], double out[], double sums[][], double weights[]) throws PrismException
+	{
+		forEachChunk((lo, hi) -> {
+			multiplyRange(lo, hi, in, out, null, 0.0);
+			// Add to the sums while this chunk of the result is still in cache
+			for (int k = 0; k < sums.length; k++) {
+				double w = weights[k];
+				if (w != 0.0) {
+					double sum[] = sums[k];
+					for (int i = lo; i < hi; i++) {
+						sum[i] += w * out[i];
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Multiply rows {@code lo..hi-1}, adding to {@code sum} if non-null.
+	 */
+	private void multiplyRange(int lo, int hi, double in[], double out[], double sum[], double weight)
+	{
+		if (rows != null) {
+			// Only the rows of non-absorbing states (in this range)
+			int from = Arrays.binarySearch(rows, lo);
+			from = from < 0 ? -from - 1 : from;
+			for (int r = from; r < rows.length && rows[r] < hi; r++) {
+				int i = rows[r];
+				if (valsFloat == null) {
+					multiplyDouble(rowStart, cols, vals, diag, i, i + 1, in, out);
+				} else {
+					multiplyFloat(rowStart, cols, valsFloat, diag, i, i + 1, in, out);
+				}
+			}
+		} else if (valsFloat == null) {
+			multiplyDouble(rowStart, cols, vals, diag, lo, hi, in, out);
+		} else {
+			multiplyFloat(rowStart, cols, valsFloat, diag, lo, hi, in, out);
+		}
+		if (sum != null) {
+			for (int i = lo; i < hi; i++) {
+				sum[i] += weight * out[i];
+			}
+		}
+	}
+
+	// Multiplication kernels (static, with the arrays passed in, which the JIT compiles better than field accesses)
+
+	private static void multiplyDouble(int rowStart[], int cols[], double vals[], double diag[], int lo, int hi, double in[], double out[])
+	{
+		for (int i = lo; i < hi; i++) {
+			double d = 0.0;
+			for (int j = rowStart[i], end = rowStart[i + 1]; j < end; j++) {
+				d += vals[j] * in[cols[j]];
+			}
+			d += diag[i] * in[i];
+			out[i] = d;
+		}
+	}
+
+	private static void multiplyFloat(int rowStart[], int cols[], float vals[], double diag[], int lo, int hi, double in[], double out[])
+	{
+		// Two partial sums, since the float-to-double conversions
+		// otherwise lengthen the dependency chain of the additions
+		for (int i = lo; i < hi; i++) {
+			double d0 = 0.0, d1 = 0.0;
+			int j = rowStart[i], end = rowStart[i + 1];
+			for (; j + 1 < end; j += 2) {
+				d0 += vals[j] * in[cols[j]];
+				d1 += vals[j + 1] * in[cols[j + 1]];
+			}
+			if (j < end) {
+				d0 += vals[j] * in[cols[j]];
+			}
+			out[i] = (d0 + d1) + diag[i] * in[i];
+		}
+	}
+
+	private interface RangeTask
+	{
+		void apply(int lo, int hi);
+	}
+
+	/**
+	 * Apply {@code task} to all rows, in parallel chunks if set up.
+	 */
+	private void forEachChunk(RangeTask task) throws PrismException
+	{
+		if (chunks == null) {
+			task.apply(0, numStates);
+			return;
+		}
+		List<Callable<Void>> tasks = new ArrayList<>(chunks.length - 1);
+		for (int c = 0; c < chunks.length - 1; c++) {
+			int lo = chunks[c], hi = chunks[c + 1];
+			tasks.add(() -> {
+				task.apply(lo, hi);
+				return null;
+			});
+		}
+		StatePartition.invokeAll(tasks, numThreads);
+	}
+
+	@Override
+	public String toString()
+	{
+		String s = (generator ? "generator, " : "") + (backwards ? "backwards" : "forwards") + ", " + numStates + " states, " + getNumEntries() + " off-diagonal entries";
+		if (isSinglePrecision()) {
+			s += " (single precision)";
+		}
+		if (chunks != null) {
+			s += ", " + getNumChunks() + " chunks";
+		}
+		return s;
+	}
+}
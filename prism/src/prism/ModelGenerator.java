@@ -97,6 +97,18 @@ public interface ModelGenerator<Value> extends ModelInfo
 	 */
 	public void exploreState(State exploreState) throws PrismException;
 
+	/**
+	 * Create a copy of this model generator that can explore states independently of
+	 * (and concurrently with) this one, e.g. for multi-threaded model construction.
+	 * The copy only needs to support state exploration, not any other modifications.
+	 * Returns null if this is not supported, which is the default.
+	 */
+	public default ModelGenerator<Value> createExplorationCopy() throws PrismException
+	{
+		// Not supported by default
+		return null;
+	}
+
 	/**
 	 * Get the number of nondeterministic choices in the current state.
 	 */
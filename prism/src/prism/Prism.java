@@ -115,6 +115,9 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	public static final int BSOR = 9;
 	public static final int PSOR = 10;
 	public static final int BPSOR = 11;
+	public static final int BICGSTAB = 12;
+	public static final int GMRES = 13;
+	public static final int CGS = 14;
 
 	// methods for solving MDPs
 	public static final int MDP_VALITER = 1;
@@ -149,6 +152,19 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	public static final int XIEBEEREL = 1;
 	public static final int LOCKSTEP = 2;
 	public static final int SCCFIND = 3;
+	public static final int TARJAN = 4;
+	public static final int TARJAN_RECURSIVE = 5;
+	public static final int FORWARD_BACKWARD = 6;
+
+	// methods for (explicit) MEC decomposition
+	public static final int MEC_INCREMENTAL = 1;
+	public static final int MEC_SUBMODEL = 2;
+
+	// state orders (explicit engine)
+	public static final int STATE_ORDER_NONE = 1;
+	public static final int STATE_ORDER_BFS = 2;
+	public static final int STATE_ORDER_RCM = 3;
+	public static final int STATE_ORDER_SCC = 4;
 
 	// state space cut-off to trigger MTBDD engine
 	protected static final int MTBDD_STATES_THRESHOLD = 100000000;
@@ -183,6 +199,8 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	protected boolean restrictStratToReach = true;
 	// Do bisimulation minimisation before model checking?
 	protected boolean doBisim = false;
+	// Sweep over property constant values currently being checked (null if none)
+	protected explicit.PropertyConstantSweep propertyConstantSweep = null;
 
 	// A few miscellaneous options (i.e. defunct/hidden/undocumented/etc.)
 	// See constructor below for default values
@@ -224,7 +242,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	//------------------------------------------------------------------------------
 
 	public enum ModelSource {
-		PRISM_MODEL, MODEL_GENERATOR, EXPLICIT_FILES, BUILT_MODEL
+		PRISM_MODEL, MODEL_GENERATOR, EXPLICIT_FILES, BINARY_FILE, BUILT_MODEL
 	}
 
 	public enum ModelBuildType {
@@ -268,6 +286,8 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	private File explicitFilesLabelsFile = null;
 	private List<File> explicitFilesStateRewardsFiles = new ArrayList<>();
 	private int explicitFilesNumStates = -1;
+	// Info for binary file load
+	private explicit.BinaryModelFile binaryModelFile = null;
 
 	// Has the CUDD library been initialised yet?
 	private boolean cuddStarted = false;
@@ -500,6 +520,16 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		settings.setChoice(PrismSettings.PRISM_SCC_METHOD, i);
 	}
 
+	public void setMECMethod(int i) throws PrismException
+	{
+		settings.setChoice(PrismSettings.PRISM_MEC_METHOD, i);
+	}
+
+	public void setStateOrder(int i) throws PrismException
+	{
+		settings.setChoice(PrismSettings.PRISM_STATE_ORDER, i);
+	}
+
 	public void setExportAdv(int i) throws PrismException
 	{
 		settings.setChoice(PrismSettings.PRISM_EXPORT_ADV, i);
@@ -623,6 +653,16 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		this.doBisim = doBisim;
 	}
 
+	/**
+	 * Specify that subsequent calls to model checking are part of an experiment that sweeps
+	 * over the given list of values for the property constants (null means no sweep), so that
+	 * computations shared between these calls can be done once (explicit engine only).
+	 */
+	public void setPropertyConstantSweep(List<Values> sweep)
+	{
+		this.propertyConstantSweep = sweep == null ? null : new explicit.PropertyConstantSweep(sweep);
+	}
+
 	public void setDoReach(boolean b) throws PrismException
 	{
 		doReach = b;
@@ -855,6 +895,16 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		return settings.getChoice(PrismSettings.PRISM_SCC_METHOD);
 	}
 
+	public int getMECMethod()
+	{
+		return settings.getChoice(PrismSettings.PRISM_MEC_METHOD);
+	}
+
+	public int getStateOrder()
+	{
+		return settings.getChoice(PrismSettings.PRISM_STATE_ORDER);
+	}
+
 	public int getExportAdv()
 	{
 		return settings.getChoice(PrismSettings.PRISM_EXPORT_ADV);
@@ -1787,6 +1837,26 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		currentDefinedMFConstants = null;
 	}
 
+	/**
+	 * Load a binary model file (as exported by {@link #exportToBinaryFile(File)}) for subsequent model building.
+	 * The file header is checked and its model info read immediately; models can only be built with the explicit engine.
+	 * @param file The binary model file
+	 */
+	public void loadModelFromBinaryFile(File file) throws PrismException
+	{
+		currentModelSource = ModelSource.BINARY_FILE;
+		// Clear any existing built model(s)
+		clearBuiltModel();
+		// Open file and construct ModelInfo/RewardGenerator
+		binaryModelFile = new explicit.BinaryModelFile(file);
+		currentModelInfo = binaryModelFile.getModelInfo();
+		currentModulesFile = null;
+		currentRewardGenerator = binaryModelFile.getRewardGenerator();
+		// Reset dependent info
+		currentModelType = currentModelInfo.getModelType();
+		currentDefinedMFConstants = null;
+	}
+
 	/**
 	 * Get the type of the currently stored model.
 	 */
@@ -1844,6 +1914,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				throw new PrismException("There is no currently loaded model generator");
 			case BUILT_MODEL:
 			case EXPLICIT_FILES:
+			case BINARY_FILE:
 				// If possible, model building from files creates a ModelGenerator too 
 				buildModelIfRequired();
 				break;
@@ -1955,6 +2026,18 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	 */
 	private void chooseEngineForModelBuild()
 	{
+		// Binary model files can only be loaded by the explicit engine
+		if (currentModelSource == ModelSource.BINARY_FILE && getCurrentEngine() == PrismEngine.SYMBOLIC) {
+			mainLog.println("\nSwitching to explicit engine, which supports binary model files...");
+			engineOld = getEngine();
+			engineSwitched = true;
+			try {
+				setEngine(Prism.EXPLICIT);
+			} catch (PrismException e) {
+				// Won't happen
+			}
+			return;
+		}
 		// For some models, automatically switch engine
 		switch (currentModelType) {
 			case IDTMC:
@@ -2069,6 +2152,14 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 					efrg4e.setStatesList(currentModelExpl.getStatesList());
 					currentRewardGenerator = efrg4e;
 					break;
+				case BINARY_FILE:
+					// Models are used in place (off-heap) if mapped model storage is enabled
+					currentModelExpl = binaryModelFile.buildModel(!"".equals(getSettings().getString(PrismSettings.PRISM_MAPPED_MODEL_DIR)));
+					currentModel = null;
+					currentModelBuildType = ModelBuildType.EXPLICIT;
+					// Also build a ModelGenerator (e.g. for simulation)
+					currentModelGenerator = new ModelModelGenerator<>(currentModelExpl, currentModelInfo);
+					break;
 				default:
 					throw new PrismException("Cannot do explicit model construction for model source " + currentModelSource);
 				}
@@ -2548,6 +2639,31 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 	}
 
+	/**
+	 * Export the currently loaded model to a binary file (see {@link explicit.BinaryModelFile}),
+	 * including its states, labels and state rewards, which can be imported later
+	 * with {@link #loadModelFromBinaryFile(File)}. Only supported by the explicit engine.
+	 * @param file File to export to
+	 */
+	public void exportToBinaryFile(File file) throws PrismException
+	{
+		// Build model, if necessary
+		buildModelIfRequired();
+		if (currentModelBuildType != ModelBuildType.EXPLICIT) {
+			throw new PrismNotSupportedException("Binary model export is currently only supported by the explicit engine");
+		}
+
+		mainLog.println("\nExporting model in binary format to file \"" + file + "\"...");
+		long l = System.currentTimeMillis();
+		explicit.StateModelChecker mcExpl = createModelCheckerExplicit(null);
+		if (!(mcExpl instanceof explicit.ProbModelChecker)) {
+			throw new PrismNotSupportedException("Binary model export is not supported for " + currentModelType + "s");
+		}
+		((explicit.ProbModelChecker) mcExpl).exportToBinaryFile(currentModelExpl, file);
+		l = System.currentTimeMillis() - l;
+		mainLog.println("Time for export: " + l / 1000.0 + " seconds.");
+	}
+
 	/**
 	 * Export the currently loaded model's bottom strongly connected components (BSCCs) to a file
 	 * @param exportType Type of export; one of: <ul>
@@ -3094,6 +3210,14 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				setEngine(Prism.EXPLICIT);
 			}
 		}
+		if ((settings.getBoolean(PrismSettings.PRISM_OPTIMISTIC_VAL_ITER) || settings.getBoolean(PrismSettings.PRISM_SOUND_VAL_ITER)) && getCurrentEngine() == PrismEngine.SYMBOLIC) {
+			String method = settings.getBoolean(PrismSettings.PRISM_OPTIMISTIC_VAL_ITER) ? "optimistic" : "sound";
+			mainLog.printWarning("Switching to explicit engine to allow " + method + " value iteration.");
+			engineSwitch = true;
+			lastEngine = getEngine();
+			switchedToExplicitEngine = true;
+			setEngine(Prism.EXPLICIT);
+		}
 		if ((currentModelType == ModelType.IDTMC || currentModelType == ModelType.IMDP) && getCurrentEngine() == PrismEngine.SYMBOLIC) {
 			mainLog.printWarning("Switching to explicit engine to allow model checking of interval model.");
 			engineSwitch = true;
@@ -4121,6 +4245,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		mc.setGenStrat(genStrat);
 		mc.setRestrictStratToReach(restrictStratToReach);
 		mc.setDoBisim(doBisim);
+		mc.setPropertyConstantSweep(propertyConstantSweep);
 
 		return mc;
 	}
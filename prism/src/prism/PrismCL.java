@@ -71,6 +71,7 @@ public class PrismCL implements PrismModelListener
 	private boolean importpepa = false;
 	private boolean importprismpp = false;
 	private boolean importtrans = false;
+	private boolean importbinary = false;
 	private boolean importstates = false;
 	private boolean importlabels = false;
 	private boolean importstaterewards = false;
@@ -87,6 +88,7 @@ public class PrismCL implements PrismModelListener
 	private boolean exportmodelproplabels = false;
 	private boolean exportproplabels = false;
 	private boolean exportspy = false;
+	private boolean exportbinary = false;
 	private boolean exportdot = false;
 	private boolean exporttransdot = false;
 	private boolean exporttransdotstates = false;
@@ -144,6 +146,7 @@ public class PrismCL implements PrismModelListener
 	private String exportStateRewardsFilename = null;
 	private String exportTransRewardsFilename = null;
 	private String exportStatesFilename = null;
+	private String exportBinaryFilename = null;
 	private String exportObservationsFilename = null;
 	private String exportModelLabelsFilename = null;
 	private String exportPropLabelsFilename = null;
@@ -411,6 +414,11 @@ public class PrismCL implements PrismModelListener
 				}
 				// otherwise, treat each case individually
 				else {
+					// let the model checker know about any sweep over property constants,
+					// so that computations shared between iterations can be done at once
+					if (!simulate && !param && undefinedConstants[j].getNumPropertyIterations() > 1) {
+						prism.setPropertyConstantSweep(undefinedConstants[j].getAllPFConstantValues());
+					}
 					for (k = 0; k < undefinedConstants[j].getNumPropertyIterations(); k++) {
 
 						try {
@@ -510,6 +518,7 @@ public class PrismCL implements PrismModelListener
 						// iterate to next property
 						undefinedConstants[j].iterateProperty();
 					}
+					prism.setPropertyConstantSweep(null);
 				}
 
 				// in case of build failure during model checking, store as result for any further properties and continue
@@ -682,6 +691,9 @@ public class PrismCL implements PrismModelListener
 				}
 				mainLog.println("...");
 				prism.loadModelFromExplicitFiles(sf, new File(modelFilename), lf, srf, typeOverride);
+			} else if (importbinary) {
+				mainLog.print("\nImporting binary model file \"" + modelFilename + "\"...\n");
+				prism.loadModelFromBinaryFile(new File(modelFilename));
 			} else {
 				mainLog.print("\nParsing model file \"" + modelFilename + "\"...\n");
 				modulesFile = prism.parseModelFile(new File(modelFilename), typeOverride);
@@ -777,6 +789,7 @@ public class PrismCL implements PrismModelListener
 			    exportstates ||
 			    exportobservations ||
 			    exportspy ||
+			    exportbinary ||
 			    exportdot ||
 			    exporttransdot ||
 			    exporttransdotstates ||
@@ -864,6 +877,17 @@ public class PrismCL implements PrismModelListener
 			}
 		}
 
+		// export model to binary file
+		if (exportbinary) {
+			try {
+				prism.exportToBinaryFile(new File(exportBinaryFilename));
+			}
+			// in case of error, report it and proceed
+			catch (PrismException e) {
+				error(e);
+			}
+		}
+
 		// export to spy file
 		if (exportspy) {
 			try {
@@ -2036,7 +2060,7 @@ public class PrismCL implements PrismModelListener
 		if (filenameArgs.size() > 2) {
 			errorAndExit("Invalid argument syntax");
 		}
-		if (importtrans) {
+		if (importtrans || importbinary) {
 			if (filenameArgs.size() > 1) {
 				errorAndExit("Two models provided (" + filenameArgs.get(0) + ", " + modelFilename + ")");
 			} else if (filenameArgs.size() == 1) {
@@ -2045,7 +2069,8 @@ public class PrismCL implements PrismModelListener
 		} else {
 			if (filenameArgs.size() > 0) {
 				modelFilename = filenameArgs.get(0);
-				if (modelFilename.endsWith(".all")) {
+				// (a .bin file is only imported as a binary model file if it really is one)
+				if (modelFilename.endsWith(".all") || (modelFilename.endsWith(".bin") && explicit.BinaryModelFile.isBinaryModelFile(new File(modelFilename)))) {
 					processImportModelSwitch(modelFilename);
 				}
 			}
@@ -2100,12 +2125,22 @@ public class PrismCL implements PrismModelListener
 				importLabelsFilename = basename + ".lab";
 			} else if (ext.equals("srew")) {
 				getStateRewardsFilenames(basename, true);
+			} else if (ext.equals("bin")) {
+				importbinary = true;
+				modelFilename = basename + ".bin";
 			}
 			// Unknown extension
 			else {
 				throw new PrismException("Unknown extension \"" + ext + "\" for -importmodel switch");
 			}
 		}
+		// A binary model file contains everything, so cannot be combined with other files
+		if (importbinary) {
+			if (exts.length > 1) {
+				throw new PrismException("A binary model file (\"bin\") cannot be imported along with other files when using -importmodel");
+			}
+			return;
+		}
 		// Check at least the transition matrix was imported
 		if (!importtrans) {
 			throw new PrismException("You must import the transition matrix when using -importmodel (use option \"tra\" or \"all\")");
@@ -2258,6 +2293,12 @@ public class PrismCL implements PrismModelListener
 			} else if (ext.equals("dot")) {
 				exporttransdotstates = true;
 				exportTransDotStatesFilename = basename.equals("stdout") ? "stdout" : basename + ".dot";
+			} else if (ext.equals("bin")) {
+				if (basename.equals("stdout")) {
+					throw new PrismException("Binary model files cannot be exported to the screen");
+				}
+				exportbinary = true;
+				exportBinaryFilename = basename + ".bin";
 			}
 			// Unknown extension
 			else {
@@ -2512,6 +2553,15 @@ public class PrismCL implements PrismModelListener
 			}
 		}
 
+		// Krylov methods are only supported by the explicit engine
+		// (if we are in test mode, we ignore here; will lead to appropriate 'not supported' error handling during testing)
+		if (prism.getEngine() != Prism.EXPLICIT && !test) {
+			j = prism.getLinEqMethod();
+			if (j == Prism.BICGSTAB || j == Prism.GMRES || j == Prism.CGS) {
+				errorAndExit("BiCGStab, GMRES and CGS are currently only supported by the explicit engine");
+			}
+		}
+
 		// process info about parametric constants
 		if (param) {
 			String[] paramDefs = paramSwitch.split(",");
@@ -2555,6 +2605,8 @@ public class PrismCL implements PrismModelListener
 				exportModelLabelsFilename = exportModelLabelsFilename.replaceFirst("modelFileBasename", modelFileBasename);
 			if (exporttransdotstates)
 				exportTransDotStatesFilename = exportTransDotStatesFilename.replaceFirst("modelFileBasename", modelFileBasename);
+			if (exportbinary)
+				exportBinaryFilename = exportBinaryFilename.replaceFirst("modelFileBasename", modelFileBasename);
 		}
 	}
 
@@ -2811,6 +2863,10 @@ public class PrismCL implements PrismModelListener
 			mainLog.println("Possible extensions are: .tra, .sta, .lab, .srew");
 			mainLog.println("Use extension .all to import all, e.g.:");
 			mainLog.println("\n -importmodel in.all\n");
+			mainLog.println("Use extension .bin to import a binary model file (see -exportmodel), e.g.:");
+			mainLog.println("\n -importmodel in.bin\n");
+			mainLog.println("A binary MDP is used directly from the file, rather than copied onto the heap,");
+			mainLog.println("if -mappeddir is also specified (or if it is too large for on-heap storage).");
 		}
 		// -importresults
 		else if (sw.equals("importresults")) {
@@ -2851,8 +2907,8 @@ public class PrismCL implements PrismModelListener
 			mainLog.println("Export the built model to file(s) (or to the screen if <file>=\"stdout\").");
 			mainLog.println("Use a list of file extensions to indicate which files should be generated, e.g.:");
 			mainLog.println("\n -exportmodel out.tra,sta\n");
-			mainLog.println("Possible extensions are: .tra, .srew, .trew, .sta, .lab, .obs, .dot");
-			mainLog.println("Use extension .all to export all (except .dot) and .rew to export both .srew/.trew, e.g.:");
+			mainLog.println("Possible extensions are: .tra, .srew, .trew, .sta, .lab, .obs, .dot, .bin");
+			mainLog.println("Use extension .all to export all (except .dot/.bin) and .rew to export both .srew/.trew, e.g.:");
 			mainLog.println("\n -exportmodel out.all\n");
 			mainLog.println("Omit the file basename to use the basename of the model file, e.g.:");
 			mainLog.println("\n -exportmodel .all\n");
@@ -2863,6 +2919,8 @@ public class PrismCL implements PrismModelListener
 			mainLog.println(" * ordered - output states indices in ascending order [default]");
 			mainLog.println(" * unordered - don't output states indices in ascending order");
 			mainLog.println(" * proplabels - export labels from a properties file into the same file, too");
+			mainLog.println("Extension .bin exports the model (with its states, labels and state rewards) as a single");
+			mainLog.println("binary file, which can be imported quickly with -importmodel (explicit engine only).");
 		}
 		// -exportstrat
 		else if (sw.equals("exportstrat")) {
@@ -78,25 +78,34 @@ public class PrismSettings implements Observer
 	//PRISM
 	public static final	String PRISM_ENGINE							= "prism.engine";
 	public static final	String PRISM_HEURISTIC						= "prism.heuristic";
+	public static final	String PRISM_NUM_THREADS					= "prism.numThreads";
+	public static final	String PRISM_MAPPED_MODEL_DIR				= "prism.mappedModelDir";
 	public static final	String PRISM_VERBOSE						= "prism.verbose";
 	public static final	String PRISM_FAIRNESS						= "prism.fairness";
 	public static final	String PRISM_PRECOMPUTATION					= "prism.precomputation";
 	public static final	String PRISM_PROB0							= "prism.prob0";
 	public static final	String PRISM_PROB1							= "prism.prob1";
 	public static final	String PRISM_PRE_REL					= "prism.preRel";
+	public static final	String PRISM_REACH_REDUCTION				= "prism.reachReduction";
 	public static final	String PRISM_FIX_DEADLOCKS					= "prism.fixDeadlocks";
 	public static final	String PRISM_DO_PROB_CHECKS					= "prism.doProbChecks";
 	public static final	String PRISM_SUM_ROUND_OFF					= "prism.sumRoundOff";
 	public static final	String PRISM_COMPACT						= "prism.compact";
 	public static final	String PRISM_LIN_EQ_METHOD					= "prism.linEqMethod";//"prism.iterativeMethod";
 	public static final	String PRISM_LIN_EQ_METHOD_PARAM			= "prism.linEqMethodParam";//"prism.overRelaxation";
+	public static final	String PRISM_LIN_EQ_PRECONDITIONER			= "prism.linEqPreconditioner";
 	public static final String PRISM_TOPOLOGICAL_VI					= "prism.topologicalVI";
+	public static final String PRISM_PARALLEL_GS					= "prism.parallelGS";
 	public static final	String PRISM_PMAX_QUOTIENT					= "prism.pmaxQuotient";
 	public static final	String PRISM_INTERVAL_ITER					= "prism.intervalIter";
 	public static final	String PRISM_INTERVAL_ITER_OPTIONS			= "prism.intervalIterOptions";
+	public static final	String PRISM_OPTIMISTIC_VAL_ITER			= "prism.optimisticValIter";
+	public static final	String PRISM_SOUND_VAL_ITER					= "prism.soundValIter";
 	public static final	String PRISM_MDP_SOLN_METHOD				= "prism.mdpSolnMethod";
 	public static final	String PRISM_MDP_MULTI_SOLN_METHOD			= "prism.mdpMultiSolnMethod";
 	public static final	String PRISM_IMDP_SOLN_METHOD				= "prism.imdpSolnMethod";
+	public static final	String PRISM_POL_ITER_SOLVER				= "prism.polIterSolver";
+	public static final	String PRISM_POL_ITER_TERM_CRIT_PARAM		= "prism.polIterTermCritParam";
 	public static final	String PRISM_TERM_CRIT						= "prism.termCrit";//"prism.termination";
 	public static final	String PRISM_TERM_CRIT_PARAM				= "prism.termCritParam";//"prism.terminationEpsilon";
 	public static final	String PRISM_MAX_ITERS						= "prism.maxIters";//"prism.maxIterations";
@@ -114,9 +123,13 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_NUM_SOR_LEVELS					= "prism.numSORLevels";//"prism.hybridSORLevels";
 	public static final	String PRISM_SOR_MAX_MEM					= "prism.SORMaxMem";//"prism.hybridSORMaxMemory";
 	public static final	String PRISM_DO_SS_DETECTION				= "prism.doSSDetect";
+	public static final	String PRISM_SS_DETECT_SOLVE				= "prism.ssDetectSolve";
+	public static final	String PRISM_UNIF_MIXED_PRECISION			= "prism.unifMixedPrecision";
 	public static final	String PRISM_EXTRA_DD_INFO					= "prism.extraDDInfo";
 	public static final	String PRISM_EXTRA_REACH_INFO				= "prism.extraReachInfo";
 	public static final String PRISM_SCC_METHOD						= "prism.sccMethod";
+	public static final String PRISM_MEC_METHOD						= "prism.mecMethod";
+	public static final String PRISM_STATE_ORDER					= "prism.stateOrder";
 	public static final String PRISM_SYMM_RED_PARAMS					= "prism.symmRedParams";
 	public static final	String PRISM_EXACT_ENABLED					= "prism.exact.enabled";
 	public static final String PRISM_PTA_METHOD					= "prism.ptaMethod";
@@ -245,32 +258,48 @@ public class PrismSettings implements Observer
 																			"Which engine (hybrid, sparse, MTBDD, explicit) should be used for model checking." },
 			{ CHOICE_TYPE,		PRISM_HEURISTIC,						"Heuristic mode",							"4.5",			"None",																		"None,Speed,Memory",																		
 																			"Which heuristic mode to use for picking engines/settings (none, speed, memory)." },
+			{ INTEGER_TYPE,		PRISM_NUM_THREADS,						"Number of threads",						"4.8.1",		Integer.valueOf(1),																	"1,",
+																			"Number of threads to use for parallelised computations in the explicit engine (e.g. model construction, value iteration)." },
+			{ STRING_TYPE,		PRISM_MAPPED_MODEL_DIR,					"Mapped model directory",					"4.8.1",		"",																			"",
+																			"Directory in which to store (large) explicit-engine MDPs off-heap, as memory-mapped files. If empty, models are stored on the Java heap." },
 			{ BOOLEAN_TYPE,		PRISM_EXACT_ENABLED,					"Do exact model checking",			"4.2.1",			Boolean.valueOf(false),															"",
 																			"Perform exact model checking." },
 																			
 			{ CHOICE_TYPE,		PRISM_PTA_METHOD,						"PTA model checking method",			"3.3",			"Stochastic games",																	"Digital clocks,Stochastic games,Backwards reachability",																
 																			"Which method to use for model checking of PTAs." },
-			{ CHOICE_TYPE,		PRISM_TRANSIENT_METHOD,					"Transient probability computation method",	"3.3",		"Uniformisation",															"Uniformisation,Fast adaptive uniformisation",																
-																			"Which method to use for computing transient probabilities in CTMCs." },
+			{ CHOICE_TYPE,		PRISM_TRANSIENT_METHOD,					"Transient probability computation method",	"3.3",		"Uniformisation",															"Uniformisation,Fast adaptive uniformisation,Krylov",																
+																			"Which method to use for computing transient probabilities in CTMCs. Krylov (Krylov subspace approximation of the matrix exponential) is for the explicit engine only; other engines use uniformisation instead." },
 			// NUMERICAL SOLUTION OPTIONS:
-			{ CHOICE_TYPE,		PRISM_LIN_EQ_METHOD,					"Linear equations method",				"2.1",			"Jacobi",																	"Power,Jacobi,Gauss-Seidel,Backwards Gauss-Seidel,Pseudo-Gauss-Seidel,Backwards Pseudo-Gauss-Seidel,JOR,SOR,Backwards SOR,Pseudo-SOR,Backwards Pseudo-SOR",
+			{ CHOICE_TYPE,		PRISM_LIN_EQ_METHOD,					"Linear equations method",				"2.1",			"Jacobi",																	"Power,Jacobi,Gauss-Seidel,Backwards Gauss-Seidel,Pseudo-Gauss-Seidel,Backwards Pseudo-Gauss-Seidel,JOR,SOR,Backwards SOR,Pseudo-SOR,Backwards Pseudo-SOR,BiCGStab,GMRES,CGS",
 																			"Which iterative method to use when solving linear equation systems." },
 			{ DOUBLE_TYPE,		PRISM_LIN_EQ_METHOD_PARAM,				"Over-relaxation parameter",			"2.1",			Double.valueOf(0.9),															"",																							
 																			"Over-relaxation parameter for iterative numerical methods such as JOR/SOR." },
+			{ CHOICE_TYPE,		PRISM_LIN_EQ_PRECONDITIONER,			"Krylov preconditioner",				"4.8.1",			"ILU(0)",																	"None,Jacobi,ILU(0)",
+																			"Preconditioner for Krylov subspace methods (BiCGStab, GMRES, CGS) when solving linear equation systems (explicit engine only)." },
 			{ BOOLEAN_TYPE,		PRISM_TOPOLOGICAL_VI,				"Use topological value iteration",				"4.3.1",		false,																		"",
 																			"Use topological value iteration in iterative numerical methods."},
+			{ BOOLEAN_TYPE,		PRISM_PARALLEL_GS,				"Use parallel Gauss-Seidel",				"4.8.1",		false,																		"",
+																			"Use multi-colour Gauss-Seidel, which updates the states of each colour class in parallel (explicit engine only, if the number of threads is greater than 1)."},
 			{ BOOLEAN_TYPE,		PRISM_PMAX_QUOTIENT,				"For Pmax computations, compute in the MEC quotient",				"4.3.1",		false,																		"",
 																				"For Pmax computations, compute in the MEC quotient."},
 			{ BOOLEAN_TYPE,		PRISM_INTERVAL_ITER,				"Use interval iteration",				"4.3.1",		false,																		"",
 																				"Use interval iteration (from above and below) in iterative numerical methods."},
 			{ STRING_TYPE,		PRISM_INTERVAL_ITER_OPTIONS,				"Interval iteration options",				"4.3.1",		"",																		"",
 																	"Interval iteration options, a comma-separated list of the following:\n" + OptionsIntervalIteration.getOptionsDescription() },
+			{ BOOLEAN_TYPE,		PRISM_OPTIMISTIC_VAL_ITER,				"Use optimistic value iteration",				"4.8.1",		false,																		"",
+																				"Use optimistic value iteration (guessing and verifying an upper bound) in iterative numerical methods (explicit engine only)."},
+			{ BOOLEAN_TYPE,		PRISM_SOUND_VAL_ITER,				"Use sound value iteration",				"4.8.1",		false,																		"",
+																				"Use sound value iteration (with bounds from step-bounded reachability) in iterative numerical methods (explicit engine only)."},
 			{ CHOICE_TYPE,		PRISM_MDP_SOLN_METHOD,					"MDP solution method",				"4.0",			"Value iteration",																"Value iteration,Gauss-Seidel,Policy iteration,Modified policy iteration,Linear programming",
 																			"Which method to use when solving Markov decision processes." },
 			{ CHOICE_TYPE,		PRISM_MDP_MULTI_SOLN_METHOD,			"MDP multi-objective solution method",				"4.0.3",			"Value iteration",											"Value iteration,Gauss-Seidel,Linear programming",
 																			"Which method to use when solving multi-objective queries on Markov decision processes." },
 			{ CHOICE_TYPE,		PRISM_IMDP_SOLN_METHOD,					"IMDP/DTMC solution method",				"4.7",			"Gauss-Seidel",																"Value iteration,Gauss-Seidel",
 																			"Which method to use when solving interval Markov decision processes and Markov chains." },
+			{ CHOICE_TYPE,		PRISM_POL_ITER_SOLVER,					"Policy evaluation method",				"4.8.1",			"Gauss-Seidel",																"Gauss-Seidel,Jacobi,BiCGStab,GMRES,CGS",
+																			"Which linear equation solution method to use for policy evaluation in policy iteration (explicit engine only)." },
+			{ DOUBLE_TYPE,		PRISM_POL_ITER_TERM_CRIT_PARAM,			"Policy evaluation epsilon",			"4.8.1",			Double.valueOf(1.0E-8),															"0.0,",
+																			"Epsilon value to use for checking termination of policy evaluation in policy iteration (explicit engine only)." },
 			{ CHOICE_TYPE,		PRISM_TERM_CRIT,						"Termination criteria",					"2.1",			"Relative",																	"Absolute,Relative",																		
 																			"Criteria to use for checking termination of iterative numerical methods." },
 			{ DOUBLE_TYPE,		PRISM_TERM_CRIT_PARAM,					"Termination epsilon",					"2.1",			Double.valueOf(1.0E-6),															"0.0,",																						
@@ -294,6 +323,8 @@ public class PrismSettings implements Observer
 																			"Whether to use model checking precomputation algorithm Prob1 (if precomputation enabled)." },
 			{ BOOLEAN_TYPE,		PRISM_PRE_REL,							"Use predecessor relation",		"4.2.1",		Boolean.valueOf(true),											"",
 																			"Whether to use a pre-computed predecessor relation in several algorithms." },
+			{ BOOLEAN_TYPE,		PRISM_REACH_REDUCTION,					"Use reachability model reduction",		"4.8.1",		Boolean.valueOf(true),											"",
+																			"Whether to reduce the model to the states relevant for a reachability property (collapsing probability 0/1 states and removing unreachable states) before numerical solution, where worthwhile (explicit engine)." },
 			{ BOOLEAN_TYPE,		PRISM_FAIRNESS,							"Use fairness",							"2.1",			Boolean.valueOf(false),															"",																							
 																			"Constrain to fair adversaries when model checking MDPs." },
 			{ BOOLEAN_TYPE,		PRISM_FIX_DEADLOCKS,					"Automatically fix deadlocks",			"4.0.3",		Boolean.valueOf(true),															"",																							
@@ -304,8 +335,16 @@ public class PrismSettings implements Observer
 																			"Round-off threshold for places where doubles are summed and compared to integers (e.g. checking that probabilities sum to 1 in an update)." },							
 			{ BOOLEAN_TYPE,		PRISM_DO_SS_DETECTION,					"Use steady-state detection",			"2.1",			Boolean.valueOf(true),															"0,",																						
 																			"Use steady-state detection during CTMC transient probability computation." },
-			{ CHOICE_TYPE,		PRISM_SCC_METHOD,						"SCC decomposition method",				"3.2",			"Lockstep",																	"Xie-Beerel,Lockstep,SCC-Find",																
-																			"Which algorithm to use for (symbolic) decomposition of a graph into strongly connected components (SCCs)." },
+			{ BOOLEAN_TYPE,		PRISM_SS_DETECT_SOLVE,					"Steady-state solve on detection",			"4.8.1",		Boolean.valueOf(false),															"",
+																			"When steady-state detection (explicit engine) finds that the uniformisation iteration vector has converged, compute the remainder of the transient sum from a direct steady-state solution." },
+			{ BOOLEAN_TYPE,		PRISM_UNIF_MIXED_PRECISION,				"Mixed-precision uniformisation",			"4.8.1",		Boolean.valueOf(false),															"",
+																			"Store the (off-diagonal) entries of the uniformised matrix in single precision for CTMC transient computations (explicit engine), with vectors and sums kept in double precision. This reduces the memory needed for the matrix by a third, at the cost of some accuracy." },
+			{ CHOICE_TYPE,		PRISM_SCC_METHOD,						"SCC decomposition method",				"3.2",			"Lockstep",																	"Xie-Beerel,Lockstep,SCC-Find,Tarjan,Tarjan-recursive,Forward-backward",																
+																			"Which algorithm to use for decomposition of a graph into strongly connected components (SCCs). Xie-Beerel, Lockstep and SCC-Find are for the symbolic engines (Lockstep is used if another method is selected), Tarjan (iterative), Tarjan-recursive and Forward-backward (parallel, using the specified number of threads) for the explicit engine (Tarjan is used if another method is selected)." },
+			{ CHOICE_TYPE,		PRISM_MEC_METHOD,						"MEC decomposition method",				"4.8.1",		"Incremental",																	"Incremental,Submodel",																
+																			"Which algorithm to use for decomposition of a (nondeterministic) model into maximal end components (MECs) in the explicit engine. Incremental refines the SCCs in place, on an array-based copy of the model; Submodel builds a new submodel for each refinement step." },
+			{ CHOICE_TYPE,		PRISM_STATE_ORDER,						"State reordering",						"4.8.1",		"None",																		"None,BFS,RCM,SCC",
+																			"How to reorder the states of a model before model checking in the explicit engine (results are mapped back to the original order): None, breadth-first search from the initial states (BFS), reverse Cuthill-McKee, to reduce bandwidth (RCM) or SCCs in reverse topological order (SCC)." },
 			{ STRING_TYPE,		PRISM_SYMM_RED_PARAMS,					"Symmetry reduction parameters",		"3.2",			"",																	"",																
 																			"Parameters for symmetry reduction (format: \"i j\" where i and j are the number of modules before and after the symmetric ones; empty string means symmetry reduction disabled)." },
 			{ STRING_TYPE,		PRISM_AR_OPTIONS,						"Abstraction refinement options",		"3.3",			"",																	"",																
@@ -1045,8 +1084,10 @@ public class PrismSettings implements Observer
 					set(PRISM_TRANSIENT_METHOD, "Uniformisation");
 				else if (s.equals("fau"))
 					set(PRISM_TRANSIENT_METHOD, "Fast adaptive uniformisation");
+				else if (s.equals("krylov"))
+					set(PRISM_TRANSIENT_METHOD, "Krylov");
 				else
-					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: unif, fau)");
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: unif, fau, krylov)");
 			} else {
 				throw new PrismException("No parameter specified for -" + sw + " switch");
 			}
@@ -1067,6 +1108,29 @@ public class PrismSettings implements Observer
 				throw new PrismException("No parameter specified for -" + sw + " switch");
 			}
 		}
+		// Number of threads
+		else if (sw.equals("threads")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 1)
+						throw new NumberFormatException("");
+					set(PRISM_NUM_THREADS, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		// Off-heap (memory-mapped) model storage
+		else if (sw.equals("mappeddir")) {
+			if (i < args.length - 1) {
+				set(PRISM_MAPPED_MODEL_DIR, args[++i]);
+			} else {
+				throw new PrismException("No directory specified for -" + sw + " switch");
+			}
+		}
 
 		// NUMERICAL SOLUTION OPTIONS:
 		
@@ -1096,6 +1160,12 @@ public class PrismSettings implements Observer
 			set(PRISM_LIN_EQ_METHOD, "Pseudo-SOR");
 		} else if (sw.equals("bpsor")) {
 			set(PRISM_LIN_EQ_METHOD, "Backwards Pseudo-SOR");
+		} else if (sw.equals("bicgstab")) {
+			set(PRISM_LIN_EQ_METHOD, "BiCGStab");
+		} else if (sw.equals("gmres")) {
+			set(PRISM_LIN_EQ_METHOD, "GMRES");
+		} else if (sw.equals("cgs")) {
+			set(PRISM_LIN_EQ_METHOD, "CGS");
 		} else if (sw.equals("valiter")) {
 			set(PRISM_MDP_SOLN_METHOD, "Value iteration");
 			set(PRISM_MDP_MULTI_SOLN_METHOD, "Value iteration");
@@ -1108,6 +1178,40 @@ public class PrismSettings implements Observer
 			set(PRISM_MDP_SOLN_METHOD, "Linear programming");
 			set(PRISM_MDP_MULTI_SOLN_METHOD, "Linear programming");
 		}
+		// Policy evaluation (for policy iteration)
+		else if (sw.equals("politersolver")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("gs"))
+					set(PRISM_POL_ITER_SOLVER, "Gauss-Seidel");
+				else if (s.equals("jacobi"))
+					set(PRISM_POL_ITER_SOLVER, "Jacobi");
+				else if (s.equals("bicgstab"))
+					set(PRISM_POL_ITER_SOLVER, "BiCGStab");
+				else if (s.equals("gmres"))
+					set(PRISM_POL_ITER_SOLVER, "GMRES");
+				else if (s.equals("cgs"))
+					set(PRISM_POL_ITER_SOLVER, "CGS");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: gs, jacobi, bicgstab, gmres, cgs)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
+		else if (sw.equals("politerepsilon")) {
+			if (i < args.length - 1) {
+				try {
+					d = Double.parseDouble(args[++i]);
+					if (d < 0)
+						throw new NumberFormatException("");
+					set(PRISM_POL_ITER_TERM_CRIT_PARAM, d);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
 
 		// Interval iterations
 		else if (sw.equals("intervaliter") ||
@@ -1132,6 +1236,14 @@ public class PrismSettings implements Observer
 			}
 		}
 
+		// Optimistic/sound value iteration
+		else if (sw.equals("optimisticvi") || sw.equals("ovi")) {
+			set(PRISM_OPTIMISTIC_VAL_ITER, true);
+		}
+		else if (sw.equals("soundvi") || sw.equals("svi")) {
+			set(PRISM_SOUND_VAL_ITER, true);
+		}
+
 		// Pmax quotient
 		else if (sw.equals("pmaxquotient")) {
 			set(PRISM_PMAX_QUOTIENT, true);
@@ -1142,6 +1254,11 @@ public class PrismSettings implements Observer
 			set(PRISM_TOPOLOGICAL_VI, true);
 		}
 
+		// Parallel (multi-colour) Gauss-Seidel
+		else if (sw.equals("parallelgs")) {
+			set(PRISM_PARALLEL_GS, true);
+		}
+
 		// Linear equation solver over-relaxation parameter
 		else if (sw.equals("omega")) {
 			if (i < args.length - 1) {
@@ -1155,6 +1272,22 @@ public class PrismSettings implements Observer
 				throw new PrismException("No value specified for -" + sw + " switch");
 			}
 		}
+		// Preconditioner (Krylov methods)
+		else if (sw.equals("precond")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("none"))
+					set(PRISM_LIN_EQ_PRECONDITIONER, "None");
+				else if (s.equals("jacobi"))
+					set(PRISM_LIN_EQ_PRECONDITIONER, "Jacobi");
+				else if (s.equals("ilu0"))
+					set(PRISM_LIN_EQ_PRECONDITIONER, "ILU(0)");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: none, jacobi, ilu0)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
 		// Termination criterion (iterative methods)
 		else if (sw.equals("relative") || sw.equals("rel")) {
 			set(PRISM_TERM_CRIT, "Relative");
@@ -1247,6 +1380,10 @@ public class PrismSettings implements Observer
 		else if (sw.equals("noprerel")) {
 			set(PRISM_PRE_REL, false);
 		}
+		// Reduce model before numerical solution of reachability?
+		else if (sw.equals("noreachreduction")) {
+			set(PRISM_REACH_REDUCTION, false);
+		}
 		// Fix deadlocks on/off
 		else if (sw.equals("fixdl")) {
 			set(PRISM_FIX_DEADLOCKS, true);
@@ -1284,6 +1421,14 @@ public class PrismSettings implements Observer
 		else if (sw.equals("nossdetect")) {
 			set(PRISM_DO_SS_DETECTION, false);
 		}
+		// Direct steady-state solution on steady-state detection
+		else if (sw.equals("ssdetectsolve")) {
+			set(PRISM_SS_DETECT_SOLVE, true);
+		}
+		// Mixed-precision uniformisation
+		else if (sw.equals("unifmixedprecision")) {
+			set(PRISM_UNIF_MIXED_PRECISION, true);
+		}
 		// SCC computation algorithm
 		else if (sw.equals("sccmethod") || sw.equals("bsccmethod")) {
 			if (i < args.length - 1) {
@@ -1294,8 +1439,46 @@ public class PrismSettings implements Observer
 					set(PRISM_SCC_METHOD, "Lockstep");
 				else if (s.equals("sccfind"))
 					set(PRISM_SCC_METHOD, "SCC-Find");
+				else if (s.equals("tarjan"))
+					set(PRISM_SCC_METHOD, "Tarjan");
+				else if (s.equals("tarjanrec"))
+					set(PRISM_SCC_METHOD, "Tarjan-recursive");
+				else if (s.equals("fb"))
+					set(PRISM_SCC_METHOD, "Forward-backward");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: xiebeerel, lockstep, sccfind, tarjan, tarjanrec, fb)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
+		// State reordering (explicit engine)
+		else if (sw.equals("stateorder")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("none"))
+					set(PRISM_STATE_ORDER, "None");
+				else if (s.equals("bfs"))
+					set(PRISM_STATE_ORDER, "BFS");
+				else if (s.equals("rcm"))
+					set(PRISM_STATE_ORDER, "RCM");
+				else if (s.equals("scc"))
+					set(PRISM_STATE_ORDER, "SCC");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: none, bfs, rcm, scc)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
+		// MEC computation algorithm
+		else if (sw.equals("mecmethod")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("incremental"))
+					set(PRISM_MEC_METHOD, "Incremental");
+				else if (s.equals("submodel"))
+					set(PRISM_MEC_METHOD, "Submodel");
 				else
-					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: xiebeerel, lockstep, sccfind)");
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: incremental, submodel)");
 			} else {
 				throw new PrismException("No parameter specified for -" + sw + " switch");
 			}
@@ -1841,8 +2024,10 @@ public class PrismSettings implements Observer
 		mainLog.println("-explicit (or -ex) ............. Use the explicit engine");
 		mainLog.println("-exact ......................... Perform exact (arbitrary precision) model checking");
 		mainLog.println("-ptamethod <name> .............. Specify PTA engine (games, digital, backwards) [default: games]");
-		mainLog.println("-transientmethod <name> ........ CTMC transient analysis methof (unif, fau) [default: unif]");
+		mainLog.println("-transientmethod <name> ........ CTMC transient analysis methof (unif, fau, krylov) [default: unif]");
 		mainLog.println("-heuristic <mode> .............. Automatic choice of engines/settings (none, speed, memory) [default: none]");
+		mainLog.println("-threads <n> ................... Number of threads for parallel computations (explicit engine) [default: 1]");
+		mainLog.println("-mappeddir <dir> ............... Build/store explicit-engine MDP transitions off-heap, in memory-mapped files in <dir>");
 		mainLog.println();
 		mainLog.println("SOLUTION METHODS (LINEAR EQUATIONS):");
 		mainLog.println("-power (or -pow, -pwr) ......... Use the Power method for numerical computation");
@@ -1856,15 +2041,24 @@ public class PrismSettings implements Observer
 		mainLog.println("-bsor .......................... Use Backwards SOR for numerical computation");
 		mainLog.println("-psor .......................... Use Pseudo SOR for numerical computation");
 		mainLog.println("-bpsor ......................... Use Backwards Pseudo SOR for numerical computation");
+		mainLog.println("-bicgstab ...................... Use BiCGStab for numerical computation (explicit engine only)");
+		mainLog.println("-gmres ......................... Use GMRES for numerical computation (explicit engine only)");
+		mainLog.println("-cgs ........................... Use CGS for numerical computation (explicit engine only)");
 		mainLog.println("-omega <x> ..................... Set over-relaxation parameter (for JOR/SOR/...) [default: 0.9]");
+		mainLog.println("-precond <name> ................ Preconditioner for BiCGStab/GMRES/CGS (none, jacobi, ilu0) [default: ilu0]");
 		mainLog.println();
 		mainLog.println("SOLUTION METHODS (MDPS):");
 		mainLog.println("-valiter ....................... Use value iteration for solving MDPs [default]");
 		mainLog.println("-gaussseidel (or -gs) .......... Use Gauss-Seidel value iteration for solving MDPs");
 		mainLog.println("-politer ....................... Use policy iteration for solving MDPs");
 		mainLog.println("-modpoliter .................... Use modified policy iteration for solving MDPs");
+		mainLog.println("-politersolver <name> .......... Policy evaluation method for policy iteration (gs, jacobi, bicgstab, gmres, cgs)");
+		mainLog.println("-politerepsilon <x> ............ Epsilon for policy evaluation in policy iteration [default: 1e-8]");
 		mainLog.println("-intervaliter (or -ii) ......... Use interval iteration to solve MDPs/MCs (see -help -ii)");
+		mainLog.println("-optimisticvi (or -ovi) ........ Use optimistic value iteration to solve MDPs/MCs");
+		mainLog.println("-soundvi (or -svi) ............. Use sound value iteration to solve MDPs/MCs");
 		mainLog.println("-topological ................... Use topological value iteration");
+		mainLog.println("-parallelgs .................... Use multi-colour Gauss-Seidel, in parallel with -threads (explicit engine only)");
 		mainLog.println();
 		mainLog.println("SOLUTION METHOD SETTINGS");
 		mainLog.println("-relative (or -rel) ............ Use relative error for detecting convergence [default]");
@@ -1879,6 +2073,7 @@ public class PrismSettings implements Observer
 		mainLog.println("-noprob0 ....................... Skip precomputation algorithm Prob0 (where optional)");
 		mainLog.println("-noprob1 ....................... Skip precomputation algorithm Prob1 (where optional)");
 		mainLog.println("-noprerel ...................... Do not pre-compute/use predecessor relation, e.g. for precomputation");
+		mainLog.println("-noreachreduction .............. Do not reduce the model to the relevant states before solving reachability (explicit engine)");
 		mainLog.println("-fair .......................... Use fairness (for model checking of MDPs)");
 		mainLog.println("-nofair ........................ Don't use fairness (for model checking of MDPs) [default]");
 		mainLog.println("-fixdl ......................... Automatically put self-loops in deadlock states [default]");
@@ -1887,7 +2082,11 @@ public class PrismSettings implements Observer
 		mainLog.println("-sumroundoff <x> ............... Set probability sum threshold [default: 1-e5]");
 		mainLog.println("-zerorewardcheck ............... Check for absence of zero-reward loops");
 		mainLog.println("-nossdetect .................... Disable steady-state detection for CTMC transient computations");
-		mainLog.println("-sccmethod <name> .............. Specify (symbolic) SCC computation method (xiebeerel, lockstep, sccfind)");
+		mainLog.println("-ssdetectsolve ................. Switch to a direct steady-state solution on steady-state detection (explicit engine only)");
+		mainLog.println("-unifmixedprecision ............ Store uniformised matrices in single precision for CTMC transient computations (explicit engine only)");
+		mainLog.println("-sccmethod <name> .............. Specify SCC computation method (symbolic: xiebeerel, lockstep, sccfind; explicit: tarjan, tarjanrec, fb)");
+		mainLog.println("-mecmethod <name> .............. Specify MEC computation method for explicit engine (incremental, submodel)");
+		mainLog.println("-stateorder <name> ............. Reorder states before model checking with explicit engine (none, bfs, rcm, scc)");
 		mainLog.println("-symm <string> ................. Symmetry reduction options string");
 		mainLog.println("-aroptions <string> ............ Abstraction-refinement engine options string");
 		mainLog.println("-pathviaautomata ............... Handle all path formulas via automata constructions");
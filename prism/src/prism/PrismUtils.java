@@ -270,6 +270,22 @@ public class PrismUtils
 		return (Math.abs(d1 - d2) / d1);
 	}
 
+	/**
+	 * Measure supremum norm, either absolute or relative,
+	 * for all the entries given by the {@code indizes} iterator.
+	 */
+	public static double measureSupNorm(double[] d1, double[] d2, boolean abs, PrimitiveIterator.OfInt indizes)
+	{
+		double value = 0;
+		while (indizes.hasNext()) {
+			int i = indizes.nextInt();
+			double diff = abs ? measureSupNormAbs(d1[i], d2[i]) : measureSupNormRel(d1[i], d2[i]);
+			if (diff > value)
+				value = diff;
+		}
+		return value;
+	}
+
 	/**
 	 * Measure supremum norm, for all the entries given by the {@code indizes}
 	 * iterator, for an interval iteration.
@@ -379,6 +395,24 @@ public class PrismUtils
 		}
 	}
 
+	/**
+	 * Ensure monotonicity from below for interval iteration solution vectors,
+	 * only for the indices provided by the iterator (see {@link #ensureMonotonicityFromBelow(double[], double[])}).
+	 * @param old_values old solution vector
+	 * @param new_values new solution vector
+	 * @param indices the indices
+	 */
+	public static void ensureMonotonicityFromBelow(double[] old_values, double[] new_values, PrimitiveIterator.OfInt indices)
+	{
+		while (indices.hasNext()) {
+			int i = indices.nextInt();
+			// from below: do max
+			if (old_values[i] > new_values[i]) {
+				new_values[i] = old_values[i];
+			}
+		}
+	}
+
 	/**
 	 * Ensure monotonicity from above for interval iteration solution vectors.
 	 * Compares the old and new values and overwrites the new value with the old
@@ -400,6 +434,24 @@ public class PrismUtils
 		}
 	}
 
+	/**
+	 * Ensure monotonicity from above for interval iteration solution vectors,
+	 * only for the indices provided by the iterator (see {@link #ensureMonotonicityFromAbove(double[], double[])}).
+	 * @param old_values old solution vector
+	 * @param new_values new solution vector
+	 * @param indices the indices
+	 */
+	public static void ensureMonotonicityFromAbove(double[] old_values, double[] new_values, PrimitiveIterator.OfInt indices)
+	{
+		while (indices.hasNext()) {
+			int i = indices.nextInt();
+			// from above: do min
+			if (old_values[i] < new_values[i]) {
+				new_values[i] = old_values[i];
+			}
+		}
+	}
+
 	/**
 	 * Check for monotonicity: If the new_values are not element-wise less-than-equal the older values
 	 * (for from_above == true), then throws an exception. If from_above == false, the logic is reversed,
@@ -424,6 +476,29 @@ public class PrismUtils
 		}
 	}
 
+	/**
+	 * Check for monotonicity, only for the indices provided by the iterator
+	 * (see {@link #checkMonotonicity(double[], double[], boolean)}).
+	 * @param old_values the old values
+	 * @param new_values the new values
+	 * @param from_above the direction
+	 * @param indices the indices
+	 */
+	public static void checkMonotonicity(double[] old_values, double[] new_values, boolean from_above, PrimitiveIterator.OfInt indices) throws PrismException
+	{
+		while (indices.hasNext()) {
+			int i = indices.nextInt();
+			double old_value = old_values[i];
+			double new_value = new_values[i];
+			if (from_above && old_value < new_value) {
+				throw new PrismException("Monotonicity violated (from above): old value " + old_value + " < new value " + new_value);
+			}
+			if (!from_above && old_value > new_value) {
+				throw new PrismException("Monotonicity violated (from below): old value " + old_value + " > new value " + new_value);
+			}
+		}
+	}
+
 	/**
 	 * Select midpoint from two interval iteration solution vectors.
 	 * Stores the result in soln_below.
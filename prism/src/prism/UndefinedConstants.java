@@ -843,6 +843,32 @@ public class UndefinedConstants
 		return pfValues;
 	}
 
+	/**
+	 * Get the values of the property constants for all iterations over them,
+	 * in the order in which they are stepped through by {@link #iterateProperty()}.
+	 */
+	public List<Values> getAllPFConstantValues()
+	{
+		int numIters = getNumPropertyIterations();
+		List<Values> res = new ArrayList<>(numIters);
+		int index[] = new int[pfNumConsts];
+		for (int k = 0; k < numIters; k++) {
+			Values vals = new Values();
+			for (int i = 0; i < pfNumConsts; i++) {
+				vals.addValue(pfConsts.get(i).getName(), pfConsts.get(i).getValue(index[i]));
+			}
+			res.add(vals);
+			// step to next iteration (last constant varies fastest)
+			for (int i = pfNumConsts - 1; i >= 0; i--) {
+				if (++index[i] < pfConsts.get(i).getNumSteps()) {
+					break;
+				}
+				index[i] = 0;
+			}
+		}
+		return res;
+	}
+
 	/**
 	 * Get the values for non-ranging model constants, i.e. each constant that has range 1.
 	 */
@@ -208,6 +208,29 @@ public class ModulesFileModelGenerator<Value> implements ModelGenerator<Value>,
 		ec.setEvaluationMode(eval.evalMode());
 	}
 	
+	/**
+	 * Copy constructor, used by {@link #createExplorationCopy()}.
+	 * The parent, evaluators, constant values and original modules file are shared with {@code other}.
+	 * If constants have already been provided, the copy re-initialises itself, which gives it
+	 * its own constant-resolved copy of the modules file, updater and transition list,
+	 * so it can then be used concurrently with {@code other}.
+	 */
+	private ModulesFileModelGenerator(ModulesFileModelGenerator<Value> other) throws PrismException
+	{
+		parent = other.parent;
+		eval = other.eval;
+		evalInt = other.evalInt;
+		originalModulesFile = other.originalModulesFile;
+		modulesFile = other.modulesFile;
+		modelType = other.modelType;
+		mfConstants = other.mfConstants;
+		if (mfConstants != null) {
+			initialise();
+		}
+		ec = new EvaluateContextState(mfConstants, new State(modulesFile.getNumVars()));
+		ec.setEvaluationMode(eval.evalMode());
+	}
+	
 	/**
 	 * (Re-)Initialise the class ready for model exploration
 	 * (can only be done once any constants needed have been provided)
@@ -445,6 +468,12 @@ public class ModulesFileModelGenerator<Value> implements ModelGenerator<Value>,
 		transitionListBuilt = false;
 	}
 	
+	@Override
+	public ModelGenerator<Value> createExplorationCopy() throws PrismException
+	{
+		return new ModulesFileModelGenerator<>(this);
+	}
+	
 	@Override
 	public int getNumChoices() throws PrismException
 	{
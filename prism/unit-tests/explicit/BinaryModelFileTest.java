@@ -0,0 +1,317 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import parser.State;
+import prism.Evaluator;
+import prism.ModelType;
+import prism.PrismException;
+import prism.RewardGenerator;
+
+public class BinaryModelFileTest
+{
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * States for a 4-state model with variables x (int) and b (bool).
+	 */
+	private static List<State> buildStatesList()
+	{
+		List<State> statesList = new ArrayList<>();
+		for (int s = 0; s < 4; s++) {
+			State state = new State(2);
+			state.setValue(0, s - 1);
+			state.setValue(1, s % 2 == 0);
+			statesList.add(state);
+		}
+		return statesList;
+	}
+
+	private static DTMCSimple<Double> buildDTMC()
+	{
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(4);
+		dtmc.addInitialState(0);
+		dtmc.setProbability(0, 1, 0.5);
+		dtmc.setProbability(0, 2, 0.5);
+		dtmc.setProbability(1, 3, 1.0);
+		dtmc.setProbability(2, 2, 0.25);
+		dtmc.setProbability(2, 3, 0.75);
+		dtmc.setProbability(3, 3, 1.0);
+		dtmc.setStatesList(buildStatesList());
+		return dtmc;
+	}
+
+	private static MDPSimple<Double> buildMDP()
+	{
+		MDPSimple<Double> mdp = new MDPSimple<>(4);
+		mdp.addInitialState(0);
+		mdp.addInitialState(1);
+		Distribution<Double> distr = Distribution.ofDouble();
+		distr.add(0, 0.5);
+		distr.add(1, 0.5);
+		mdp.addActionLabelledChoice(0, distr, "a");
+		distr = Distribution.ofDouble();
+		distr.add(2, 0.3);
+		distr.add(3, 0.7);
+		mdp.addChoice(0, distr);
+		distr = Distribution.ofDouble();
+		distr.add(2, 1.0);
+		mdp.addActionLabelledChoice(1, distr, "b");
+		distr = Distribution.ofDouble();
+		distr.add(2, 1.0);
+		mdp.addActionLabelledChoice(2, distr, "a");
+		mdp.addDeadlockState(3);
+		mdp.setStatesList(buildStatesList());
+		return mdp;
+	}
+
+	private File write(Model<?> model) throws PrismException
+	{
+		File file = tempDir.resolve("model.bin").toFile();
+		Map<String, BitSet> labels = new LinkedHashMap<>();
+		BitSet target = new BitSet();
+		target.set(3);
+		labels.put("target", target);
+		labels.put("empty", new BitSet());
+		Map<String, double[]> stateRewards = new LinkedHashMap<>();
+		stateRewards.put("r1", new double[] { 1.0, 0.0, 2.5, 0.0 });
+		stateRewards.put("", new double[] { 0.0, 0.0, 0.0, 1.0 });
+		BinaryModelFile.write(model, Arrays.asList("x", "b"), labels, stateRewards, file);
+		return file;
+	}
+
+	private static void checkCommon(Model<?> model, Model<?> imported, BinaryModelFile binary) throws PrismException
+	{
+		assertEquals(model.getModelType(), imported.getModelType());
+		assertEquals(model.getNumStates(), imported.getNumStates());
+		assertEquals(model.getNumTransitions(), imported.getNumTransitions());
+		assertEquals(model.getNumInitialStates(), imported.getNumInitialStates());
+		for (int s : model.getInitialStates()) {
+			assertTrue(imported.isInitialState(s));
+		}
+		assertEquals(model.getStatesList(), imported.getStatesList());
+		// Labels
+		assertEquals(Arrays.asList("target", "empty"), binary.getModelInfo().getLabelNames());
+		BitSet target = new BitSet();
+		target.set(3);
+		assertEquals(target, imported.getLabelStates("target"));
+		assertEquals(new BitSet(), imported.getLabelStates("empty"));
+		// Variables
+		assertEquals(Arrays.asList("x", "b"), binary.getModelInfo().getVarNames());
+		// Rewards
+		RewardGenerator<Double> rewardGen = binary.getRewardGenerator();
+		assertEquals(Arrays.asList("r1", ""), rewardGen.getRewardStructNames());
+		assertEquals(2.5, rewardGen.getStateReward(0, 2));
+		assertEquals(1.0, rewardGen.getStateReward(1, 3));
+	}
+
+	@Test
+	public void testDTMC() throws PrismException
+	{
+		DTMCSimple<Double> dtmc = buildDTMC();
+		BinaryModelFile binary = new BinaryModelFile(write(dtmc));
+		assertEquals(ModelType.DTMC, binary.getModelType());
+		assertEquals(4, binary.getNumStates());
+		DTMC<Double> imported = (DTMC<Double>) binary.buildModel();
+		checkCommon(dtmc, imported, binary);
+		for (int s = 0; s < dtmc.getNumStates(); s++) {
+			double vect[] = { 0.1, 0.2, 0.4, 0.8 };
+			assertEquals(dtmc.mvMultSingle(s, vect), imported.mvMultSingle(s, vect));
+		}
+	}
+
+	@Test
+	public void testCTMC() throws PrismException
+	{
+		CTMCSimple<Double> ctmc = new CTMCSimple<>(buildDTMC(), r -> 2 * r, Evaluator.forDouble());
+		ctmc.setProbability(1, 0, 3.0);
+		BinaryModelFile binary = new BinaryModelFile(write(ctmc));
+		assertEquals(ModelType.CTMC, binary.getModelType());
+		CTMC<Double> imported = (CTMC<Double>) binary.buildModel();
+		checkCommon(ctmc, imported, binary);
+		assertEquals(ctmc.getMaxExitRate(), imported.getMaxExitRate());
+		for (int s = 0; s < ctmc.getNumStates(); s++) {
+			assertEquals(ctmc.getExitRate(s), imported.getExitRate(s));
+		}
+	}
+
+	@Test
+	public void testMDP() throws PrismException
+	{
+		MDPSimple<Double> mdp = buildMDP();
+		BinaryModelFile binary = new BinaryModelFile(write(mdp));
+		assertEquals(ModelType.MDP, binary.getModelType());
+		MDP<Double> imported = (MDP<Double>) binary.buildModel();
+		checkCommon(mdp, imported, binary);
+		assertEquals(mdp.getNumChoices(), imported.getNumChoices());
+		assertEquals(mdp.getMaxNumChoices(), imported.getMaxNumChoices());
+		assertTrue(imported.isDeadlockState(3));
+		for (int s = 0; s < mdp.getNumStates(); s++) {
+			assertEquals(mdp.getNumChoices(s), imported.getNumChoices(s));
+			for (int i = 0; i < mdp.getNumChoices(s); i++) {
+				assertEquals(mdp.getAction(s, i), imported.getAction(s, i));
+				assertEquals(mdp.getNumTransitions(s, i), imported.getNumTransitions(s, i));
+			}
+		}
+		assertNull(imported.getAction(0, 1));
+		double vect[] = { 0.1, 0.2, 0.4, 0.8 };
+		for (int s = 0; s < 3; s++) {
+			assertEquals(mdp.mvMultMinMaxSingle(s, vect, true, null), imported.mvMultMinMaxSingle(s, vect, true, null));
+			assertEquals(mdp.mvMultMinMaxSingle(s, vect, false, null), imported.mvMultMinMaxSingle(s, vect, false, null));
+		}
+	}
+
+	@Test
+	public void testMDPInPlace() throws PrismException
+	{
+		MDPSimple<Double> mdp = buildMDP();
+		BinaryModelFile binary = new BinaryModelFile(write(mdp));
+		MDP<Double> copied = (MDP<Double>) binary.buildModel(false);
+		MDP<Double> imported = (MDP<Double>) binary.buildModel(true);
+		assertTrue(copied instanceof MDPSparse);
+		assertTrue(imported instanceof MDPSparseMapped);
+		checkCommon(mdp, imported, binary);
+		assertTrue(imported.isDeadlockState(3));
+		for (int s = 0; s < mdp.getNumStates(); s++) {
+			assertEquals(copied.getNumChoices(s), imported.getNumChoices(s));
+			for (int i = 0; i < copied.getNumChoices(s); i++) {
+				assertEquals(copied.getAction(s, i), imported.getAction(s, i));
+				assertEquals(copied.getNumTransitions(s, i), imported.getNumTransitions(s, i));
+			}
+		}
+		double vect[] = { 0.1, 0.2, 0.4, 0.8 };
+		for (int s = 0; s < 3; s++) {
+			assertEquals(copied.mvMultMinMaxSingle(s, vect, true, null), imported.mvMultMinMaxSingle(s, vect, true, null));
+			assertEquals(copied.mvMultMinMaxSingle(s, vect, false, null), imported.mvMultMinMaxSingle(s, vect, false, null));
+		}
+	}
+
+	@Test
+	public void testDTMCInPlace() throws PrismException
+	{
+		DTMCSimple<Double> dtmc = buildDTMC();
+		BinaryModelFile binary = new BinaryModelFile(write(dtmc));
+		assertTrue(binary.buildModel(false) instanceof DTMCSparse);
+		DTMC<Double> imported = (DTMC<Double>) binary.buildModel(true);
+		assertTrue(imported instanceof DTMCSparseMapped);
+		checkCommon(dtmc, imported, binary);
+		double vect[] = { 0.1, 0.2, 0.4, 0.8 };
+		double result[] = new double[4];
+		double expected[] = new double[4];
+		for (int s = 0; s < dtmc.getNumStates(); s++) {
+			assertEquals(dtmc.getNumTransitions(s), imported.getNumTransitions(s));
+			assertEquals(dtmc.mvMultSingle(s, vect), imported.mvMultSingle(s, vect), 1e-15);
+			assertEquals(dtmc.mvMultJacSingle(s, vect), imported.mvMultJacSingle(s, vect), 1e-15);
+		}
+		dtmc.vmMult(vect, expected);
+		imported.vmMult(vect, result);
+		assertArrayEquals(expected, result, 1e-15);
+	}
+
+	@Test
+	public void testCTMCInPlace() throws PrismException
+	{
+		CTMCSimple<Double> ctmc = new CTMCSimple<>(buildDTMC(), r -> 2 * r, Evaluator.forDouble());
+		ctmc.setProbability(1, 0, 3.0);
+		BinaryModelFile binary = new BinaryModelFile(write(ctmc));
+		CTMC<Double> imported = (CTMC<Double>) binary.buildModel(true);
+		assertTrue(imported instanceof CTMCSparseMapped);
+		assertEquals(ModelType.CTMC, imported.getModelType());
+		checkCommon(ctmc, imported, binary);
+		assertEquals(ctmc.getMaxExitRate(), imported.getMaxExitRate());
+		assertEquals(ctmc.getDefaultUniformisationRate(), imported.getDefaultUniformisationRate());
+		for (int s = 0; s < ctmc.getNumStates(); s++) {
+			assertEquals(ctmc.getExitRate(s), imported.getExitRate(s));
+		}
+		// Embedded and uniformised DTMCs
+		double q = ctmc.getDefaultUniformisationRate();
+		DTMC<Double> emb = ctmc.buildImplicitEmbeddedDTMC();
+		DTMC<Double> embImported = imported.getImplicitEmbeddedDTMC();
+		DTMC<Double> unif = ctmc.buildUniformisedDTMC(q);
+		DTMC<Double> unifImported = imported.buildUniformisedDTMC(q);
+		DTMC<Double> unifImplicit = imported.buildImplicitUniformisedDTMC(q);
+		double vect[] = { 0.1, 0.2, 0.4, 0.8 };
+		for (int s = 0; s < ctmc.getNumStates(); s++) {
+			assertEquals(emb.mvMultSingle(s, vect), embImported.mvMultSingle(s, vect), 1e-15);
+			assertEquals(unif.mvMultSingle(s, vect), unifImported.mvMultSingle(s, vect), 1e-15);
+			assertEquals(unif.mvMultSingle(s, vect), unifImplicit.mvMultSingle(s, vect), 1e-15);
+		}
+		assertEquals(unif.getNumTransitions(), unifImplicit.getNumTransitions());
+	}
+
+	@Test
+	public void testIsBinaryModelFile() throws PrismException, IOException
+	{
+		assertTrue(BinaryModelFile.isBinaryModelFile(write(buildDTMC())));
+		File file = tempDir.resolve("model.bin.pm").toFile();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.write("dtmc\nmodule m x : [0..1]; endmodule\n".getBytes());
+		}
+		assertFalse(BinaryModelFile.isBinaryModelFile(file));
+		assertFalse(BinaryModelFile.isBinaryModelFile(tempDir.resolve("missing.bin").toFile()));
+	}
+
+	@Test
+	public void testNoStates() throws PrismException
+	{
+		// Without a states list, states are just indexed by a single variable
+		DTMCSimple<Double> dtmc = buildDTMC();
+		dtmc.setStatesList(null);
+		File file = tempDir.resolve("nostates.bin").toFile();
+		BinaryModelFile.write(dtmc, null, null, null, file);
+		BinaryModelFile binary = new BinaryModelFile(file);
+		assertEquals(1, binary.getModelInfo().getNumVars());
+		DTMC<Double> imported = (DTMC<Double>) binary.buildModel();
+		assertEquals(dtmc.getNumTransitions(), imported.getNumTransitions());
+		int s = 0;
+		for (State state : imported.getStatesList()) {
+			assertArrayEquals(new Object[] { s++ }, state.varValues);
+		}
+	}
+
+	@Test
+	public void testCorrupted() throws PrismException, IOException
+	{
+		File file = write(buildMDP());
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			long pos = raf.length() / 2;
+			raf.seek(pos);
+			int b = raf.read();
+			raf.seek(pos);
+			raf.write(b ^ 0xFF);
+		}
+		assertThrows(PrismException.class, () -> new BinaryModelFile(file, true));
+		// Without verification on opening, the checksum is still checked before copying the model
+		assertThrows(PrismException.class, () -> new BinaryModelFile(file).buildModel(false));
+	}
+
+	@Test
+	public void testInvalidFile() throws IOException
+	{
+		File file = tempDir.resolve("bad.bin").toFile();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.write(new byte[BinaryModelFile.HEADER_SIZE]);
+		}
+		assertThrows(PrismException.class, () -> new BinaryModelFile(file));
+	}
+}
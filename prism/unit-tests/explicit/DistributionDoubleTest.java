@@ -0,0 +1,83 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import prism.Evaluator;
+
+public class DistributionDoubleTest
+{
+	@Test
+	public void testCreate()
+	{
+		assertTrue(Distribution.create(Evaluator.forDouble()) instanceof DistributionDouble);
+		assertTrue(Distribution.ofDouble() instanceof DistributionDouble);
+		assertFalse((Object) Distribution.create(Evaluator.forBigRational()) instanceof DistributionDouble);
+	}
+
+	@Test
+	public void testAddSetGet()
+	{
+		DistributionDouble distr = new DistributionDouble();
+		assertFalse(distr.add(7, 0.25));
+		assertFalse(distr.add(2, 0.25));
+		assertTrue(distr.add(7, 0.25));
+		assertTrue(distr.add(5, 0.0));
+		assertFalse(distr.add(4, 0.25));
+		assertEquals(3, distr.size());
+		assertEquals(0.5, distr.get(7));
+		assertEquals(0.0, distr.get(5));
+		assertTrue(distr.contains(4));
+		assertFalse(distr.contains(5));
+		// Entries are sorted by index
+		int expected[] = { 2, 4, 7 };
+		int k = 0;
+		for (Map.Entry<Integer, Double> e : distr) {
+			assertEquals(expected[k], e.getKey());
+			assertEquals(expected[k], distr.getIndex(k));
+			assertEquals(e.getValue(), distr.getProbability(k));
+			k++;
+		}
+		assertEquals(1.0, distr.sum());
+		assertEquals(0.5, distr.sumAllBut(7));
+		distr.set(4, 0.0);
+		assertEquals(2, distr.size());
+		assertEquals("{2=0.25, 7=0.5}", distr.toString());
+		BitSet bs = new BitSet();
+		bs.set(2);
+		assertTrue(distr.containsOneOf(bs));
+		assertFalse(distr.isSubsetOf(bs));
+		bs.set(7);
+		assertTrue(distr.isSubsetOf(bs));
+	}
+
+	@Test
+	public void testCopyMapEquals()
+	{
+		DistributionDouble distr = new DistributionDouble();
+		distr.add(0, 0.5);
+		distr.add(1, 0.5);
+		Distribution<Double> copy = distr.copy();
+		assertEquals(distr, copy);
+		Distribution<Double> mapped = distr.map(new int[] { 1, 0 });
+		assertEquals(distr, mapped);
+		mapped = distr.map(new int[] { 2, 0 });
+		assertNotEquals(distr, mapped);
+		assertEquals(0.5, mapped.get(2));
+		// Equality with a map-based distribution
+		Distribution<Double> distrMap = new Distribution<>(Evaluator.forDouble());
+		distrMap.add(1, 0.5);
+		distrMap.add(0, 0.5);
+		assertEquals(distr, distrMap);
+		assertEquals(distrMap, distr);
+		distrMap.add(0, 0.1);
+		assertNotEquals(distr, distrMap);
+	}
+}
@@ -0,0 +1,104 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomLocalMDP;
+import static explicit.RandomModels.randomSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class ECComputerIncrementalTest
+{
+	/**
+	 * The incremental MEC computation gives the same MECs as the original one
+	 * (and does not modify its arguments).
+	 */
+	@Test
+	public void testSameAsSubmodel() throws PrismException
+	{
+		PrismComponent parent = new PrismComponent();
+		Random random = new Random(3);
+		for (int n : new int[] { 1, 10, 200, 5000 }) {
+			MDPSimple<Double> mdp = buildRandomLocalMDP(n, 3, true, 2, 20, n);
+			for (int k = 0; k < 6; k++) {
+				BitSet restrict = k % 2 == 0 ? null : randomSet(n, 90, random);
+				BitSet accept = k < 2 ? null : randomSet(n, k < 4 ? 1 : 10, random);
+				ECComputer ecSubmodel = ECComputer.createECComputer(parent, ECComputer.ECMethod.SUBMODEL, mdp);
+				ecSubmodel.computeMECStates(restrict == null ? null : (BitSet) restrict.clone(), accept == null ? null : (BitSet) accept.clone());
+				List<BitSet> expected = ecSubmodel.getMECStates();
+				BitSet restrictCopy = restrict == null ? null : (BitSet) restrict.clone();
+				BitSet acceptCopy = accept == null ? null : (BitSet) accept.clone();
+				ECComputer ec = ECComputer.createECComputer(parent, ECComputer.ECMethod.INCREMENTAL, mdp);
+				ec.computeMECStates(restrictCopy, acceptCopy);
+				List<BitSet> actual = ec.getMECStates();
+				assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+				assertEquals(expected.size(), actual.size());
+				assertEquals(restrict, restrictCopy);
+				assertEquals(accept, acceptCopy);
+				// MECs are ordered by their lowest state
+				for (int i = 1; i < actual.size(); i++) {
+					assertTrue(actual.get(i - 1).nextSetBit(0) < actual.get(i).nextSetBit(0));
+				}
+			}
+		}
+	}
+
+	/**
+	 * A small MDP with known MECs: {0,1} (via choices staying inside),
+	 * {3} (a self-loop), but not {2} (its only choice leaves to 1 or 4),
+	 * and not {4} (no choices); {5,6} are only an MEC when 7 is removed.
+	 */
+	@Test
+	public void testSmallMDP() throws PrismException
+	{
+		MDPSimple<Double> mdp = new MDPSimple<>(8);
+		addChoice(mdp, 0, 1, 1.0);
+		addChoice(mdp, 0, 2, 1.0);
+		addChoice(mdp, 1, 0, 0.5, 1, 0.5);
+		addChoice(mdp, 2, 1, 0.5, 4, 0.5);
+		addChoice(mdp, 3, 3, 1.0);
+		addChoice(mdp, 3, 2, 1.0);
+		addChoice(mdp, 5, 6, 0.5, 7, 0.5);
+		addChoice(mdp, 5, 6, 1.0);
+		addChoice(mdp, 6, 5, 1.0);
+		addChoice(mdp, 7, 5, 1.0);
+		addChoice(mdp, 7, 4, 1.0);
+		ECComputer ec = ECComputer.createECComputer(new PrismComponent(), ECComputer.ECMethod.INCREMENTAL, mdp);
+		assertTrue(ec instanceof ECComputerIncremental);
+		ec.computeMECStates();
+		assertEquals(List.of(bits(0, 1), bits(3), bits(5, 6, 7)), ec.getMECStates());
+		BitSet restrict = bits(0, 1, 2, 3, 5, 6);
+		ec.computeMECStates(restrict);
+		assertEquals(List.of(bits(0, 1), bits(3), bits(5, 6)), ec.getMECStates());
+		ec.computeMECStates(restrict, bits(6));
+		assertEquals(List.of(bits(5, 6)), ec.getMECStates());
+		ec.computeMECStates(restrict, bits(2, 4));
+		assertEquals(List.of(), ec.getMECStates());
+	}
+
+	private static void addChoice(MDPSimple<Double> mdp, int s, Object... succs)
+	{
+		Distribution<Double> distr = Distribution.ofDouble();
+		for (int i = 0; i < succs.length; i += 2) {
+			distr.add((Integer) succs[i], (Double) succs[i + 1]);
+		}
+		mdp.addChoice(s, distr);
+	}
+
+	private static BitSet bits(int... states)
+	{
+		BitSet set = new BitSet();
+		for (int s : states) {
+			set.set(s);
+		}
+		return set;
+	}
+}
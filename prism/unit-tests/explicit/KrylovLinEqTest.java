@@ -0,0 +1,151 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomTargetSinkDTMC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import explicit.rewards.StateRewardsSimple;
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class KrylovLinEqTest
+{
+	private static final double EPS = 1e-6;
+
+	private static final ProbModelChecker.LinEqMethod KRYLOV_METHODS[] = {
+			ProbModelChecker.LinEqMethod.BICGSTAB, ProbModelChecker.LinEqMethod.GMRES, ProbModelChecker.LinEqMethod.CGS };
+
+	private static DTMCModelChecker modelChecker(ProbModelChecker.LinEqMethod method, SparseLinearSolver.Preconditioner preconditioner, boolean topological) throws PrismException
+	{
+		DTMCModelChecker mc = new DTMCModelChecker(new PrismComponent());
+		mc.setTermCrit(ProbModelChecker.TermCrit.ABSOLUTE);
+		mc.setMaxIters(1000000);
+		mc.setLinEqMethod(method);
+		mc.setTermCritParam(method == ProbModelChecker.LinEqMethod.GAUSS_SEIDEL ? 1e-14 : 1e-10);
+		if (preconditioner != null) {
+			mc.setLinEqPreconditioner(preconditioner);
+		}
+		mc.setDoTopologicalValueIteration(topological);
+		return mc;
+	}
+
+	private static void assertClose(double expected[], double actual[], String desc)
+	{
+		for (int s = 0; s < expected.length; s++) {
+			if (Double.isInfinite(expected[s])) {
+				assertEquals(expected[s], actual[s], desc);
+			} else {
+				assertEquals(expected[s], actual[s], EPS, desc);
+			}
+		}
+	}
+
+	@Test
+	public void testSparseLinearSolverPreconditioners() throws PrismException
+	{
+		// x0 = 0.5 x1 + 0.5, x1 = 0.3 x0 + 0.2 x1 + 0.1, x2 = 0.5 x2 + 0.4 x0
+		int rowStart[] = { 0, 1, 3 };
+		int rowEnd[] = { 1, 3, 5 };
+		int cols[] = { 1, 0, 1, 2, 0 };
+		double vals[] = { 0.5, 0.3, 0.2, 0.5, 0.4 };
+		double b[] = { 0.5, 0.1, 0.0 };
+		double x1 = (0.1 + 0.3 * 0.5) / (0.8 - 0.15);
+		double x0 = 0.5 * x1 + 0.5;
+		double expected[] = { x0, x1, 0.8 * x0 };
+		for (SparseLinearSolver.Method method : SparseLinearSolver.Method.values()) {
+			if (!method.isKrylov()) {
+				continue;
+			}
+			for (SparseLinearSolver.Preconditioner preconditioner : SparseLinearSolver.Preconditioner.values()) {
+				String desc = method.fullName() + "/" + preconditioner.fullName();
+				SparseLinearSolver solver = new SparseLinearSolver(3, rowStart, rowEnd, cols, vals, b);
+				solver.setMethod(method);
+				solver.setPreconditioner(preconditioner);
+				solver.setTermCrit(true, 1e-12, 10000);
+				double x[] = new double[3];
+				solver.solve(x);
+				assertTrue(solver.isConverged(), desc);
+				for (int i = 0; i < 3; i++) {
+					assertEquals(expected[i], x[i], 1e-9, desc);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testReachProbs() throws PrismException
+	{
+		for (long seed = 0; seed < 5; seed++) {
+			DTMCSimple<Double> dtmc = buildRandomTargetSinkDTMC(300, false, seed);
+			BitSet target = new BitSet();
+			target.set(dtmc.getNumStates() - 1);
+			double expected[] = modelChecker(ProbModelChecker.LinEqMethod.GAUSS_SEIDEL, null, false).computeReachProbs(dtmc, target).soln;
+			for (ProbModelChecker.LinEqMethod method : KRYLOV_METHODS) {
+				for (SparseLinearSolver.Preconditioner preconditioner : SparseLinearSolver.Preconditioner.values()) {
+					for (boolean topological : new boolean[] { false, true }) {
+						String desc = method.fullName() + "/" + preconditioner.fullName() + (topological ? "/topological" : "");
+						assertClose(expected, modelChecker(method, preconditioner, topological).computeReachProbs(dtmc, target).soln, desc);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testReachRewards() throws PrismException
+	{
+		for (long seed = 0; seed < 5; seed++) {
+			DTMCSimple<Double> dtmc = buildRandomTargetSinkDTMC(300, false, seed);
+			Random random = new Random(seed);
+			StateRewardsSimple<Double> rewards = new StateRewardsSimple<>();
+			for (int s = 0; s < dtmc.getNumStates() - 2; s++) {
+				rewards.setStateReward(s, (double) random.nextInt(4));
+			}
+			BitSet target = new BitSet();
+			target.set(dtmc.getNumStates() - 1);
+			double expected[] = modelChecker(ProbModelChecker.LinEqMethod.GAUSS_SEIDEL, null, false).computeReachRewards(dtmc, rewards, target).soln;
+			for (ProbModelChecker.LinEqMethod method : KRYLOV_METHODS) {
+				for (boolean topological : new boolean[] { false, true }) {
+					String desc = method.fullName() + (topological ? "/topological" : "");
+					assertClose(expected, modelChecker(method, null, topological).computeReachRewards(dtmc, rewards, target).soln, desc);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSteadyState() throws PrismException
+	{
+		for (long seed = 0; seed < 5; seed++) {
+			DTMCSimple<Double> dtmc = buildRandomTargetSinkDTMC(300, true, seed);
+			double init[] = new double[dtmc.getNumStates()];
+			init[0] = 1.0;
+			double expected[] = modelChecker(ProbModelChecker.LinEqMethod.GAUSS_SEIDEL, null, false).computeSteadyStateProbs(dtmc, init.clone()).soln;
+			for (ProbModelChecker.LinEqMethod method : KRYLOV_METHODS) {
+				for (SparseLinearSolver.Preconditioner preconditioner : SparseLinearSolver.Preconditioner.values()) {
+					String desc = method.fullName() + "/" + preconditioner.fullName();
+					assertClose(expected, modelChecker(method, preconditioner, false).computeSteadyStateProbs(dtmc, init.clone()).soln, desc);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testParallelMatchesSequential() throws PrismException
+	{
+		DTMCSimple<Double> dtmc = buildRandomTargetSinkDTMC(20000, false, 42);
+		BitSet target = new BitSet();
+		target.set(dtmc.getNumStates() - 1);
+		for (ProbModelChecker.LinEqMethod method : KRYLOV_METHODS) {
+			double expected[] = modelChecker(method, null, false).computeReachProbs(dtmc, target).soln;
+			DTMCModelChecker mc = modelChecker(method, null, false);
+			mc.setNumThreads(4);
+			assertClose(expected, mc.computeReachProbs(dtmc, target).soln, method.fullName());
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomCTMC;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismException;
+
+public class KrylovMatrixExponentialTest
+{
+	/**
+	 * Compute exp(Qt) v (backwards) or v exp(Qt) (forwards) by uniformisation, to (nearly) full precision.
+	 */
+	private static double[] uniformise(CTMCSimple<Double> ctmc, BitSet nonAbs, boolean backwards, double v[], double t) throws PrismException
+	{
+		int n = ctmc.getNumStates();
+		double q = nonAbs == null ? ctmc.getDefaultUniformisationRate() : ctmc.getDefaultUniformisationRate(nonAbs);
+		UniformisedMatrix matrix = new UniformisedMatrix(ctmc, q, nonAbs, backwards, false, 1);
+		FoxGlynn fg = new FoxGlynn(q * t, 1e-300, 1e+300, 1e-10);
+		double weights[] = fg.getWeights();
+		double soln[] = v.clone();
+		double soln2[] = v.clone();
+		double sum[] = new double[n];
+		for (int iters = 0; iters <= fg.getRightTruncationPoint(); iters++) {
+			if (iters >= fg.getLeftTruncationPoint()) {
+				double weight = weights[iters - fg.getLeftTruncationPoint()] / fg.getTotalWeight();
+				for (int i = 0; i < n; i++)
+					sum[i] += weight * soln[i];
+			}
+			matrix.multiply(soln, soln2);
+			double tmp[] = soln;
+			soln = soln2;
+			soln2 = tmp;
+		}
+		return sum;
+	}
+
+	@Test
+	public void testExpmTwoStates()
+	{
+		// Generator of a two-state CTMC, for which exp(Qt) has a closed form
+		double a = 3.0, b = 0.5, t = 0.7;
+		double H[][] = { { -a, a }, { b, -b } };
+		double e = Math.exp(-(a + b) * t);
+		double expected[][] = { { (b + a * e) / (a + b), (a - a * e) / (a + b) }, { (b - b * e) / (a + b), (a + b * e) / (a + b) } };
+		double result[][] = KrylovMatrixExponential.expm(H, 2, t);
+		for (int i = 0; i < 2; i++) {
+			assertArrayEquals(expected[i], result[i], 1e-13);
+		}
+	}
+
+	@Test
+	public void testAgainstUniformisation() throws PrismException
+	{
+		CTMCSimple<Double> ctmc = buildRandomCTMC(2000, 5);
+		int n = ctmc.getNumStates();
+		Random random = new Random(9);
+		BitSet nonAbs = new BitSet();
+		for (int s = 0; s < n; s++) {
+			if (random.nextInt(10) != 0) {
+				nonAbs.set(s);
+			}
+		}
+		double target[] = new double[n];
+		for (int s = 0; s < n; s++) {
+			target[s] = random.nextInt(3) == 0 ? 1.0 : 0.0;
+		}
+		double init[] = new double[n];
+		init[0] = 1.0;
+		double times[] = { 0.05, 0.5, 2.0 };
+
+		// Backwards, with absorbing states, for several time points in one pass
+		UniformisedMatrix generator = UniformisedMatrix.generator(ctmc, nonAbs, true, false, 1);
+		KrylovMatrixExponential krylov = new KrylovMatrixExponential(generator::multiply, n, generator.getNormInf());
+		krylov.setTolerance(1e-10);
+		double results[][] = krylov.compute(target, times);
+		for (int j = 0; j < times.length; j++) {
+			assertArrayEquals(uniformise(ctmc, nonAbs, true, target, times[j]), results[j], 1e-8);
+		}
+		assertTrue(krylov.getNumMatVecs() > 0);
+
+		// Forwards
+		generator = UniformisedMatrix.generator(ctmc, null, false, false, 1);
+		krylov = new KrylovMatrixExponential(generator::multiply, n, generator.getNormInf());
+		krylov.setTolerance(1e-10);
+		double dist[] = krylov.compute(init, 2.0);
+		assertArrayEquals(uniformise(ctmc, null, false, init, 2.0), dist, 1e-8);
+		double total = 0.0;
+		for (int i = 0; i < n; i++) {
+			total += dist[i];
+		}
+		assertEquals(1.0, total, 1e-8);
+	}
+}
@@ -0,0 +1,79 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomLocalMDP;
+import static explicit.RandomModels.randomSet;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class MDPPrecomputationTest
+{
+	private static int[] initStrat(int n, BitSet target)
+	{
+		int strat[] = new int[n];
+		for (int s = 0; s < n; s++) {
+			strat[s] = target.get(s) ? -2 : -1;
+		}
+		return strat;
+	}
+
+	/**
+	 * The graph-based Prob0/Prob1 algorithms give the same results
+	 * (and strategies) as the fixed-point ones.
+	 */
+	@Test
+	public void testSameAsFixedPoint() throws PrismException
+	{
+		MDPModelChecker mc = new MDPModelChecker(new PrismComponent());
+		mc.setSilentPrecomputations(true);
+		Random random = new Random(7);
+		for (int n : new int[] { 1, 10, 200, 5000 }) {
+			MDPSimple<Double> mdp = buildRandomLocalMDP(n, 3, true, 3, 10, n);
+			IncomingChoiceRelation incoming = IncomingChoiceRelation.forModel(mc, mdp);
+			for (int k = 0; k < 5; k++) {
+				BitSet target = randomSet(n, k == 0 ? 0 : 2, random);
+				BitSet remain = k % 2 == 0 ? null : randomSet(n, 90, random);
+				for (boolean min : new boolean[] { false, true }) {
+					mc.setPreRel(false);
+					int strat0[] = initStrat(n, target);
+					BitSet no = mc.prob0(mdp, remain, target, min, strat0);
+					int strat1[] = initStrat(n, target);
+					BitSet yes = mc.prob1(mdp, remain, target, min, strat1);
+					mc.setPreRel(true);
+					int stratGraph0[] = initStrat(n, target);
+					assertEquals(no, mc.prob0(mdp, remain, target, min, stratGraph0, incoming));
+					assertArrayEquals(strat0, stratGraph0);
+					int stratGraph1[] = initStrat(n, target);
+					assertEquals(yes, mc.prob1(mdp, remain, target, min, stratGraph1, incoming));
+					assertArrayEquals(strat1, stratGraph1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The graph-based algorithms are used by default, with the incoming choice relation
+	 * computed once and stored with the model.
+	 */
+	@Test
+	public void testStoredRelation() throws PrismException
+	{
+		MDPModelChecker mc = new MDPModelChecker(new PrismComponent());
+		mc.setSilentPrecomputations(true);
+		MDPSimple<Double> mdp = buildRandomLocalMDP(100, 3, true, 3, 10, 1);
+		BitSet target = new BitSet();
+		target.set(50);
+		mc.prob0(mdp, null, target, false, null);
+		IncomingChoiceRelation incoming = mdp.getIncomingChoiceRelation(mc, false);
+		mc.prob1(mdp, null, target, true, null);
+		assertSame(incoming, mdp.getIncomingChoiceRelation(mc, false));
+	}
+}
@@ -0,0 +1,152 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import prism.PrismException;
+
+public class MDPSparseMappedTest
+{
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * A small MDP: state 0 has two choices (one with a self-loop), state 3 is a deadlock.
+	 */
+	private static MDPSparse buildMDP()
+	{
+		MDPSimple<Double> mdp = new MDPSimple<>(4);
+		mdp.addInitialState(0);
+		Distribution<Double> distr = Distribution.ofDouble();
+		distr.add(0, 0.5);
+		distr.add(1, 0.5);
+		mdp.addActionLabelledChoice(0, distr, "a");
+		distr = Distribution.ofDouble();
+		distr.add(2, 0.3);
+		distr.add(3, 0.7);
+		mdp.addChoice(0, distr);
+		distr = Distribution.ofDouble();
+		distr.add(2, 1.0);
+		mdp.addActionLabelledChoice(1, distr, "b");
+		distr = Distribution.ofDouble();
+		distr.add(2, 1.0);
+		mdp.addActionLabelledChoice(2, distr, "a");
+		mdp.addDeadlockState(3);
+		return new MDPSparse(mdp);
+	}
+
+	@Test
+	public void testStructure() throws PrismException
+	{
+		MDPSparse mdp = buildMDP();
+		MDPSparseMapped mapped = new MDPSparseMapped(mdp, tempDir.resolve("mdp.bin").toFile());
+		assertEquals(mdp.getNumStates(), mapped.getNumStates());
+		assertEquals(mdp.getNumChoices(), mapped.getNumChoices());
+		assertEquals(mdp.getNumTransitions(), mapped.getNumTransitions());
+		assertEquals(mdp.getNumTransitions(), mapped.getNumTransitionsLong());
+		assertEquals(mdp.getMaxNumChoices(), mapped.getMaxNumChoices());
+		assertEquals(0, mapped.getFirstInitialState());
+		assertTrue(mapped.isDeadlockState(3));
+		assertEquals(mdp.toString(), mapped.toString());
+		for (int s = 0; s < mdp.getNumStates(); s++) {
+			assertEquals(mdp.getNumChoices(s), mapped.getNumChoices(s));
+			assertEquals(mdp.getNumTransitions(s), mapped.getNumTransitions(s));
+			assertArrayEquals(mdp.getSuccessors(s).stream().toArray(), mapped.getSuccessors(s).stream().toArray());
+			for (int i = 0; i < mdp.getNumChoices(s); i++) {
+				assertEquals(mdp.getAction(s, i), mapped.getAction(s, i));
+				assertEquals(mdp.getNumTransitions(s, i), mapped.getNumTransitions(s, i));
+			}
+		}
+		assertNull(mapped.getAction(0, 1));
+	}
+
+	@Test
+	public void testManyTransitions() throws PrismException, IOException
+	{
+		// Only the header info is used, so the transitions do not need to be present in the file
+		File file = tempDir.resolve("mdp.bin").toFile();
+		MDPSparseMapped.write(buildMDP(), file);
+		long numTransitions = 3L * Integer.MAX_VALUE;
+		MDPSparseMapped mapped = MDPSparseMapped.wrap(new MappedFile(file), 0, 4, 4, 2, numTransitions, null);
+		assertEquals(numTransitions, mapped.getNumTransitionsLong());
+		assertThrows(ArithmeticException.class, () -> mapped.getNumTransitions());
+		assertTrue(mapped.infoString().contains(numTransitions + " transitions"));
+		assertTrue(mapped.infoStringTable().contains("Transitions: " + numTransitions));
+	}
+
+	@Test
+	public void testNumerical() throws PrismException
+	{
+		MDPSparse mdp = buildMDP();
+		MDPSparseMapped mapped = new MDPSparseMapped(mdp, tempDir.resolve("mdp.bin").toFile());
+		double vect[] = { 0.1, 0.2, 0.4, 0.8 };
+		for (boolean min : new boolean[] { true, false }) {
+			int strat1[] = { -1, -1, -1, -1 };
+			int strat2[] = { -1, -1, -1, -1 };
+			for (int s = 0; s < 3; s++) {
+				assertEquals(mdp.mvMultMinMaxSingle(s, vect, min, strat1), mapped.mvMultMinMaxSingle(s, vect, min, strat2));
+				assertEquals(mdp.mvMultJacMinMaxSingle(s, vect, min, null), mapped.mvMultJacMinMaxSingle(s, vect, min, null));
+				assertEquals(mdp.mvMultSingle(s, 0, vect), mapped.mvMultSingle(s, 0, vect));
+				assertEquals(mdp.mvMultJacSingle(s, 0, vect), mapped.mvMultJacSingle(s, 0, vect));
+			}
+			assertArrayEquals(strat1, strat2);
+		}
+		// Value iteration (Gauss-Seidel) gives identical results
+		BitSet subset = new BitSet();
+		subset.set(0, 3);
+		double soln1[] = vect.clone();
+		double soln2[] = vect.clone();
+		mdp.mvMultGSMinMax(soln1, false, subset, false, true, null);
+		mapped.mvMultGSMinMax(soln2, false, subset, false, true, null);
+		assertArrayEquals(soln1, soln2);
+		// Qualitative steps
+		BitSet u = new BitSet();
+		u.set(2);
+		BitSet result1 = new BitSet();
+		BitSet result2 = new BitSet();
+		mdp.prob0step(subset, u, false, result1);
+		mapped.prob0step(subset, u, false, result2);
+		assertEquals(result1, result2);
+		u.set(0, 4);
+		BitSet v = new BitSet();
+		v.set(2);
+		mdp.prob1Astep(subset, u, v, result1);
+		mapped.prob1Astep(subset, u, v, result2);
+		assertEquals(result1, result2);
+	}
+
+	@Test
+	public void testReopen() throws PrismException
+	{
+		MDPSparse mdp = buildMDP();
+		File file = tempDir.resolve("mdp.bin").toFile();
+		MDPSparseMapped.write(mdp, file);
+		MDPSparseMapped reopened = MDPSparseMapped.open(file);
+		assertEquals(mdp.toString(), reopened.toString());
+		assertEquals(0, reopened.getFirstInitialState());
+		assertEquals(1, reopened.getNumDeadlockStates());
+		assertEquals("b", reopened.getAction(1, 0));
+	}
+
+	@Test
+	public void testInvalidFile() throws IOException
+	{
+		File file = tempDir.resolve("bad.bin").toFile();
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(new byte[MDPSparseMapped.HEADER_SIZE]);
+		}
+		assertThrows(PrismException.class, () -> MDPSparseMapped.open(file));
+	}
+}
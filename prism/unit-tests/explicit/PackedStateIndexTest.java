@@ -0,0 +1,99 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import parser.State;
+import parser.VarList;
+import parser.ast.DeclarationBool;
+import parser.ast.DeclarationInt;
+import parser.ast.Expression;
+import prism.PrismLangException;
+
+public class PackedStateIndexTest
+{
+	private static VarList createVarList() throws PrismLangException
+	{
+		VarList varList = new VarList();
+		varList.addVar("x", new DeclarationInt(Expression.Int(-3), Expression.Int(12)), 0);
+		varList.addVar("b", new DeclarationBool(), 0);
+		varList.addVar("y", new DeclarationInt(Expression.Int(0), Expression.Int(1000)), 0);
+		return varList;
+	}
+
+	private static State state(int x, boolean b, int y)
+	{
+		return new State(3).setValue(0, x).setValue(1, b).setValue(2, y);
+	}
+
+	@Test
+	public void testSlotRecycling() throws PrismLangException
+	{
+		PackedStateIndex index = new PackedStateIndex(createVarList());
+		for (int y = 0; y < 10; y++) {
+			assertTrue(index.add(state(0, false, y)));
+			assertEquals(y, index.getIndexOfLastAdd());
+		}
+		index.remove(3);
+		index.remove(7);
+		assertEquals(8, index.size());
+		assertFalse(index.isUsed(3));
+		assertEquals(-1, index.get(state(0, false, 3)));
+		assertEquals(8, index.nextUsed(7));
+		// Freed slots are reused before new ones
+		assertTrue(index.add(state(1, true, 0)));
+		assertEquals(7, index.getIndexOfLastAdd());
+		assertTrue(index.add(state(2, true, 0)));
+		assertEquals(3, index.getIndexOfLastAdd());
+		assertEquals(10, index.getNumSlots());
+		assertEquals(state(1, true, 0), index.getState(7));
+		assertFalse(index.add(state(0, false, 9)));
+		assertEquals(9, index.getIndexOfLastAdd());
+	}
+
+	@Test
+	public void testRandomAddRemove() throws PrismLangException
+	{
+		// Compare against a HashMap, for packed, out-of-range and unpacked states
+		for (VarList varList : new VarList[] { createVarList(), null }) {
+			PackedStateIndex index = new PackedStateIndex(varList);
+			Map<State, Integer> expected = new HashMap<>();
+			Random random = new Random(42);
+			int maxSize = 0;
+			for (int i = 0; i < 200000; i++) {
+				State state = state(random.nextInt(17) - 3, random.nextBoolean(), random.nextInt(100));
+				if (random.nextInt(3) == 0) {
+					int slot = index.get(state);
+					assertEquals(expected.containsKey(state) ? expected.get(state) : -1, slot);
+					if (slot >= 0) {
+						index.remove(slot);
+						expected.remove(state);
+					}
+				} else {
+					boolean added = index.add(state);
+					assertEquals(!expected.containsKey(state), added);
+					if (added) {
+						expected.put(state, index.getIndexOfLastAdd());
+					} else {
+						assertEquals((int) expected.get(state), index.getIndexOfLastAdd());
+					}
+				}
+				maxSize = Math.max(maxSize, index.size());
+			}
+			assertEquals(expected.size(), index.size());
+			assertEquals(maxSize, index.getNumSlots());
+			for (Map.Entry<State, Integer> entry : expected.entrySet()) {
+				assertEquals((int) entry.getValue(), index.get(entry.getKey()));
+				assertEquals(entry.getKey(), index.getState(entry.getValue()));
+				assertTrue(index.isUsed(entry.getValue()));
+			}
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import parser.State;
+import parser.VarList;
+import parser.ast.DeclarationBool;
+import parser.ast.DeclarationInt;
+import parser.ast.Expression;
+import prism.PrismLangException;
+
+public class PackedStateStorageTest
+{
+	private static VarList createVarList() throws PrismLangException
+	{
+		VarList varList = new VarList();
+		varList.addVar("x", new DeclarationInt(Expression.Int(-3), Expression.Int(12)), 0);
+		varList.addVar("b", new DeclarationBool(), 0);
+		varList.addVar("y", new DeclarationInt(Expression.Int(0), Expression.Int(1000000)), 0);
+		return varList;
+	}
+
+	private static State state(int x, boolean b, int y)
+	{
+		return new State(3).setValue(0, x).setValue(1, b).setValue(2, y);
+	}
+
+	@Test
+	public void testAddAndGet() throws PrismLangException
+	{
+		PackedStateStorage storage = new PackedStateStorage(createVarList());
+		List<State> states = new ArrayList<>();
+		for (int x = -3; x <= 12; x++) {
+			for (int y = 0; y < 1000000; y += 9973) {
+				states.add(state(x, (x + y) % 2 == 0, y));
+			}
+		}
+		for (int i = 0; i < states.size(); i++) {
+			assertTrue(storage.add(states.get(i)));
+			assertEquals(i, storage.getIndexOfLastAdd());
+		}
+		for (int i = states.size() - 1; i >= 0; i--) {
+			assertFalse(storage.add(new State(states.get(i))));
+			assertEquals(i, storage.getIndexOfLastAdd());
+			assertEquals(i, storage.get(states.get(i)));
+			assertEquals(states.get(i), storage.getState(i));
+		}
+		assertEquals(states.size(), storage.size());
+		assertEquals(-1, storage.get(state(0, true, 1)));
+		assertEquals(states, storage.toArrayList());
+	}
+
+	@Test
+	public void testOutOfRangeStates() throws PrismLangException
+	{
+		PackedStateStorage storage = new PackedStateStorage(createVarList());
+		storage.add(state(0, false, 0));
+		assertTrue(storage.add(state(13, false, 0)));
+		assertEquals(1, storage.getIndexOfLastAdd());
+		storage.add(state(1, false, 0));
+		assertFalse(storage.add(state(13, false, 0)));
+		assertEquals(1, storage.getIndexOfLastAdd());
+		assertEquals(state(13, false, 0), storage.getState(1));
+		assertArrayEquals(new int[] { 0, 2, 1 }, storage.buildSortingPermutation());
+	}
+
+	@Test
+	public void testSortingPermutation() throws PrismLangException
+	{
+		PackedStateStorage packed = new PackedStateStorage(createVarList());
+		IndexedSet<State> sorted = new IndexedSet<>(true);
+		int[][] values = { { 5, 1, 7 }, { -3, 0, 2 }, { 12, 1, 0 }, { 5, 0, 999999 }, { -1, 1, 3 }, { 5, 0, 8 } };
+		for (int[] v : values) {
+			State s = state(v[0], v[1] == 1, v[2]);
+			packed.add(s);
+			sorted.add(s);
+		}
+		int[] permut = packed.buildSortingPermutation();
+		assertArrayEquals(sorted.buildSortingPermutation(), permut);
+		assertEquals(sorted.toPermutedArrayList(permut), packed.toPermutedArrayList(permut));
+	}
+}
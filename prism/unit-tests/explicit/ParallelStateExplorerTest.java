@@ -0,0 +1,138 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import parser.ast.ModulesFile;
+import prism.Prism;
+import prism.PrismDevNullLog;
+import prism.PrismException;
+import simulator.ModulesFileModelGenerator;
+
+public class ParallelStateExplorerTest
+{
+	private static final String DTMC = "dtmc\n"
+			+ "module walk\n"
+			+ "  x : [0..60] init 30;\n"
+			+ "  y : [0..40] init 0;\n"
+			+ "  [] x>0 & x<60 -> 0.3:(x'=x-1) + 0.5:(x'=x+1) + 0.2:(y'=mod(y+x,41));\n"
+			+ "  [] x=0 | x=60 -> (x'=30);\n"
+			+ "endmodule\n"
+			+ "label \"edge\" = x=0 | x=60;\n";
+
+	private static final String CTMC = "ctmc\n"
+			+ "module q1\n"
+			+ "  a : [0..50] init 0;\n"
+			+ "  [] a<50 -> 2.0:(a'=a+1);\n"
+			+ "  [move] a>0 -> 3.0:(a'=a-1);\n"
+			+ "endmodule\n"
+			+ "module q2\n"
+			+ "  b : [0..50] init 0;\n"
+			+ "  [move] b<50 -> 1.0:(b'=b+1);\n"
+			+ "  [] b>0 -> 1.5:(b'=b-1);\n"
+			+ "endmodule\n";
+
+	private static final String MDP = "mdp\n"
+			+ "module m\n"
+			+ "  x : [0..40] init 0;\n"
+			+ "  y : [0..40] init 0;\n"
+			+ "  [a] x<40 -> 0.5:(x'=x+1) + 0.5:(y'=mod(y+1,41));\n"
+			+ "  [b] y<40 -> 0.9:(y'=y+1) + 0.1:(x'=0);\n"
+			+ "  [c] x>0 & y>0 -> (x'=x-1)&(y'=y-1);\n"
+			+ "endmodule\n";
+
+	// (no model type keyword: a model without probabilities is an LTS)
+	private static final String LTS = "module m\n"
+			+ "  x : [0..40] init 0;\n"
+			+ "  y : [0..40] init 0;\n"
+			+ "  [a] x<40 -> (x'=x+1);\n"
+			+ "  [b] y<40 -> (y'=y+1);\n"
+			+ "  [c] x>0 & y>0 -> (x'=x-1)&(y'=y-1);\n"
+			+ "endmodule\n";
+
+	// (probabilities do not sum to 1 in states with x=30)
+	private static final String ERROR = "dtmc\n"
+			+ "module m\n"
+			+ "  x : [0..40] init 0;\n"
+			+ "  y : [0..40] init 0;\n"
+			+ "  [] x<40 -> (x=30 ? 0.6 : 0.5):(x'=x+1) + 0.5:(y'=mod(y+1,41));\n"
+			+ "  [] x=40 -> (x'=0);\n"
+			+ "endmodule\n";
+
+	private static Model<Double> build(Prism prism, ModulesFile modulesFile, int numThreads, boolean sortStates) throws PrismException
+	{
+		ConstructModel constructModel = new ConstructModel(prism);
+		constructModel.setNumThreads(numThreads);
+		constructModel.setSortStates(sortStates);
+		return constructModel.constructModel(new ModulesFileModelGenerator<Double>(modulesFile, prism));
+	}
+
+	/**
+	 * Textual listing of all transitions of a model (choices, actions and, where present, probabilities/rates).
+	 */
+	private static String transitionsString(Model<Double> model)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (int s = 0; s < model.getNumStates(); s++) {
+			if (model instanceof DTMC) {
+				sb.append(s).append(':');
+				((DTMC<Double>) model).getTransitionsIterator(s).forEachRemaining(e -> sb.append(e.getKey()).append('=').append(e.getValue()).append(' '));
+				sb.append('\n');
+			} else {
+				NondetModel<Double> nondet = (NondetModel<Double>) model;
+				for (int i = 0; i < nondet.getNumChoices(s); i++) {
+					sb.append(s).append(',').append(i).append(',').append(nondet.getAction(s, i)).append(':');
+					if (model instanceof MDP) {
+						((MDP<Double>) model).getTransitionsIterator(s, i).forEachRemaining(e -> sb.append(e.getKey()).append('=').append(e.getValue()).append(' '));
+					} else {
+						nondet.getSuccessors(s, i).forEachRemaining((int t) -> sb.append(t).append(' '));
+					}
+					sb.append('\n');
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Models built with several threads are identical (states, their order, transitions, labels)
+	 * to those built sequentially, for each supported model type.
+	 */
+	@Test
+	public void testSameAsSequential() throws PrismException
+	{
+		Prism prism = new Prism(new PrismDevNullLog());
+		for (String source : new String[] { DTMC, CTMC, MDP, LTS }) {
+			ModulesFile modulesFile = prism.parseModelString(source);
+			for (boolean sortStates : new boolean[] { true, false }) {
+				Model<Double> expected = build(prism, modulesFile, 1, sortStates);
+				assertTrue(expected.getNumStates() > 1000);
+				for (int numThreads : new int[] { 2, 4 }) {
+					Model<Double> model = build(prism, modulesFile, numThreads, sortStates);
+					String desc = modulesFile.getModelType() + ", " + numThreads + " threads, sortStates=" + sortStates;
+					assertEquals(expected.getClass(), model.getClass(), desc);
+					assertEquals(expected.getStatesList(), model.getStatesList(), desc);
+					assertEquals(expected.getFirstInitialState(), model.getFirstInitialState(), desc);
+					assertEquals(expected.getNumTransitions(), model.getNumTransitions(), desc);
+					assertEquals(expected.getNumDeadlockStates(), model.getNumDeadlockStates(), desc);
+					assertEquals(transitionsString(expected), transitionsString(model), desc);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Errors found by worker threads are reported as with sequential construction.
+	 */
+	@Test
+	public void testError() throws PrismException
+	{
+		Prism prism = new Prism(new PrismDevNullLog());
+		ModulesFile modulesFile = prism.parseModelString(ERROR);
+		assertThrows(PrismException.class, () -> build(prism, modulesFile, 1, false));
+		assertThrows(PrismException.class, () -> build(prism, modulesFile, 4, false));
+	}
+}
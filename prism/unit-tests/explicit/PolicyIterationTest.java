@@ -0,0 +1,160 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomTargetSinkMDP;
+import static explicit.RandomModels.buildRandomRewards;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+import explicit.rewards.StateRewardsSimple;
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class PolicyIterationTest
+{
+	private static final double EPS = 1e-6;
+
+	private static BitSet target(int n)
+	{
+		BitSet target = new BitSet();
+		target.set(n - 1);
+		return target;
+	}
+
+	/**
+	 * Create a model checker using Gauss-Seidel with a very tight precision (if {@code solnMethod} is null),
+	 * or the given solution method and policy evaluation solver.
+	 */
+	private static MDPModelChecker modelChecker(ProbModelChecker.MDPSolnMethod solnMethod, SparseLinearSolver.Method solver, boolean topological) throws PrismException
+	{
+		MDPModelChecker mc = new MDPModelChecker(new PrismComponent());
+		mc.setTermCrit(ProbModelChecker.TermCrit.ABSOLUTE);
+		mc.setMaxIters(1000000);
+		if (solnMethod == null) {
+			mc.setMDPSolnMethod(ProbModelChecker.MDPSolnMethod.GAUSS_SEIDEL);
+			mc.setTermCritParam(1e-14);
+		} else {
+			mc.setMDPSolnMethod(solnMethod);
+			mc.setTermCritParam(1e-10);
+			mc.setPolIterSolver(solver);
+			mc.setPolIterTermCritParam(1e-10);
+			mc.setDoTopologicalValueIteration(topological);
+		}
+		return mc;
+	}
+
+	private static void assertClose(double expected[], double actual[])
+	{
+		for (int s = 0; s < expected.length; s++) {
+			if (Double.isInfinite(expected[s])) {
+				assertEquals(expected[s], actual[s]);
+			} else {
+				assertEquals(expected[s], actual[s], EPS);
+			}
+		}
+	}
+
+	@Test
+	public void testSparseLinearSolver() throws PrismException
+	{
+		// x0 = 0.5 x1 + 0.5, x1 = 0.3 x0 + 0.2 x1 + 0.1, x2 = 0.5 x2 + 0.4 x0
+		int rowStart[] = { 0, 1, 3 };
+		int rowEnd[] = { 1, 3, 5 };
+		int cols[] = { 1, 0, 1, 2, 0 };
+		double vals[] = { 0.5, 0.3, 0.2, 0.5, 0.4 };
+		double b[] = { 0.5, 0.1, 0.0 };
+		double x1 = (0.1 + 0.3 * 0.5) / (0.8 - 0.15);
+		double x0 = 0.5 * x1 + 0.5;
+		double expected[] = { x0, x1, 0.8 * x0 };
+		for (SparseLinearSolver.Method method : SparseLinearSolver.Method.values()) {
+			SparseLinearSolver solver = new SparseLinearSolver(3, rowStart, rowEnd, cols, vals, b);
+			solver.setMethod(method);
+			solver.setTermCrit(true, 1e-12, 10000);
+			double x[] = new double[3];
+			solver.solve(x);
+			assertTrue(solver.isConverged(), method.fullName());
+			for (int i = 0; i < 3; i++) {
+				assertEquals(expected[i], x[i], 1e-9, method.fullName());
+			}
+		}
+	}
+
+	/**
+	 * The termination criterion: the residual (Krylov methods) or the difference between iterates
+	 * (Gauss-Seidel/Jacobi) is at most epsilon, relative to the largest solution value if required.
+	 */
+	@Test
+	public void testSparseLinearSolverTermCrit() throws PrismException
+	{
+		// As above, but with values spanning several orders of magnitude
+		int rowStart[] = { 0, 1, 3 };
+		int rowEnd[] = { 1, 3, 5 };
+		int cols[] = { 1, 0, 1, 2, 0 };
+		double vals[] = { 0.5, 0.3, 0.2, 0.5, 0.4 };
+		double b[] = { 1e6, 1e-6, 0.0 };
+		for (SparseLinearSolver.Method method : SparseLinearSolver.Method.values()) {
+			for (boolean absolute : new boolean[] { false, true }) {
+				String desc = method.fullName() + (absolute ? "/absolute" : "/relative");
+				double epsilon = absolute ? 1e-6 : 1e-12;
+				SparseLinearSolver solver = new SparseLinearSolver(3, rowStart, rowEnd, cols, vals, b);
+				solver.setMethod(method);
+				solver.setTermCrit(absolute, epsilon, 10000);
+				double x[] = new double[3];
+				solver.solve(x);
+				assertTrue(solver.isConverged(), desc);
+				assertTrue(solver.getError() <= epsilon, desc);
+				if (method.isKrylov()) {
+					double res = 0.0, max = 0.0;
+					for (int r = 0; r < 3; r++) {
+						double d = b[r] - x[r];
+						for (int j = rowStart[r]; j < rowEnd[r]; j++) {
+							d += vals[j] * x[cols[j]];
+						}
+						res = Math.max(res, Math.abs(d));
+						max = Math.max(max, Math.abs(x[r]));
+					}
+					assertTrue(res <= 10 * epsilon * (absolute ? 1.0 : max), desc);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testReachProbs() throws PrismException
+	{
+		for (long seed = 0; seed < 5; seed++) {
+			MDPSimple<Double> mdp = buildRandomTargetSinkMDP(200, 3, seed);
+			BitSet target = target(mdp.getNumStates());
+			for (boolean min : new boolean[] { true, false }) {
+				double expected[] = modelChecker(null, null, false).computeReachProbs(mdp, target, min).soln;
+				for (SparseLinearSolver.Method solver : SparseLinearSolver.Method.values()) {
+					for (boolean topological : new boolean[] { false, true }) {
+						assertClose(expected, modelChecker(ProbModelChecker.MDPSolnMethod.POLICY_ITERATION, solver, topological).computeReachProbs(mdp, target, min).soln);
+					}
+					assertClose(expected, modelChecker(ProbModelChecker.MDPSolnMethod.MODIFIED_POLICY_ITERATION, solver, false).computeReachProbs(mdp, target, min).soln);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testReachRewards() throws PrismException
+	{
+		for (long seed = 0; seed < 5; seed++) {
+			MDPSimple<Double> mdp = buildRandomTargetSinkMDP(200, 3, seed);
+			StateRewardsSimple<Double> rewards = buildRandomRewards(mdp.getNumStates(), seed);
+			BitSet target = target(mdp.getNumStates());
+			for (boolean min : new boolean[] { true, false }) {
+				double expected[] = modelChecker(null, null, false).computeReachRewards(mdp, rewards, target, min).soln;
+				for (SparseLinearSolver.Method solver : SparseLinearSolver.Method.values()) {
+					for (boolean topological : new boolean[] { false, true }) {
+						assertClose(expected, modelChecker(ProbModelChecker.MDPSolnMethod.POLICY_ITERATION, solver, topological).computeReachRewards(mdp, rewards, target, min).soln);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomMDP;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismComponent;
+
+public class PredecessorRelationTest
+{
+	@Test
+	public void testPredecessors()
+	{
+		MDPSimple<Double> mdp = buildRandomMDP(500, 1);
+		PredecessorRelation pre = new PredecessorRelation(mdp);
+		for (int t = 0; t < mdp.getNumStates(); t++) {
+			List<Integer> expected = new ArrayList<>();
+			for (int s = 0; s < mdp.getNumStates(); s++) {
+				if (mdp.isSuccessor(s, t))
+					expected.add(s);
+			}
+			List<Integer> actual = new ArrayList<>();
+			for (PrimitiveIterator.OfInt it = pre.getPredecessorsIterator(t); it.hasNext();) {
+				actual.add(it.nextInt());
+			}
+			assertEquals(expected, actual);
+			assertEquals(expected.size(), pre.getNumPredecessors(t));
+			List<Integer> actualIterable = new ArrayList<>();
+			pre.getPre(t).forEach(actualIterable::add);
+			assertEquals(expected, actualIterable);
+		}
+	}
+
+	@Test
+	public void testPreStar()
+	{
+		MDPSimple<Double> mdp = buildRandomMDP(500, 2);
+		PredecessorRelation pre = new PredecessorRelation(mdp);
+		Random random = new Random(3);
+		BitSet target = new BitSet(), remain = new BitSet(), absorbing = new BitSet();
+		for (int s = 0; s < mdp.getNumStates(); s++) {
+			target.set(s, random.nextInt(50) == 0);
+			remain.set(s, random.nextInt(10) != 0);
+			absorbing.set(s, random.nextInt(20) == 0);
+		}
+		// Compare with a fixed-point computation
+		BitSet expected = (BitSet) target.clone();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int s = 0; s < mdp.getNumStates(); s++) {
+				if (!expected.get(s) && remain.get(s) && !absorbing.get(s) && mdp.someSuccessorsInSet(s, expected)) {
+					expected.set(s);
+					changed = true;
+				}
+			}
+		}
+		assertEquals(expected, pre.calculatePreStar(remain, target, absorbing));
+	}
+
+	@Test
+	public void testIncomingChoices()
+	{
+		MDPSimple<Double> mdp = buildRandomMDP(500, 4);
+		IncomingChoiceRelation incoming = new IncomingChoiceRelation(mdp);
+		for (int t = 0; t < mdp.getNumStates(); t++) {
+			final int target = t;
+			List<IncomingChoiceRelation.Choice> expected = new ArrayList<>();
+			for (int s = 0; s < mdp.getNumStates(); s++) {
+				for (int i = 0; i < mdp.getNumChoices(s); i++) {
+					if (mdp.someSuccessorsMatch(s, i, u -> u == target))
+						expected.add(new IncomingChoiceRelation.Choice(s, i));
+				}
+			}
+			List<IncomingChoiceRelation.Choice> actual = new ArrayList<>();
+			for (IncomingChoiceRelation.ChoiceIterator it = incoming.getIncomingChoicesIterator(t); it.hasNext();) {
+				int s = it.nextInt();
+				actual.add(new IncomingChoiceRelation.Choice(s, it.getChoice()));
+			}
+			assertEquals(expected, actual);
+			assertEquals(expected.size(), incoming.getNumIncomingChoices(t));
+			List<IncomingChoiceRelation.Choice> actualIterable = new ArrayList<>();
+			incoming.getIncomingChoices(t).forEach(actualIterable::add);
+			assertEquals(expected, actualIterable);
+		}
+	}
+
+	/**
+	 * Stored relations are cleared when the model is modified.
+	 */
+	@Test
+	public void testInvalidation()
+	{
+		PrismComponent parent = new PrismComponent();
+		MDPSimple<Double> mdp = buildRandomMDP(100, 5);
+		PredecessorRelation pre = mdp.getPredecessorRelation(parent, true);
+		IncomingChoiceRelation incoming = mdp.getIncomingChoiceRelation(parent, true);
+		assertSame(pre, mdp.getPredecessorRelation(parent, true));
+		assertSame(incoming, mdp.getIncomingChoiceRelation(parent, true));
+		int s = mdp.addState();
+		Distribution<Double> distr = Distribution.ofDouble();
+		distr.add(0, 1.0);
+		mdp.addChoice(s, distr);
+		assertFalse(mdp.hasStoredPredecessorRelation());
+		assertFalse(mdp.hasStoredIncomingChoiceRelation());
+		PredecessorRelation preNew = mdp.getPredecessorRelation(parent, true);
+		assertNotSame(pre, preNew);
+		// (predecessors are in ascending order, so the new state is the last one)
+		int last = -1;
+		for (int p : preNew.getPre(0)) {
+			last = p;
+		}
+		assertEquals(s, last);
+		assertEquals(1, mdp.getIncomingChoiceRelation(parent, true).getNumIncomingChoices(0) - incoming.getNumIncomingChoices(0));
+
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(3);
+		dtmc.setProbability(0, 1, 1.0);
+		assertEquals(0, dtmc.getPredecessorRelation(parent, true).getNumPredecessors(2));
+		dtmc.setProbability(1, 2, 1.0);
+		assertEquals(1, dtmc.getPredecessorRelation(parent, true).getNumPredecessors(2));
+	}
+}
@@ -0,0 +1,315 @@
+package explicit;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import explicit.rewards.StateRewardsSimple;
+
+/**
+ * Seeded random models (and state sets) shared by the unit tests.
+ */
+public class RandomModels
+{
+	/**
+	 * A random MDP with {@code n} states, 0-3 choices per state and uniform successors.
+	 */
+	public static MDPSimple<Double> buildRandomMDP(int n, long seed)
+	{
+		Random random = new Random(seed);
+		MDPSimple<Double> mdp = new MDPSimple<>(n);
+		for (int s = 0; s < n; s++) {
+			int numChoices = random.nextInt(4);
+			for (int i = 0; i < numChoices; i++) {
+				Distribution<Double> distr = Distribution.ofDouble();
+				int numSuccs = 1 + random.nextInt(3);
+				for (int j = 0; j < numSuccs; j++) {
+					distr.add(random.nextInt(n), 1.0 / numSuccs);
+				}
+				mdp.addChoice(s, distr);
+			}
+		}
+		return mdp;
+	}
+
+	/**
+	 * A random MDP with {@code n} states, where states >= n-2 are absorbing.
+	 */
+	public static MDPSimple<Double> buildRandomAbsorbingMDP(int n, long seed)
+	{
+		Random random = new Random(seed);
+		MDPSimple<Double> mdp = new MDPSimple<>(n);
+		mdp.addInitialState(0);
+		for (int s = 0; s < n; s++) {
+			int numChoices = s >= n - 2 ? 1 : 1 + random.nextInt(3);
+			for (int i = 0; i < numChoices; i++) {
+				Distribution<Double> distr = Distribution.ofDouble();
+				if (s >= n - 2) {
+					distr.add(s, 1.0);
+				} else {
+					int numSuccs = 1 + random.nextInt(4);
+					for (int j = 0; j < numSuccs; j++) {
+						distr.add(random.nextInt(n), 1.0 / numSuccs);
+					}
+				}
+				mdp.addChoice(s, distr);
+			}
+		}
+		return mdp;
+	}
+
+	/**
+	 * A random MDP with {@code n} states, an absorbing target (state n-1) and sink (state n-2);
+	 * with {@code maxChoices} 1, this is a DTMC (stored as an MDP).
+	 */
+	public static MDPSimple<Double> buildRandomTargetSinkMDP(int n, int maxChoices, long seed)
+	{
+		Random random = new Random(seed);
+		MDPSimple<Double> mdp = new MDPSimple<>(n);
+		mdp.addInitialState(0);
+		for (int s = 0; s < n - 2; s++) {
+			int numChoices = 1 + random.nextInt(maxChoices);
+			for (int i = 0; i < numChoices; i++) {
+				Distribution<Double> distr = Distribution.ofDouble();
+				double p = 0.05 + 0.9 * random.nextDouble();
+				distr.add(random.nextInt(n), p);
+				distr.add(random.nextInt(n), 1 - p);
+				mdp.addChoice(s, distr);
+			}
+		}
+		for (int s = n - 2; s < n; s++) {
+			Distribution<Double> distr = Distribution.ofDouble();
+			distr.add(s, 1.0);
+			mdp.addChoice(s, distr);
+		}
+		return mdp;
+	}
+
+	/**
+	 * Random (small, integer) state rewards for {@code n} states, zero for the last two
+	 * (the target and sink of {@link #buildRandomTargetSinkMDP}).
+	 */
+	public static StateRewardsSimple<Double> buildRandomRewards(int n, long seed)
+	{
+		Random random = new Random(seed);
+		StateRewardsSimple<Double> rewards = new StateRewardsSimple<>();
+		for (int s = 0; s < n - 2; s++) {
+			rewards.setStateReward(s, (double) random.nextInt(4));
+		}
+		return rewards;
+	}
+
+	/**
+	 * A random MDP with {@code n} states and mostly local transitions: successors are within {@code range}
+	 * of the state, except for one in {@code farOdds}, which goes anywhere. If {@code deadlocks},
+	 * about one in 20 states has no choices. With {@code maxChoices} 1 (and no deadlocks),
+	 * this is a DTMC (stored as an MDP).
+	 */
+	public static MDPSimple<Double> buildRandomLocalMDP(int n, int maxChoices, boolean deadlocks, int range, int farOdds, long seed)
+	{
+		Random random = new Random(seed);
+		MDPSimple<Double> mdp = new MDPSimple<>(n);
+		mdp.addInitialState(0);
+		for (int s = 0; s < n; s++) {
+			int numChoices = deadlocks && random.nextInt(20) == 0 ? 0 : 1 + random.nextInt(maxChoices);
+			for (int i = 0; i < numChoices; i++) {
+				Distribution<Double> distr = Distribution.ofDouble();
+				int numSuccs = 1 + random.nextInt(3);
+				for (int j = 0; j < numSuccs; j++) {
+					int t = random.nextInt(farOdds) == 0 ? random.nextInt(n) : Math.max(0, Math.min(n - 1, s + random.nextInt(2 * range + 1) - range));
+					distr.add(t, 1.0 / numSuccs);
+				}
+				mdp.addChoice(s, distr);
+			}
+		}
+		return mdp;
+	}
+
+	/**
+	 * A random MDP with {@code n} states, (multiples of) quarter probabilities and mostly local
+	 * transitions; with {@code maxChoices} 1, this is a DTMC (stored as an MDP).
+	 */
+	public static MDPSimple<Double> buildRandomQuarterMDP(int n, int maxChoices, long seed)
+	{
+		Random random = new Random(seed);
+		MDPSimple<Double> mdp = new MDPSimple<>(n);
+		for (int s = 0; s < n; s++) {
+			int numChoices = 1 + random.nextInt(maxChoices);
+			for (int i = 0; i < numChoices; i++) {
+				Distribution<Double> distr = Distribution.ofDouble();
+				for (int j = 0; j < 4; j++) {
+					int t = random.nextInt(10) == 0 ? random.nextInt(n) : Math.max(0, Math.min(n - 1, s + random.nextInt(3) - 1));
+					distr.add(t, 0.25);
+				}
+				mdp.addChoice(s, distr);
+			}
+		}
+		return mdp;
+	}
+
+	/**
+	 * A random MDP with {@code n} states, whose states are numbered "randomly"
+	 * (transitions are local w.r.t. a hidden order), and a "target" label;
+	 * with {@code maxChoices} 1, this is a DTMC (stored as an MDP).
+	 */
+	public static MDPSimple<Double> buildRandomShuffledMDP(int n, int maxChoices, long seed)
+	{
+		Random random = new Random(seed);
+		int hidden[] = new int[n];
+		for (int i = 0; i < n; i++) {
+			int j = random.nextInt(i + 1);
+			hidden[i] = hidden[j];
+			hidden[j] = i;
+		}
+		MDPSimple<Double> mdp = new MDPSimple<>(n);
+		mdp.addInitialState(hidden[0]);
+		for (int i = 0; i < n; i++) {
+			int numChoices = 1 + random.nextInt(maxChoices);
+			for (int k = 0; k < numChoices; k++) {
+				Distribution<Double> distr = Distribution.ofDouble();
+				for (int j = 0; j < 2; j++) {
+					distr.add(hidden[Math.max(0, Math.min(n - 1, i + random.nextInt(5) - 2))], 0.5);
+				}
+				mdp.addChoice(hidden[i], distr);
+			}
+		}
+		BitSet target = new BitSet();
+		target.set(hidden[n - 1]);
+		mdp.addLabel("target", target);
+		return mdp;
+	}
+
+	/**
+	 * A random DTMC with {@code n} states, an absorbing target (state n-1) and sink (state n-2).
+	 * If {@code cyclic}, all states are instead connected in a cycle (so the DTMC is a single BSCC).
+	 */
+	public static DTMCSimple<Double> buildRandomTargetSinkDTMC(int n, boolean cyclic, long seed)
+	{
+		Random random = new Random(seed);
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(n);
+		dtmc.addInitialState(0);
+		int last = cyclic ? n : n - 2;
+		for (int s = 0; s < last; s++) {
+			double p = 0.05 + 0.9 * random.nextDouble();
+			double q = (1 - p) * random.nextDouble();
+			dtmc.addToProbability(s, cyclic ? (s + 1) % n : random.nextInt(n), p);
+			dtmc.addToProbability(s, random.nextInt(n), q);
+			dtmc.addToProbability(s, random.nextInt(n), 1 - p - q);
+		}
+		for (int s = last; s < n; s++) {
+			dtmc.addToProbability(s, s, 1.0);
+		}
+		return dtmc;
+	}
+
+	/**
+	 * A random DTMC with {@code n} states, with mostly local edges and some self-loops
+	 * (so that there are SCCs of different sizes).
+	 */
+	public static DTMCSimple<Double> buildRandomLocalDTMC(int n, long seed)
+	{
+		Random random = new Random(seed);
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(n);
+		for (int s = 0; s < n; s++) {
+			int numSuccs = random.nextInt(3);
+			for (int j = 0; j < numSuccs; j++) {
+				int t = random.nextInt(10) == 0 ? random.nextInt(n) : Math.max(0, Math.min(n - 1, s + random.nextInt(7) - 4));
+				dtmc.setProbability(s, t, 1.0 / numSuccs);
+			}
+		}
+		return dtmc;
+	}
+
+	/**
+	 * A random DTMC with {@code n} states, consisting of blocks of states with mostly local edges
+	 * (so that there are SCCs of very different sizes, chains of SCCs and trivial SCCs).
+	 */
+	public static DTMCSimple<Double> buildRandomBlockDTMC(int n, long seed)
+	{
+		Random random = new Random(seed);
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(n);
+		for (int s = 0; s < n; s++) {
+			// blocks with forward-only edges (chains of trivial SCCs), or with local edges in both directions
+			boolean forwardOnly = (s / 5000) % 3 == 0;
+			int numSuccs = random.nextInt(4);
+			for (int j = 0; j < numSuccs; j++) {
+				int t;
+				if (random.nextInt(1000) == 0) {
+					t = random.nextInt(n);
+				} else if (forwardOnly) {
+					t = Math.min(n - 1, s + 1 + random.nextInt(3));
+				} else {
+					t = Math.max(0, Math.min(n - 1, s + random.nextInt(9) - 4));
+				}
+				dtmc.setProbability(s, t, 1.0 / numSuccs);
+			}
+		}
+		return dtmc;
+	}
+
+	/**
+	 * A random CTMC with {@code n} states and rates spanning several orders of magnitude.
+	 */
+	public static CTMCSimple<Double> buildRandomCTMC(int n, long seed)
+	{
+		Random random = new Random(seed);
+		CTMCSimple<Double> ctmc = new CTMCSimple<>(n);
+		ctmc.addInitialState(0);
+		for (int s = 0; s < n; s++) {
+			int numSuccs = 1 + random.nextInt(4);
+			for (int i = 0; i < numSuccs; i++) {
+				ctmc.addToProbability(s, random.nextInt(n), Math.pow(10, random.nextInt(3)) * random.nextDouble());
+			}
+		}
+		return ctmc;
+	}
+
+	/**
+	 * A random CTMC with {@code n} states (including self-loops and some states without transitions).
+	 */
+	public static CTMCSimple<Double> buildRandomDeadlockCTMC(int n, long seed)
+	{
+		Random random = new Random(seed);
+		CTMCSimple<Double> ctmc = new CTMCSimple<>(n);
+		ctmc.addInitialState(0);
+		for (int s = 0; s < n; s++) {
+			if (random.nextInt(10) == 0) {
+				continue;
+			}
+			int numSuccs = 1 + random.nextInt(6);
+			for (int i = 0; i < numSuccs; i++) {
+				ctmc.addToProbability(s, random.nextInt(n), 10 * random.nextDouble());
+			}
+		}
+		return ctmc;
+	}
+
+	/**
+	 * A random CTMC with {@code n} states connected in a cycle, plus one random edge per state.
+	 * If {@code absorbingTarget}, state n-1 is absorbing; otherwise the CTMC is strongly connected.
+	 */
+	public static CTMCSimple<Double> buildRandomCyclicCTMC(int n, boolean absorbingTarget, long seed)
+	{
+		Random random = new Random(seed);
+		CTMCSimple<Double> ctmc = new CTMCSimple<>(n);
+		ctmc.addInitialState(0);
+		int last = absorbingTarget ? n - 1 : n;
+		for (int s = 0; s < last; s++) {
+			ctmc.addToProbability(s, (s + 1) % n, 0.5 + random.nextDouble());
+			ctmc.addToProbability(s, random.nextInt(n), 3 * random.nextDouble());
+		}
+		return ctmc;
+	}
+
+	/**
+	 * A random subset of {0..n-1}, containing each state with probability {@code percent}%.
+	 */
+	public static BitSet randomSet(int n, int percent, Random random)
+	{
+		BitSet set = new BitSet();
+		for (int s = 0; s < n; s++) {
+			if (random.nextInt(100) < percent)
+				set.set(s);
+		}
+		return set;
+	}
+}
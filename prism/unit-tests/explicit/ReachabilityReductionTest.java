@@ -0,0 +1,119 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomLocalMDP;
+import static explicit.RandomModels.randomSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class ReachabilityReductionTest
+{
+	private static DTMCSimple<Double> toDTMC(MDPSimple<Double> mdp)
+	{
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(mdp.getNumStates());
+		dtmc.addInitialState(0);
+		for (int s = 0; s < mdp.getNumStates(); s++) {
+			for (Map.Entry<Integer, Double> e : mdp.getChoice(s, 0)) {
+				dtmc.addToProbability(s, e.getKey(), e.getValue());
+			}
+		}
+		return dtmc;
+	}
+
+	private static void assertSameValues(double expected[], double actual[], BitSet statesOfInterest)
+	{
+		for (int s = 0; s < expected.length; s++) {
+			if (statesOfInterest == null || statesOfInterest.get(s)) {
+				assertEquals(expected[s], actual[s], 1e-6);
+			}
+		}
+	}
+
+	/**
+	 * Reachability probabilities for the states of interest are the same (up to convergence) with and without reduction.
+	 */
+	@Test
+	public void testReachProbs() throws PrismException
+	{
+		DTMCModelChecker dtmcMC = new DTMCModelChecker(new PrismComponent());
+		MDPModelChecker mdpMC = new MDPModelChecker(new PrismComponent());
+		// Convergence may be detected at different points, so use a stricter criterion than needed
+		dtmcMC.setTermCritParam(1e-12);
+		mdpMC.setTermCritParam(1e-12);
+		Random random = new Random(11);
+		for (int n : new int[] { 10, 200, 5000 }) {
+			MDPSimple<Double> mdp = buildRandomLocalMDP(n, 3, false, 3, 10, n);
+			DTMCSimple<Double> dtmc = toDTMC(buildRandomLocalMDP(n, 1, false, 3, 10, n));
+			for (int k = 0; k < 4; k++) {
+				BitSet target = randomSet(n, 2, random);
+				BitSet remain = k % 2 == 0 ? null : randomSet(n, 95, random);
+				BitSet statesOfInterest = k < 2 ? null : randomSet(n, 1, random);
+				dtmcMC.setReachReduction(false);
+				double expected[] = dtmcMC.computeUntilProbs(dtmc, remain, target, statesOfInterest).soln;
+				dtmcMC.setReachReduction(true);
+				assertSameValues(expected, dtmcMC.computeUntilProbs(dtmc, remain, target, statesOfInterest).soln, statesOfInterest);
+				for (boolean min : new boolean[] { false, true }) {
+					mdpMC.setReachReduction(false);
+					expected = mdpMC.computeUntilProbs(mdp, remain, target, min, statesOfInterest).soln;
+					mdpMC.setReachReduction(true);
+					assertSameValues(expected, mdpMC.computeUntilProbs(mdp, remain, target, min, statesOfInterest).soln, statesOfInterest);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A small DTMC: from 0, state 1 is yes, 2 is no, 3 is a maybe state
+	 * and 4 (a maybe state only reachable via yes state 1) is not relevant for state 0.
+	 */
+	@Test
+	public void testSmallDTMC() throws PrismException
+	{
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(6);
+		dtmc.addInitialState(0);
+		dtmc.setProbability(0, 1, 0.5);
+		dtmc.setProbability(0, 3, 0.5);
+		dtmc.setProbability(1, 4, 1.0);
+		dtmc.setProbability(2, 2, 1.0);
+		dtmc.setProbability(3, 1, 0.25);
+		dtmc.setProbability(3, 2, 0.5);
+		dtmc.setProbability(3, 5, 0.25);
+		dtmc.setProbability(4, 0, 1.0);
+		dtmc.setProbability(5, 2, 1.0);
+		BitSet yes = new BitSet();
+		yes.set(1);
+		BitSet no = new BitSet();
+		no.set(2);
+		no.set(5);
+		BitSet init = new BitSet();
+		init.set(0);
+		BitSet relevant = ReachabilityReduction.relevantStates(dtmc, no, yes, init);
+		BitSet expectedRelevant = new BitSet();
+		expectedRelevant.set(0);
+		expectedRelevant.set(3);
+		assertEquals(expectedRelevant, relevant);
+		ReachabilityReduction<DTMC<Double>> reduction = ReachabilityReduction.reduce(dtmc, no, yes, relevant);
+		DTMC<Double> reduced = reduction.getTransformedModel();
+		assertEquals(4, reduced.getNumStates());
+		assertEquals(2, reduction.getYesState());
+		assertEquals(3, reduction.getNoState());
+		assertEquals(1, reduced.getNumInitialStates());
+		assertEquals(0, reduced.getFirstInitialState());
+		// All transitions from 3 to no states are merged
+		assertEquals(2, reduced.getNumTransitions(1));
+		double soln[] = reduction.mapToOriginalModel(new double[] { 0.6, 0.2, 1.0, 0.0 });
+		assertEquals(6, soln.length);
+		assertEquals(0.6, soln[0]);
+		assertEquals(1.0, soln[1]);
+		assertEquals(0.0, soln[2]);
+		assertEquals(0.2, soln[3]);
+		assertEquals(0.0, soln[5]);
+	}
+}
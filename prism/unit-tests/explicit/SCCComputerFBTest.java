@@ -0,0 +1,153 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomBlockDTMC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class SCCComputerFBTest
+{
+	/**
+	 * SCC consumer that records all notifications (as a list of SCCs, each a list of states).
+	 */
+	private static class SCCRecorder implements SCCConsumer
+	{
+		List<List<Integer>> sccs = new ArrayList<>();
+
+		@Override
+		public void notifyStartSCC()
+		{
+			sccs.add(new ArrayList<>());
+		}
+
+		@Override
+		public void notifyStateInSCC(int stateIndex)
+		{
+			sccs.get(sccs.size() - 1).add(stateIndex);
+		}
+
+		@Override
+		public void notifyEndSCC()
+		{
+		}
+	}
+
+	private static List<List<Integer>> computeSCCs(SCCComputer.SCCMethod method, Model<?> model, int numThreads, boolean filterTrivialSCCs, IntPredicate restrict) throws PrismException
+	{
+		SCCRecorder recorder = new SCCRecorder();
+		SCCComputer sccComputer = SCCComputer.createSCCComputer(new PrismComponent(), method, model, recorder);
+		if (sccComputer instanceof SCCComputerFB) {
+			((SCCComputerFB) sccComputer).setNumThreads(numThreads);
+		}
+		sccComputer.computeSCCs(filterTrivialSCCs, restrict);
+		return recorder.sccs;
+	}
+
+	private static Set<Set<Integer>> asSets(List<List<Integer>> sccs)
+	{
+		Set<Set<Integer>> sets = new HashSet<>();
+		for (List<Integer> scc : sccs) {
+			sets.add(new HashSet<>(scc));
+		}
+		return sets;
+	}
+
+	/**
+	 * Check that the SCCs are in reverse topological order,
+	 * i.e., all (relevant) successors are in the same or an earlier SCC.
+	 */
+	private static void checkOrder(Model<?> model, List<List<Integer>> sccs, IntPredicate restrict)
+	{
+		int position[] = new int[model.getNumStates()];
+		Arrays.fill(position, -1);
+		for (int k = 0; k < sccs.size(); k++) {
+			for (int s : sccs.get(k)) {
+				position[s] = k;
+			}
+		}
+		for (int k = 0; k < sccs.size(); k++) {
+			for (int s : sccs.get(k)) {
+				for (SuccessorsIterator it = model.getSuccessors(s); it.hasNext();) {
+					int t = it.nextInt();
+					if (restrict == null || restrict.test(t)) {
+						assertTrue(position[t] <= k);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSameAsTarjan() throws PrismException
+	{
+		// small models (only Tarjan on subproblems) and large ones (forward-backward)
+		for (int n : new int[] { 1, 100, 5000, 300000 }) {
+			DTMCSimple<Double> dtmc = buildRandomBlockDTMC(n, n);
+			for (boolean filterTrivialSCCs : new boolean[] { false, true }) {
+				for (IntPredicate restrict : new IntPredicate[] { null, s -> s % 7 != 3 }) {
+					List<List<Integer>> expected = computeSCCs(SCCComputer.SCCMethod.TARJAN, dtmc, 1, filterTrivialSCCs, restrict);
+					List<List<Integer>> sccs = computeSCCs(SCCComputer.SCCMethod.FB, dtmc, 1, filterTrivialSCCs, restrict);
+					assertEquals(expected.size(), sccs.size());
+					assertEquals(asSets(expected), asSets(sccs));
+					checkOrder(dtmc, sccs, restrict);
+					// the result does not depend on the number of threads
+					assertEquals(sccs, computeSCCs(SCCComputer.SCCMethod.FB, dtmc, 4, filterTrivialSCCs, restrict));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLargeSCCs() throws PrismException
+	{
+		// A long cycle (one large SCC), followed by a long chain of 2-state SCCs
+		int n = 200000;
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(2 * n);
+		for (int s = 0; s < n; s++) {
+			dtmc.setProbability(s, (s + 1) % n, 0.5);
+			dtmc.setProbability(s, n, 0.5);
+		}
+		for (int s = n; s < 2 * n; s += 2) {
+			dtmc.setProbability(s, s + 1, 1.0);
+			dtmc.setProbability(s + 1, s, 0.5);
+			dtmc.setProbability(s + 1, Math.min(2 * n - 1, s + 2), 0.5);
+		}
+		List<List<Integer>> sccs = computeSCCs(SCCComputer.SCCMethod.FB, dtmc, 4, true, null);
+		assertEquals(asSets(computeSCCs(SCCComputer.SCCMethod.TARJAN, dtmc, 1, true, null)), asSets(sccs));
+		assertEquals(n / 2 + 1, sccs.size());
+		assertEquals(n, sccs.get(sccs.size() - 1).size());
+		checkOrder(dtmc, sccs, null);
+	}
+
+	@Test
+	public void testBSCCs() throws PrismException
+	{
+		DTMCSimple<Double> dtmc = buildRandomBlockDTMC(100000, 42);
+		List<BitSet> expected = new ArrayList<>();
+		List<BitSet> bsccs = new ArrayList<>();
+		for (SCCComputer.SCCMethod method : new SCCComputer.SCCMethod[] { SCCComputer.SCCMethod.TARJAN, SCCComputer.SCCMethod.FB }) {
+			List<BitSet> list = method == SCCComputer.SCCMethod.FB ? bsccs : expected;
+			SCCComputer.createSCCComputer(new PrismComponent(), method, dtmc, new SCCConsumerBSCCs()
+			{
+				@Override
+				public void notifyNextBSCC(BitSet bscc)
+				{
+					list.add((BitSet) bscc.clone());
+				}
+			}).computeSCCs(false, null);
+		}
+		assertEquals(new HashSet<>(expected), new HashSet<>(bsccs));
+	}
+}
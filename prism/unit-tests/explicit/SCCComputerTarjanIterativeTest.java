@@ -0,0 +1,82 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomLocalDTMC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class SCCComputerTarjanIterativeTest
+{
+	/**
+	 * SCC consumer that records all notifications (as a list of SCCs, each a list of states).
+	 */
+	private static class SCCRecorder implements SCCConsumer
+	{
+		List<List<Integer>> sccs = new ArrayList<>();
+
+		@Override
+		public void notifyStartSCC()
+		{
+			sccs.add(new ArrayList<>());
+		}
+
+		@Override
+		public void notifyStateInSCC(int stateIndex)
+		{
+			sccs.get(sccs.size() - 1).add(stateIndex);
+		}
+
+		@Override
+		public void notifyEndSCC()
+		{
+		}
+	}
+
+	private static List<List<Integer>> computeSCCs(SCCComputer.SCCMethod method, Model<?> model, boolean filterTrivialSCCs, IntPredicate restrict) throws PrismException
+	{
+		SCCRecorder recorder = new SCCRecorder();
+		SCCComputer.createSCCComputer(new PrismComponent(), method, model, recorder).computeSCCs(filterTrivialSCCs, restrict);
+		return recorder.sccs;
+	}
+
+	@Test
+	public void testSameAsRecursive() throws PrismException
+	{
+		for (long seed = 0; seed < 5; seed++) {
+			DTMCSimple<Double> dtmc = buildRandomLocalDTMC(2000, seed);
+			for (boolean filterTrivialSCCs : new boolean[] { false, true }) {
+				for (IntPredicate restrict : new IntPredicate[] { null, s -> s % 5 != 0 }) {
+					assertEquals(computeSCCs(SCCComputer.SCCMethod.TARJAN_RECURSIVE, dtmc, filterTrivialSCCs, restrict),
+							computeSCCs(SCCComputer.SCCMethod.TARJAN, dtmc, filterTrivialSCCs, restrict));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLongChain() throws PrismException
+	{
+		// A long chain 0 -> 1 -> ... -> n-1 -> 0 (too deep for a recursive implementation)
+		int n = 1000000;
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(n);
+		for (int s = 0; s < n; s++) {
+			dtmc.setProbability(s, (s + 1) % n, 1.0);
+		}
+		List<List<Integer>> sccs = computeSCCs(SCCComputer.SCCMethod.TARJAN, dtmc, true, null);
+		assertEquals(1, sccs.size());
+		assertEquals(n, sccs.get(0).size());
+		// Without the back edge, all SCCs are trivial
+		sccs = computeSCCs(SCCComputer.SCCMethod.TARJAN, dtmc, true, s -> s != n - 1);
+		assertEquals(0, sccs.size());
+		sccs = computeSCCs(SCCComputer.SCCMethod.TARJAN, dtmc, false, s -> s != n - 1);
+		assertEquals(n - 1, sccs.size());
+		assertEquals(n - 2, (int) sccs.get(0).get(0));
+	}
+}
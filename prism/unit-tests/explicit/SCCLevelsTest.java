@@ -0,0 +1,144 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.Test;
+
+import common.IntSet;
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class SCCLevelsTest
+{
+	/**
+	 * An MDP consisting of {@code k} independent "ladders", each a chain of SCCs
+	 * {2i, 2i+1} (looping, with a chance of moving to the next SCC),
+	 * which all end in the (absorbing) state 0 or 1.
+	 */
+	private static MDPSimple<Double> buildMDP(int k, int length)
+	{
+		int n = 2 + 2 * k * length;
+		MDPSimple<Double> mdp = new MDPSimple<>(n);
+		mdp.addInitialState(2);
+		for (int s = 0; s < 2; s++) {
+			Distribution<Double> distr = Distribution.ofDouble();
+			distr.add(s, 1.0);
+			mdp.addChoice(s, distr);
+		}
+		for (int i = 0; i < k; i++) {
+			for (int j = 0; j < length; j++) {
+				int s = 2 + 2 * (i * length + j);
+				// next SCC in the ladder, or one of the absorbing states
+				int next = j == length - 1 ? (i % 2) : s + 2;
+				Distribution<Double> distr = Distribution.ofDouble();
+				distr.add(s + 1, 0.5 + 0.01 * i);
+				distr.add(next, 0.5 - 0.01 * i);
+				mdp.addChoice(s, distr);
+				distr = Distribution.ofDouble();
+				distr.add(s + 1, 0.9);
+				distr.add(1, 0.1);
+				mdp.addChoice(s, distr);
+				distr = Distribution.ofDouble();
+				distr.add(s, 0.7);
+				distr.add(next, 0.3);
+				mdp.addChoice(s + 1, distr);
+			}
+		}
+		return mdp;
+	}
+
+	@Test
+	public void testLevels() throws PrismException
+	{
+		MDPSimple<Double> mdp = buildMDP(3, 4);
+		SCCInfo sccs = SCCComputer.computeTopologicalOrdering(new PrismComponent(), mdp, true);
+		SCCLevels levels = new SCCLevels(mdp, sccs);
+		// absorbing states on level 0, then one SCC per ladder on each level
+		assertEquals(5, levels.getNumLevels());
+		assertEquals(2, levels.getNumSCCsOnLevel(0));
+		assertEquals(3, levels.getMaxNumSCCsOnLevel());
+		int count = 0;
+		for (int k = 0; k < levels.getNumLevels(); k++) {
+			for (int i = 0; i < levels.getNumSCCsOnLevel(k); i++) {
+				int scc = levels.getSCCOnLevel(k, i);
+				count++;
+				// all successors in other SCCs are on lower levels
+				for (PrimitiveIterator.OfInt it = sccs.getStatesForSCC(scc).iterator(); it.hasNext();) {
+					for (SuccessorsIterator succs = mdp.getSuccessors(it.nextInt()); succs.hasNext();) {
+						int sccSucc = sccs.getSCCIndex(succs.nextInt());
+						if (sccSucc != scc) {
+							assertTrue(getLevel(levels, sccSucc) < k);
+						}
+					}
+				}
+			}
+		}
+		assertEquals(sccs.getNumSCCs(), count);
+	}
+
+	private static int getLevel(SCCLevels levels, int scc)
+	{
+		for (int k = 0; k < levels.getNumLevels(); k++) {
+			for (int i = 0; i < levels.getNumSCCsOnLevel(k); i++) {
+				if (levels.getSCCOnLevel(k, i) == scc) {
+					return k;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Iterating the SCCs of each level in parallel, using concurrent views,
+	 * gives identical results to iterating them one after the other.
+	 */
+	@Test
+	public void testConcurrentViews() throws Exception
+	{
+		MDPSimple<Double> mdp = buildMDP(8, 5);
+		int n = mdp.getNumStates();
+		SCCInfo sccs = SCCComputer.computeTopologicalOrdering(new PrismComponent(), mdp, true);
+		SCCLevels levels = new SCCLevels(mdp, sccs);
+		IterationMethod methods[] = { new IterationMethodPower(false, 1e-8), new IterationMethodGS(false, 1e-8, false) };
+		for (IterationMethod method : methods) {
+			double results[][] = new double[2][];
+			int strats[][] = new int[2][];
+			for (int t = 0; t < 2; t++) {
+				strats[t] = new int[n];
+				IterationMethod.IterationValIter iter = method.forMvMultMinMax(mdp, false, strats[t]);
+				double init[] = new double[n];
+				init[1] = 1.0;
+				iter.init(init);
+				for (int k = 1; k < levels.getNumLevels(); k++) {
+					List<Callable<Object>> tasks = new ArrayList<>();
+					for (int i = 0; i < levels.getNumSCCsOnLevel(k); i++) {
+						IntSet states = sccs.getStatesForSCC(levels.getSCCOnLevel(k, i));
+						IterationMethod.IterationValIter it = t == 0 ? iter : iter.concurrentView();
+						Callable<Object> task = () -> {
+							for (int j = 0; j < 10000 && !it.iterateAndCheckConvergence(states); j++)
+								;
+							it.doneWith(states);
+							return null;
+						};
+						if (t == 0) {
+							task.call();
+						} else {
+							tasks.add(task);
+						}
+					}
+					StatePartition.invokeAll(tasks, 4);
+				}
+				results[t] = iter.getSolnVector();
+			}
+			assertArrayEquals(results[0], results[1]);
+			assertArrayEquals(strats[0], strats[1]);
+		}
+	}
+}
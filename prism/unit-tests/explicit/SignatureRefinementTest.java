@@ -0,0 +1,188 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomQuarterMDP;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class SignatureRefinementTest
+{
+	private static DTMCSimple<Double> toDTMC(MDPSimple<Double> mdp)
+	{
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(mdp.getNumStates());
+		for (int s = 0; s < mdp.getNumStates(); s++) {
+			for (Map.Entry<Integer, Double> e : mdp.getChoice(s, 0)) {
+				dtmc.addToProbability(s, e.getKey(), e.getValue());
+			}
+		}
+		return dtmc;
+	}
+
+	/**
+	 * Compute the coarsest bisimulation refining {@code initial} in a naive way,
+	 * with blocks numbered by their lowest state.
+	 */
+	private static int[] naiveRefinement(MDP<Double> mdp, int initial[], double choiceRewards[][])
+	{
+		int n = mdp.getNumStates();
+		int partition[] = renumber(initial);
+		while (true) {
+			Map<List<Object>, Integer> ids = new HashMap<>();
+			int newPartition[] = new int[n];
+			for (int s = 0, c = 0; s < n; s++) {
+				Set<List<Object>> signature = new HashSet<>();
+				for (int i = 0; i < mdp.getNumChoices(s); i++, c++) {
+					Map<Integer, Double> lifted = new TreeMap<>();
+					for (Iterator<Map.Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, i); it.hasNext();) {
+						Map.Entry<Integer, Double> e = it.next();
+						lifted.merge(partition[e.getKey()], e.getValue(), Double::sum);
+					}
+					signature.add(List.of(lifted, choiceRewards == null ? List.of() : List.of(choiceRewards[c][0], choiceRewards[c][1])));
+				}
+				newPartition[s] = ids.computeIfAbsent(List.of(partition[s], signature), k -> ids.size());
+			}
+			newPartition = renumber(newPartition);
+			if (ids.size() == numBlocks(partition)) {
+				return newPartition;
+			}
+			partition = newPartition;
+		}
+	}
+
+	private static int[] renumber(int partition[])
+	{
+		Map<Integer, Integer> ids = new HashMap<>();
+		int result[] = new int[partition.length];
+		for (int s = 0; s < partition.length; s++) {
+			result[s] = ids.computeIfAbsent(partition[s], k -> ids.size());
+		}
+		return result;
+	}
+
+	private static int numBlocks(int partition[])
+	{
+		Set<Integer> blocks = new HashSet<>();
+		for (int b : partition) {
+			blocks.add(b);
+		}
+		return blocks.size();
+	}
+
+	private static int[] randomLabelling(int n, int numLabels, Random random)
+	{
+		int initial[] = new int[n];
+		for (int s = 0; s < n; s++) {
+			initial[s] = random.nextInt(numLabels);
+		}
+		// Blocks must be non-empty
+		return renumber(initial);
+	}
+
+	/**
+	 * Refinement for DTMCs gives the same partition as a naive computation, sequentially and in parallel.
+	 */
+	@Test
+	public void testRandomMC() throws PrismException
+	{
+		Random random = new Random(5);
+		for (int n : new int[] { 1, 10, 300, 20000 }) {
+			MDPSimple<Double> mdp = buildRandomQuarterMDP(n, 1, n);
+			DTMCSimple<Double> dtmc = toDTMC(mdp);
+			for (int numLabels : new int[] { 1, 2, 5 }) {
+				int initial[] = randomLabelling(n, numLabels, random);
+				int expected[] = naiveRefinement(mdp, initial, null);
+				for (int numThreads : new int[] { 1, 4 }) {
+					SignatureRefinement refinement = SignatureRefinement.forMC(dtmc);
+					refinement.setNumThreads(numThreads);
+					refinement.refine(initial, numBlocks(initial));
+					assertArrayEquals(expected, refinement.getPartition());
+					assertEquals(numBlocks(expected), refinement.getNumBlocks());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Refinement for MDPs (with choice rewards) gives the same partition as a naive computation.
+	 */
+	@Test
+	public void testRandomMDP() throws PrismException
+	{
+		Random random = new Random(7);
+		for (int n : new int[] { 1, 10, 300, 20000 }) {
+			MDPSimple<Double> mdp = buildRandomQuarterMDP(n, 3, n);
+			int numChoices = mdp.getNumChoices();
+			double choiceRewards[][] = new double[numChoices][2];
+			double flatRewards[] = new double[2 * numChoices];
+			for (int c = 0; c < numChoices; c++) {
+				choiceRewards[c][0] = flatRewards[2 * c] = random.nextInt(10) == 0 ? 1.0 : 0.0;
+				choiceRewards[c][1] = flatRewards[2 * c + 1] = random.nextInt(20) == 0 ? 2.0 : 0.0;
+			}
+			for (boolean rewards : new boolean[] { false, true }) {
+				int initial[] = randomLabelling(n, 2, random);
+				int expected[] = naiveRefinement(mdp, initial, rewards ? choiceRewards : null);
+				for (int numThreads : new int[] { 1, 4 }) {
+					SignatureRefinement refinement = rewards ? SignatureRefinement.forMDP(mdp, 2, flatRewards) : SignatureRefinement.forMDP(mdp, 0, null);
+					refinement.setNumThreads(numThreads);
+					refinement.refine(initial, numBlocks(initial));
+					assertArrayEquals(expected, refinement.getPartition());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Minimisation of a small MDP: states 1 and 2 (and 3 and 4) are bisimilar,
+	 * but 0 is not (it can also move to the "target" 5 directly).
+	 */
+	@Test
+	public void testMinimiseMDP() throws PrismException
+	{
+		MDPSimple<Double> mdp = new MDPSimple<>(6);
+		mdp.addInitialState(0);
+		addChoice(mdp, 0, 1, 0.5, 2, 0.5);
+		addChoice(mdp, 0, 5, 1.0);
+		addChoice(mdp, 1, 3, 1.0);
+		addChoice(mdp, 1, 4, 1.0);
+		addChoice(mdp, 2, 4, 1.0);
+		addChoice(mdp, 3, 5, 0.5, 3, 0.5);
+		addChoice(mdp, 4, 5, 0.5, 4, 0.5);
+		addChoice(mdp, 5, 5, 1.0);
+		BitSet target = new BitSet();
+		target.set(5);
+		Bisimulation<Double> bisim = new Bisimulation<>(new PrismComponent());
+		Model<Double> quotient = bisim.minimise(mdp, List.of("target"), new ArrayList<>(List.of(target)));
+		assertTrue(quotient instanceof MDP);
+		assertEquals(4, quotient.getNumStates());
+		assertEquals(1, quotient.getNumInitialStates());
+		MDP<Double> mdpQuotient = (MDP<Double>) quotient;
+		int init = quotient.getFirstInitialState();
+		assertEquals(2, mdpQuotient.getNumChoices(init));
+		assertEquals(1, quotient.getLabelStates("target").cardinality());
+	}
+
+	private static void addChoice(MDPSimple<Double> mdp, int s, Object... succs)
+	{
+		Distribution<Double> distr = Distribution.ofDouble();
+		for (int i = 0; i < succs.length; i += 2) {
+			distr.add((Integer) succs[i], (Double) succs[i + 1]);
+		}
+		mdp.addChoice(s, distr);
+	}
+}
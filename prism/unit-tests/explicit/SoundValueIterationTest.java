@@ -0,0 +1,135 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomTargetSinkMDP;
+import static explicit.RandomModels.buildRandomRewards;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import explicit.rewards.StateRewardsSimple;
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class SoundValueIterationTest
+{
+	private static final double EPS = 1e-6;
+
+	private static DTMCSimple<Double> toDTMC(MDPSimple<Double> mdp)
+	{
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(mdp.getNumStates());
+		dtmc.addInitialState(mdp.getFirstInitialState());
+		for (int s = 0; s < mdp.getNumStates(); s++) {
+			for (Map.Entry<Integer, Double> e : mdp.getChoice(s, 0)) {
+				dtmc.addToProbability(s, e.getKey(), e.getValue());
+			}
+		}
+		return dtmc;
+	}
+
+	private static BitSet target(int n)
+	{
+		BitSet target = new BitSet();
+		target.set(n - 1);
+		return target;
+	}
+
+	/**
+	 * Configure a model checker to compute (almost) exact values (variant -1)
+	 * or to use optimistic (0), optimistic topological (1) or sound (2) value iteration
+	 * with absolute precision {@link #EPS}.
+	 */
+	private static <MC extends ProbModelChecker> MC configure(MC mc, int variant)
+	{
+		mc.setTermCrit(ProbModelChecker.TermCrit.ABSOLUTE);
+		mc.setTermCritParam(variant < 0 ? 1e-14 : EPS);
+		mc.setMaxIters(1000000);
+		mc.setDoOptimisticValIter(variant == 0 || variant == 1);
+		mc.setDoTopologicalValueIteration(variant == 1);
+		mc.setDoSoundValIter(variant == 2);
+		return mc;
+	}
+
+	private static MDPModelChecker mdpModelChecker(int variant) throws PrismException
+	{
+		return configure(new MDPModelChecker(new PrismComponent()), variant);
+	}
+
+	private static DTMCModelChecker dtmcModelChecker(int variant) throws PrismException
+	{
+		return configure(new DTMCModelChecker(new PrismComponent()), variant);
+	}
+
+	private static void assertClose(double expected[], double actual[])
+	{
+		for (int s = 0; s < expected.length; s++) {
+			if (Double.isInfinite(expected[s])) {
+				assertEquals(expected[s], actual[s]);
+			} else {
+				assertEquals(expected[s], actual[s], EPS);
+			}
+		}
+	}
+
+	@Test
+	public void testMDPReachProbs() throws PrismException
+	{
+		for (long seed = 0; seed < 5; seed++) {
+			MDPSimple<Double> mdp = buildRandomTargetSinkMDP(200, 3, seed);
+			BitSet target = target(mdp.getNumStates());
+			for (boolean min : new boolean[] { true, false }) {
+				double expected[] = mdpModelChecker(-1).computeReachProbs(mdp, target, min).soln;
+				for (int variant = 0; variant < 3; variant++) {
+					ModelCheckerResult res = mdpModelChecker(variant).computeReachProbs(mdp, target, min);
+					assertClose(expected, res.soln);
+					assertTrue(res.accuracy.getErrorBound() <= EPS);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testMDPReachRewards() throws PrismException
+	{
+		for (long seed = 0; seed < 5; seed++) {
+			MDPSimple<Double> mdp = buildRandomTargetSinkMDP(200, 3, seed);
+			StateRewardsSimple<Double> rewards = buildRandomRewards(mdp.getNumStates(), seed);
+			BitSet target = target(mdp.getNumStates());
+			for (boolean min : new boolean[] { true, false }) {
+				double expected[] = mdpModelChecker(-1).computeReachRewards(mdp, rewards, target, min).soln;
+				for (int variant = 0; variant < 3; variant++) {
+					assertClose(expected, mdpModelChecker(variant).computeReachRewards(mdp, rewards, target, min).soln);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDTMC() throws PrismException
+	{
+		for (long seed = 0; seed < 5; seed++) {
+			DTMCSimple<Double> dtmc = toDTMC(buildRandomTargetSinkMDP(200, 1, seed));
+			StateRewardsSimple<Double> rewards = buildRandomRewards(dtmc.getNumStates(), seed);
+			BitSet target = target(dtmc.getNumStates());
+			double expectedProbs[] = dtmcModelChecker(-1).computeReachProbs(dtmc, target).soln;
+			double expectedRewards[] = dtmcModelChecker(-1).computeReachRewards(dtmc, rewards, target).soln;
+			for (int variant = 0; variant < 3; variant++) {
+				assertClose(expectedProbs, dtmcModelChecker(variant).computeReachProbs(dtmc, target).soln);
+				assertClose(expectedRewards, dtmcModelChecker(variant).computeReachRewards(dtmc, rewards, target).soln);
+			}
+		}
+	}
+
+	@Test
+	public void testOnlyOneMethod() throws PrismException
+	{
+		MDPModelChecker mc = mdpModelChecker(0);
+		mc.setDoSoundValIter(true);
+		MDPSimple<Double> mdp = buildRandomTargetSinkMDP(20, 2, 0);
+		assertThrows(PrismException.class, () -> mc.computeReachProbs(mdp, target(mdp.getNumStates()), false));
+	}
+}
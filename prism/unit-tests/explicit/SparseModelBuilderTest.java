@@ -0,0 +1,162 @@
+package explicit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import prism.PrismException;
+
+public class SparseModelBuilderTest
+{
+	@TempDir
+	Path tempDir;
+
+	private static void assertTransitions(Iterator<Map.Entry<Integer, Double>> it, int... colsAndHundredths)
+	{
+		for (int k = 0; k < colsAndHundredths.length; k += 2) {
+			assertTrue(it.hasNext());
+			Map.Entry<Integer, Double> e = it.next();
+			assertEquals(colsAndHundredths[k], e.getKey());
+			assertEquals(colsAndHundredths[k + 1] / 100.0, e.getValue(), 1e-12);
+		}
+		assertTrue(!it.hasNext());
+	}
+
+	@Test
+	public void testDTMC() throws PrismException
+	{
+		SparseModelBuilder builder = new SparseModelBuilder(false, true, true);
+		builder.addInitialState(0);
+		// State 0: duplicate targets (across choices) are merged
+		builder.startState();
+		builder.addTransition(2, 0.25);
+		builder.addTransition(1, 0.5);
+		builder.addTransition(2, 0.25);
+		// State 1: deadlock
+		builder.startState();
+		// State 2
+		builder.startState();
+		builder.addTransition(0, 0.0);
+		builder.addTransition(2, 1.0);
+		DTMCSparse dtmc = builder.buildDTMC(null);
+		assertEquals(3, dtmc.getNumStates());
+		assertEquals(4, dtmc.getNumTransitions());
+		assertEquals(0, dtmc.getFirstInitialState());
+		assertEquals(1, dtmc.getNumDeadlockStates());
+		assertTrue(dtmc.isDeadlockState(1));
+		assertTransitions(dtmc.getTransitionsIterator(0), 1, 50, 2, 50);
+		assertTransitions(dtmc.getTransitionsIterator(1), 1, 100);
+		assertTransitions(dtmc.getTransitionsIterator(2), 2, 100);
+	}
+
+	@Test
+	public void testMDPPermuted() throws PrismException
+	{
+		SparseModelBuilder builder = new SparseModelBuilder(true, true, false);
+		builder.addInitialState(0);
+		// State 0: two choices, one duplicate
+		builder.startState();
+		builder.startChoice("a");
+		builder.addTransition(1, 0.5);
+		builder.addTransition(0, 0.5);
+		builder.startChoice("b");
+		builder.addTransition(1, 1.0);
+		builder.startChoice("a");
+		builder.addTransition(0, 0.5);
+		builder.addTransition(1, 0.5);
+		// State 1: deadlock (not fixed)
+		builder.startState();
+		// Swap the two states
+		MDPSparse mdp = builder.buildMDP(new int[] { 1, 0 });
+		assertEquals(2, mdp.getNumStates());
+		assertEquals(2, mdp.getNumChoices());
+		assertEquals(3, mdp.getNumTransitions());
+		assertEquals(2, mdp.getMaxNumChoices());
+		assertEquals(1, mdp.getFirstInitialState());
+		assertTrue(mdp.isDeadlockState(0));
+		assertEquals(0, mdp.getNumChoices(0));
+		assertEquals("a", mdp.getAction(1, 0));
+		assertEquals("b", mdp.getAction(1, 1));
+		assertTransitions(mdp.getTransitionsIterator(1, 0), 0, 50, 1, 50);
+		assertTransitions(mdp.getTransitionsIterator(1, 1), 0, 100);
+	}
+
+	@Test
+	public void testMDPNoActions() throws PrismException
+	{
+		SparseModelBuilder builder = new SparseModelBuilder(true, false, false);
+		builder.startState();
+		builder.startChoice(null);
+		builder.addTransition(0, 1.0);
+		MDPSparse mdp = builder.buildMDP(null);
+		assertEquals(1, mdp.getNumChoices());
+		assertEquals(0, mdp.getNumDeadlockStates());
+		assertNull(mdp.getAction(0, 0));
+	}
+
+	/**
+	 * Add the states of a random MDP to {@code builder}, with (some) duplicate choices, actions and deadlocks.
+	 */
+	private static void addRandomMDP(SparseModelBuilder builder, int numStates, long seed) throws PrismException
+	{
+		Random random = new Random(seed);
+		builder.addInitialState(0);
+		builder.addInitialState(numStates - 1);
+		for (int s = 0; s < numStates; s++) {
+			builder.startState();
+			int numChoices = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(4);
+			for (int i = 0; i < numChoices; i++) {
+				builder.startChoice(random.nextBoolean() ? null : "a" + random.nextInt(3));
+				int numSuccs = 1 + random.nextInt(4);
+				for (int j = 0; j < numSuccs; j++) {
+					builder.addTransition(random.nextInt(numStates), 1.0 / numSuccs);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testMDPMapped() throws PrismException
+	{
+		int numStates = 500;
+		int permut[] = new int[numStates];
+		for (int s = 0; s < numStates; s++) {
+			permut[s] = (s * 7 + 3) % numStates;
+		}
+		for (int p[] : new int[][] { null, permut }) {
+			for (boolean fixDeadlocks : new boolean[] { false, true }) {
+				SparseModelBuilder builder = new SparseModelBuilder(true, true, fixDeadlocks);
+				addRandomMDP(builder, numStates, 42);
+				MDPSparse mdp = builder.buildMDP(p);
+				builder = new SparseModelBuilder(true, fixDeadlocks, tempDir.toFile());
+				addRandomMDP(builder, numStates, 42);
+				File file = tempDir.resolve("mdp.bin").toFile();
+				MDPSparseMapped mapped = builder.buildMDPMapped(p, file);
+				assertEquals(mdp.getNumChoices(), mapped.getNumChoices());
+				assertEquals(mdp.getNumTransitions(), mapped.getNumTransitions());
+				assertEquals(mdp.getMaxNumChoices(), mapped.getMaxNumChoices());
+				assertEquals(mdp.getNumDeadlockStates(), mapped.getNumDeadlockStates());
+				assertEquals(mdp.getFirstInitialState(), mapped.getFirstInitialState());
+				assertEquals(mdp.getNumInitialStates(), mapped.getNumInitialStates());
+				assertEquals(mdp.toString(), mapped.toString());
+				for (int s = 0; s < numStates; s++) {
+					for (int i = 0; i < mdp.getNumChoices(s); i++) {
+						assertEquals(mdp.getAction(s, i), mapped.getAction(s, i));
+					}
+				}
+				// Only the model file remains in the directory
+				assertEquals(1, tempDir.toFile().list().length);
+				file.delete();
+			}
+		}
+	}
+}
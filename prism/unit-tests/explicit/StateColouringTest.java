@@ -0,0 +1,146 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomAbsorbingMDP;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import org.junit.jupiter.api.Test;
+
+import common.IntSet;
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class StateColouringTest
+{
+	private static IntSet allStates(int n)
+	{
+		BitSet bs = new BitSet();
+		bs.set(0, n);
+		return IntSet.asIntSet(bs);
+	}
+
+	@Test
+	public void testColouring() throws PrismException
+	{
+		MDPSimple<Double> mdp = buildRandomAbsorbingMDP(20000, 1);
+		int n = mdp.getNumStates();
+		StateColouring colouring = new StateColouring(mdp, allStates(n), 4);
+		assertTrue(colouring.isParallel());
+		// Every state has exactly one colour, and no transition connects distinct states of the same colour
+		int colour[] = new int[n];
+		int count = 0;
+		for (int c = 0; c < colouring.getNumColours(); c++) {
+			for (int[] chunk : colouring.getColourClass(c).invokeAll(chunk -> chunk.stream().toArray())) {
+				for (int s : chunk) {
+					colour[s] = c;
+					count++;
+				}
+			}
+		}
+		assertEquals(n, count);
+		for (int s = 0; s < n; s++) {
+			for (SuccessorsIterator it = mdp.getSuccessors(s); it.hasNext();) {
+				int t = it.nextInt();
+				if (t != s) {
+					assertNotEquals(colour[s], colour[t]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSequential()
+	{
+		// Too small, or only one thread: no colouring
+		assertFalse(new StateColouring(buildRandomAbsorbingMDP(100, 2), allStates(100), 4).isParallel());
+		assertFalse(new StateColouring(buildRandomAbsorbingMDP(20000, 2), allStates(20000), 1).isParallel());
+	}
+
+	/**
+	 * Multi-colour Gauss-Seidel (with strategies) gives identical results
+	 * to sequential Gauss-Seidel sweeps over the colour classes, one after the other.
+	 */
+	@Test
+	public void testParallelIteration() throws PrismException
+	{
+		MDPSimple<Double> mdp = buildRandomAbsorbingMDP(20000, 4);
+		int n = mdp.getNumStates();
+		BitSet bs = new BitSet();
+		bs.set(0, n - 2);
+		IntSet unknown = IntSet.asIntSet(bs);
+		StateColouring colouring = new StateColouring(mdp, unknown, 4);
+		for (boolean min : new boolean[] { true, false }) {
+			// Multi-colour Gauss-Seidel
+			IterationMethodGS method = new IterationMethodGS(false, 1e-8, false);
+			method.setNumThreads(4);
+			method.setParallel(true);
+			int strat[] = new int[n];
+			IterationMethod.IterationValIter iter = method.forMvMultMinMax(mdp, min, strat);
+			double init[] = new double[n];
+			init[n - 1] = 1.0;
+			iter.init(init);
+			int iters = 0;
+			boolean done = false;
+			while (!done && iters < 1000) {
+				done = iter.iterateAndCheckConvergence(unknown);
+				iters++;
+			}
+			// Sequential sweeps in colour order
+			int strat2[] = new int[n];
+			double soln[] = new double[n];
+			soln[n - 1] = 1.0;
+			for (int i = 0; i < iters; i++) {
+				for (int c = 0; c < colouring.getNumColours(); c++) {
+					List<int[]> chunks = colouring.getColourClass(c).invokeAll(chunk -> chunk.stream().toArray());
+					for (int[] chunk : chunks) {
+						PrimitiveIterator.OfInt it = IntSet.asIntSet(toBitSet(chunk)).iterator();
+						mdp.mvMultGSMinMax(soln, min, it, false, strat2);
+					}
+				}
+			}
+			assertArrayEquals(soln, iter.getSolnVector());
+			assertArrayEquals(strat2, strat);
+		}
+	}
+
+	/**
+	 * Model checking with multi-colour Gauss-Seidel gives the same results as sequential Gauss-Seidel (up to precision).
+	 */
+	@Test
+	public void testModelChecking() throws PrismException
+	{
+		MDPSimple<Double> mdp = buildRandomAbsorbingMDP(20000, 5);
+		int n = mdp.getNumStates();
+		BitSet target = new BitSet();
+		target.set(n - 1);
+		for (boolean min : new boolean[] { true, false }) {
+			double results[][] = new double[2][];
+			for (int t = 0; t < 2; t++) {
+				MDPModelChecker mc = new MDPModelChecker(new PrismComponent());
+				mc.setMDPSolnMethod(ProbModelChecker.MDPSolnMethod.GAUSS_SEIDEL);
+				mc.setTermCrit(ProbModelChecker.TermCrit.ABSOLUTE);
+				mc.setTermCritParam(1e-12);
+				mc.setNumThreads(t == 0 ? 1 : 4);
+				mc.setDoParallelGS(t == 1);
+				results[t] = mc.computeReachProbs(mdp, target, min).soln;
+			}
+			assertArrayEquals(results[0], results[1], 1e-9);
+		}
+	}
+
+	private static BitSet toBitSet(int states[])
+	{
+		BitSet bs = new BitSet();
+		for (int s : states) {
+			bs.set(s);
+		}
+		return bs;
+	}
+}
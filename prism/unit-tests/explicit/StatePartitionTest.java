@@ -0,0 +1,143 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomAbsorbingMDP;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import common.IntSet;
+import prism.PrismException;
+
+public class StatePartitionTest
+{
+	@Test
+	public void testPartition() throws PrismException
+	{
+		MDPSimple<Double> mdp = buildRandomAbsorbingMDP(20000, 1);
+		BitSet bs = new BitSet();
+		bs.set(0, 20000);
+		bs.clear(100, 200);
+		IntSet states = IntSet.asIntSet(bs);
+		StatePartition partition = new StatePartition(mdp, states, 4);
+		assertTrue(partition.isParallel());
+		assertTrue(partition.getNumChunks() <= 4 * StatePartition.CHUNKS_PER_THREAD);
+		// Chunks cover all states, in order
+		List<int[]> chunks = partition.invokeAll(chunk -> chunk.stream().toArray());
+		List<Integer> all = new ArrayList<>();
+		for (int[] chunk : chunks) {
+			for (int s : chunk) {
+				all.add(s);
+			}
+		}
+		assertArrayEquals(states.stream().toArray(), all.stream().mapToInt(i -> i).toArray());
+		// Chunks have similar numbers of transitions
+		long total = mdp.getNumTransitions();
+		List<Long> counts = partition.invokeAll(chunk -> mdp.getNumTransitions(chunk.iterator()));
+		for (long count : counts) {
+			assertTrue(count < 2 * total / partition.getNumChunks());
+		}
+	}
+
+	@Test
+	public void testSequential() throws PrismException
+	{
+		MDPSimple<Double> mdp = buildRandomAbsorbingMDP(100, 2);
+		BitSet bs = new BitSet();
+		bs.set(0, 100);
+		IntSet states = IntSet.asIntSet(bs);
+		// Too small, or only one thread: a single chunk
+		assertFalse(new StatePartition(mdp, states, 4).isParallel());
+		assertEquals(1, new StatePartition(buildRandomAbsorbingMDP(20000, 1), states, 1).getNumChunks());
+	}
+
+	@Test
+	public void testException()
+	{
+		MDPSimple<Double> mdp = buildRandomAbsorbingMDP(20000, 3);
+		BitSet bs = new BitSet();
+		bs.set(0, 20000);
+		StatePartition partition = new StatePartition(mdp, IntSet.asIntSet(bs), 2);
+		assertThrows(PrismException.class, () -> partition.invokeAll(chunk -> {
+			throw new PrismException("error");
+		}));
+	}
+
+	/**
+	 * Requesting a different number of threads does not disturb tasks already running on another pool.
+	 */
+	@Test
+	public void testDifferentNumThreadsConcurrently() throws Exception
+	{
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Callable<Integer>> slowTasks = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			int value = i;
+			slowTasks.add(() -> {
+				started.countDown();
+				release.await();
+				return value;
+			});
+		}
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<List<Integer>> slow = executor.submit(() -> StatePartition.invokeAll(slowTasks, 2));
+			started.await();
+			List<Callable<Integer>> fastTasks = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				int value = i;
+				fastTasks.add(() -> value * 10);
+			}
+			assertEquals(List.of(0, 10, 20), StatePartition.invokeAll(fastTasks, 3));
+			release.countDown();
+			assertEquals(List.of(0, 1), slow.get());
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Parallel value iteration (with strategies) gives identical results to sequential.
+	 */
+	@Test
+	public void testParallelIteration() throws PrismException
+	{
+		MDPSimple<Double> mdp = buildRandomAbsorbingMDP(20000, 4);
+		int n = mdp.getNumStates();
+		BitSet bs = new BitSet();
+		bs.set(0, n - 2);
+		IntSet unknown = IntSet.asIntSet(bs);
+		for (boolean min : new boolean[] { true, false }) {
+			double results[][] = new double[2][];
+			int strats[][] = new int[2][];
+			for (int t = 0; t < 2; t++) {
+				IterationMethodPower method = new IterationMethodPower(false, 1e-8);
+				method.setNumThreads(t == 0 ? 1 : 4);
+				strats[t] = new int[n];
+				IterationMethod.IterationValIter iter = method.forMvMultMinMax(mdp, min, strats[t]);
+				double init[] = new double[n];
+				init[n - 1] = 1.0;
+				iter.init(init);
+				for (int i = 0; i < 1000 && !iter.iterateAndCheckConvergence(unknown); i++)
+					;
+				results[t] = iter.getSolnVector();
+			}
+			assertArrayEquals(results[0], results[1]);
+			assertArrayEquals(strats[0], strats[1]);
+		}
+	}
+}
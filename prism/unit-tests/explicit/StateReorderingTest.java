@@ -0,0 +1,179 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomShuffledMDP;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class StateReorderingTest
+{
+	private static DTMCSimple<Double> toDTMC(MDPSimple<Double> mdp)
+	{
+		DTMCSimple<Double> dtmc = new DTMCSimple<>(mdp.getNumStates());
+		dtmc.addInitialState(mdp.getFirstInitialState());
+		for (int s = 0; s < mdp.getNumStates(); s++) {
+			for (Map.Entry<Integer, Double> e : mdp.getChoice(s, 0)) {
+				dtmc.addToProbability(s, e.getKey(), e.getValue());
+			}
+		}
+		return dtmc;
+	}
+
+	private static int bandwidth(Model<?> model)
+	{
+		int bandwidth = 0;
+		for (int s = 0; s < model.getNumStates(); s++) {
+			SuccessorsIterator it = model.getSuccessors(s);
+			while (it.hasNext()) {
+				bandwidth = Math.max(bandwidth, Math.abs(it.nextInt() - s));
+			}
+		}
+		return bandwidth;
+	}
+
+	private static void assertPermutation(int permut[])
+	{
+		BitSet seen = new BitSet();
+		for (int i : permut) {
+			assertTrue(i >= 0 && i < permut.length && !seen.get(i));
+			seen.set(i);
+		}
+	}
+
+	/**
+	 * Each order gives a permutation, with the model (and labels) permuted accordingly.
+	 */
+	@Test
+	public void testPermutations() throws PrismException
+	{
+		for (int n : new int[] { 1, 10, 1000 }) {
+			MDPSimple<Double> mdp = buildRandomShuffledMDP(n, 3, n);
+			MDPSparse mdpSparse = new MDPSparse(mdp);
+			mdpSparse.addLabel("target", mdp.getLabelStates("target"));
+			for (StateReordering.Order order : StateReordering.Order.values()) {
+				for (MDP<Double> model : new MDP[] { mdp, mdpSparse }) {
+					StateReordering<Model<Double>> reordering = StateReordering.reorder(new PrismComponent(), model, order);
+					int permut[] = reordering.getPermutation();
+					assertPermutation(permut);
+					MDP<Double> reordered = (MDP<Double>) reordering.getTransformedModel();
+					assertEquals(model.getClass(), reordered.getClass());
+					assertEquals(model.getNumTransitions(), reordered.getNumTransitions());
+					assertEquals(permut[model.getFirstInitialState()], reordered.getFirstInitialState());
+					assertEquals(permut[model.getLabelStates("target").nextSetBit(0)], reordered.getLabelStates("target").nextSetBit(0));
+					for (int s = 0; s < n; s++) {
+						assertEquals(model.getNumChoices(s), reordered.getNumChoices(permut[s]));
+						for (int i = 0; i < model.getNumChoices(s); i++) {
+							assertEquals(model.getNumTransitions(s, i), reordered.getNumTransitions(permut[s], i));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reverse Cuthill-McKee order reduces the bandwidth of a badly numbered model.
+	 */
+	@Test
+	public void testBandwidth() throws PrismException
+	{
+		DTMCSimple<Double> dtmc = toDTMC(buildRandomShuffledMDP(2000, 1, 3));
+		int before = bandwidth(dtmc);
+		int after = bandwidth(StateReordering.reorder(new PrismComponent(), dtmc, StateReordering.Order.RCM).getTransformedModel());
+		assertTrue(after < 10 && after < before, "bandwidth " + before + " -> " + after);
+	}
+
+	/**
+	 * Reverse Cuthill-McKee order recovers the optimal (bandwidth 1) numbering of a birth-death chain,
+	 * in which every edge is present in both directions.
+	 */
+	@Test
+	public void testBandwidthSymmetric() throws PrismException
+	{
+		int n = 500;
+		Random random = new Random(5);
+		int hidden[] = new int[n];
+		for (int i = 0; i < n; i++) {
+			int j = random.nextInt(i + 1);
+			hidden[i] = hidden[j];
+			hidden[j] = i;
+		}
+		CTMCSimple<Double> ctmc = new CTMCSimple<>(n);
+		ctmc.addInitialState(hidden[0]);
+		for (int i = 0; i < n - 1; i++) {
+			ctmc.addToProbability(hidden[i], hidden[i + 1], 2.0);
+			ctmc.addToProbability(hidden[i + 1], hidden[i], 1.0);
+		}
+		assertEquals(1, bandwidth(StateReordering.reorder(new PrismComponent(), ctmc, StateReordering.Order.RCM).getTransformedModel()));
+	}
+
+	/**
+	 * A reordering can be stored with the model and reused (for the same order).
+	 */
+	@Test
+	public void testStored() throws PrismException
+	{
+		MDPSimple<Double> mdp = buildRandomShuffledMDP(100, 2, 7);
+		PrismComponent parent = new PrismComponent();
+		assertFalse(StateReordering.hasStored(mdp, StateReordering.Order.RCM));
+		StateReordering<Model<Double>> reordering = StateReordering.reorder(parent, mdp, StateReordering.Order.RCM, true);
+		assertTrue(StateReordering.hasStored(mdp, StateReordering.Order.RCM));
+		assertSame(reordering, StateReordering.reorder(parent, mdp, StateReordering.Order.RCM, true));
+		// Labels added later are added to the reordered model too
+		BitSet init = new BitSet();
+		init.set(mdp.getFirstInitialState());
+		mdp.addLabel("first", init);
+		Model<Double> reordered = StateReordering.reorder(parent, mdp, StateReordering.Order.RCM, true).getTransformedModel();
+		assertEquals(reordered.getFirstInitialState(), reordered.getLabelStates("first").nextSetBit(0));
+		// A different order is computed (and stored) anew
+		assertNotSame(reordering, StateReordering.reorder(parent, mdp, StateReordering.Order.BFS, true));
+		assertTrue(StateReordering.hasStored(mdp, StateReordering.Order.BFS));
+		assertFalse(StateReordering.hasStored(mdp, StateReordering.Order.RCM));
+		// Changing the model discards it
+		mdp.addChoice(0, mdp.getChoice(0, 0));
+		assertFalse(StateReordering.hasStored(mdp, StateReordering.Order.BFS));
+	}
+
+	@Test
+	public void testSupported()
+	{
+		assertTrue(StateReordering.isSupported(new MDPSimple<Double>(1)));
+		assertTrue(StateReordering.isSupported(new CTMCSimple<Double>(1)));
+		assertFalse(StateReordering.isSupported(new POMDPSimple<Double>(1)));
+		assertFalse(StateReordering.isSupported(new LTSSimple<Double>(1)));
+		assertFalse(StateReordering.isSupported(new STPGSimple<Double>(1)));
+	}
+
+	/**
+	 * Reachability probabilities are the same, after mapping back, for all orders.
+	 */
+	@Test
+	public void testReachProbs() throws PrismException
+	{
+		MDPModelChecker mc = new MDPModelChecker(new PrismComponent());
+		mc.setTermCritParam(1e-12);
+		MDPSimple<Double> mdp = buildRandomShuffledMDP(500, 3, 17);
+		BitSet target = mdp.getLabelStates("target");
+		double expected[] = mc.computeReachProbs(mdp, target, true).soln;
+		for (StateReordering.Order order : StateReordering.Order.values()) {
+			StateReordering<Model<Double>> reordering = StateReordering.reorder(new PrismComponent(), mdp, order);
+			MDP<Double> reordered = (MDP<Double>) reordering.getTransformedModel();
+			double soln[] = mc.computeReachProbs(reordered, reordered.getLabelStates("target"), true).soln;
+			double mapped[] = reordering.projectToOriginalModel(StateValues.createFromDoubleArray(soln, reordered)).getDoubleArray();
+			for (int s = 0; s < mdp.getNumStates(); s++) {
+				assertEquals(expected[s], mapped[s], 1e-8);
+			}
+		}
+	}
+}
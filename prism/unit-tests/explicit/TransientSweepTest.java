@@ -0,0 +1,90 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomCyclicCTMC;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import parser.Values;
+import parser.ast.Expression;
+import parser.ast.ExpressionBinaryOp;
+import parser.ast.ExpressionConstant;
+import parser.ast.ExpressionLiteral;
+import parser.type.TypeDouble;
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class TransientSweepTest
+{
+	private static final double EPS = 1e-10;
+
+	@Test
+	public void testBatchedTransientBackwardsProbs() throws PrismException
+	{
+		CTMCModelChecker mc = new CTMCModelChecker(new PrismComponent());
+		for (long seed = 0; seed < 3; seed++) {
+			CTMCSimple<Double> ctmc = buildRandomCyclicCTMC(200, true, seed);
+			BitSet target = new BitSet();
+			target.set(ctmc.getNumStates() - 1);
+			BitSet nonAbs = new BitSet();
+			nonAbs.set(0, ctmc.getNumStates() - 1);
+			double times[] = { 0.0, 0.5, 1.0, 2.5, 10.0, 40.0 };
+			ModelCheckerResult results[] = mc.computeTransientBackwardsProbs(ctmc, target, nonAbs, times, null);
+			assertEquals(times.length, results.length);
+			for (int j = 0; j < times.length; j++) {
+				ModelCheckerResult expected = mc.computeTransientBackwardsProbs(ctmc, target, nonAbs, times[j], null);
+				assertArrayEquals(expected.soln, results[j].soln, EPS, "t=" + times[j]);
+				// Same steady-state detection as for a single time point
+				assertEquals(expected.numIters, results[j].numIters, "t=" + times[j]);
+				if (times[j] > 0) {
+					assertEquals(expected.accuracy.getErrorBound(), results[j].accuracy.getErrorBound(), 1e-15, "t=" + times[j]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPropertyConstantSweep() throws PrismException
+	{
+		// Sweep over T=1..5 (and a non-ranging constant k)
+		List<Values> sweepValues = new ArrayList<>();
+		for (int t = 1; t <= 5; t++) {
+			Values values = new Values();
+			values.addValue("k", 2.0);
+			values.addValue("T", (double) t);
+			sweepValues.add(values);
+		}
+		PropertyConstantSweep sweep = new PropertyConstantSweep(sweepValues);
+		assertEquals(5, sweep.getNumIterations());
+		Expression exprT = new ExpressionConstant("T", TypeDouble.getInstance());
+		Expression exprK = new ExpressionConstant("k", TypeDouble.getInstance());
+		assertTrue(sweep.dependsOnSweep(exprT));
+		assertFalse(sweep.dependsOnSweep(exprK));
+		Expression bound = new ExpressionBinaryOp(ExpressionBinaryOp.TIMES, exprK, exprT);
+		assertTrue(sweep.dependsOnSweep(bound));
+		assertArrayEquals(new double[] { 2, 4, 6, 8, 10 }, sweep.evaluateDoubleForSweep(bound, new Values()), 0.0);
+		assertArrayEquals(new double[] { 2 }, sweep.evaluateDoubleForSweep(new ExpressionBinaryOp(ExpressionBinaryOp.TIMES, exprK, new ExpressionLiteral(TypeDouble.getInstance(), 1.0)), new Values()), 0.0);
+
+		// Cached results are returned once, and only for the same model/states
+		CTMCSimple<Double> ctmc = buildRandomCyclicCTMC(10, true, 0);
+		BitSet target = new BitSet();
+		target.set(9);
+		double times[] = { 2, 4, 6 };
+		ModelCheckerResult results[] = { new ModelCheckerResult(), new ModelCheckerResult(), new ModelCheckerResult() };
+		sweep.putTransientBackwardsResults(ctmc, target, null, times, results);
+		assertNull(sweep.takeTransientBackwardsResult(ctmc, new BitSet(), null, 4));
+		assertNull(sweep.takeTransientBackwardsResult(buildRandomCyclicCTMC(10, true, 0), target, null, 4));
+		assertSame(results[1], sweep.takeTransientBackwardsResult(ctmc, target, null, 4));
+		assertNull(sweep.takeTransientBackwardsResult(ctmc, target, null, 4));
+		assertArrayEquals(new double[] { 2, 6, 8, 10 }, sweep.getPendingTimes(ctmc, target, null, new double[] { 2, 4, 6, 8, 10 }), 0.0);
+	}
+}
@@ -0,0 +1,105 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomCyclicCTMC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+import explicit.rewards.StateRewardsArray;
+import prism.Accuracy.AccuracyLevel;
+import prism.PrismComponent;
+import prism.PrismException;
+
+public class UniformisationSSDetectorTest
+{
+	private static CTMCModelChecker modelChecker(boolean ssDetect, boolean ssDetectSolve) throws PrismException
+	{
+		CTMCModelChecker mc = new CTMCModelChecker(new PrismComponent());
+		mc.setDoSSDetect(ssDetect);
+		mc.setDoSSDetectSolve(ssDetectSolve);
+		return mc;
+	}
+
+	/**
+	 * Check that {@code actual} is within the (reported) error bound of {@code expected},
+	 * allowing for the error in {@code expected} itself.
+	 */
+	private static void assertWithinBound(double expected[], ModelCheckerResult actual, double scale)
+	{
+		assertNotNull(actual.accuracy);
+		double bound = actual.accuracy.getErrorBound() + 2 * 1e-8 * scale;
+		for (int s = 0; s < expected.length; s++) {
+			assertEquals(expected[s], actual.soln[s], bound);
+		}
+	}
+
+	@Test
+	public void testTailSums()
+	{
+		// Weights 1..4 for iterations 1..4 (0 for iteration 0)
+		UniformisationSSDetector ssDetector = new UniformisationSSDetector(i -> i, 4, true, 0.0);
+		assertEquals(10.0, ssDetector.getTailWeight(), 0.0);
+		double v[] = { 1.0, 3.0 };
+		double prev[] = { 1.5, 3.0 };
+		// After iteration 1: tail weight 2+3+4, tail moment 1*2+2*3+3*4 = 20, diff 0.5, span 2
+		ssDetector.check(1, v, prev);
+		assertEquals(9.0, ssDetector.getTailWeight(), 0.0);
+		assertEquals(0.5, ssDetector.getDiff(), 0.0);
+		assertEquals(Math.min(0.5 * 20, 2.0 * 9), ssDetector.getErrorBound(), 1e-12);
+		// After iteration 3: tail weight 4, tail moment 4
+		ssDetector.check(3, v, prev);
+		assertEquals(4.0, ssDetector.getTailWeight(), 0.0);
+		assertEquals(Math.min(0.5 * 4, 2.0 * 4), ssDetector.getErrorBound(), 1e-12);
+	}
+
+	@Test
+	public void testTransientComputations() throws PrismException
+	{
+		for (long seed = 0; seed < 3; seed++) {
+			CTMCSimple<Double> ctmc = buildRandomCyclicCTMC(100, false, seed);
+			int n = ctmc.getNumStates();
+			double t = 200.0;
+			BitSet target = new BitSet();
+			target.set(n / 2, n);
+			BitSet nonAbs = new BitSet();
+			nonAbs.set(0, n);
+			StateRewardsArray rewards = new StateRewardsArray(n);
+			for (int s = 0; s < n; s++) {
+				rewards.setStateReward(s, s % 7);
+			}
+			double initDist[] = new double[n];
+			initDist[0] = 1.0;
+			for (boolean ssDetectSolve : new boolean[] { false, true }) {
+				CTMCModelChecker mcNoSS = modelChecker(false, false);
+				CTMCModelChecker mcSS = modelChecker(true, ssDetectSolve);
+
+				ModelCheckerResult expected = mcNoSS.computeTransientBackwardsProbs(ctmc, target, nonAbs, t, null);
+				assertNull(expected.accuracy);
+				ModelCheckerResult actual = mcSS.computeTransientBackwardsProbs(ctmc, target, nonAbs, t, null);
+				assertTrue(actual.numIters < expected.numIters);
+				assertEquals(AccuracyLevel.BOUNDED, actual.accuracy.getLevel());
+				assertWithinBound(expected.soln, actual, 1.0);
+
+				expected = mcNoSS.computeInstantaneousRewards(ctmc, rewards, t);
+				actual = mcSS.computeInstantaneousRewards(ctmc, rewards, t);
+				assertTrue(actual.numIters < expected.numIters);
+				assertWithinBound(expected.soln, actual, 6.0);
+
+				expected = mcNoSS.computeCumulativeRewards(ctmc, rewards, t);
+				actual = mcSS.computeCumulativeRewards(ctmc, rewards, t);
+				assertTrue(actual.numIters < expected.numIters);
+				assertWithinBound(expected.soln, actual, 6.0 * t);
+
+				expected = mcNoSS.computeTransientProbs(ctmc, t, initDist.clone());
+				actual = mcSS.computeTransientProbs(ctmc, t, initDist.clone());
+				assertTrue(actual.numIters < expected.numIters);
+				assertWithinBound(expected.soln, actual, 1.0);
+			}
+		}
+	}
+}
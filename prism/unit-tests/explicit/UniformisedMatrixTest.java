@@ -0,0 +1,116 @@
+package explicit;
+
+import static explicit.RandomModels.buildRandomDeadlockCTMC;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import prism.PrismException;
+
+public class UniformisedMatrixTest
+{
+	private static final double EPS = 1e-14;
+
+	private static double[] randomVector(int n, Random random)
+	{
+		double v[] = new double[n];
+		for (int i = 0; i < n; i++) {
+			v[i] = random.nextDouble();
+		}
+		return v;
+	}
+
+	@Test
+	public void testAgainstImplicitUniformisedDTMC() throws PrismException
+	{
+		Random random = new Random(7);
+		for (int numThreads : new int[] { 1, 4 }) {
+			CTMCSimple<Double> ctmc = buildRandomDeadlockCTMC(20000, numThreads);
+			int n = ctmc.getNumStates();
+			BitSet nonAbs = new BitSet();
+			for (int s = 0; s < n; s++) {
+				if (random.nextInt(5) != 0) {
+					nonAbs.set(s);
+				}
+			}
+			double q = ctmc.getDefaultUniformisationRate(nonAbs);
+			DTMC<Double> dtmc = ctmc.buildImplicitUniformisedDTMC(q);
+			double in[] = randomVector(n, random);
+
+			// Backwards, with absorbing states
+			UniformisedMatrix matrix = new UniformisedMatrix(ctmc, q, nonAbs, true, false, numThreads);
+			assertEquals(numThreads > 1, matrix.getNumChunks() > 1);
+			// (entries for absorbing states are not written, so both start as a copy of the input)
+			double expected[] = in.clone();
+			dtmc.mvMult(in, expected, nonAbs, false);
+			double out[] = in.clone();
+			matrix.multiply(in, out);
+			assertArrayEquals(expected, out, EPS);
+
+			// Forwards, with fused sums
+			q = ctmc.getDefaultUniformisationRate();
+			dtmc = ctmc.buildImplicitUniformisedDTMC(q);
+			matrix = new UniformisedMatrix(ctmc, q, null, false, false, numThreads);
+			dtmc.vmMult(in, expected);
+			double sum[] = randomVector(n, random);
+			double sums[][] = { sum.clone(), sum.clone(), sum.clone() };
+			matrix.multiply(in, out, sum, 0.25);
+			assertArrayEquals(expected, out, EPS);
+			matrix.multiply(in, out, sums, new double[] { 0.25, 0.0, 2.0 });
+			assertArrayEquals(expected, out, EPS);
+			for (int i = 0; i < n; i++) {
+				assertEquals(sum[i], sums[0][i], EPS);
+				assertEquals(sums[1][i] + 2.0 * expected[i], sums[2][i], EPS);
+			}
+		}
+	}
+
+	@Test
+	public void testSinglePrecision() throws PrismException
+	{
+		CTMCSimple<Double> ctmc = buildRandomDeadlockCTMC(5000, 3);
+		int n = ctmc.getNumStates();
+		double q = ctmc.getDefaultUniformisationRate();
+		DTMC<Double> dtmc = ctmc.buildImplicitUniformisedDTMC(q);
+		for (boolean backwards : new boolean[] { true, false }) {
+			UniformisedMatrix matrix = new UniformisedMatrix(ctmc, q, null, backwards, true, 1);
+			assertTrue(matrix.isSinglePrecision());
+			// Still stochastic: all-ones vector is preserved (backwards), as is total probability (forwards)
+			double ones[] = new double[n];
+			Arrays.fill(ones, 1.0);
+			double dist[] = new double[n];
+			dist[0] = 1.0;
+			double out[] = new double[n];
+			double expected[] = new double[n];
+			if (backwards) {
+				matrix.multiply(ones, out);
+				assertArrayEquals(ones, out, 1e-12);
+			} else {
+				for (int iter = 0; iter < 100; iter++) {
+					matrix.multiply(dist, out);
+					System.arraycopy(out, 0, dist, 0, n);
+				}
+				double total = 0.0;
+				for (int i = 0; i < n; i++) {
+					total += dist[i];
+				}
+				assertEquals(1.0, total, 1e-12);
+			}
+			// Close to the double precision result
+			double in[] = randomVector(n, new Random(11));
+			if (backwards) {
+				dtmc.mvMult(in, expected, null, false);
+			} else {
+				dtmc.vmMult(in, expected);
+			}
+			matrix.multiply(in, out);
+			assertArrayEquals(expected, out, 1e-6);
+		}
+	}
+}